@@ -5,6 +5,7 @@ import me.srrapero720.waterconfig.api.Control;
 import me.srrapero720.waterconfig.api.annotations.*;
 import me.srrapero720.waterconfig.impl.fields.StringField;
 import org.watermedia.api.util.MediaQuality;
+import org.watermedia.api.util.ScaleFilter;
 
 import java.io.File;
 import java.nio.file.Path;
@@ -44,6 +45,24 @@ public class WaterMediaConfig extends WaterMediaModule {
         @NumberConditions(minInt = 1, math = true)
         public int maxImageSourceSize = 128;
 
+        @Spec.Field
+        @Comment("Use SIMD (Vector API) kernels for the JPEG/VP8 inverse DCT and YUV to RGB conversion")
+        @Comment("Only takes effect when the JVM runs with '--add-modules jdk.incubator.vector' on hardware with 256-bit vectors")
+        @Comment("Decoded pixels are identical either way; disable only to rule the kernels out when troubleshooting")
+        public boolean simd = true;
+
+        @Spec.Field
+        @Comment("Threads decoding the images of CodecsAPI.decodeImages batches (shared by every batch)")
+        @Comment("0 picks half the available processors (at least 2); read once, when the first batch starts")
+        @NumberConditions(minInt = 0, maxInt = 64)
+        public int batchThreads = 0;
+
+        @Spec.Field(suffix = "MB")
+        @Comment("Decoded pixel memory (in MB) that batch decodes may hold until their results are delivered, across every batch")
+        @Comment("Each image is sized from its header before its pixels are decoded and waits its turn until it fits; one image larger than the budget runs alone")
+        @NumberConditions(minInt = 1, maxInt = 8192)
+        public int batchBudget = 256;
+
         @Spec.Field
         @Comment("Related config for PNG codec")
         public final Png png = new Png();
@@ -60,6 +79,10 @@ public class WaterMediaConfig extends WaterMediaModule {
         @Comment("Related config for GIF codec")
         public final Gif gif = new Gif();
 
+        @Spec.Field
+        @Comment("Related config for WEBP codec")
+        public final Webp webp = new Webp();
+
         @Spec(value = "svg", disableStatic = true)
         public static final class Svg {
             @Spec.Field(suffix = "px")
@@ -67,6 +90,18 @@ public class WaterMediaConfig extends WaterMediaModule {
             @Comment("SVG is resolution-independent; the larger raster side is capped to this, preserving aspect ratio (never upscaled)")
             @NumberConditions(minInt = 1, maxInt = 8192, math = true)
             public int maxSize = 512;
+
+            @Spec.Field(suffix = "MB", control = Control.SEEKBAR)
+            @Comment("RAM budget (in MB) for SVG rasters shared between readers of the same document")
+            @Comment("Parsed documents are kept by content, so a new size only re-rasterizes; rendered sizes are reused outright")
+            @Comment("Set to 0 to parse and rasterize every SVG from scratch")
+            @NumberConditions(minInt = 0, maxInt = 1024)
+            public int cacheBudget = 32;
+
+            @Spec.Field
+            @Comment("Build a full mip chain alongside static SVG rasters shown by TxMediaPlayers")
+            @Comment("Level-of-detail and maxSize changes then swap to a prebuilt level instead of staying at the size they were loaded at")
+            public boolean mipChain = true;
         }
 
         @Spec(value = "png", disableStatic = true)
@@ -79,6 +114,11 @@ public class WaterMediaConfig extends WaterMediaModule {
             @Comment("Use the PNG bKGD chunk as the disposal background colour")
             @Comment("When false, transparent disposal is used (recommended for compositing).")
             public boolean useBKGDChunk = false;
+
+            @Spec.Field
+            @Comment("Inflate large PNG images and APNG frames on a helper thread while the decoding thread unfilters and composites")
+            @Comment("Decoded pixels are identical either way")
+            public boolean pipeline = true;
         }
 
         @Spec(value = "vp8", disableStatic = true)
@@ -96,6 +136,23 @@ public class WaterMediaConfig extends WaterMediaModule {
             @Comment("Clamp animation frames whose image descriptor extends beyond the logical screen instead of failing the decode")
             @Comment("When false an out-of-bounds frame throws; when true it is clamped to the canvas (best-effort, may show artifacts)")
             public boolean clampImageDesc = false;
+
+            @Spec.Field
+            @Comment("Number of upcoming animation frames whose LZW data is decompressed in parallel while the current one is composited")
+            @Comment("0 decodes every frame on the reading thread; decoded frames are identical either way")
+            @Comment("Each queued frame holds a copy of its LZW data and its decoded indices, so the depth is capped at 16")
+            @NumberConditions(minInt = 0, maxInt = 16)
+            public int decodeAhead = 4;
+        }
+
+        @Spec(value = "webp", disableStatic = true)
+        public static final class Webp {
+            @Spec.Field
+            @Comment("Number of upcoming animation frames whose VP8/VP8L bitstream is decoded in parallel while the current one is composited")
+            @Comment("0 decodes every frame on the reading thread; decoded frames are identical either way")
+            @Comment("Each queued frame holds its fully decoded pixels, so the depth is capped at 16")
+            @NumberConditions(minInt = 0, maxInt = 16)
+            public int decodeAhead = 4;
         }
     }
 
@@ -116,6 +173,16 @@ public class WaterMediaConfig extends WaterMediaModule {
         @NumberConditions(minInt = 1, math = true)
         public int cacheMaxSize = 1024 * 8;
 
+        @Spec.Field
+        @Comment("Shares one decode budget between every video and animated image player")
+        @Comment("Under load, hidden and low-LOD players drop frames, then decode keyframes only, then pause their video (keeping audio) so visible ones stay smooth")
+        public boolean decodeGovernor = true;
+
+        @Spec.Field(suffix = "cores")
+        @Comment("Decode time all players may spend together before the decode governor degrades some, in CPU cores")
+        @Comment("0 picks three quarters of the available processors; read once, when the first player starts")
+        public float decodeBudget = 0.0f;
+
         @Spec.Field
         @Comment("FFMPEG general settings")
         public final Ffmpeg ffmpeg = new Ffmpeg();
@@ -140,12 +207,38 @@ public class WaterMediaConfig extends WaterMediaModule {
             @Comment("Disable if you experience stutter, lag or black video — software decoding is often smoother on some GPUs (notably AMD)")
             public boolean hardwareAccel = true;
 
+            @Spec.Field
+            @Comment("Hands decoded frames to the graphics engine without copying them first, when the engine supports it")
+            @Comment("Disable if you see corrupted or flickering video frames")
+            public boolean zeroCopy = true;
+
+            @Spec.Field
+            @Comment("Passes packets and frames between FFMediaPlayer threads through lock-free queues instead of locked ones")
+            @Comment("Lowers handoff latency and CPU overhead with many players; applies to players opened afterwards")
+            public boolean lockFreeQueues = false;
+
+            @Spec.Field
+            @Comment("Decodes the audio and video of every FFMediaPlayer on one shared worker pool instead of two threads per player")
+            @Comment("Keeps the thread count flat with many screens; hidden and low-LOD videos decode after the visible ones. Applies to players started afterwards")
+            public boolean sharedDecodePool = false;
+
+            @Spec.Field(suffix = "threads")
+            @Comment("Worker threads of the shared decode pool")
+            @Comment("0 picks one per available processor; read once, when the first player uses the pool")
+            @NumberConditions(minInt = 0, maxInt = 256)
+            public int decodePoolThreads = 0;
+
             @Spec.Field(suffix = "packets", control = Control.SEEKBAR)
             @Comment("Configures how many audio packets read when video has an audio slave")
             @Comment("Increment this value if you find YouTube videos with slow playback")
             @NumberConditions(minInt = 1, maxInt = 12)
             public int slavePacketReads = 3;
 
+            @Spec.Field
+            @Comment("Indexes the keyframes of a video while it plays, so seeks start decoding from the last keyframe before the target")
+            @Comment("The index is stored next to cached files and reused the next time they play")
+            public boolean keyframeIndex = true;
+
             @Spec.Field
             @Comment("Enables the on-disk HTTP media cache used by FFMediaPlayer for small files")
             public boolean cache = true;
@@ -176,7 +269,7 @@ public class WaterMediaConfig extends WaterMediaModule {
             public boolean cache = true;
 
             @Spec.Field
-            @Comment("Enables the on-disk BC7/DDS codec cache used by TxMediaPlayer")
+            @Comment("Enables the on-disk BC/DDS codec cache used by TxMediaPlayer")
             @Comment("Decoded frames are recompressed to GPU block-compressed textures (DDS) so replays skip the decode and use a quarter of the VRAM")
             @Comment("Requires GPU block-compression support; ignored when the BC codecs are unavailable")
             public boolean codecCache = false;
@@ -187,6 +280,18 @@ public class WaterMediaConfig extends WaterMediaModule {
             @Comment("Set to 0 to force TxMediaPlayer to stream animated image frames into a single texture")
             @NumberConditions(minInt = 0, maxInt = 512)
             public int texturesBudget = 32;
+
+            @Spec.Field(suffix = "MB", control = Control.SEEKBAR)
+            @Comment("RAM budget (in MB) for decoded animated-image frames shared between TxMediaPlayers")
+            @Comment("Players showing the same image reuse one decode and one set of frame buffers; least recently used sets are dropped past this budget")
+            @Comment("Set to 0 to make every player decode its own copy")
+            @NumberConditions(minInt = 0, maxInt = 2048)
+            public int framesBudget = 128;
+
+            @Spec.Field(control = Control.DROPDOWN)
+            @Comment("Resampling filter used when TxMediaPlayer downscales frames for maxSize/LOD")
+            @Comment("BOX averages every covered pixel (fastest), BILINEAR is slightly softer, LANCZOS keeps the most detail at the highest cost")
+            public ScaleFilter scaleFilter = ScaleFilter.BOX;
         }
     }
 
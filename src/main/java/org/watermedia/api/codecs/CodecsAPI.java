@@ -20,6 +20,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Locale;
 
 import static org.watermedia.WaterMedia.LOGGER;
@@ -178,24 +181,45 @@ public final class CodecsAPI extends WaterMediaModule {
      * @throws IOException                on malformed bitstream
      */
     public static ImageReader decodeImage(final ByteBuffer source, final PixelFormat requestedFormat) throws IOException {
+        return decodeImage(source, requestedFormat, 0, 0);
+    }
+
+    /**
+     * Opens an {@link ImageReader} like {@link #decodeImage(ByteBuffer, PixelFormat)}, with a hint
+     * that the caller only needs about {@code targetWidth x targetHeight} pixels. Readers that can
+     * decode cheaper at a reduced size (JPEG, interlaced PNG, GIF, lossless or animated WebP, SVG)
+     * deliver frames no smaller than the hint on each non-zero axis; the rest (NetPBM, lossy WebP)
+     * decode at full size. {@link ImageReader#width()} and
+     * {@link ImageReader#height()} report the delivered size either way.
+     *
+     * @param targetWidth  hinted width in pixels, or {@code 0} for no constraint
+     * @param targetHeight hinted height in pixels, or {@code 0} for no constraint
+     * @throws UnsupportedFormatException if the leading bytes don't match any supported format
+     * @throws IOException                on malformed bitstream
+     */
+    public static ImageReader decodeImage(final ByteBuffer source, final PixelFormat requestedFormat,
+                                          final int targetWidth, final int targetHeight) throws IOException {
         if (source == null) throw new NullPointerException("source");
+        if (targetWidth < 0 || targetHeight < 0) {
+            throw new IllegalArgumentException("Negative size hint: " + targetWidth + "x" + targetHeight);
+        }
         final int start = source.position();
 
         if (DataTool.startsWith(source, start, PNG_HEADER)) {
             source.position(start + PNG_HEADER.length);
-            return new PNGReader(source);
+            return new PNGReader(source, targetWidth, targetHeight);
         }
         if (DataTool.startsWith(source, start, JPEG_HEADER)) {
             source.position(start + JPEG_HEADER.length);
-            return new JPEGReader(source, requestedFormat);
+            return new JPEGReader(source, requestedFormat, targetWidth, targetHeight);
         }
         if (DataTool.startsWith(source, start, GIF87_HEADER) || DataTool.startsWith(source, start, GIF89_HEADER)) {
             source.position(start + GIF89_HEADER.length);
-            return new GIFReader(source);
+            return new GIFReader(source, targetWidth, targetHeight);
         }
         if (DataTool.startsWith(source, start, RIFF_HEADER) && DataTool.startsWith(source, start + 8, WEBP_HEADER)) {
             source.position(start + 12);
-            return new WEBPReader(source, requestedFormat);
+            return new WEBPReader(source, requestedFormat, targetWidth, targetHeight);
         }
         if (source.limit() - start >= 2 && source.get(start) == 'P') {
             final int version = source.get(start + 1) & 0xFF;
@@ -207,7 +231,7 @@ public final class CodecsAPI extends WaterMediaModule {
         if (looksLikeSvg(probeText(source, start))) {
             // SVG HAS NO FIXED HEADER — THE WHOLE DOCUMENT IS THE BODY, SO LEAVE THE POSITION AT start
             source.position(start);
-            return new SVGReader(source, requestedFormat);
+            return new SVGReader(source, requestedFormat, targetWidth, targetHeight);
         }
 
         source.position(start);
@@ -240,6 +264,40 @@ public final class CodecsAPI extends WaterMediaModule {
         }
     }
 
+    /**
+     * Decodes many sources concurrently, like {@link #decodeImage(ByteBuffer, PixelFormat, int, int)}
+     * followed by {@link ImageReader#readAll()} on each, without blocking the caller. Sources run on a
+     * pool shared by every batch, and each is admitted against a shared pixel-memory budget once its
+     * header is parsed; see {@link ImageBatch}. The source buffers are only read, never moved.
+     *
+     * @param sources         encoded images, each from its position to its limit
+     * @param requestedFormat desired output pixel format, or {@code null} for each reader's native layout
+     * @param targetWidth     hinted width in pixels, or {@code 0} for no constraint
+     * @param targetHeight    hinted height in pixels, or {@code 0} for no constraint
+     * @return the running batch; results arrive per source or in completion order
+     */
+    public static ImageBatch decodeImages(final List<ByteBuffer> sources, final PixelFormat requestedFormat,
+                                          final int targetWidth, final int targetHeight) {
+        if (sources == null) throw new NullPointerException("sources");
+        if (targetWidth < 0 || targetHeight < 0) {
+            throw new IllegalArgumentException("Negative size hint: " + targetWidth + "x" + targetHeight);
+        }
+        return new ImageBatch(sources, requestedFormat, targetWidth, targetHeight);
+    }
+
+    /**
+     * @see #decodeImages(List, PixelFormat, int, int)
+     * @param sources         encoded images
+     * @param requestedFormat desired output pixel format, or {@code null} for each reader's native layout
+     * @return the running batch
+     */
+    public static ImageBatch decodeImages(final Collection<byte[]> sources, final PixelFormat requestedFormat) {
+        if (sources == null) throw new NullPointerException("sources");
+        final List<ByteBuffer> buffers = new ArrayList<>(sources.size());
+        for (final byte[] data: sources) buffers.add(ByteBuffer.wrap(data));
+        return decodeImages(buffers, requestedFormat, 0, 0);
+    }
+
     /**
      * Sniffs the {@link MediaType} of a stream by matching its leading bytes against the known
      * container, codec and raw-format signatures across images, video and audio. This is the
@@ -415,8 +473,9 @@ public final class CodecsAPI extends WaterMediaModule {
     /**
      * Reports whether a codec is available in this runtime. Pure-Java image codecs
      * ({@link #CODEC_PNG}, {@link #CODEC_JPEG}, {@link #CODEC_GIF}, {@link #CODEC_WEBP},
-     * {@link #CODEC_NETPBM}, {@link #CODEC_SVG}) are always present. GPU block-compression codecs depend on the native
-     * library probed at {@link #start(WaterMedia)}: pass {@link #CODEC_BC} to ask whether
+     * {@link #CODEC_NETPBM}, {@link #CODEC_SVG}) are always present. GPU block-compression codecs BC3 and BC1 are
+     * always present through the pure-Java encoder; BC7 depends on the native library probed at
+     * {@link #start(WaterMedia)}. Pass {@link #CODEC_BC} to ask whether
      * <i>any</i> BC version is available, or a specific id ({@link #CODEC_BC7}, {@link #CODEC_BC3},
      * {@link #CODEC_BC1}) to test that exact version.
      *
@@ -459,7 +518,7 @@ public final class CodecsAPI extends WaterMediaModule {
         if (BCCodec.any()) {
             LOGGER.info(IT, "Block-compression codecs available (best: {})", BCCodec.best());
         } else {
-            LOGGER.info(IT, "No block-compression codecs available (native BC bindings absent)");
+            LOGGER.info(IT, "No block-compression codecs available");
         }
         return true;
     }
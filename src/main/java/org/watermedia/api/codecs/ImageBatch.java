@@ -0,0 +1,361 @@
+package org.watermedia.api.codecs;
+
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.MarkerManager;
+import org.watermedia.WaterMediaConfig;
+import org.watermedia.api.util.PixelFormat;
+import org.watermedia.tools.ThreadTool;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.watermedia.WaterMedia.LOGGER;
+
+/**
+ * A set of images decoded concurrently, started by {@link CodecsAPI#decodeImages(List, PixelFormat, int, int)}.
+ * <p>
+ * Every source is decoded to a detached {@link ImageData} on a pool shared by all batches and sized by
+ * {@code decoders.batchThreads}. Opening a reader only parses the header, so before any pixel is
+ * decoded each image is sized from it — delivered frame size times frame count, in the layout the
+ * reader picked — and admitted against {@code decoders.batchBudget}, a byte budget shared by every
+ * batch. An image that does not fit waits for earlier images to be delivered, so hundreds of large
+ * sources arriving at once never hold more than the budget; one image larger than the whole budget is
+ * admitted alone. Images are admitted first come, first served across every batch, so a large image
+ * never starves behind a stream of small ones.
+ * <p>
+ * A decoded image keeps its admission until it is delivered: when {@link #take()} or {@link #stream()}
+ * hands it out, or as soon as it completes for a source whose {@link #future(int)} was asked for.
+ * Results nobody consumes therefore hold back later decodes instead of piling up in memory, and
+ * {@link #close()} returns the admission of every result not yet delivered. A delivered
+ * {@link ImageData} belongs to the caller.
+ * <p>
+ * A source that fails to decode yields a {@link Result} carrying the error instead of failing its
+ * siblings, so every batch produces exactly {@link #size()} results. {@link #stats()} reports progress
+ * and throughput at any time.
+ */
+public final class ImageBatch implements AutoCloseable {
+    private static final Marker IT = MarkerManager.getMarker(ImageBatch.class.getSimpleName());
+    private static final ExecutorService POOL = Executors.newFixedThreadPool(threads(),
+            ThreadTool.createFactory("CodecsAPI-Batch", Thread.NORM_PRIORITY - 1));
+
+    // BYTES ADMITTED ACROSS EVERY BATCH AND NOT YET RELEASED, AND THE ADMISSION QUEUE: EVERY SOURCE DRAWS A
+    // TICKET WHEN IT IS SUBMITTED AND IS ADMITTED (OR SKIPPED) IN TICKET ORDER. GUARDED BY THE ImageBatch.class
+    // MONITOR
+    private static long inFlight;
+    private static long nextTicket;
+    private static long admitTicket;
+    private static final Set<Long> SKIPPED = new HashSet<>();
+
+    private final List<CompletableFuture<Result>> futures;
+    private final BlockingQueue<Result> completed = new LinkedBlockingQueue<>();
+    private final long startNanos = System.nanoTime();
+    private final AtomicInteger done = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicLong sourceBytes = new AtomicLong();
+    private final AtomicLong decodedBytes = new AtomicLong();
+    private final AtomicLong endNanos = new AtomicLong();
+    private int taken;
+    private volatile boolean closed;
+    // PER SOURCE: BYTES ADMITTED FOR A COMPLETED, UNDELIVERED IMAGE, AND WHETHER ITS FUTURE WAS ASKED FOR.
+    // GUARDED BY THIS BATCH'S MONITOR, TAKEN BEFORE THE ImageBatch.class ONE
+    private final long[] held;
+    private final boolean[] claimed;
+    private boolean released;
+
+    ImageBatch(final List<ByteBuffer> sources, final PixelFormat requestedFormat, final int targetWidth, final int targetHeight) {
+        final List<CompletableFuture<Result>> futures = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            final ByteBuffer source = sources.get(i);
+            if (source == null) throw new NullPointerException("sources[" + i + "]");
+            futures.add(new CompletableFuture<>());
+        }
+        this.futures = Collections.unmodifiableList(futures);
+        this.held = new long[sources.size()];
+        this.claimed = new boolean[sources.size()];
+        if (sources.isEmpty()) this.endNanos.set(this.startNanos);
+        // TICKETS ARE DRAWN IN SUBMISSION ORDER, SO THE FIFO POOL STARTS EVERY SOURCE BEFORE ANY LATER ONE WAITS
+        // FOR ITS TURN AND A WAITING THREAD NEVER BLOCKS ON A TICKET WHOSE TASK IS STILL QUEUED
+        synchronized (ImageBatch.class) {
+            for (int i = 0; i < sources.size(); i++) {
+                final int index = i;
+                final long ticket = nextTicket++;
+                // DUPLICATE SO THE READERS NEVER MOVE THE CALLER'S BUFFERS
+                final ByteBuffer source = sources.get(i).duplicate();
+                POOL.execute(() -> this.finish(this.decode(index, ticket, source, requestedFormat, targetWidth, targetHeight)));
+            }
+        }
+    }
+
+    /** Number of sources in this batch, and of results it will produce. */
+    public int size() {
+        return this.futures.size();
+    }
+
+    /**
+     * Result of the source at {@code index}, in the order the sources were given. Never completes
+     * exceptionally. Asking for the future delivers the result: its image stops counting against the
+     * budget once it completes, and {@link #take()} no longer returns it.
+     */
+    public CompletableFuture<Result> future(final int index) {
+        final CompletableFuture<Result> future = this.futures.get(index);
+        this.claim(index);
+        return future;
+    }
+
+    /** Every result future, in source order. Delivers every result, as {@link #future(int)} does. */
+    public List<CompletableFuture<Result>> futures() {
+        for (int i = 0; i < this.size(); i++) this.claim(i);
+        return this.futures;
+    }
+
+    /**
+     * Waits for the next result in completion order and delivers it.
+     *
+     * @return the next result, or {@code null} once all {@link #size()} results were taken
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Result take() throws InterruptedException {
+        synchronized (this.completed) {
+            if (this.taken == this.size()) return null;
+            final Result result = this.completed.take();
+            this.taken++;
+            this.deliver(result.index);
+            return result;
+        }
+    }
+
+    /**
+     * The results not yet {@link #take() taken}, in completion order. The stream blocks while the next
+     * result is still decoding; an interrupt ends it with a {@link CancellationException} and leaves the
+     * thread's interrupt status set.
+     */
+    public Stream<Result> stream() {
+        final int remaining;
+        synchronized (this.completed) {
+            remaining = this.size() - this.taken;
+        }
+        return Stream.generate(() -> {
+            try {
+                return this.take();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for a batch result");
+            }
+        }).limit(remaining);
+    }
+
+    /** Progress and throughput so far. */
+    public Stats stats() {
+        final long end = this.endNanos.get();
+        return new Stats(this.size(), this.done.get(), this.failed.get(), this.sourceBytes.get(), this.decodedBytes.get(),
+                (end != 0L ? end : System.nanoTime()) - this.startNanos);
+    }
+
+    /**
+     * Cancels every source whose decode has not started yet; they complete with a
+     * {@link CancellationException} as their error. Decodes already running finish normally. Returns
+     * the budget held by results not yet delivered, and by those still decoding once they complete;
+     * they stay reachable through {@link #take()} and the futures.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        synchronized (this) {
+            this.released = true;
+            for (int i = 0; i < this.held.length; i++) this.drop(i);
+        }
+    }
+
+    private Result decode(final int index, final long ticket, final ByteBuffer source, final PixelFormat requestedFormat,
+                          final int targetWidth, final int targetHeight) {
+        final long start = System.nanoTime();
+        final long queued = start - this.startNanos;
+        final long bytes = source.remaining();
+        if (this.closed) {
+            skip(ticket);
+            return new Result(index, null, new CancellationException("Batch closed"), bytes, 0L, queued, 0L);
+        }
+        boolean queuedForBudget = true;
+        long admitted = 0L;
+        long waited = 0L;
+        try (final ImageReader reader = CodecsAPI.decodeImage(source, requestedFormat, targetWidth, targetHeight)) {
+            final long estimate = estimate(reader);
+            final long admission = System.nanoTime();
+            queuedForBudget = false; // acquire() TAKES OR SKIPS THE TICKET ITSELF, EVEN WHEN INTERRUPTED
+            acquire(ticket, estimate);
+            admitted = estimate;
+            waited = System.nanoTime() - admission;
+            final ImageData image = reader.readAll();
+            long decoded = 0L;
+            for (final ByteBuffer frame: image.frames()) decoded += frame.remaining();
+            // THE READER'S CANVAS IS GONE WITH IT; ONLY THE DELIVERED FRAMES STAY ADMITTED UNTIL DELIVERY
+            final long kept = Math.min(decoded, admitted);
+            synchronized (this) {
+                this.held[index] = kept;
+            }
+            admitted -= kept;
+            return new Result(index, image, null, bytes, decoded, queued + waited, System.nanoTime() - start - waited);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(index, null, new CancellationException("Interrupted while waiting for the decode budget"),
+                    bytes, 0L, queued, System.nanoTime() - start);
+        } catch (final Exception e) {
+            return new Result(index, null, e, bytes, 0L, queued + waited, System.nanoTime() - start - waited);
+        } catch (final StackOverflowError | OutOfMemoryError e) {
+            // A HOSTILE SOURCE MUST NOT LEAVE ITS FUTURE PENDING FOREVER; THE OTHER SOURCES CARRY ON
+            return new Result(index, null, new XCodecException("Decoder failed: " + e, e), bytes, 0L,
+                    queued + waited, System.nanoTime() - start - waited);
+        } finally {
+            if (queuedForBudget) skip(ticket);
+            if (admitted > 0L) release(admitted);
+        }
+    }
+
+    private void finish(final Result result) {
+        this.sourceBytes.addAndGet(result.sourceBytes);
+        this.decodedBytes.addAndGet(result.decodedBytes);
+        if (result.error != null) {
+            this.failed.incrementAndGet();
+            if (!(result.error instanceof CancellationException)) {
+                LOGGER.debug(IT, "Failed to decode batch source {}", result.index, result.error);
+            }
+        }
+        final int count = this.done.incrementAndGet();
+        if (count == this.size()) {
+            this.endNanos.set(System.nanoTime());
+            final Stats stats = this.stats();
+            LOGGER.debug(IT, "Decoded {} images ({} failed) in {}ms: {} images/s, {} MB/s", stats.total, stats.failed,
+                    stats.elapsedNanos / 1_000_000L, String.format("%.1f", stats.imagesPerSecond()),
+                    String.format("%.1f", stats.megabytesPerSecond()));
+        }
+        // A RESULT WHOSE FUTURE WAS ASKED FOR, OR COMPLETING AFTER close(), IS DELIVERED RIGHT AWAY
+        synchronized (this) {
+            if (this.released || this.claimed[result.index]) this.drop(result.index);
+        }
+        // QUEUE FIRST, SO A CALLER CHAINED ON THE FUTURE ALREADY SEES THE RESULT IN take()
+        this.completed.add(result);
+        this.futures.get(result.index).complete(result);
+    }
+
+    private synchronized void claim(final int index) {
+        this.claimed[index] = true;
+        this.drop(index);
+    }
+
+    private synchronized void deliver(final int index) {
+        this.drop(index);
+    }
+
+    // RETURNS THE ADMISSION OF A COMPLETED IMAGE; A NO-OP FOR ONE STILL DECODING (finish() DROPS IT) OR FAILED
+    private void drop(final int index) {
+        final long bytes = this.held[index];
+        if (bytes == 0L) return;
+        this.held[index] = 0L;
+        release(bytes);
+    }
+
+    // PIXEL BYTES readAll() WILL RETAIN, PLUS ONE FRAME FOR THE READER'S OWN CANVAS; readAll() REJECTS
+    // ANYTHING OVER MAX_DECODED_BYTES, SO NO HEADER CAN CLAIM MORE THAN THAT
+    private static long estimate(final ImageReader reader) {
+        final long frame = reader.pixelFormat().frameBytes(reader.width(), reader.height());
+        final long frames = Math.max(1, reader.frameCount());
+        return Math.max(1L, Math.min(frame * frames, ImageReader.MAX_DECODED_BYTES) + frame);
+    }
+
+    // BLOCKS UNTIL ticket IS THE OLDEST WAITING SOURCE AND bytes FIT UNDER THE BUDGET; WITH NOTHING ADMITTED ANY
+    // SIZE IS ADMITTED, SO EVERY WAIT IS ON IMAGES THAT WILL BE DELIVERED. LATER TICKETS WAIT BEHIND AN IMAGE
+    // THAT DOES NOT FIT YET INSTEAD OF SLIPPING PAST IT. AN INTERRUPTED WAIT GIVES UP ITS TURN.
+    private static synchronized void acquire(final long ticket, final long bytes) throws InterruptedException {
+        try {
+            while (ticket != admitTicket || (inFlight > 0L && inFlight + bytes > budget())) {
+                ImageBatch.class.wait();
+            }
+        } catch (final InterruptedException e) {
+            skip(ticket);
+            throw e;
+        }
+        inFlight += bytes;
+        advance();
+    }
+
+    // GIVES UP THE TURN OF A SOURCE THAT NEVER REACHES acquire() (CLOSED, UNREADABLE HEADER)
+    private static synchronized void skip(final long ticket) {
+        if (ticket == admitTicket) {
+            advance();
+        } else {
+            SKIPPED.add(ticket);
+        }
+    }
+
+    private static void advance() {
+        admitTicket++;
+        while (SKIPPED.remove(admitTicket)) admitTicket++;
+        ImageBatch.class.notifyAll();
+    }
+
+    private static synchronized void release(final long bytes) {
+        inFlight -= bytes;
+        ImageBatch.class.notifyAll();
+    }
+
+    private static long budget() {
+        return Math.max(1L, WaterMediaConfig.decoders.batchBudget) * 1024L * 1024L;
+    }
+
+    private static int threads() {
+        final int configured = WaterMediaConfig.decoders.batchThreads;
+        return configured > 0 ? configured : ThreadTool.halfLeastThreads(2);
+    }
+
+    /**
+     * Outcome of one source.
+     *
+     * @param index        position of the source in the batch
+     * @param image        the decoded image, or {@code null} when {@code error} is set
+     * @param error        why the source produced no image: the decode failure, or a {@link CancellationException}
+     *                     when the batch was closed or the decode interrupted first
+     * @param sourceBytes  encoded bytes of the source
+     * @param decodedBytes pixel bytes of every decoded frame
+     * @param waitNanos    time spent queued for a pool thread and for the decode budget
+     * @param decodeNanos  time spent parsing and decoding
+     */
+    public record Result(int index, ImageData image, Exception error, long sourceBytes, long decodedBytes,
+                         long waitNanos, long decodeNanos) {
+        public boolean success() {
+            return this.error == null;
+        }
+    }
+
+    /**
+     * Batch progress.
+     *
+     * @param elapsedNanos time since the batch started, up to its last result once all completed
+     */
+    public record Stats(int total, int completed, int failed, long sourceBytes, long decodedBytes, long elapsedNanos) {
+        public boolean finished() {
+            return this.completed == this.total;
+        }
+
+        public double imagesPerSecond() {
+            return this.elapsedNanos == 0L ? 0.0 : this.completed * 1e9 / this.elapsedNanos;
+        }
+
+        /** Decoded pixel bytes per second, in MiB. */
+        public double megabytesPerSecond() {
+            return this.elapsedNanos == 0L ? 0.0 : this.decodedBytes * 1e9 / this.elapsedNanos / (1024.0 * 1024.0);
+        }
+    }
+}
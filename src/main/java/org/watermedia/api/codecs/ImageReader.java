@@ -21,6 +21,14 @@ import java.util.List;
  * {@link ByteBuffer} laid out in {@link #pixelFormat()}.
  * The buffer is owned by the reader and reused across calls; if the caller needs to retain a
  * previous frame, it must copy the bytes out before the next {@code next()} call.
+ *
+ * <p>Callers that will downscale anyway may pass a <em>size hint</em> through
+ * {@link CodecsAPI#decodeImage(ByteBuffer, PixelFormat, int, int)}. A reader that can decode
+ * cheaper at a reduced size (JPEG DCT scaling, interlaced PNG passes, nearest-sampled GIF/WebP
+ * compositing, direct SVG rasterization) delivers frames no smaller than the hint on each
+ * constrained axis; {@link #width()}/{@link #height()} always report the delivered size and
+ * {@link #sourceWidth()}/{@link #sourceHeight()} the size the image declares. Readers without a
+ * cheap reduction ignore the hint.
  */
 public abstract class ImageReader implements Closeable {
     /**
@@ -34,14 +42,26 @@ public abstract class ImageReader implements Closeable {
 
     protected final ByteBuffer data;
     protected final PixelFormat requestedFormat;
+    // SIZE HINT IN PIXELS; 0 LEAVES THAT AXIS UNCONSTRAINED
+    protected final int targetWidth;
+    protected final int targetHeight;
     protected ByteBuffer currentFrame;
     protected long currentDelay;
 
     protected ImageReader(final ByteBuffer data) { this(data, null); }
 
     protected ImageReader(final ByteBuffer data, final PixelFormat requestedFormat) {
+        this(data, requestedFormat, 0, 0);
+    }
+
+    protected ImageReader(final ByteBuffer data, final PixelFormat requestedFormat, final int targetWidth, final int targetHeight) {
+        if (targetWidth < 0 || targetHeight < 0) {
+            throw new IllegalArgumentException("Negative size hint: " + targetWidth + "x" + targetHeight);
+        }
         this.data = data.slice();
         this.requestedFormat = requestedFormat;
+        this.targetWidth = targetWidth;
+        this.targetHeight = targetHeight;
     }
 
     /** Format short name (e.g. {@code "PNG"}, {@code "GIF"}). */
@@ -52,12 +72,42 @@ public abstract class ImageReader implements Closeable {
                 : simpleName;
     }
 
-    /** Image width in pixels. Available immediately after construction. */
+    /** Delivered frame width in pixels. Available immediately after construction. */
     public abstract int width();
 
-    /** Image height in pixels. Available immediately after construction. */
+    /** Delivered frame height in pixels. Available immediately after construction. */
     public abstract int height();
 
+    /**
+     * Width the image itself declares, before any reduction for the size hint. Equal to
+     * {@link #width()} unless the reader decoded at a reduced size.
+     */
+    public int sourceWidth() { return this.width(); }
+
+    /**
+     * Height the image itself declares, before any reduction for the size hint. Equal to
+     * {@link #height()} unless the reader decoded at a reduced size.
+     */
+    public int sourceHeight() { return this.height(); }
+
+    /**
+     * Largest power-of-two decimation step, up to {@code maxStep}, whose frame still covers the size
+     * hint on every constrained axis; {@code 1} without a hint. For readers whose cheap reduction keeps
+     * every {@code step}-th pixel of every {@code step}-th row (interlace passes, nearest sampling), so
+     * the delivered frame is {@code ceil(width / step) x ceil(height / step)}.
+     */
+    protected final int reductionStep(final int width, final int height, final int maxStep) {
+        if (this.targetWidth <= 0 && this.targetHeight <= 0) return 1;
+        int step = 1;
+        while (step < maxStep) {
+            final int next = step << 1;
+            if (this.targetWidth > 0 && (width + next - 1) / next < this.targetWidth) break;
+            if (this.targetHeight > 0 && (height + next - 1) / next < this.targetHeight) break;
+            step = next;
+        }
+        return step;
+    }
+
     /**
      * Pixel layout of the buffer(s) returned by {@link #next()} / {@link #plane(int)}. The reader
      * chooses this layout based on the {@code requestedFormat} passed at construction time:
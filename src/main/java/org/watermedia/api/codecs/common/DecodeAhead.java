@@ -0,0 +1,166 @@
+package org.watermedia.api.codecs.common;
+
+import org.watermedia.api.codecs.XCodecException;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Decode-ahead queue of an animated image reader: frames read past the one just returned, each with the
+ * independent part of its decode (GIF LZW, WebP bitstream) already running on the common pool while the
+ * reader composites the current one. Compositing stays ordered on the reading thread, so output is
+ * identical to decoding every frame inline.
+ * <p>
+ * A read or scan error ends the look-ahead and is queued in the frame's place, so it surfaces in order,
+ * from {@link #hasNext()} or {@link #poll()} as the serial path would have thrown it. Not thread-safe:
+ * the reader owns it.
+ * @param <F> a frame as read from the stream, holding its own copy of whatever its decode needs
+ * @param <R> the result of a frame's pool decode
+ */
+public final class DecodeAhead<F, R> {
+    // SMALLER FRAMES DECODE INLINE; THE HANDOFF COSTS MORE
+    private static final int MIN_PIXELS = 1 << 14;
+
+    private final String what;
+    private final ToIntFunction<F> pixels;
+    private final Function<F, Callable<R>> decode;
+    private final ArrayDeque<Queued<F, R>> queue = new ArrayDeque<>();
+
+    /**
+     * @param what the decode run on the pool, for error messages (e.g. {@code "GIF LZW"})
+     * @param pixels pixel count of a frame; smaller frames are left to the reader to decode inline
+     * @param decode the pool decode of a frame, created on the reading thread when the frame is queued
+     */
+    public DecodeAhead(final String what, final ToIntFunction<F> pixels, final Function<F, Callable<R>> decode) {
+        this.what = what;
+        this.pixels = pixels;
+        this.decode = decode;
+    }
+
+    /**
+     * Reads frames until {@code depth} are queued, starting the pool decode of the large ones.
+     * @param depth how many frames to keep queued; 0 or less reads nothing
+     * @param scan finds the next frame in the stream
+     * @param read reads the frame the scan found
+     * @return false if an error ended the look-ahead; the reader must not scan any further
+     */
+    public boolean fill(final int depth, final Scan scan, final Read<F> read) {
+        while (this.queue.size() < depth) {
+            try {
+                if (!scan.next()) return true;
+            } catch (final XCodecException e) {
+                this.queue.add(new Queued<>(null, null, this.what, e, true));
+                return false;
+            }
+            try {
+                final F frame = read.next();
+                FutureTask<R> result = null;
+                if (this.pixels.applyAsInt(frame) >= MIN_PIXELS) {
+                    result = new FutureTask<>(this.decode.apply(frame));
+                    ForkJoinPool.commonPool().execute(result);
+                }
+                this.queue.add(new Queued<>(frame, result, this.what, null, false));
+            } catch (final XCodecException e) {
+                this.queue.add(new Queued<>(null, null, this.what, e, false));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether a frame is queued. An error hit while looking for a frame surfaces here, where the scan
+     * would have thrown it.
+     * @return false when nothing is queued and the reader has to scan the stream itself
+     * @throws XCodecException the queued scan error
+     */
+    public boolean hasNext() throws XCodecException {
+        final Queued<F, R> head = this.queue.peek();
+        if (head == null) return false;
+        if (head.frame == null && head.scanError) {
+            this.queue.poll();
+            throw head.error;
+        }
+        return true;
+    }
+
+    /**
+     * Takes the next queued frame.
+     * @return the frame, or null when nothing is queued
+     * @throws XCodecException the error that ended the look-ahead in this frame's place
+     */
+    public Queued<F, R> poll() throws XCodecException {
+        final Queued<F, R> head = this.queue.poll();
+        if (head != null && head.error != null) throw head.error;
+        return head;
+    }
+
+    /** Drops every queued frame. Decodes still queued on the pool never start; running ones only touch their own frame. */
+    public void clear() {
+        for (final Queued<F, R> frame: this.queue) {
+            if (frame.result != null) frame.result.cancel(false);
+        }
+        this.queue.clear();
+    }
+
+    /** Finds the next frame in the stream. */
+    @FunctionalInterface
+    public interface Scan {
+        /** @return false at the end of the stream */
+        boolean next() throws XCodecException;
+    }
+
+    /** Reads the frame a {@link Scan} found, copying out whatever its decode needs. */
+    @FunctionalInterface
+    public interface Read<F> {
+        F next() throws XCodecException;
+    }
+
+    /** A frame read ahead of its turn, with its pool decode when it was large enough for one. */
+    public static final class Queued<F, R> {
+        private final F frame;
+        private final FutureTask<R> result;
+        private final String what;
+        private final XCodecException error;
+        private final boolean scanError; // THROWN BY hasNext() RATHER THAN poll()
+
+        private Queued(final F frame, final FutureTask<R> result, final String what, final XCodecException error,
+                       final boolean scanError) {
+            this.frame = frame;
+            this.result = result;
+            this.what = what;
+            this.error = error;
+            this.scanError = scanError;
+        }
+
+        public F frame() {
+            return this.frame;
+        }
+
+        /**
+         * Waits for the pool decode.
+         * @return the decoded frame, or null when it is too small for the pool and must decode inline
+         * @throws XCodecException if the decode failed or the reading thread was interrupted
+         */
+        public R result() throws XCodecException {
+            if (this.result == null) return null;
+            // A DECODE NO POOL THREAD HAS PICKED UP YET RUNS HERE (run() IS A NO-OP ONCE STARTED), SO A BUSY
+            // OR ONE-THREAD POOL NEVER STALLS THE READER
+            this.result.run();
+            try {
+                return this.result.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new XCodecException(this.what + " decode interrupted", e);
+            } catch (final ExecutionException e) {
+                if (e.getCause() instanceof final XCodecException x) throw x;
+                throw new XCodecException(this.what + " decode failed", e.getCause());
+            }
+        }
+    }
+}
@@ -6,7 +6,7 @@ import org.watermedia.api.util.PixelFormat;
 import java.nio.ByteBuffer;
 
 /**
- * Native block-compression (BCn) codec — the engine behind the BC reader/writer.
+ * Block-compression (BCn) codec — the engine behind the BC reader/writer.
  *
  * <p>This class owns the GPU texture-compression family the same way the WebP VP8/VP8L decoders
  * own WebP: it is the <i>codec</i>, independent of the DDS <i>container</i> that stores its output
@@ -17,28 +17,33 @@ import java.nio.ByteBuffer;
  * <p>Versions are ranked BC7 &gt; BC3 &gt; BC1 by quality. The encoder picks the {@link #best()}
  * available version unless a specific one is requested; either way the caller validates with
  * {@link #available(String)} before encoding.
+ *
+ * <p>BC3 and BC1 are always available through a pure-Java, fork/join-parallel encoder, so the
+ * codec cache works without any native library; a native library, once linked, only adds BC7.
  */
 public final class BCCodec {
 
     // RESOLVED ONCE BY init(); volatile SO PLAYER/DECODE THREADS SEE THE PROBED STATE.
+    // BC3/BC1 NEED NO PROBE: THE PURE-JAVA FALLBACK ENCODES THEM FROM CLASS LOAD ON.
     private static volatile boolean bc7;
-    private static volatile boolean bc3;
-    private static volatile boolean bc1;
+    private static volatile boolean bc3 = true;
+    private static volatile boolean bc1 = true;
 
     private BCCodec() {}
 
     /**
      * Probes the native block-compression library. Called once from {@code CodecsAPI.start()}.
      *
-     * <p>The JNI bindings are pending, so no version is reported available yet. When the native
-     * library ships, load it here and set each flag from its capability query — the rest of the
-     * pipeline (availability, reader/writer, codec cache) activates automatically.
+     * <p>The JNI bindings are pending, so BC7 is not reported available yet; BC3 and BC1 are served
+     * by the pure-Java encoder regardless. When the native library ships, load it here and set
+     * {@code bc7} from its capability query — the rest of the pipeline (availability, reader/writer,
+     * codec cache) picks it up automatically.
      */
     public static void init() {
-        // NATIVE BC BINDINGS NOT YET LINKED — NOTHING AVAILABLE.
+        // NATIVE BC BINDINGS NOT YET LINKED — ONLY THE PURE-JAVA VERSIONS.
         bc7 = false;
-        bc3 = false;
-        bc1 = false;
+        bc3 = true;
+        bc1 = true;
     }
 
     /** Whether a specific BC version ({@link CodecsAPI#CODEC_BC7}/{@code BC3}/{@code BC1}) is available. */
@@ -57,7 +62,7 @@ public final class BCCodec {
         return bc7 || bc3 || bc1;
     }
 
-    /** Highest-quality available version, or {@code null} when no native BC support is present. */
+    /** Highest-quality available version, or {@code null} when no BC support is present. */
     public static String best() {
         if (bc7) return CodecsAPI.CODEC_BC7;
         if (bc3) return CodecsAPI.CODEC_BC3;
@@ -70,14 +75,22 @@ public final class BCCodec {
      *
      * <p>The frame is read from {@code frame.position()} and holds {@code width * height} pixels in
      * {@code format}; dimensions that are not multiples of four are padded internally to the block
-     * grid. The frame's position is left unchanged.
+     * grid. The frame's position is left unchanged. {@code format} must be a packed
+     * {@link PixelFormat#BGRA}, {@link PixelFormat#RGBA}, {@link PixelFormat#GBRA} or
+     * {@link PixelFormat#RGB} layout.
      *
      * @return a buffer of {@code blocksPerFrame * blockBytes} bytes positioned at zero
+     * @throws UnsupportedOperationException when {@code version} is not available
+     * @throws IllegalArgumentException      when the format is not encodable or the frame is short
      */
     public static ByteBuffer encode(final String version, final ByteBuffer frame,
                                     final int width, final int height, final PixelFormat format) {
-        // NATIVE ENCODE SEAM. GUARDED BY available(version): THE BC READER/WRITER VALIDATE IN THEIR
-        // CONSTRUCTORS, SO THIS IS ONLY REACHED ONCE THE NATIVE LIBRARY IS LINKED.
-        throw new UnsupportedOperationException("Native BC encoder unavailable: " + version);
+        if (!available(version)) throw new UnsupportedOperationException("BC encoder unavailable: " + version);
+        return switch (version) {
+            case CodecsAPI.CODEC_BC3 -> BCEncoder.encode(true, frame, width, height, format);
+            case CodecsAPI.CODEC_BC1 -> BCEncoder.encode(false, frame, width, height, format);
+            // NATIVE ENCODE SEAM: BC7 IS ONLY EVER REPORTED AVAILABLE ONCE THE NATIVE LIBRARY IS LINKED.
+            default -> throw new UnsupportedOperationException("Native BC encoder unavailable: " + version);
+        };
     }
 }
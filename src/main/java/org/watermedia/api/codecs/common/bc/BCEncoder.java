@@ -0,0 +1,385 @@
+package org.watermedia.api.codecs.common.bc;
+
+import org.watermedia.api.util.PixelFormat;
+import org.watermedia.tools.ThreadTool;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Pure-Java BC1/BC3 block encoder — the fallback {@link BCCodec} uses when no native library
+ * provides the version.
+ *
+ * <p>Colour endpoints come from the block's principal axis (power iteration over the RGB
+ * covariance), inset by 1/16 of their range and refined once by least squares against the chosen
+ * indices; the refit is kept only when it lowers the block error. BC3 alpha uses the 8-value ramp
+ * between the block's alpha extremes. BC1 switches a block to its 3-colour + transparent mode when
+ * any pixel has alpha below 128.
+ *
+ * <p>Frames are split into bands of block rows encoded on the common fork/join pool and the calling
+ * thread; every band writes a disjoint range of the output with absolute puts, so no
+ * synchronization is needed.
+ */
+final class BCEncoder {
+
+    // SMALLEST SHARE OF BLOCKS WORTH HANDING TO ANOTHER THREAD; SMALLER FRAMES ENCODE INLINE
+    private static final int SERIAL_BLOCKS = 1024;
+
+    private BCEncoder() {}
+
+    /**
+     * Encodes one frame. {@code alpha} selects BC3 (16-byte blocks with an alpha block) over BC1
+     * (8-byte colour-only blocks).
+     *
+     * @throws IllegalArgumentException when {@code format} is not a packed RGB(A) layout or the
+     *                                  frame holds fewer than {@code width * height} pixels
+     */
+    static ByteBuffer encode(final boolean alpha, final ByteBuffer frame, final int width, final int height,
+                             final PixelFormat format) {
+        if (width <= 0 || height <= 0) throw new IllegalArgumentException("Invalid frame size: " + width + "x" + height);
+        final Layout layout = Layout.of(format);
+        final long need = (long) width * height * layout.bpp;
+        if (frame.remaining() < need) {
+            throw new IllegalArgumentException("Frame holds " + frame.remaining() + " bytes, expected " + need
+                    + " for " + width + "x" + height + " " + format);
+        }
+
+        final int blocksX = (width + 3) >> 2;
+        final int blocksY = (height + 3) >> 2;
+        final int blockBytes = alpha ? 16 : 8;
+        final long total = (long) blocksX * blocksY * blockBytes;
+        if (total > Integer.MAX_VALUE) throw new IllegalArgumentException("BC frame too large: " + width + "x" + height);
+
+        final ByteBuffer out = ByteBuffer.allocateDirect((int) total).order(ByteOrder.LITTLE_ENDIAN);
+        final Job job = new Job(frame, frame.position(), width, height, layout, alpha, blocksX, blockBytes, out);
+        ThreadTool.parallel(blocksY, (SERIAL_BLOCKS + blocksX - 1) / blocksX, job::rows);
+        return out;
+    }
+
+    // CHANNEL OFFSETS OF A PACKED SOURCE LAYOUT; a < 0 MEANS OPAQUE
+    private record Layout(int bpp, int r, int g, int b, int a) {
+        static Layout of(final PixelFormat format) {
+            return switch (format) {
+                case RGBA -> new Layout(4, 0, 1, 2, 3);
+                case BGRA -> new Layout(4, 2, 1, 0, 3);
+                case GBRA -> new Layout(4, 2, 0, 1, 3);
+                case RGB -> new Layout(3, 0, 1, 2, -1);
+                default -> throw new IllegalArgumentException("BC encoder cannot read " + format + " frames");
+            };
+        }
+    }
+
+    // ONE FRAME'S WORTH OF SHARED, READ-ONLY STATE. EACH rows() CALL OWNS ITS SCRATCH ARRAYS.
+    private static final class Job {
+        private final ByteBuffer src;
+        private final int base;
+        private final int width;
+        private final int height;
+        private final Layout layout;
+        private final boolean alpha;
+        private final int blocksX;
+        private final int blockBytes;
+        private final ByteBuffer out;
+
+        Job(final ByteBuffer src, final int base, final int width, final int height, final Layout layout,
+            final boolean alpha, final int blocksX, final int blockBytes, final ByteBuffer out) {
+            this.src = src;
+            this.base = base;
+            this.width = width;
+            this.height = height;
+            this.layout = layout;
+            this.alpha = alpha;
+            this.blocksX = blocksX;
+            this.blockBytes = blockBytes;
+            this.out = out;
+        }
+
+        void rows(final int from, final int to) {
+            final Block block = new Block();
+            for (int by = from; by < to; by++) {
+                for (int bx = 0; bx < this.blocksX; bx++) {
+                    this.load(block, bx << 2, by << 2);
+                    int at = (by * this.blocksX + bx) * this.blockBytes;
+                    if (this.alpha) {
+                        block.encodeAlpha(this.out, at);
+                        at += 8;
+                    }
+                    block.encodeColor(this.out, at, !this.alpha);
+                }
+            }
+        }
+
+        // GATHERS A 4x4 BLOCK; PIXELS PAST THE RIGHT/BOTTOM EDGE REPLICATE THE LAST COLUMN/ROW
+        private void load(final Block block, final int x0, final int y0) {
+            final Layout l = this.layout;
+            final int stride = this.width * l.bpp;
+            for (int y = 0; y < 4; y++) {
+                final int row = this.base + Math.min(y0 + y, this.height - 1) * stride;
+                for (int x = 0; x < 4; x++) {
+                    final int p = row + Math.min(x0 + x, this.width - 1) * l.bpp;
+                    final int i = (y << 2) | x;
+                    block.r[i] = this.src.get(p + l.r) & 0xFF;
+                    block.g[i] = this.src.get(p + l.g) & 0xFF;
+                    block.b[i] = this.src.get(p + l.b) & 0xFF;
+                    block.a[i] = l.a < 0 ? 0xFF : this.src.get(p + l.a) & 0xFF;
+                }
+            }
+        }
+    }
+
+    // PER-THREAD SCRATCH FOR ONE 4x4 BLOCK
+    private static final class Block {
+        private final int[] r = new int[16];
+        private final int[] g = new int[16];
+        private final int[] b = new int[16];
+        private final int[] a = new int[16];
+        private final int[] idx = new int[16];
+        private final int[] trial = new int[16];
+        private final int[] pr = new int[4];
+        private final int[] pg = new int[4];
+        private final int[] pb = new int[4];
+        private final int[] ramp = new int[8];
+
+        // ==========================================================================
+        // ALPHA (BC3)
+        // ==========================================================================
+        void encodeAlpha(final ByteBuffer out, final int at) {
+            int lo = 255, hi = 0;
+            for (int i = 0; i < 16; i++) {
+                lo = Math.min(lo, this.a[i]);
+                hi = Math.max(hi, this.a[i]);
+            }
+            out.put(at, (byte) hi);
+            out.put(at + 1, (byte) lo);
+            long bits = 0L;
+            if (hi != lo) {
+                // a0 > a1 SELECTS THE 8-VALUE RAMP: 0 -> a0, 1 -> a1, k IN 2..7 -> ((8-k)*a0 + (k-1)*a1) / 7
+                final int[] ramp = this.ramp;
+                ramp[0] = hi;
+                ramp[1] = lo;
+                for (int k = 2; k < 8; k++) ramp[k] = ((8 - k) * hi + (k - 1) * lo) / 7;
+                for (int i = 0; i < 16; i++) {
+                    int best = 0, bestErr = Integer.MAX_VALUE;
+                    for (int k = 0; k < 8; k++) {
+                        final int err = Math.abs(ramp[k] - this.a[i]);
+                        if (err < bestErr) {
+                            bestErr = err;
+                            best = k;
+                        }
+                    }
+                    bits |= (long) best << (3 * i);
+                }
+            }
+            for (int k = 0; k < 6; k++) {
+                out.put(at + 2 + k, (byte) (bits >>> (8 * k)));
+            }
+        }
+
+        // ==========================================================================
+        // COLOUR (BC1, AND THE COLOUR HALF OF BC3)
+        // ==========================================================================
+        void encodeColor(final ByteBuffer out, final int at, final boolean punchThrough) {
+            boolean transparent = false;
+            if (punchThrough) {
+                for (int i = 0; i < 16; i++) {
+                    if (this.a[i] < 128) {
+                        transparent = true;
+                        break;
+                    }
+                }
+            }
+
+            // PRINCIPAL AXIS OF THE (OPAQUE) PIXELS
+            int n = 0;
+            float mr = 0, mg = 0, mb = 0;
+            for (int i = 0; i < 16; i++) {
+                if (transparent && this.a[i] < 128) continue;
+                mr += this.r[i];
+                mg += this.g[i];
+                mb += this.b[i];
+                n++;
+            }
+            if (n == 0) {
+                // FULLY TRANSPARENT: c0 == c1 IS 3-COLOUR MODE, INDEX 3 EVERYWHERE
+                out.putShort(at, (short) 0);
+                out.putShort(at + 2, (short) 0);
+                out.putInt(at + 4, -1);
+                return;
+            }
+            mr /= n;
+            mg /= n;
+            mb /= n;
+            float crr = 0, crg = 0, crb = 0, cgg = 0, cgb = 0, cbb = 0;
+            for (int i = 0; i < 16; i++) {
+                if (transparent && this.a[i] < 128) continue;
+                final float dr = this.r[i] - mr, dg = this.g[i] - mg, db = this.b[i] - mb;
+                crr += dr * dr;
+                crg += dr * dg;
+                crb += dr * db;
+                cgg += dg * dg;
+                cgb += dg * db;
+                cbb += db * db;
+            }
+            float vr = 1, vg = 1, vb = 1;
+            for (int iter = 0; iter < 4; iter++) {
+                final float nr = crr * vr + crg * vg + crb * vb;
+                final float ng = crg * vr + cgg * vg + cgb * vb;
+                final float nb = crb * vr + cgb * vg + cbb * vb;
+                final float len = Math.max(Math.abs(nr), Math.max(Math.abs(ng), Math.abs(nb)));
+                if (len == 0) break;
+                vr = nr / len;
+                vg = ng / len;
+                vb = nb / len;
+            }
+
+            // EXTREMES ALONG THE AXIS, INSET BY 1/16 OF THEIR RANGE
+            int lo = -1, hi = -1;
+            float dmin = Float.MAX_VALUE, dmax = -Float.MAX_VALUE;
+            for (int i = 0; i < 16; i++) {
+                if (transparent && this.a[i] < 128) continue;
+                final float d = this.r[i] * vr + this.g[i] * vg + this.b[i] * vb;
+                if (d < dmin) {
+                    dmin = d;
+                    lo = i;
+                }
+                if (d > dmax) {
+                    dmax = d;
+                    hi = i;
+                }
+            }
+            final int ir = (this.r[hi] - this.r[lo]) >> 4;
+            final int ig = (this.g[hi] - this.g[lo]) >> 4;
+            final int ib = (this.b[hi] - this.b[lo]) >> 4;
+            int c0 = pack565(this.r[hi] - ir, this.g[hi] - ig, this.b[hi] - ib);
+            int c1 = pack565(this.r[lo] + ir, this.g[lo] + ig, this.b[lo] + ib);
+
+            int err = this.fit(c0, c1, transparent, this.idx);
+            final int refined = this.refine(transparent);
+            if (refined >= 0) {
+                final int r0 = refined >>> 16, r1 = refined & 0xFFFF;
+                final int rErr = this.fit(r0, r1, transparent, this.trial);
+                if (rErr < err) {
+                    err = rErr;
+                    c0 = r0;
+                    c1 = r1;
+                    System.arraycopy(this.trial, 0, this.idx, 0, 16);
+                }
+            }
+
+            // ORDER THE ENDPOINTS FOR THE MODE: c0 > c1 IS 4-COLOUR, c0 <= c1 IS 3-COLOUR + TRANSPARENT
+            if (transparent ? c0 > c1 : c0 < c1) {
+                final int t = c0;
+                c0 = c1;
+                c1 = t;
+                for (int i = 0; i < 16; i++) {
+                    final int k = this.idx[i];
+                    this.idx[i] = k == 0 ? 1 : k == 1 ? 0 : transparent ? k : k ^ 1;
+                }
+            } else if (!transparent && c0 == c1) {
+                // EQUAL ENDPOINTS DECODE IN 3-COLOUR MODE; INDEX 0 IS THE COLOUR ITSELF IN EITHER MODE
+                for (int i = 0; i < 16; i++) this.idx[i] = 0;
+            }
+
+            int bits = 0;
+            for (int i = 0; i < 16; i++) bits |= this.idx[i] << (2 * i);
+            out.putShort(at, (short) c0);
+            out.putShort(at + 2, (short) c1);
+            out.putInt(at + 4, bits);
+        }
+
+        // PICKS THE NEAREST PALETTE ENTRY PER PIXEL FOR ENDPOINTS (c0, c1); RETURNS THE SQUARED RGB ERROR
+        private int fit(final int c0, final int c1, final boolean transparent, final int[] indices) {
+            this.palette(c0, c1, transparent);
+            final int colours = transparent ? 3 : 4;
+            int total = 0;
+            for (int i = 0; i < 16; i++) {
+                if (transparent && this.a[i] < 128) {
+                    indices[i] = 3;
+                    continue;
+                }
+                int best = 0, bestErr = Integer.MAX_VALUE;
+                for (int k = 0; k < colours; k++) {
+                    final int dr = this.pr[k] - this.r[i], dg = this.pg[k] - this.g[i], db = this.pb[k] - this.b[i];
+                    final int e = dr * dr + dg * dg + db * db;
+                    if (e < bestErr) {
+                        bestErr = e;
+                        best = k;
+                    }
+                }
+                indices[i] = best;
+                total += bestErr;
+            }
+            return total;
+        }
+
+        private void palette(final int c0, final int c1, final boolean transparent) {
+            this.pr[0] = expand5(c0 >> 11);
+            this.pg[0] = expand6((c0 >> 5) & 0x3F);
+            this.pb[0] = expand5(c0 & 0x1F);
+            this.pr[1] = expand5(c1 >> 11);
+            this.pg[1] = expand6((c1 >> 5) & 0x3F);
+            this.pb[1] = expand5(c1 & 0x1F);
+            if (transparent) {
+                this.pr[2] = (this.pr[0] + this.pr[1]) / 2;
+                this.pg[2] = (this.pg[0] + this.pg[1]) / 2;
+                this.pb[2] = (this.pb[0] + this.pb[1]) / 2;
+            } else {
+                this.pr[2] = (2 * this.pr[0] + this.pr[1]) / 3;
+                this.pg[2] = (2 * this.pg[0] + this.pg[1]) / 3;
+                this.pb[2] = (2 * this.pb[0] + this.pb[1]) / 3;
+                this.pr[3] = (this.pr[0] + 2 * this.pr[1]) / 3;
+                this.pg[3] = (this.pg[0] + 2 * this.pg[1]) / 3;
+                this.pb[3] = (this.pb[0] + 2 * this.pb[1]) / 3;
+            }
+        }
+
+        // LEAST-SQUARES ENDPOINTS FOR THE CURRENT INDICES, PACKED AS (c0 << 16) | c1; -1 WHEN SINGULAR
+        private int refine(final boolean transparent) {
+            float aa = 0, ab = 0, bb = 0;
+            float xr = 0, xg = 0, xb = 0, yr = 0, yg = 0, yb = 0;
+            for (int i = 0; i < 16; i++) {
+                final int k = this.idx[i];
+                if (transparent && k == 3) continue;
+                // POSITION OF PALETTE ENTRY k ALONG c0 -> c1
+                final float t = k == 0 ? 0f : k == 1 ? 1f : transparent ? 0.5f : k == 2 ? 1f / 3f : 2f / 3f;
+                final float s = 1f - t;
+                aa += s * s;
+                ab += s * t;
+                bb += t * t;
+                xr += s * this.r[i];
+                xg += s * this.g[i];
+                xb += s * this.b[i];
+                yr += t * this.r[i];
+                yg += t * this.g[i];
+                yb += t * this.b[i];
+            }
+            final float det = aa * bb - ab * ab;
+            if (Math.abs(det) < 1e-6f) return -1;
+            final float inv = 1f / det;
+            final int c0 = pack565(Math.round((bb * xr - ab * yr) * inv), Math.round((bb * xg - ab * yg) * inv),
+                    Math.round((bb * xb - ab * yb) * inv));
+            final int c1 = pack565(Math.round((aa * yr - ab * xr) * inv), Math.round((aa * yg - ab * xg) * inv),
+                    Math.round((aa * yb - ab * xb) * inv));
+            return (c0 << 16) | c1;
+        }
+    }
+
+    private static int pack565(final int r, final int g, final int b) {
+        final int r5 = (clamp(r) * 31 + 127) / 255;
+        final int g6 = (clamp(g) * 63 + 127) / 255;
+        final int b5 = (clamp(b) * 31 + 127) / 255;
+        return (r5 << 11) | (g6 << 5) | b5;
+    }
+
+    private static int clamp(final int v) {
+        return v < 0 ? 0 : Math.min(v, 255);
+    }
+
+    private static int expand5(final int v) {
+        return (v << 3) | (v >> 2);
+    }
+
+    private static int expand6(final int v) {
+        return (v << 2) | (v >> 4);
+    }
+}
@@ -0,0 +1,81 @@
+package org.watermedia.api.codecs.common.simd;
+
+import org.watermedia.WaterMediaConfig;
+
+/**
+ * Optional SIMD kernels for the hot per-pixel loops of the image decoders, backed by the
+ * {@code jdk.incubator.vector} module.
+ *
+ * <p>The incubator module is only resolved when the JVM is launched with
+ * {@code --add-modules jdk.incubator.vector}, so the implementation is probed exactly once, on
+ * first use, and every caller keeps its scalar loop as the fallback <i>and</i> the reference. The
+ * kernels are not approximations: each one reproduces its scalar counterpart bit for bit,
+ * including integer overflow and rounding, so enabling them never changes a decoded pixel.
+ *
+ * <p>Kernels work on 256-bit vectors (eight {@code int} lanes, matching the 8-sample JPEG block
+ * row). On hardware whose preferred vector size is narrower they would be emulated and slower than
+ * the scalar code, so they are reported unavailable there.
+ */
+public abstract class SimdKernels {
+    // RESOLVED ONCE ON CLASS INIT; NULL WHEN THE MODULE IS MISSING OR THE HARDWARE IS TOO NARROW
+    private static final SimdKernels INSTANCE = probe();
+
+    protected SimdKernels() {}
+
+    /**
+     * The vector kernels, or {@code null} when they are unavailable or disabled through
+     * {@link WaterMediaConfig.Decoders#simd}. Read the config at decode time, not once per session,
+     * so the switch applies to the next decode.
+     */
+    public static SimdKernels get() {
+        return WaterMediaConfig.decoders.simd ? INSTANCE : null;
+    }
+
+    /** Whether the vector kernels loaded on this JVM, regardless of the config switch. */
+    public static boolean available() {
+        return INSTANCE != null;
+    }
+
+    /**
+     * JPEG "islow" 8x8 inverse DCT with inlined dequantization, level shift and clamp: the
+     * vector form of {@code JPEGReader.idct}, including its all-AC-zero row shortcut. The caller
+     * keeps the whole-block DC-only shortcut. {@code scratch} holds at least 64 ints.
+     */
+    public abstract void jpegIdct(int[] coef, int block, int[] quant, int[] scratch, byte[] dst, int dstOff, int dstStride);
+
+    /**
+     * One row of JPEG YCbCr to packed BGRA ({@code 0xFFRRGGBB}) with the libjpeg fixed-point
+     * coefficients. {@code chromaShift} is 0 when chroma is sampled per pixel and 1 when one
+     * chroma sample covers two pixels horizontally.
+     */
+    public abstract void jpegYccRow(byte[] y, int yOff, byte[] cb, int cbOff, byte[] cr, int crOff,
+                                    int chromaShift, int[] out, int outOff, int width);
+
+    /**
+     * One row of BT.601 limited-range YUV 4:2:0 to packed BGRA ({@code 0xFFRRGGBB}), as
+     * {@code DataTool.yuvToBgra}; chroma is sampled once per two pixels.
+     */
+    public abstract void yuvRow(byte[] y, int yOff, byte[] u, byte[] v, int uvOff, int[] out, int outOff, int width);
+
+    /**
+     * VP8 4x4 inverse DCT of two horizontally adjacent blocks, added to the prediction already in
+     * {@code dst}. {@code coeffs} holds the blocks row-interleaved: row {@code r} of the left block
+     * at {@code r * 8}, of the right block at {@code r * 8 + 4}. A block of zero coefficients
+     * leaves its pixels untouched.
+     */
+    public abstract void vp8IdctAdd(short[] coeffs, byte[] dst, int off, int stride);
+
+    private static SimdKernels probe() {
+        final Module vector = ModuleLayer.boot().findModule("jdk.incubator.vector").orElse(null);
+        if (vector == null) return null;
+        final Module self = SimdKernels.class.getModule();
+        if (!self.canRead(vector)) self.addReads(vector);
+        try {
+            final Class<?> type = Class.forName(SimdKernels.class.getPackageName() + ".VectorKernels");
+            return (SimdKernels) type.getDeclaredConstructor().newInstance();
+        } catch (final ReflectiveOperationException | LinkageError | RuntimeException e) {
+            // UNSUPPORTED SHAPE (THROWN BY THE CONSTRUCTOR) OR A JVM THAT CANNOT LINK THE INCUBATOR CLASSES
+            return null;
+        }
+    }
+}
@@ -14,7 +14,7 @@ import java.nio.ByteOrder;
  * sampled by the GPU, so this reader yields the <em>compressed</em> blocks of each frame (in the
  * file's own version) for direct upload — there is no software decode.
  *
- * <p>The file's BC version is read from the container and validated against native availability in
+ * <p>The file's BC version is read from the container and validated against codec availability in
  * the constructor, which throws when that version is not available (codecs are not pluggable, so a
  * reader that exists is always usable). Block buffers are direct and ready for the graphics engine;
  * {@link #version()} is exposed because the GPU upload needs the exact format.
@@ -34,7 +34,7 @@ public final class BCReader implements Closeable {
      * Parses a complete BC-in-DDS file from {@code file.position()}.
      *
      * @throws XCodecException when the container is malformed/truncated or its BC version is not
-     *                         natively available
+     *                         available
      */
     public BCReader(final ByteBuffer file) throws XCodecException {
         final DDSHeader.Info info = DDSHeader.read(file);
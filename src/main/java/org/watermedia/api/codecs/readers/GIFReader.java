@@ -8,6 +8,7 @@ import org.watermedia.api.codecs.ImageData;
 import org.watermedia.api.codecs.ImageMetadata;
 import org.watermedia.api.codecs.ImageReader;
 import org.watermedia.api.codecs.XCodecException;
+import org.watermedia.api.codecs.common.DecodeAhead;
 import org.watermedia.api.codecs.common.gif.ColorTable;
 import org.watermedia.api.codecs.common.gif.GraphicExtension;
 import org.watermedia.api.codecs.common.gif.ImageDescriptor;
@@ -18,10 +19,12 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.IntBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import static org.watermedia.WaterMedia.LOGGER;
 
@@ -34,6 +37,15 @@ import static org.watermedia.WaterMedia.LOGGER;
  * pre-image extensions (so loop count from a Netscape application extension is known up front).
  * Each {@link #next()} parses one Image Descriptor + LZW data block and composes it onto
  * the canvas.
+ *
+ * <p>With {@code decoders.gif.decodeAhead} above zero, {@link #next()} also parses the following
+ * frames and starts their LZW decompression on the common pool: the index streams of different
+ * frames are independent, only compositing is ordered. Output is identical either way.
+ *
+ * <p>A size hint (see {@link ImageReader}) composites onto a canvas that keeps every 2nd, 4th or 8th
+ * pixel of every 2nd, 4th or 8th row, picking the largest step that still covers the hint. Drawing and
+ * disposal are per pixel, so this is exactly the nearest-sampled full canvas at a fraction of the
+ * compositing and copy cost; LZW still decodes every index.
  */
 public final class GIFReader extends ImageReader {
     private static final Marker IT = MarkerManager.getMarker(GIFReader.class.getSimpleName());
@@ -66,6 +78,8 @@ public final class GIFReader extends ImageReader {
     private static final int MAX_LZW_CODE_SIZE = 8;
     private static final int MAX_STACK_SIZE = 4096;
     private static final int STACK_BUFFER_SIZE = 4097;
+    // LZW DICTIONARIES FOR FRAMES DECODED ON POOL THREADS; CONTENTS NEVER LEAK BETWEEN FRAMES (SEE decompress)
+    private static final ThreadLocal<Lzw> POOL_LZW = ThreadLocal.withInitial(Lzw::new);
 
     // INTERLACED RENDERING
     private static final int[] PASS_STARTS = {0, 4, 2, 1};
@@ -92,6 +106,9 @@ public final class GIFReader extends ImageReader {
     private int metaMark;
 
     // CANVAS STATE
+    private final int step;                // SIZE-HINT DECIMATION: CANVAS PIXEL (x, y) IS SCREEN PIXEL (x * step, y * step)
+    private final int canvasWidth;
+    private final int canvasHeight;
     private final int[] canvas;            // CURRENT COMPOSITED CANVAS
     private int[] restoreFrame;            // SAVED CANVAS FOR DISPOSAL METHOD 3
     private final ByteBuffer directOut;    // BGRA OUTPUT BUFFER (REUSED)
@@ -106,9 +123,11 @@ public final class GIFReader extends ImageReader {
     private final ImageData.Scan scan;
     private byte[] subBlockBuffer = new byte[4096];
     private byte[] lzwIndexScratch = new byte[0];
-    private final short[] lzwPrefix = new short[MAX_STACK_SIZE];
-    private final byte[] lzwSuffix = new byte[MAX_STACK_SIZE];
-    private final byte[] lzwPixelStack = new byte[STACK_BUFFER_SIZE];
+    private final Lzw lzw = new Lzw();
+    // PARSED, NOT YET COMPOSITED
+    private final DecodeAhead<Frame, byte[]> ahead = new DecodeAhead<>("GIF LZW",
+            frame -> frame.id().width() * frame.id().height(), this::poolDecompress);
+    private final ArrayDeque<byte[]> spareIndices = new ArrayDeque<>(); // RECYCLED DECODE-AHEAD OUTPUTS
     private final byte[] descriptorScratch = new byte[9];
     private final byte[] gceScratch = new byte[6];
 
@@ -124,7 +143,12 @@ public final class GIFReader extends ImageReader {
     private final GraphicExtension resetGce;
 
     public GIFReader(final ByteBuffer data) throws XCodecException {
-        super(data);
+        this(data, 0, 0);
+    }
+
+    /** Opens the stream with a size hint (see {@link ImageReader}); {@code 0} leaves an axis unconstrained. */
+    public GIFReader(final ByteBuffer data, final int targetWidth, final int targetHeight) throws XCodecException {
+        super(data, null, targetWidth, targetHeight);
         this.data.order(LE);
         this.scan = scan(this.data.duplicate().order(LE));
 
@@ -151,8 +175,11 @@ public final class GIFReader extends ImageReader {
         }
 
         // ALLOCATE CANVAS / OUTPUT
-        this.canvas = new int[this.lsd.width() * this.lsd.height()];
-        this.directOut = ByteBuffer.allocateDirect(this.lsd.width() * this.lsd.height() * 4).order(LE);
+        this.step = this.reductionStep(this.lsd.width(), this.lsd.height(), 8);
+        this.canvasWidth = (this.lsd.width() + this.step - 1) / this.step;
+        this.canvasHeight = (this.lsd.height() + this.step - 1) / this.step;
+        this.canvas = new int[this.canvasWidth * this.canvasHeight];
+        this.directOut = ByteBuffer.allocateDirect(this.canvasWidth * this.canvasHeight * 4).order(LE);
         this.directOutInts = this.directOut.asIntBuffer();
         this.backgroundColor = (this.globalColorTable != null
                 && this.lsd.backgroundColorIndex() < this.globalColorTable.colors().length)
@@ -178,8 +205,10 @@ public final class GIFReader extends ImageReader {
         this.resetGce = this.currentGce;
     }
 
-    @Override public int width() { return this.lsd.width(); }
-    @Override public int height() { return this.lsd.height(); }
+    @Override public int width() { return this.canvasWidth; }
+    @Override public int height() { return this.canvasHeight; }
+    @Override public int sourceWidth() { return this.lsd.width(); }
+    @Override public int sourceHeight() { return this.lsd.height(); }
     @Override public PixelFormat pixelFormat() { return PixelFormat.BGRA; }
     @Override public ImageData.Scan scan() { return this.scan; }
     @Override public boolean variableFrameRate() { return this.scan.frameCount() > 1; }
@@ -187,6 +216,11 @@ public final class GIFReader extends ImageReader {
 
     @Override
     public boolean hasNext() throws XCodecException {
+        return this.ahead.hasNext() || this.scanNext();
+    }
+
+    // FINDS THE NEXT IMAGE SEPARATOR IN THE STREAM, PROCESSING THE EXTENSIONS BEFORE IT
+    private boolean scanNext() throws XCodecException {
         if (this.done) return false;
         if (this.nextReady) return true;
 
@@ -220,9 +254,18 @@ public final class GIFReader extends ImageReader {
     @Override
     public ByteBuffer next() throws XCodecException {
         if (!this.hasNext()) throw new XCodecException("No more GIF frames");
-        this.pendingIntroducer = -1;
-        this.nextReady = false;
-        this.decodeFrame();
+        final DecodeAhead.Queued<Frame, byte[]> head = this.ahead.poll();
+        if (head != null) {
+            final Frame frame = head.frame();
+            final byte[] pooled = head.result();
+            this.composite(frame, pooled != null ? pooled : this.decompress(frame, frame.lzwData(), frame.lzwData().length));
+            if (pooled != null) this.spareIndices.push(pooled);
+        } else {
+            this.pendingIntroducer = -1;
+            this.nextReady = false;
+            this.decodeFrame();
+        }
+        this.readAhead();
         this.currentFrame = this.directOut;
         return this.directOut;
     }
@@ -241,12 +284,19 @@ public final class GIFReader extends ImageReader {
         this.previousId = null;
         this.currentDelay = 0L;
         this.frames = 0; // THE FRAME CAP BOUNDS ONE PASS, NOT THE LIFETIME OF A FOREVER-LOOPING READER
+        this.ahead.clear();
         return true;
     }
 
     // ----- FRAME DECODE -----
 
     private void decodeFrame() throws XCodecException {
+        final Frame frame = this.readFrame(false);
+        this.composite(frame, this.decompress(frame, this.subBlockBuffer, frame.lzwDataLength()));
+    }
+
+    // PARSES ONE FRAME UP TO ITS LZW DATA, WHICH STAYS IN subBlockBuffer UNLESS copyData; CONSUMES THE PENDING GCE
+    private Frame readFrame(final boolean copyData) throws XCodecException {
         final ImageDescriptor id = this.clampOrReject(this.readImageDescriptor());
 
         ColorTable activeColorTable = this.globalColorTable;
@@ -268,13 +318,42 @@ public final class GIFReader extends ImageReader {
             throw new XCodecException("Invalid LZW minimum code size: " + lzwMinCodeSize);
         }
         final int lzwDataLength = this.readSubBlocks();
+        final GraphicExtension gce = this.currentGce;
+        this.currentGce = null;
+        return new Frame(id, activeColorTable, gce, lzwMinCodeSize,
+                copyData ? Arrays.copyOf(this.subBlockBuffer, lzwDataLength) : null, lzwDataLength);
+    }
+
+    // PARSES UP TO decodeAhead FRAMES PAST THE ONE JUST RETURNED AND QUEUES THE LZW DECODE OF THE LARGE ONES
+    private void readAhead() {
+        if (!this.ahead.fill(WaterMediaConfig.decoders.gif.decodeAhead, this::scanNext, () -> {
+            this.pendingIntroducer = -1;
+            this.nextReady = false;
+            return this.readFrame(true);
+        })) this.done = true;
+    }
+
+    // THE LZW DECODE OF A FRAME PARSED AHEAD, INTO AN INDEX BUFFER next() HANDED BACK WHEN ONE IS LARGE ENOUGH
+    private Callable<byte[]> poolDecompress(final Frame frame) {
+        final int expected = frame.id().width() * frame.id().height();
+        final byte[] spare = this.spareIndices.poll();
+        final byte[] output = spare != null && spare.length >= expected ? spare : new byte[expected];
+        return () -> decompress(POOL_LZW.get(), output, frame.lzwMinCodeSize(), frame.lzwData(), frame.lzwData().length, expected);
+    }
+
+    private byte[] decompress(final Frame frame, final byte[] data, final int dataLength) throws XCodecException {
+        final int expected = frame.id().width() * frame.id().height();
+        if (this.lzwIndexScratch.length < expected) this.lzwIndexScratch = new byte[expected];
+        return decompress(this.lzw, this.lzwIndexScratch, frame.lzwMinCodeSize(), data, dataLength, expected);
+    }
 
+    private void composite(final Frame frame, final byte[] indices) {
+        final ImageDescriptor id = frame.id();
         final int expectedIndices = id.width() * id.height();
-        final byte[] indices = this.decompress(id, lzwMinCodeSize, this.subBlockBuffer, lzwDataLength, expectedIndices);
 
         // FIRST FRAME: INITIALIZE CANVAS; SUBSEQUENT FRAMES: DISPOSE THEN COMPOSITE
         if (this.previousId == null) {
-            final int initBg = (this.currentGce != null && this.currentGce.transparentColorFlag())
+            final int initBg = (frame.gce() != null && frame.gce().transparentColorFlag())
                     ? 0x00000000 : this.backgroundColor;
             Arrays.fill(this.canvas, initBg);
         } else {
@@ -283,20 +362,19 @@ public final class GIFReader extends ImageReader {
             this.applyDisposal(this.previousGce, disposalBg, this.previousId);
         }
 
-        if (this.currentGce != null && this.currentGce.disposalMethod() == 3) {
+        if (frame.gce() != null && frame.gce().disposalMethod() == 3) {
             if (this.restoreFrame == null) this.restoreFrame = new int[this.canvas.length];
             System.arraycopy(this.canvas, 0, this.restoreFrame, 0, this.canvas.length);
         }
 
-        this.renderImage(indices, expectedIndices, this.canvas, id, this.lsd, activeColorTable, this.currentGce);
+        this.renderImage(indices, expectedIndices, this.canvas, id, this.lsd, frame.colorTable(), frame.gce());
 
         this.currentDelay = this.scan.frameCount() <= 1 ? 0L
-                : (this.currentGce != null && this.currentGce.delayTime() > 0)
-                ? (long) this.currentGce.delayTime() * DELAY_TIME_MULTIPLIER : DEFAULT_FRAME_DELAY;
+                : (frame.gce() != null && frame.gce().delayTime() > 0)
+                ? (long) frame.gce().delayTime() * DELAY_TIME_MULTIPLIER : DEFAULT_FRAME_DELAY;
 
-        this.previousGce = this.currentGce;
+        this.previousGce = frame.gce();
         this.previousId = id;
-        this.currentGce = null;
 
         // COPY TO DIRECT BUFFER (BGRA layout — canvas already has 0xFFrrggbb / 0x00...)
         this.directOut.clear();
@@ -361,6 +439,11 @@ public final class GIFReader extends ImageReader {
         final int idWidth = id.width();
         final int idHeight = id.height();
 
+        if (this.step > 1) {
+            this.renderSampled(indexes, canvas, id, colors, transparentIndex);
+            return;
+        }
+
         // FAST PATH: IMAGE DESCRIPTOR COVERS THE WHOLE CANVAS EXACTLY — NO PER-PIXEL CLIPPING
         if (!id.interlacedFlag()
                 && idLeft == 0 && idTop == 0
@@ -410,6 +493,43 @@ public final class GIFReader extends ImageReader {
         }
     }
 
+    // SIZE-HINT PATH: ONLY THE SAMPLED SCREEN PIXELS INSIDE THE FRAME RECT ARE DRAWN, EACH READ STRAIGHT FROM
+    // ITS INDEX; AN INTERLACED FRAME MAPS THE SAMPLED ROW TO ITS POSITION IN THE PASS-ORDERED STREAM
+    private void renderSampled(final byte[] indexes, final int[] canvas, final ImageDescriptor id,
+                               final int[] colors, final int transparentIndex) {
+        final int step = this.step;
+        final int colorLen = colors.length;
+        final int idLeft = id.left();
+        final int idTop = id.top();
+        final int idWidth = id.width();
+        final int xStart = (Math.max(0, idLeft) + step - 1) / step;
+        final int yStart = (Math.max(0, idTop) + step - 1) / step;
+        final int xEnd = (Math.min(this.lsd.width(), idLeft + idWidth) + step - 1) / step;
+        final int yEnd = (Math.min(this.lsd.height(), idTop + id.height()) + step - 1) / step;
+        for (int y = yStart; y < yEnd; y++) {
+            final int row = y * step - idTop;
+            final int srcRow = (id.interlacedFlag() ? interlacedRow(row, id.height()) : row) * idWidth - idLeft;
+            final int rowOff = y * this.canvasWidth;
+            for (int x = xStart; x < xEnd; x++) {
+                final int ci = indexes[srcRow + x * step] & 0xFF;
+                if (ci == transparentIndex) continue;
+                if (ci < colorLen) canvas[rowOff + x] = colors[ci];
+            }
+        }
+    }
+
+    // POSITION OF FRAME ROW row IN THE INTERLACED INDEX STREAM OF A FRAME height ROWS TALL
+    private static int interlacedRow(final int row, final int height) {
+        int base = 0;
+        for (int pass = 0; pass < PASS_STARTS.length; pass++) {
+            final int start = PASS_STARTS[pass];
+            final int inc = PASS_INCREMENTS[pass];
+            if (row >= start && (row - start) % inc == 0) return base + (row - start) / inc;
+            if (start < height) base += (height - start + inc - 1) / inc;
+        }
+        return row; // UNREACHABLE: THE LAST PASS COVERS EVERY ODD ROW
+    }
+
     private int blitRow(final byte[] indexes, int srcIdx, final int idWidth,
                         final int idLeft, final int canvasY,
                         final int[] canvas, final int canvasWidth,
@@ -451,16 +571,16 @@ public final class GIFReader extends ImageReader {
     private void applyDisposal(final GraphicExtension gce, final int background, final ImageDescriptor id) {
         final int disposal = gce != null ? gce.disposalMethod() : 0;
         if (disposal == 2) {
-            // RESTORE TO BACKGROUND FOR THE PREVIOUS FRAME'S RECT — BULK-FILL EACH CLIPPED ROW
-            final int canvasWidth = this.lsd.width();
-            final int canvasHeight = this.lsd.height();
-            final int xStart = Math.max(0, id.left());
-            final int yStart = Math.max(0, id.top());
-            final int xEnd = Math.min(canvasWidth, id.left() + id.width());
-            final int yEnd = Math.min(canvasHeight, id.top() + id.height());
+            // RESTORE TO BACKGROUND FOR THE PREVIOUS FRAME'S RECT — BULK-FILL EACH CLIPPED ROW. ON A DECIMATED
+            // CANVAS THE RECT COVERS THE CANVAS PIXELS WHOSE SCREEN SAMPLE FALLS INSIDE IT
+            final int step = this.step;
+            final int xStart = (Math.max(0, id.left()) + step - 1) / step;
+            final int yStart = (Math.max(0, id.top()) + step - 1) / step;
+            final int xEnd = (Math.min(this.lsd.width(), id.left() + id.width()) + step - 1) / step;
+            final int yEnd = (Math.min(this.lsd.height(), id.top() + id.height()) + step - 1) / step;
             if (xStart >= xEnd || yStart >= yEnd) return;
             for (int y = yStart; y < yEnd; y++) {
-                final int rowOff = y * canvasWidth;
+                final int rowOff = y * this.canvasWidth;
                 Arrays.fill(this.canvas, rowOff + xStart, rowOff + xEnd, background);
             }
         } else if (disposal == 3 && this.restoreFrame != null) {
@@ -468,15 +588,13 @@ public final class GIFReader extends ImageReader {
         }
     }
 
-    private byte[] decompress(final ImageDescriptor id, final int lzwMinCodeSize, final byte[] data,
-                             final int dataLength, final int expectedSize) throws XCodecException {
+    private static byte[] decompress(final Lzw lzw, final byte[] output, final int lzwMinCodeSize, final byte[] data,
+                                     final int dataLength, final int expectedSize) throws XCodecException {
         final int clearCode = 1 << lzwMinCodeSize;
         final int endOfInfoCode = clearCode + 1;
-        if (this.lzwIndexScratch.length < expectedSize) this.lzwIndexScratch = new byte[expectedSize];
-        final byte[] output = this.lzwIndexScratch;
-        final short[] prefix = this.lzwPrefix;
-        final byte[] suffix = this.lzwSuffix;
-        final byte[] pixelStack = this.lzwPixelStack;
+        final short[] prefix = lzw.prefix;
+        final byte[] suffix = lzw.suffix;
+        final byte[] pixelStack = lzw.pixelStack;
 
         for (int i = 0; i < clearCode; i++) {
             prefix[i] = 0;
@@ -823,4 +941,14 @@ public final class GIFReader extends ImageReader {
     }
 
     public record GifExtension(String identifier, byte[] data) {}
+
+    // ONE PARSED FRAME; lzwData IS NULL WHILE THE DATA STILL SITS IN subBlockBuffer
+    private record Frame(ImageDescriptor id, ColorTable colorTable, GraphicExtension gce, int lzwMinCodeSize,
+                         byte[] lzwData, int lzwDataLength) {}
+
+    private static final class Lzw {
+        final short[] prefix = new short[MAX_STACK_SIZE];
+        final byte[] suffix = new byte[MAX_STACK_SIZE];
+        final byte[] pixelStack = new byte[STACK_BUFFER_SIZE];
+    }
 }
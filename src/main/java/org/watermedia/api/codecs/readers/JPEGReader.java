@@ -3,12 +3,16 @@ package org.watermedia.api.codecs.readers;
 import org.watermedia.api.codecs.ImageData;
 import org.watermedia.api.codecs.ImageReader;
 import org.watermedia.api.codecs.XCodecException;
+import org.watermedia.api.codecs.common.simd.SimdKernels;
 import org.watermedia.api.util.PixelFormat;
+import org.watermedia.tools.ThreadTool;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * ByteBuffer-backed JPEG reader.
@@ -16,6 +20,15 @@ import java.util.Arrays;
  * <p>The reader receives a buffer positioned immediately after the SOI marker ({@code FF D8}).
  * It parses JPEG interchange streams directly and decodes 8-bit Huffman-coded baseline and
  * progressive images into the native JPEG sample layout unless BGRA output is requested.
+ *
+ * <p>A size hint (see {@link ImageReader}) selects libjpeg-style DCT scaling: each 8x8 block is
+ * inverse-transformed to 4x4, 2x2 or 1x1 samples from its low-frequency coefficients, picking the
+ * smallest scale that still covers the hint. {@link #width()}/{@link #height()} then report the
+ * reduced size and {@link #sourceWidth()}/{@link #sourceHeight()} the frame's own.
+ *
+ * <p>Large frames use the common fork/join pool: baseline scans with restart markers are
+ * Huffman-decoded one restart interval per task, and the IDCT and BGRA conversion of every frame
+ * run in bands of block/pixel rows. Output is identical to a single-threaded decode.
  */
 public final class JPEGReader extends ImageReader {
 
@@ -59,6 +72,11 @@ public final class JPEGReader extends ImageReader {
     private static final int MAX_SCANS = 100;
     // POINT-TRANSFORM CEILING: Al ABOVE THIS SHIFTS COEFFICIENTS OUT OF ANY MEANINGFUL RANGE (libjpeg AGREES)
     private static final int MAX_APPROXIMATION = 13;
+    // FORK/JOIN GRANULARITY: THE SMALLEST SHARE OF ENTROPY UNITS (MCUs OR BLOCKS), IDCT BLOCKS OR OUTPUT
+    // PIXELS WORTH HANDING TO ANOTHER THREAD. SMALLER FRAMES DECODE INLINE ON THE CALLING THREAD.
+    private static final int PARALLEL_MIN_UNITS = 256;
+    private static final int PARALLEL_MIN_BLOCKS = 1024;
+    private static final int PARALLEL_MIN_PIXELS = 1 << 16;
 
     private static final int[] ZIGZAG = {
             0, 1, 8, 16, 9, 2, 3, 10,
@@ -76,6 +94,11 @@ public final class JPEGReader extends ImageReader {
     private static final int PASS1_BITS = 2;
     private static final int PASS1_SHIFT = CONST_BITS - PASS1_BITS;
     private static final int PASS1_ROUND = 1 << (PASS1_SHIFT - 1);
+    // REDUCED-SIZE IDCT: COSINE TABLES FOR THE 4- AND 2-POINT TRANSFORMS
+    private static final int REDUCED_BITS = 13;
+    private static final long REDUCED_ROUND = 1L << (2 * REDUCED_BITS - 1);
+    private static final int[] REDUCED_COS_4 = reducedCosines(4);
+    private static final int[] REDUCED_COS_2 = reducedCosines(2);
     private static final int PASS2_SHIFT = CONST_BITS + PASS1_BITS + 3;
     private static final int PASS2_ROUND = 1 << (PASS2_SHIFT - 1);
     private static final int FIX_0_298631336 = 2446;
@@ -91,9 +114,12 @@ public final class JPEGReader extends ImageReader {
     private static final int FIX_2_562915447 = 20995;
     private static final int FIX_3_072711026 = 25172;
 
-    // PRECOMPUTED YCbCr -> RGB CONTRIBUTIONS (BT.601, libjpeg jdcolor.c LAYOUT, ABSORB -128 OFFSET).
+    // PRECOMPUTED YCbCr -> RGB CONTRIBUTIONS (BT.601, libjpeg jdcolor.c TABLES, ABSORB -128 OFFSET).
     // R/B TABLES STORE THE FINAL PER-PIXEL INTEGER CONTRIBUTION; G TABLES STORE 16-BIT FIXED-POINT,
     // SUMMED THEN SHIFTED. ROUNDING BIAS LIVES IN CB_TO_G SO THE SUM ROUNDS-TO-NEAREST.
+    // EVERY ENTRY IS LINEAR IN v (FIXED-POINT PRODUCT, THEN ONE SHIFT), SO THE VECTOR KERNEL
+    // (SimdKernels.jpegYccRow) COMPUTES THE SAME VALUES WITH MULTIPLIES INSTEAD OF LOOKUPS.
+    private static final int YCC_HALF = 1 << 15;
     private static final int[] CR_TO_R = new int[256];
     private static final int[] CB_TO_B = new int[256];
     private static final int[] CR_TO_G = new int[256];
@@ -102,10 +128,10 @@ public final class JPEGReader extends ImageReader {
     static {
         for (int i = 0; i < 256; i++) {
             final int v = i - 128;
-            CR_TO_R[i] = (int) Math.round(1.402 * v);
-            CB_TO_B[i] = (int) Math.round(1.772 * v);
-            CR_TO_G[i] = (int) Math.round(-0.71414 * v * 65536.0);
-            CB_TO_G[i] = (int) Math.round(-0.34414 * v * 65536.0) + (1 << 15);
+            CR_TO_R[i] = (fix16(1.40200) * v + YCC_HALF) >> 16;
+            CB_TO_B[i] = (fix16(1.77200) * v + YCC_HALF) >> 16;
+            CR_TO_G[i] = -fix16(0.71414) * v;
+            CB_TO_G[i] = -fix16(0.34414) * v + YCC_HALF;
         }
     }
 
@@ -115,6 +141,10 @@ public final class JPEGReader extends ImageReader {
     private Component[] components;
     private int width;
     private int height;
+    // DELIVERED SIZE AND IDCT OUTPUT PER BLOCK SIDE (8, 4, 2 OR 1) AFTER DCT SCALING FOR THE SIZE HINT
+    private int outWidth;
+    private int outHeight;
+    private int blockSize = 8;
     private int maxH;
     private int maxV;
     private int mcusX;
@@ -127,18 +157,31 @@ public final class JPEGReader extends ImageReader {
     private int[] planeOffsets = { 0 };
     private int[] planeSizes;
     private int[] planeStrides = { 0 };
+    private boolean decoded;
     private boolean delivered;
-    private int eobRun;
+    private boolean closed;
     private int scans;
 
     public JPEGReader(final ByteBuffer data, final PixelFormat requestedFormat) throws IOException {
-        super(data, requestedFormat);
-        this.parse();
-        this.buildFrame();
+        this(data, requestedFormat, 0, 0);
+    }
+
+    public JPEGReader(final ByteBuffer data, final PixelFormat requestedFormat, final int targetWidth, final int targetHeight) throws IOException {
+        super(data, requestedFormat, targetWidth, targetHeight);
+        // HEADERS ONLY: THE SIZE AND LAYOUT ARE KNOWN HERE, THE PIXELS ARE DECODED BY THE FIRST next()
+        this.parse(true);
+        if (this.components == null) throw new XCodecException("JPEG frame header not found");
+        this.blockSize = this.selectBlockSize();
+        this.outWidth = ceilDiv(this.width * this.blockSize, 8);
+        this.outHeight = ceilDiv(this.height * this.blockSize, 8);
+        this.nativeFormat = this.resolveNativeFormat();
+        this.outputFormat = this.requestedFormat == PixelFormat.BGRA ? PixelFormat.BGRA : this.nativeFormat;
     }
 
-    @Override public int width() { return this.width; }
-    @Override public int height() { return this.height; }
+    @Override public int width() { return this.outWidth; }
+    @Override public int height() { return this.outHeight; }
+    @Override public int sourceWidth() { return this.width; }
+    @Override public int sourceHeight() { return this.height; }
     @Override public PixelFormat pixelFormat() { return this.outputFormat; }
     @Override public ImageData.Scan scan() { return ImageData.Scan.EMPTY; }
     @Override public boolean variableFrameRate() { return false; }
@@ -151,6 +194,7 @@ public final class JPEGReader extends ImageReader {
     @Override
     public ByteBuffer plane(final int index) {
         if (index < 0 || index >= this.planeCount()) throw new IndexOutOfBoundsException("plane " + index);
+        if (this.directOut == null) throw new IllegalStateException("No JPEG frame decoded");
         final ByteBuffer view = this.directOut.duplicate().order(ByteOrder.LITTLE_ENDIAN);
         view.position(this.planeOffsets[index]).limit(this.planeOffsets[index] + this.planeSizes[index]);
         return view.slice().order(ByteOrder.LITTLE_ENDIAN);
@@ -159,6 +203,7 @@ public final class JPEGReader extends ImageReader {
     @Override
     public int planeStride(final int index) {
         if (index < 0 || index >= this.planeCount()) throw new IndexOutOfBoundsException("plane " + index);
+        if (this.directOut == null) throw new IllegalStateException("No JPEG frame decoded");
         return this.planeStrides[index];
     }
 
@@ -169,8 +214,8 @@ public final class JPEGReader extends ImageReader {
 
     @Override
     public boolean reset() {
-        // FULLY DECODED INTO directOut AT CONSTRUCTION; REPLAYING IS JUST CLEARING THE DELIVERY FLAG
-        if (this.directOut == null) return false;
+        // FULLY DECODED INTO directOut BY THE FIRST next(); REPLAYING IS JUST CLEARING THE DELIVERY FLAG
+        if (this.closed || (this.delivered && !this.decoded)) return false;
         this.delivered = false;
         this.currentDelay = 0L;
         return true;
@@ -184,19 +229,27 @@ public final class JPEGReader extends ImageReader {
         this.directOut = null;
         this.currentFrame = null;
         this.delivered = true;
+        this.closed = true;
     }
 
     @Override
     public ByteBuffer next() throws IOException {
         if (this.delivered) throw new XCodecException("No more JPEG frames");
+        // MARKED FIRST: A FAILED DECODE IS NOT RETRIED, THE STREAM HAS ALREADY MOVED PAST THE SCANS IT READ
         this.delivered = true;
+        if (!this.decoded) {
+            this.decode();
+            this.decoded = true;
+        }
         this.currentDelay = 0L;
         this.currentFrame = this.directOut;
         this.directOut.position(0).limit(this.directOut.capacity());
         return this.directOut;
     }
 
-    private void parse() throws IOException {
+    // WALKS THE MARKERS FROM THE CURRENT POSITION. WITH header SET IT STOPS RIGHT AFTER THE FRAME HEADER, SO
+    // THE SCANS THAT FOLLOW ARE LEFT FOR decode() TO PICK UP WHERE IT STOPPED
+    private void parse(final boolean header) throws IOException {
         int marker = -1;
         while (this.data.hasRemaining()) {
             if (marker < 0) marker = readMarker(this.data);
@@ -205,7 +258,10 @@ public final class JPEGReader extends ImageReader {
                 case EOI -> {
                     return;
                 }
-                case SOF0, SOF1, SOF2 -> this.readFrame(marker);
+                case SOF0, SOF1, SOF2 -> {
+                    this.readFrame(marker);
+                    if (header) return;
+                }
                 case SOF3, SOF5, SOF6, SOF7, SOF9, SOF10, SOF11, SOF13, SOF14, SOF15 -> {
                     // NAME THE CODING PROCESS INSTEAD OF SKIPPING THE SEGMENT: SKIPPING LEAVES THE DECODE
                     // WITHOUT A FRAME HEADER AND IT DIES LATER ON THE MISLEADING "scan before frame header"
@@ -223,7 +279,7 @@ public final class JPEGReader extends ImageReader {
                 case SOS -> {
                     if (++this.scans > MAX_SCANS) throw new XCodecException("Too many JPEG scans (max " + MAX_SCANS + ")");
                     final Scan scan = this.readScanHeader();
-                    final EntropyReader entropy = new EntropyReader(this.data);
+                    final EntropyReader entropy = new EntropyReader(this.data, this.components.length);
                     this.decodeScan(scan, entropy);
                     // A SCAN THAT READ NO ENTROPY BYTE CANNOT HAVE MADE PROGRESS; IT ONLY REPLAYS WORK OVER
                     // THE COEFFICIENT GRID FOR FREE, SO IT IS MALFORMED RATHER THAN MERELY EMPTY
@@ -282,7 +338,7 @@ public final class JPEGReader extends ImageReader {
                 throw new XCodecException("Unsupported JPEG sampling factor " + h + "x" + v);
             }
             if (table >= this.quantTables.length) throw new XCodecException("Invalid JPEG quantization table " + table);
-            this.components[i] = new Component(id, h, v, table);
+            this.components[i] = new Component(i, id, h, v, table);
             this.maxH = Math.max(this.maxH, h);
             this.maxV = Math.max(this.maxV, v);
         }
@@ -306,9 +362,6 @@ public final class JPEGReader extends ImageReader {
         // COMPONENT, NOT THE SUM OVER COMPONENTS, AND EVERY int PRODUCT BELOW IS ONLY SAFE ONCE THIS PASSES
         if (frameBytes > MAX_FRAME_BYTES)
             throw new XCodecException("JPEG frame needs " + frameBytes + " bytes to decode (max " + MAX_FRAME_BYTES + ")");
-        for (final Component component: this.components) {
-            component.coefficients = new int[component.blocksX * component.blocksY * 64];
-        }
     }
 
     private void readQuantTables() throws XCodecException {
@@ -396,7 +449,6 @@ public final class JPEGReader extends ImageReader {
     }
 
     private void decodeScan(final Scan scan, final EntropyReader entropy) throws IOException {
-        this.eobRun = 0;
         if (!this.progressive) {
             this.decodeSequentialScan(scan, entropy);
             return;
@@ -439,6 +491,7 @@ public final class JPEGReader extends ImageReader {
 
     private void decodeSequentialScan(final Scan scan, final EntropyReader entropy) throws IOException {
         this.validateTables(scan);
+        if (this.decodeRestartSegments(scan, entropy)) return;
         if (scan.components.length == 1) {
             final Component component = scan.components[0];
             this.forEachBlock(component, entropy, block -> this.decodeSequentialBlock(component, entropy, block));
@@ -489,14 +542,14 @@ public final class JPEGReader extends ImageReader {
         // DC MAGNITUDE CATEGORY (SSSS) IS 0..15; A CORRUPT TABLE CAN YIELD ANY BYTE, SO REJECT OUT-OF-RANGE
         // INSTEAD OF FEEDING A BOGUS BIT COUNT INTO receiveExtend
         if (bits > 15) throw new XCodecException("Invalid JPEG DC magnitude category " + bits);
-        component.dc += entropy.receiveExtend(bits);
-        component.coefficients[block] = component.dc << shift;
+        entropy.dc[component.index] += entropy.receiveExtend(bits);
+        component.coefficients[block] = entropy.dc[component.index] << shift;
     }
 
     private void decodeAcFirstBlock(final Component component, final EntropyReader entropy, final int block,
                                     final int start, final int end, final int shift) throws IOException {
-        if (this.eobRun > 0) {
-            this.eobRun--;
+        if (entropy.eobRun > 0) {
+            entropy.eobRun--;
             return;
         }
 
@@ -518,7 +571,7 @@ public final class JPEGReader extends ImageReader {
                     k += 16;
                     continue;
                 }
-                this.eobRun = (1 << run) + entropy.readBits(run) - 1;
+                entropy.eobRun = (1 << run) + entropy.readBits(run) - 1;
                 return;
             }
             k += run;
@@ -531,9 +584,9 @@ public final class JPEGReader extends ImageReader {
     private void decodeAcRefineBlock(final Component component, final EntropyReader entropy, final int block,
                                      final int start, final int end, final int shift) throws IOException {
         final int bit = 1 << shift;
-        if (this.eobRun > 0) {
+        if (entropy.eobRun > 0) {
             this.refineNonZero(component.coefficients, block, start, end, bit, entropy);
-            this.eobRun--;
+            entropy.eobRun--;
             return;
         }
 
@@ -553,9 +606,9 @@ public final class JPEGReader extends ImageReader {
             final int value;
             if (bits == 0) {
                 if (run < 15) {
-                    this.eobRun = (1 << run) + entropy.readBits(run);
+                    entropy.eobRun = (1 << run) + entropy.readBits(run);
                     this.refineNonZero(component.coefficients, block, k, end, bit, entropy);
-                    this.eobRun--;
+                    entropy.eobRun--;
                     return;
                 }
                 value = 0;
@@ -643,14 +696,107 @@ public final class JPEGReader extends ImageReader {
         final int next = count + 1;
         if (next < this.restartInterval) return next;
         entropy.consumeRestart();
-        this.resetPredictors();
-        this.eobRun = 0;
+        entropy.resetPredictors();
         return 0;
     }
 
-    private void resetPredictors() {
-        if (this.components == null) return;
-        for (final Component component: this.components) component.dc = 0;
+    // BASELINE SCANS WITH RESTART MARKERS: EVERY INTERVAL STARTS BYTE-ALIGNED WITH ZEROED PREDICTORS, SO THE
+    // INTERVALS ARE INDEPENDENT AND DECODE IN PARALLEL, EACH WITH ITS OWN EntropyReader OVER ITS OWN BYTES.
+    // RETURNS FALSE WITHOUT CONSUMING ANYTHING WHEN THE SCAN DOES NOT QUALIFY OR ANY INTERVAL FAILS: THE
+    // SERIAL PATH THEN DECODES THE SCAN FROM ITS START, SO CORRUPT STREAMS FAIL EXACTLY AS THEY ALWAYS DID.
+    private boolean decodeRestartSegments(final Scan scan, final EntropyReader entropy) {
+        if (this.restartInterval <= 0) return false;
+        final Component single = scan.components.length == 1 ? scan.components[0] : null;
+        final int unitsX = single != null ? single.widthInBlocks : this.mcusX;
+        final int units = single != null ? single.widthInBlocks * single.heightInBlocks : this.mcusX * this.mcusY;
+        final int segments = ceilDiv(units, this.restartInterval);
+        if (segments < 2 || units < PARALLEL_MIN_UNITS) return false;
+        final int[] bounds = findRestartSegments(this.data, segments);
+        if (bounds == null) return false;
+
+        final int[] consumed = new int[segments];
+        // A FAILED INTERVAL IS FLAGGED, NOT THROWN: A THROW WOULD RETURN BEFORE THE OTHER BANDS FINISH, AND
+        // THEY MUST BE DONE WRITING COEFFICIENTS BEFORE THE CLEANUP BELOW
+        final AtomicBoolean failed = new AtomicBoolean();
+        ThreadTool.parallel(segments, Math.max(1, PARALLEL_MIN_UNITS / this.restartInterval), (from, to) -> {
+            for (int segment = from; segment < to && !failed.get(); segment++) {
+                try {
+                    consumed[segment] = this.decodeRestartSegment(scan, single, unitsX, units, bounds, segment);
+                } catch (final IOException | RuntimeException e) {
+                    failed.set(true);
+                }
+            }
+        });
+        if (failed.get()) {
+            // THE SERIAL DECODE ONLY WRITES NONZERO AC TERMS, SO WHAT THE OTHER INTERVALS LEFT BEHIND WOULD
+            // SURVIVE WHEREVER IT STOPS SHORT; IT HAS TO START FROM THE ZEROED BUFFERS IT WOULD HAVE SEEN
+            for (final Component component: scan.components) Arrays.fill(component.coefficients, 0);
+            return false;
+        }
+
+        for (final int bytes: consumed) entropy.consumed += bytes;
+        // LEAVE THE STREAM ON THE MARKER THAT ENDS THE SCAN, WHERE THE SERIAL DECODE WOULD HAVE STOPPED
+        this.data.position(bounds[segments * 2 - 1]);
+        return true;
+    }
+
+    // DECODES ONE RESTART INTERVAL OF A SEQUENTIAL SCAN; RETURNS THE ENTROPY BYTES IT CONSUMED
+    private int decodeRestartSegment(final Scan scan, final Component single, final int unitsX, final int units,
+                                     final int[] bounds, final int segment) throws IOException {
+        final EntropyReader reader = new EntropyReader(
+                this.data.slice(bounds[segment * 2], bounds[segment * 2 + 1] - bounds[segment * 2]),
+                this.components.length);
+        final int first = segment * this.restartInterval;
+        final int last = Math.min(units, first + this.restartInterval);
+        for (int unit = first; unit < last; unit++) {
+            final int ux = unit % unitsX;
+            final int uy = unit / unitsX;
+            if (single != null) {
+                this.decodeSequentialBlock(single, reader, single.blockOffset(ux, uy));
+                continue;
+            }
+            for (final Component component: scan.components) {
+                for (int y = 0; y < component.v; y++) {
+                    for (int x = 0; x < component.h; x++) {
+                        this.decodeSequentialBlock(component, reader,
+                                component.blockOffset(ux * component.h + x, uy * component.v + y));
+                    }
+                }
+            }
+        }
+        return reader.consumed;
+    }
+
+    // SPLITS THE ENTROPY DATA AT data.position() INTO [start, end) BYTE RANGES, ONE PER RESTART INTERVAL, ENDING
+    // AT THE FIRST NON-RESTART MARKER. NULL WHEN THE MARKER COUNT DISAGREES WITH THE EXPECTED INTERVAL COUNT.
+    private static int[] findRestartSegments(final ByteBuffer data, final int expected) {
+        final int[] bounds = new int[expected * 2];
+        final int limit = data.limit();
+        int segment = 0;
+        int end = limit;
+        bounds[0] = data.position();
+        for (int i = data.position(); i < limit; i++) {
+            if ((data.get(i) & 0xFF) != 0xFF) continue;
+            int j = i + 1;
+            while (j < limit && (data.get(j) & 0xFF) == 0xFF) j++;
+            if (j >= limit) break;
+            final int marker = data.get(j) & 0xFF;
+            if (marker == 0x00) {
+                i = j;
+                continue;
+            }
+            if (!isRestart(marker)) {
+                end = i;
+                break;
+            }
+            if (++segment == expected) return null;
+            bounds[segment * 2 - 1] = i;
+            bounds[segment * 2] = j + 1;
+            i = j;
+        }
+        if (segment != expected - 1) return null;
+        bounds[expected * 2 - 1] = end;
+        return bounds;
     }
 
     private void validateTables(final Scan scan) throws XCodecException {
@@ -667,23 +813,43 @@ public final class JPEGReader extends ImageReader {
         }
     }
 
+    // ENTROPY DECODES THE SCANS AFTER THE FRAME HEADER, THEN RUNS THE IDCT AND WRITES THE DELIVERED LAYOUT
+    private void decode() throws IOException {
+        for (final Component component: this.components) {
+            component.coefficients = new int[component.blocksX * component.blocksY * 64];
+        }
+        this.parse(false);
+        this.buildFrame();
+    }
+
     private void buildFrame() throws IOException {
-        if (this.components == null) throw new XCodecException("JPEG frame header not found");
         for (final Component component: this.components) this.buildComponent(component);
 
-        this.nativeFormat = this.resolveNativeFormat();
-        this.outputFormat = this.requestedFormat == PixelFormat.BGRA ? PixelFormat.BGRA : this.nativeFormat;
         if (this.outputFormat == PixelFormat.BGRA) {
-            this.directOut = ByteBuffer.allocateDirect(this.width * this.height * 4).order(ByteOrder.LITTLE_ENDIAN);
+            this.directOut = ByteBuffer.allocateDirect(this.outWidth * this.outHeight * 4).order(ByteOrder.LITTLE_ENDIAN);
             this.planeOffsets = new int[] { 0 };
-            this.planeSizes = new int[] { this.width * this.height * 4 };
+            this.planeSizes = new int[] { this.outWidth * this.outHeight * 4 };
             this.planeStrides = new int[] { 0 };
             if (this.components.length == 1) this.writeGrayscaleBgra();
             else this.writeColorBgra();
         } else {
             this.writeNative();
         }
-        this.directOut.flip();
+        // THE BGRA WRITERS USE ABSOLUTE PUTS FROM SEVERAL THREADS; EVERY LAYOUT FILLS THE WHOLE BUFFER
+        this.directOut.position(0).limit(this.directOut.capacity());
+    }
+
+    // DCT SCALING: THE SMALLEST BLOCK OUTPUT (1, 2, 4 OR 8 SAMPLES PER SIDE) WHOSE FRAME STILL COVERS THE SIZE
+    // HINT ON EVERY CONSTRAINED AXIS, SO A CALLER DOWNSCALING TO THE HINT NEVER HAS TO UPSCALE
+    private int selectBlockSize() {
+        if (this.targetWidth <= 0 && this.targetHeight <= 0) return 8;
+        for (int size = 1; size < 8; size <<= 1) {
+            if ((this.targetWidth <= 0 || ceilDiv(this.width * size, 8) >= this.targetWidth)
+                    && (this.targetHeight <= 0 || ceilDiv(this.height * size, 8) >= this.targetHeight)) {
+                return size;
+            }
+        }
+        return 8;
     }
 
     private PixelFormat resolveNativeFormat() throws XCodecException {
@@ -698,27 +864,80 @@ public final class JPEGReader extends ImageReader {
         throw new XCodecException("Unsupported JPEG chroma sampling");
     }
 
-    private void buildComponent(final Component component) throws XCodecException {
+    private void buildComponent(final Component component) throws IOException {
         final int[] quant = this.quantTables[component.quantTable];
         if (quant == null) throw new XCodecException("Missing JPEG quantization table " + component.quantTable);
 
-        final int sampleWidth = component.blocksX * 8;
-        final int sampleHeight = component.blocksY * 8;
+        final int size = this.blockSize;
+        final int sampleWidth = component.blocksX * size;
+        final int sampleHeight = component.blocksY * size;
         component.samples = new byte[sampleWidth * sampleHeight];
-        final int[] tmp = new int[64];
-        for (int by = 0; by < component.blocksY; by++) {
-            for (int bx = 0; bx < component.blocksX; bx++) {
-                final int block = component.blockOffset(bx, by);
-                final int dst = by * 8 * sampleWidth + bx * 8;
-                idct(component.coefficients, block, quant, tmp, component.samples, dst, sampleWidth);
+        final SimdKernels simd = SimdKernels.get();
+        // ONE BAND OF BLOCK ROWS PER TASK; BLOCKS ARE INDEPENDENT AND WRITE DISJOINT SAMPLE RECTANGLES
+        ThreadTool.parallel(component.blocksY, ceilDiv(PARALLEL_MIN_BLOCKS, component.blocksX), (from, to) -> {
+            final int[] tmp = new int[64];
+            final long[] reduced = new long[16];
+            for (int by = from; by < to; by++) {
+                for (int bx = 0; bx < component.blocksX; bx++) {
+                    final int block = component.blockOffset(bx, by);
+                    final int dst = by * size * sampleWidth + bx * size;
+                    if (size == 8) idct(component.coefficients, block, quant, tmp, component.samples, dst, sampleWidth, simd);
+                    else idctReduced(component.coefficients, block, quant, size, reduced, component.samples, dst, sampleWidth);
+                }
             }
-        }
+        });
     }
 
     // INTEGER IDCT (libjpeg "islow"): ROW PASS THEN COLUMN PASS WITH INLINED DEQUANTIZATION.
     // ROW PASS WRITES TO 64-INT SCRATCH; COLUMN PASS LEVEL-SHIFTS BY 128, CLAMPS, AND WRITES BYTES DIRECTLY.
-    private static void idct(final int[] coef, final int block, final int[] quant,
-                             final int[] tmp, final byte[] dst, final int dstOff, final int dstStride) {
+    // REDUCED-SIZE IDCT (libjpeg scale_denom 2/4/8): A size-POINT INVERSE TRANSFORM OF THE BLOCK'S LOW-FREQUENCY
+    // size x size CORNER. THE 8-POINT NORMALIZATION IS KEPT, SO A FLAT BLOCK DECODES TO THE SAME LEVEL AT EVERY SIZE.
+    // THE HIGHER FREQUENCIES CANNOT BE REPRESENTED AT THE REDUCED RATE AND ARE DROPPED, WHICH IS THE ANTI-ALIASING.
+    private static void idctReduced(final int[] coef, final int block, final int[] quant, final int size,
+                                    final long[] tmp, final byte[] dst, final int dstOff, final int dstStride) {
+        if (size == 1 || isDcOnly(coef, block)) {
+            final byte b = (byte) clamp(((coef[block] * quant[0] + 4) >> 3) + 128);
+            for (int y = 0; y < size; y++) {
+                final int row = dstOff + y * dstStride;
+                for (int x = 0; x < size; x++) dst[row + x] = b;
+            }
+            return;
+        }
+        final int[] cos = size == 4 ? REDUCED_COS_4 : REDUCED_COS_2;
+        // ROW PASS: FULL PRECISION IN long, ONE ROUNDING AT THE END
+        for (int v = 0; v < size; v++) {
+            final int b = block + v * 8;
+            for (int x = 0; x < size; x++) {
+                long sum = 0L;
+                for (int u = 0; u < size; u++) sum += (long) coef[b + u] * quant[v * 8 + u] * cos[x * size + u];
+                tmp[v * size + x] = sum;
+            }
+        }
+        // COLUMN PASS: LEVEL SHIFT +128 AND CLAMP TO 0..255
+        for (int y = 0; y < size; y++) {
+            final int row = dstOff + y * dstStride;
+            for (int x = 0; x < size; x++) {
+                long sum = 0L;
+                for (int v = 0; v < size; v++) sum += tmp[v * size + x] * cos[y * size + v];
+                dst[row + x] = (byte) clamp((int) ((sum + REDUCED_ROUND) >> (2 * REDUCED_BITS)) + 128);
+            }
+        }
+    }
+
+    // C(u)/2 * cos((2x + 1) * u * PI / (2 * size)) IN REDUCED_BITS FIXED POINT, INDEXED [x * size + u]
+    private static int[] reducedCosines(final int size) {
+        final int[] table = new int[size * size];
+        for (int x = 0; x < size; x++) {
+            for (int u = 0; u < size; u++) {
+                final double c = (u == 0 ? Math.sqrt(0.5) : 1.0) / 2.0;
+                table[x * size + u] = (int) Math.round(c * Math.cos((2 * x + 1) * u * Math.PI / (2 * size)) * (1 << REDUCED_BITS));
+            }
+        }
+        return table;
+    }
+
+    private static void idct(final int[] coef, final int block, final int[] quant, final int[] tmp,
+                             final byte[] dst, final int dstOff, final int dstStride, final SimdKernels simd) {
         // FAST PATH: ENTIRE BLOCK IS DC ONLY (FLAT 8x8)
         if (isDcOnly(coef, block)) {
             final int dc = clamp(((coef[block] * quant[0] + 4) >> 3) + 128);
@@ -730,6 +949,10 @@ public final class JPEGReader extends ImageReader {
             }
             return;
         }
+        if (simd != null) {
+            simd.jpegIdct(coef, block, quant, tmp, dst, dstOff, dstStride);
+            return;
+        }
 
         // ROW PASS
         for (int row = 0; row < 8; row++) {
@@ -859,6 +1082,11 @@ public final class JPEGReader extends ImageReader {
         }
     }
 
+    // libjpeg FIX(x) IN 16-BIT FIXED POINT
+    private static int fix16(final double x) {
+        return (int) (x * 65536.0 + 0.5);
+    }
+
     private static boolean isDcOnly(final int[] coef, final int block) {
         for (int i = 1; i < 64; i++) {
             if (coef[block + i] != 0) return false;
@@ -868,35 +1096,35 @@ public final class JPEGReader extends ImageReader {
 
     private void writeNative() throws XCodecException {
         if (this.outputFormat == PixelFormat.GRAY) {
-            this.directOut = ByteBuffer.allocateDirect(this.width * this.height).order(ByteOrder.LITTLE_ENDIAN);
+            this.directOut = ByteBuffer.allocateDirect(this.outWidth * this.outHeight).order(ByteOrder.LITTLE_ENDIAN);
             this.planeOffsets = new int[] { 0 };
-            this.planeSizes = new int[] { this.width * this.height };
-            this.planeStrides = new int[] { this.width };
-            this.writePlane(this.components[0], this.width, this.height);
+            this.planeSizes = new int[] { this.outWidth * this.outHeight };
+            this.planeStrides = new int[] { this.outWidth };
+            this.writePlane(this.components[0], this.outWidth, this.outHeight);
             return;
         }
 
         final Component y = this.components[0];
         final Component cb = this.components[1];
         final Component cr = this.components[2];
-        final int chromaWidth = ceilDiv(this.width * cb.h, this.maxH);
-        final int chromaHeight = ceilDiv(this.height * cb.v, this.maxV);
-        final int ySize = this.width * this.height;
+        final int chromaWidth = ceilDiv(this.outWidth * cb.h, this.maxH);
+        final int chromaHeight = ceilDiv(this.outHeight * cb.v, this.maxV);
+        final int ySize = this.outWidth * this.outHeight;
         final int chromaSize = chromaWidth * chromaHeight;
 
         this.directOut = ByteBuffer.allocateDirect(ySize + chromaSize * 2).order(ByteOrder.LITTLE_ENDIAN);
         this.planeOffsets = new int[] { 0, ySize, ySize + chromaSize };
         this.planeSizes = new int[] { ySize, chromaSize, chromaSize };
-        this.planeStrides = new int[] { this.width, chromaWidth, chromaWidth };
+        this.planeStrides = new int[] { this.outWidth, chromaWidth, chromaWidth };
 
-        this.writePlane(y, this.width, this.height);
+        this.writePlane(y, this.outWidth, this.outHeight);
         this.writePlane(cb, chromaWidth, chromaHeight);
         this.writePlane(cr, chromaWidth, chromaHeight);
     }
 
     private void writePlane(final Component component, final int width, final int height) {
         final byte[] src = component.samples;
-        final int srcStride = component.blocksX * 8;
+        final int srcStride = component.blocksX * this.blockSize;
         // FAST PATH: NO PADDING IN SAMPLE BUFFER -> SINGLE BULK COPY
         if (srcStride == width) {
             this.directOut.put(src, 0, width * height);
@@ -908,67 +1136,82 @@ public final class JPEGReader extends ImageReader {
         }
     }
 
-    private void writeGrayscaleBgra() {
+    private void writeGrayscaleBgra() throws IOException {
         final Component yComponent = this.components[0];
         final byte[] src = yComponent.samples;
-        final int stride = yComponent.blocksX * 8;
+        final int stride = yComponent.blocksX * this.blockSize;
         final ByteBuffer out = this.directOut;
-        for (int y = 0; y < this.height; y++) {
-            final int row = y * stride;
-            for (int x = 0; x < this.width; x++) {
-                final int g = src[row + x] & 0xFF;
-                // BGRA LITTLE-ENDIAN: BYTE 0=B, 1=G, 2=R, 3=A
-                out.putInt(0xFF000000 | (g << 16) | (g << 8) | g);
+        ThreadTool.parallel(this.outHeight, ceilDiv(PARALLEL_MIN_PIXELS, this.outWidth), (from, to) -> {
+            int o = from * this.outWidth * 4;
+            for (int y = from; y < to; y++) {
+                final int row = y * stride;
+                for (int x = 0; x < this.outWidth; x++, o += 4) {
+                    final int g = src[row + x] & 0xFF;
+                    // BGRA LITTLE-ENDIAN: BYTE 0=B, 1=G, 2=R, 3=A
+                    out.putInt(o, 0xFF000000 | (g << 16) | (g << 8) | g);
+                }
             }
-        }
+        });
     }
 
-    private void writeColorBgra() {
+    private void writeColorBgra() throws IOException {
         final Component yc = this.components[0];
         final Component cbc = this.components[1];
         final Component crc = this.components[2];
         final byte[] ySrc = yc.samples;
         final byte[] cbSrc = cbc.samples;
         final byte[] crSrc = crc.samples;
-        final int yStride = yc.blocksX * 8;
-        final int cbStride = cbc.blocksX * 8;
-        final int crStride = crc.blocksX * 8;
+        final int yStride = yc.blocksX * this.blockSize;
+        final int cbStride = cbc.blocksX * this.blockSize;
+        final int crStride = crc.blocksX * this.blockSize;
 
         // PRECOMPUTE PER-DESTINATION-COLUMN SAMPLE INDICES (REMOVES MUL/DIV/MIN PER PIXEL). LUMA IS CLAMPED
         // AND SUBSAMPLED LIKE CHROMA ON PURPOSE: A RAW yRow + x INDEX IS ONLY IN RANGE WHILE resolveNativeFormat()
         // ACCEPTS EXCLUSIVELY 4:4:4/4:2:2/4:2:0, WHERE y.h == maxH AND y.v == maxV. THAT INVARIANT LIVES IN A
         // FORMAT CLASSIFIER 200 LINES AWAY, SO WIDENING IT TO 4:1:1 OR 4:4:0 WOULD SILENTLY TURN THIS LOOP INTO
         // AN OUT-OF-BOUNDS READ; CLAMPING KEEPS IT CORRECT FOR ANY LAYOUT AND COSTS ONE TABLE LOOKUP.
-        final int[] yX = new int[this.width];
-        final int[] cbX = new int[this.width];
-        final int[] crX = new int[this.width];
-        final int ySampleW = yc.blocksX * 8;
-        final int cbSampleW = cbc.blocksX * 8;
-        final int crSampleW = crc.blocksX * 8;
-        for (int x = 0; x < this.width; x++) {
-            yX[x] = Math.min(ySampleW - 1, (x * yc.h) / this.maxH);
-            cbX[x] = Math.min(cbSampleW - 1, (x * cbc.h) / this.maxH);
-            crX[x] = Math.min(crSampleW - 1, (x * crc.h) / this.maxH);
+        final int[] yX = new int[this.outWidth];
+        final int[] cbX = new int[this.outWidth];
+        final int[] crX = new int[this.outWidth];
+        for (int x = 0; x < this.outWidth; x++) {
+            yX[x] = Math.min(yStride - 1, (x * yc.h) / this.maxH);
+            cbX[x] = Math.min(cbStride - 1, (x * cbc.h) / this.maxH);
+            crX[x] = Math.min(crStride - 1, (x * crc.h) / this.maxH);
         }
 
         final ByteBuffer out = this.directOut;
-        final int ySampleH = yc.blocksY * 8;
-        final int cbSampleH = cbc.blocksY * 8;
-        final int crSampleH = crc.blocksY * 8;
-        for (int y = 0; y < this.height; y++) {
-            final int yRow = Math.min(ySampleH - 1, (y * yc.v) / this.maxV) * yStride;
-            final int cbRow = Math.min(cbSampleH - 1, (y * cbc.v) / this.maxV) * cbStride;
-            final int crRow = Math.min(crSampleH - 1, (y * crc.v) / this.maxV) * crStride;
-            for (int x = 0; x < this.width; x++) {
-                final int yy = ySrc[yRow + yX[x]] & 0xFF;
-                final int cb = cbSrc[cbRow + cbX[x]] & 0xFF;
-                final int cr = crSrc[crRow + crX[x]] & 0xFF;
-                final int r = clamp(yy + CR_TO_R[cr]);
-                final int g = clamp(yy + ((CB_TO_G[cb] + CR_TO_G[cr]) >> 16));
-                final int b = clamp(yy + CB_TO_B[cb]);
-                out.putInt(0xFF000000 | (r << 16) | (g << 8) | b);
+        final int ySampleH = yc.blocksY * this.blockSize;
+        final int cbSampleH = cbc.blocksY * this.blockSize;
+        final int crSampleH = crc.blocksY * this.blockSize;
+        // VECTOR ROWS NEED CONTIGUOUS LUMA AND CHROMA AT 1:1 OR 2:1 HORIZONTALLY, WHICH IS EVERY LAYOUT
+        // resolveNativeFormat() ACCEPTS; ANYTHING ELSE KEEPS THE INDEX TABLES ABOVE
+        final int chromaShift = cbc.h == this.maxH ? 0 : cbc.h * 2 == this.maxH ? 1 : -1;
+        final SimdKernels simd = yc.h == this.maxH && cbc.h == crc.h && chromaShift >= 0
+                && ((this.outWidth - 1) >> chromaShift) < Math.min(cbStride, crStride) ? SimdKernels.get() : null;
+        ThreadTool.parallel(this.outHeight, ceilDiv(PARALLEL_MIN_PIXELS, this.outWidth), (from, to) -> {
+            int o = from * this.outWidth * 4;
+            final IntBuffer pixels = simd == null ? null : out.duplicate().clear().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            final int[] row = simd == null ? null : new int[this.outWidth];
+            for (int y = from; y < to; y++) {
+                final int yRow = Math.min(ySampleH - 1, (y * yc.v) / this.maxV) * yStride;
+                final int cbRow = Math.min(cbSampleH - 1, (y * cbc.v) / this.maxV) * cbStride;
+                final int crRow = Math.min(crSampleH - 1, (y * crc.v) / this.maxV) * crStride;
+                if (simd != null) {
+                    simd.jpegYccRow(ySrc, yRow, cbSrc, cbRow, crSrc, crRow, chromaShift, row, 0, this.outWidth);
+                    pixels.put(y * this.outWidth, row, 0, this.outWidth);
+                    continue;
+                }
+                for (int x = 0; x < this.outWidth; x++, o += 4) {
+                    final int yy = ySrc[yRow + yX[x]] & 0xFF;
+                    final int cb = cbSrc[cbRow + cbX[x]] & 0xFF;
+                    final int cr = crSrc[crRow + crX[x]] & 0xFF;
+                    final int r = clamp(yy + CR_TO_R[cr]);
+                    final int g = clamp(yy + ((CB_TO_G[cb] + CR_TO_G[cr]) >> 16));
+                    final int b = clamp(yy + CB_TO_B[cb]);
+                    out.putInt(o, 0xFF000000 | (r << 16) | (g << 8) | b);
+                }
             }
-        }
+        });
     }
 
     private Component component(final int id) throws XCodecException {
@@ -1053,6 +1296,8 @@ public final class JPEGReader extends ImageReader {
     private record Scan(Component[] components, int ss, int se, int ah, int al) {}
 
     private static final class Component {
+        // POSITION IN THE FRAME HEADER; INDEXES THE PER-STREAM DC PREDICTORS IN EntropyReader
+        final int index;
         final int id;
         final int h;
         final int v;
@@ -1063,14 +1308,14 @@ public final class JPEGReader extends ImageReader {
         int blocksY;
         int widthInBlocks;
         int heightInBlocks;
-        int dc;
         int[] coefficients;
         byte[] samples;
         // POINT TRANSFORM EACH COEFFICIENT WAS LAST CODED AT, -1 UNTIL A FIRST PASS COVERS IT. DRIVES THE
         // PROGRESSIVE SCAN-ORDERING GATE IN decodeScan()
         final int[] approx = new int[64];
 
-        Component(final int id, final int h, final int v, final int quantTable) {
+        Component(final int index, final int id, final int h, final int v, final int quantTable) {
+            this.index = index;
             this.id = id;
             this.h = h;
             this.v = v;
@@ -1152,10 +1397,20 @@ public final class JPEGReader extends ImageReader {
         int bitCount;
         // ENTROPY BYTES FED INTO bitBuf; A SCAN THAT ENDS WITH ZERO OF THEM MADE NO PROGRESS AT ALL
         int consumed;
+        // DECODING STATE THAT RESTARTS WITH THE STREAM: DC PREDICTOR PER FRAME COMPONENT AND THE PENDING
+        // END-OF-BAND RUN. KEEPING IT HERE LETS INDEPENDENT RESTART INTERVALS DECODE ON SEPARATE READERS.
+        final int[] dc;
+        int eobRun;
         private int pendingMarker = -1;
 
-        EntropyReader(final ByteBuffer input) {
+        EntropyReader(final ByteBuffer input, final int components) {
             this.input = input;
+            this.dc = new int[components];
+        }
+
+        void resetPredictors() {
+            Arrays.fill(this.dc, 0);
+            this.eobRun = 0;
         }
 
         // FAST REFILL: ACCUMULATES UP TO 32 BITS INTO bitBuf. STOPS AT TRUNCATION OR EMBEDDED MARKER.
@@ -36,6 +36,7 @@ import org.watermedia.api.codecs.common.png.TIME;
 import org.watermedia.api.codecs.common.png.TRNS;
 import org.watermedia.api.codecs.common.png.ZTXT;
 import org.watermedia.api.util.PixelFormat;
+import org.watermedia.tools.ThreadTool;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -47,6 +48,14 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
 
@@ -71,6 +80,12 @@ public final class PNGReader extends ImageReader {
     private static final int MAX_INFLATED_IMAGE_BYTES = Integer.MAX_VALUE - 8; // JAVA ARRAY-SIZE SAFE UPPER BOUND
     private static final int MIN_INFLATE_BUFFER = 64 * 1024;           // FLOOR FOR THE INPUT-DERIVED INFLATE BUFFER
     private static final int INFLATE_RATIO_GUESS = 32;                 // ASSUMED DEFLATE RATIO WHEN SIZING THAT BUFFER
+    private static final int INFLATE_WINDOW = 32 * 1024;               // ROW-STREAMING INFLATE WINDOW
+    private static final int PIPELINE_MIN_BYTES = 1 << 20;             // INFLATED SIZE BELOW WHICH A THREAD HANDOFF COSTS MORE THAN IT SAVES
+    private static final int PIPELINE_BLOCK_BYTES = 256 * 1024;        // FILTERED ROWS PER PIPELINE HANDOFF
+    private static final int PIPELINE_DEPTH = 3;                       // ROW BLOCKS IN FLIGHT
+    private static final ExecutorService PIPELINE = Executors.newCachedThreadPool(
+            ThreadTool.createFactory("PNGReader-Pipeline", Thread.NORM_PRIORITY));
 
     // FILTER TYPES (FILTER METHOD 0)
     private static final int FILTER_NONE = 0;
@@ -120,7 +135,9 @@ public final class PNGReader extends ImageReader {
     // CANVAS / OUTPUT (1-D ARGB INT BUFFERS, STRIDE = canvasWidth)
     private int canvasWidth;
     private int canvasHeight;
-    private int[] outputBuffer;      // COMPOSITED CANVAS (ARGB)
+    private int step = 1;            // SIZE-HINT DECIMATION: CANVAS PIXEL (x, y) IS IMAGE PIXEL (x * step, y * step)
+    private int passes = 7;          // ADAM7 PASSES DECODED; ONLY THE FIRST 1, 3 OR 5 LAND ON A 8, 4 OR 2 STEP GRID
+    private int[] outputBuffer;      // LAZILY ALLOCATED COMPOSITED CANVAS (ARGB), UNUSED BY ROW STREAMING
     private int[] previousBuffer;    // LAZILY SAVED CANVAS FOR DISPOSE_OP_PREVIOUS
     private int[] frameBuffer;       // REUSABLE APNG FRAME DECODE TARGET
     private ByteBuffer directOut;    // BGRA result, reused
@@ -129,12 +146,19 @@ public final class PNGReader extends ImageReader {
     // ROW SCRATCH
     private byte[] passCurrentRow = new byte[0];
     private byte[] passPreviousRow = new byte[0];
+    private int[] streamRow = new int[0];            // ONE ARGB ROW FOR ROW STREAMING
+    private byte[] inflateWindow = new byte[0];
 
     // INFLATE
     private final Inflater inflater = new Inflater();
     private boolean inflaterClosed;
     private byte[] decompressed = new byte[0]; // REUSED ACROSS FRAMES
 
+    // APNG READ-AHEAD: THE NEXT FRAME INFLATES ON THE PIPELINE WITH ITS OWN INFLATER AND BUFFER
+    private Prefetch prefetch;
+    private Inflater prefetchInflater;
+    private byte[] prefetchDecompressed = new byte[0];
+
     // PRECOMPUTED HOT-PATH INVARIANTS (computed in constructor)
     private ColorType colorType;
     private int depth;
@@ -143,7 +167,17 @@ public final class PNGReader extends ImageReader {
     private int trnsR8 = -1, trnsG8 = -1, trnsB8 = -1, trnsGray8 = -1;
 
     public PNGReader(final ByteBuffer data) throws IOException {
-        super(data);
+        this(data, 0, 0);
+    }
+
+    /**
+     * Opens the stream with a size hint (see {@link ImageReader}). A static interlaced image decodes
+     * only the Adam7 passes that cover the hint: pass 1 alone is every 8th pixel of every 8th row,
+     * passes 1-3 every 4th and passes 1-5 every 2nd, so the rest of the stream is never inflated.
+     * Non-interlaced and animated streams decode at full size.
+     */
+    public PNGReader(final ByteBuffer data, final int targetWidth, final int targetHeight) throws IOException {
+        super(data, null, targetWidth, targetHeight);
         this.data.order(ByteOrder.BIG_ENDIAN);
         this.scan = scan(this.data.duplicate().order(ByteOrder.BIG_ENDIAN));
 
@@ -159,14 +193,23 @@ public final class PNGReader extends ImageReader {
         this.resetDone = this.done;
 
         this.gammaLUT = buildGammaLUT(this.gamma, this.srgb, this.cicp);
-        this.canvasWidth = this.ihdr.width();
-        this.canvasHeight = this.ihdr.height();
         this.colorType = ColorType.of(this.ihdr.colorType());
         this.depth = this.ihdr.depth();
         this.bytesPerPixel = this.ihdr.bytesPerPixel();
+        // APNG FRAMES COMPOSITE AT fcTL OFFSETS THAT NEED NOT SIT ON THE GRID, SO ONLY A STATIC IMAGE IS REDUCED
+        if (this.ihdr.interlace() == 1 && this.actl == null) {
+            this.step = this.reductionStep(this.ihdr.width(), this.ihdr.height(), 8);
+            this.passes = switch (this.step) {
+                case 8 -> 1;
+                case 4 -> 3;
+                case 2 -> 5;
+                default -> 7;
+            };
+        }
+        this.canvasWidth = (this.ihdr.width() + this.step - 1) / this.step;
+        this.canvasHeight = (this.ihdr.height() + this.step - 1) / this.step;
 
         final int pixelCount = this.canvasWidth * this.canvasHeight;
-        this.outputBuffer = new int[pixelCount];
         this.directOut = ByteBuffer.allocateDirect(pixelCount * 4).order(ByteOrder.LITTLE_ENDIAN);
         this.directOutInts = this.directOut.asIntBuffer();
 
@@ -177,18 +220,14 @@ public final class PNGReader extends ImageReader {
                 throw new XCodecException("bKGD palette index out of range: " + this.bkgd.paletteIndex() + " (palette size " + this.plte.size() + ")");
         }
 
-        // INIT CANVAS WITH BKGD OR TRANSPARENT
-        if (this.bkgd != null) {
-            Arrays.fill(this.outputBuffer, this.bkgdToARGB(this.bkgd, this.depth, this.plte));
-        }
-        // ELSE: ZERO-INIT FROM `new int[...]`
-
         this.computeTrnsScaled();
         this.precomputeIndexedLUT();
     }
 
-    @Override public int width() { return this.ihdr.width(); }
-    @Override public int height() { return this.ihdr.height(); }
+    @Override public int width() { return this.canvasWidth; }
+    @Override public int height() { return this.canvasHeight; }
+    @Override public int sourceWidth() { return this.ihdr.width(); }
+    @Override public int sourceHeight() { return this.ihdr.height(); }
     @Override public PixelFormat pixelFormat() { return PixelFormat.BGRA; }
     @Override public ImageData.Scan scan() { return this.scan; }
     @Override public ImageMetadata metadata() { return this.metadata.empty() ? ImageMetadata.EMPTY : this.metadata; }
@@ -197,22 +236,26 @@ public final class PNGReader extends ImageReader {
     @Override
     public void close() {
         if (this.inflaterClosed) return;
+        // A PREFETCHED INFLATE MAY STILL BE RUNNING ON THE PIPELINE; LET IT FINISH BEFORE ENDING ITS INFLATER
+        this.discardPrefetch();
         this.inflater.end();
+        if (this.prefetchInflater != null) this.prefetchInflater.end();
         this.inflaterClosed = true;
     }
 
     @Override
     public boolean reset() {
         if (this.inflaterClosed) return false;
+        this.discardPrefetch();
         this.data.position(this.resetPos);
         this.pendingChunk = this.resetChunk;
         this.done = this.resetDone;
         this.animFrames = 0;
         this.currentDelay = 0L;
-        // RE-INIT THE CANVAS EXACTLY AS THE CONSTRUCTOR LEAVES IT (BKGD COLOR OR TRANSPARENT);
+        // RE-INIT THE CANVAS EXACTLY AS canvas() FIRST LEAVES IT (BKGD COLOR OR TRANSPARENT);
         // frameBuffer AND previousBuffer NEED NO CLEARING BECAUSE EACH next() FULLY WRITES THE
         // REGIONS IT LATER READS
-        Arrays.fill(this.outputBuffer, this.bkgd != null ? this.bkgdToARGB(this.bkgd, this.depth, this.plte) : 0);
+        if (this.outputBuffer != null) Arrays.fill(this.outputBuffer, this.canvasFill());
         return true;
     }
 
@@ -220,13 +263,92 @@ public final class PNGReader extends ImageReader {
     public boolean hasNext() throws XCodecException {
         // close() ENDS THE INFLATER; A LATER next() WOULD OTHERWISE NPE INSIDE inflater.reset()
         if (this.inflaterClosed) throw new XCodecException("PNGReader is closed");
-        return !this.done && this.pendingChunk != null;
+        // A PREFETCHED FRAME IS PENDING EVEN WHEN ITS READ FAILED: next() REPORTS THE ERROR IN ORDER
+        return this.prefetch != null || (!this.done && this.pendingChunk != null);
     }
 
     @Override
     public ByteBuffer next() throws IOException {
         if (!this.hasNext()) throw new XCodecException("No more PNG frames");
 
+        final Frame frame;
+        final byte[] decompressedBuf;
+        final int decompressedLen;
+        final Prefetch prefetch = this.prefetch;
+        if (prefetch != null) {
+            // CHUNKS WERE READ WHILE THE PREVIOUS FRAME WAS DISPOSED; THE INFLATE MAY STILL BE RUNNING
+            this.prefetch = null;
+            if (prefetch.error() != null) throw prefetch.error();
+            frame = prefetch.frame();
+            if (prefetch.inflated() != null) {
+                final Inflated inflated = await(prefetch.inflated());
+                this.prefetchDecompressed = inflated.data();
+                decompressedBuf = inflated.data();
+                decompressedLen = inflated.length();
+            } else {
+                decompressedLen = this.inflate(frame.compressed(), frame.ihdr());
+                decompressedBuf = this.decompressed;
+            }
+        } else {
+            frame = this.readFrame();
+            // NON-ANIMATED, NON-INTERLACED: THE FRAME IS THE WHOLE CANVAS AND EACH ROW IS FINAL AS SOON AS
+            // IT IS UNFILTERED, SO NO INFLATED STREAM OR ARGB CANVAS IS STAGED
+            if (frame.fctl() == null && this.actl == null && frame.ihdr().interlace() == 0) {
+                this.streamRows(frame.compressed(), frame.ihdr());
+                this.currentDelay = 0L;
+                this.currentFrame = this.directOut;
+                return this.directOut;
+            }
+
+            decompressedLen = this.inflate(frame.compressed(), frame.ihdr());
+            decompressedBuf = this.decompressed;
+        }
+        final FCTL fctl = frame.fctl();
+        final IHDR frameIhdr = frame.ihdr();
+
+        // DECODE
+        final int[] canvas = this.canvas();
+        final int[] framePixels = (fctl != null) ? this.frameBuffer() : canvas;
+        this.decodeData(decompressedBuf, decompressedLen, frameIhdr, framePixels);
+        final int frameWidth = (fctl != null) ? frameIhdr.width() : this.canvasWidth;
+        final int frameHeight = (fctl != null) ? frameIhdr.height() : this.canvasHeight;
+
+        if (this.gammaLUT != null) {
+            applyGammaCorrection(framePixels, frameWidth, frameHeight, this.canvasWidth, this.gammaLUT);
+        }
+        if (this.bkgd != null) {
+            this.flattenAlpha(framePixels, frameWidth, frameHeight, this.canvasWidth,
+                    this.bkgd, this.depth, this.plte);
+        }
+
+        if (fctl != null) {
+            // APNG: COMPOSITE ONTO CANVAS WITH BLEND/DISPOSE
+            if ((fctl.dispose() & 0xFF) == FCTL.DISPOSE_OP_PREVIOUS) {
+                final int[] prev = this.previousBuffer();
+                System.arraycopy(canvas, 0, prev, 0, canvas.length);
+            }
+            this.applyBlendOp(canvas, framePixels, fctl);
+            this.currentDelay = fctl.delayMillis();
+            this.writeBGRA(canvas);
+            // THE NEXT FRAME'S fdAT INFLATES ON THE PIPELINE WHILE THIS THREAD DISPOSES AND THE CALLER
+            // CONSUMES THE OUTPUT
+            this.prefetchNext();
+            this.applyDispose(canvas, this.previousBuffer, fctl,
+                    this.bkgd, this.depth, this.plte, this.canvasWidth, this.canvasHeight);
+        } else {
+            this.currentDelay = 0L;
+            this.writeBGRA(canvas);
+        }
+
+        this.currentFrame = this.directOut;
+        return this.directOut;
+    }
+
+    /**
+     * Reads the chunks of the next frame (up to the next {@code fcTL}, {@code IEND} or EOF) and
+     * validates its geometry. Nothing is inflated yet.
+     */
+    private Frame readFrame() throws IOException {
         FCTL fctl = null;
         final List<ChunkSlice> compressed = new ArrayList<>();
 
@@ -304,40 +426,59 @@ public final class PNGReader extends ImageReader {
                 ? new IHDR(fctl.width(), fctl.height(), this.ihdr.depth(), this.ihdr.colorType(),
                 this.ihdr.compression(), this.ihdr.filter(), this.ihdr.interlace())
                 : this.ihdr;
+        return new Frame(fctl, frameIhdr, compressed);
+    }
 
-        // DECODE
-        final int decompressedLen = this.inflate(compressed, frameIhdr);
-        final byte[] decompressedBuf = this.decompressed;
-
-        final int[] framePixels = (fctl != null) ? this.frameBuffer() : this.outputBuffer;
-        this.decodeData(decompressedBuf, decompressedLen, frameIhdr, framePixels);
-
-        if (this.gammaLUT != null) {
-            applyGammaCorrection(framePixels, frameIhdr.width(), frameIhdr.height(), this.canvasWidth, this.gammaLUT);
+    // READS THE NEXT APNG FRAME'S CHUNKS NOW AND, WHEN IT IS WORTH A HANDOFF, STARTS ITS INFLATE ON THE
+    // PIPELINE WITH THE SECOND INFLATER; A READ ERROR IS KEPT FOR THE next() THAT WOULD HAVE HIT IT
+    private void prefetchNext() {
+        if (!WaterMediaConfig.decoders.png.pipeline || this.done || this.pendingChunk == null) return;
+        final Frame frame;
+        try {
+            frame = this.readFrame();
+        } catch (final IOException e) {
+            this.prefetch = new Prefetch(null, null, e);
+            return;
         }
-        if (this.bkgd != null) {
-            this.flattenAlpha(framePixels, frameIhdr.width(), frameIhdr.height(), this.canvasWidth,
-                    this.bkgd, this.depth, this.plte);
+        if (this.expectedInflatedBytes(frame.ihdr()) < PIPELINE_MIN_BYTES) {
+            this.prefetch = new Prefetch(frame, null, null);
+            return;
         }
+        if (this.prefetchInflater == null) this.prefetchInflater = new Inflater();
+        final Inflater inflater = this.prefetchInflater;
+        final byte[] buffer = this.prefetchDecompressed;
+        this.prefetch = new Prefetch(frame, PIPELINE.submit(() -> this.inflate(inflater, buffer, frame.compressed(), frame.ihdr())), null);
+    }
 
-        if (fctl != null) {
-            // APNG: COMPOSITE ONTO CANVAS WITH BLEND/DISPOSE
-            if ((fctl.dispose() & 0xFF) == FCTL.DISPOSE_OP_PREVIOUS) {
-                final int[] prev = this.previousBuffer();
-                System.arraycopy(this.outputBuffer, 0, prev, 0, this.outputBuffer.length);
+    // WAITS OUT AN IN-FLIGHT PREFETCH (ITS RESULT OR ERROR NO LONGER MATTERS) SO ITS INFLATER IS FREE AGAIN
+    private void discardPrefetch() {
+        final Prefetch prefetch = this.prefetch;
+        this.prefetch = null;
+        if (prefetch == null || prefetch.inflated() == null) return;
+        boolean interrupted = false;
+        while (true) {
+            try {
+                prefetch.inflated().get();
+                break;
+            } catch (final InterruptedException e) {
+                interrupted = true;
+            } catch (final ExecutionException | CancellationException e) {
+                break;
             }
-            this.applyBlendOp(this.outputBuffer, framePixels, fctl);
-            this.currentDelay = fctl.delayMillis();
-            this.writeBGRA(this.outputBuffer);
-            this.applyDispose(this.outputBuffer, this.previousBuffer, fctl,
-                    this.bkgd, this.depth, this.plte, this.canvasWidth, this.canvasHeight);
-        } else {
-            this.currentDelay = 0L;
-            this.writeBGRA(this.outputBuffer);
         }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
 
-        this.currentFrame = this.directOut;
-        return this.directOut;
+    private static <T> T await(final Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new XCodecException("PNG decode interrupted", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof final IOException io) throw io;
+            throw new XCodecException("PNG pipeline failed", e.getCause());
+        }
     }
 
     // PARSE CHUNKS UNTIL FIRST IDAT/fcTL (POPULATES pendingChunk OR SETS done)
@@ -598,7 +739,15 @@ public final class PNGReader extends ImageReader {
 
     /** Inflates compressed chunks into {@link #decompressed}; returns the number of valid bytes. */
     private int inflate(final List<ChunkSlice> compressed, final IHDR ihdr) throws IOException {
-        final Inflater inflater = this.inflater;
+        final Inflated inflated = this.inflate(this.inflater, this.decompressed, compressed, ihdr);
+        this.decompressed = inflated.data();
+        return inflated.length();
+    }
+
+    // THREAD-CONFINED TO ITS ARGUMENTS (AND THE IMMUTABLE HEADER FIELDS), SO A PREFETCH CAN RUN IT ON THE
+    // PIPELINE; buffer IS REUSED WHEN LARGE ENOUGH AND THE RESULT CARRIES WHICHEVER ARRAY HOLDS THE DATA
+    private Inflated inflate(final Inflater inflater, final byte[] buffer, final List<ChunkSlice> compressed,
+                             final IHDR ihdr) throws IOException {
         inflater.reset();
         // A WELL-FORMED PNG DECOMPRESSES TO EXACTLY THIS MANY FILTERED BYTES; ANYTHING PAST IT IS A
         // DECOMPRESSION BOMB. COMPUTED AS long SO 16K depth-16 FRAMES DON'T OVERFLOW THE int MULTIPLY.
@@ -607,6 +756,8 @@ public final class PNGReader extends ImageReader {
             throw new XCodecException("PNG image data too large: " + expectedLong + " bytes");
         }
         final int expected = (int) expectedLong;
+        // A DECIMATED FRAME ONLY READS THE LEADING PASSES; THE DEFLATE STREAM STOPS BEING PULLED ONCE THEY ARE OUT
+        final long needed = this.inflatedBytes(ihdr, this.passes);
         // SIZE THE FIRST BUFFER FROM THE COMPRESSED BYTES ACTUALLY PRESENT, NOT FROM THE HEADER: AN
         // 8-BYTE IDAT UNDER A 8192x8192 16-BIT IHDR OTHERWISE PINS A ~400 MB ARRAY IN `decompressed`.
         // growInflateOutput STILL EXPANDS UP TO `expected` FOR GENUINELY LARGE IMAGES.
@@ -614,47 +765,40 @@ public final class PNGReader extends ImageReader {
         for (final ChunkSlice chunk: compressed) {
             if (chunk.length() > 0) compressedBytes += chunk.length();
         }
-        final int initial = (int) Math.min(Math.max(32, expected),
+        final int initial = (int) Math.min(Math.max(32, needed),
                 Math.max(MIN_INFLATE_BUFFER, compressedBytes * INFLATE_RATIO_GUESS));
-        byte[] output = this.decompressed;
-        if (output.length < initial) {
-            output = new byte[initial];
-            this.decompressed = output;
-        }
+        byte[] output = buffer;
+        if (output.length < initial) output = new byte[initial];
         int outputSize = 0;
         try {
             for (final ChunkSlice chunk: compressed) {
                 if (chunk.length() <= 0) continue;
                 inflater.setInput(chunk.data(), chunk.offset(), chunk.length());
                 while (true) {
-                    if (outputSize == output.length) {
-                        output = growInflateOutput(output);
-                        this.decompressed = output;
-                    }
+                    if (outputSize == output.length) output = growInflateOutput(output);
                     final int len = inflater.inflate(output, outputSize, output.length - outputSize);
                     if (len > 0) {
                         outputSize += len;
                         if (outputSize > expected) throw new XCodecException("Compressed image data exceeds expected size (" + expected + " bytes)");
+                        if (needed < expected && outputSize >= needed) return new Inflated(output, outputSize);
                         continue;
                     }
-                    if (inflater.finished()) return outputSize;
+                    if (inflater.finished()) return new Inflated(output, outputSize);
                     if (inflater.needsDictionary()) throw new XCodecException("PNG uses unsupported compression dictionary");
                     if (inflater.needsInput()) break;
                     throw new XCodecException("Invalid compressed data stream");
                 }
             }
             while (true) {
-                if (outputSize == output.length) {
-                    output = growInflateOutput(output);
-                    this.decompressed = output;
-                }
+                if (outputSize == output.length) output = growInflateOutput(output);
                 final int len = inflater.inflate(output, outputSize, output.length - outputSize);
                 if (len > 0) {
                     outputSize += len;
                     if (outputSize > expected) throw new XCodecException("Compressed image data exceeds expected size (" + expected + " bytes)");
+                    if (needed < expected && outputSize >= needed) return new Inflated(output, outputSize);
                     continue;
                 }
-                if (inflater.finished()) return outputSize;
+                if (inflater.finished()) return new Inflated(output, outputSize);
                 if (inflater.needsDictionary()) throw new XCodecException("PNG uses unsupported compression dictionary");
                 if (inflater.needsInput()) throw new XCodecException("Incomplete compressed data");
                 throw new XCodecException("Invalid compressed data stream");
@@ -664,12 +808,68 @@ public final class PNGReader extends ImageReader {
         }
     }
 
+    /**
+     * Decodes a non-interlaced frame covering the whole canvas straight into {@link #directOut}: the
+     * inflater fills a small window, and each scanline is unfiltered, converted, gamma-corrected and
+     * flattened as soon as it is complete. Beyond the output this holds two scanlines, one ARGB row
+     * and the window, whatever the image height. Large images inflate on the pipeline instead, a few
+     * row blocks ahead of this thread (see {@link RowPipeline}).
+     */
+    private void streamRows(final List<ChunkSlice> compressed, final IHDR ihdr) throws IOException {
+        final long expected = this.expectedInflatedBytes(ihdr);
+        if (expected > MAX_INFLATED_IMAGE_BYTES) {
+            throw new XCodecException("PNG image data too large: " + expected + " bytes");
+        }
+        final int width = ihdr.width();
+        final int height = ihdr.height();
+        final int scanlineBytes = this.scanlineBytes(width);
+        this.ensurePassRowCapacity(scanlineBytes);
+        byte[] currentRow = this.passCurrentRow;
+        byte[] previousRow = this.passPreviousRow;
+        Arrays.fill(previousRow, 0, scanlineBytes, (byte) 0);
+        if (this.streamRow.length < width) this.streamRow = new int[width];
+        final int[] argb = this.streamRow;
+        if (this.inflateWindow.length == 0) this.inflateWindow = new byte[INFLATE_WINDOW];
+        final RowSource source = new RowSource(compressed, this.inflateWindow, expected);
+        final int bpp = this.bytesPerPixel;
+
+        this.directOut.clear();
+        final IntBuffer out = this.directOutInts;
+        try (final FilteredRows rows = WaterMediaConfig.decoders.png.pipeline && expected >= PIPELINE_MIN_BYTES
+                ? new RowPipeline(source, scanlineBytes, height) : source) {
+            for (int y = 0; y < height; y++) {
+                final int filterType = rows.next(currentRow, scanlineBytes);
+                if (filterType < 0) throw new XCodecException("Unexpected end of image data");
+
+                unfilterRow(currentRow, previousRow, scanlineBytes, filterType, bpp);
+                this.writeRowPixels(currentRow, argb, 0, 0, 1, width, width);
+                if (this.gammaLUT != null) applyGammaCorrection(argb, width, 1, width, this.gammaLUT);
+                if (this.bkgd != null) this.flattenAlpha(argb, width, 1, width, this.bkgd, this.depth, this.plte);
+                out.put(y * width, argb, 0, width);
+
+                final byte[] tmp = previousRow;
+                previousRow = currentRow;
+                currentRow = tmp;
+            }
+            rows.finish();
+        } finally {
+            this.passCurrentRow = currentRow;
+            this.passPreviousRow = previousRow;
+        }
+        this.directOut.position(0).limit(width * height * 4);
+    }
+
     private long expectedInflatedBytes(final IHDR ihdr) {
+        return this.inflatedBytes(ihdr, 7);
+    }
+
+    // FILTERED BYTES OF THE FIRST passes ADAM7 PASSES (THE WHOLE IMAGE WHEN NOT INTERLACED)
+    private long inflatedBytes(final IHDR ihdr, final int passes) {
         if (ihdr.interlace() == 0) {
             return (long) (this.scanlineBytes(ihdr.width()) + 1) * ihdr.height();
         }
         long total = 0;
-        for (int pass = 0; pass < 7; pass++) {
+        for (int pass = 0; pass < passes; pass++) {
             final int pw = this.passDimension(ihdr.width(), ADAM7_X_START[pass], ADAM7_X_STEP[pass]);
             final int ph = this.passDimension(ihdr.height(), ADAM7_Y_START[pass], ADAM7_Y_STEP[pass]);
             if (pw > 0 && ph > 0) total += (long) (this.scanlineBytes(pw) + 1) * ph;
@@ -689,14 +889,16 @@ public final class PNGReader extends ImageReader {
         if (ihdr.interlace() == 0) {
             this.decodePass(data, dataLength, 0, pixels, stride, 0, 0, 1, 1, width, height);
         } else {
+            // EVERY PIXEL OF THE DECODED PASSES SITS ON THE step GRID, SO ITS CANVAS POSITION IS AN EXACT DIVISION
+            final int step = this.step;
             int dataOffset = 0;
-            for (int pass = 0; pass < 7; pass++) {
+            for (int pass = 0; pass < this.passes; pass++) {
                 final int pw = this.passDimension(width, ADAM7_X_START[pass], ADAM7_X_STEP[pass]);
                 final int ph = this.passDimension(height, ADAM7_Y_START[pass], ADAM7_Y_STEP[pass]);
                 if (pw > 0 && ph > 0) {
                     dataOffset = this.decodePass(data, dataLength, dataOffset, pixels, stride,
-                            ADAM7_X_START[pass], ADAM7_Y_START[pass],
-                            ADAM7_X_STEP[pass], ADAM7_Y_STEP[pass],
+                            ADAM7_X_START[pass] / step, ADAM7_Y_START[pass] / step,
+                            ADAM7_X_STEP[pass] / step, ADAM7_Y_STEP[pass] / step,
                             pw, ph);
                 }
             }
@@ -719,7 +921,7 @@ public final class PNGReader extends ImageReader {
         Arrays.fill(previousRow, 0, scanlineBytes, (byte) 0);
         int offset = dataOffset;
         final int bpp = this.bytesPerPixel;
-        final int imageWidth = this.ihdr.width();
+        final int imageWidth = this.canvasWidth;
 
         for (int passY = 0; passY < passHeight; passY++) {
             if (offset >= dataLength) throw new XCodecException("Unexpected end of image data");
@@ -1066,6 +1268,19 @@ public final class PNGReader extends ImageReader {
         }
     }
 
+    private int[] canvas() {
+        if (this.outputBuffer == null) {
+            this.outputBuffer = new int[this.canvasWidth * this.canvasHeight];
+            // INIT CANVAS WITH BKGD OR TRANSPARENT (ZERO FROM `new int[...]`)
+            if (this.bkgd != null) Arrays.fill(this.outputBuffer, this.canvasFill());
+        }
+        return this.outputBuffer;
+    }
+
+    private int canvasFill() {
+        return this.bkgd != null ? this.bkgdToARGB(this.bkgd, this.depth, this.plte) : 0;
+    }
+
     private int[] frameBuffer() {
         if (this.frameBuffer == null) {
             this.frameBuffer = new int[this.canvasWidth * this.canvasHeight];
@@ -1194,4 +1409,224 @@ public final class PNGReader extends ImageReader {
     }
 
     private record ChunkSlice(byte[] data, int offset, int length) {}
+
+    /**
+     * Pulls the inflated bytes of one frame on demand, feeding the compressed chunks to the shared
+     * {@link Inflater} as it runs dry. Small reads are served from the window; a read at least as long
+     * as the window inflates straight into the caller's row.
+     */
+    private final class RowSource implements FilteredRows {
+        private final List<ChunkSlice> chunks;
+        private final byte[] window;
+        private final long expected;
+        private int nextChunk;
+        private int pos;
+        private int limit;
+
+        RowSource(final List<ChunkSlice> chunks, final byte[] window, final long expected) {
+            this.chunks = chunks;
+            this.window = window;
+            this.expected = expected;
+            PNGReader.this.inflater.reset();
+        }
+
+        /** Next byte, or -1 once the deflate stream has ended. */
+        int read() throws IOException {
+            if (this.pos == this.limit) {
+                final int n = this.inflate(this.window, 0, this.window.length);
+                if (n < 0) return -1;
+                this.pos = 0;
+                this.limit = n;
+            }
+            return this.window[this.pos++] & 0xFF;
+        }
+
+        @Override
+        public int next(final byte[] row, final int len) throws IOException {
+            final int filterType = this.read();
+            return filterType < 0 || !this.read(row, 0, len) ? -1 : filterType;
+        }
+
+        /** Fills {@code dst[off, off + len)}; false when the deflate stream ends first. */
+        boolean read(final byte[] dst, int off, final int len) throws IOException {
+            final int end = off + len;
+            while (off < end) {
+                if (this.pos < this.limit) {
+                    final int n = Math.min(end - off, this.limit - this.pos);
+                    System.arraycopy(this.window, this.pos, dst, off, n);
+                    this.pos += n;
+                    off += n;
+                    continue;
+                }
+                final boolean direct = end - off >= this.window.length;
+                final int n = direct ? this.inflate(dst, off, end - off) : this.inflate(this.window, 0, this.window.length);
+                if (n < 0) return false;
+                if (direct) {
+                    off += n;
+                } else {
+                    this.pos = 0;
+                    this.limit = n;
+                }
+            }
+            return true;
+        }
+
+        /** Every row is read: the stream must end here, with no data past the last scanline. */
+        @Override
+        public void finish() throws IOException {
+            if (this.pos < this.limit || this.inflate(this.window, 0, this.window.length) > 0) {
+                throw new XCodecException("Compressed image data exceeds expected size (" + this.expected + " bytes)");
+            }
+        }
+
+        private int inflate(final byte[] dst, final int off, final int len) throws IOException {
+            final Inflater inflater = PNGReader.this.inflater;
+            try {
+                while (true) {
+                    final int n = inflater.inflate(dst, off, len);
+                    if (n > 0) return n;
+                    if (inflater.finished()) return -1;
+                    if (inflater.needsDictionary()) throw new XCodecException("PNG uses unsupported compression dictionary");
+                    if (!inflater.needsInput()) throw new XCodecException("Invalid compressed data stream");
+                    ChunkSlice chunk = null;
+                    while (this.nextChunk < this.chunks.size() && chunk == null) {
+                        final ChunkSlice c = this.chunks.get(this.nextChunk++);
+                        if (c.length() > 0) chunk = c;
+                    }
+                    if (chunk == null) throw new XCodecException("Incomplete compressed data");
+                    inflater.setInput(chunk.data(), chunk.offset(), chunk.length());
+                }
+            } catch (final DataFormatException e) {
+                throw new XCodecException("Invalid compressed data: " + e.getMessage());
+            }
+        }
+    }
+
+    /** In-order source of filtered scanlines for row streaming. */
+    private interface FilteredRows extends AutoCloseable {
+        /** Copies the next scanline into {@code row[0, len)} and returns its filter type, or -1 once the data ends. */
+        int next(byte[] row, int len) throws IOException;
+
+        /** Checks, after the last row, that the image data ends exactly there. */
+        void finish() throws IOException;
+
+        @Override
+        default void close() {}
+    }
+
+    /**
+     * Runs a {@link RowSource} on the pipeline: the worker inflates blocks of whole filtered rows
+     * (filter byte first) into a few recycled buffers while the decoding thread unfilters and
+     * converts them in order. An inflate error travels in the end marker and surfaces at the row
+     * read that reaches it; {@link #close()} stops the worker and waits for it, so the inflater is
+     * never used by two threads.
+     */
+    private static final class RowPipeline implements FilteredRows {
+        private final BlockingQueue<byte[]> free = new ArrayBlockingQueue<>(PIPELINE_DEPTH + 1);
+        // ROOM FOR EVERY BUFFER PLUS THE END MARKER, SO THE WORKER NEVER BLOCKS HANDING A BLOCK OVER
+        private final BlockingQueue<RowBlock> filled = new ArrayBlockingQueue<>(PIPELINE_DEPTH + 1);
+        private final CountDownLatch exited = new CountDownLatch(1);
+        private final int rowBytes;
+        private volatile boolean cancelled;
+        private RowBlock block;
+        private int row;
+
+        RowPipeline(final RowSource source, final int scanlineBytes, final int height) {
+            this.rowBytes = scanlineBytes + 1;
+            final int rowsPerBlock = Math.max(1, PIPELINE_BLOCK_BYTES / this.rowBytes);
+            for (int i = 0; i < PIPELINE_DEPTH; i++) this.free.add(new byte[rowsPerBlock * this.rowBytes]);
+            PIPELINE.execute(() -> this.produce(source, height, rowsPerBlock));
+        }
+
+        private void produce(final RowSource source, final int height, final int rowsPerBlock) {
+            IOException error = null;
+            try {
+                int y = 0;
+                while (y < height) {
+                    final byte[] buffer = this.free.take();
+                    if (this.cancelled) return;
+                    final int rows = Math.min(rowsPerBlock, height - y);
+                    int count = 0;
+                    while (count < rows && source.read(buffer, count * this.rowBytes, this.rowBytes)) count++;
+                    this.filled.add(new RowBlock(buffer, count, null));
+                    y += count;
+                    // A STREAM THAT ENDS EARLY IS REPORTED BY THE CONSUMER AS MISSING ROWS
+                    if (count < rows) return;
+                }
+                source.finish();
+            } catch (final IOException e) {
+                error = e;
+            } catch (final InterruptedException e) {
+                error = new XCodecException("PNG pipeline interrupted", e);
+            } catch (final RuntimeException e) {
+                error = new XCodecException("PNG pipeline failed", e);
+            } finally {
+                this.filled.add(new RowBlock(null, 0, error));
+                this.exited.countDown();
+            }
+        }
+
+        @Override
+        public int next(final byte[] row, final int len) throws IOException {
+            while (this.block == null || this.row == this.block.rows()) {
+                if (this.block != null) {
+                    if (this.block.data() == null) {
+                        if (this.block.error() != null) throw this.block.error();
+                        return -1;
+                    }
+                    this.free.add(this.block.data());
+                }
+                this.block = this.take();
+                this.row = 0;
+            }
+            final int off = this.row++ * this.rowBytes;
+            System.arraycopy(this.block.data(), off + 1, row, 0, len);
+            return this.block.data()[off] & 0xFF;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            // EVERY ROW WAS READ; ONLY THE END MARKER, CARRYING THE WORKER'S TRAILING-DATA CHECK, IS LEFT
+            while (this.block == null || this.block.data() != null) {
+                if (this.block != null) this.free.add(this.block.data());
+                this.block = this.take();
+            }
+            if (this.block.error() != null) throw this.block.error();
+        }
+
+        @Override
+        public void close() {
+            this.cancelled = true;
+            this.free.add(new byte[0]); // WAKES A WORKER WAITING FOR A BUFFER
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    this.exited.await();
+                    break;
+                } catch (final InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+
+        private RowBlock take() throws IOException {
+            try {
+                return this.filled.take();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new XCodecException("PNG decode interrupted", e);
+            }
+        }
+    }
+
+    // data IS NULL FOR THE END MARKER
+    private record RowBlock(byte[] data, int rows, IOException error) {}
+
+    private record Frame(FCTL fctl, IHDR ihdr, List<ChunkSlice> compressed) {}
+
+    private record Inflated(byte[] data, int length) {}
+
+    // A FRAME READ AHEAD BY prefetchNext: ITS CHUNKS, ITS IN-FLIGHT INFLATE (NULL WHEN SMALL) OR THE READ ERROR
+    private record Prefetch(Frame frame, Future<Inflated> inflated, IOException error) {}
 }
@@ -2,11 +2,13 @@ package org.watermedia.api.codecs.readers;
 
 import org.apache.logging.log4j.Marker;
 import org.apache.logging.log4j.MarkerManager;
+import org.watermedia.WaterMediaConfig;
 import org.watermedia.api.codecs.CodecsAPI;
 import org.watermedia.api.codecs.ImageData;
 import org.watermedia.api.codecs.ImageMetadata;
 import org.watermedia.api.codecs.ImageReader;
 import org.watermedia.api.codecs.XCodecException;
+import org.watermedia.api.codecs.common.DecodeAhead;
 import org.watermedia.api.codecs.common.webp.AlphaDecoder;
 import org.watermedia.api.codecs.common.webp.BitReader;
 import org.watermedia.api.codecs.readers.webp.lossless.VP8LDecoder;
@@ -39,6 +41,15 @@ import static org.watermedia.WaterMedia.LOGGER;
  *
  * <p>For animated WebPs, each {@link #next()} reads one {@code ANMF} chunk, decodes its
  * sub-chunks (optional {@code ALPH} + {@code VP8 } / {@code VP8L}), and composites onto the canvas.
+ * With {@code decoders.webp.decodeAhead} above zero it also reads the following {@code ANMF} chunks
+ * and starts their bitstream decode on the common pool: each payload decodes on its own, only
+ * blending and disposal are ordered. Output is identical either way.
+ *
+ * <p>A size hint (see {@link ImageReader}) keeps every 2nd, 4th or 8th pixel of every 2nd, 4th or 8th
+ * row of a lossless or animated image, picking the largest step that still covers the hint: lossless
+ * pixels are sampled straight out of the decoded ARGB, and animated frames are blended and disposed
+ * only at the sampled canvas positions. Both stay exactly the nearest-sampled full image. Static lossy
+ * frames decode at full size, since their YUV planes are already the cheapest output.
  */
 public final class WEBPReader extends ImageReader {
     private static final Marker IT = MarkerManager.getMarker(WEBPReader.class.getSimpleName());
@@ -58,6 +69,9 @@ public final class WEBPReader extends ImageReader {
 
     private final int canvasWidth;
     private final int canvasHeight;
+    private final int step;           // SIZE-HINT DECIMATION: OUTPUT PIXEL (x, y) IS CANVAS PIXEL (x * step, y * step)
+    private final int outWidth;
+    private final int outHeight;
     private final boolean animated;
     private final boolean hasAlpha;
     private final ImageData.Scan scan;
@@ -75,6 +89,9 @@ public final class WEBPReader extends ImageReader {
     private IntBuffer directOutInts;
     private byte[] anmfScratch = new byte[0];
     private ChunkHdr pendingChunk;
+    // READ, NOT YET COMPOSITED
+    private final DecodeAhead<Anmf, int[]> ahead = new DecodeAhead<>("WEBP ANMF",
+            frame -> frame.width() * frame.height(), frame -> () -> decodeAnmf(frame));
 
     // OUTPUT PIXEL FORMAT RESOLVED IN CONSTRUCTOR. NATIVE PATH FOR STATIC LOSSY-WITHOUT-ALPHA IS
     // YUV420P (VP8 PRODUCES THESE PLANES NATURALLY); EVERYTHING ELSE STAYS BGRA BECAUSE
@@ -100,7 +117,12 @@ public final class WEBPReader extends ImageReader {
     }
 
     public WEBPReader(final ByteBuffer data, final PixelFormat requestedFormat) throws IOException {
-        super(data, requestedFormat);
+        this(data, requestedFormat, 0, 0);
+    }
+
+    /** Opens the stream with a size hint (see {@link ImageReader}); {@code 0} leaves an axis unconstrained. */
+    public WEBPReader(final ByteBuffer data, final PixelFormat requestedFormat, final int targetWidth, final int targetHeight) throws IOException {
+        super(data, requestedFormat, targetWidth, targetHeight);
         this.data.order(LE);
         this.scan = scan(this.data.duplicate().order(LE));
 
@@ -177,6 +199,10 @@ public final class WEBPReader extends ImageReader {
             throw new XCodecException("Invalid WEBP dimensions: " + this.canvasWidth + "x" + this.canvasHeight + " (max " + MAX_PIXELS + " pixels)");
 
         this.outputFormat = resolveOutputFormat(requestedFormat, this.animated, this.bitstreamFourCC, this.hasAlpha, this.alphData);
+        this.step = (this.animated || this.bitstreamFourCC == RiffChunk.VP8L)
+                ? this.reductionStep(this.canvasWidth, this.canvasHeight, 8) : 1;
+        this.outWidth = (this.canvasWidth + this.step - 1) / this.step;
+        this.outHeight = (this.canvasHeight + this.step - 1) / this.step;
 
         if (this.outputFormat == PixelFormat.YUV420P) {
             this.chromaWidth = (this.canvasWidth + 1) >> 1;
@@ -216,8 +242,10 @@ public final class WEBPReader extends ImageReader {
         return PixelFormat.YUV420P;
     }
 
-    @Override public int width() { return this.canvasWidth; }
-    @Override public int height() { return this.canvasHeight; }
+    @Override public int width() { return this.outWidth; }
+    @Override public int height() { return this.outHeight; }
+    @Override public int sourceWidth() { return this.canvasWidth; }
+    @Override public int sourceHeight() { return this.canvasHeight; }
     @Override public PixelFormat pixelFormat() { return this.outputFormat; }
     @Override public ImageData.Scan scan() { return this.scan; }
     @Override public boolean variableFrameRate() { return this.animated; }
@@ -262,13 +290,18 @@ public final class WEBPReader extends ImageReader {
 
     @Override
     public boolean hasNext() throws IOException {
+        if (this.ahead.hasNext()) return true;
         if (this.done) return false;
 
         if (!this.animated) {
             return !this.staticDelivered;
         }
+        return this.scanNext();
+    }
 
-        // ANIMATED: LOCATE THE NEXT ANMF, SKIPPING UNRELATED CHUNKS (EXIF/XMP/ETC.)
+    // ANIMATED: LOCATE THE NEXT ANMF, SKIPPING UNRELATED CHUNKS (EXIF/XMP/ETC.)
+    private boolean scanNext() throws XCodecException {
+        if (this.done) return false;
         if (this.pendingChunk != null) return true;
         while (true) {
             final ChunkHdr c = readChunkHdrOrEnd(this.data);
@@ -293,10 +326,19 @@ public final class WEBPReader extends ImageReader {
             return this.currentFrame;
         }
 
-        final ChunkHdr c = this.pendingChunk;
-        this.pendingChunk = null;
-        final byte[] anmf = this.readPaddedChunkBodyIntoScratch(this.data, c.size);
-        this.decodeAnimFrame(anmf, c.size);
+        final DecodeAhead.Queued<Anmf, int[]> head = this.ahead.poll();
+        if (head != null) {
+            final Anmf frame = head.frame();
+            final int[] pooled = head.result();
+            this.compositeAnimFrame(frame, pooled != null ? pooled : decodeAnmf(frame));
+        } else {
+            final ChunkHdr c = this.pendingChunk;
+            this.pendingChunk = null;
+            final byte[] anmf = this.readPaddedChunkBodyIntoScratch(this.data, c.size);
+            final Anmf frame = parseAnmf(anmf, c.size, this.canvasWidth, this.canvasHeight);
+            this.compositeAnimFrame(frame, decodeAnmf(frame));
+        }
+        this.readAhead();
         this.currentFrame = this.directOut;
         return this.directOut;
     }
@@ -311,6 +353,7 @@ public final class WEBPReader extends ImageReader {
         this.pendingChunk = null;
         this.currentDelay = 0L;
         if (this.canvas != null) Arrays.fill(this.canvas, 0);
+        this.ahead.clear();
         return true;
     }
 
@@ -324,10 +367,32 @@ public final class WEBPReader extends ImageReader {
             this.decodeStaticFrameYuv();
             return;
         }
+        if (this.step > 1) {
+            this.decodeStaticFrameSampled();
+            return;
+        }
         this.currentFrame = this.decodeBitstreamToBgra(this.vp8Data, this.bitstreamFourCC, this.alphData, this.canvasWidth, this.canvasHeight);
         this.currentFrame.position(0).limit(this.canvasWidth * this.canvasHeight * 4);
     }
 
+    // SIZE-HINT PATH FOR A STATIC LOSSLESS FRAME: VP8L PREDICTS FROM EVERY DECODED PIXEL, SO THE WHOLE IMAGE
+    // STILL DECODES, BUT ONLY THE SAMPLED PIXELS ARE COPIED OUT
+    private void decodeStaticFrameSampled() throws XCodecException {
+        final int[] argb = decodeBitstreamToArgb(this.vp8Data, 0, this.vp8Data.length, this.bitstreamFourCC,
+                this.alphData, 0, this.alphData != null ? this.alphData.length : 0, this.canvasWidth, this.canvasHeight);
+        final ByteBuffer out = ByteBuffer.allocateDirect(this.outWidth * this.outHeight * 4).order(LE);
+        final IntBuffer ints = out.asIntBuffer();
+        final int step = this.step;
+        for (int y = 0; y < this.outHeight; y++) {
+            final int srcRow = y * step * this.canvasWidth;
+            for (int x = 0; x < this.outWidth; x++) {
+                ints.put(argb[srcRow + x * step]);
+            }
+        }
+        this.currentFrame = out;
+        this.currentFrame.position(0).limit(this.outWidth * this.outHeight * 4);
+    }
+
     private void decodeStaticFrameYuv() throws XCodecException {
         final ByteBuffer vp8Body = wrapSlice(this.vp8Data, 0, this.vp8Data.length);
         final VP8LossyDecoder.Yuv420P yuv = VP8LossyDecoder.decodeToYuv(vp8Body, this.canvasWidth, this.canvasHeight);
@@ -358,7 +423,17 @@ public final class WEBPReader extends ImageReader {
         }
     }
 
-    private void decodeAnimFrame(final byte[] anmf, final int anmfLength) throws IOException {
+    // READS UP TO decodeAhead ANMF CHUNKS PAST THE ONE JUST RETURNED AND QUEUES THE BITSTREAM DECODE OF THE LARGE ONES
+    private void readAhead() {
+        if (!this.ahead.fill(WaterMediaConfig.decoders.webp.decodeAhead, this::scanNext, () -> {
+            final ChunkHdr c = this.pendingChunk;
+            this.pendingChunk = null;
+            // OWN COPY: anmfScratch IS OVERWRITTEN BY THE NEXT CHUNK WHILE THIS ONE STILL DECODES
+            return parseAnmf(readPaddedChunkBody(this.data, c.size), c.size, this.canvasWidth, this.canvasHeight);
+        })) this.done = true;
+    }
+
+    private static Anmf parseAnmf(final byte[] anmf, final int anmfLength, final int canvasWidth, final int canvasHeight) throws XCodecException {
         if (anmfLength < 16) throw new XCodecException("Truncated ANMF chunk");
 
         // 16-BYTE ANMF HEADER
@@ -368,9 +443,9 @@ public final class WEBPReader extends ImageReader {
         final int frameH = ((anmf[9] & 0xFF) | ((anmf[10] & 0xFF) << 8) | ((anmf[11] & 0xFF) << 16)) + 1;
         // SPEC: THE FRAME RECTANGLE MUST LIE FULLY INSIDE THE CANVAS. THIS ALSO BOUNDS THE
         // PER-FRAME PIXEL ALLOCATION BY THE ALREADY-VALIDATED CANVAS SIZE
-        if (frameX * 2 + frameW > this.canvasWidth || frameY * 2 + frameH > this.canvasHeight)
+        if (frameX * 2 + frameW > canvasWidth || frameY * 2 + frameH > canvasHeight)
             throw new XCodecException("ANMF frame outside canvas: " + frameW + "x" + frameH + " at ("
-                    + (frameX * 2) + "," + (frameY * 2) + ") on " + this.canvasWidth + "x" + this.canvasHeight);
+                    + (frameX * 2) + "," + (frameY * 2) + ") on " + canvasWidth + "x" + canvasHeight);
         final int duration = (anmf[12] & 0xFF) | ((anmf[13] & 0xFF) << 8) | ((anmf[14] & 0xFF) << 16);
         final int flags = anmf[15] & 0xFF;
         final boolean blend = (flags & 0x02) == 0;
@@ -402,26 +477,33 @@ public final class WEBPReader extends ImageReader {
         }
         if (subVp8Off < 0 || subVp8Len <= 0) throw new XCodecException("ANMF without VP8/VP8L sub-chunk");
 
+        return new Anmf(anmf, frameX * 2, frameY * 2, frameW, frameH, duration, blend, dispose,
+                subVp8Off, subVp8Len, subVp8FourCC, subAlphOff, subAlphLen);
+    }
+
+    // SELF-CONTAINED: TOUCHES NOTHING BUT THE CHUNK BYTES, SO IT RUNS ON ANY THREAD
+    private static int[] decodeAnmf(final Anmf frame) throws XCodecException {
+        LOGGER.debug(IT, "Decoding ANMF: codec={} pos=({},{}) size={}x{} duration={}ms blend={} dispose={} alpha={}",
+                RiffChunk.fourCCString(frame.vp8FourCC()), frame.x(), frame.y(), frame.width(), frame.height(),
+                frame.duration(), frame.blend(), frame.dispose(), frame.alphOff() >= 0);
+        return decodeBitstreamToArgb(
+                frame.data(), frame.vp8Off(), frame.vp8Len(), frame.vp8FourCC(),
+                frame.data(), frame.alphOff(), frame.alphLen(),
+                frame.width(), frame.height()
+        );
+    }
+
+    private void compositeAnimFrame(final Anmf frame, final int[] framePixels) {
         // ALLOCATE THE COMPOSITING TARGETS ONLY NOW THAT A REAL FRAME IS ABOUT TO BE DECODED INTO
         // THEM; THE CANVAS SIZE WAS ALREADY GATED AGAINST MAX_PIXELS IN THE CONSTRUCTOR
         if (this.canvas == null) {
-            this.canvas = new int[this.canvasWidth * this.canvasHeight];
-            this.directOut = ByteBuffer.allocateDirect(this.canvasWidth * this.canvasHeight * 4).order(LE);
+            this.canvas = new int[this.outWidth * this.outHeight];
+            this.directOut = ByteBuffer.allocateDirect(this.outWidth * this.outHeight * 4).order(LE);
             this.directOutInts = this.directOut.asIntBuffer();
         }
 
-        LOGGER.debug(IT, "Decoding ANMF: codec={} pos=({},{}) size={}x{} duration={}ms blend={} dispose={} alpha={}",
-                RiffChunk.fourCCString(subVp8FourCC), frameX * 2, frameY * 2, frameW, frameH,
-                duration, blend, dispose, subAlphOff >= 0);
-
-        final int[] framePixels = this.decodeBitstreamToArgb(
-                anmf, subVp8Off, subVp8Len, subVp8FourCC,
-                anmf, subAlphOff, subAlphLen,
-                frameW, frameH
-        );
-
-        // COMPOSITE ONTO CANVAS (frameX/Y ARE STORED HALVED PER WEBP SPEC, HENCE THE x2)
-        this.composite(this.canvas, this.canvasWidth, this.canvasHeight, framePixels, frameX * 2, frameY * 2, frameW, frameH, blend);
+        // COMPOSITE ONTO CANVAS (frameX/Y ARE STORED HALVED PER WEBP SPEC; Anmf HOLDS THEM DOUBLED)
+        this.composite(this.canvas, framePixels, frame.x(), frame.y(), frame.width(), frame.height(), frame.blend());
 
         // CONVERT CANVAS TO BGRA IN directOut
         this.directOut.clear();
@@ -429,11 +511,11 @@ public final class WEBPReader extends ImageReader {
         this.directOutInts.put(this.canvas);
         this.directOut.position(0).limit(this.canvas.length * 4);
 
-        this.currentDelay = duration;
+        this.currentDelay = frame.duration();
 
         // DISPOSE FOR THE NEXT FRAME
-        if (dispose) {
-            this.clearRegion(this.canvas, this.canvasWidth, frameX * 2, frameY * 2, frameW, frameH);
+        if (frame.dispose()) {
+            this.clearRegion(this.canvas, frame.x(), frame.y(), frame.width(), frame.height());
         }
     }
 
@@ -462,7 +544,7 @@ public final class WEBPReader extends ImageReader {
         return result;
     }
 
-    private int[] decodeBitstreamToArgb(final byte[] vp8Data, final int vp8Off, final int vp8Len, final int vp8FourCC,
+    private static int[] decodeBitstreamToArgb(final byte[] vp8Data, final int vp8Off, final int vp8Len, final int vp8FourCC,
                                          final byte[] alphData, final int alphOff, final int alphLen,
                                          final int w, final int h) throws XCodecException {
         if (vp8FourCC == RiffChunk.VP8L) {
@@ -493,17 +575,19 @@ public final class WEBPReader extends ImageReader {
         return ByteBuffer.wrap(data, offset, len).slice().order(LE);
     }
 
-    private void composite(final int[] canvas, final int cw, final int ch,
-                           final int[] frame, final int x, final int y, final int fw, final int fh, final boolean blend) {
-        final int x0 = Math.max(0, x);
-        final int y0 = Math.max(0, y);
-        final int x1 = Math.min(cw, x + fw);
-        final int y1 = Math.min(ch, y + fh);
+    // BLENDING AND DISPOSAL ARE PER PIXEL, SO A DECIMATED CANVAS ONLY VISITS THE OUTPUT PIXELS WHOSE CANVAS
+    // SAMPLE (cx * step, cy * step) FALLS INSIDE THE FRAME RECT
+    private void composite(final int[] canvas, final int[] frame, final int x, final int y, final int fw, final int fh, final boolean blend) {
+        final int step = this.step;
+        final int x0 = (Math.max(0, x) + step - 1) / step;
+        final int y0 = (Math.max(0, y) + step - 1) / step;
+        final int x1 = (Math.min(this.canvasWidth, x + fw) + step - 1) / step;
+        final int y1 = (Math.min(this.canvasHeight, y + fh) + step - 1) / step;
         for (int cy = y0; cy < y1; cy++) {
-            final int srcRow = (cy - y) * fw;
-            final int dstRow = cy * cw;
+            final int srcRow = (cy * step - y) * fw - x;
+            final int dstRow = cy * this.outWidth;
             for (int cx = x0; cx < x1; cx++) {
-                final int src = frame[srcRow + (cx - x)];
+                final int src = frame[srcRow + cx * step];
                 final int idx = dstRow + cx;
                 canvas[idx] = blend ? this.alphaBlend(canvas[idx], src) : src;
             }
@@ -525,13 +609,15 @@ public final class WEBPReader extends ImageReader {
         return (outA << 24) | (outR << 16) | (outG << 8) | outB;
     }
 
-    private void clearRegion(final int[] canvas, final int cw, final int x, final int y, final int w, final int h) {
-        final int x0 = Math.max(0, x);
-        final int y0 = Math.max(0, y);
-        final int x1 = Math.min(cw, x + w);
-        final int y1 = Math.min(this.canvasHeight, y + h);
+    private void clearRegion(final int[] canvas, final int x, final int y, final int w, final int h) {
+        final int step = this.step;
+        final int ow = this.outWidth;
+        final int x0 = (Math.max(0, x) + step - 1) / step;
+        final int y0 = (Math.max(0, y) + step - 1) / step;
+        final int x1 = (Math.min(this.canvasWidth, x + w) + step - 1) / step;
+        final int y1 = (Math.min(this.canvasHeight, y + h) + step - 1) / step;
         for (int cy = y0; cy < y1; cy++) {
-            Arrays.fill(canvas, cy * cw + x0, cy * cw + x1, 0);
+            Arrays.fill(canvas, cy * ow + x0, cy * ow + x1, 0);
         }
     }
 
@@ -610,6 +696,10 @@ public final class WEBPReader extends ImageReader {
 
     private record ChunkHdr(int fourCC, int size) {}
 
+    // ONE PARSED ANMF CHUNK; x/y ARE ALREADY DOUBLED TO CANVAS PIXELS, OFFSETS INDEX INTO data
+    private record Anmf(byte[] data, int x, int y, int width, int height, int duration, boolean blend, boolean dispose,
+                        int vp8Off, int vp8Len, int vp8FourCC, int alphOff, int alphLen) {}
+
     private static ChunkHdr readChunkHdr(final ByteBuffer in) throws XCodecException {
         final int fcc = readIntLE(in);
         final int sz = readIntLE(in);
@@ -0,0 +1,102 @@
+package org.watermedia.api.codecs.readers.svg;
+
+import org.watermedia.WaterMediaConfig;
+import org.watermedia.api.util.WeightedLru;
+import org.watermedia.tools.DataTool;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process-wide cache behind {@link SVGReader}. Parsed {@link SVGDocument}s are keyed by the SHA-256 of
+ * the document bytes, so every reader of the same SVG — whatever its source, size or pixel layout —
+ * skips the StAX parse. Rendered rasters are keyed by document, size and layout, so a size that was
+ * already drawn is reused outright and any other size only re-rasterizes the cached geometry.
+ *
+ * <p>Both maps are LRUs. Documents are bounded by count (the parser already budgets the size of each);
+ * rasters by their bytes against {@code decoders.svg.cacheBudget}, which also disables the whole cache at
+ * {@code 0}. A raster is a set of plain direct buffers handed out as independent views, so dropping one
+ * is always safe — a reader still holding it keeps it alive.
+ */
+final class SVGCache {
+    // DOCUMENTS ARE CHEAP NEXT TO THEIR RASTERS AND BOUNDED BY THE PARSER'S OWN NODE BUDGET
+    private static final int MAX_DOCUMENTS = 64;
+
+    // ACCESS-ORDERED SO ITERATION YIELDS LRU FIRST. BOTH MAPS ARE GUARDED BY THE SVGCache.class MONITOR
+    private static final Map<String, SVGDocument> DOCUMENTS = new LinkedHashMap<>(16, 0.75f, true);
+    // NOTHING PINS A RASTER: READERS HOLD THEIR OWN VIEWS
+    private static final WeightedLru<String, Raster> RASTERS = new WeightedLru<>(raster -> false);
+
+    private SVGCache() {}
+
+    // CONTENT KEY OF THE DOCUMENT BYTES IN [position, limit); THE BUFFER ITSELF IS NOT MOVED
+    static String key(final ByteBuffer data) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(data.duplicate());
+            return DataTool.hex(digest.digest());
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is unavailable", e);
+        }
+    }
+
+    static boolean enabled() {
+        return budget() > 0L;
+    }
+
+    static synchronized SVGDocument document(final String key) {
+        return DOCUMENTS.get(key);
+    }
+
+    static synchronized void document(final String key, final SVGDocument document) {
+        if (!enabled()) return;
+        DOCUMENTS.put(key, document);
+        if (DOCUMENTS.size() > MAX_DOCUMENTS) {
+            final var eldest = DOCUMENTS.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    static synchronized Raster raster(final String key) {
+        return RASTERS.get(key);
+    }
+
+    // RETAINS raster UNDER key, REPLACING ANY EARLIER ENTRY. A RASTER LARGER THAN THE WHOLE BUDGET IS NEVER
+    // WORTH EVICTING EVERYTHING ELSE FOR, SO IT STAYS PRIVATE TO ITS READER
+    static synchronized void raster(final String key, final Raster raster) {
+        final long budget = budget();
+        final long bytes = raster.bytes();
+        if (bytes > budget) return;
+        RASTERS.put(key, raster, bytes);
+        RASTERS.trim(budget);
+    }
+
+    private static long budget() {
+        return Math.max(0L, WaterMediaConfig.decoders.svg.cacheBudget) * 1024L * 1024L;
+    }
+
+    /**
+     * One rendered size of a document: the frame as level 0, optionally followed by its mip chain.
+     * Levels are read through {@link #level(int)}, which hands out an independent view every call.
+     */
+    record Raster(ByteBuffer[] levels) {
+        ByteBuffer level(final int index) {
+            return this.levels[index].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        int count() {
+            return this.levels.length;
+        }
+
+        long bytes() {
+            long total = 0L;
+            for (final ByteBuffer level: this.levels) total += level.capacity();
+            return total;
+        }
+    }
+}
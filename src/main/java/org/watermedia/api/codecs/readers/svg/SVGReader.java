@@ -10,6 +10,8 @@ import org.watermedia.tools.DataTool;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 
 /**
  * Pure-Java SVG reader: parses the document, rasterizes it once into a single static frame and
@@ -23,32 +25,52 @@ import java.nio.ByteBuffer;
  * {@code min(targetSize, maxSize)} instead — allowing a crisp upscale of a tiny intrinsic size while
  * the config cap still bounds cost.
  *
+ * <p>A size hint (see {@link ImageReader}) rasterizes directly at the smallest size that covers it,
+ * never above the default size: a thumbnail is drawn at thumbnail size instead of being drawn large and
+ * downscaled. {@link #sourceWidth()}/{@link #sourceHeight()} report that default size.
+ *
  * <p>The frame is {@link PixelFormat#BGRA} natively; a {@link PixelFormat#RGBA} request is honored by
  * swizzling the two colour channels during the canvas-to-buffer copy. Any other request falls back to
  * BGRA — callers must consult {@link #pixelFormat()}.
+ *
+ * <p>Parsed documents and rendered sizes are shared process-wide: opening the
+ * same document again skips the parse, and asking for a size that was already drawn skips the raster
+ * too. {@link #mipChain()} derives every smaller power-of-two level from the one raster, so a consumer
+ * can switch level of detail without rendering again.
  */
 public final class SVGReader extends ImageReader {
     private final int w, h;
+    private final int defaultWidth, defaultHeight; // SIZE WITHOUT A HINT; w x h NEVER EXCEEDS IT UNDER ONE
     private final PixelFormat format; // HONORED OUTPUT LAYOUT (BGRA NATIVE, RGBA ON REQUEST)
     private final SVGDocument document;
+    private final String key; // SVGCache CONTENT KEY, NULL WHILE THE CACHE IS DISABLED
     private boolean consumed;
-    private ByteBuffer rendered; // CACHED FRAME, BUILT LAZILY ON FIRST next()
+    private SVGCache.Raster raster; // RENDERED LEVELS, BUILT LAZILY ON FIRST next() OR mipChain()
+    private ByteBuffer rendered; // THIS READER'S VIEW OF LEVEL 0
 
     public SVGReader(final ByteBuffer data, final PixelFormat requestedFormat) throws IOException {
         this(data, requestedFormat, 0);
     }
 
     public SVGReader(final ByteBuffer data, final PixelFormat requestedFormat, final int targetSize) throws IOException {
-        super(data, requestedFormat);
+        this(data, requestedFormat, targetSize, 0, 0);
+    }
+
+    /** Opens the document with a size hint (see {@link ImageReader}); {@code 0} leaves an axis unconstrained. */
+    public SVGReader(final ByteBuffer data, final PixelFormat requestedFormat, final int targetWidth, final int targetHeight) throws IOException {
+        this(data, requestedFormat, 0, targetWidth, targetHeight);
+    }
+
+    private SVGReader(final ByteBuffer data, final PixelFormat requestedFormat, final int targetSize,
+                      final int targetWidth, final int targetHeight) throws IOException {
+        super(data, requestedFormat, targetWidth, targetHeight);
         // ONLY RGBA IS CHEAP TO HONOR (A CHANNEL SWIZZLE); EVERYTHING ELSE STAYS ON THE NATIVE BGRA LAYOUT
         this.format = requestedFormat == PixelFormat.RGBA ? PixelFormat.RGBA : PixelFormat.BGRA;
 
-        // STREAM StAX STRAIGHT OFF A ByteBuffer VIEW — NO FULL-DOCUMENT byte[] COPY
-        final SVGNode root = SVGParser.parse(new ByteBufferInputStream(this.data.duplicate()));
-        if (root == null || !root.tag().equals("svg")) {
-            throw new XCodecException("Document root is not <svg>");
-        }
-        this.document = new SVGDocument(root);
+        // HASHING IS A FRACTION OF THE PARSE IT SAVES; A HIT SHARES THE IMMUTABLE GEOMETRY OF AN EARLIER READER
+        this.key = SVGCache.enabled() ? SVGCache.key(this.data) : null;
+        final SVGDocument cached = this.key == null ? null : SVGCache.document(this.key);
+        this.document = cached != null ? cached : parse(this.data, this.key);
 
         final double iw = this.document.intrinsicWidth(), ih = this.document.intrinsicHeight();
         if (iw <= 0 || ih <= 0) throw new XCodecException("SVG has no resolvable size");
@@ -56,12 +78,26 @@ public final class SVGReader extends ImageReader {
         // TARGET HINT MAY UPSCALE UP TO THE CAP; WITHOUT ONE, INTRINSIC SIZE CAPPED AND NEVER UPSCALED
         final double maxSide = targetSize > 0 ? Math.min(targetSize, cap) : Math.min(Math.max(iw, ih), cap);
         final double s = maxSide / Math.max(iw, ih);
-        this.w = Math.max(1, (int) Math.round(iw * s));
-        this.h = Math.max(1, (int) Math.round(ih * s));
+        this.defaultWidth = Math.max(1, (int) Math.round(iw * s));
+        this.defaultHeight = Math.max(1, (int) Math.round(ih * s));
+
+        // SIZE HINT: SHRINK UNIFORMLY UNTIL THE TIGHTER CONSTRAINED AXIS MEETS ITS TARGET; CEIL KEEPS BOTH AXES COVERING
+        double f = 0;
+        if (targetWidth > 0) f = Math.max(f, (double) targetWidth / this.defaultWidth);
+        if (targetHeight > 0) f = Math.max(f, (double) targetHeight / this.defaultHeight);
+        if (f > 0 && f < 1) {
+            this.w = Math.max(1, (int) Math.ceil(this.defaultWidth * f - 1e-9));
+            this.h = Math.max(1, (int) Math.ceil(this.defaultHeight * f - 1e-9));
+        } else {
+            this.w = this.defaultWidth;
+            this.h = this.defaultHeight;
+        }
     }
 
     @Override public int width() { return this.w; }
     @Override public int height() { return this.h; }
+    @Override public int sourceWidth() { return this.defaultWidth; }
+    @Override public int sourceHeight() { return this.defaultHeight; }
     @Override public PixelFormat pixelFormat() { return this.format; }
     @Override public ImageData.Scan scan() { return ImageData.Scan.EMPTY; }
 
@@ -73,7 +109,7 @@ public final class SVGReader extends ImageReader {
     @Override
     public ByteBuffer next() throws IOException {
         if (this.consumed) throw new XCodecException("SVG has a single frame");
-        if (this.rendered == null) this.rendered = this.rasterize();
+        if (this.rendered == null) this.rendered = this.raster().level(0);
         this.rendered.rewind(); // RE-ARM POSITION 0 SO A SECOND PASS (AFTER reset()) READS THE FULL FRAME
         this.consumed = true;
         this.currentDelay = 0L;
@@ -87,6 +123,105 @@ public final class SVGReader extends ImageReader {
         return true;
     }
 
+    /**
+     * Returns the frame followed by its full mip chain: level {@code i} is
+     * {@code max(1, width() >> i) x max(1, height() >> i)} pixels, down to 1x1, in {@link #pixelFormat()}.
+     * The chain is built in one pass from the single raster — each level area-averages the one above it,
+     * weighting colour by alpha so transparent pixels do not darken anti-aliased edges — and is shared
+     * with later readers of the same document and size. Each call returns fresh views; this reader's
+     * {@link #next()} frame is unaffected.
+     *
+     * @return the levels, largest first; element 0 holds the same pixels as the frame
+     * @throws IOException when rasterizing the document fails
+     */
+    public ByteBuffer[] mipChain() throws IOException {
+        SVGCache.Raster raster = this.raster();
+        if (raster.count() == 1) {
+            raster = mips(raster.level(0), this.w, this.h);
+            this.raster = raster;
+            if (this.key != null) SVGCache.raster(this.rasterKey(), raster);
+        }
+        final ByteBuffer[] levels = new ByteBuffer[raster.count()];
+        for (int i = 0; i < levels.length; i++) levels[i] = raster.level(i);
+        return levels;
+    }
+
+    private static SVGDocument parse(final ByteBuffer data, final String key) throws IOException {
+        // STREAM StAX STRAIGHT OFF A ByteBuffer VIEW — NO FULL-DOCUMENT byte[] COPY
+        final SVGNode root = SVGParser.parse(new ByteBufferInputStream(data.duplicate()));
+        if (root == null || !root.tag().equals("svg")) {
+            throw new XCodecException("Document root is not <svg>");
+        }
+        final SVGDocument document = new SVGDocument(root);
+        if (key != null) SVGCache.document(key, document);
+        return document;
+    }
+
+    private String rasterKey() {
+        return this.key + '/' + this.w + 'x' + this.h + '/' + this.format;
+    }
+
+    // THE CACHED RASTER OF THIS SIZE AND LAYOUT WHEN ANOTHER READER ALREADY DREW IT, OTHERWISE A FRESH ONE
+    private SVGCache.Raster raster() throws IOException {
+        if (this.raster != null) return this.raster;
+        if (this.key != null) {
+            final SVGCache.Raster cached = SVGCache.raster(this.rasterKey());
+            if (cached != null) return this.raster = cached;
+        }
+        final SVGCache.Raster raster = new SVGCache.Raster(new ByteBuffer[] { this.rasterize() });
+        if (this.key != null) SVGCache.raster(this.rasterKey(), raster);
+        return this.raster = raster;
+    }
+
+    // BUILDS EVERY LEVEL BELOW frame. EACH DESTINATION PIXEL AVERAGES ITS WHOLE SOURCE BLOCK (2x2, OR 3 WIDE
+    // AT THE EDGE OF AN ODD SIZE), WITH THE THREE COLOUR BYTES WEIGHTED BY ALPHA: AN UNTOUCHED CANVAS PIXEL
+    // IS TRANSPARENT BLACK, AND A PLAIN AVERAGE WOULD DARKEN EVERY ANTI-ALIASED EDGE. CHANNEL-AGNOSTIC, SO
+    // BGRA AND RGBA SHARE IT (ALPHA IS THE HIGH BYTE OF A LITTLE-ENDIAN PIXEL IN BOTH)
+    private static SVGCache.Raster mips(final ByteBuffer frame, final int width, final int height) {
+        int levels = 1;
+        for (int lw = width, lh = height; lw > 1 || lh > 1; lw = Math.max(1, lw >> 1), lh = Math.max(1, lh >> 1)) levels++;
+        final ByteBuffer[] out = new ByteBuffer[levels];
+        out[0] = frame;
+
+        final IntBuffer view = frame.duplicate().order(ByteOrder.LITTLE_ENDIAN).rewind().asIntBuffer();
+        int[] src = new int[width * height];
+        view.get(src);
+        int sw = width, sh = height;
+        for (int level = 1; level < levels; level++) {
+            final int dw = Math.max(1, sw >> 1), dh = Math.max(1, sh >> 1);
+            final int[] dst = new int[dw * dh];
+            for (int dy = 0; dy < dh; dy++) {
+                final int sy0 = (int) ((long) dy * sh / dh);
+                final int sy1 = Math.max(sy0 + 1, (int) ((long) (dy + 1) * sh / dh));
+                for (int dx = 0; dx < dw; dx++) {
+                    final int sx0 = (int) ((long) dx * sw / dw);
+                    final int sx1 = Math.max(sx0 + 1, (int) ((long) (dx + 1) * sw / dw));
+                    long a = 0, c2 = 0, c1 = 0, c0 = 0;
+                    for (int sy = sy0; sy < sy1; sy++) {
+                        for (int sx = sx0; sx < sx1; sx++) {
+                            final int p = src[sy * sw + sx];
+                            final int pa = p >>> 24;
+                            a += pa;
+                            c2 += (long) ((p >>> 16) & 0xFF) * pa;
+                            c1 += (long) ((p >>> 8) & 0xFF) * pa;
+                            c0 += (long) (p & 0xFF) * pa;
+                        }
+                    }
+                    if (a == 0) continue; // FULLY TRANSPARENT BLOCK STAYS TRANSPARENT BLACK
+                    final int count = (sy1 - sy0) * (sx1 - sx0);
+                    final long half = a >> 1;
+                    dst[dy * dw + dx] = (int) ((a + (count >> 1)) / count) << 24
+                            | (int) ((c2 + half) / a) << 16 | (int) ((c1 + half) / a) << 8 | (int) ((c0 + half) / a);
+                }
+            }
+            out[level] = DataTool.bgraToBuffer(dst);
+            src = dst;
+            sw = dw;
+            sh = dh;
+        }
+        return new SVGCache.Raster(out);
+    }
+
     private ByteBuffer rasterize() throws IOException {
         final RasterOutput out = new RasterOutput(this.w, this.h);
         this.document.render(out);
@@ -4,12 +4,17 @@ import org.apache.logging.log4j.Marker;
 import org.apache.logging.log4j.MarkerManager;
 import org.watermedia.WaterMediaConfig;
 import org.watermedia.api.codecs.XCodecException;
+import org.watermedia.api.codecs.common.simd.SimdKernels;
 import org.watermedia.api.util.MathUtil;
 import org.watermedia.tools.DataTool;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import static org.watermedia.WaterMedia.LOGGER;
 import static org.watermedia.api.codecs.readers.webp.lossy.VP8Tables.*;
@@ -23,6 +28,10 @@ public final class VP8LossyDecoder {
     private static final byte[] TOP_BORDER_8 = fillBorder(8, 127);
     private static final byte[] LEFT_BORDER_8 = fillBorder(8, 129);
     private static final byte[] LEFT_BORDER_4 = fillBorder(4, 129);
+    // SMALLER FRAMES (UNDER ~512x512) RECONSTRUCT ON THE CALLING THREAD ALONE; THE HANDOFF COSTS MORE
+    private static final int PARALLEL_MIN_MBS = 1024;
+    // BUSY-WAIT ROUNDS BEFORE A WAVEFRONT ROW STARTS YIELDING; THE ROW IT WAITS ON IS ALWAYS RUNNING
+    private static final int SPIN_LIMIT = 1 << 10;
 
     /**
      * Decoded VP8 YUV planes — Y at full resolution, U/V chroma-subsampled 4:2:0. Strides may
@@ -93,19 +102,11 @@ public final class VP8LossyDecoder {
         Arrays.fill(uPln, (byte) 128);
         Arrays.fill(vPln, (byte) 128);
 
-        // ALLOCATE PER-MB INFO FOR LOOP FILTER
-        st.mbSeg = new int[mbW * mbH];
-        st.mbIsI4x4 = new int[mbW * mbH];
-        st.mbFInner = new int[mbW * mbH];
-
-        // RFC6386 SECTIONS 11-14 - DECODE ALL MACROBLOCKS
-        decodeMBs(hdrBr, tokBr, st, yPln, uPln, vPln, yStr, uvStr, mbW, mbH);
+        // RFC6386 SECTIONS 11-15 - DECODE ALL MACROBLOCKS AND APPLY THE LOOP FILTER
+        decodeMBs(hdrBr, tokBr, st, yPln, uPln, vPln, yStr, uvStr, mbW, mbH, frm.keyFrame);
 
         LOGGER.debug(IT, "Frame: {}x{} = {}x{} MBs, {} parts, loopLvl={}, skipProb={}", frm.w, frm.h, mbW, mbH, st.numParts, st.loopLvl, st.skipProb);
 
-        // RFC6386 SECTION 15 - APPLY LOOP FILTER
-        applyLoopFilter(st, yPln, uPln, vPln, yStr, uvStr, mbW, mbH, frm.keyFrame);
-
         return new Yuv420P(yPln, uPln, vPln, frm.w, frm.h, yStr, uvStr);
     }
 
@@ -277,28 +278,38 @@ public final class VP8LossyDecoder {
         return st;
     }
 
-    // RFC6386 SECTIONS 11-14 - MACROBLOCK DECODING
+    // RFC6386 SECTIONS 11-14 - MACROBLOCK DECODING, WITH THE SECTION 15 LOOP FILTER RUNNING ONE ROW BEHIND.
+    // PARTITION 0 (MODES) IS ONE SEQUENTIAL STREAM AND IS PARSED UP FRONT; THE RESIDUALS OF ROW N LIVE IN
+    // TOKEN PARTITION N % numParts, SO ROWS OF DIFFERENT PARTITIONS DECODE CONCURRENTLY AS A WAVEFRONT
     private static void decodeMBs(final VP8BoolDecoder hdrBr, final VP8BoolDecoder[] tokBr, final State st,
                                   final byte[] yPln, final byte[] uPln, final byte[] vPln,
-                                  final int yStr, final int uvStr, final int mbW, final int mbH) throws XCodecException {
+                                  final int yStr, final int uvStr, final int mbW, final int mbH, final boolean keyFrame) throws XCodecException {
+        parseModes(hdrBr, st, mbW, mbH);
+
+        final Wavefront wave = new Wavefront(tokBr, st, yPln, uPln, vPln, yStr, uvStr, mbW, mbH, keyFrame);
+        // ONE ROW MORE THAN THE PARTITIONS: THE EXTRA THREAD FILTERS WHILE THE OTHERS RECONSTRUCT
+        final int threads = mbW * mbH < PARALLEL_MIN_MBS ? 1
+                : Math.min(st.numParts + 1, ForkJoinPool.getCommonPoolParallelism() + 1);
+        final ForkJoinTask<?>[] helpers = new ForkJoinTask<?>[threads - 1];
+        for (int i = 0; i < helpers.length; i++) helpers[i] = ForkJoinTask.adapt(wave::run).fork();
+        wave.run();
+        for (final ForkJoinTask<?> helper: helpers) helper.join();
+        wave.rethrow();
+    }
 
-        // NON-ZERO COEFFICIENT TRACKING FOR CONTEXT
-        final int[] topNzY = new int[mbW * 4];
-        final int[] topNzU = new int[mbW * 2];
-        final int[] topNzV = new int[mbW * 2];
-        final int[] topNzDc = new int[mbW];
-        final short[] coeffs = new short[16];
-        final short[] y2dcScratch = new short[16];
-        final int[] whtTmp = new int[16];
-        final int[] dctTmp = new int[16];
-        final byte[] aboveY = new byte[16];
-        final byte[] leftY = new byte[16];
-        final byte[] aboveU = new byte[8];
-        final byte[] leftU = new byte[8];
-        final byte[] aboveV = new byte[8];
-        final byte[] leftV = new byte[8];
-        final byte[] subAbove = new byte[8];
-        final byte[] subLeft = new byte[4];
+    // RFC6386 SECTIONS 10-11 - PER-MACROBLOCK HEADERS FROM PARTITION 0. readBool NEVER THROWS, SO THE ONLY
+    // FAILURE IS RUNNING OUT OF DATA: THE FIRST MACROBLOCK AFTER WHICH THE DECODER IS SPENT IS KEPT IN
+    // st.hdrEofMb AND THE RECONSTRUCTION FAILS THERE, EXACTLY WHERE THE INTERLEAVED CHECK USED TO
+    private static void parseModes(final VP8BoolDecoder hdrBr, final State st, final int mbW, final int mbH) throws XCodecException {
+        final int mbCount = mbW * mbH;
+        st.mbSeg = new int[mbCount];
+        st.mbIsI4x4 = new int[mbCount];
+        st.mbFInner = new int[mbCount];
+        st.mbSkip = new boolean[mbCount];
+        st.mbYMode = new byte[mbCount];
+        st.mbUvMode = new byte[mbCount];
+        st.mbSubModes = new byte[mbCount * 16];
+        st.hdrEofMb = Integer.MAX_VALUE;
 
         // RFC6386 SECTION 11.3 - SUBBLOCK MODE CONTEXT
         final SubMode[] topSubModes = new SubMode[mbW * 4];
@@ -308,11 +319,10 @@ public final class VP8LossyDecoder {
         final SubMode[] subModes = new SubMode[16];
 
         for (int mbY = 0; mbY < mbH; mbY++) {
-            final VP8BoolDecoder tbr = tokBr[mbY % st.numParts];
-            int leftNzY = 0, leftNzU = 0, leftNzV = 0, leftNzDc = 0;
             Arrays.fill(leftSubModes, SubMode.B_DC);
-
             for (int mbX = 0; mbX < mbW; mbX++) {
+                final int mbIdx = mbY * mbW + mbX;
+
                 // RFC6386 SECTION 10 - SEGMENT ID
                 int seg = 0;
                 if (st.segEnabled && st.segUpdMap) {
@@ -320,26 +330,18 @@ public final class VP8LossyDecoder {
                     else seg = hdrBr.readBool(st.segProbs[2]) ? 3 : 2;
                 }
 
-                final int y1Dc = st.segQ[seg][0];
-                final int y1Ac = st.segQ[seg][1];
-                final int y2Dc = st.segQ[seg][2];
-                final int y2Ac = st.segQ[seg][3];
-                final int uvDc = st.segQ[seg][4];
-                final int uvAc = st.segQ[seg][5];
-
                 // RFC6386 SECTION 11.1-11.2 - SKIP AND LUMA MODE
                 final boolean skip = st.useSkip && hdrBr.readBool(st.skipProb);
                 final boolean isI4x4 = !hdrBr.readBool(145);
 
-                final MBMode yMode;
                 if (isI4x4) {
                     // RFC6386 SECTION 11.2-11.3 - I4X4 SUBBLOCK MODES
-                    yMode = null;
                     for (int j = 0; j < 4; j++)
                         for (int i = 0; i < 4; i++) {
                             final SubMode above = (j > 0) ? subModes[(j - 1) * 4 + i] : topSubModes[mbX * 4 + i];
                             final SubMode left = (i > 0) ? subModes[j * 4 + i - 1] : leftSubModes[j];
                             subModes[j * 4 + i] = readSubMode(hdrBr, above, left);
+                            st.mbSubModes[mbIdx * 16 + j * 4 + i] = (byte) subModes[j * 4 + i].ordinal();
                         }
 
                     // UPDATE SUBBLOCK MODE CONTEXT
@@ -350,162 +352,30 @@ public final class VP8LossyDecoder {
                     final int modeIdx;
                     if (!hdrBr.readBool(156)) modeIdx = hdrBr.readBool(163) ? 1 : 0;
                     else modeIdx = hdrBr.readBool(128) ? 3 : 2;
-                    yMode = MBMode.VALUES[modeIdx];
+                    st.mbYMode[mbIdx] = (byte) modeIdx;
 
                     // UPDATE SUBBLOCK MODE CONTEXT
-                    final SubMode derived = SubMode.fromMBMode(yMode);
+                    final SubMode derived = SubMode.fromMBMode(MBMode.VALUES[modeIdx]);
                     for (int i = 0; i < 4; i++) topSubModes[mbX * 4 + i] = derived;
                     Arrays.fill(leftSubModes, derived);
                 }
 
                 // RFC6386 SECTION 11.4 - CHROMA MODE
-                final MBMode uvMode;
                 final int uvModeIdx;
                 if (!hdrBr.readBool(142)) uvModeIdx = 0;
                 else if (!hdrBr.readBool(114)) uvModeIdx = 1;
                 else uvModeIdx = hdrBr.readBool(183) ? 3 : 2;
-                uvMode = MBMode.VALUES[uvModeIdx];
 
-                // STORE PER-MB INFO FOR LOOP FILTER (mbFInner IS SET AFTER RESIDUAL DECODING)
-                final int mbIdx = mbY * mbW + mbX;
                 st.mbSeg[mbIdx] = seg;
                 st.mbIsI4x4[mbIdx] = isI4x4 ? 1 : 0;
+                st.mbSkip[mbIdx] = skip;
+                st.mbUvMode[mbIdx] = (byte) uvModeIdx;
 
-                final int yOff = mbY * 16 * yStr + mbX * 16;
-                final int uvOff = mbY * 8 * uvStr + mbX * 8;
-
-                // GET PREDICTION CONTEXT PIXELS
-                // LIBWEBP BORDER VALUES: 127 FOR TOP (mbY=0), 129 FOR LEFT (mbX=0)
-                final boolean hasAbove = mbY > 0, hasLeft = mbX > 0;
-                if (hasAbove) getAbove(yPln, yOff, yStr, 16, aboveY);
-                else System.arraycopy(TOP_BORDER_16, 0, aboveY, 0, 16);
-                if (hasLeft) getLeft(yPln, yOff, yStr, 16, leftY);
-                else System.arraycopy(LEFT_BORDER_16, 0, leftY, 0, 16);
-                final int tlY = hasAbove ? (hasLeft ? (yPln[yOff - yStr - 1] & 0xFF) : 129) : 127;
-
-                if (hasAbove) getAbove(uPln, uvOff, uvStr, 8, aboveU);
-                else System.arraycopy(TOP_BORDER_8, 0, aboveU, 0, 8);
-                if (hasLeft) getLeft(uPln, uvOff, uvStr, 8, leftU);
-                else System.arraycopy(LEFT_BORDER_8, 0, leftU, 0, 8);
-                final int tlU = hasAbove ? (hasLeft ? (uPln[uvOff - uvStr - 1] & 0xFF) : 129) : 127;
-
-                if (hasAbove) getAbove(vPln, uvOff, uvStr, 8, aboveV);
-                else System.arraycopy(TOP_BORDER_8, 0, aboveV, 0, 8);
-                if (hasLeft) getLeft(vPln, uvOff, uvStr, 8, leftV);
-                else System.arraycopy(LEFT_BORDER_8, 0, leftV, 0, 8);
-                final int tlV = hasAbove ? (hasLeft ? (vPln[uvOff - uvStr - 1] & 0xFF) : 129) : 127;
-
-                // RFC6386 SECTION 12 - INTRAFRAME PREDICTION
-                if (!isI4x4) {
-                    predict16(yMode, yPln, yOff, yStr, aboveY, leftY, tlY, hasAbove, hasLeft);
-                } else if (skip) {
-                    for (int j = 0; j < 4; j++)
-                        for (int i = 0; i < 4; i++) {
-                            final int sOff = yOff + j * 4 * yStr + i * 4;
-                            final boolean rightEdge = (i == 3) && (mbX == mbW - 1);
-                            if (mbY > 0 || j > 0) getAbove8Sub(yPln, sOff, yStr, rightEdge, mbY, j, i, yOff, subAbove);
-                            else System.arraycopy(TOP_BORDER_8, 0, subAbove, 0, 8);
-                            if (mbX > 0 || i > 0) getLeft(yPln, sOff, yStr, 4, subLeft);
-                            else System.arraycopy(LEFT_BORDER_4, 0, subLeft, 0, 4);
-                            final int sTl = subTl(mbX, mbY, i, j, yPln, sOff, yStr);
-                            predict4(subModes[j * 4 + i], yPln, sOff, yStr, subAbove, subLeft, sTl);
-                        }
+                // NOTHING PAST THIS MACROBLOCK IS EVER RECONSTRUCTED
+                if (hdrBr.eof()) {
+                    st.hdrEofMb = mbIdx;
+                    return;
                 }
-
-                predict8(uvMode, uPln, uvOff, uvStr, aboveU, leftU, tlU, hasAbove, hasLeft);
-                predict8(uvMode, vPln, uvOff, uvStr, aboveV, leftV, tlV, hasAbove, hasLeft);
-
-                // RFC6386 SECTION 13 - DCT COEFFICIENT DECODING
-                // TRACK WHETHER ANY COEFFICIENT DECODED NON-ZERO; LIBWEBP DERIVES THE LOOP-FILTER
-                // INNER-EDGE FLAG FROM ACTUAL NZ, NOT THE SKIP FLAG (f_inner |= !effectiveSkip)
-                boolean nzAny = false;
-                if (!skip) {
-                    boolean hasY2dc = false;
-
-                    if (!isI4x4) {
-                        final int ctx = leftNzDc + topNzDc[mbX];
-                        Arrays.fill(coeffs, (short) 0);
-                        final int nz = decodeCoeffs(tbr, coeffs, st.coeffProbs, 1, 0, y2Dc, y2Ac, ctx);
-                        leftNzDc = nz > 0 ? 1 : 0;
-                        topNzDc[mbX] = leftNzDc;
-                        nzAny |= nz > 0;
-                        if (nz > 0) {
-                            inverseWHT(coeffs, y2dcScratch, whtTmp);
-                            hasY2dc = true;
-                        }
-                    }
-
-                    final int firstCoef = isI4x4 ? 0 : 1;
-                    final int yType = isI4x4 ? 3 : 0;
-
-                    for (int j = 0; j < 4; j++)
-                        for (int i = 0; i < 4; i++) {
-                            final int sOff = yOff + j * 4 * yStr + i * 4;
-
-                            if (isI4x4) {
-                                final boolean rightEdge = (i == 3) && (mbX == mbW - 1);
-                                if (mbY > 0 || j > 0) getAbove8Sub(yPln, sOff, yStr, rightEdge, mbY, j, i, yOff, subAbove);
-                                else System.arraycopy(TOP_BORDER_8, 0, subAbove, 0, 8);
-                                if (mbX > 0 || i > 0) getLeft(yPln, sOff, yStr, 4, subLeft);
-                                else System.arraycopy(LEFT_BORDER_4, 0, subLeft, 0, 4);
-                                final int sTl = subTl(mbX, mbY, i, j, yPln, sOff, yStr);
-                                predict4(subModes[j * 4 + i], yPln, sOff, yStr, subAbove, subLeft, sTl);
-                            }
-
-                            final int ctx = ((leftNzY >> j) & 1) + topNzY[mbX * 4 + i];
-                            Arrays.fill(coeffs, (short) 0);
-                            if (hasY2dc) coeffs[0] = y2dcScratch[j * 4 + i];
-                            final int nz = decodeCoeffs(tbr, coeffs, st.coeffProbs, yType, firstCoef, y1Dc, y1Ac, ctx);
-                            if (nz > 0 || (hasY2dc && y2dcScratch[j * 4 + i] != 0))
-                                inverseDCT(coeffs, yPln, sOff, yStr, dctTmp);
-                            leftNzY = (leftNzY & ~(1 << j)) | ((nz > 0 ? 1 : 0) << j);
-                            topNzY[mbX * 4 + i] = nz > 0 ? 1 : 0;
-                            nzAny |= nz > 0;
-                        }
-
-                    for (int j = 0; j < 2; j++)
-                        for (int i = 0; i < 2; i++) {
-                            final int ctx = ((leftNzU >> j) & 1) + topNzU[mbX * 2 + i];
-                            Arrays.fill(coeffs, (short) 0);
-                            final int nz = decodeCoeffs(tbr, coeffs, st.coeffProbs, 2, 0, uvDc, uvAc, ctx);
-                            if (nz > 0) inverseDCT(coeffs, uPln, uvOff + j * 4 * uvStr + i * 4, uvStr, dctTmp);
-                            leftNzU = (leftNzU & ~(1 << j)) | ((nz > 0 ? 1 : 0) << j);
-                            topNzU[mbX * 2 + i] = nz > 0 ? 1 : 0;
-                            nzAny |= nz > 0;
-                        }
-
-                    for (int j = 0; j < 2; j++)
-                        for (int i = 0; i < 2; i++) {
-                            final int ctx = ((leftNzV >> j) & 1) + topNzV[mbX * 2 + i];
-                            Arrays.fill(coeffs, (short) 0);
-                            final int nz = decodeCoeffs(tbr, coeffs, st.coeffProbs, 2, 0, uvDc, uvAc, ctx);
-                            if (nz > 0) inverseDCT(coeffs, vPln, uvOff + j * 4 * uvStr + i * 4, uvStr, dctTmp);
-                            leftNzV = (leftNzV & ~(1 << j)) | ((nz > 0 ? 1 : 0) << j);
-                            topNzV[mbX * 2 + i] = nz > 0 ? 1 : 0;
-                            nzAny |= nz > 0;
-                        }
-                } else {
-                    leftNzY = 0;
-                    for (int i = 0; i < 4; i++) topNzY[mbX * 4 + i] = 0;
-                    leftNzU = 0;
-                    for (int i = 0; i < 2; i++) topNzU[mbX * 2 + i] = 0;
-                    leftNzV = 0;
-                    for (int i = 0; i < 2; i++) topNzV[mbX * 2 + i] = 0;
-                    if (!isI4x4) {
-                        leftNzDc = 0;
-                        topNzDc[mbX] = 0;
-                    }
-                }
-
-                // INNER-EDGE FILTERING APPLIES TO I4X4 MBS OR MBS THAT ACTUALLY CARRY COEFFICIENTS
-                st.mbFInner[mbIdx] = (isI4x4 || nzAny) ? 1 : 0;
-
-                // PER-MACROBLOCK EXHAUSTION CHECK (WHAT libwebp DOES): ONCE EITHER PARTITION IS
-                // SPENT THE REMAINING GRID WOULD BE SYNTHESISED FROM IMPLICIT ZERO BYTES, WHICH IS
-                // HOW A 2-BYTE TOKEN PARTITION "DECODES" A 64-MEGAPIXEL FRAME
-                if (hdrBr.eof() || tbr.eof())
-                    throw new XCodecException("VP8 bitstream truncated: bool decoder ran past partition end at macroblock "
-                            + mbX + "," + mbY + " of " + mbW + "x" + mbH);
             }
         }
     }
@@ -620,6 +490,18 @@ public final class VP8LossyDecoder {
         }
     }
 
+    // VECTOR PATH FOR BLOCKS WHOSE PREDICTION IS ALREADY IN PLACE: THE LEFT BLOCK OF EACH HORIZONTAL PAIR
+    // (EVEN i) IS ONLY BUFFERED, THE RIGHT ONE RECONSTRUCTS BOTH. RETURNS THE NEW PENDING FLAG
+    private static boolean pairIDCT(final SimdKernels simd, final short[] c, final short[] pair, final int i,
+                                    final boolean residual, final boolean pending, final byte[] dst, final int off, final int str) {
+        // ROW-INTERLEAVE: ROW r OF THE LEFT BLOCK AT r * 8, OF THE RIGHT BLOCK AT r * 8 + 4
+        for (int r = 0; r < 4; r++) System.arraycopy(c, r * 4, pair, r * 8 + (i & 1) * 4, 4);
+        if ((i & 1) == 0) return residual;
+        // A BLOCK WITHOUT RESIDUAL HAS ALL-ZERO COEFFICIENTS, WHICH THE KERNEL ADDS AS ZERO
+        if (pending || residual) simd.vp8IdctAdd(pair, dst, off - 4, str);
+        return false;
+    }
+
     private static void inverseDCT(final short[] c, final byte[] dst, final int off, final int str, final int[] t) {
 
         for (int i = 0; i < 4; i++) {
@@ -1011,88 +893,6 @@ public final class VP8LossyDecoder {
         };
     }
 
-    // RFC6386 SECTION 15 - LOOP FILTER
-    private static void applyLoopFilter(final State st, final byte[] yPln, final byte[] uPln, final byte[] vPln,
-                                        final int yStr, final int uvStr, final int mbW, final int mbH, final boolean keyFrame) {
-        for (int mbY = 0; mbY < mbH; mbY++) {
-            for (int mbX = 0; mbX < mbW; mbX++) {
-                final int mbIdx = mbY * mbW + mbX;
-                final int seg = st.mbSeg[mbIdx];
-                final int isI4x4 = st.mbIsI4x4[mbIdx];
-                final boolean fInner = st.mbFInner[mbIdx] != 0;
-
-                // COMPUTE PER-SEGMENT FILTER LEVEL (MATCHING LIBWEBP PrecomputeFilterStrengths)
-                int level;
-                if (st.segEnabled) {
-                    level = st.segLoop[seg];
-                    if (!st.segAbsMode) level += st.loopLvl;
-                } else {
-                    level = st.loopLvl;
-                }
-                if (st.useLfDelta) {
-                    level += st.refLfDelta[0]; // refLfDelta[0] FOR INTRA FRAME
-                    if (isI4x4 != 0) level += st.modeLfDelta[0];
-                }
-                level = Math.max(0, Math.min(63, level));
-                if (level == 0) continue;
-
-                int iLim = level;
-                final int shrp = st.sharpLvl;
-                if (shrp > 0) {
-                    iLim >>= (shrp > 4) ? 2 : 1;
-                    if (iLim > 9 - shrp) iLim = 9 - shrp;
-                }
-                if (iLim < 1) iLim = 1;
-
-                final int limit = 2 * level + iLim;
-                final int mbLim = limit + 4;
-                final int hevThr = keyFrame ? ((level >= 40) ? 2 : (level >= 15) ? 1 : 0)
-                        : ((level >= 40) ? 3 : (level >= 20) ? 2 : (level >= 15) ? 1 : 0);
-
-                final int yOff = mbY * 16 * yStr + mbX * 16;
-                final int uvOff = mbY * 8 * uvStr + mbX * 8;
-
-                if (st.filterSimple) {
-                    if (mbX > 0) filterSimpleV(yPln, yOff, yStr, mbLim);
-                    if (fInner) {
-                        filterSimpleV(yPln, yOff + 4, yStr, limit);
-                        filterSimpleV(yPln, yOff + 8, yStr, limit);
-                        filterSimpleV(yPln, yOff + 12, yStr, limit);
-                    }
-                    if (mbY > 0) filterSimpleH(yPln, yOff, yStr, 16, mbLim);
-                    if (fInner) {
-                        filterSimpleH(yPln, yOff + 4 * yStr, yStr, 16, limit);
-                        filterSimpleH(yPln, yOff + 8 * yStr, yStr, 16, limit);
-                        filterSimpleH(yPln, yOff + 12 * yStr, yStr, 16, limit);
-                    }
-                } else {
-                    if (mbX > 0) filterMBV(yPln, yOff, yStr, 16, iLim, mbLim, hevThr);
-                    if (fInner) {
-                        filterSubV(yPln, yOff + 4, yStr, 16, iLim, limit, hevThr);
-                        filterSubV(yPln, yOff + 8, yStr, 16, iLim, limit, hevThr);
-                        filterSubV(yPln, yOff + 12, yStr, 16, iLim, limit, hevThr);
-                    }
-                    if (mbY > 0) filterMBH(yPln, yOff, yStr, 16, iLim, mbLim, hevThr);
-                    if (fInner) {
-                        filterSubH(yPln, yOff + 4 * yStr, yStr, 16, iLim, limit, hevThr);
-                        filterSubH(yPln, yOff + 8 * yStr, yStr, 16, iLim, limit, hevThr);
-                        filterSubH(yPln, yOff + 12 * yStr, yStr, 16, iLim, limit, hevThr);
-                    }
-
-                    if (mbX > 0) filterMBV(uPln, uvOff, uvStr, 8, iLim, mbLim, hevThr);
-                    if (fInner) filterSubV(uPln, uvOff + 4, uvStr, 8, iLim, limit, hevThr);
-                    if (mbY > 0) filterMBH(uPln, uvOff, uvStr, 8, iLim, mbLim, hevThr);
-                    if (fInner) filterSubH(uPln, uvOff + 4 * uvStr, uvStr, 8, iLim, limit, hevThr);
-
-                    if (mbX > 0) filterMBV(vPln, uvOff, uvStr, 8, iLim, mbLim, hevThr);
-                    if (fInner) filterSubV(vPln, uvOff + 4, uvStr, 8, iLim, limit, hevThr);
-                    if (mbY > 0) filterMBH(vPln, uvOff, uvStr, 8, iLim, mbLim, hevThr);
-                    if (fInner) filterSubH(vPln, uvOff + 4 * uvStr, uvStr, 8, iLim, limit, hevThr);
-                }
-            }
-        }
-    }
-
     private static void filterSimpleV(final byte[] p, final int off, final int str, final int lim) {
         for (int i = 0; i < 16; i++) {
             final int idx = off + i * str;
@@ -1237,6 +1037,380 @@ public final class VP8LossyDecoder {
         }
     }
 
+    // SHARED STATE OF ONE FRAME'S WAVEFRONT. ROWS ARE CLAIMED IN ORDER BY THE CALLING THREAD AND ANY POOL
+    // HELPERS; EACH ROW RECONSTRUCTS ITS MACROBLOCKS ONCE THE ROW ABOVE IS TWO MACROBLOCKS AHEAD (THE I4X4
+    // ABOVE-RIGHT PIXELS), THEN LOOP-FILTERS THE ROW ABOVE IT, WHOSE UNFILTERED BOTTOM EDGE NO LONGER HAS A
+    // READER. A THREAD ONLY EVER WAITS ON LOWER ROWS AND THE LOWEST CLAIMED ROW NEVER WAITS, SO IT CANNOT
+    // DEADLOCK HOWEVER FEW HELPERS THE POOL ACTUALLY RUNS. OUTPUT IS IDENTICAL TO A RASTER-ORDER DECODE
+    private static final class Wavefront {
+        private final VP8BoolDecoder[] tokBr;
+        private final State st;
+        private final byte[] yPln, uPln, vPln;
+        private final int yStr, uvStr, mbW, mbH;
+        private final boolean keyFrame;
+        private final SimdKernels simd = SimdKernels.get();
+
+        // NON-ZERO COEFFICIENT TRACKING FOR CONTEXT. ROW N+1 READS AND REWRITES A COLUMN ONLY AFTER ROW N
+        // HAS MOVED PAST IT, SO THE WAVEFRONT ORDER MAKES SHARING THEM SAFE
+        private final int[] topNzY, topNzU, topNzV, topNzDc;
+
+        private final AtomicInteger nextRow = new AtomicInteger();
+        private final AtomicIntegerArray decoded;   // MACROBLOCKS RECONSTRUCTED PER ROW
+        private final AtomicIntegerArray filtered;  // MACROBLOCKS LOOP-FILTERED PER ROW
+        // LOWEST ROW THAT FAILED; ROWS ABOVE IT STOP, ROWS BELOW IT RUN ON SO THE RASTER-FIRST ERROR WINS
+        private final AtomicInteger failedRow = new AtomicInteger(Integer.MAX_VALUE);
+        private final Throwable[] errors;
+
+        Wavefront(final VP8BoolDecoder[] tokBr, final State st, final byte[] yPln, final byte[] uPln, final byte[] vPln,
+                  final int yStr, final int uvStr, final int mbW, final int mbH, final boolean keyFrame) {
+            this.tokBr = tokBr;
+            this.st = st;
+            this.yPln = yPln;
+            this.uPln = uPln;
+            this.vPln = vPln;
+            this.yStr = yStr;
+            this.uvStr = uvStr;
+            this.mbW = mbW;
+            this.mbH = mbH;
+            this.keyFrame = keyFrame;
+            this.topNzY = new int[mbW * 4];
+            this.topNzU = new int[mbW * 2];
+            this.topNzV = new int[mbW * 2];
+            this.topNzDc = new int[mbW];
+            this.decoded = new AtomicIntegerArray(mbH);
+            this.filtered = new AtomicIntegerArray(mbH);
+            this.errors = new Throwable[mbH];
+        }
+
+        void run() {
+            final Scratch s = new Scratch();
+            int row;
+            while ((row = this.nextRow.getAndIncrement()) < this.mbH && row <= this.failedRow.get()) {
+                try {
+                    if (!this.decodeRow(s, row)) return;
+                    if (row > 0 && !this.filterRow(row - 1)) return;
+                    if (row == this.mbH - 1 && !this.filterRow(row)) return;
+                } catch (final Throwable t) {
+                    this.errors[row] = t;
+                    this.failedRow.accumulateAndGet(row, Math::min);
+                    return;
+                }
+            }
+        }
+
+        void rethrow() throws XCodecException {
+            final int row = this.failedRow.get();
+            if (row == Integer.MAX_VALUE) return;
+            final Throwable t = this.errors[row];
+            if (t instanceof final XCodecException e) throw e;
+            if (t instanceof final RuntimeException e) throw e;
+            if (t instanceof final Error e) throw e;
+            throw new XCodecException("VP8 decode failed", t);
+        }
+
+        // SPINS UNTIL progress[row] REACHES target; FALSE ONCE row OR ONE BELOW IT FAILED AND NEVER WILL
+        private boolean await(final AtomicIntegerArray progress, final int row, final int target) {
+            int spins = 0;
+            while (progress.get(row) < target) {
+                if (this.failedRow.get() <= row) return false;
+                if (++spins < SPIN_LIMIT) Thread.onSpinWait();
+                else Thread.yield();
+            }
+            return true;
+        }
+
+        private boolean decodeRow(final Scratch s, final int mbY) throws XCodecException {
+            final State st = this.st;
+            final byte[] yPln = this.yPln, uPln = this.uPln, vPln = this.vPln;
+            final int yStr = this.yStr, uvStr = this.uvStr, mbW = this.mbW, mbH = this.mbH;
+            final int[] topNzY = this.topNzY, topNzU = this.topNzU, topNzV = this.topNzV, topNzDc = this.topNzDc;
+            final SimdKernels simd = this.simd;
+            final short[] coeffs = s.coeffs;
+            final byte[] subAbove = s.subAbove, subLeft = s.subLeft;
+
+            final VP8BoolDecoder tbr = this.tokBr[mbY % st.numParts];
+            // THE PARTITION'S PREVIOUS ROW MUST BE DONE WITH THE BOOL DECODER BEFORE THIS ONE READS IT
+            if (mbY >= st.numParts && !this.await(this.decoded, mbY - st.numParts, mbW)) return false;
+            int leftNzY = 0, leftNzU = 0, leftNzV = 0, leftNzDc = 0;
+            // VECTOR IDCT WORKS ON HORIZONTAL BLOCK PAIRS; pairPending IS THE BUFFERED LEFT BLOCK'S RESIDUAL FLAG
+            boolean pairPending = false;
+
+            for (int mbX = 0; mbX < mbW; mbX++) {
+                final int mbIdx = mbY * mbW + mbX;
+                // MODES PAST A SPENT PARTITION 0 WERE NEVER PARSED; THE ROW HOLDING hdrEofMb REPORTS IT
+                if (mbIdx > st.hdrEofMb) return false;
+                if (mbY > 0 && !this.await(this.decoded, mbY - 1, Math.min(mbX + 2, mbW))) return false;
+
+                final int seg = st.mbSeg[mbIdx];
+                final int y1Dc = st.segQ[seg][0];
+                final int y1Ac = st.segQ[seg][1];
+                final int y2Dc = st.segQ[seg][2];
+                final int y2Ac = st.segQ[seg][3];
+                final int uvDc = st.segQ[seg][4];
+                final int uvAc = st.segQ[seg][5];
+
+                final boolean skip = st.mbSkip[mbIdx];
+                final boolean isI4x4 = st.mbIsI4x4[mbIdx] != 0;
+                final MBMode yMode = isI4x4 ? null : MBMode.VALUES[st.mbYMode[mbIdx]];
+                final MBMode uvMode = MBMode.VALUES[st.mbUvMode[mbIdx]];
+                final int subModes = mbIdx * 16;
+
+                final int yOff = mbY * 16 * yStr + mbX * 16;
+                final int uvOff = mbY * 8 * uvStr + mbX * 8;
+
+                // GET PREDICTION CONTEXT PIXELS
+                // LIBWEBP BORDER VALUES: 127 FOR TOP (mbY=0), 129 FOR LEFT (mbX=0)
+                final boolean hasAbove = mbY > 0, hasLeft = mbX > 0;
+                if (hasAbove) getAbove(yPln, yOff, yStr, 16, s.aboveY);
+                else System.arraycopy(TOP_BORDER_16, 0, s.aboveY, 0, 16);
+                if (hasLeft) getLeft(yPln, yOff, yStr, 16, s.leftY);
+                else System.arraycopy(LEFT_BORDER_16, 0, s.leftY, 0, 16);
+                final int tlY = hasAbove ? (hasLeft ? (yPln[yOff - yStr - 1] & 0xFF) : 129) : 127;
+
+                if (hasAbove) getAbove(uPln, uvOff, uvStr, 8, s.aboveU);
+                else System.arraycopy(TOP_BORDER_8, 0, s.aboveU, 0, 8);
+                if (hasLeft) getLeft(uPln, uvOff, uvStr, 8, s.leftU);
+                else System.arraycopy(LEFT_BORDER_8, 0, s.leftU, 0, 8);
+                final int tlU = hasAbove ? (hasLeft ? (uPln[uvOff - uvStr - 1] & 0xFF) : 129) : 127;
+
+                if (hasAbove) getAbove(vPln, uvOff, uvStr, 8, s.aboveV);
+                else System.arraycopy(TOP_BORDER_8, 0, s.aboveV, 0, 8);
+                if (hasLeft) getLeft(vPln, uvOff, uvStr, 8, s.leftV);
+                else System.arraycopy(LEFT_BORDER_8, 0, s.leftV, 0, 8);
+                final int tlV = hasAbove ? (hasLeft ? (vPln[uvOff - uvStr - 1] & 0xFF) : 129) : 127;
+
+                // RFC6386 SECTION 12 - INTRAFRAME PREDICTION
+                if (!isI4x4) {
+                    predict16(yMode, yPln, yOff, yStr, s.aboveY, s.leftY, tlY, hasAbove, hasLeft);
+                } else if (skip) {
+                    for (int j = 0; j < 4; j++)
+                        for (int i = 0; i < 4; i++) {
+                            final int sOff = yOff + j * 4 * yStr + i * 4;
+                            final boolean rightEdge = (i == 3) && (mbX == mbW - 1);
+                            if (mbY > 0 || j > 0) getAbove8Sub(yPln, sOff, yStr, rightEdge, mbY, j, i, yOff, subAbove);
+                            else System.arraycopy(TOP_BORDER_8, 0, subAbove, 0, 8);
+                            if (mbX > 0 || i > 0) getLeft(yPln, sOff, yStr, 4, subLeft);
+                            else System.arraycopy(LEFT_BORDER_4, 0, subLeft, 0, 4);
+                            final int sTl = subTl(mbX, mbY, i, j, yPln, sOff, yStr);
+                            predict4(SubMode.VALUES[st.mbSubModes[subModes + j * 4 + i]], yPln, sOff, yStr, subAbove, subLeft, sTl);
+                        }
+                }
+
+                predict8(uvMode, uPln, uvOff, uvStr, s.aboveU, s.leftU, tlU, hasAbove, hasLeft);
+                predict8(uvMode, vPln, uvOff, uvStr, s.aboveV, s.leftV, tlV, hasAbove, hasLeft);
+
+                // RFC6386 SECTION 13 - DCT COEFFICIENT DECODING
+                // TRACK WHETHER ANY COEFFICIENT DECODED NON-ZERO; LIBWEBP DERIVES THE LOOP-FILTER
+                // INNER-EDGE FLAG FROM ACTUAL NZ, NOT THE SKIP FLAG (f_inner |= !effectiveSkip)
+                boolean nzAny = false;
+                if (!skip) {
+                    boolean hasY2dc = false;
+
+                    if (!isI4x4) {
+                        final int ctx = leftNzDc + topNzDc[mbX];
+                        Arrays.fill(coeffs, (short) 0);
+                        final int nz = decodeCoeffs(tbr, coeffs, st.coeffProbs, 1, 0, y2Dc, y2Ac, ctx);
+                        leftNzDc = nz > 0 ? 1 : 0;
+                        topNzDc[mbX] = leftNzDc;
+                        nzAny |= nz > 0;
+                        if (nz > 0) {
+                            inverseWHT(coeffs, s.y2dc, s.whtTmp);
+                            hasY2dc = true;
+                        }
+                    }
+
+                    final int firstCoef = isI4x4 ? 0 : 1;
+                    final int yType = isI4x4 ? 3 : 0;
+
+                    for (int j = 0; j < 4; j++)
+                        for (int i = 0; i < 4; i++) {
+                            final int sOff = yOff + j * 4 * yStr + i * 4;
+
+                            if (isI4x4) {
+                                final boolean rightEdge = (i == 3) && (mbX == mbW - 1);
+                                if (mbY > 0 || j > 0) getAbove8Sub(yPln, sOff, yStr, rightEdge, mbY, j, i, yOff, subAbove);
+                                else System.arraycopy(TOP_BORDER_8, 0, subAbove, 0, 8);
+                                if (mbX > 0 || i > 0) getLeft(yPln, sOff, yStr, 4, subLeft);
+                                else System.arraycopy(LEFT_BORDER_4, 0, subLeft, 0, 4);
+                                final int sTl = subTl(mbX, mbY, i, j, yPln, sOff, yStr);
+                                predict4(SubMode.VALUES[st.mbSubModes[subModes + j * 4 + i]], yPln, sOff, yStr, subAbove, subLeft, sTl);
+                            }
+
+                            final int ctx = ((leftNzY >> j) & 1) + topNzY[mbX * 4 + i];
+                            Arrays.fill(coeffs, (short) 0);
+                            if (hasY2dc) coeffs[0] = s.y2dc[j * 4 + i];
+                            final int nz = decodeCoeffs(tbr, coeffs, st.coeffProbs, yType, firstCoef, y1Dc, y1Ac, ctx);
+                            final boolean residual = nz > 0 || (hasY2dc && s.y2dc[j * 4 + i] != 0);
+                            // I4X4 PREDICTS EACH SUBBLOCK FROM ITS RECONSTRUCTED LEFT NEIGHBOUR, SO IT CANNOT PAIR
+                            if (simd != null && !isI4x4) pairPending = pairIDCT(simd, coeffs, s.pairCoeffs, i, residual, pairPending, yPln, sOff, yStr);
+                            else if (residual) inverseDCT(coeffs, yPln, sOff, yStr, s.dctTmp);
+                            leftNzY = (leftNzY & ~(1 << j)) | ((nz > 0 ? 1 : 0) << j);
+                            topNzY[mbX * 4 + i] = nz > 0 ? 1 : 0;
+                            nzAny |= nz > 0;
+                        }
+
+                    for (int j = 0; j < 2; j++)
+                        for (int i = 0; i < 2; i++) {
+                            final int ctx = ((leftNzU >> j) & 1) + topNzU[mbX * 2 + i];
+                            Arrays.fill(coeffs, (short) 0);
+                            final int nz = decodeCoeffs(tbr, coeffs, st.coeffProbs, 2, 0, uvDc, uvAc, ctx);
+                            final int sOff = uvOff + j * 4 * uvStr + i * 4;
+                            if (simd != null) pairPending = pairIDCT(simd, coeffs, s.pairCoeffs, i, nz > 0, pairPending, uPln, sOff, uvStr);
+                            else if (nz > 0) inverseDCT(coeffs, uPln, sOff, uvStr, s.dctTmp);
+                            leftNzU = (leftNzU & ~(1 << j)) | ((nz > 0 ? 1 : 0) << j);
+                            topNzU[mbX * 2 + i] = nz > 0 ? 1 : 0;
+                            nzAny |= nz > 0;
+                        }
+
+                    for (int j = 0; j < 2; j++)
+                        for (int i = 0; i < 2; i++) {
+                            final int ctx = ((leftNzV >> j) & 1) + topNzV[mbX * 2 + i];
+                            Arrays.fill(coeffs, (short) 0);
+                            final int nz = decodeCoeffs(tbr, coeffs, st.coeffProbs, 2, 0, uvDc, uvAc, ctx);
+                            final int sOff = uvOff + j * 4 * uvStr + i * 4;
+                            if (simd != null) pairPending = pairIDCT(simd, coeffs, s.pairCoeffs, i, nz > 0, pairPending, vPln, sOff, uvStr);
+                            else if (nz > 0) inverseDCT(coeffs, vPln, sOff, uvStr, s.dctTmp);
+                            leftNzV = (leftNzV & ~(1 << j)) | ((nz > 0 ? 1 : 0) << j);
+                            topNzV[mbX * 2 + i] = nz > 0 ? 1 : 0;
+                            nzAny |= nz > 0;
+                        }
+                } else {
+                    leftNzY = 0;
+                    for (int i = 0; i < 4; i++) topNzY[mbX * 4 + i] = 0;
+                    leftNzU = 0;
+                    for (int i = 0; i < 2; i++) topNzU[mbX * 2 + i] = 0;
+                    leftNzV = 0;
+                    for (int i = 0; i < 2; i++) topNzV[mbX * 2 + i] = 0;
+                    if (!isI4x4) {
+                        leftNzDc = 0;
+                        topNzDc[mbX] = 0;
+                    }
+                }
+
+                // INNER-EDGE FILTERING APPLIES TO I4X4 MBS OR MBS THAT ACTUALLY CARRY COEFFICIENTS
+                st.mbFInner[mbIdx] = (isI4x4 || nzAny) ? 1 : 0;
+
+                // PER-MACROBLOCK EXHAUSTION CHECK (WHAT libwebp DOES): ONCE EITHER PARTITION IS
+                // SPENT THE REMAINING GRID WOULD BE SYNTHESISED FROM IMPLICIT ZERO BYTES, WHICH IS
+                // HOW A 2-BYTE TOKEN PARTITION "DECODES" A 64-MEGAPIXEL FRAME
+                if (mbIdx >= st.hdrEofMb || tbr.eof())
+                    throw new XCodecException("VP8 bitstream truncated: bool decoder ran past partition end at macroblock "
+                            + mbX + "," + mbY + " of " + mbW + "x" + mbH);
+
+                // PUBLISHES THE PIXELS, THE NZ CONTEXT AND mbFInner OF THIS MACROBLOCK TO THE ROWS BELOW
+                this.decoded.set(mbY, mbX + 1);
+            }
+            return true;
+        }
+
+        // RFC6386 SECTION 15 - LOOP FILTER, ONE MACROBLOCK ROW. THE ROW BELOW IS ALREADY RECONSTRUCTED (IT
+        // PREDICTED FROM THIS ROW'S UNFILTERED EDGE); MACROBLOCK mbX NEEDS THE ROW ABOVE FILTERED THROUGH
+        // mbX + 1, WHOSE LEFT-EDGE FILTER REWRITES THE COLUMNS THIS ONE READS
+        private boolean filterRow(final int mbY) {
+            final State st = this.st;
+            final byte[] yPln = this.yPln, uPln = this.uPln, vPln = this.vPln;
+            final int yStr = this.yStr, uvStr = this.uvStr, mbW = this.mbW;
+            for (int mbX = 0; mbX < mbW; mbX++) {
+                if (mbY > 0 && !this.await(this.filtered, mbY - 1, Math.min(mbX + 2, mbW))) return false;
+                final int mbIdx = mbY * mbW + mbX;
+                final int seg = st.mbSeg[mbIdx];
+                final int isI4x4 = st.mbIsI4x4[mbIdx];
+                final boolean fInner = st.mbFInner[mbIdx] != 0;
+
+                // COMPUTE PER-SEGMENT FILTER LEVEL (MATCHING LIBWEBP PrecomputeFilterStrengths)
+                int level;
+                if (st.segEnabled) {
+                    level = st.segLoop[seg];
+                    if (!st.segAbsMode) level += st.loopLvl;
+                } else {
+                    level = st.loopLvl;
+                }
+                if (st.useLfDelta) {
+                    level += st.refLfDelta[0]; // refLfDelta[0] FOR INTRA FRAME
+                    if (isI4x4 != 0) level += st.modeLfDelta[0];
+                }
+                level = Math.max(0, Math.min(63, level));
+                if (level == 0) {
+                    this.filtered.set(mbY, mbX + 1);
+                    continue;
+                }
+
+                int iLim = level;
+                final int shrp = st.sharpLvl;
+                if (shrp > 0) {
+                    iLim >>= (shrp > 4) ? 2 : 1;
+                    if (iLim > 9 - shrp) iLim = 9 - shrp;
+                }
+                if (iLim < 1) iLim = 1;
+
+                final int limit = 2 * level + iLim;
+                final int mbLim = limit + 4;
+                final int hevThr = this.keyFrame ? ((level >= 40) ? 2 : (level >= 15) ? 1 : 0)
+                        : ((level >= 40) ? 3 : (level >= 20) ? 2 : (level >= 15) ? 1 : 0);
+
+                final int yOff = mbY * 16 * yStr + mbX * 16;
+                final int uvOff = mbY * 8 * uvStr + mbX * 8;
+
+                if (st.filterSimple) {
+                    if (mbX > 0) filterSimpleV(yPln, yOff, yStr, mbLim);
+                    if (fInner) {
+                        filterSimpleV(yPln, yOff + 4, yStr, limit);
+                        filterSimpleV(yPln, yOff + 8, yStr, limit);
+                        filterSimpleV(yPln, yOff + 12, yStr, limit);
+                    }
+                    if (mbY > 0) filterSimpleH(yPln, yOff, yStr, 16, mbLim);
+                    if (fInner) {
+                        filterSimpleH(yPln, yOff + 4 * yStr, yStr, 16, limit);
+                        filterSimpleH(yPln, yOff + 8 * yStr, yStr, 16, limit);
+                        filterSimpleH(yPln, yOff + 12 * yStr, yStr, 16, limit);
+                    }
+                } else {
+                    if (mbX > 0) filterMBV(yPln, yOff, yStr, 16, iLim, mbLim, hevThr);
+                    if (fInner) {
+                        filterSubV(yPln, yOff + 4, yStr, 16, iLim, limit, hevThr);
+                        filterSubV(yPln, yOff + 8, yStr, 16, iLim, limit, hevThr);
+                        filterSubV(yPln, yOff + 12, yStr, 16, iLim, limit, hevThr);
+                    }
+                    if (mbY > 0) filterMBH(yPln, yOff, yStr, 16, iLim, mbLim, hevThr);
+                    if (fInner) {
+                        filterSubH(yPln, yOff + 4 * yStr, yStr, 16, iLim, limit, hevThr);
+                        filterSubH(yPln, yOff + 8 * yStr, yStr, 16, iLim, limit, hevThr);
+                        filterSubH(yPln, yOff + 12 * yStr, yStr, 16, iLim, limit, hevThr);
+                    }
+
+                    if (mbX > 0) filterMBV(uPln, uvOff, uvStr, 8, iLim, mbLim, hevThr);
+                    if (fInner) filterSubV(uPln, uvOff + 4, uvStr, 8, iLim, limit, hevThr);
+                    if (mbY > 0) filterMBH(uPln, uvOff, uvStr, 8, iLim, mbLim, hevThr);
+                    if (fInner) filterSubH(uPln, uvOff + 4 * uvStr, uvStr, 8, iLim, limit, hevThr);
+
+                    if (mbX > 0) filterMBV(vPln, uvOff, uvStr, 8, iLim, mbLim, hevThr);
+                    if (fInner) filterSubV(vPln, uvOff + 4, uvStr, 8, iLim, limit, hevThr);
+                    if (mbY > 0) filterMBH(vPln, uvOff, uvStr, 8, iLim, mbLim, hevThr);
+                    if (fInner) filterSubH(vPln, uvOff + 4 * uvStr, uvStr, 8, iLim, limit, hevThr);
+                }
+                this.filtered.set(mbY, mbX + 1);
+            }
+            return true;
+        }
+    }
+
+    // PER-THREAD RECONSTRUCTION SCRATCH
+    private static final class Scratch {
+        final short[] coeffs = new short[16];
+        final short[] y2dc = new short[16];
+        final int[] whtTmp = new int[16];
+        final int[] dctTmp = new int[16];
+        final short[] pairCoeffs = new short[32];
+        final byte[] aboveY = new byte[16];
+        final byte[] leftY = new byte[16];
+        final byte[] aboveU = new byte[8];
+        final byte[] leftU = new byte[8];
+        final byte[] aboveV = new byte[8];
+        final byte[] leftV = new byte[8];
+        final byte[] subAbove = new byte[8];
+        final byte[] subLeft = new byte[4];
+    }
+
     // RFC6386 SECTION 12 - PREDICTION MODES
     // RFC6386 SECTION 12.1 - 16X16 LUMA AND 8X8 CHROMA MODES
     enum MBMode {
@@ -1281,6 +1455,10 @@ public final class VP8LossyDecoder {
         int[] modeLfDelta = new int[4];
         // PER-MB INFO FOR LOOP FILTER (STORED DURING DECODE, USED DURING FILTER)
         int[] mbSeg, mbIsI4x4, mbFInner;
+        // PER-MB MODES PARSED FROM PARTITION 0 AHEAD OF RECONSTRUCTION; SUBMODES ARE 16 ORDINALS PER MB
+        boolean[] mbSkip;
+        byte[] mbYMode, mbUvMode, mbSubModes;
+        int hdrEofMb; // FIRST MB AFTER WHICH PARTITION 0 RAN DRY, OR Integer.MAX_VALUE
     }
 
 }
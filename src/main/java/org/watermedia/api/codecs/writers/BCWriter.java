@@ -16,7 +16,7 @@ import java.nio.ByteBuffer;
  * eighth (BC1) of the RGBA8 footprint.
  *
  * <p>Availability is validated up front: the constructor throws when the requested version (or, by
- * default, any version) is not natively available, so a {@code BCWriter} that exists is always
+ * default, any version) is not available, so a {@code BCWriter} that exists is always
  * usable. The {@code arraySize} of the DDS header is written as a placeholder and must be patched
  * with {@link DDSHeader#patchArraySize} once every frame has been streamed (the writer targets a
  * forward-only {@link OutputStream}).
@@ -37,7 +37,7 @@ public final class BCWriter extends ImageWriter {
     /**
      * Opens a writer for a specific BC version.
      *
-     * @throws IOException when {@code version} is {@code null} or not natively available
+     * @throws IOException when {@code version} is {@code null} or not available
      */
     public BCWriter(final OutputStream out, final int width, final int height,
                     final PixelFormat pixelFormat, final String version) throws IOException {
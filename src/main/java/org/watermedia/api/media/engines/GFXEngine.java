@@ -166,6 +166,34 @@ public abstract sealed class GFXEngine permits VKEngine, GLEngine, HeadlessGFXEn
      */
     public abstract void upload(final ByteBuffer[] planes, final int[] strides);
 
+    /**
+     * Whether the engine can borrow planes it does not own through
+     * {@link #upload(ByteBuffer[], int[], Runnable)}.
+     * <p>
+     * A borrowing engine tells the producer exactly when it stopped reading a frame, so a decoder can
+     * hand over views of its own frame memory (kept alive by a reference) instead of copying every
+     * plane into buffers that outlive the retention window. Producers must check this first and keep
+     * copying for engines that report false. The default reports false.
+     * @return true when {@link #upload(ByteBuffer[], int[], Runnable)} is supported
+     */
+    public boolean borrows() { return false; }
+
+    /**
+     * Uploads one decoded frame like {@link #upload(ByteBuffer[], int[])}, borrowing its planes.
+     * <p>
+     * The engine runs {@code release} exactly once, from any thread, as soon as it no longer reads the
+     * planes — once they are copied or rendered, or when the frame is dropped, superseded or the engine
+     * released. The producer must keep the memory valid and unmodified until then, and may free it from
+     * the callback. Only supported when {@link #borrows()} reports true.
+     * @param planes  direct ByteBuffers pointing to native pixel data, one per plane
+     * @param strides per-plane row strides in <b>bytes</b>, or 0 for tightly-packed rows
+     * @param release run once the engine is done with {@code planes}
+     * @throws UnsupportedOperationException when the engine does not borrow
+     */
+    public void upload(final ByteBuffer[] planes, final int[] strides, final Runnable release) {
+        throw new UnsupportedOperationException(this.getClass().getSimpleName() + " does not borrow planes");
+    }
+
     /**
      * Releases all GPU resources. The engine is unusable after this call.
      */
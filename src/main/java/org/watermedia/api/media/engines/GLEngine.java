@@ -15,6 +15,7 @@ import java.util.Map;
 import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.watermedia.WaterMedia.LOGGER;
 
@@ -236,7 +237,8 @@ public final class GLEngine extends GFXEngine {
 
     // LATEST-WINS SUBMISSION SLOT (PRODUCER WRITES, RENDER THREAD DRAINS). THE HUB QUEUES AT
     // MOST ONE DRAIN PER ENGINE PER WAVE; A NEWER SUBMISSION REPLACES AN UNDRAINED OLDER ONE.
-    private volatile Submission pending;
+    // SWAPPED ATOMICALLY SO A REPLACED OR DRAINED BORROWED FRAME IS HANDED BACK EXACTLY ONCE.
+    private final AtomicReference<Submission> pending = new AtomicReference<>();
 
     // PERSISTENT-MAPPED PBO RING (ARB_buffer_storage). THE PRODUCER THREAD MEMCPYS PIXELS INTO
     // THE MAPPED REGION SO THE RENDER THREAD NEVER TOUCHES CLIENT MEMORY. SLOT LIFECYCLE:
@@ -574,31 +576,59 @@ public final class GLEngine extends GFXEngine {
     // QUEUES AT MOST ONE BATCHED DRAIN TASK PER RENDER THREAD AT ANY TIME.
     @Override
     public void upload(final ByteBuffer[] bufs, final int[] strides) {
+        this.submit(bufs, strides, null);
+    }
+
+    // BORROWED PLANES ARE NEVER READ AFTER renderSubmission() OR ringWrite() RETURNS: BOTH THE PBO
+    // PATH (glBufferSubData) AND THE RESPEC PATH (glTexImage2D FROM CLIENT MEMORY) COPY SYNCHRONOUSLY
+    @Override
+    public boolean borrows() { return true; }
+
+    @Override
+    public void upload(final ByteBuffer[] bufs, final int[] strides, final Runnable release) {
+        this.submit(bufs, strides, release);
+    }
+
+    private void submit(final ByteBuffer[] bufs, final int[] strides, final Runnable release) {
         for (final ByteBuffer buf: bufs) {
-            if (buf == null || !buf.isDirect()) return;
+            if (buf == null || !buf.isDirect()) { giveBack(release); return; }
         }
-        if (this.released) return;
+        if (this.released) { giveBack(release); return; }
         if (this.renderThread == null || this.renderThread == Thread.currentThread()) {
             // SYNCHRONOUS PATH: ALREADY ON THE RENDER THREAD (OR NO THREAD CONTRACT AT ALL)
             final Env env = Env.save(this.conv != CONV_NONE);
             try {
-                this.renderSubmission(new Submission(bufs, strides, this.sizesOf(bufs), -1L, 0));
+                this.renderSubmission(new Submission(bufs, strides, this.sizesOf(bufs), -1L, 0, null));
             } finally {
                 env.restore();
+                giveBack(release);
             }
             return;
         }
 
         // RING CONGESTION (DROPPED) SKIPS THE FRAME BUT STILL SCHEDULES A DRAIN SO FENCES
-        // RETIRE AND THE RING RECOVERS.
+        // RETIRE AND THE RING RECOVERS. A RING SLOT HOLDS ITS OWN COPY, SO THE BORROW ENDS HERE.
         final int[] sizes = this.sizesOf(bufs);
         final Submission ring = this.ringWrite(bufs, strides, sizes);
-        if (ring != DROPPED) {
-            this.pending = ring != null ? ring : new Submission(bufs, strides, sizes, -1L, 0);
+        if (ring != null) {
+            giveBack(release);
+            if (ring != DROPPED) giveBack(this.pending.getAndSet(ring));
+        } else {
+            giveBack(this.pending.getAndSet(new Submission(bufs, strides, sizes, -1L, 0, release)));
+            // release() MAY HAVE DRAINED THE SLOT BETWEEN THE CHECK ABOVE AND THE SWAP
+            if (this.released) giveBack(this.pending.getAndSet(null));
         }
         this.hub.schedule(this);
     }
 
+    private static void giveBack(final Runnable release) {
+        if (release != null) release.run();
+    }
+
+    private static void giveBack(final Submission s) {
+        if (s != null) giveBack(s.release);
+    }
+
     private int[] sizesOf(final ByteBuffer[] bufs) {
         final int[] sizes = new int[bufs.length];
         for (int i = 0; i < bufs.length; i++) sizes[i] = bufs[i].remaining();
@@ -621,7 +651,7 @@ public final class GLEngine extends GFXEngine {
                 dst += sizes[i];
             }
             this.ringProduced = slot + 1;
-            return new Submission(null, strides, sizes, slot, this.ringEra);
+            return new Submission(null, strides, sizes, slot, this.ringEra, null);
         }
     }
 
@@ -631,9 +661,14 @@ public final class GLEngine extends GFXEngine {
     // ONE ENGINE'S SHARE OF A HUB WAVE: CONSUME THE LATEST-WINS SLOT AND RETIRE RING FENCES.
     // THE CALLER OWNS THE STATE ENVELOPE.
     private void drainOne() {
-        final Submission s = this.pending;
-        this.pending = null;
-        if (s != null) this.renderSubmission(s);
+        final Submission s = this.pending.getAndSet(null);
+        if (s != null) {
+            try {
+                this.renderSubmission(s);
+            } finally {
+                giveBack(s);
+            }
+        }
         this.retireRing(this.ringConsumed);
     }
 
@@ -846,6 +881,7 @@ public final class GLEngine extends GFXEngine {
     @Override
     public void release() {
         this.released = true; // STOP PRODUCERS IMMEDIATELY; STALE RENDER TASKS BECOME NO-OPS
+        giveBack(this.pending.getAndSet(null)); // HAND A PARKED BORROWED FRAME BACK TO ITS PRODUCER
         // DROP OUR HUB REFERENCE NOW (THREAD-SAFE, IDEMPOTENT — release() MAY RUN TWICE). THE HUB
         // IS EVICTED ONCE ITS LAST ENGINE LEAVES, SO A TORN-DOWN RENDER THREAD LEAKS NEITHER ITS
         // HUB NOR ITS EXECUTOR.
@@ -1240,11 +1276,12 @@ public final class GLEngine extends GFXEngine {
     // RECORDS + PLANE DESCRIPTOR
     // ==========================================================================
     // ONE SUBMITTED FRAME. slot >= 0 MEANS PIXELS LIVE IN THE PERSISTENT RING (bufs IS NULL);
-    // OTHERWISE bufs HOLDS THE CALLER'S DIRECT BUFFERS UNTIL THE DRAIN CONSUMES OR REPLACES IT.
-    private record Submission(ByteBuffer[] bufs, int[] strides, int[] sizes, long slot, int era) {}
+    // OTHERWISE bufs HOLDS THE CALLER'S DIRECT BUFFERS UNTIL THE DRAIN CONSUMES OR REPLACES IT;
+    // release (BORROWED UPLOADS ONLY) RUNS ONCE THE SUBMISSION IS CONSUMED, REPLACED OR DISCARDED.
+    private record Submission(ByteBuffer[] bufs, int[] strides, int[] sizes, long slot, int era, Runnable release) {}
 
     // SENTINEL FOR "RING FULL — FRAME DROPPED"
-    private static final Submission DROPPED = new Submission(null, null, new int[0], -2L, 0);
+    private static final Submission DROPPED = new Submission(null, null, new int[0], -2L, 0, null);
 
     // PER-PLANE TEXTURE LAYOUT FOR THE CURRENT FORMAT
     private static final class Plane {
@@ -15,26 +15,43 @@ import java.nio.ByteBuffer;
  * {@link #texture()} returns a non-zero sentinel once the first frame is captured (0 before),
  * matching the base contract; there is no real texture to bind. Every mutable field is
  * {@code volatile} because the player's lifecycle thread writes them while another thread may read them.
+ * <p>
+ * Constructed with {@code borrows}, the engine also accepts borrowed planes
+ * ({@link #upload(ByteBuffer[], int[], Runnable)}): it holds the latest borrowed frame, exposed through
+ * {@link #lastUpload()}, until the next upload or {@link #release()} hands it back — the same window a
+ * latest-wins GPU engine keeps an undrained frame. {@link #uploadedBytes()} and {@link #borrowedBytes()}
+ * tell how much of the pushed pixel data the producer did not have to copy.
  */
 public final class HeadlessGFXEngine extends GFXEngine {
     // FIXED NON-ZERO HANDLE — NO REAL GPU TEXTURE EXISTS, BUT texture() MUST READ AS "A FRAME IS PRESENT"
     private static final long SENTINEL_TEXTURE = 1L;
 
     private final boolean preload;
+    private final boolean borrows;
     private volatile long uploadCount;
+    private volatile long borrowedCount;
+    private volatile long uploadedBytes;
+    private volatile long borrowedBytes;
     private volatile int activeFrame;
     private volatile ByteBuffer[] preloaded;
     private volatile ByteBuffer lastUpload;
     private volatile boolean framed;
     private volatile boolean released;
+    // CALLBACK OF THE BORROWED FRAME STILL HELD, RUN WHEN THE NEXT UPLOAD REPLACES IT OR ON RELEASE
+    private Runnable borrowed;
 
     public HeadlessGFXEngine() {
         this(false);
     }
 
     public HeadlessGFXEngine(final boolean preload) {
+        this(preload, false);
+    }
+
+    public HeadlessGFXEngine(final boolean preload, final boolean borrows) {
         super(false); // HEADLESS IS THE SANCTIONED SERVER-SIDE ENGINE — SKIP THE CLIENT CHECK
         this.preload = preload;
+        this.borrows = borrows;
     }
 
     @Override
@@ -58,26 +75,86 @@ public final class HeadlessGFXEngine extends GFXEngine {
 
     @Override
     public void upload(final ByteBuffer[] planes, final int[] strides) {
-        this.lastUpload = planes.length > 0 ? planes[0] : null;
+        this.capture(planes, null);
+    }
+
+    @Override
+    public boolean borrows() { return this.borrows; }
+
+    @Override
+    public void upload(final ByteBuffer[] planes, final int[] strides, final Runnable release) {
+        if (!this.borrows) {
+            super.upload(planes, strides, release);
+            return;
+        }
+        if (!this.capture(planes, release)) return;
+        this.borrowedCount++;
+        this.borrowedBytes += bytesOf(planes);
+    }
+
+    // STORES THE FRAME AND HANDS THE PREVIOUSLY BORROWED ONE BACK; A BORROWED FRAME ARRIVING AFTER
+    // release() GOES STRAIGHT BACK INSTEAD. CHECKED UNDER THE LOCK SO release() CAN'T MISS IT
+    private boolean capture(final ByteBuffer[] planes, final Runnable release) {
+        final Runnable previous;
+        final boolean stored;
+        synchronized (this) {
+            stored = release == null || !this.released;
+            if (stored) {
+                previous = this.borrowed;
+                this.borrowed = release;
+                this.lastUpload = planes.length > 0 ? planes[0] : null;
+            } else {
+                previous = release;
+            }
+        }
+        if (previous != null) previous.run();
+        if (!stored) return false;
         this.uploadCount++;
+        this.uploadedBytes += bytesOf(planes);
         this.framed = true;
+        return true;
     }
 
     @Override
     public void release() {
-        this.released = true;
+        final Runnable previous;
+        synchronized (this) {
+            this.released = true;
+            previous = this.borrowed;
+            this.borrowed = null;
+            // THE VIEW POINTS AT MEMORY ITS PRODUCER IS ABOUT TO FREE
+            if (previous != null) this.lastUpload = null;
+        }
+        if (previous != null) previous.run();
+    }
+
+    private static long bytesOf(final ByteBuffer[] planes) {
+        long bytes = 0L;
+        for (final ByteBuffer plane: planes) {
+            if (plane != null) bytes += plane.remaining();
+        }
+        return bytes;
     }
 
     /** Number of {@code upload} calls received so far. */
     public long uploadCount() { return this.uploadCount; }
 
+    /** Number of those uploads whose planes were borrowed instead of copied by the producer. */
+    public long borrowedCount() { return this.borrowedCount; }
+
+    /** Plane bytes received across every {@code upload} call. */
+    public long uploadedBytes() { return this.uploadedBytes; }
+
+    /** Plane bytes received through borrowed uploads — the bytes the producer did not copy. */
+    public long borrowedBytes() { return this.borrowedBytes; }
+
     /** Index last selected through {@link #frame(int)}. */
     public int activeFrame() { return this.activeFrame; }
 
     /** Frame set last handed to {@link #preload(ByteBuffer[], int)}, or null. */
     public ByteBuffer[] preloadedFrames() { return this.preloaded; }
 
-    /** Y (or sole) plane of the most recent {@code upload}, or null. */
+    /** Y (or sole) plane of the most recent {@code upload}, or null (also once a borrowed one was handed back). */
     public ByteBuffer lastUpload() { return this.lastUpload; }
 
     /** Whether {@link #release()} has been called. */
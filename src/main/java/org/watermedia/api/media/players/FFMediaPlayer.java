@@ -21,7 +21,10 @@ import org.watermedia.api.media.players.sync.Bridge;
 import org.watermedia.WaterMediaConfig;
 import org.watermedia.api.media.MRL;
 import org.watermedia.api.media.engines.SFXEngine;
+import org.watermedia.api.media.players.util.DecodeGovernor;
+import org.watermedia.api.media.players.util.DecodeScheduler;
 import org.watermedia.api.media.players.util.FrameQueue;
+import org.watermedia.api.media.players.util.KeyframeIndex;
 import org.watermedia.api.media.players.util.MasterClock;
 import org.watermedia.api.media.players.util.NetworkCache;
 import org.watermedia.api.media.players.util.PacketQueue;
@@ -38,6 +41,7 @@ import java.net.URI;
 import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 
 import static org.bytedeco.ffmpeg.global.avcodec.*;
@@ -50,7 +54,10 @@ import static org.watermedia.WaterMedia.LOGGER;
  *
  * 4 internal threads: a lifecycle/consumption thread plus demux, video decode and
  * audio decode threads that produce decoded frames into thread-safe queues. The
- * lifecycle thread consumes those decoded frames itself.
+ * lifecycle thread consumes those decoded frames itself. With
+ * {@code media.ffmpeg.sharedDecodePool} the two decoders instead run as cooperative
+ * tasks on the process-wide {@link DecodeScheduler}, ranked by {@link #visible(boolean)}
+ * and {@link LodLevel}, which leaves two threads per player.
  *
  * Video frames are uploaded to GFXEngine as native YUV planes whenever the pixel
  * format is directly supported (YUV420P, NV12, etc.), avoiding CPU-side sws_scale.
@@ -70,12 +77,19 @@ public final class FFMediaPlayer extends MediaPlayer {
 
     // THREADING
     private static final int MAX_DECODE_THREADS = ThreadTool.halfThreads();
+    // SHARED DECODE POOL PRIORITY OF AUDIO — CHEAP AND AUDIBLE EVEN OFF SCREEN, SO IT ALWAYS GOES FIRST;
+    // VIDEO RANKS BY decodePriority(): LOD PERCENT, AND A HIDDEN VIDEO BELOW EVERY VISIBLE ONE
+    private static final int AUDIO_DECODE_PRIORITY = 1000;
 
     // QUEUE CAPACITIES
     private static final long VIDEO_PACKET_QUEUE_BYTES = 16L * 1024 * 1024;
     private static final long AUDIO_PACKET_QUEUE_BYTES = 8L * 1024 * 1024;
     private static final int VIDEO_FRAME_QUEUE_SLOTS = 3;
     private static final int AUDIO_FRAME_QUEUE_SLOTS = 9;
+    // RING SIZES OF THE LOCK-FREE PACKET QUEUES — ~30s OF 30FPS VIDEO / ~40s OF 21ms AUDIO PACKETS,
+    // SO THE BYTE LIMITS ABOVE STAY THE BINDING BACKPRESSURE IN PRACTICE
+    private static final int VIDEO_PACKET_QUEUE_ENTRIES = 1024;
+    private static final int AUDIO_PACKET_QUEUE_ENTRIES = 2048;
 
     // A/V SYNC THRESHOLDS (SECONDS)
     private static final double AV_SYNC_TOO_EARLY = 0.040;
@@ -142,6 +156,10 @@ public final class FFMediaPlayer extends MediaPlayer {
     private Thread demuxThread;
     private Thread videoDecodeThread;
     private Thread audioDecodeThread;
+    // SHARED-POOL COUNTERPARTS OF THE DECODE THREADS — READ BY THE DEMUX AND LIFECYCLE THREADS TO WAKE THEM
+    private volatile DecodeScheduler.Task videoDecodeTask;
+    private volatile DecodeScheduler.Task audioDecodeTask;
+    private boolean sharedDecode; // media.ffmpeg.sharedDecodePool, FIXED FOR A WHOLE RUN
 
     // QUEUES
     private PacketQueue videoPacketQueue;
@@ -189,6 +207,13 @@ public final class FFMediaPlayer extends MediaPlayer {
     // STATS
     private long totalSkippedFrames = 0;
     private long totalRenderedFrames = 0;
+    private volatile long governedDrops = 0; // PACKETS/FRAMES THE VIDEO DECODER SHED FOR THE DecodeGovernor
+
+    // KEYFRAMES OF THE MAIN VIDEO STREAM, LEARNED WHILE DEMUXING (DEMUX THREAD ONLY). NULL WHEN DISABLED,
+    // LIVE OR AUDIO-ONLY. keyframeSource IS THE URI IT DESCRIBES, FIXED AT init() SO A QUALITY SWITCH
+    // NEVER STORES ONE RENDITION'S INDEX UNDER ANOTHER
+    private KeyframeIndex keyframes;
+    private URI keyframeSource;
 
     // PTS DISCONTINUITY HANDLING (HLS AD STITCHING)
     // TWITCH AND SIMILAR SERVICES INSERT ADS VIA #EXT-X-DISCONTINUITY.
@@ -583,8 +608,32 @@ public final class FFMediaPlayer extends MediaPlayer {
         return null;
     }
 
-    // COPIES AVFRAME PLANE DATA TO A POOLED BUFFER SET, THEN UPLOADS TO GFXENGINE. THE COPY IS NECESSARY BECAUSE GLENGINE MAY DISPATCH THE UPLOAD TO THE RENDER THREAD ASYNCHRONOUSLY, BUT THE AVFRAME DATA IS RECYCLED BY FRAMEQUEUE.NEXT(). STRIDES ARE PASSED IN BYTES (FFMPEG LINESIZE CONVENTION).
-    private void uploadNativePlanes(final AVFrame frame, final PixelFormat cs, final int width, final int height) {
+    // UPLOADS THE AVFRAME PLANES TO GFXENGINE. STRIDES ARE PASSED IN BYTES (FFMPEG LINESIZE CONVENTION). WHEN borrow IS SET
+    // AND THE ENGINE BORROWS, THE DECODER'S OWN BUFFERS ARE HANDED OVER (SEE borrowPlanes); OTHERWISE THEY ARE COPIED TO A
+    // POOLED BUFFER SET FIRST, BECAUSE GLENGINE MAY DISPATCH THE UPLOAD TO THE RENDER THREAD ASYNCHRONOUSLY BUT THE AVFRAME
+    // DATA IS RECYCLED BY FRAMEQUEUE.NEXT().
+    private void uploadNativePlanes(final AVFrame frame, final PixelFormat cs, final int width, final int height, final boolean borrow) {
+        final int count;
+        final int chromaH;
+        switch (cs) {
+            case BGRA, RGBA, RGB, GRAY, YUYV, YUYV2 -> { count = 1; chromaH = height; }
+            case NV12, NV21 -> { count = 2; chromaH = (height + 1) / 2; } // ROUND UP — ODD HEIGHTS HAVE AN EXTRA CHROMA ROW
+            case YUV420P, YUV422P, YUV444P -> { count = 3; chromaH = (cs == PixelFormat.YUV420P) ? (height + 1) / 2 : height; }
+            case YUVA420P, YUVA422P, YUVA444P -> { count = 4; chromaH = (cs == PixelFormat.YUVA420P) ? (height + 1) / 2 : height; }
+            default -> {
+                LOGGER.warn(IT, "Unsupported native upload: {}", cs);
+                return;
+            }
+        }
+        // Y AND ALPHA PLANES SPAN THE FULL HEIGHT, CHROMA PLANES THE SUBSAMPLED ONE
+        final int[] strides = new int[count];
+        final long[] sizes = new long[count];
+        for (int i = 0; i < count; i++) {
+            strides[i] = frame.linesize(i);
+            sizes[i] = (long) strides[i] * (i == 0 || i == 3 ? height : chromaH);
+        }
+        if (borrow && this.borrowPlanes(frame, strides, sizes)) return;
+
         // QUERY THE ENGINE'S BUFFER ALIGNMENT ONCE — NON-ZERO ASKS FOR PAGE-ALIGNED POOLS SO A ZERO-COPY ENGINE CAN IMPORT THE HOST POINTER
         if (this.planeAlign < 0) this.planeAlign = (this.gfx != null) ? this.gfx.alignment() : 0;
 
@@ -595,62 +644,53 @@ public final class FFMediaPlayer extends MediaPlayer {
             this.planePool[this.planePoolIdx] = planes;
         }
         this.planePoolIdx = (this.planePoolIdx + 1) % PLANE_POOL_SETS;
-        switch (cs) {
-            case BGRA, RGBA, RGB, GRAY, YUYV, YUYV2 -> {
-                final int yStride = frame.linesize(0);
-                final long ySize = (long) yStride * height;
-                planes[0] = this.ensurePlane(planes[0], ySize);
-                copyPlane(frame.data(0), ySize, planes[0]);
-                this.gfx.upload(new ByteBuffer[]{planes[0]}, new int[]{yStride});
-            }
-            case NV12, NV21 -> {
-                final int yStride = frame.linesize(0);
-                final int uvStride = frame.linesize(1);
-                final long ySize = (long) yStride * height;
-                final long uvSize = (long) uvStride * ((height + 1) / 2); // ROUND UP — ODD HEIGHTS HAVE AN EXTRA CHROMA ROW
-                planes[0] = this.ensurePlane(planes[0], ySize);
-                planes[1] = this.ensurePlane(planes[1], uvSize);
-                copyPlane(frame.data(0), ySize, planes[0]);
-                copyPlane(frame.data(1), uvSize, planes[1]);
-                this.gfx.upload(new ByteBuffer[]{planes[0], planes[1]}, new int[]{yStride, uvStride});
-            }
-            case YUV420P, YUV422P, YUV444P -> {
-                final int chromaH = (cs == PixelFormat.YUV420P) ? (height + 1) / 2 : height;
-                final int yStride = frame.linesize(0);
-                final int uStride = frame.linesize(1);
-                final int vStride = frame.linesize(2);
-                final long ySize = (long) yStride * height;
-                final long uSize = (long) uStride * chromaH;
-                final long vSize = (long) vStride * chromaH;
-                planes[0] = this.ensurePlane(planes[0], ySize);
-                planes[1] = this.ensurePlane(planes[1], uSize);
-                planes[2] = this.ensurePlane(planes[2], vSize);
-                copyPlane(frame.data(0), ySize, planes[0]);
-                copyPlane(frame.data(1), uSize, planes[1]);
-                copyPlane(frame.data(2), vSize, planes[2]);
-                this.gfx.upload(new ByteBuffer[]{planes[0], planes[1], planes[2]}, new int[]{yStride, uStride, vStride});
-            }
-            case YUVA420P, YUVA422P, YUVA444P -> {
-                final int chromaH = (cs == PixelFormat.YUVA420P) ? (height + 1) / 2 : height;
-                final int yStride = frame.linesize(0);
-                final int uStride = frame.linesize(1);
-                final int vStride = frame.linesize(2);
-                final int aStride = frame.linesize(3);
-                final long ySize = (long) yStride * height;
-                final long uSize = (long) uStride * chromaH;
-                final long vSize = (long) vStride * chromaH;
-                final long aSize = (long) aStride * height;
-                planes[0] = this.ensurePlane(planes[0], ySize);
-                planes[1] = this.ensurePlane(planes[1], uSize);
-                planes[2] = this.ensurePlane(planes[2], vSize);
-                planes[3] = this.ensurePlane(planes[3], aSize);
-                copyPlane(frame.data(0), ySize, planes[0]);
-                copyPlane(frame.data(1), uSize, planes[1]);
-                copyPlane(frame.data(2), vSize, planes[2]);
-                copyPlane(frame.data(3), aSize, planes[3]);
-                this.gfx.upload(new ByteBuffer[]{planes[0], planes[1], planes[2], planes[3]}, new int[]{yStride, uStride, vStride, aStride});
-            }
-            default -> LOGGER.warn(IT, "Unsupported native upload: {}", cs);
+        final ByteBuffer[] bufs = new ByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            planes[i] = this.ensurePlane(planes[i], sizes[i]);
+            copyPlane(frame.data(i), sizes[i], planes[i]);
+            bufs[i] = planes[i];
+        }
+        this.gfx.upload(bufs, strides);
+    }
+
+    // ZERO-COPY HANDOFF: A NEW REFERENCE TO THE FRAME KEEPS ITS BUFFERS ALIVE AFTER FRAMEQUEUE.NEXT() UNREFS THE SLOT, AND THE
+    // ENGINE FREES THAT REFERENCE (RETURNING THE BUFFERS TO THE DECODER POOL) ONCE IT STOPPED READING. RETURNS FALSE WHEN THE
+    // FRAME CAN'T BE BORROWED (BOTTOM-UP OR OVERSIZED PLANES, REF FAILURE) SO THE CALLER COPIES INSTEAD.
+    private boolean borrowPlanes(final AVFrame frame, final int[] strides, final long[] sizes) {
+        for (int i = 0; i < strides.length; i++) {
+            if (strides[i] <= 0 || sizes[i] > Integer.MAX_VALUE || Pointer.isNull(frame.data(i))) return false;
+        }
+        final AVFrame ref = av_frame_alloc();
+        if (ref == null) return false;
+        if (av_frame_ref(ref, frame) < 0) {
+            av_frame_free(ref);
+            return false;
+        }
+        final ByteBuffer[] views = new ByteBuffer[strides.length];
+        for (int i = 0; i < views.length; i++) {
+            final BytePointer data = ref.data(i);
+            views[i] = MemoryUtil.memByteBuffer(data.address() + data.position(), (int) sizes[i]);
+        }
+        final BorrowedFrame release = new BorrowedFrame(ref);
+        try {
+            this.gfx.upload(views, strides, release);
+        } catch (final RuntimeException e) {
+            release.run();
+            throw e;
+        }
+        return true;
+    }
+
+    // ONE BORROWED FRAME REFERENCE. ENGINES RUN IT ONCE FROM ANY THREAD; THE SWAP MAKES A SECOND RUN HARMLESS
+    private static final class BorrowedFrame extends AtomicReference<AVFrame> implements Runnable {
+        BorrowedFrame(final AVFrame frame) {
+            super(frame);
+        }
+
+        @Override
+        public void run() {
+            final AVFrame frame = this.getAndSet(null);
+            if (frame != null) av_frame_free(frame);
         }
     }
 
@@ -804,6 +844,7 @@ public final class FFMediaPlayer extends MediaPlayer {
             this.clock.transition(Status.LOADING);
             this.totalSkippedFrames = 0;
             this.totalRenderedFrames = 0;
+            this.governedDrops = 0;
             // STARVATION DETECTION
             long starvationStartMs = 0;
             long lastStarvationRecoveryMs = 0;
@@ -816,11 +857,20 @@ public final class FFMediaPlayer extends MediaPlayer {
             this.hlsLiveSource = null;
             this.opened = false;
             this.mediaDurationMs = NO_DURATION;
-
-            this.videoPacketQueue = new PacketQueue(VIDEO_PACKET_QUEUE_BYTES);
-            this.audioPacketQueue = new PacketQueue(AUDIO_PACKET_QUEUE_BYTES);
-            this.videoFrameQueue = new FrameQueue(VIDEO_FRAME_QUEUE_SLOTS);
-            this.audioFrameQueue = new FrameQueue(AUDIO_FRAME_QUEUE_SLOTS);
+            this.sharedDecode = WaterMediaConfig.media.ffmpeg.sharedDecodePool;
+
+            // EVERY QUEUE HAS EXACTLY ONE PRODUCER (DEMUX OR A DECODE THREAD) AND ONE CONSUMER (A DECODE OR THE LIFECYCLE THREAD)
+            if (WaterMediaConfig.media.ffmpeg.lockFreeQueues) {
+                this.videoPacketQueue = PacketQueue.spsc(VIDEO_PACKET_QUEUE_BYTES, VIDEO_PACKET_QUEUE_ENTRIES);
+                this.audioPacketQueue = PacketQueue.spsc(AUDIO_PACKET_QUEUE_BYTES, AUDIO_PACKET_QUEUE_ENTRIES);
+                this.videoFrameQueue = FrameQueue.spsc(VIDEO_FRAME_QUEUE_SLOTS);
+                this.audioFrameQueue = FrameQueue.spsc(AUDIO_FRAME_QUEUE_SLOTS);
+            } else {
+                this.videoPacketQueue = PacketQueue.locking(VIDEO_PACKET_QUEUE_BYTES);
+                this.audioPacketQueue = PacketQueue.locking(AUDIO_PACKET_QUEUE_BYTES);
+                this.videoFrameQueue = FrameQueue.locking(VIDEO_FRAME_QUEUE_SLOTS);
+                this.audioFrameQueue = FrameQueue.locking(AUDIO_FRAME_QUEUE_SLOTS);
+            }
 
             this.demuxThread = this.factory.apply("demux", this::demuxLoop);
             this.demuxThread.setDaemon(true);
@@ -832,17 +882,15 @@ public final class FFMediaPlayer extends MediaPlayer {
                 return;
             }
 
-            if (this.gfx != null && this.videoStreamIndex >= 0 && this.videoCodecContext != null) {
-                this.videoDecodeThread = this.factory.apply("video", this::videoDecodeLoop);
-                this.videoDecodeThread.setDaemon(true);
-                this.videoDecodeThread.start();
-            }
-            if (this.sfx != null && this.audioStreamIndex >= 0 && this.audioCodecContext != null) {
-                this.audioDecodeThread = this.factory.apply("audio", this::audioDecodeLoop);
-                this.audioDecodeThread.setDaemon(true);
-                this.audioDecodeThread.start();
+            // ONLY VIDEO IS GOVERNED. WITHOUT AUDIO THE VIDEO DRIVES THE CLOCK, AND PAUSING ITS DECODE WOULD
+            // STARVE PLAYBACK INTO BUFFERING — SUCH PLAYERS STOP AT KEYFRAMES ONLY
+            if (this.gfx != null && this.videoStreamIndex >= 0) {
+                this.openDecodeTicket(this.sfx != null && this.audioStreamIndex >= 0
+                        ? DecodeGovernor.Level.PAUSED : DecodeGovernor.Level.KEYFRAMES);
             }
 
+            this.ensureDecodeThreads();
+
             // CONSUMPTION LOOP
             while (!Thread.currentThread().isInterrupted()) {
                 final Status current = this.clock.status();
@@ -855,8 +903,8 @@ public final class FFMediaPlayer extends MediaPlayer {
                 }
 
                 if (this.clock.isDemuxFinished()) {
-                    final boolean vDone = this.videoDecodeThread == null || !this.videoDecodeThread.isAlive();
-                    final boolean aDone = this.audioDecodeThread == null || !this.audioDecodeThread.isAlive();
+                    final boolean vDone = !decoding(this.videoDecodeThread, this.videoDecodeTask);
+                    final boolean aDone = !decoding(this.audioDecodeThread, this.audioDecodeTask);
                     final boolean vEmpty = this.videoFrameQueue == null || this.videoFrameQueue.isEmpty();
                     final boolean aEmpty = this.audioFrameQueue == null || this.audioFrameQueue.isEmpty();
                     if (vDone && aDone && vEmpty && aEmpty) {
@@ -865,7 +913,8 @@ public final class FFMediaPlayer extends MediaPlayer {
                         // AV1 STREAM THE SELECTED DECODER CANNOT HANDLE. REPORTING ENDED THERE
                         // LOOKS LIKE AN INSTANT 0-LENGTH PLAYBACK; SURFACE ERROR INSTEAD SO THE
                         // FAILURE IS VISIBLE AND NOT RETRIED FOREVER BY repeat().
-                        if (this.videoStreamIndex >= 0 && this.totalRenderedFrames == 0 && this.totalSkippedFrames == 0) {
+                        if (this.videoStreamIndex >= 0 && this.totalRenderedFrames == 0 && this.totalSkippedFrames == 0
+                                && this.governedDrops == 0) {
                             LOGGER.error(IT, "Video decoder emitted no frames for {} — failing instead of reporting ENDED", this.source.uri(this.quality));
                             this.publishTransition(Status.ERROR);
                             break;
@@ -1049,10 +1098,16 @@ public final class FFMediaPlayer extends MediaPlayer {
                                     mapping.cs, uploadW, uploadH, mapping.bits, slot.width, slot.height);
                         }
 
-                        this.uploadNativePlanes(uploadFrame, mapping.cs, uploadW, uploadH);
+                        // ONLY DECODER FRAMES ARE BORROWED — scaledFrame IS REWRITTEN IN PLACE BY THE NEXT sws_scale
+                        this.uploadNativePlanes(uploadFrame, mapping.cs, uploadW, uploadH,
+                                uploadFrame == slot.frame && WaterMediaConfig.media.ffmpeg.zeroCopy && this.gfx.borrows());
 
                         // TRACK RENDER DEBT (CONVERT+UPLOAD TIME VS FRAME BUDGET)
-                        final double workSec = (System.nanoTime() - workStart) / 1_000_000_000.0;
+                        final long workNs = System.nanoTime() - workStart;
+                        final double workSec = workNs / 1_000_000_000.0;
+                        // CONVERSION COUNTS AGAINST THE DECODE BUDGET TOO — IT IS WHAT REDUCED_FPS SAVES
+                        final DecodeGovernor.Ticket ticket = this.decodeTicket();
+                        if (ticket != null) ticket.report(workNs);
                         if (workSec > frameDurSec) {
                             this.renderDebtSec += (workSec - frameDurSec);
                         } else {
@@ -1078,6 +1133,12 @@ public final class FFMediaPlayer extends MediaPlayer {
                 // AUDIO AGAIN AFTER VIDEO (REFILL WHAT THE ENGINE CONSUMED DURING VIDEO UPLOAD)
                 didWork |= this.drainAudio(current);
 
+                // CONSUMED FRAMES FREE QUEUE SLOTS — RESUME POOLED DECODERS THAT PARKED ON A FULL QUEUE
+                if (didWork) {
+                    wake(this.videoDecodeTask);
+                    wake(this.audioDecodeTask);
+                }
+
                 // PERFORMANCE MONITOR
                 final long audioMs = (afterAudio - iterStart) / 1_000_000;
                 final long videoMs = (afterVideo - afterAudio) / 1_000_000;
@@ -1172,6 +1233,7 @@ public final class FFMediaPlayer extends MediaPlayer {
             this.stopThreads();
             this.publishTransition(Status.ERROR);
         } finally {
+            this.closeDecodeTicket();
             this.freeQueues();
             this.cleanup();
         }
@@ -1244,7 +1306,11 @@ public final class FFMediaPlayer extends MediaPlayer {
                     final int seekFlags = avformat.AVSEEK_FLAG_BACKWARD;
                     boolean reopened = false;
 
-                    int seekResult = avformat.av_seek_frame(this.formatContext, -1, ffTs, seekFlags);
+                    // THE KEYFRAME INDEX NAMES THE EXACT KEYFRAME TO DECODE FROM; THE DEMUXER'S OWN SEEK IS THE FALLBACK
+                    int seekResult = this.seekKeyframe(targetMs);
+                    if (seekResult < 0) {
+                        seekResult = avformat.av_seek_frame(this.formatContext, -1, ffTs, seekFlags);
+                    }
                     if (seekResult < 0) {
                         seekResult = avformat.avformat_seek_file(this.formatContext, -1, Long.MIN_VALUE, ffTs, ffTs, seekFlags);
                     }
@@ -1270,12 +1336,15 @@ public final class FFMediaPlayer extends MediaPlayer {
                         }
                         LOGGER.info(IT, "Seek to {}ms failed — reopened format from beginning", targetMs);
                         reopened = true;
+                        this.seedDemuxerIndex();
                         seekResult = 0;
                         if (targetMs > 0) {
                             seekResult = avformat.av_seek_frame(this.formatContext, -1, ffTs, 0);
                             if (seekResult < 0) seekResult = avformat.avformat_seek_file(this.formatContext, -1, Long.MIN_VALUE, ffTs, ffTs, 0);
                         }
                     }
+                    // WHEREVER THE INPUT LANDED, THE NEXT PACKETS NO LONGER FOLLOW THE ONES THE INDEX SAW LAST
+                    if (this.keyframes != null) this.keyframes.seeked(reopened && (targetMs == 0 || seekResult < 0));
                     if (seekResult < 0) {
                         LOGGER.info(IT, "Seek to {}ms not honored by reopened input — resuming from the beginning", targetMs);
                         this.ensureDecodeThreads();
@@ -1318,6 +1387,7 @@ public final class FFMediaPlayer extends MediaPlayer {
                             try {
                                 if (slavePacket.stream_index() == this.audioStreamIndex && this.sfx != null) {
                                     if (!this.audioPacketQueue.put(slavePacket)) break;
+                                    wake(this.audioDecodeTask);
                                     demuxAudioPackets++;
                                 }
                             } finally {
@@ -1339,6 +1409,8 @@ public final class FFMediaPlayer extends MediaPlayer {
                         mainEof = true;
                         LOGGER.info(IT, "Main context EOF after {} video packets (R: {}, S: {})",
                                 demuxVideoPackets, this.totalRenderedFrames, this.totalSkippedFrames);
+                        // ONLY A REAL END COMPLETES THE INDEX — A READ ERROR LEAVES THE REST OF THE STREAM UNSEEN
+                        if (result == AVERROR_EOF && this.keyframes != null) this.keyframes.finish();
                         if (this.videoPacketQueue != null) this.videoPacketQueue.finish();
                         // FOR NON-SLAVE AUDIO, AUDIO PACKETS COME FROM THE SAME FORMAT
                         // CONTEXT — FINISH THE AUDIO QUEUE SO DECODE THREADS DRAIN CLEANLY.
@@ -1378,6 +1450,7 @@ public final class FFMediaPlayer extends MediaPlayer {
                 try {
                     final int streamIndex = packet.stream_index();
                     if (streamIndex == this.videoStreamIndex && this.gfx != null) {
+                        this.indexKeyframe(packet);
                         while (!this.videoPacketQueue.tryPut(packet)) {
                             if (Thread.currentThread().isInterrupted() || this.clock.hasSeekPending()) break;
                             if (this.useAudioSlave && this.slaveFormatContext != null && slavePacket != null) {
@@ -1386,6 +1459,7 @@ public final class FFMediaPlayer extends MediaPlayer {
                                     try {
                                         if (slavePacket.stream_index() == this.audioStreamIndex && this.sfx != null) {
                                             this.audioPacketQueue.put(slavePacket);
+                                            wake(this.audioDecodeTask);
                                             demuxAudioPackets++;
                                         }
                                     } finally {
@@ -1395,10 +1469,12 @@ public final class FFMediaPlayer extends MediaPlayer {
                             }
                             Thread.sleep(1);
                         }
+                        wake(this.videoDecodeTask);
                         demuxVideoPackets++;
                     } else if (!this.useAudioSlave
                             && streamIndex == this.audioStreamIndex && this.sfx != null) {
                         if (!this.audioPacketQueue.put(packet)) break;
+                        wake(this.audioDecodeTask);
                         demuxAudioPackets++;
                     }
                 } finally {
@@ -1413,261 +1489,421 @@ public final class FFMediaPlayer extends MediaPlayer {
 
             if (this.videoPacketQueue != null) this.videoPacketQueue.finish();
             if (this.audioPacketQueue != null) this.audioPacketQueue.finish();
+            this.storeKeyframeIndex();
 
             avcodec.av_packet_free(packet);
             if (slavePacket != null) avcodec.av_packet_free(slavePacket);
         }
     }
 
-    // VIDEO DECODE THREAD
+    // DECODE THREADS — ONE PER DECODER, UNLESS THE DECODERS RUN AS TASKS ON THE SHARED DecodeScheduler
     private void videoDecodeLoop() {
-        final AVFrame tempFrame = avutil.av_frame_alloc();
-        final AVFrame hwTransfer = (this.hwDeviceCtx != null) ? avutil.av_frame_alloc() : null;
-        final int[] serialOut = new int[1];
-        int lastSerial = -1;
-        long packetsProcessed = 0;
-        long framesProduced = 0;
+        runDecoder(new VideoDecoder());
+    }
 
-        // HW DECODE HEALTH TRACKING (SEE HW_TRANSFER_* CONSTANTS)
-        int hwFailStreak = 0;
-        long hwTransferNs = 0;
-        int hwTransferCount = 0;
-        boolean hwGaveUp = false;
+    private void audioDecodeLoop() {
+        runDecoder(new AudioDecoder());
+    }
 
+    private static void runDecoder(final Decoder decoder) {
         try {
             while (!Thread.currentThread().isInterrupted()) {
-                final AVPacket packet = this.videoPacketQueue.get(serialOut);
+                if (decoder.step(true) == DecodeScheduler.Step.DONE) break;
+            }
+        } finally {
+            decoder.close();
+        }
+    }
+
+    // ONE DECODER AS A RESUMABLE STATE MACHINE: SEND A PACKET, THEN HAND EVERY FRAME IT YIELDS TO THE
+    // FRAME QUEUE BEFORE TAKING THE NEXT PACKET. ON ITS OWN THREAD step(true) BLOCKS ON THE QUEUES; ON THE
+    // SHARED POOL step(false) RETURNS IDLE WHERE IT WOULD BLOCK AND RESUMES FROM THE SAME SPOT — A DECODED
+    // FRAME THE FRAME QUEUE HAD NO ROOM FOR STAYS PENDING IN tempFrame UNTIL THE NEXT CALL.
+    private abstract class Decoder implements DecodeScheduler.Work {
+        final AVFrame tempFrame = avutil.av_frame_alloc();
+        final int[] serialOut = new int[1];
+        final PacketQueue packets;
+        final FrameQueue frames;
+        int lastSerial = -1;
+        int packetSerial;
+        long packetsProcessed;
+        long framesProduced;
+        boolean receiving; // A PACKET WAS SENT — ITS FRAMES ARE STILL COMING OUT
+        boolean draining;  // THE null FLUSH PACKET WAS SENT — DONE ONCE THE LAST FRAME IS OUT
 
-                // A null PACKET MEANS THE QUEUE IS DONE: A CLEAN EOF (DRAIN THE DECODER'S
-                // BUFFERED BACKLOG WITH A null FLUSH PACKET) OR AN abort() FROM stop()/seek()
-                // (THE BACKLOG IS STALE — JUST EXIT). DELAYED/THREADED DECODERS (libdav1d,
-                // THE NATIVE av1 DECODER) HOLD A REORDER WINDOW THAT ONLY COMES OUT ON FLUSH;
-                // WITHOUT THIS THE TAIL IS LOST, AND A DECODER THAT BUFFERS THE WHOLE STREAM
-                // EMITS NOTHING AT ALL — ENDING PLAYBACK WITH ZERO RENDERED FRAMES.
-                final boolean eof = packet == null;
-                if (eof && (lastSerial < 0 || !this.videoPacketQueue.endOfFile())) break;
+        Decoder(final PacketQueue packets, final FrameQueue frames) {
+            this.packets = packets;
+            this.frames = frames;
+        }
 
-                final int packetSerial = eof ? lastSerial : serialOut[0];
+        abstract AVCodecContext codec();
 
-                try {
-                    if (!eof && packetSerial != lastSerial) {
-                        if (lastSerial >= 0) avcodec.avcodec_flush_buffers(this.videoCodecContext);
-                        lastSerial = packetSerial;
-                        this.lastRawVideoPts = Double.NaN;
-                        this.videoPtsOffset = 0;
-                    }
+        // A NEW SERIAL (SEEK OR REPEAT): DROP WHATEVER THE DECODER BUFFERED FOR THE OLD POSITION
+        abstract void restart(boolean flush);
 
-                    if (!eof && packetSerial != this.videoPacketQueue.serial()) continue;
+        // CONSUMES THE FRAME JUST RECEIVED INTO tempFrame, LEAVING IT PENDING FOR emit() UNLESS IT IS DROPPED
+        abstract void decoded();
 
-                    // A null PACKET PUTS THE DECODER INTO DRAIN MODE; A REAL send FAILURE
-                    // SKIPS ONLY THAT PACKET.
-                    if (avcodec.avcodec_send_packet(this.videoCodecContext, packet) < 0 && !eof) continue;
+        // QUEUES THE PENDING OUTPUT; FALSE WHEN THE FRAME QUEUE HAS NO ROOM (OR WAS ABORTED) AND IT STAYS PENDING
+        abstract boolean emit(boolean blocking);
 
-                    while (avcodec.avcodec_receive_frame(this.videoCodecContext, tempFrame) >= 0) {
-                        AVFrame frameToQueue = tempFrame;
+        abstract String kind();
 
-                        if (!hwGaveUp && hwTransfer != null && tempFrame.format() == this.hwPixelFormat) {
-                            final long transferStart = System.nanoTime();
-                            if (av_hwframe_transfer_data(hwTransfer, tempFrame, 0) < 0) {
-                                if (hwFailStreak++ == 0) LOGGER.warn(IT, "Failed to transfer frame from GPU");
-                                if (hwFailStreak >= HW_TRANSFER_FAIL_LIMIT) {
-                                    LOGGER.error(IT, "GPU frame transfer failed {} times in a row — falling back to software decoding", hwFailStreak);
-                                    hwGaveUp = this.reinitVideoCodecSoftware();
-                                    hwFailStreak = 0;
-                                }
-                                continue;
-                            }
-                            hwFailStreak = 0;
-                            frameToQueue = hwTransfer;
-
-                            // SOME DRIVERS (NOTABLY AMD D3D11VA) DECODE FINE BUT STALL ON
-                            // THE GPU→CPU COPY — IF THE TRANSFER ALONE EATS THE FRAME
-                            // BUDGET, SOFTWARE DECODING IS FASTER. EVALUATE PERIODICALLY.
-                            hwTransferNs += System.nanoTime() - transferStart;
-                            if (++hwTransferCount >= HW_TRANSFER_PERF_WINDOW) {
-                                final double avgSec = hwTransferNs / 1_000_000_000.0 / hwTransferCount;
-                                if (avgSec > this.clock.frameDurationSec() * HW_TRANSFER_BUDGET_RATIO) {
-                                    LOGGER.warn(IT, "GPU frame transfer too slow (avg {}ms vs {}ms frame budget) — falling back to software decoding",
-                                            String.format("%.1f", avgSec * 1000.0), this.clock.frameDurationMs());
-                                    hwGaveUp = this.reinitVideoCodecSoftware();
-                                }
-                                hwTransferNs = 0;
-                                hwTransferCount = 0;
-                            }
-                        }
+        // FALSE DROPS THE PACKET UNDECODED
+        boolean admit(final AVPacket packet) {
+            return true;
+        }
 
-                        // PREFER BEST-EFFORT TIMESTAMPS; SYNTHESIZE FROM THE PREVIOUS FRAME
-                        // WHEN MISSING. A RAW AV_NOPTS_VALUE WOULD PRODUCE AN ASTRONOMICAL
-                        // PTS THAT LATCHES A GARBAGE DISCONTINUITY OFFSET AND WRECKS THE CLOCK.
-                        long rawPts = tempFrame.best_effort_timestamp();
-                        if (rawPts == avutil.AV_NOPTS_VALUE) rawPts = tempFrame.pts();
-                        final double rawPtsSec;
-                        if (rawPts == avutil.AV_NOPTS_VALUE) {
-                            rawPtsSec = Double.isNaN(this.lastRawVideoPts)
-                                    ? 0.0 : this.lastRawVideoPts + this.clock.frameDurationSec();
-                        } else {
-                            rawPtsSec = rawPts * this.videoTimeBase;
-                        }
+        // DECODE TIME OF ONE send/receive CALL, FRAME HANDLING INCLUDED
+        void spent(final long nanos) {
+        }
 
-                        // PTS DISCONTINUITY DETECTION (HLS AD STITCHING)
-                        if (!Double.isNaN(this.lastRawVideoPts)) {
-                            final double jump = rawPtsSec - this.lastRawVideoPts;
-                            if (Math.abs(jump) > PTS_DISCONTINUITY_THRESHOLD) {
-                                final double expected = this.lastRawVideoPts + this.videoPtsOffset + this.clock.frameDurationSec();
-                                this.videoPtsOffset = expected - rawPtsSec;
-                                LOGGER.info(IT, "Video PTS discontinuity: jump={}s, new offset={}s", String.format("%.1f", jump), String.format("%.1f", this.videoPtsOffset));
-                            }
-                        }
-                        this.lastRawVideoPts = rawPtsSec;
+        @Override
+        public DecodeScheduler.Step step() {
+            return this.step(false);
+        }
 
-                        final double ptsSec = rawPtsSec + this.videoPtsOffset;
-                        final long ptsMs = (long) (ptsSec * 1000.0);
+        DecodeScheduler.Step step(final boolean blocking) {
+            if (this.receiving) {
+                while (true) {
+                    // ON A THREAD A FAILED emit IS AN abort() — THE BACKLOG IS STALE, JUST EXIT
+                    if (!this.emit(blocking)) return blocking ? DecodeScheduler.Step.DONE : DecodeScheduler.Step.IDLE;
+                    final long start = System.nanoTime();
+                    final boolean received = avcodec.avcodec_receive_frame(this.codec(), this.tempFrame) >= 0;
+                    if (received) this.decoded();
+                    this.spent(System.nanoTime() - start);
+                    if (!received) break;
+                }
+                this.receiving = false;
+                this.packetsProcessed++;
+                if (this.draining) return DecodeScheduler.Step.DONE; // DECODER FULLY DRAINED — NOTHING MORE TO PRODUCE
+            }
 
-                        final FrameQueue.Slot slot = this.videoFrameQueue.peekWritable();
-                        if (slot == null) break;
+            // endOfFile() IS READ BEFORE THE POLL: finish() FOLLOWS THE LAST PUT, SO AN EMPTY POLL AFTER IT IS THE END
+            final boolean finished = this.packets.endOfFile();
+            final AVPacket packet = blocking ? this.packets.get(this.serialOut) : this.packets.poll(this.serialOut);
+            if (packet == null && !blocking && !finished) return DecodeScheduler.Step.IDLE;
 
-                        av_frame_unref(slot.frame);
-                        av_frame_move_ref(slot.frame, frameToQueue);
-                        slot.ptsMs = ptsMs;
-                        slot.durationMs = this.clock.frameDurationMs();
-                        slot.serial = packetSerial;
-                        slot.width = slot.frame.width();
-                        slot.height = slot.frame.height();
-                        slot.format = slot.frame.format();
-
-                        this.videoFrameQueue.push();
-                        framesProduced++;
-                    }
+            // A null PACKET MEANS THE QUEUE IS DONE: A CLEAN EOF (DRAIN THE DECODER'S
+            // BUFFERED BACKLOG WITH A null FLUSH PACKET) OR AN abort() FROM stop()/seek()
+            // (THE BACKLOG IS STALE — JUST EXIT). DELAYED/THREADED DECODERS (libdav1d,
+            // THE NATIVE av1 DECODER) HOLD A REORDER WINDOW THAT ONLY COMES OUT ON FLUSH;
+            // WITHOUT THIS THE TAIL IS LOST, AND A DECODER THAT BUFFERS THE WHOLE STREAM
+            // EMITS NOTHING AT ALL — ENDING PLAYBACK WITH ZERO RENDERED FRAMES.
+            final boolean eof = packet == null;
+            if (eof && (this.lastSerial < 0 || !this.packets.endOfFile())) return DecodeScheduler.Step.DONE;
 
-                    packetsProcessed++;
-                } finally {
-                    if (packet != null) avcodec.av_packet_free(packet);
+            try {
+                this.packetSerial = eof ? this.lastSerial : this.serialOut[0];
+                if (!eof && this.packetSerial != this.lastSerial) {
+                    this.restart(this.lastSerial >= 0);
+                    this.lastSerial = this.packetSerial;
                 }
 
-                if (eof) break; // DECODER FULLY DRAINED — NOTHING MORE TO PRODUCE
+                if (!eof && this.packetSerial != this.packets.serial()) return DecodeScheduler.Step.PROGRESS;
+                if (!eof && !this.admit(packet)) return DecodeScheduler.Step.PROGRESS;
+
+                // A null PACKET PUTS THE DECODER INTO DRAIN MODE; A REAL send FAILURE
+                // SKIPS ONLY THAT PACKET.
+                final long start = System.nanoTime();
+                final int sent = avcodec.avcodec_send_packet(this.codec(), packet);
+                this.spent(System.nanoTime() - start);
+                if (sent < 0 && !eof) return DecodeScheduler.Step.PROGRESS;
+            } finally {
+                if (packet != null) avcodec.av_packet_free(packet);
             }
-        } finally {
-            LOGGER.info(IT, "Video decode exiting — packets: {}, frames produced: {}, interrupted: {}",
-                    packetsProcessed, framesProduced, Thread.currentThread().isInterrupted());
-            // RESET THE CODEC FOR THE NEXT RUN. AT A CLEAN EOF THIS THREAD DRAINS THE DECODER
-            // (null FLUSH PACKET ABOVE), LEAVING IT IN DRAINED/EOF STATE THAT REJECTS NEW PACKETS.
-            // A repeat() RESTARTS THIS THREAD WITH lastSerial=-1, WHICH SKIPS THE PER-SEEK FLUSH —
-            // WITHOUT FLUSHING HERE THE DECODER WOULD STAY DRAINED AND EMIT ZERO FRAMES ON REPEAT,
-            // TRIPPING THE ZERO-FRAME → ERROR CHECK AND FREEZING VIDEO.
-            if (this.videoCodecContext != null) avcodec.avcodec_flush_buffers(this.videoCodecContext);
-            avutil.av_frame_free(tempFrame);
-            if (hwTransfer != null) avutil.av_frame_free(hwTransfer);
+            this.receiving = true;
+            this.draining = eof;
+            return DecodeScheduler.Step.PROGRESS;
         }
-    }
 
-    // AUDIO DECODE THREAD
-    private void audioDecodeLoop() {
-        final AVFrame tempFrame = avutil.av_frame_alloc();
-        final int[] serialOut = new int[1];
-        int lastSerial = -1;
-        long packetsProcessed = 0;
-        long framesProduced = 0;
+        @Override
+        public void close() {
+            LOGGER.info(IT, "{} decode exiting — packets: {}, frames produced: {}, interrupted: {}",
+                    this.kind(), this.packetsProcessed, this.framesProduced, Thread.currentThread().isInterrupted());
+            // RESET THE CODEC FOR THE NEXT RUN. AT A CLEAN EOF THE DECODER IS DRAINED (null FLUSH
+            // PACKET ABOVE), LEAVING IT IN DRAINED/EOF STATE THAT REJECTS NEW PACKETS. A repeat()
+            // STARTS A FRESH DECODER WITH lastSerial=-1, WHICH SKIPS THE PER-SEEK FLUSH — WITHOUT
+            // FLUSHING HERE THE DECODER WOULD STAY DRAINED AND EMIT ZERO FRAMES ON REPEAT,
+            // TRIPPING THE ZERO-FRAME → ERROR CHECK AND FREEZING VIDEO. AUDIO RARELY BUFFERS,
+            // BUT IT KEEPS THE INVARIANT.
+            final AVCodecContext codec = this.codec();
+            if (codec != null) avcodec.avcodec_flush_buffers(codec);
+            avutil.av_frame_free(this.tempFrame);
+        }
 
-        try {
-            while (!Thread.currentThread().isInterrupted()) {
-                final AVPacket packet = this.audioPacketQueue.get(serialOut);
+        final FrameQueue.Slot writable(final boolean blocking) {
+            return blocking ? this.frames.peekWritable() : this.frames.tryPeekWritable();
+        }
+    }
 
-                // SEE videoDecodeLoop: a null PACKET IS A CLEAN EOF (FLUSH THE DECODER'S
-                // BUFFERED BACKLOG) OR AN abort() TEARDOWN (DROP IT).
-                final boolean eof = packet == null;
-                if (eof && (lastSerial < 0 || !this.audioPacketQueue.endOfFile())) break;
+    private final class VideoDecoder extends Decoder {
+        final AVFrame hwTransfer = FFMediaPlayer.this.hwDeviceCtx != null ? avutil.av_frame_alloc() : null;
+        AVFrame pending; // tempFrame OR hwTransfer, HOLDING A FRAME THAT STILL HAS TO BE QUEUED
+        long pendingPtsMs;
+        // HW DECODE HEALTH TRACKING (SEE HW_TRANSFER_* CONSTANTS)
+        int hwFailStreak;
+        long hwTransferNs;
+        int hwTransferCount;
+        boolean hwGaveUp;
+        // DecodeGovernor LEVEL AS APPLIED TO THE CODEC — A SOFTWARE FALLBACK SWAPS THE CONTEXT, SO IT IS KEPT TOO
+        DecodeGovernor.Level governed = DecodeGovernor.Level.FULL;
+        AVCodecContext governedCodec;
+        boolean awaitKeyframe; // PACKETS WERE DROPPED UNDECODED — THE NEXT ONE DECODED MUST BE A KEYFRAME
+        boolean gap;           // THE NEXT FRAME FOLLOWS A GAP WE MADE, NOT ONE IN THE STREAM
+        int parity;            // REDUCED_FPS KEEPS EVEN FRAMES
+
+        VideoDecoder() {
+            super(FFMediaPlayer.this.videoPacketQueue, FFMediaPlayer.this.videoFrameQueue);
+        }
+
+        @Override
+        AVCodecContext codec() { return FFMediaPlayer.this.videoCodecContext; }
+
+        @Override
+        String kind() { return "Video"; }
+
+        @Override
+        void restart(final boolean flush) {
+            if (flush) avcodec.avcodec_flush_buffers(this.codec());
+            FFMediaPlayer.this.lastRawVideoPts = Double.NaN;
+            FFMediaPlayer.this.videoPtsOffset = 0;
+        }
+
+        // APPLIES THE GOVERNOR LEVEL: SKIPPED FRAMES ARE DISCARDED INSIDE THE DECODER (skip_frame), A PAUSED
+        // DECODE DROPS WHOLE PACKETS, AND RESUMING WAITS FOR A KEYFRAME SO NO FRAME REFERENCES A DROPPED ONE
+        @Override
+        boolean admit(final AVPacket packet) {
+            final DecodeGovernor.Ticket ticket = FFMediaPlayer.this.decodeTicket();
+            final DecodeGovernor.Level level = ticket != null ? ticket.level() : DecodeGovernor.Level.FULL;
+            final AVCodecContext codec = this.codec();
+            if (level != this.governed || codec != this.governedCodec) {
+                codec.skip_frame(switch (level) {
+                    case SKIP_NONREF -> AVDISCARD_NONREF;
+                    case KEYFRAMES, PAUSED -> AVDISCARD_NONKEY;
+                    default -> AVDISCARD_DEFAULT;
+                });
+                this.governed = level;
+                this.governedCodec = codec;
+            }
+            if (level == DecodeGovernor.Level.PAUSED) {
+                this.awaitKeyframe = true;
+                FFMediaPlayer.this.governedDrops++;
+                return false;
+            }
+            if (this.awaitKeyframe) {
+                if ((packet.flags() & AV_PKT_FLAG_KEY) == 0) {
+                    FFMediaPlayer.this.governedDrops++;
+                    return false;
+                }
+                avcodec.avcodec_flush_buffers(codec);
+                this.awaitKeyframe = false;
+                this.gap = true;
+            }
+            return true;
+        }
 
-                final int packetSerial = eof ? lastSerial : serialOut[0];
+        @Override
+        void spent(final long nanos) {
+            final DecodeGovernor.Ticket ticket = FFMediaPlayer.this.decodeTicket();
+            if (ticket != null) ticket.report(nanos);
+        }
 
-                try {
-                    if (!eof && packetSerial != lastSerial) {
-                        if (lastSerial >= 0) {
-                            avcodec.avcodec_flush_buffers(this.audioCodecContext);
-                            // DROP SAMPLES BUFFERED INSIDE THE RESAMPLER — THEY BELONG
-                            // TO THE PRE-SEEK POSITION AND WOULD LEAK INTO POST-SEEK AUDIO
-                            if (!this.audioPassthrough && this.swrContext != null) {
-                                swresample.swr_close(this.swrContext);
-                                swresample.swr_init(this.swrContext);
-                            }
-                        }
-                        lastSerial = packetSerial;
-                        this.lastRawAudioPts = Double.NaN;
-                        this.audioPtsOffset = 0;
-                        this.audioNextPtsSec = Double.NaN;
+        @Override
+        void decoded() {
+            final FFMediaPlayer player = FFMediaPlayer.this;
+            AVFrame frameToQueue = this.tempFrame;
+
+            if (!this.hwGaveUp && this.hwTransfer != null && this.tempFrame.format() == player.hwPixelFormat) {
+                final long transferStart = System.nanoTime();
+                if (av_hwframe_transfer_data(this.hwTransfer, this.tempFrame, 0) < 0) {
+                    if (this.hwFailStreak++ == 0) LOGGER.warn(IT, "Failed to transfer frame from GPU");
+                    if (this.hwFailStreak >= HW_TRANSFER_FAIL_LIMIT) {
+                        LOGGER.error(IT, "GPU frame transfer failed {} times in a row — falling back to software decoding", this.hwFailStreak);
+                        this.hwGaveUp = player.reinitVideoCodecSoftware();
+                        this.hwFailStreak = 0;
                     }
+                    return;
+                }
+                this.hwFailStreak = 0;
+                frameToQueue = this.hwTransfer;
+
+                // SOME DRIVERS (NOTABLY AMD D3D11VA) DECODE FINE BUT STALL ON
+                // THE GPU→CPU COPY — IF THE TRANSFER ALONE EATS THE FRAME
+                // BUDGET, SOFTWARE DECODING IS FASTER. EVALUATE PERIODICALLY.
+                this.hwTransferNs += System.nanoTime() - transferStart;
+                if (++this.hwTransferCount >= HW_TRANSFER_PERF_WINDOW) {
+                    final double avgSec = this.hwTransferNs / 1_000_000_000.0 / this.hwTransferCount;
+                    if (avgSec > player.clock.frameDurationSec() * HW_TRANSFER_BUDGET_RATIO) {
+                        LOGGER.warn(IT, "GPU frame transfer too slow (avg {}ms vs {}ms frame budget) — falling back to software decoding",
+                                String.format("%.1f", avgSec * 1000.0), player.clock.frameDurationMs());
+                        this.hwGaveUp = player.reinitVideoCodecSoftware();
+                    }
+                    this.hwTransferNs = 0;
+                    this.hwTransferCount = 0;
+                }
+            }
 
-                    if (!eof && packetSerial != this.audioPacketQueue.serial()) continue;
-
-                    // A null PACKET PUTS THE DECODER INTO DRAIN MODE; A REAL send FAILURE
-                    // SKIPS ONLY THAT PACKET.
-                    if (avcodec.avcodec_send_packet(this.audioCodecContext, packet) < 0 && !eof) continue;
-
-                    while (avcodec.avcodec_receive_frame(this.audioCodecContext, tempFrame) >= 0) {
-                        // MID-STREAM PARAMETER CHANGES (CHAINED OGG / ICECAST) NEED A NEW
-                        // RESAMPLER — FEEDING THE OLD ONE PLAYS AUDIO AT THE WRONG SPEED
-                        if (!this.ensureAudioInputConfig(tempFrame)) continue;
-
-                        // PREFER BEST-EFFORT TIMESTAMPS; SYNTHESIZE CONTINUITY WHEN MISSING
-                        // (THE OGG DEMUXER IS A COMMON SOURCE OF AV_NOPTS_VALUE PACKETS)
-                        long rawPts = tempFrame.best_effort_timestamp();
-                        if (rawPts == avutil.AV_NOPTS_VALUE) rawPts = tempFrame.pts();
-                        final double rawPtsSec;
-                        if (rawPts == avutil.AV_NOPTS_VALUE) {
-                            rawPtsSec = Double.isNaN(this.audioNextPtsSec)
-                                    ? 0.0 : this.audioNextPtsSec - this.audioPtsOffset;
-                        } else {
-                            rawPtsSec = rawPts * this.audioTimeBase;
-                        }
+            // PREFER BEST-EFFORT TIMESTAMPS; SYNTHESIZE FROM THE PREVIOUS FRAME
+            // WHEN MISSING. A RAW AV_NOPTS_VALUE WOULD PRODUCE AN ASTRONOMICAL
+            // PTS THAT LATCHES A GARBAGE DISCONTINUITY OFFSET AND WRECKS THE CLOCK.
+            long rawPts = this.tempFrame.best_effort_timestamp();
+            if (rawPts == avutil.AV_NOPTS_VALUE) rawPts = this.tempFrame.pts();
+            final double rawPtsSec;
+            if (rawPts == avutil.AV_NOPTS_VALUE) {
+                rawPtsSec = Double.isNaN(player.lastRawVideoPts)
+                        ? 0.0 : player.lastRawVideoPts + player.clock.frameDurationSec();
+            } else {
+                rawPtsSec = rawPts * player.videoTimeBase;
+            }
 
-                        // PTS DISCONTINUITY DETECTION (HLS AD STITCHING)
-                        if (!Double.isNaN(this.lastRawAudioPts)) {
-                            final double jump = rawPtsSec - this.lastRawAudioPts;
-                            if (Math.abs(jump) > PTS_DISCONTINUITY_THRESHOLD) {
-                                final double audioDur = (double) tempFrame.nb_samples() / tempFrame.sample_rate();
-                                final double expected = this.lastRawAudioPts + this.audioPtsOffset + audioDur;
-                                this.audioPtsOffset = expected - rawPtsSec;
-                                LOGGER.info(IT, "Audio PTS discontinuity: jump={}s, new offset={}s", String.format("%.1f", jump), String.format("%.1f", this.audioPtsOffset));
-                            }
-                        }
-                        this.lastRawAudioPts = rawPtsSec;
+            // PTS DISCONTINUITY DETECTION (HLS AD STITCHING). KEYFRAMES ONLY AND A RESUMED DECODE JUMP BY
+            // DESIGN — A LONG GOP OR PAUSE MUST NOT BE MISTAKEN FOR A STITCH
+            final boolean governedJump = this.gap || this.governed.compareTo(DecodeGovernor.Level.KEYFRAMES) >= 0;
+            this.gap = false;
+            if (!Double.isNaN(player.lastRawVideoPts) && !governedJump) {
+                final double jump = rawPtsSec - player.lastRawVideoPts;
+                if (Math.abs(jump) > PTS_DISCONTINUITY_THRESHOLD) {
+                    final double expected = player.lastRawVideoPts + player.videoPtsOffset + player.clock.frameDurationSec();
+                    player.videoPtsOffset = expected - rawPtsSec;
+                    LOGGER.info(IT, "Video PTS discontinuity: jump={}s, new offset={}s", String.format("%.1f", jump), String.format("%.1f", player.videoPtsOffset));
+                }
+            }
+            player.lastRawVideoPts = rawPtsSec;
 
-                        final double ptsSec = rawPtsSec + this.audioPtsOffset;
+            // REDUCED_FPS: EVERY SECOND FRAME IS DROPPED BEFORE IT COSTS A QUEUE SLOT, A CONVERSION AND AN UPLOAD
+            if (this.governed == DecodeGovernor.Level.REDUCED_FPS && (this.parity++ & 1) != 0) {
+                av_frame_unref(frameToQueue);
+                player.governedDrops++;
+                return;
+            }
 
-                        if (!this.enqueueResampledAudio(tempFrame, ptsSec, packetSerial)) break;
-                        framesProduced++;
+            final double ptsSec = rawPtsSec + player.videoPtsOffset;
+            this.pending = frameToQueue;
+            this.pendingPtsMs = (long) (ptsSec * 1000.0);
+        }
 
-                        if (!this.audioPassthrough) {
-                            final long delay = swresample.swr_get_delay(this.swrContext, this.audioOutputSampleRate);
-                            if (delay > AUDIO_SAMPLES / 2) {
-                                if (!this.enqueueResamplerFlush(packetSerial)) break;
-                                framesProduced++;
-                            }
-                        }
-                    }
+        @Override
+        boolean emit(final boolean blocking) {
+            if (this.pending == null) return true;
+            final FrameQueue.Slot slot = this.writable(blocking);
+            if (slot == null) return false;
 
-                    packetsProcessed++;
-                } finally {
-                    if (packet != null) avcodec.av_packet_free(packet);
+            av_frame_unref(slot.frame);
+            av_frame_move_ref(slot.frame, this.pending);
+            slot.ptsMs = this.pendingPtsMs;
+            slot.durationMs = FFMediaPlayer.this.clock.frameDurationMs();
+            slot.serial = this.packetSerial;
+            slot.width = slot.frame.width();
+            slot.height = slot.frame.height();
+            slot.format = slot.frame.format();
+
+            this.frames.push();
+            this.framesProduced++;
+            this.pending = null;
+            return true;
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            if (this.hwTransfer != null) avutil.av_frame_free(this.hwTransfer);
+        }
+    }
+
+    private final class AudioDecoder extends Decoder {
+        boolean pendingFrame; // tempFrame STILL HAS TO BE RESAMPLED INTO THE QUEUE
+        boolean pendingFlush; // THE RESAMPLER BACKLOG STILL HAS TO BE FLUSHED INTO THE QUEUE
+        double pendingPtsSec;
+
+        AudioDecoder() {
+            super(FFMediaPlayer.this.audioPacketQueue, FFMediaPlayer.this.audioFrameQueue);
+        }
+
+        @Override
+        AVCodecContext codec() { return FFMediaPlayer.this.audioCodecContext; }
+
+        @Override
+        String kind() { return "Audio"; }
+
+        @Override
+        void restart(final boolean flush) {
+            final FFMediaPlayer player = FFMediaPlayer.this;
+            if (flush) {
+                avcodec.avcodec_flush_buffers(this.codec());
+                // DROP SAMPLES BUFFERED INSIDE THE RESAMPLER — THEY BELONG
+                // TO THE PRE-SEEK POSITION AND WOULD LEAK INTO POST-SEEK AUDIO
+                if (!player.audioPassthrough && player.swrContext != null) {
+                    swresample.swr_close(player.swrContext);
+                    swresample.swr_init(player.swrContext);
                 }
+            }
+            player.lastRawAudioPts = Double.NaN;
+            player.audioPtsOffset = 0;
+            player.audioNextPtsSec = Double.NaN;
+        }
+
+        @Override
+        void decoded() {
+            final FFMediaPlayer player = FFMediaPlayer.this;
+            // MID-STREAM PARAMETER CHANGES (CHAINED OGG / ICECAST) NEED A NEW
+            // RESAMPLER — FEEDING THE OLD ONE PLAYS AUDIO AT THE WRONG SPEED
+            if (!player.ensureAudioInputConfig(this.tempFrame)) return;
+
+            // PREFER BEST-EFFORT TIMESTAMPS; SYNTHESIZE CONTINUITY WHEN MISSING
+            // (THE OGG DEMUXER IS A COMMON SOURCE OF AV_NOPTS_VALUE PACKETS)
+            long rawPts = this.tempFrame.best_effort_timestamp();
+            if (rawPts == avutil.AV_NOPTS_VALUE) rawPts = this.tempFrame.pts();
+            final double rawPtsSec;
+            if (rawPts == avutil.AV_NOPTS_VALUE) {
+                rawPtsSec = Double.isNaN(player.audioNextPtsSec)
+                        ? 0.0 : player.audioNextPtsSec - player.audioPtsOffset;
+            } else {
+                rawPtsSec = rawPts * player.audioTimeBase;
+            }
 
-                if (eof) break; // DECODER FULLY DRAINED — NOTHING MORE TO PRODUCE
+            // PTS DISCONTINUITY DETECTION (HLS AD STITCHING)
+            if (!Double.isNaN(player.lastRawAudioPts)) {
+                final double jump = rawPtsSec - player.lastRawAudioPts;
+                if (Math.abs(jump) > PTS_DISCONTINUITY_THRESHOLD) {
+                    final double audioDur = (double) this.tempFrame.nb_samples() / this.tempFrame.sample_rate();
+                    final double expected = player.lastRawAudioPts + player.audioPtsOffset + audioDur;
+                    player.audioPtsOffset = expected - rawPtsSec;
+                    LOGGER.info(IT, "Audio PTS discontinuity: jump={}s, new offset={}s", String.format("%.1f", jump), String.format("%.1f", player.audioPtsOffset));
+                }
             }
-        } finally {
-            LOGGER.info(IT, "Audio decode exiting — packets: {}, frames produced: {}, interrupted: {}",
-                    packetsProcessed, framesProduced, Thread.currentThread().isInterrupted());
-            // RESET THE CODEC FOR THE NEXT RUN (SEE THE VIDEO DECODER): AT A CLEAN EOF THIS THREAD
-            // DRAINS THE DECODER, LEAVING IT IN DRAINED/EOF STATE. A repeat() RESTARTS THIS THREAD
-            // WITH lastSerial=-1 AND SKIPS ITS PER-SEEK FLUSH, SO WITHOUT THIS FLUSH THE DECODER
-            // WOULD STAY DRAINED AND REJECT NEW PACKETS. AUDIO RARELY BUFFERS, BUT IT KEEPS THE INVARIANT.
-            if (this.audioCodecContext != null) avcodec.avcodec_flush_buffers(this.audioCodecContext);
-            avutil.av_frame_free(tempFrame);
+            player.lastRawAudioPts = rawPtsSec;
+
+            this.pendingPtsSec = rawPtsSec + player.audioPtsOffset;
+            this.pendingFrame = true;
+        }
+
+        @Override
+        boolean emit(final boolean blocking) {
+            final FFMediaPlayer player = FFMediaPlayer.this;
+            if (this.pendingFrame) {
+                final FrameQueue.Slot slot = this.writable(blocking);
+                if (slot == null) return false;
+                player.enqueueResampledAudio(slot, this.tempFrame, this.pendingPtsSec, this.packetSerial);
+                this.pendingFrame = false;
+                this.framesProduced++;
+                this.pendingFlush = !player.audioPassthrough
+                        && swresample.swr_get_delay(player.swrContext, player.audioOutputSampleRate) > AUDIO_SAMPLES / 2;
+            }
+            if (this.pendingFlush) {
+                final FrameQueue.Slot slot = this.writable(blocking);
+                if (slot == null) return false;
+                player.enqueueResamplerFlush(slot, this.packetSerial);
+                this.pendingFlush = false;
+                this.framesProduced++;
+            }
+            return true;
         }
     }
 
-    private boolean enqueueResampledAudio(final AVFrame srcFrame, final double ptsSec, final int serial) {
-        final FrameQueue.Slot slot = this.audioFrameQueue.peekWritable();
-        if (slot == null) return false;
-
+    // FILLS slot (WRITABLE, FROM audioFrameQueue) WITH srcFrame RESAMPLED TO THE ENGINE FORMAT AND PUSHES IT.
+    // A FRAME THAT FAILS TO CONVERT IS DROPPED — THE SLOT STAYS UNPUSHED AND IS HANDED OUT AGAIN
+    private void enqueueResampledAudio(final FrameQueue.Slot slot, final AVFrame srcFrame, final double ptsSec, final int serial) {
         av_frame_unref(slot.frame);
 
         if (this.audioPassthrough) {
@@ -1678,7 +1914,7 @@ public final class FFMediaPlayer extends MediaPlayer {
             slot.serial = serial;
             this.audioNextPtsSec = ptsSec + durationSec;
             this.audioFrameQueue.push();
-            return true;
+            return;
         }
 
         slot.frame.format(this.audioOutputAvFormat);
@@ -1689,7 +1925,7 @@ public final class FFMediaPlayer extends MediaPlayer {
 
         if (av_frame_get_buffer(slot.frame, 0) < 0) {
             LOGGER.warn(IT, "Failed to allocate audio buffer in slot");
-            return true;
+            return;
         }
 
         // SAMPLES BUFFERED INSIDE THE RESAMPLER COME OUT FIRST, SO THE OUTPUT
@@ -1705,7 +1941,7 @@ public final class FFMediaPlayer extends MediaPlayer {
 
         if (samplesConverted <= 0) {
             av_frame_unref(slot.frame);
-            return true;
+            return;
         }
 
         final double durationSec = (double) samplesConverted / this.audioOutputSampleRate;
@@ -1716,13 +1952,10 @@ public final class FFMediaPlayer extends MediaPlayer {
         this.audioNextPtsSec = outPtsSec + durationSec;
 
         this.audioFrameQueue.push();
-        return true;
     }
 
-    private boolean enqueueResamplerFlush(final int serial) {
-        final FrameQueue.Slot slot = this.audioFrameQueue.peekWritable();
-        if (slot == null) return false;
-
+    // SAME AS enqueueResampledAudio FOR THE SAMPLES STILL BUFFERED INSIDE THE RESAMPLER
+    private void enqueueResamplerFlush(final FrameQueue.Slot slot, final int serial) {
         av_frame_unref(slot.frame);
         slot.frame.format(this.audioOutputAvFormat);
         slot.frame.ch_layout().nb_channels(this.audioOutputChannels);
@@ -1730,7 +1963,7 @@ public final class FFMediaPlayer extends MediaPlayer {
         slot.frame.sample_rate(this.audioOutputSampleRate);
         slot.frame.nb_samples(AUDIO_SAMPLES);
 
-        if (av_frame_get_buffer(slot.frame, 0) < 0) return true;
+        if (av_frame_get_buffer(slot.frame, 0) < 0) return;
 
         final int flushed = swresample.swr_convert(
                 this.swrContext,
@@ -1740,7 +1973,7 @@ public final class FFMediaPlayer extends MediaPlayer {
 
         if (flushed <= 0) {
             av_frame_unref(slot.frame);
-            return true;
+            return;
         }
 
         // THE FLUSHED SAMPLES CONTINUE THE LAST ENQUEUED FRAME — STAMPING THEM
@@ -1755,7 +1988,6 @@ public final class FFMediaPlayer extends MediaPlayer {
         this.audioNextPtsSec = ptsSec + durationSec;
 
         this.audioFrameQueue.push();
-        return true;
     }
 
     // VERIFIES THE DECODED FRAME STILL MATCHES THE NEGOTIATED INPUT PARAMETERS,
@@ -1825,35 +2057,158 @@ public final class FFMediaPlayer extends MediaPlayer {
         if (this.audioDecodeThread != null) this.audioDecodeThread.interrupt();
         final boolean wasInterrupted = Thread.interrupted();
         if (this.demuxThread != null) ThreadTool.join(this.demuxThread);
-        if (this.videoDecodeThread != null) ThreadTool.join(this.videoDecodeThread);
-        if (this.audioDecodeThread != null) ThreadTool.join(this.audioDecodeThread);
+        this.joinDecoders();
         if (wasInterrupted) Thread.currentThread().interrupt();
         this.demuxThread = null;
-        this.videoDecodeThread = null;
-        this.audioDecodeThread = null;
     }
 
     private void stopDecodeThreads() {
         if (this.videoPacketQueue != null) this.videoPacketQueue.abort();
         if (this.audioPacketQueue != null) this.audioPacketQueue.abort();
         final boolean wasInterrupted = Thread.interrupted();
+        this.joinDecoders();
+        if (wasInterrupted) Thread.currentThread().interrupt();
+    }
+
+    // WAITS FOR BOTH DECODERS TO EXIT — THREADS END ON THEIR ABORTED QUEUES, POOLED TASKS ARE CANCELLED
+    // (A PARKED TASK WOULD NEVER POLL THE ABORTED QUEUE AGAIN). CALLERS ABORT THE QUEUES FIRST
+    private void joinDecoders() {
+        final DecodeScheduler.Task videoTask = this.videoDecodeTask;
+        final DecodeScheduler.Task audioTask = this.audioDecodeTask;
+        if (videoTask != null) videoTask.cancel();
+        if (audioTask != null) audioTask.cancel();
         if (this.videoDecodeThread != null) ThreadTool.join(this.videoDecodeThread);
         if (this.audioDecodeThread != null) ThreadTool.join(this.audioDecodeThread);
-        if (wasInterrupted) Thread.currentThread().interrupt();
+        if (videoTask != null) videoTask.join();
+        if (audioTask != null) audioTask.join();
         this.videoDecodeThread = null;
         this.audioDecodeThread = null;
+        this.videoDecodeTask = null;
+        this.audioDecodeTask = null;
     }
 
     private void ensureDecodeThreads() {
-        if ((this.videoDecodeThread == null || !this.videoDecodeThread.isAlive()) && this.gfx != null && this.videoStreamIndex >= 0 && this.videoCodecContext != null) {
-            this.videoDecodeThread = this.factory.apply("video", this::videoDecodeLoop);
-            this.videoDecodeThread.setDaemon(true);
-            this.videoDecodeThread.start();
+        if (!decoding(this.videoDecodeThread, this.videoDecodeTask) && this.gfx != null && this.videoStreamIndex >= 0 && this.videoCodecContext != null) {
+            if (this.sharedDecode) {
+                this.videoDecodeTask = DecodeScheduler.shared().submit("video", new VideoDecoder(), this::decodePriority);
+            } else {
+                this.videoDecodeThread = this.factory.apply("video", this::videoDecodeLoop);
+                this.videoDecodeThread.setDaemon(true);
+                this.videoDecodeThread.start();
+            }
+        }
+        if (!decoding(this.audioDecodeThread, this.audioDecodeTask) && this.sfx != null && this.audioStreamIndex >= 0 && this.audioCodecContext != null) {
+            if (this.sharedDecode) {
+                this.audioDecodeTask = DecodeScheduler.shared().submit("audio", new AudioDecoder(), () -> AUDIO_DECODE_PRIORITY);
+            } else {
+                this.audioDecodeThread = this.factory.apply("audio", this::audioDecodeLoop);
+                this.audioDecodeThread.setDaemon(true);
+                this.audioDecodeThread.start();
+            }
+        }
+    }
+
+    private static boolean decoding(final Thread thread, final DecodeScheduler.Task task) {
+        return (thread != null && thread.isAlive()) || (task != null && !task.done());
+    }
+
+    // PROMPTS A PARKED POOLED DECODER; DECODE THREADS ARE WOKEN BY THEIR QUEUES INSTEAD
+    private static void wake(final DecodeScheduler.Task task) {
+        if (task != null) task.wake();
+    }
+
+    // KEYFRAME INDEX
+    // STARTS FROM THE INDEX STORED NEXT TO THE CACHED BODY WHEN THERE IS ONE FOR THIS STREAM, OTHERWISE EMPTY
+    private void openKeyframeIndex(final URI uri) {
+        this.keyframes = null;
+        this.keyframeSource = uri;
+        if (!WaterMediaConfig.media.ffmpeg.keyframeIndex || this.videoStreamIndex < 0 || this.liveSource()) return;
+
+        final AVStream stream = this.formatContext.streams(this.videoStreamIndex);
+        final int num = stream.time_base().num();
+        final int den = stream.time_base().den();
+        final int codecId = stream.codecpar().codec_id();
+        if (num <= 0 || den <= 0) return;
+
+        if (this.shouldUseFFmpegCache(uri)) {
+            try {
+                final byte[] stored = NetworkCache.readKeyframeIndex(uri, this.source.headers(), CACHE_ACCEPT);
+                final KeyframeIndex index = stored != null ? KeyframeIndex.decode(stored) : null;
+                if (index != null && index.matches(num, den, codecId)) {
+                    LOGGER.debug(IT, "Loaded keyframe index for {} ({} keyframes, complete: {}, max GOP: {} frames)",
+                            uri, index.size(), index.complete(), index.maxGopFrames());
+                    this.keyframes = index;
+                    this.seedDemuxerIndex();
+                    return;
+                }
+            } catch (final IOException e) {
+                LOGGER.debug(IT, "Stored keyframe index for {} unusable: {}", uri, e.getMessage());
+            }
         }
-        if ((this.audioDecodeThread == null || !this.audioDecodeThread.isAlive()) && this.sfx != null && this.audioStreamIndex >= 0 && this.audioCodecContext != null) {
-            this.audioDecodeThread = this.factory.apply("audio", this::audioDecodeLoop);
-            this.audioDecodeThread.setDaemon(true);
-            this.audioDecodeThread.start();
+        this.keyframes = new KeyframeIndex(num, den, codecId);
+    }
+
+    // DEMUXERS WITH A GENERIC INDEX (MPEG-TS, FLV...) ONLY KNOW THE KEYFRAMES THEY HAVE READ IN THIS SESSION AND
+    // OTHERWISE BISECT THE FILE BY TIMESTAMP. HANDING THEM THE STORED ONES — THE SAME (pos, dts) ENTRIES FFMPEG
+    // ADDS ITSELF WHILE READING — LETS THEIR SEEKS JUMP STRAIGHT TO THE KEYFRAME'S BYTE OFFSET
+    private void seedDemuxerIndex() {
+        final KeyframeIndex index = this.keyframes;
+        final AVInputFormat format = this.formatContext.iformat();
+        if (index == null || format == null || (format.flags() & avformat.AVFMT_GENERIC_INDEX) == 0) return;
+        final AVStream stream = this.formatContext.streams(this.videoStreamIndex);
+        for (int i = 0; i < index.size(); i++) {
+            final KeyframeIndex.Keyframe keyframe = index.get(i);
+            if (keyframe.pos() >= 0) {
+                avformat.av_add_index_entry(stream, keyframe.pos(), keyframe.dts(), 0, 0, avformat.AVINDEX_KEYFRAME);
+            }
+        }
+    }
+
+    // SEEKS THE MAIN INPUT TO THE LAST INDEXED KEYFRAME AT OR BEFORE targetMs, ADDRESSED BY ITS OWN TIMESTAMP ON
+    // THE VIDEO STREAM SO THE DEMUXER CANNOT ROUND TO AN EARLIER ONE. A PRECISE SEEK THEN DECODES AT MOST ONE
+    // GOP FORWARD. NEGATIVE WHEN THE INDEX DOES NOT REACH THE TARGET OR THE DEMUXER REFUSES
+    private int seekKeyframe(final long targetMs) {
+        final KeyframeIndex index = this.keyframes;
+        if (index == null) return -1;
+        final KeyframeIndex.Keyframe keyframe = index.floor((long) Math.floor(targetMs / 1000.0 / this.videoTimeBase));
+        if (keyframe == null) return -1;
+
+        // MOST DEMUXERS SEEK BY dts; THOSE FLAGGED AVFMT_SEEK_TO_PTS (MP4/MOV) BY pts
+        final AVInputFormat format = this.formatContext.iformat();
+        final boolean byPts = format != null && (format.flags() & avformat.AVFMT_SEEK_TO_PTS) != 0;
+        final int result = avformat.av_seek_frame(this.formatContext, this.videoStreamIndex,
+                byPts ? keyframe.pts() : keyframe.dts(), avformat.AVSEEK_FLAG_BACKWARD);
+        if (result >= 0) {
+            LOGGER.debug(IT, "Seek to {}ms starts at indexed keyframe {}ms (max GOP: {} frames)",
+                    targetMs, (long) (keyframe.pts() * this.videoTimeBase * 1000), index.maxGopFrames());
+        }
+        return result;
+    }
+
+    // EVERY VIDEO PACKET READ FROM THE MAIN INPUT — PLAYED OR DRAINED — GOES THROUGH THE INDEX
+    private void indexKeyframe(final AVPacket packet) {
+        if (this.keyframes == null || packet.stream_index() != this.videoStreamIndex) return;
+        this.keyframes.record(packet.pts(), packet.dts(), packet.pos(), (packet.flags() & AV_PKT_FLAG_KEY) != 0, AV_NOPTS_VALUE);
+    }
+
+    // KEEPS WHAT THIS PLAYBACK LEARNED FOR THE NEXT ONE. ONLY CACHED BODIES HAVE A PLACE TO KEEP IT, AND THE
+    // WRITE RUNS WITH THE INTERRUPT CLEARED — THE DEMUX THREAD IS USUALLY INTERRUPTED BY NOW, AND AN INTERRUPTED
+    // NIO WRITE WOULD CLOSE THE CACHE JOURNAL UNDER EVERY OTHER PLAYER
+    private void storeKeyframeIndex() {
+        final KeyframeIndex index = this.keyframes;
+        final URI uri = this.keyframeSource;
+        this.keyframes = null;
+        if (index == null || !index.dirty() || index.size() == 0 || !this.shouldUseFFmpegCache(uri)) return;
+
+        final boolean wasInterrupted = Thread.interrupted();
+        try {
+            if (NetworkCache.writeKeyframeIndex(uri, this.source.headers(), CACHE_ACCEPT, index.encode())) {
+                LOGGER.debug(IT, "Stored keyframe index for {} ({} keyframes, complete: {})", uri, index.size(), index.complete());
+            }
+        } catch (final IOException e) {
+            LOGGER.debug(IT, "Failed to store keyframe index for {}: {}", uri, e.getMessage());
+        } finally {
+            if (wasInterrupted) Thread.currentThread().interrupt();
         }
     }
 
@@ -1884,6 +2239,7 @@ public final class FFMediaPlayer extends MediaPlayer {
                 try {
                     final int idx = packet.stream_index();
                     if (idx == this.videoStreamIndex) {
+                        this.indexKeyframe(packet);
                         if (!videoReached) {
                             videoReached = this.drainDecode(this.videoCodecContext, packet, drainFrame,
                                     this.videoTimeBase, threshold);
@@ -1916,6 +2272,7 @@ public final class FFMediaPlayer extends MediaPlayer {
         if (res < 0) return false;
         try {
             if (pkt.stream_index() == streamIndex) {
+                if (ctx == this.formatContext) this.indexKeyframe(pkt);
                 return this.drainDecode(codec, pkt, frame, timeBase, threshold);
             }
         } finally {
@@ -1954,6 +2311,7 @@ public final class FFMediaPlayer extends MediaPlayer {
 
         this.totalSkippedFrames = 0;
         this.totalRenderedFrames = 0;
+        this.governedDrops = 0;
 
         // RESET PTS DISCONTINUITY STATE FOR NEW PIPELINE
         this.videoPtsOffset = 0;
@@ -2005,13 +2363,16 @@ public final class FFMediaPlayer extends MediaPlayer {
         LOGGER.info(IT, "Successfully switched quality to {}", this.quality);
     }
 
+    // ACCEPT HEADER OF CACHED BODIES — PART OF THEIR CACHE KEY, SO THE KEYFRAME INDEX IS FILED UNDER THE SAME ONE
+    private static final String CACHE_ACCEPT = "video/*,audio/*,application/octet-stream,*/*";
+
     private String resolveInputUrl(final URI uri, final boolean allowCache) {
         if (allowCache && this.shouldUseFFmpegCache(uri)) {
             try {
                 final NetworkCache.CachedFile cached = NetworkCache.readFile(
                         uri,
                         this.source.headers(),
-                        "video/*,audio/*,application/octet-stream,*/*",
+                        CACHE_ACCEPT,
                         Math.max(1L, WaterMediaConfig.media.ffmpeg.cacheMaxSize) * 1024L * 1024L,
                         WaterMediaConfig.media.ffmpeg.cache);
                 if (cached != null) {
@@ -2263,6 +2624,7 @@ public final class FFMediaPlayer extends MediaPlayer {
             if (!videoInit && !audioInit)
                 throw new IllegalStateException("Video and Audio failed to initialize");
 
+            this.openKeyframeIndex(uri);
             this.opened = true;
             LOGGER.info(IT, "FFMediaPlayer started - video: {} (hw: {}), audio: {}", videoInit, this.isHwAccel(), audioInit);
             return true;
@@ -2518,10 +2880,17 @@ public final class FFMediaPlayer extends MediaPlayer {
         final int height = ctx.height();
         final int pixels = width * height;
 
-        final int threads = pixels <= 921600
-                ? Math.min(2, MAX_DECODE_THREADS) : pixels <= 2073600
-                ? Math.min(4, MAX_DECODE_THREADS) : pixels <= 3686400
-                ? Math.min(6, MAX_DECODE_THREADS) : MAX_DECODE_THREADS;
+        final int threads;
+        if (this.sharedDecode) {
+            // THE POOL WORKERS ALREADY COVER THE CORES — CODEC THREADS ON TOP WOULD BRING BACK THE
+            // OVERSUBSCRIPTION THE POOL REMOVES, SO ONLY FRAMES ABOVE 1080P KEEP A SECOND ONE
+            threads = pixels <= 2073600 ? 1 : Math.max(1, Math.min(2, MAX_DECODE_THREADS));
+        } else {
+            threads = pixels <= 921600
+                    ? Math.min(2, MAX_DECODE_THREADS) : pixels <= 2073600
+                    ? Math.min(4, MAX_DECODE_THREADS) : pixels <= 3686400
+                    ? Math.min(6, MAX_DECODE_THREADS) : MAX_DECODE_THREADS;
+        }
 
         ctx.thread_count(threads);
         ctx.thread_type(AVCodecContext.FF_THREAD_FRAME | AVCodecContext.FF_THREAD_SLICE);
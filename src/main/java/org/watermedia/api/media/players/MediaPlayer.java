@@ -12,6 +12,7 @@ import org.watermedia.api.media.players.sync.Report;
 import org.watermedia.api.media.players.sync.Sync;
 import org.watermedia.api.media.players.sync.Unwatch;
 import org.watermedia.api.media.players.sync.Watch;
+import org.watermedia.api.media.players.util.DecodeGovernor;
 import org.watermedia.api.util.MathUtil;
 import org.watermedia.api.media.engines.GFXEngine;
 import org.watermedia.api.media.engines.SFXEngine;
@@ -19,6 +20,7 @@ import org.watermedia.api.util.MediaQuality;
 import org.watermedia.tools.ThreadTool;
 
 import java.nio.ByteBuffer;
+import java.util.EnumSet;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -132,6 +134,10 @@ public abstract sealed class MediaPlayer permits ServerMediaPlayer, FFMediaPlaye
     protected volatile int scaleWidth = NO_SIZE;
     protected volatile int scaleHeight = NO_SIZE;
     protected volatile LodLevel lod = LodLevel.MAX;
+    // ON-SCREEN HINT FROM THE CALLER — A DECODE PRIORITY ONLY, PLAYBACK ITSELF IGNORES IT
+    protected volatile boolean visible = true;
+    // DECODE BUDGET SHARE WHILE THE SUBCLASS DECODES — NULL WHEN UNGOVERNED (SEE openDecodeTicket)
+    private volatile DecodeGovernor.Ticket decodeTicket;
 
     // NATIVE SOURCE FRAME SIZE BEFORE ANY SCALING — UPDATED BY THE SUBCLASS WHEN IT LEARNS
     // THE DECODED DIMENSIONS, READ BY CALLERS THAT NEED THE UNCAPPED RESOLUTION (e.g. A UI
@@ -605,6 +611,70 @@ public abstract sealed class MediaPlayer permits ServerMediaPlayer, FFMediaPlaye
      */
     public LodLevel lod() { return this.lod; }
 
+    /**
+     * Hints whether this player's video is currently on screen.
+     * Audio, clock and status are unaffected, but players that share decode resources rank hidden
+     * videos below every visible one, the same way a lower {@link LodLevel} ranks them below a higher
+     * one. Under load the {@link DecodeGovernor} may show a hidden video at a lower frame rate, or
+     * stop decoding it until it is visible again. Always starts visible.
+     * @param visible false while nothing shows this player's video
+     */
+    public void visible(final boolean visible) {
+        this.visible = visible;
+    }
+
+    /**
+     * Returns the on-screen hint set by {@link #visible(boolean)}.
+     * @return true unless the caller reported the video as hidden
+     */
+    public boolean visible() { return this.visible; }
+
+    /**
+     * Returns how the {@link DecodeGovernor} currently treats this player's decode, for tuning.
+     * @return the latest decision, or null while the player is not decoding or the governor is disabled
+     */
+    public DecodeGovernor.Decision decodeDecision() {
+        final DecodeGovernor.Ticket ticket = this.decodeTicket;
+        return ticket != null ? ticket.decision() : null;
+    }
+
+    /**
+     * Priority of this player's video decode: the {@link LodLevel} percentage while visible,
+     * {@link DecodeGovernor#HIDDEN} otherwise.
+     * @return the priority, higher decodes first
+     */
+    protected int decodePriority() {
+        return this.visible ? this.lod.percent() : DecodeGovernor.HIDDEN;
+    }
+
+    // STARTS GOVERNING THE DECODE THE SUBCLASS IS ABOUT TO RUN (media.decodeGovernor), REPLACING A
+    // TICKET LEFT OPEN BY A PREVIOUS RUN. RETURNS NULL WHEN UNGOVERNED — TREAT IT AS Level.FULL
+    protected final DecodeGovernor.Ticket openDecodeTicket(final DecodeGovernor.Level deepest) {
+        return this.openDecodeTicket(EnumSet.range(DecodeGovernor.Level.FULL, deepest));
+    }
+
+    // AS ABOVE, FOR A DECODE THAT ONLY ACTS ON SOME LEVELS; THE GOVERNOR NEVER MOVES IT TO THE OTHERS
+    protected final DecodeGovernor.Ticket openDecodeTicket(final Set<DecodeGovernor.Level> levels) {
+        this.closeDecodeTicket();
+        if (!WaterMediaConfig.media.decodeGovernor) return null;
+        final DecodeGovernor.Ticket ticket = DecodeGovernor.global().register(
+                this.getClass().getSimpleName() + "[" + this.source.uri(this.quality) + "]", this::decodePriority, levels);
+        this.decodeTicket = ticket;
+        return ticket;
+    }
+
+    // THE TICKET OF THE RUNNING DECODE, OR NULL WHEN UNGOVERNED OR CLOSED. READ IT ONCE PER USE: IT IS CLEARED
+    // FROM ANOTHER THREAD WHEN THE PLAYER STOPS
+    protected final DecodeGovernor.Ticket decodeTicket() {
+        return this.decodeTicket;
+    }
+
+    protected final void closeDecodeTicket() {
+        final DecodeGovernor.Ticket ticket = this.decodeTicket;
+        this.decodeTicket = null;
+        if (ticket != null) ticket.close();
+    }
+
     /**
      * Returns the GPU handle of the final RGBA frame texture.
      * <p>
@@ -989,6 +1059,7 @@ public abstract sealed class MediaPlayer permits ServerMediaPlayer, FFMediaPlaye
         // LEAVE THE SESSION FIRST: SAY GOODBYE SO THE AUTHORITY DROPS US INSTEAD OF WAITING OUT THE TTL
         if (this.role == Role.FOLLOWER) this.send(new Unwatch(this.watcherId));
         TICKING.remove(this);
+        this.closeDecodeTicket(); // NORMALLY CLOSED WHEN DECODING ENDS — A SAFETY NET FOR A SUBCLASS THAT NEVER RAN
         // SUBCLASSES STOP/JOIN THEIR DECODE THREADS BEFORE CALLING super.release(), SO NEITHER ENGINE
         // IS STILL IN USE HERE. RELEASING gfx FREES ITS GPU TEXTURES (FOR VULKAN, VIA DEFERRED DESTRUCTION).
         if (this.gfx != null) {
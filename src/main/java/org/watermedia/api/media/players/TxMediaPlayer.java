@@ -7,7 +7,11 @@ import org.watermedia.api.codecs.CodecsAPI;
 import org.watermedia.api.codecs.ImageData;
 import org.watermedia.api.codecs.ImageReader;
 import org.watermedia.api.codecs.readers.BCReader;
+import org.watermedia.api.codecs.readers.svg.SVGReader;
 import org.watermedia.api.media.MRL;
+import org.watermedia.api.media.players.util.DecodeGovernor;
+import org.watermedia.api.media.players.util.FrameCache;
+import org.watermedia.api.media.players.util.FrameScaler;
 import org.watermedia.api.media.players.util.NetworkCache;
 import org.watermedia.api.media.engines.GFXEngine;
 import org.watermedia.api.media.players.sync.Bridge;
@@ -23,6 +27,9 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -52,7 +59,8 @@ import static org.watermedia.WaterMedia.LOGGER;
  *       upcoming frames into a bounded queue ("decode ahead instead of just sleeping"). If the
  *       queue empties because decoding fell behind the clock, playback drops into
  *       {@link Status#BUFFERING} and pre-decodes a handful of frames before resuming. Aggregate
- *       decode CPU across all players is bounded by a shared permit pool.</li>
+ *       decode CPU across all players is bounded by a shared permit pool, and reported to the
+ *       {@link DecodeGovernor}, which may hold a hidden animation on its current frame under load.</li>
  * </ul>
  * <p>
  * Seek / loop / step-backwards rewind the source ({@link ImageReader#reset()} when supported,
@@ -63,7 +71,9 @@ import static org.watermedia.WaterMedia.LOGGER;
  * When {@link #maxSize(int, int)} or a {@link LodLevel} below MAX is active, decoded frames
  * are downscaled (area average) before upload. Streaming playback (Mode 3) picks up LOD
  * changes on the fly; static images and preloaded texture sets (Modes 1-2) apply the target
- * at preparation time.
+ * at preparation time. A static SVG is the exception: with {@code decoders.svg.mipChain} it is
+ * rasterized once at its full size into a mip chain, and later LOD changes, up or down, swap to
+ * the matching level.
  */
 public final class TxMediaPlayer extends MediaPlayer {
     private static final Marker IT = MarkerManager.getMarker(TxMediaPlayer.class.getSimpleName());
@@ -114,6 +124,13 @@ public final class TxMediaPlayer extends MediaPlayer {
     // WRITTEN ONLY BY THE PREPARE/LIFECYCLE THREAD THAT DECODES AND UPLOADS FRAMES.
     private int outWidth;
     private int outHeight;
+    // DECODED FRAME SIZE — THE SOURCE SIZE UNLESS THE READER TOOK THE DECODE-SIZE HINT AND DELIVERED LESS.
+    // THE HINT IS RESOLVED AT PREPARE AND ONLY GROWS WHEN A HOT maxSize/LOD RAISE OUTGROWS THE DECODE (SEE
+    // rehint), SO A REWOUND OR REOPENED READER OTHERWISE DELIVERS THE SAME SIZE AS THE FIRST ONE.
+    private int frameWidth;
+    private int frameHeight;
+    private int hintWidth;
+    private int hintHeight;
 
     // STATUS
     private volatile Status status = Status.WAITING;
@@ -129,6 +146,11 @@ public final class TxMediaPlayer extends MediaPlayer {
     private volatile Thread lifecycleThread;
     private volatile Future<?> lifecycleTask;
     private volatile ImageReader activeReader;
+    // LEASE ON THE MAPPED SOURCE BODY BACKING activeReader; RELEASED WHENEVER THE READER GOES AWAY
+    private volatile NetworkCache.MappedBytes sourceLease;
+    // LEASE ON THE SHARED DECODED FRAME SET BACKING MODE 2 TEXTURES; HELD UNTIL STOP/RELEASE BECAUSE
+    // A PROGRESSIVE ENGINE KEEPS READING THE PRELOADED BUFFERS ACROSS LATER RENDER FRAMES
+    private volatile FrameCache.Lease framesLease;
     private volatile int lifecycleSerial;
 
     // TRIGGERS (CALLER TO LIFECYCLE THREAD); signals WAKES THE LIFECYCLE OUT OF ITS WAITS
@@ -159,6 +181,9 @@ public final class TxMediaPlayer extends MediaPlayer {
     private long clockBase;     // MEDIA TIME AT wallBase
     private long wallBase;      // WALL MILLIS WHEN clockBase WAS TAKEN
 
+    // MODE 1 SVG MIP CHAIN — WHEN NON-NULL, texture() FOLLOWS maxSize/LOD CHANGES BY UPLOADING A PREBUILT LEVEL
+    private volatile StaticMips staticMips;
+
     // PREFETCH STATE (ACCESSED ONLY BY THE LIFECYCLE THREAD IN STREAMING MODE)
     private final ArrayDeque<PrefetchedFrame> prefetchQueue = new ArrayDeque<>(PREFETCH_MAX);
     private int prefetchMax = PREFETCH_MAX;
@@ -251,7 +276,10 @@ public final class TxMediaPlayer extends MediaPlayer {
         this.triggerStop = true;
         this.texTimeline = null;
         this.texDelays = null;
+        this.staticMips = null;
         IOTool.closeQuietly(this.activeReader);
+        this.releaseSource();
+        this.releaseFrames();
         final Future<?> task = this.lifecycleTask;
         if (task != null) task.cancel(true);
         if (this.lifecycleThread != null) this.lifecycleThread.interrupt();
@@ -266,7 +294,10 @@ public final class TxMediaPlayer extends MediaPlayer {
         this.triggerStop = true;
         this.texTimeline = null;
         this.texDelays = null;
+        this.staticMips = null;
         IOTool.closeQuietly(this.activeReader);
+        this.releaseSource();
+        this.releaseFrames();
         final Future<?> task = this.lifecycleTask;
         if (task != null) task.cancel(true);
         final Thread t = this.lifecycleThread;
@@ -316,11 +347,23 @@ public final class TxMediaPlayer extends MediaPlayer {
             // NETWORK FETCH AND THE SOFTWARE DECODE ENTIRELY. FALLS THROUGH WHEN UNAVAILABLE.
             if (this.tryCodecTextures()) return;
 
+            this.resolveDecodeHint();
             reader = this.openSource();
-            this.sourceWidth = reader.width();
-            this.sourceHeight = reader.height();
-            if (this.sourceWidth <= 0 || this.sourceHeight <= 0) {
-                throw new IOException("Invalid image dimensions: " + this.sourceWidth + "x" + this.sourceHeight);
+            if (reader instanceof SVGReader && WaterMediaConfig.decoders.svg.mipChain && (this.hintWidth > 0 || this.hintHeight > 0)) {
+                // THE MIP CHAIN IS CUT FROM THE ONE RASTER: A HINTED RASTER WOULD CAP EVERY LATER LOD RAISE AT
+                // THE PREPARE-TIME SIZE. THE DOCUMENT IS NOT RASTERIZED YET AND ITS PARSE IS SHARED, SO THE
+                // UNHINTED REOPEN COSTS NEXT TO NOTHING
+                reader.close();
+                this.hintWidth = 0;
+                this.hintHeight = 0;
+                reader = this.openSource();
+            }
+            this.sourceWidth = reader.sourceWidth();
+            this.sourceHeight = reader.sourceHeight();
+            this.frameWidth = reader.width();
+            this.frameHeight = reader.height();
+            if (this.frameWidth <= 0 || this.frameHeight <= 0) {
+                throw new IOException("Invalid image dimensions: " + this.frameWidth + "x" + this.frameHeight);
             }
             if (this.quality == MediaQuality.UNKNOWN) {
                 final var realQuality = MediaQuality.of(this.sourceWidth, this.sourceHeight);
@@ -380,7 +423,10 @@ public final class TxMediaPlayer extends MediaPlayer {
                 this.abortCodec();
                 if (this.lifecycleSerial == serial) this.clearBuffers();
                 IOTool.closeQuietly(reader);
-                if (this.lifecycleSerial == serial) this.activeReader = null;
+                if (this.lifecycleSerial == serial) {
+                    this.activeReader = null;
+                    this.releaseSource();
+                }
             }
             if (this.lifecycleSerial == serial) this.lifecycleTask = null;
         }
@@ -398,6 +444,9 @@ public final class TxMediaPlayer extends MediaPlayer {
         this.showFirstFrame(reader);
         this.readerExhausted = true;
         this.commitCodec(); // SINGLE-FRAME TEXTURE: THE ONE FRAME WAS FED IN showFirstFrame
+        if (reader instanceof final SVGReader svg && WaterMediaConfig.decoders.svg.mipChain) {
+            this.staticMips = new StaticMips(svg.mipChain(), this.frameWidth, this.frameHeight, this.outWidth, this.outHeight);
+        }
         LOGGER.debug(IT, "Loaded: {} ({}x{}, static, cache/threadless{})",
                 this.source, this.sourceWidth, this.sourceHeight,
                 this.staticTimed ? ", displayTime=" + this.displayTimeMs + "ms" : "");
@@ -437,7 +486,7 @@ public final class TxMediaPlayer extends MediaPlayer {
         // prepareTextures' readAll() TRANSIENTLY DECODES THE WHOLE SET AT SOURCE RESOLUTION INTO HEAP
         // BEFORE THE DOWNSCALE, SO GATE ON THAT PEAK TOO — OTHERWISE maxSize/LOD LETS A TINY VRAM COST
         // HIDE A MULTI-GB HEAP ALLOC (OOM). WHEN IT DOESN'T FIT WE FALL THROUGH TO MODE 3 STREAMING.
-        final long heapPeak = (long) frames * this.sourceWidth * this.sourceHeight * 4L;
+        final long heapPeak = (long) frames * this.frameWidth * this.frameHeight * 4L;
         return vramCost <= budget && heapPeak <= budget;
     }
 
@@ -445,9 +494,32 @@ public final class TxMediaPlayer extends MediaPlayer {
         this.status = Status.BUFFERING;
         this.clearBuffers();
 
-        // DECODE EVERY FRAME. IF readAll() YIELDS ONLY ONE FRAME (E.G. APNG WITH A SINGLE FCTL)
-        // FALL BACK TO STATIC SEMANTICS RATHER THAN BUILDING A CLOCK FOR NOTHING.
-        final ImageData data = reader.readAll();
+        // DECODE EVERY FRAME — OR REUSE THE SET ANOTHER PLAYER OF THE SAME SOURCE ALREADY DECODED (OR IS
+        // DECODING). IF readAll() YIELDS ONLY ONE FRAME (E.G. APNG WITH A SINGLE FCTL) FALL BACK TO
+        // STATIC SEMANTICS RATHER THAN BUILDING A CLOCK FOR NOTHING.
+        final NetworkCache.MappedBytes source = this.sourceLease;
+        final FrameCache.Lease lease = FrameCache.acquire(this.source.uri(this.quality), this.source.headers(), IMAGE_ACCEPT,
+                reader.pixelFormat().name() + "@" + this.frameWidth + "x" + this.frameHeight, source != null ? source.expiresAt() : 0L, reader::readAll);
+        final boolean preloaded;
+        try {
+            preloaded = this.preloadTextures(lease.data());
+        } catch (final IOException | RuntimeException e) {
+            lease.close();
+            throw e;
+        }
+        if (preloaded) {
+            this.releaseFrames();
+            this.framesLease = lease;
+        } else {
+            // THE ENGINE GOT DOWNSCALED COPIES (OR THE SINGLE-FRAME FALLBACK COPIED ITS FRAME OUT) — NOTHING
+            // OF OURS READS THE SHARED SET ANY MORE
+            lease.close();
+        }
+    }
+
+    // UPLOADS A DECODED SET AS FRAME TEXTURES AND ARMS THE PASSIVE CLOCK (OR SHOWS A SINGLE-FRAME SET AS A
+    // STATIC IMAGE). RETURNS TRUE WHEN THE ENGINE WAS HANDED data's OWN BUFFERS AND MAY KEEP READING THEM.
+    private boolean preloadTextures(final ImageData data) throws IOException {
         // A TRUNCATED/CORRUPT ANIMATION CAN DECODE TO ZERO FRAMES EVEN THOUGH frameCount() REPORTED >1;
         // FAIL CLEANLY INSTEAD OF INDEXING frames()[0] (AIOOBE SWALLOWED AS A VAGUE "Lifecycle error").
         if (data.frames().length == 0) {
@@ -462,11 +534,11 @@ public final class TxMediaPlayer extends MediaPlayer {
             this.animated = false;
             this.readerExhausted = true;
             this.resolveInitialStatus();
-            return;
+            return false;
         }
 
         ByteBuffer[] frames = data.frames();
-        if (this.outWidth != this.sourceWidth || this.outHeight != this.sourceHeight) {
+        if (this.outWidth != this.frameWidth || this.outHeight != this.frameHeight) {
             // DOWNSCALE THE WHOLE SET BEFORE THE BULK UPLOAD — VRAM AND UPLOAD COST
             // FOLLOW THE TARGET SIZE, NOT THE SOURCE SIZE
             final ByteBuffer[] scaled = new ByteBuffer[frames.length];
@@ -511,6 +583,7 @@ public final class TxMediaPlayer extends MediaPlayer {
 
         LOGGER.debug(IT, "Loaded: {} ({}x{}, {} frame textures, passive clock, duration={}ms)",
                 this.source, this.sourceWidth, this.sourceHeight, timeline.length, this.knownDuration);
+        return frames == data.frames();
     }
 
     // RESOLVES THE PASSIVE-CLOCK MEDIA TIME, FOLDING LOOP WRAPS AND THE ENDED TRANSITION.
@@ -565,6 +638,8 @@ public final class TxMediaPlayer extends MediaPlayer {
 
     @Override
     public long texture() {
+        final StaticMips mips = this.staticMips;
+        if (mips != null) this.swapStaticMip(mips);
         final long[] timeline = this.texTimeline;
         if (timeline != null) {
             // PASSIVE CLOCK: THE FRAME IS RESOLVED AT RENDER TIME
@@ -578,6 +653,42 @@ public final class TxMediaPlayer extends MediaPlayer {
         return super.texture();
     }
 
+    // FOLLOWS maxSize/LOD ON A STATIC SVG. THE TARGET IS CUT FROM THE SMALLEST MIP LEVEL STILL COVERING IT:
+    // A POWER-OF-TWO TARGET IS THE LEVEL ITSELF, ANY OTHER COSTS ONE SCALER PASS OVER AT MOST 4x ITS PIXELS THE
+    // FIRST TIME AND IS A PLAIN SWAP AFTER THAT. THE LEVEL BUFFERS ARE NEVER WRITTEN ONCE BUILT, SO THEY MEET
+    // THE ENGINE'S RETENTION CONTRACT WITHOUT GOING THROUGH THE BUFFER POOL
+    private void swapStaticMip(final StaticMips mips) {
+        // LEVEL 0 IS THE UNHINTED RASTER (SEE prepare), SO A RAISE GOES BACK UP TO IT
+        final int fw = mips.baseWidth, fh = mips.baseHeight;
+        final int w = Math.min(fw, MathUtil.scaled(this.sourceWidth, this.scaleWidth, this.lod.percent()));
+        final int h = Math.min(fh, MathUtil.scaled(this.sourceHeight, this.scaleHeight, this.lod.percent()));
+        final ByteBuffer level;
+        synchronized (mips) {
+            if (w == mips.width && h == mips.height) return;
+            final long key = (long) w << 32 | h;
+            ByteBuffer cut = mips.sizes.get(key);
+            if (cut == null) {
+                int i = 0;
+                while (i + 1 < mips.levels.length && Math.max(1, fw >> (i + 1)) >= w && Math.max(1, fh >> (i + 1)) >= h) i++;
+                final int lw = Math.max(1, fw >> i), lh = Math.max(1, fh >> i);
+                if (lw == w && lh == h) {
+                    cut = mips.levels[i];
+                } else {
+                    cut = ByteBuffer.allocateDirect(w * h * 4).order(ByteOrder.nativeOrder());
+                    FrameScaler.scale(mips.levels[i], 0, lw, lh, cut, w, h, 4, WaterMediaConfig.media.tx.scaleFilter);
+                    cut.flip();
+                }
+                if (mips.sizes.size() >= StaticMips.MAX_SIZES) mips.sizes.clear();
+                mips.sizes.put(key, cut);
+            }
+            mips.width = w;
+            mips.height = h;
+            level = cut.duplicate();
+        }
+        this.gfx.format(this.pixelFormat, w, h);
+        this.gfx.upload(new ByteBuffer[]{level}, new int[]{0});
+    }
+
     // ==========================================================================
     // MODE 3 — STREAMING DECODE WITH PREFETCH
     // ==========================================================================
@@ -590,6 +701,10 @@ public final class TxMediaPlayer extends MediaPlayer {
     // WRAPS playStream(...) WITH FIRST-FRAME PUBLISH AND READER LIFECYCLE.
     private void playStreaming(ImageReader reader, final int serial) {
         try {
+            // EVERY FRAME BUILDS ON THE PREVIOUS ONE, SO THE ONLY LEVEL A STREAMING ANIMATION CAN HONOR IS
+            // PAUSED — AND HOLDING AN ANIMATION NOBODY SEES ON ITS FRAME COSTS NOTHING VISIBLE. REGISTERING IT
+            // ALONE KEEPS THE GOVERNOR FROM SPENDING STEPS ON LEVELS THIS LOOP WOULD IGNORE
+            this.openDecodeTicket(EnumSet.of(DecodeGovernor.Level.PAUSED));
             this.showFirstFrame(reader);
             LOGGER.debug(IT, "Loaded: {} ({}x{}, animated, duration={}ms, prefetch<={})",
                     this.source, this.sourceWidth, this.sourceHeight, this.knownDuration, this.prefetchMax);
@@ -614,7 +729,11 @@ public final class TxMediaPlayer extends MediaPlayer {
             this.abortCodec();
             if (this.lifecycleSerial == serial) this.clearBuffers();
             IOTool.closeQuietly(reader);
-            if (this.lifecycleSerial == serial) this.activeReader = null;
+            if (this.lifecycleSerial == serial) {
+                this.activeReader = null;
+                this.releaseSource();
+                this.closeDecodeTicket();
+            }
         }
     }
 
@@ -624,7 +743,9 @@ public final class TxMediaPlayer extends MediaPlayer {
         while (!Thread.currentThread().isInterrupted()) {
             // HOT maxSize/LOD CHANGES — FRAMES DECODED FROM NOW ON SCALE TO THE NEW
             // TARGET; FRAMES ALREADY QUEUED KEEP THEIR SIZE AND DRAIN FIRST
-            // (uploadBuffer RECONFIGURES THE ENGINE WHEN THE SIZE FLIPS).
+            // (uploadBuffer RECONFIGURES THE ENGINE WHEN THE SIZE FLIPS). A TARGET
+            // LARGER THAN THE HINTED DECODE REOPENS THE SOURCE AT THE NEW HINT FIRST.
+            reader = this.rehint(reader);
             this.applyTarget();
 
             // STOP
@@ -691,6 +812,14 @@ public final class TxMediaPlayer extends MediaPlayer {
                 continue;
             }
 
+            // GOVERNED PAUSE: HOLD THE CURRENT FRAME WITHOUT DECODING OR ADVANCING THE CLOCK, AND RECHECK EACH
+            // FRAME PERIOD — THE ANIMATION PICKS UP WHERE IT STOPPED ONCE THE GOVERNOR LETS IT GO
+            final DecodeGovernor.Ticket ticket = this.decodeTicket();
+            if (ticket != null && ticket.level() == DecodeGovernor.Level.PAUSED) {
+                this.awaitSignal(Math.max(1L, (long) (this.currentDelayMs / this.speed())));
+                continue;
+            }
+
             // DISPLAY WINDOW: DECODE AHEAD, THEN WAIT OUT THE REMAINDER. THE DEADLINE IS RECOMPUTED
             // FROM THE LIVE speed EACH ITERATION SO A speed(float) CHANGE (WHICH CALLS wake()) RESCALES
             // THIS FRAME INSTEAD OF ONLY TAKING EFFECT NEXT FRAME. SEEK/PAUSE/STOP ALSO SIGNAL THE WAIT.
@@ -786,10 +915,44 @@ public final class TxMediaPlayer extends MediaPlayer {
             return false;
         }
         final int idx = this.nextDecodedIndex++;
+        final long start = System.nanoTime();
         this.prefetchQueue.offerLast(this.snapshot(reader.next(), delayAt(reader, idx), idx));
+        final DecodeGovernor.Ticket ticket = this.decodeTicket();
+        if (ticket != null) ticket.report(System.nanoTime() - start);
         return true;
     }
 
+    // A HOT maxSize/LOD RAISE PAST THE HINTED DECODE SIZE CANNOT BE SERVED BY DOWNSCALING: REOPEN THE SOURCE AT
+    // THE NEW HINT AND DECODE FORWARD TO THE FRAME ON SCREEN, AS A STEP-BACK DOES. A LOWER TARGET KEEPS THE
+    // LARGER DECODE AND SCALES IT DOWN, SO FLIPPING LOD BACK AND FORTH REOPENS AT MOST ONCE PER RAISE.
+    private ImageReader rehint(ImageReader reader) throws IOException {
+        if (this.frameWidth >= this.sourceWidth && this.frameHeight >= this.sourceHeight) return reader;
+        final int percent = this.lod.percent();
+        final int w = MathUtil.scaled(this.sourceWidth, this.scaleWidth, percent);
+        final int h = MathUtil.scaled(this.sourceHeight, this.scaleHeight, percent);
+        if (w <= this.frameWidth && h <= this.frameHeight) return reader;
+        // ONLY A HINT THAT GROWS CAN DECODE LARGER: A READER KEEPING THE ASPECT RATIO UNDER A ONE-AXIS HINT
+        // DELIVERS LESS THAN THE UNHINTED AXIS ASKS FOR, AND REOPENING AT THE SAME HINT WOULD REPEAT FOREVER
+        final int hw = decodeHint(this.scaleWidth, percent), hh = decodeHint(this.scaleHeight, percent);
+        if (!hintGrows(hw, this.hintWidth) && !hintGrows(hh, this.hintHeight)) return reader;
+
+        this.hintWidth = hw;
+        this.hintHeight = hh;
+        this.abortCodec(); // THE PARTIAL TEXTURE HAS THE OLD SIZE
+        this.clearPrefetch();
+        final int target = Math.max(0, this.currentFrameIndex);
+        reader.close();
+        reader = this.openSource();
+        this.frameWidth = reader.width();
+        this.frameHeight = reader.height();
+        this.applyTarget();
+        final ByteBuffer frame = this.seekReaderToFrame(reader, target);
+        if (frame != null) this.uploadFrame(frame);
+        this.nextDecodedIndex = this.currentFrameIndex + 1;
+        this.readerExhausted = false;
+        return reader;
+    }
+
     // PAUSED STEP-FORWARD PREFERS A QUEUED FRAME, THEN DECODES DIRECTLY IF NEEDED.
     private void stepForward(final ImageReader reader) throws IOException {
         this.abortCodec(); // MANUAL STEPPING DESYNCS THE IN-ORDER PASS — DROP THE PARTIAL TEXTURE
@@ -817,8 +980,8 @@ public final class TxMediaPlayer extends MediaPlayer {
     // CODEC CACHE (BC OVER DDS)
     // ==========================================================================
     // READ: a committed BC texture replays straight to the GPU — no fetch, no decode. WRITE: decoded
-    // frames are recompressed to BC and persisted so the next playback takes the read path. Dormant
-    // until a native BC codec is available, so today these helpers no-op transparently.
+    // frames are recompressed to BC and persisted so the next playback takes the read path. Only
+    // active when media.tx.codecCache is on; otherwise these helpers no-op transparently.
 
     // REPLAYS A CACHED BC TEXTURE WHEN ONE EXISTS AND THE ENGINE CAN SAMPLE IT. RETURNS FALSE TO
     // FALL BACK TO THE NORMAL FETCH+DECODE PATH; ENGINE STATE IS ONLY TOUCHED ONCE COMMITTED.
@@ -838,6 +1001,8 @@ public final class TxMediaPlayer extends MediaPlayer {
             super.quality(this.source.qualityOf(uri));
             this.sourceWidth = bc.width();
             this.sourceHeight = bc.height();
+            this.frameWidth = this.sourceWidth;
+            this.frameHeight = this.sourceHeight;
             this.outWidth = this.sourceWidth;
             this.outHeight = this.sourceHeight;
             this.planeCount = 1;
@@ -977,27 +1142,64 @@ public final class TxMediaPlayer extends MediaPlayer {
         final URI uri = this.source.uri(this.quality);
         super.quality(this.source.qualityOf(uri));
         final long maxBytes = this.maxSourceBytes();
+        this.releaseSource();
         try {
-            final NetworkCache.CachedBytes sourceBytes = NetworkCache.read(uri, this.source.headers(), IMAGE_ACCEPT, maxBytes);
+            // A CACHE HIT IS MAPPED READ-ONLY AND DECODED STRAIGHT FROM THE PAGE CACHE (NO HEAP COPY PER
+            // PLAYER); THE LEASE PINS THE ENTRY AGAINST EVICTION UNTIL THE READER IS DROPPED.
+            final NetworkCache.MappedBytes sourceBytes = NetworkCache.map(uri, this.source.headers(), IMAGE_ACCEPT, maxBytes);
+            this.sourceLease = sourceBytes;
             // THE MEDIA TYPE WAS ALREADY DETERMINED AUTHORITATIVELY BY MRL (BY CONTENT-TYPE OR, FOR
             // AMBIGUOUS MIMES, BY BYTE-SNIFFING) AND decodeImage VALIDATES THE ACTUAL BYTES — SO WE DO
             // NOT SECOND-GUESS WITH THE SERVER'S CONTENT-TYPE HEADER, WHICH WOULD WRONGLY REJECT IMAGES
             // SERVED AS application/octet-stream OR text/xml (e.g. SVG)
             // GPU ENGINES (GL/VK) SAMPLE PLANAR YUV DIRECTLY; A SOFTWARE ENGINE (AWT/JavaFX) NEEDS BGRA, SO ASK
             // THE DECODER FOR IT WHEN THE ENGINE WOULD DECLINE THE NATIVE LAYOUT (MIRRORS FFMediaPlayer'S sws FALLBACK).
-            final ByteBuffer bytes = ByteBuffer.wrap(sourceBytes.bytes());
-            final ImageReader reader = this.gfx != null && !this.gfx.supports(PixelFormat.YUV420P)
-                    ? CodecsAPI.decodeImage(bytes, PixelFormat.BGRA)
-                    : CodecsAPI.decodeImage(bytes);
+            final ByteBuffer bytes = sourceBytes.buffer();
+            final ImageReader reader = CodecsAPI.decodeImage(bytes,
+                    this.gfx != null && !this.gfx.supports(PixelFormat.YUV420P) ? PixelFormat.BGRA : null,
+                    this.hintWidth, this.hintHeight);
             this.activeReader = reader;
             return reader;
         } catch (final Throwable t) {
+            this.releaseSource();
             if (t instanceof final IOException io) throw io;
             if (t instanceof final RuntimeException re) throw re;
             throw new IOException("Failed to open image source: " + uri, t);
         }
     }
 
+    // DECODE-SIZE HINT FROM maxSize/LOD: THE UPLOAD TARGET CAN NEVER EXCEED maxSize * LOD ON AN AXIS, SO A READER
+    // THAT DECODES AT LEAST THAT LARGE (JPEG DCT SCALING) LOSES NOTHING. WITHOUT A maxSize THE TARGET DEPENDS ON
+    // THE SOURCE SIZE, WHICH IS UNKNOWN UNTIL THE READER IS OPEN, SO THAT AXIS GOES UNHINTED.
+    private void resolveDecodeHint() {
+        final int percent = this.lod.percent();
+        this.hintWidth = decodeHint(this.scaleWidth, percent);
+        this.hintHeight = decodeHint(this.scaleHeight, percent);
+    }
+
+    private static int decodeHint(final int scale, final int percent) {
+        return scale > 0 ? Math.max(1, (int) Math.ceil(scale * (percent / 100.0))) : 0;
+    }
+
+    // 0 IS UNHINTED, THE LARGEST DECODE THERE IS
+    private static boolean hintGrows(final int hint, final int current) {
+        return current != 0 && (hint == 0 || hint > current);
+    }
+
+    // DROPS THE LEASE ON THE SHARED MODE 2 FRAME SET, LETTING THE RAM TIER EVICT IT. IDEMPOTENT.
+    private void releaseFrames() {
+        final FrameCache.Lease lease = this.framesLease;
+        this.framesLease = null;
+        IOTool.closeQuietly(lease);
+    }
+
+    // DROPS THE LEASE ON THE MAPPED SOURCE BODY, UNPINNING ITS CACHE ENTRY. IDEMPOTENT.
+    private void releaseSource() {
+        final NetworkCache.MappedBytes lease = this.sourceLease;
+        this.sourceLease = null;
+        IOTool.closeQuietly(lease);
+    }
+
     // REWINDS THE READER IN PLACE WHEN THE CODEC SUPPORTS IT; OTHERWISE REOPENS THE SOURCE.
     // RESET AVOIDS RE-READING THE CACHED SOURCE FROM DISK ON EVERY LOOP ITERATION.
     private ImageReader reopen(final ImageReader reader) throws IOException {
@@ -1242,24 +1444,7 @@ public final class TxMediaPlayer extends MediaPlayer {
     // BYTE BUDGET FOR ONE FRAME, TIGHTLY PACKED, AS A FUNCTION OF THE READER'S NATIVE LAYOUT.
     // KEEPS THE BUFFER POOL FORMAT-AGNOSTIC: ALLOCATION SIZE COMES STRAIGHT FROM (CS, W, H).
     private static long totalBufferBytes(final PixelFormat cs, final int w, final int h) {
-        final long pixels = (long) w * h;
-        final long chromaW = (w + 1L) >> 1;
-        final long chromaH = (h + 1L) >> 1;
-        return switch (cs) {
-            case GRAY -> pixels;
-            case YUYV, YUYV2 -> pixels * 2L;
-            case RGB -> pixels * 3L;
-            case BGRA, RGBA, GBRA -> pixels * 4L;
-            case NV12, NV21 -> pixels + 2L * chromaW * chromaH;
-            case YUV420P -> pixels + 2L * chromaW * chromaH;
-            case YUV422P -> pixels + 2L * chromaW * h;
-            case YUV444P -> pixels * 3L;
-            case YUVA420P -> pixels * 2L + 2L * chromaW * chromaH;
-            case YUVA422P -> pixels * 2L + 2L * chromaW * h;
-            case YUVA444P -> pixels * 4L;
-            // BCn: ONE PLANE OF 4x4 BLOCKS — NEVER REACHES THE DECODE POOL, BUT THE BUDGET STAYS HONEST
-            case BC1, BC2, BC3, BC5, BC7 -> ((w + 3L) >> 2) * ((h + 3L) >> 2) * cs.blockBytes();
-        };
+        return cs.frameBytes(w, h);
     }
 
     // COPIES THE REUSED READER BUFFER BEFORE UPLOAD BECAUSE RENDER WORK MAY RUN ASYNCHRONOUSLY.
@@ -1271,7 +1456,7 @@ public final class TxMediaPlayer extends MediaPlayer {
     // TARGET IS ACTIVE) AND LEAVES IT FLIPPED FOR READING.
     private ByteBuffer copyFrame(final ByteBuffer src) {
         final ByteBuffer dst = this.borrowBuffer();
-        if (this.outWidth != this.sourceWidth || this.outHeight != this.sourceHeight) {
+        if (this.outWidth != this.frameWidth || this.outHeight != this.frameHeight) {
             this.scaleFrame(src, dst);
         } else {
             final int savedPos = src.position();
@@ -1286,11 +1471,14 @@ public final class TxMediaPlayer extends MediaPlayer {
     // CHANGE. UNSCALABLE FORMATS UPLOAD AT SOURCE SIZE. CALLED ONLY FROM THE
     // PREPARE/LIFECYCLE THREAD SO outWidth/outHeight NEVER TEAR AGAINST A DECODE.
     private void applyTarget() throws IOException {
-        int w = this.sourceWidth;
-        int h = this.sourceHeight;
+        int w = this.frameWidth;
+        int h = this.frameHeight;
         if (scalable(this.pixelFormat)) {
-            w = MathUtil.scaled(this.sourceWidth, this.scaleWidth, this.lod.percent());
-            h = MathUtil.scaled(this.sourceHeight, this.scaleHeight, this.lod.percent());
+            // THE TARGET FOLLOWS THE SOURCE SIZE AND NEVER UPSCALES; A TARGET OUTGROWING A HINTED DECODE IS
+            // REOPENED LARGER BY rehint BEFORE THIS RUNS WHILE STREAMING; STATIC AND PRELOADED MEDIA KEEP THEIR
+            // DECODE UNTIL THE NEXT start() RESOLVES A NEW HINT
+            w = Math.min(this.frameWidth, MathUtil.scaled(this.sourceWidth, this.scaleWidth, this.lod.percent()));
+            h = Math.min(this.frameHeight, MathUtil.scaled(this.sourceHeight, this.scaleHeight, this.lod.percent()));
         }
         if (w == this.outWidth && h == this.outHeight) return;
         final long byteSize = totalBufferBytes(this.pixelFormat, w, h);
@@ -1309,85 +1497,14 @@ public final class TxMediaPlayer extends MediaPlayer {
     // FORMATS THE JAVA AREA SCALER UNDERSTANDS — PACKED YUYV VARIANTS ARE EXCLUDED
     // (PIXEL PAIRS SHARE CHROMA; AVERAGING THEM BYTE-WISE WOULD MIX COMPONENTS).
     private static boolean scalable(final PixelFormat cs) {
-        return cs != PixelFormat.YUYV && cs != PixelFormat.YUYV2;
+        return FrameScaler.supports(cs);
     }
 
     // DOWNSCALES A READER FRAME (TIGHTLY PACKED PLANE LAYOUT) INTO dst AT THE UPLOAD
-    // TARGET. MIRRORS THE PLANE LAYOUT USED BY totalBufferBytes/uploadMultiPlane.
+    // TARGET. FrameScaler MIRRORS THE PLANE LAYOUT USED BY totalBufferBytes/uploadMultiPlane.
     private void scaleFrame(final ByteBuffer src, final ByteBuffer dst) {
-        final int sw = this.sourceWidth;
-        final int sh = this.sourceHeight;
-        final int dw = this.outWidth;
-        final int dh = this.outHeight;
-        final int base = src.position();
-        switch (this.pixelFormat) {
-            case GRAY -> scaleArea(src, base, sw, sh, dst, dw, dh, 1);
-            case RGB -> scaleArea(src, base, sw, sh, dst, dw, dh, 3);
-            case BGRA, RGBA, GBRA -> scaleArea(src, base, sw, sh, dst, dw, dh, 4);
-            case NV12, NV21 -> {
-                scaleArea(src, base, sw, sh, dst, dw, dh, 1);
-                scaleArea(src, base + sw * sh, (sw + 1) >> 1, (sh + 1) >> 1, dst, (dw + 1) >> 1, (dh + 1) >> 1, 2);
-            }
-            case YUV420P, YUVA420P -> {
-                final int scw = (sw + 1) >> 1;
-                final int sch = (sh + 1) >> 1;
-                final int dcw = (dw + 1) >> 1;
-                final int dch = (dh + 1) >> 1;
-                scaleArea(src, base, sw, sh, dst, dw, dh, 1);
-                scaleArea(src, base + sw * sh, scw, sch, dst, dcw, dch, 1);
-                scaleArea(src, base + sw * sh + scw * sch, scw, sch, dst, dcw, dch, 1);
-                if (this.pixelFormat == PixelFormat.YUVA420P) {
-                    scaleArea(src, base + sw * sh + 2 * scw * sch, sw, sh, dst, dw, dh, 1);
-                }
-            }
-            case YUV422P, YUVA422P -> {
-                final int scw = (sw + 1) >> 1;
-                final int dcw = (dw + 1) >> 1;
-                scaleArea(src, base, sw, sh, dst, dw, dh, 1);
-                scaleArea(src, base + sw * sh, scw, sh, dst, dcw, dh, 1);
-                scaleArea(src, base + sw * sh + scw * sh, scw, sh, dst, dcw, dh, 1);
-                if (this.pixelFormat == PixelFormat.YUVA422P) {
-                    scaleArea(src, base + sw * sh + 2 * scw * sh, sw, sh, dst, dw, dh, 1);
-                }
-            }
-            case YUV444P, YUVA444P -> {
-                final int planes = this.pixelFormat == PixelFormat.YUVA444P ? 4 : 3;
-                for (int p = 0; p < planes; p++) {
-                    scaleArea(src, base + p * sw * sh, sw, sh, dst, dw, dh, 1);
-                }
-            }
-            default -> {
-                // UNREACHABLE — applyTarget NEVER ACTIVATES A TARGET FOR UNSCALABLE FORMATS
-                final int savedPos = src.position();
-                dst.put(src);
-                src.position(savedPos);
-            }
-        }
-    }
-
-    // AREA-AVERAGE DOWNSCALE OF AN 8-BIT PLANE WITH ch INTERLEAVED COMPONENTS.
-    // EACH OUTPUT PIXEL AVERAGES ITS WHOLE SOURCE BLOCK, SO STRONG REDUCTIONS
-    // (LOD FAR/FAR_AWAY) STAY ALIAS-FREE. READS src ABSOLUTE, WRITES dst RELATIVE.
-    private static void scaleArea(final ByteBuffer src, final int srcOff, final int sw, final int sh,
-                                  final ByteBuffer dst, final int dw, final int dh, final int ch) {
-        final int[] acc = new int[ch];
-        for (int dy = 0; dy < dh; dy++) {
-            final int sy0 = (int) ((long) dy * sh / dh);
-            final int sy1 = Math.max(sy0 + 1, (int) ((long) (dy + 1) * sh / dh));
-            for (int dx = 0; dx < dw; dx++) {
-                final int sx0 = (int) ((long) dx * sw / dw);
-                final int sx1 = Math.max(sx0 + 1, (int) ((long) (dx + 1) * sw / dw));
-                Arrays.fill(acc, 0);
-                for (int sy = sy0; sy < sy1; sy++) {
-                    int p = srcOff + (sy * sw + sx0) * ch;
-                    for (int sx = sx0; sx < sx1; sx++) {
-                        for (int c = 0; c < ch; c++) acc[c] += src.get(p++) & 0xFF;
-                    }
-                }
-                final int count = (sy1 - sy0) * (sx1 - sx0);
-                for (int c = 0; c < ch; c++) dst.put((byte) (acc[c] / count));
-            }
-        }
+        FrameScaler.scale(this.pixelFormat, src, this.frameWidth, this.frameHeight,
+                dst, this.outWidth, this.outHeight, WaterMediaConfig.media.tx.scaleFilter);
     }
 
     private PrefetchedFrame snapshot(final ByteBuffer frame, final long delay, final int idx) {
@@ -1435,6 +1552,7 @@ public final class TxMediaPlayer extends MediaPlayer {
         this.outHeight = 0;
         this.texTimeline = null;
         this.texDelays = null;
+        this.staticMips = null;
         // staticTimed IS RE-DERIVED AT LOAD (showStatic); displayTimeMs IS USER CONFIG AND PERSISTS
         this.staticTimed = false;
         this.lifecycleThread = null;
@@ -1638,4 +1756,26 @@ public final class TxMediaPlayer extends MediaPlayer {
     // SINGLE PRE-DECODED FRAME HELD IN THE PREFETCH QUEUE. CARRIES ITS OWN UPLOAD
     // DIMENSIONS SO FRAMES QUEUED BEFORE A HOT maxSize/LOD CHANGE DRAIN CORRECTLY.
     private record PrefetchedFrame(ByteBuffer pixels, long delay, int index, int width, int height) {}
+
+    // A STATIC SVG'S MIP CHAIN (LEVEL i IS max(1, base >> i) ON EACH AXIS), THE TARGET SIZES ALREADY CUT FROM
+    // IT AND THE SIZE CURRENTLY UPLOADED. MUTABLE STATE IS GUARDED BY THE INSTANCE MONITOR
+    private static final class StaticMips {
+        // maxSize IS FREE-FORM, SO THE MEMO IS BOUNDED; THE FIVE LOD LEVELS OF ONE maxSize ALWAYS FIT
+        private static final int MAX_SIZES = 8;
+
+        private final ByteBuffer[] levels;
+        private final int baseWidth;
+        private final int baseHeight;
+        private final Map<Long, ByteBuffer> sizes = new HashMap<>();
+        private int width;
+        private int height;
+
+        StaticMips(final ByteBuffer[] levels, final int baseWidth, final int baseHeight, final int width, final int height) {
+            this.levels = levels;
+            this.baseWidth = baseWidth;
+            this.baseHeight = baseHeight;
+            this.width = width;
+            this.height = height;
+        }
+    }
 }
@@ -0,0 +1,325 @@
+package org.watermedia.api.media.players.util;
+
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.MarkerManager;
+import org.watermedia.WaterMediaConfig;
+import org.watermedia.tools.ThreadTool;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+import static org.watermedia.WaterMedia.LOGGER;
+
+/**
+ * Process-wide decode budget shared by every player, whatever decodes its frames.
+ * <p>
+ * Players {@link #register register} while they decode and {@link Ticket#report report} the time
+ * they spend decoding and converting frames. The governor turns those reports into a load — decode
+ * time per second, relative to a budget of cores — and, when the load stays above budget, degrades
+ * the lowest-priority players one {@link Level} at a time: fewer frames out, then no non-reference
+ * frames, then keyframes only, then no video decode at all. When the load falls well below budget
+ * it restores the highest-priority degraded player first, more slowly than it degraded, so a
+ * restore that overshoots the budget does not oscillate.
+ * <p>
+ * Priority is a hint each player samples for itself: higher is more important, and
+ * {@link #HIDDEN} or below marks a video nobody sees. A visible player never goes past
+ * {@link Level#KEYFRAMES} — its picture keeps moving, however choppy. Each player registers the
+ * levels it can honor, and the governor only ever moves it between those, skipping the rest in
+ * both directions: a step spent on a level the player would not act on saves nothing and is taken
+ * from a player that would. Nothing runs on its own thread: each evaluation happens
+ * inside a {@link Ticket#report report} or {@link Ticket#level() level} call once the previous one
+ * is old enough.
+ */
+public final class DecodeGovernor {
+    private static final Marker IT = MarkerManager.getMarker(DecodeGovernor.class.getSimpleName());
+
+    /** Priority of a player whose video is not on screen; visible players rank above it. */
+    public static final int HIDDEN = 0;
+
+    private static final long EVALUATE_NS = 250_000_000L;
+    // DEGRADE ABOVE HIGH, RESTORE BELOW LOW — THE GAP KEEPS ONE RESTORE FROM UNDOING THE LAST DEGRADE
+    private static final double HIGH_LOAD = 0.9;
+    private static final double LOW_LOAD = 0.6;
+    // EVALUATIONS THE LOAD MUST STAY LOW BEFORE EACH RESTORE STEP: 1s, AGAINST 250ms TO DEGRADE
+    private static final int RESTORE_EVALUATIONS = 4;
+    // EACH 0.1 OF OVERLOAD ABOVE HIGH_LOAD TAKES ONE MORE STEP PER EVALUATION, SO A SUDDEN PILE-UP
+    // OF PLAYERS SETTLES IN A FEW EVALUATIONS INSTEAD OF ONE STEP AT A TIME
+    private static final double LOAD_PER_STEP = 0.1;
+
+    private final double budgetCores;
+    private final Set<Ticket> tickets = ConcurrentHashMap.newKeySet();
+    private final AtomicLong nextEvaluation = new AtomicLong(System.nanoTime() + EVALUATE_NS);
+    // WRITTEN ONLY BY THE THREAD THAT WON THE nextEvaluation CAS; VOLATILE BECAUSE THE NEXT WINNER IS
+    // USUALLY ANOTHER PLAYER'S THREAD, AND THE CAS ITSELF HAPPENS BEFORE THESE WRITES
+    private volatile long lastEvaluation = System.nanoTime();
+    private volatile int calmEvaluations;
+    private volatile double load;
+
+    /**
+     * Creates a governor with its own budget. Players share {@link #global()}; a separate governor is
+     * only useful to isolate players, as tests do.
+     * @param budgetCores decode time per second the players may spend together, in cores
+     * @throws IllegalArgumentException if budgetCores is not positive
+     */
+    public DecodeGovernor(final double budgetCores) {
+        if (!(budgetCores > 0)) throw new IllegalArgumentException("budgetCores: " + budgetCores);
+        this.budgetCores = budgetCores;
+    }
+
+    /**
+     * Returns the governor every player reports to when {@code media.decodeGovernor} is enabled. Created
+     * on first use with a budget of {@code media.decodeBudget} cores, three quarters of the processors
+     * when 0.
+     * @return the global governor
+     */
+    public static DecodeGovernor global() {
+        return Global.INSTANCE;
+    }
+
+    /**
+     * Starts governing a player that honors every level up to {@code deepest}.
+     * @param name player name for logs and telemetry
+     * @param priority sampled on every evaluation; higher degrades last, {@link #HIDDEN} or below first
+     * @param deepest the furthest this player may be degraded; players without audio usually stop
+     *                at {@link Level#KEYFRAMES}, since pausing their video pauses everything they play
+     * @return the player's ticket
+     * @see #register(String, IntSupplier, Set)
+     */
+    public Ticket register(final String name, final IntSupplier priority, final Level deepest) {
+        return this.register(name, priority, EnumSet.range(Level.FULL, deepest));
+    }
+
+    /**
+     * Starts governing a player. Close the ticket when the player stops decoding.
+     * @param name player name for logs and telemetry
+     * @param priority sampled on every evaluation; higher degrades last, {@link #HIDDEN} or below first
+     * @param levels the levels the player acts on; {@link Level#FULL} is implied. A player that can only
+     *               stop decoding registers {@link Level#PAUSED} alone, and is never degraded while visible
+     * @return the player's ticket
+     */
+    public Ticket register(final String name, final IntSupplier priority, final Set<Level> levels) {
+        final EnumSet<Level> honored = EnumSet.of(Level.FULL);
+        honored.addAll(levels);
+        final Ticket ticket = new Ticket(this, name, priority, honored);
+        this.tickets.add(ticket);
+        return ticket;
+    }
+
+    /** Budget the players share, in cores. */
+    public double budgetCores() {
+        return this.budgetCores;
+    }
+
+    /** Load at the last evaluation: decode time per second over {@link #budgetCores()}. */
+    public double load() {
+        return this.load;
+    }
+
+    /**
+     * Returns the current decision for every governed player, highest priority first.
+     * @return one {@link Decision} per open ticket
+     */
+    public List<Decision> decisions() {
+        final List<Decision> decisions = new ArrayList<>(this.tickets.size());
+        for (final Ticket ticket: this.tickets) decisions.add(ticket.decision());
+        decisions.sort(Comparator.comparingInt(Decision::priority).reversed());
+        return decisions;
+    }
+
+    private void maybeEvaluate() {
+        final long now = System.nanoTime();
+        final long due = this.nextEvaluation.get();
+        if (now - due < 0 || !this.nextEvaluation.compareAndSet(due, now + EVALUATE_NS)) return;
+        this.evaluate(now);
+    }
+
+    private void evaluate(final long now) {
+        final long window = Math.max(1L, now - this.lastEvaluation);
+        this.lastEvaluation = now;
+
+        final List<Ticket> tickets = new ArrayList<>(this.tickets);
+        double cores = 0;
+        for (final Ticket ticket: tickets) {
+            ticket.rank = ticket.priority.getAsInt();
+            ticket.cores = (double) ticket.spentNs.getAndSet(0) / window;
+            cores += ticket.cores;
+            // A PLAYER THAT CAME INTO VIEW (OR LOST ITS DEEPEST LEVEL) IS LIFTED AT ONCE
+            final Level cap = ticket.cap();
+            if (ticket.level.ordinal() > cap.ordinal()) ticket.move(cap, now, "capped");
+        }
+        final double load = cores / this.budgetCores;
+        this.load = load;
+
+        if (load > HIGH_LOAD) {
+            this.calmEvaluations = 0;
+            // LOWEST PRIORITY FIRST; AMONG EQUALS THE ONE DECODING THE MOST SAVES THE MOST
+            tickets.sort(Comparator.<Ticket>comparingInt(t -> t.rank).thenComparingDouble(t -> -t.cores));
+            // A PLAYER IS DEGRADED AS FAR AS IT MAY GO BEFORE THE NEXT ONE UP IS TOUCHED
+            int steps = 1 + (int) ((load - HIGH_LOAD) / LOAD_PER_STEP);
+            for (final Ticket ticket: tickets) {
+                Level next;
+                while (steps > 0 && (next = ticket.deeper()) != null) {
+                    ticket.move(next, now, String.format("load %.2f", load));
+                    steps--;
+                }
+                if (steps == 0) break;
+            }
+        } else if (load < LOW_LOAD && ++this.calmEvaluations >= RESTORE_EVALUATIONS) {
+            this.calmEvaluations = 0;
+            Ticket best = null;
+            for (final Ticket ticket: tickets) {
+                if (ticket.level == Level.FULL) continue;
+                if (best == null || ticket.rank > best.rank || (ticket.rank == best.rank && ticket.level.ordinal() < best.level.ordinal())) {
+                    best = ticket;
+                }
+            }
+            if (best != null) best.move(best.milder(), now, String.format("load %.2f", load));
+        } else if (load >= LOW_LOAD) {
+            this.calmEvaluations = 0;
+        }
+    }
+
+    /**
+     * How far a player's decode is degraded, mildest first. What a level means for a given player is
+     * up to it; a player is only ever moved to the levels it registered.
+     */
+    public enum Level {
+        /** Every frame is decoded and shown. */
+        FULL,
+        /** Every frame is decoded, but only every second one is converted and shown. */
+        REDUCED_FPS,
+        /** Frames no other frame depends on are not decoded. */
+        SKIP_NONREF,
+        /** Only keyframes are decoded. */
+        KEYFRAMES,
+        /** No video is decoded; audio, clock and status carry on. */
+        PAUSED
+    }
+
+    /**
+     * Snapshot of the governor's view of one player, for tuning.
+     * @param name the name the player registered with
+     * @param priority priority at the last evaluation
+     * @param level current level
+     * @param cores decode time per second the player spent over the last evaluation window, in cores
+     * @param load load of the whole governor at the last evaluation
+     * @param changes how many times the level has changed
+     * @param reason why the level last changed, or null if it never did
+     * @param sinceMs milliseconds since the level last changed, or since registration
+     */
+    public record Decision(String name, int priority, Level level, double cores, double load, int changes,
+                           String reason, long sinceMs) {
+    }
+
+    /** A governed player's handle: reports its decode work and reads the level to decode at. */
+    public static final class Ticket {
+        private final DecodeGovernor owner;
+        private final String name;
+        private final IntSupplier priority;
+        private final Set<Level> levels;
+        private final AtomicLong spentNs = new AtomicLong();
+        private volatile Level level = Level.FULL;
+        private volatile int changes;
+        private volatile String reason;
+        private volatile long changedAt = System.nanoTime();
+        // WRITTEN ONLY BY THE EVALUATING THREAD; VOLATILE FOR decision() READERS
+        private volatile int rank;
+        private volatile double cores;
+
+        private Ticket(final DecodeGovernor owner, final String name, final IntSupplier priority, final Set<Level> levels) {
+            this.owner = owner;
+            this.name = name;
+            this.priority = priority;
+            this.levels = levels;
+            this.rank = priority.getAsInt();
+        }
+
+        /**
+         * Adds decode work the player just did. Call it as often as convenient; it only adds to a counter
+         * and, at most every 250ms, runs an evaluation.
+         * @param nanos time spent decoding or converting frames
+         */
+        public void report(final long nanos) {
+            if (nanos > 0) this.spentNs.addAndGet(nanos);
+            this.owner.maybeEvaluate();
+        }
+
+        /**
+         * Returns the level the player should decode at now.
+         * @return the current level, {@link Level#FULL} once the ticket is closed
+         */
+        public Level level() {
+            this.owner.maybeEvaluate();
+            return this.level;
+        }
+
+        /** Returns the governor's current view of this player. */
+        public Decision decision() {
+            return new Decision(this.name, this.rank, this.level, this.cores, this.owner.load, this.changes,
+                    this.reason, (System.nanoTime() - this.changedAt) / 1_000_000L);
+        }
+
+        /** Stops governing the player; its decode work no longer counts against the budget. */
+        public void close() {
+            this.owner.tickets.remove(this);
+            this.level = Level.FULL;
+        }
+
+        @Override
+        public String toString() {
+            return this.name;
+        }
+
+        // THE DEEPEST REGISTERED LEVEL THE PLAYER MAY REACH NOW. VISIBLE PLAYERS KEEP A MOVING PICTURE — NEVER
+        // PAUSED, WHATEVER THEY REGISTERED WITH
+        private Level cap() {
+            final Level limit = this.rank > HIDDEN ? Level.KEYFRAMES : Level.PAUSED;
+            Level cap = Level.FULL;
+            for (final Level level: this.levels) {
+                if (level.ordinal() <= limit.ordinal()) cap = level; // ENUMSET ITERATES IN ORDINAL ORDER
+            }
+            return cap;
+        }
+
+        // THE NEXT REGISTERED LEVEL BELOW THE CURRENT ONE, OR NULL AT THE CAP
+        private Level deeper() {
+            final Level cap = this.cap();
+            for (int i = this.level.ordinal() + 1; i <= cap.ordinal(); i++) {
+                if (this.levels.contains(Level.values()[i])) return Level.values()[i];
+            }
+            return null;
+        }
+
+        // THE NEXT REGISTERED LEVEL ABOVE THE CURRENT ONE; FULL IS ALWAYS REGISTERED
+        private Level milder() {
+            for (int i = this.level.ordinal() - 1; i > 0; i--) {
+                if (this.levels.contains(Level.values()[i])) return Level.values()[i];
+            }
+            return Level.FULL;
+        }
+
+        private void move(final Level level, final long now, final String reason) {
+            LOGGER.debug(IT, "Decode of '{}' {} → {} (priority {}, {})", this.name, this.level, level, this.rank, reason);
+            this.level = level;
+            this.reason = reason;
+            this.changedAt = now;
+            this.changes++;
+        }
+    }
+
+    // LAZY HOLDER: THE GOVERNOR (AND ITS CONFIG READ) ONLY EXISTS ONCE A PLAYER REGISTERS
+    private static final class Global {
+        private static final DecodeGovernor INSTANCE = new DecodeGovernor(budget());
+
+        private static double budget() {
+            final float configured = WaterMediaConfig.media.decodeBudget;
+            return configured > 0 ? configured : Math.max(1.0, ThreadTool.maxThreads() * 0.75);
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package org.watermedia.api.media.players.util;
+
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.MarkerManager;
+import org.watermedia.WaterMediaConfig;
+import org.watermedia.tools.ThreadTool;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+import static org.watermedia.WaterMedia.LOGGER;
+
+/**
+ * Fixed pool of worker threads running the decode work of many players as cooperative tasks.
+ * <p>
+ * A task's {@link Work} never blocks: each {@link Work#step()} does a bounded piece of work (typically
+ * one packet) and reports whether it made progress, has to wait for input or for room in its output, or
+ * is done. A worker keeps stepping the same task for up to a short time slice, then puts it back so the
+ * other tasks get a turn. A waiting task parks until {@link Task#wake()} or a short backoff timeout,
+ * whichever comes first — producers wake their consumer to resume it at once, and a missed wake only
+ * costs a few milliseconds.
+ * <p>
+ * Ready tasks run by priority, highest first, and round-robin within a priority. The priority is sampled
+ * each time a task becomes ready, so hints such as visibility or LOD apply from its next turn. Lower
+ * priorities get the cycles the higher ones leave over; decoders bounded by their frame queues leave
+ * plenty unless the pool is overloaded.
+ */
+public final class DecodeScheduler {
+    private static final Marker IT = MarkerManager.getMarker(DecodeScheduler.class.getSimpleName());
+    private static final ThreadFactory FACTORY = ThreadTool.createFactory("FFDecode", Thread.NORM_PRIORITY);
+
+    // LONGEST STRETCH ONE TASK KEEPS A WORKER WHILE IT STILL HAS WORK — ROUGHLY ONE 1080P FRAME
+    private static final long SLICE_NS = 4_000_000L;
+    // PARKED TASKS ARE RECHECKED AFTER THIS, DOUBLING WHILE THEY STAY IDLE. THE CAP BOUNDS THE
+    // LATENCY OF A MISSED WAKE; THE FLOOR IS THE 1MS POLL THE PLAYER THREADS ALREADY USE
+    private static final long PARK_MIN_NS = 1_000_000L;
+    private static final long PARK_MAX_NS = 8_000_000L;
+
+    private static final int READY = 0;
+    private static final int RUNNING = 1;
+    private static final int PARKED = 2;
+    private static final int DONE = 3;
+
+    private final PriorityBlockingQueue<Task> ready = new PriorityBlockingQueue<>(64, (a, b) -> a.rank != b.rank
+            ? Integer.compare(b.rank, a.rank)
+            : Long.compare(a.order, b.order));
+    // BACKOFF OF EVERY PARKED TASK, EARLIEST FIRST; wake() TAKES A TASK'S ENTRY OUT AGAIN
+    private final DelayQueue<Parking> parked = new DelayQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Thread[] workers;
+
+    /**
+     * Starts a pool with its own worker threads. Players share {@link #shared()}; a separate pool is
+     * only useful to isolate work, as tests do.
+     * @param threads worker count, at least 1
+     * @throws IllegalArgumentException if threads is below 1
+     */
+    public DecodeScheduler(final int threads) {
+        if (threads < 1) throw new IllegalArgumentException("threads: " + threads);
+        this.workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            this.workers[i] = FACTORY.newThread(this::work);
+            this.workers[i].start();
+        }
+    }
+
+    /**
+     * Returns the pool every {@link org.watermedia.api.media.players.FFMediaPlayer FFMediaPlayer} decodes
+     * on when {@code media.ffmpeg.sharedDecodePool} is enabled. Created on first use with
+     * {@code media.ffmpeg.decodePoolThreads} workers, one per core when 0.
+     * @return the shared pool
+     */
+    public static DecodeScheduler shared() {
+        return Shared.INSTANCE;
+    }
+
+    /**
+     * Schedules a task. Its first step runs as soon as a worker is free.
+     * @param name task name for logs
+     * @param work the steps to run
+     * @param priority sampled whenever the task becomes ready; higher runs first
+     * @return the handle to wake, cancel or join the task
+     */
+    public Task submit(final String name, final Work work, final IntSupplier priority) {
+        final Task task = new Task(this, name, work, priority);
+        this.offer(task);
+        return task;
+    }
+
+    /** Number of worker threads. */
+    public int threads() {
+        return this.workers.length;
+    }
+
+    /**
+     * Stops the workers. Tasks still queued or parked never run again, so cancel and join them first.
+     * The {@link #shared()} pool lives as long as the process.
+     */
+    public void shutdown() {
+        for (final Thread worker: this.workers) worker.interrupt();
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            final Task task;
+            try {
+                // WITH NOTHING READY, SLEEP UNTIL THE EARLIEST BACKOFF RUNS OUT, OR UNTIL AN OFFER WHEN NOTHING IS
+                // PARKED. NO BACKOFF GOES UNWATCHED: THE WORKER THAT PARKS A TASK COMES BACK HERE BEFORE IT SLEEPS
+                final Parking next = this.parked.peek();
+                task = next == null
+                        ? this.ready.take()
+                        : this.ready.poll(next.getDelay(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            this.resumeExpired();
+            if (task != null) this.run(task);
+        }
+    }
+
+    private void run(final Task task) {
+        if (!task.state.compareAndSet(READY, RUNNING)) return;
+        final long start = System.nanoTime();
+        Step step = Step.PROGRESS;
+        try {
+            while (!task.cancelled) {
+                // A wake() FROM HERE ON IS SEEN BY THIS STEP OR KEEPS THE TASK FROM PARKING BELOW
+                task.signalled = false;
+                step = task.work.step();
+                if (step != Step.PROGRESS || System.nanoTime() - start >= SLICE_NS) break;
+            }
+        } catch (final Throwable e) {
+            LOGGER.error(IT, "Decode task '{}' failed — stopping it", task.name, e);
+            step = Step.DONE;
+        }
+
+        if (task.cancelled || step == Step.DONE) {
+            this.finish(task);
+        } else if (step == Step.PROGRESS) {
+            task.parkNs = 0;
+            task.state.set(READY);
+            this.offer(task);
+        } else {
+            task.parkNs = task.parkNs == 0 ? PARK_MIN_NS : Math.min(PARK_MAX_NS, task.parkNs * 2);
+            final Parking parking = new Parking(task, System.nanoTime() + task.parkNs);
+            task.parking = parking;
+            this.parked.offer(parking);
+            task.state.set(PARKED);
+            // A wake() OR cancel() THAT LANDED WHILE THE STEP RAN MUST NOT BE LOST
+            if (task.signalled || task.cancelled) this.resume(task);
+        }
+    }
+
+    private void finish(final Task task) {
+        task.state.set(DONE);
+        try {
+            task.work.close();
+        } catch (final Throwable e) {
+            LOGGER.error(IT, "Decode task '{}' failed to close", task.name, e);
+        } finally {
+            task.done.countDown();
+        }
+    }
+
+    private void offer(final Task task) {
+        // A CANCELLED TASK ONLY HAS ITS close() LEFT — RUN IT FIRST SO THE JOINING THREAD IS NOT HELD UP
+        task.rank = task.cancelled ? Integer.MAX_VALUE : task.priority.getAsInt();
+        task.order = this.sequence.getAndIncrement();
+        this.ready.offer(task);
+    }
+
+    private void resume(final Task task) {
+        if (task.state.compareAndSet(PARKED, READY)) {
+            // SO A WOKEN TASK'S BACKOFF NO LONGER SETS HOW LONG THE IDLE WORKERS SLEEP
+            this.parked.remove(task.parking);
+            this.offer(task);
+        }
+    }
+
+    // REQUEUES THE PARKED TASKS WHOSE BACKOFF RAN OUT
+    private void resumeExpired() {
+        Parking parking;
+        while ((parking = this.parked.poll()) != null) {
+            // AN ENTRY TAKEN JUST AS ITS TASK WAS WOKEN MUST NOT CUT THE TASK'S NEXT BACKOFF SHORT
+            if (parking.task.parking == parking) this.resume(parking.task);
+        }
+    }
+
+    /** Outcome of one {@link Work#step()}. */
+    public enum Step {
+        /** Did some work and may have more — the task stays ready. */
+        PROGRESS,
+        /** Cannot go on until input arrives or output frees up — the task parks. */
+        IDLE,
+        /** Finished for good — {@link Work#close()} runs next. */
+        DONE
+    }
+
+    /**
+     * Resumable unit of decode work. Both methods run on a pool worker, never two at once for the same task.
+     */
+    public interface Work {
+        /**
+         * Runs a bounded amount of work without blocking: where a thread would wait on a queue, return
+         * {@link Step#IDLE} and pick up from the same spot on the next call.
+         * @return what the task needs next
+         */
+        Step step();
+
+        /** Releases the task's resources. Runs once, after the last step or after {@link Task#cancel()}. */
+        void close();
+    }
+
+    /** Handle of a submitted {@link Work}. */
+    public static final class Task {
+        private final DecodeScheduler owner;
+        private final String name;
+        private final Work work;
+        private final IntSupplier priority;
+        private final AtomicInteger state = new AtomicInteger(READY);
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile boolean signalled;
+        private volatile boolean cancelled;
+        // WRITTEN ONLY WHILE THE TASK IS OUT OF THE READY QUEUE — THE STATE HANDOFF PUBLISHES THEM
+        private int rank;
+        private long order;
+        private long parkNs;
+        private volatile Parking parking;
+
+        private Task(final DecodeScheduler owner, final String name, final Work work, final IntSupplier priority) {
+            this.owner = owner;
+            this.name = name;
+            this.work = work;
+            this.priority = priority;
+        }
+
+        /**
+         * Signals that input or output room became available. Resumes the task at once when it is parked;
+         * while it runs, keeps it from parking after the current step. Cheap enough to call on every handoff.
+         */
+        public void wake() {
+            this.signalled = true;
+            this.owner.resume(this);
+        }
+
+        /** Stops the task: no further step starts, and {@link Work#close()} runs on a worker. */
+        public void cancel() {
+            this.cancelled = true;
+            this.owner.resume(this);
+        }
+
+        /** True once {@link Work#close()} has run. */
+        public boolean done() {
+            return this.done.getCount() == 0;
+        }
+
+        /**
+         * Waits until {@link Work#close()} has run. Like {@link ThreadTool#join(Thread)} it keeps waiting
+         * through interrupts and restores the status afterwards.
+         * @return false if the calling thread was interrupted while waiting
+         */
+        public boolean join() {
+            boolean interrupted = false;
+            while (this.done.getCount() > 0) {
+                try {
+                    this.done.await();
+                } catch (final InterruptedException e) {
+                    interrupted = true; // KEEP WAITING — RESTORE THE STATUS ONCE THE TASK IS CLOSED
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+            return !interrupted;
+        }
+
+        @Override
+        public String toString() {
+            return this.name;
+        }
+    }
+
+    // ONE BACKOFF OF A PARKED TASK
+    private record Parking(Task task, long wakeAt) implements Delayed {
+        @Override
+        public long getDelay(final TimeUnit unit) {
+            return unit.convert(this.wakeAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(final Delayed other) {
+            return Long.compare(this.wakeAt - ((Parking) other).wakeAt, 0); // nanoTime MAY WRAP
+        }
+    }
+
+    // LAZY HOLDER: THE POOL (AND ITS CONFIG READ) ONLY EXISTS ONCE A PLAYER OPTS IN
+    private static final class Shared {
+        private static final DecodeScheduler INSTANCE = new DecodeScheduler(threads());
+
+        private static int threads() {
+            final int configured = WaterMediaConfig.media.ffmpeg.decodePoolThreads;
+            return configured > 0 ? configured : ThreadTool.maxThreads();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package org.watermedia.api.media.players.util;
+
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.MarkerManager;
+import org.watermedia.WaterMediaConfig;
+import org.watermedia.api.codecs.ImageData;
+import org.watermedia.api.util.RequestHeaders;
+import org.watermedia.api.util.WeightedLru;
+import org.watermedia.tools.DataTool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+
+import static org.watermedia.WaterMedia.LOGGER;
+
+/**
+ * Process-wide RAM tier of decoded {@link ImageData} frame sets, layered above {@link NetworkCache}.
+ * <p>
+ * When many players show the same animated image, only the first one decodes it: concurrent
+ * {@link #acquire} calls for the same source ride that single decode, and later calls reuse the
+ * retained result. Every caller gets a {@link Lease} whose frames are independent views over one
+ * shared set of direct buffers, so positions never interfere while the pixel memory exists once.
+ * <p>
+ * Sets are keyed like the disk tiers (URI, request headers and Accept, via
+ * {@link NetworkCache}'s key hash) plus a caller-chosen variant for the decoded layout. Retained
+ * bytes are bounded by {@code media.tx.framesBudget}: once over it, the least recently used sets
+ * with no open lease are dropped. Leased sets are never dropped; a set larger than the whole budget,
+ * or one decoded from an already-expired body, is shared with concurrent callers but not retained.
+ * Budget {@code 0} disables sharing altogether.
+ * <p>
+ * The buffers are plain direct buffers reclaimed by the GC, so dropping a set is always safe — an
+ * engine still holding one keeps it alive; the lease only decides what the budget accounts for.
+ */
+public final class FrameCache {
+    private static final Marker IT = MarkerManager.getMarker(FrameCache.class.getSimpleName());
+
+    // KEY = hex(NetworkCache.keyHash) + '/' + variant, WEIGHED BY THE RETAINED FRAME BYTES (0 WHILE DECODING).
+    // LEASED SETS ARE PINNED. SLOTS AND EVERY Slot.refs ARE GUARDED BY THE FrameCache.class MONITOR.
+    private static final WeightedLru<String, Slot> SLOTS = new WeightedLru<>(slot -> slot.refs > 0);
+
+    private FrameCache() {}
+
+    /** Produces the decoded frame set on a miss; runs on the first caller's thread. */
+    @FunctionalInterface
+    public interface Loader {
+        ImageData load() throws IOException;
+    }
+
+    /**
+     * Returns a lease on the decoded frame set for a source, decoding it through {@code loader}
+     * only when no shared copy exists or is being produced. Concurrent callers for the same key
+     * wait for the in-progress decode instead of starting their own; if that decode fails, each
+     * waiter retries with its own loader.
+     *
+     * @param variant   distinguishes decodes of the same source that differ in layout (e.g. the
+     *                  reader's output pixel format)
+     * @param expiresAt expiry of the source body; sets decoded from an expired body are not retained
+     * @throws IOException when the loader fails or the wait is interrupted
+     */
+    public static Lease acquire(final URI uri, final RequestHeaders headers, final String accept, final String variant,
+                                final long expiresAt, final Loader loader) throws IOException {
+        final long budget = budget();
+        if (budget <= 0L || expiresAt <= System.currentTimeMillis()) {
+            return new Lease(null, loader.load());
+        }
+
+        final String key = DataTool.hex(NetworkCache.keyHash(uri, headers, accept)) + '/' + variant;
+        while (true) {
+            final Slot slot;
+            final boolean leader;
+            synchronized (FrameCache.class) {
+                final Slot current = SLOTS.get(key);
+                // A SET DECODED FROM A SINCE-EXPIRED BODY IS REPLACED; ITS OPEN LEASES KEEP THEIR FRAMES
+                if (current == null || current.stale()) {
+                    if (current != null) SLOTS.remove(key, current);
+                    slot = new Slot(key, expiresAt);
+                    SLOTS.put(key, slot, 0L);
+                    leader = true;
+                } else {
+                    slot = current;
+                    leader = false;
+                }
+                slot.refs++;
+            }
+
+            if (leader) return new Lease(slot, produce(slot, loader, budget));
+            try {
+                return new Lease(slot, slot.await());
+            } catch (final InterruptedIOException e) {
+                release(slot);
+                throw e;
+            } catch (final IOException e) {
+                // THE LEADER FAILED AND UNREGISTERED ITS SLOT — DECODE (OR RIDE A NEWER LEADER) OURSELVES
+                release(slot);
+            }
+        }
+    }
+
+    /** Bytes currently retained by the shared sets, leased or not. */
+    public static synchronized long residentBytes() {
+        return SLOTS.weight();
+    }
+
+    /** Drops every unleased set. Leased sets stay until their last lease is closed. */
+    public static synchronized void trim() {
+        trim(0L);
+    }
+
+    // RUNS THE LOADER FOR A FRESH SLOT AND PUBLISHES THE OUTCOME TO ITS WAITERS.
+    private static ImageData produce(final Slot slot, final Loader loader, final long budget) throws IOException {
+        final ImageData data;
+        try {
+            data = loader.load();
+        } catch (final Throwable e) {
+            // ERRORS TOO: A HOSTILE IMAGE CAN OVERFLOW THE STACK OR THE HEAP, AND A SLOT LEFT UNFINISHED WOULD
+            // HOLD EVERY LATER CALLER FOR THIS SOURCE IN await() FOREVER
+            synchronized (FrameCache.class) {
+                SLOTS.remove(slot.key, slot);
+                slot.refs--;
+            }
+            slot.fail(e);
+            throw e;
+        }
+
+        final long bytes = bytes(data);
+        synchronized (FrameCache.class) {
+            if (bytes > budget) {
+                // SHARED WITH WHOEVER IS ALREADY WAITING, BUT NEVER WORTH EVICTING EVERYTHING ELSE FOR
+                SLOTS.remove(slot.key, slot);
+            } else if (SLOTS.get(slot.key) == slot) {
+                SLOTS.put(slot.key, slot, bytes);
+                trim(budget);
+            }
+        }
+        slot.complete(data);
+        return data;
+    }
+
+    // DROPS ONE LEASE; THE LAST ONE ON A RETAINED SET MAKES IT EVICTABLE AGAIN.
+    private static synchronized void release(final Slot slot) {
+        if (--slot.refs == 0) trim(budget());
+    }
+
+    // EVICTS UNLEASED, COMPLETED SETS FROM THE COLD END UNTIL THE RETAINED BYTES FIT.
+    private static void trim(final long budget) {
+        final int dropped = SLOTS.trim(budget).size();
+        if (dropped > 0) {
+            LOGGER.debug(IT, "Dropped {} decoded frame set(s); {} bytes retained", dropped, SLOTS.weight());
+        }
+    }
+
+    private static long budget() {
+        return Math.max(0L, WaterMediaConfig.media.tx.framesBudget) * 1024L * 1024L;
+    }
+
+    private static long bytes(final ImageData data) {
+        long total = 0L;
+        for (final ByteBuffer frame: data.frames()) {
+            total += frame.capacity();
+        }
+        return total;
+    }
+
+    // ONE SHARED SET. THE OUTCOME FIELDS ARE GUARDED BY THIS SLOT'S MONITOR; refs BY FrameCache.class.
+    private static final class Slot {
+        private final String key;
+        private final long expiresAt;
+        private int refs;
+        private boolean done;
+        private ImageData data;
+        private Throwable failure;
+
+        Slot(final String key, final long expiresAt) {
+            this.key = key;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean stale() {
+            return this.expiresAt <= System.currentTimeMillis();
+        }
+
+        synchronized void complete(final ImageData data) {
+            this.data = data;
+            this.done = true;
+            this.notifyAll();
+        }
+
+        synchronized void fail(final Throwable e) {
+            this.failure = e;
+            this.done = true;
+            this.notifyAll();
+        }
+
+        synchronized ImageData await() throws IOException {
+            while (!this.done) {
+                try {
+                    this.wait();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for a shared frame decode");
+                }
+            }
+            if (this.failure != null) throw new IOException("Shared frame decode failed", this.failure);
+            return this.data;
+        }
+    }
+
+    /**
+     * A caller's hold on a decoded frame set. {@link #data()} exposes the frames through views
+     * private to this lease; the pixel memory behind them is shared and must be treated as
+     * read-only. Closing releases the hold so the set becomes evictable; it is idempotent.
+     */
+    public static final class Lease implements Closeable {
+        private final Slot slot;
+        private final ImageData data;
+        private boolean closed;
+
+        private Lease(final Slot slot, final ImageData shared) {
+            this.slot = slot;
+            if (slot == null) {
+                this.data = shared;
+            } else {
+                final ByteBuffer[] frames = shared.frames();
+                final ByteBuffer[] views = new ByteBuffer[frames.length];
+                for (int i = 0; i < frames.length; i++) {
+                    views[i] = frames[i].duplicate().order(frames[i].order());
+                }
+                this.data = new ImageData(views, shared.width(), shared.height(), shared.delay().clone(),
+                        shared.duration(), shared.repeat());
+            }
+        }
+
+        /** The decoded set; each frame buffer is a view owned by this lease. */
+        public ImageData data() {
+            return this.data;
+        }
+
+        /** Whether the frames come from a set shared with (or retained for) other callers. */
+        public boolean shared() {
+            return this.slot != null;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (this.closed) return;
+            this.closed = true;
+            if (this.slot != null) release(this.slot);
+        }
+    }
+}
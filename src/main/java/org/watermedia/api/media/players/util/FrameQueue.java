@@ -11,7 +11,8 @@ import org.bytedeco.ffmpeg.global.avutil;
  * <ul>
  *   <li>Exactly one writer thread (decode)</li>
  *   <li>Exactly one reader thread (render/caller)</li>
- *   <li>Internal synchronization via {@code synchronized} plus wait/notify</li>
+ *   <li>{@link #locking(int)} synchronizes through {@code synchronized} plus wait/notify;
+ *       {@link #spsc(int)} through padded cursors, parking only while empty or full</li>
  * </ul>
  * Memory:
  * <ul>
@@ -26,7 +27,7 @@ import org.bytedeco.ffmpeg.global.avutil;
  *   <li>Audio: 9 slots (~144KB for 48kHz stereo S16, low latency)</li>
  * </ul>
  */
-public final class FrameQueue {
+public abstract sealed class FrameQueue permits LockingFrameQueue, SpscFrameQueue {
 
     /** Wrapper for a slot with its AVFrame and presentation metadata. */
     public static final class Slot {
@@ -62,18 +63,10 @@ public final class FrameQueue {
         }
     }
 
-    private final Slot[] queue;
-    private final int capacity;
-    private int readIndex;
-    private int writeIndex;
-    private int size;
-    private volatile boolean aborted;
-    private final Object lock = new Object();
+    final Slot[] queue;
+    final int capacity;
 
-    /**
-     * @param capacity number of slots. Typically 3 (video) or 9 (audio).
-     */
-    public FrameQueue(final int capacity) {
+    FrameQueue(final int capacity) {
         this.capacity = capacity;
         this.queue = new Slot[capacity];
         for (int i = 0; i < capacity; i++) {
@@ -81,6 +74,27 @@ public final class FrameQueue {
         }
     }
 
+    /**
+     * Creates a queue coordinated by a monitor lock.
+     * @param capacity number of slots. Typically 3 (video) or 9 (audio).
+     */
+    public static FrameQueue locking(final int capacity) {
+        return new LockingFrameQueue(capacity);
+    }
+
+    /**
+     * Creates a lock-free single-producer/single-consumer queue with the same contract.
+     * <p>
+     * The read and write cursors sit on separate cache lines and each side only writes its own, so a
+     * handoff costs two volatile accesses instead of a monitor round trip; threads park only while
+     * the queue is actually empty (reader) or full (writer). {@link #flush()} and {@link #reset()}
+     * move the read cursor, so they must run on the reader thread or while the reader is idle.
+     * @param capacity number of slots. Typically 3 (video) or 9 (audio).
+     */
+    public static FrameQueue spsc(final int capacity) {
+        return new SpscFrameQueue(capacity);
+    }
+
     // WRITER SIDE (CALL FROM DECODE THREAD)
     /**
      * Gets the next available slot for writing.
@@ -96,20 +110,15 @@ public final class FrameQueue {
      *
      * @return writable slot, or null if the queue was aborted.
      */
-    public Slot peekWritable() {
-        synchronized (this.lock) {
-            while (this.size >= this.capacity && !this.aborted) {
-                try {
-                    this.lock.wait();
-                } catch (final InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    return null;
-                }
-            }
-            if (this.aborted) return null;
-            return this.queue[this.writeIndex];
-        }
-    }
+    public abstract Slot peekWritable();
+
+    /**
+     * Non-blocking {@link #peekWritable()}: returns null at once when every slot is taken.
+     * The caller contract is the same.
+     *
+     * @return writable slot, or null if the queue is full or aborted.
+     */
+    public abstract Slot tryPeekWritable();
 
     /**
      * Confirms that the slot at {@code writeIndex} has been filled.
@@ -117,17 +126,7 @@ public final class FrameQueue {
      *
      * @throws IllegalStateException if called without a slot obtained via {@link #peekWritable()}
      */
-    public void push() {
-        synchronized (this.lock) {
-            // A PUSH WITHOUT A GRANTED SLOT WOULD OVERWRITE UNREAD FRAMES SILENTLY — FAIL LOUD
-            if (this.size >= this.capacity) {
-                throw new IllegalStateException("push() without a writable slot (queue full)");
-            }
-            this.writeIndex = (this.writeIndex + 1) % this.capacity;
-            this.size++;
-            this.lock.notifyAll();
-        }
-    }
+    public abstract void push();
 
     // READER SIDE (CALL FROM RENDER/CALLER THREAD)
     /**
@@ -136,12 +135,7 @@ public final class FrameQueue {
      *
      * @return readable slot, or null if empty or aborted.
      */
-    public Slot peek() {
-        synchronized (this.lock) {
-            if (this.size <= 0 || this.aborted) return null;
-            return this.queue[this.readIndex];
-        }
-    }
+    public abstract Slot peek();
 
     /**
      * Blocking version of {@link #peek()}.
@@ -150,24 +144,7 @@ public final class FrameQueue {
      * @param timeoutMs maximum wait time in milliseconds. 0 = indefinite.
      * @return readable slot, or null if aborted or timed out.
      */
-    public Slot peekBlocking(final long timeoutMs) {
-        synchronized (this.lock) {
-            final long deadline = timeoutMs > 0 ? System.currentTimeMillis() + timeoutMs : Long.MAX_VALUE;
-            while (this.size <= 0 && !this.aborted) {
-                final long remaining = deadline - System.currentTimeMillis();
-                if (remaining <= 0) return null;
-                try {
-                    // push()/abort() BOTH notifyAll, SO WAIT THE FULL REMAINDER INSTEAD OF POLLING AT 10MS
-                    this.lock.wait(remaining);
-                } catch (final InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    return null;
-                }
-            }
-            if (this.aborted || this.size <= 0) return null;
-            return this.queue[this.readIndex];
-        }
-    }
+    public abstract Slot peekBlocking(final long timeoutMs);
 
     /**
      * Peeks at the next frame after the current one (for computing inter-frame duration).
@@ -175,12 +152,7 @@ public final class FrameQueue {
      *
      * @return second slot in the queue, or null if not available.
      */
-    public Slot peekNext() {
-        synchronized (this.lock) {
-            if (this.size < 2 || this.aborted) return null;
-            return this.queue[(this.readIndex + 1) % this.capacity];
-        }
-    }
+    public abstract Slot peekNext();
 
     /**
      * Consumes the current frame: advances {@code readIndex} and releases pixel buffers.
@@ -188,25 +160,14 @@ public final class FrameQueue {
      * <p>
      * After {@link #next()}, the previous slot is no longer valid.
      */
-    public void next() {
-        synchronized (this.lock) {
-            avutil.av_frame_unref(this.queue[this.readIndex].frame);
-            this.readIndex = (this.readIndex + 1) % this.capacity;
-            this.size--;
-            this.lock.notifyAll();
-        }
-    }
+    public abstract void next();
 
     // CONTROL
     /** Frames available for reading. */
-    public int remaining() {
-        synchronized (this.lock) { return this.size; }
-    }
+    public abstract int remaining();
 
     /** Returns true if the queue is empty. */
-    public boolean isEmpty() {
-        synchronized (this.lock) { return this.size == 0; }
-    }
+    public abstract boolean isEmpty();
 
     /**
      * Discards all pending frames. Calls {@code av_frame_unref} on each.
@@ -216,35 +177,13 @@ public final class FrameQueue {
      * preserved, so an outstanding slot still commits into its own position and becomes the
      * first readable frame (its stale serial is then discarded by the reader as usual).
      */
-    public void flush() {
-        synchronized (this.lock) {
-            for (int i = 0; i < this.size; i++) {
-                final int idx = (this.readIndex + i) % this.capacity;
-                avutil.av_frame_unref(this.queue[idx].frame);
-            }
-            // KEEP writeIndex: A WRITER HOLDING A SLOT (NEVER IN THE UNREF RANGE — THE QUEUE WASN'T
-            // FULL) STILL PUSHES INTO IT; JUMPING THE READ CURSOR THERE KEEPS THE RING CONSISTENT.
-            this.readIndex = this.writeIndex;
-            this.size = 0;
-            this.lock.notifyAll();
-        }
-    }
+    public abstract void flush();
 
     /** Abort signal — unblocks {@link #peekWritable()} and {@link #peekBlocking(long)} immediately. */
-    public void abort() {
-        synchronized (this.lock) {
-            this.aborted = true;
-            this.lock.notifyAll();
-        }
-    }
+    public abstract void abort();
 
     /** Resets the abort flag to reuse the queue (e.g. on a quality switch). */
-    public void reset() {
-        synchronized (this.lock) {
-            this.flush();
-            this.aborted = false;
-        }
-    }
+    public abstract void reset();
 
     /**
      * Releases the AVFrame structs. Call only during final player cleanup.
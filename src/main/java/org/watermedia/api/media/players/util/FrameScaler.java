@@ -0,0 +1,260 @@
+package org.watermedia.api.media.players.util;
+
+import org.watermedia.api.util.PixelFormat;
+import org.watermedia.api.util.ScaleFilter;
+import org.watermedia.tools.ThreadTool;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Separable software scaler for tightly packed 8-bit frames, shared by the players that resize on the CPU.
+ * <p>
+ * Every plane is resampled in two passes — horizontal into a band-local intermediate, then vertical —
+ * each driven by a precomputed table of fixed-point weights per output column or row. The support of
+ * the {@link ScaleFilter} widens with the reduction factor, so downscales of any ratio average the whole
+ * footprint of each output pixel instead of aliasing: {@link ScaleFilter#BOX} on an integer factor is the
+ * exact block average.
+ * <p>
+ * Output rows are split into bands run on the common {@link ForkJoinPool}; each band resamples only the
+ * source rows its own output rows need, so bands share nothing but the read-only source and weights.
+ * Weight tables are cached per size pair and filter, so a player scaling every frame to the same
+ * target builds them once. Rows move with bulk absolute transfers, so neither buffer's position is
+ * touched while the bands run.
+ */
+public final class FrameScaler {
+    // OUTPUT PIXELS BELOW WHICH A PLANE IS SCALED ON THE CALLING THREAD; FORKING COSTS MORE THAN IT SAVES
+    private static final int PARALLEL_MIN_PIXELS = 1 << 16;
+    // FIXED-POINT WEIGHT PRECISION; LEAVES HEADROOM FOR 255 * (SUM OF |WEIGHTS|) OF LANCZOS LOBES IN AN INT
+    private static final int PRECISION = 22;
+    private static final int HALF = 1 << (PRECISION - 1);
+    private static final int MAX_WEIGHTS = 32;
+
+    // ACCESS-ORDERED SO THE ELDEST ENTRY IS THE LEAST RECENTLY USED. GUARDED BY ITS OWN MONITOR
+    private static final Map<Key, Weights> WEIGHTS = new LinkedHashMap<>(16, 0.75f, true);
+
+    private FrameScaler() {}
+
+    /**
+     * Whether {@link #scale(PixelFormat, ByteBuffer, int, int, ByteBuffer, int, int, ScaleFilter)} can resize
+     * frames of {@code format}. Packed 4:2:2 shares chroma between pixel pairs inside one plane and
+     * block-compressed formats have no pixels to resample, so neither is supported.
+     */
+    public static boolean supports(final PixelFormat format) {
+        return format != PixelFormat.YUYV && format != PixelFormat.YUYV2 && format.blockBytes() == 0;
+    }
+
+    /**
+     * Resizes one tightly packed frame of {@code format} from {@code sw x sh} to {@code dw x dh}.
+     * <p>
+     * Planes are read from {@code src} starting at its position, which is left untouched, and written
+     * one after another into {@code dst} from its position, which is advanced past the whole frame.
+     * Chroma planes are scaled between their own subsampled sizes, so NV12 keeps its interleaved UV
+     * pairs together and the planar layouts scale each plane independently.
+     *
+     * @throws IllegalArgumentException if the format is not {@link #supports(PixelFormat) supported}
+     */
+    public static void scale(final PixelFormat format, final ByteBuffer src, final int sw, final int sh,
+                             final ByteBuffer dst, final int dw, final int dh, final ScaleFilter filter) {
+        final int base = src.position();
+        switch (format) {
+            case GRAY -> scale(src, base, sw, sh, dst, dw, dh, 1, filter);
+            case RGB -> scale(src, base, sw, sh, dst, dw, dh, 3, filter);
+            case BGRA, RGBA, GBRA -> scale(src, base, sw, sh, dst, dw, dh, 4, filter);
+            case NV12, NV21 -> {
+                scale(src, base, sw, sh, dst, dw, dh, 1, filter);
+                scale(src, base + sw * sh, (sw + 1) >> 1, (sh + 1) >> 1, dst, (dw + 1) >> 1, (dh + 1) >> 1, 2, filter);
+            }
+            case YUV420P, YUVA420P -> {
+                final int scw = (sw + 1) >> 1;
+                final int sch = (sh + 1) >> 1;
+                final int dcw = (dw + 1) >> 1;
+                final int dch = (dh + 1) >> 1;
+                scale(src, base, sw, sh, dst, dw, dh, 1, filter);
+                scale(src, base + sw * sh, scw, sch, dst, dcw, dch, 1, filter);
+                scale(src, base + sw * sh + scw * sch, scw, sch, dst, dcw, dch, 1, filter);
+                if (format == PixelFormat.YUVA420P) {
+                    scale(src, base + sw * sh + 2 * scw * sch, sw, sh, dst, dw, dh, 1, filter);
+                }
+            }
+            case YUV422P, YUVA422P -> {
+                final int scw = (sw + 1) >> 1;
+                final int dcw = (dw + 1) >> 1;
+                scale(src, base, sw, sh, dst, dw, dh, 1, filter);
+                scale(src, base + sw * sh, scw, sh, dst, dcw, dh, 1, filter);
+                scale(src, base + sw * sh + scw * sh, scw, sh, dst, dcw, dh, 1, filter);
+                if (format == PixelFormat.YUVA422P) {
+                    scale(src, base + sw * sh + 2 * scw * sh, sw, sh, dst, dw, dh, 1, filter);
+                }
+            }
+            case YUV444P, YUVA444P -> {
+                final int planes = format == PixelFormat.YUVA444P ? 4 : 3;
+                for (int p = 0; p < planes; p++) {
+                    scale(src, base + p * sw * sh, sw, sh, dst, dw, dh, 1, filter);
+                }
+            }
+            default -> throw new IllegalArgumentException("Unscalable pixel format: " + format);
+        }
+    }
+
+    /**
+     * Resizes one 8-bit plane of {@code ch} interleaved components from {@code sw x sh} to {@code dw x dh}.
+     * {@code src} is read from the absolute offset {@code srcOff}; the plane is written into {@code dst}
+     * from its position, which is advanced past it.
+     */
+    public static void scale(final ByteBuffer src, final int srcOff, final int sw, final int sh,
+                             final ByteBuffer dst, final int dw, final int dh, final int ch, final ScaleFilter filter) {
+        if (sw <= 0 || sh <= 0 || dw <= 0 || dh <= 0 || ch <= 0) {
+            throw new IllegalArgumentException("Invalid plane: " + sw + "x" + sh + " -> " + dw + "x" + dh + " x" + ch);
+        }
+        final int dstOff = dst.position();
+        final Weights horizontal = weights(sw, dw, filter);
+        final Weights vertical = weights(sh, dh, filter);
+
+        // COST OF ONE OUTPUT ROW: THE SOURCE ROWS IT PULLS THROUGH THE HORIZONTAL PASS PLUS ITS OWN TAPS
+        final long rowCost = (long) sw * Math.max(1, sh / dh) + (long) dw * vertical.taps;
+        final int grain = (int) Math.max(1L, Math.min(dh, (PARALLEL_MIN_PIXELS + rowCost - 1) / rowCost));
+        ThreadTool.parallel(dh, grain, (from, to) -> band(src, srcOff, sw, dst, dstOff, dw, ch, horizontal, vertical, from, to));
+        dst.position(dstOff + dw * dh * ch);
+    }
+
+    // SCALES OUTPUT ROWS [from, to): RESAMPLES HORIZONTALLY THE SOURCE ROWS THEY COVER, THEN VERTICALLY
+    private static void band(final ByteBuffer src, final int srcOff, final int sw, final ByteBuffer dst, final int dstOff,
+                             final int dw, final int ch, final Weights horizontal, final Weights vertical,
+                             final int from, final int to) {
+        final int rowBytes = dw * ch;
+        final int first = vertical.start[from];
+        final int last = vertical.start[to - 1] + vertical.count[to - 1];
+        final byte[] line = new byte[sw * ch];
+        final byte[] mid = new byte[(last - first) * rowBytes];
+        for (int sy = first; sy < last; sy++) {
+            final int o = (sy - first) * rowBytes;
+            if (sw == dw) {
+                src.get(srcOff + sy * sw * ch, mid, o, rowBytes);
+            } else {
+                src.get(srcOff + sy * sw * ch, line, 0, line.length);
+                resampleRow(line, mid, o, dw, ch, horizontal);
+            }
+        }
+
+        // VERTICAL PASS ACCUMULATES WHOLE ROWS TAP BY TAP, SO EVERY INNER LOOP WALKS CONTIGUOUS MEMORY
+        final int[] acc = new int[rowBytes];
+        final byte[] out = new byte[rowBytes];
+        for (int dy = from; dy < to; dy++) {
+            final int start = vertical.start[dy] - first;
+            final int count = vertical.count[dy];
+            final int k = dy * vertical.taps;
+            Arrays.fill(acc, HALF);
+            for (int t = 0; t < count; t++) {
+                final int w = vertical.coeffs[k + t];
+                final int p = (start + t) * rowBytes;
+                for (int i = 0; i < rowBytes; i++) acc[i] += (mid[p + i] & 0xFF) * w;
+            }
+            for (int i = 0; i < rowBytes; i++) out[i] = clamp(acc[i]);
+            dst.put(dstOff + dy * rowBytes, out, 0, rowBytes);
+        }
+    }
+
+    // HORIZONTAL PASS OF ONE ROW: EVERY COMPONENT OF EACH OUTPUT PIXEL IS THE WEIGHTED SUM OF ITS TAPS.
+    // FOUR-COMPONENT PIXELS (THE COMMON CASE) SUM ALL COMPONENTS IN ONE WALK OVER THE TAPS
+    private static void resampleRow(final byte[] line, final byte[] mid, int o, final int dw, final int ch,
+                                    final Weights horizontal) {
+        for (int dx = 0; dx < dw; dx++) {
+            final int start = horizontal.start[dx] * ch;
+            final int count = horizontal.count[dx];
+            final int k = dx * horizontal.taps;
+            if (ch == 4) {
+                int a0 = HALF, a1 = HALF, a2 = HALF, a3 = HALF;
+                for (int t = 0, p = start; t < count; t++, p += 4) {
+                    final int w = horizontal.coeffs[k + t];
+                    a0 += (line[p] & 0xFF) * w;
+                    a1 += (line[p + 1] & 0xFF) * w;
+                    a2 += (line[p + 2] & 0xFF) * w;
+                    a3 += (line[p + 3] & 0xFF) * w;
+                }
+                mid[o++] = clamp(a0);
+                mid[o++] = clamp(a1);
+                mid[o++] = clamp(a2);
+                mid[o++] = clamp(a3);
+                continue;
+            }
+            for (int c = 0; c < ch; c++) {
+                int acc = HALF;
+                int p = start + c;
+                for (int t = 0; t < count; t++, p += ch) {
+                    acc += (line[p] & 0xFF) * horizontal.coeffs[k + t];
+                }
+                mid[o++] = clamp(acc);
+            }
+        }
+    }
+
+    private static byte clamp(final int acc) {
+        final int v = acc >> PRECISION;
+        return (byte) (v < 0 ? 0 : Math.min(v, 255));
+    }
+
+    private static Weights weights(final int in, final int out, final ScaleFilter filter) {
+        final Key key = new Key(in, out, filter);
+        synchronized (WEIGHTS) {
+            final Weights cached = WEIGHTS.get(key);
+            if (cached != null) return cached;
+        }
+        final Weights built = Weights.build(in, out, filter);
+        synchronized (WEIGHTS) {
+            WEIGHTS.put(key, built);
+            if (WEIGHTS.size() > MAX_WEIGHTS) {
+                final var eldest = WEIGHTS.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return built;
+    }
+
+    private record Key(int in, int out, ScaleFilter filter) {}
+
+    // PER OUTPUT INDEX: THE FIRST SOURCE INDEX, HOW MANY FOLLOW IT AND THEIR FIXED-POINT WEIGHTS (SUMMING TO ONE)
+    private record Weights(int[] start, int[] count, int[] coeffs, int taps) {
+        static Weights build(final int in, final int out, final ScaleFilter filter) {
+            final double scale = (double) in / out;
+            final double stretch = Math.max(scale, 1.0);
+            final double support = filter.support() * stretch;
+            final int taps = (int) Math.ceil(support) * 2 + 1;
+            final int[] start = new int[out];
+            final int[] count = new int[out];
+            final int[] coeffs = new int[out * taps];
+            final double[] w = new double[taps];
+            for (int i = 0; i < out; i++) {
+                final double center = (i + 0.5) * scale;
+                final int min = Math.max(0, (int) (center - support + 0.5));
+                final int max = Math.min(in, (int) (center + support + 0.5));
+                int n = max - min;
+                double sum = 0.0;
+                for (int t = 0; t < n; t++) {
+                    w[t] = filter.weight((t + min - center + 0.5) / stretch);
+                    sum += w[t];
+                }
+                if (sum == 0.0) {
+                    // A KERNEL NARROWER THAN ONE SOURCE PIXEL CAN MISS EVERY CENTER; FALL BACK TO THE NEAREST
+                    w[0] = 1.0;
+                    sum = 1.0;
+                    n = Math.max(1, n);
+                }
+                // TRIM ZERO-WEIGHT TAPS AT BOTH ENDS SO THE INNER LOOPS NEVER MULTIPLY BY ZERO
+                int lead = 0;
+                while (lead < n - 1 && w[lead] == 0.0) lead++;
+                while (n > lead + 1 && w[n - 1] == 0.0) n--;
+                start[i] = min + lead;
+                count[i] = n - lead;
+                for (int t = lead; t < n; t++) {
+                    coeffs[i * taps + t - lead] = (int) Math.round(w[t] / sum * (1 << PRECISION));
+                }
+            }
+            return new Weights(start, count, coeffs, taps);
+        }
+    }
+}
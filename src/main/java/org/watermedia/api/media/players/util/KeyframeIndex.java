@@ -0,0 +1,264 @@
+package org.watermedia.api.media.players.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Keyframe positions of one video stream, learned from the packets as they are demuxed.
+ * <p>
+ * Every keyframe the demuxer reads is {@link #record recorded} with its pts, dts and byte offset, in
+ * the stream's time base. The index also tracks how far it is <i>complete</i>: the span from the
+ * start of the stream that was demuxed without a gap. Inside that span {@link #floor} returns the
+ * exact keyframe a decode must start from to reach a target, so a precise seek decodes at most one
+ * GOP forward; past it the index knows nothing and callers fall back to the demuxer's own seek.
+ * A seek {@link #seeked breaks} the span until the demuxer lands back inside it, and reading on from
+ * there extends it again.
+ * <p>
+ * The index {@link #encode encodes} to a few bytes per keyframe so it can be kept next to the cached
+ * body it describes and reused by the next player of the same source. Not thread-safe: the demux
+ * thread owns it.
+ */
+public final class KeyframeIndex {
+    private static final int MAGIC = 0x574D4B49; // WMKI
+    private static final int VERSION = 1;
+    // A CORRUPT COUNT MUST NOT ALLOCATE GIGABYTES; AN HOUR AT ONE KEYFRAME PER FRAME AT 240FPS IS WELL BELOW
+    private static final int MAX_KEYFRAMES = 1 << 20;
+
+    private final int timeBaseNum;
+    private final int timeBaseDen;
+    private final int codecId;
+
+    // SORTED BY pts; ONLY THE FIRST count SLOTS ARE LIVE
+    private long[] pts = new long[64];
+    private long[] dts = new long[64];
+    private long[] pos = new long[64];
+    private int count;
+
+    // EVERY KEYFRAME WITH dts <= coveredTo IS INDEXED; Long.MAX_VALUE ONCE THE STREAM WAS READ TO ITS END
+    private long coveredTo = Long.MIN_VALUE;
+    // WHETHER THE PACKETS BEING READ CONTINUE THE COVERED SPAN
+    private boolean contiguous = true;
+    private int framesSinceKeyframe = -1; // -1 UNTIL THE FIRST KEYFRAME OF A CONTIGUOUS RUN
+    private int maxGopFrames;
+    private boolean dirty;
+
+    /**
+     * Creates an empty index for a stream read from its start.
+     * @param timeBaseNum numerator of the stream's time base
+     * @param timeBaseDen denominator of the stream's time base
+     * @param codecId the stream's codec, so a stored index is never applied to a different stream
+     */
+    public KeyframeIndex(final int timeBaseNum, final int timeBaseDen, final int codecId) {
+        if (timeBaseNum <= 0 || timeBaseDen <= 0) {
+            throw new IllegalArgumentException("Invalid time base " + timeBaseNum + "/" + timeBaseDen);
+        }
+        this.timeBaseNum = timeBaseNum;
+        this.timeBaseDen = timeBaseDen;
+        this.codecId = codecId;
+    }
+
+    /**
+     * Adds one demuxed video packet. Non-keyframes only extend the complete span and the GOP count;
+     * packets without any timestamp are ignored.
+     * @param pts presentation timestamp, or {@code noTimestamp}
+     * @param dts decode timestamp, or {@code noTimestamp}
+     * @param pos byte offset of the packet in the input, negative when unknown
+     * @param keyframe whether the packet starts a keyframe
+     * @param noTimestamp the value the demuxer uses for a missing timestamp
+     */
+    public void record(final long pts, final long dts, final long pos, final boolean keyframe, final long noTimestamp) {
+        final long decodeTs = dts != noTimestamp ? dts : pts;
+        if (decodeTs == noTimestamp) return;
+
+        if (keyframe) {
+            final long presentTs = pts != noTimestamp ? pts : dts;
+            // A SEEK THAT LANDED INSIDE THE COMPLETE SPAN RESUMES IT: EVERYTHING BEFORE IS ALREADY INDEXED
+            if (!this.contiguous && decodeTs <= this.coveredTo) this.contiguous = true;
+            this.insert(presentTs, decodeTs, pos);
+            if (this.contiguous) {
+                if (this.framesSinceKeyframe > 0) this.maxGopFrames = Math.max(this.maxGopFrames, this.framesSinceKeyframe);
+                this.framesSinceKeyframe = 0;
+            }
+        }
+        if (this.contiguous) {
+            if (this.framesSinceKeyframe >= 0) this.framesSinceKeyframe++;
+            if (decodeTs > this.coveredTo) {
+                this.coveredTo = decodeTs;
+                this.dirty = true;
+            }
+        }
+    }
+
+    /**
+     * Marks a jump in the input. Packets read afterwards only extend the complete span once a
+     * keyframe inside it shows up.
+     * @param fromStart whether the input was rewound to its very beginning, which resumes the span at once
+     */
+    public void seeked(final boolean fromStart) {
+        this.contiguous = fromStart;
+        this.framesSinceKeyframe = -1;
+    }
+
+    /** Marks the end of the input; an index read to the end without a gap becomes complete. */
+    public void finish() {
+        if (!this.contiguous || this.coveredTo == Long.MAX_VALUE) return;
+        if (this.framesSinceKeyframe > 0) this.maxGopFrames = Math.max(this.maxGopFrames, this.framesSinceKeyframe);
+        this.coveredTo = Long.MAX_VALUE;
+        this.dirty = true;
+    }
+
+    /**
+     * Returns the last keyframe at or before a target, provided the index is complete that far.
+     * @param target presentation timestamp to reach, in the stream's time base
+     * @return the keyframe to start decoding from, or null when the index cannot tell
+     */
+    public Keyframe floor(final long target) {
+        if (target > this.coveredTo) return null;
+        int i = Arrays.binarySearch(this.pts, 0, this.count, target);
+        if (i < 0) i = -i - 2; // INSERTION POINT - 1: THE LAST KEYFRAME BEFORE target
+        if (i < 0) return null;
+        return new Keyframe(this.pts[i], this.dts[i], this.pos[i]);
+    }
+
+    /** Returns the keyframe at {@code i}, in presentation order. */
+    public Keyframe get(final int i) {
+        if (i < 0 || i >= this.count) throw new IndexOutOfBoundsException(i);
+        return new Keyframe(this.pts[i], this.dts[i], this.pos[i]);
+    }
+
+    /** Number of keyframes indexed. */
+    public int size() {
+        return this.count;
+    }
+
+    /** Decode timestamp up to which every keyframe is indexed; {@link Long#MAX_VALUE} once complete. */
+    public long coveredTo() {
+        return this.coveredTo;
+    }
+
+    /** Whether the whole stream has been indexed. */
+    public boolean complete() {
+        return this.coveredTo == Long.MAX_VALUE;
+    }
+
+    /**
+     * Longest GOP seen, in packets from one keyframe to the next. Bounds how many frames a precise seek
+     * inside the complete span decodes before it reaches its target.
+     */
+    public int maxGopFrames() {
+        return this.maxGopFrames;
+    }
+
+    /** Whether the index learned anything since it was created, decoded or last {@link #encode encoded}. */
+    public boolean dirty() {
+        return this.dirty;
+    }
+
+    /**
+     * Whether this index describes a stream with the given time base and codec.
+     * @return false when a stored index must not be used for the stream
+     */
+    public boolean matches(final int timeBaseNum, final int timeBaseDen, final int codecId) {
+        return this.timeBaseNum == timeBaseNum && this.timeBaseDen == timeBaseDen && this.codecId == codecId;
+    }
+
+    /**
+     * Serializes the index and clears {@link #dirty()}.
+     * @return the encoded index
+     */
+    public byte[] encode() {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(40 + this.count * 24);
+        try (final DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(this.timeBaseNum);
+            out.writeInt(this.timeBaseDen);
+            out.writeInt(this.codecId);
+            out.writeLong(this.coveredTo);
+            out.writeInt(this.maxGopFrames);
+            out.writeInt(this.count);
+            for (int i = 0; i < this.count; i++) {
+                out.writeLong(this.pts[i]);
+                out.writeLong(this.dts[i]);
+                out.writeLong(this.pos[i]);
+            }
+        } catch (final IOException e) {
+            throw new IllegalStateException("In-memory write failed", e); // UNREACHABLE: NO REAL I/O
+        }
+        this.dirty = false;
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Restores an index written by {@link #encode()}. The result is positioned at the start of the
+     * stream, as a freshly opened input is.
+     * @param data the encoded index
+     * @return the decoded index
+     * @throws IOException if data is truncated, corrupt or from another version
+     */
+    public static KeyframeIndex decode(final byte[] data) throws IOException {
+        try (final DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a keyframe index");
+            final int version = in.readInt();
+            if (version != VERSION) throw new IOException("Unsupported keyframe index version " + version);
+            final KeyframeIndex index;
+            try {
+                index = new KeyframeIndex(in.readInt(), in.readInt(), in.readInt());
+            } catch (final IllegalArgumentException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+            index.coveredTo = in.readLong();
+            index.maxGopFrames = in.readInt();
+            final int count = in.readInt();
+            if (count < 0 || count > MAX_KEYFRAMES) throw new IOException("Invalid keyframe count " + count);
+            index.grow(count);
+            for (int i = 0; i < count; i++) {
+                index.pts[i] = in.readLong();
+                index.dts[i] = in.readLong();
+                index.pos[i] = in.readLong();
+                if (i > 0 && index.pts[i] <= index.pts[i - 1]) throw new IOException("Keyframes out of order at " + i);
+            }
+            index.count = count;
+            return index;
+        }
+    }
+
+    // KEYFRAMES ARRIVE IN ORDER WHILE READING FORWARD, SO THIS IS AN APPEND; RE-READING A SPAN AFTER A SEEK
+    // HITS THE SAME pts AGAIN AND IS SKIPPED
+    private void insert(final long pts, final long dts, final long pos) {
+        int i = Arrays.binarySearch(this.pts, 0, this.count, pts);
+        if (i >= 0) return;
+        if (this.count == MAX_KEYFRAMES) return;
+        i = -i - 1;
+        this.grow(this.count + 1);
+        System.arraycopy(this.pts, i, this.pts, i + 1, this.count - i);
+        System.arraycopy(this.dts, i, this.dts, i + 1, this.count - i);
+        System.arraycopy(this.pos, i, this.pos, i + 1, this.count - i);
+        this.pts[i] = pts;
+        this.dts[i] = dts;
+        this.pos[i] = pos;
+        this.count++;
+        this.dirty = true;
+    }
+
+    private void grow(final int capacity) {
+        if (capacity <= this.pts.length) return;
+        final int size = Math.max(capacity, this.pts.length * 2);
+        this.pts = Arrays.copyOf(this.pts, size);
+        this.dts = Arrays.copyOf(this.dts, size);
+        this.pos = Arrays.copyOf(this.pos, size);
+    }
+
+    /**
+     * One indexed keyframe, in the stream's time base.
+     * @param pts presentation timestamp
+     * @param dts decode timestamp
+     * @param pos byte offset in the input, negative when the demuxer did not report one
+     */
+    public record Keyframe(long pts, long dts, long pos) {
+    }
+}
@@ -0,0 +1,143 @@
+package org.watermedia.api.media.players.util;
+
+import org.bytedeco.ffmpeg.global.avutil;
+
+/**
+ * {@link FrameQueue} coordinated by one monitor: every operation takes the lock, and both sides
+ * wait on it and wake each other with {@code notifyAll}.
+ */
+final class LockingFrameQueue extends FrameQueue {
+    private int readIndex;
+    private int writeIndex;
+    private int size;
+    private volatile boolean aborted;
+    private final Object lock = new Object();
+
+    LockingFrameQueue(final int capacity) {
+        super(capacity);
+    }
+
+    @Override
+    public Slot peekWritable() {
+        synchronized (this.lock) {
+            while (this.size >= this.capacity && !this.aborted) {
+                try {
+                    this.lock.wait();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+            if (this.aborted) return null;
+            return this.queue[this.writeIndex];
+        }
+    }
+
+    @Override
+    public Slot tryPeekWritable() {
+        synchronized (this.lock) {
+            if (this.size >= this.capacity || this.aborted) return null;
+            return this.queue[this.writeIndex];
+        }
+    }
+
+    @Override
+    public void push() {
+        synchronized (this.lock) {
+            // A PUSH WITHOUT A GRANTED SLOT WOULD OVERWRITE UNREAD FRAMES SILENTLY — FAIL LOUD
+            if (this.size >= this.capacity) {
+                throw new IllegalStateException("push() without a writable slot (queue full)");
+            }
+            this.writeIndex = (this.writeIndex + 1) % this.capacity;
+            this.size++;
+            this.lock.notifyAll();
+        }
+    }
+
+    @Override
+    public Slot peek() {
+        synchronized (this.lock) {
+            if (this.size <= 0 || this.aborted) return null;
+            return this.queue[this.readIndex];
+        }
+    }
+
+    @Override
+    public Slot peekBlocking(final long timeoutMs) {
+        synchronized (this.lock) {
+            final long deadline = timeoutMs > 0 ? System.currentTimeMillis() + timeoutMs : Long.MAX_VALUE;
+            while (this.size <= 0 && !this.aborted) {
+                final long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) return null;
+                try {
+                    // push()/abort() BOTH notifyAll, SO WAIT THE FULL REMAINDER INSTEAD OF POLLING AT 10MS
+                    this.lock.wait(remaining);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+            if (this.aborted || this.size <= 0) return null;
+            return this.queue[this.readIndex];
+        }
+    }
+
+    @Override
+    public Slot peekNext() {
+        synchronized (this.lock) {
+            if (this.size < 2 || this.aborted) return null;
+            return this.queue[(this.readIndex + 1) % this.capacity];
+        }
+    }
+
+    @Override
+    public void next() {
+        synchronized (this.lock) {
+            avutil.av_frame_unref(this.queue[this.readIndex].frame);
+            this.readIndex = (this.readIndex + 1) % this.capacity;
+            this.size--;
+            this.lock.notifyAll();
+        }
+    }
+
+    @Override
+    public int remaining() {
+        synchronized (this.lock) { return this.size; }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        synchronized (this.lock) { return this.size == 0; }
+    }
+
+    @Override
+    public void flush() {
+        synchronized (this.lock) {
+            for (int i = 0; i < this.size; i++) {
+                final int idx = (this.readIndex + i) % this.capacity;
+                avutil.av_frame_unref(this.queue[idx].frame);
+            }
+            // KEEP writeIndex: A WRITER HOLDING A SLOT (NEVER IN THE UNREF RANGE — THE QUEUE WASN'T
+            // FULL) STILL PUSHES INTO IT; JUMPING THE READ CURSOR THERE KEEPS THE RING CONSISTENT.
+            this.readIndex = this.writeIndex;
+            this.size = 0;
+            this.lock.notifyAll();
+        }
+    }
+
+    @Override
+    public void abort() {
+        synchronized (this.lock) {
+            this.aborted = true;
+            this.lock.notifyAll();
+        }
+    }
+
+    @Override
+    public void reset() {
+        synchronized (this.lock) {
+            this.flush();
+            this.aborted = false;
+        }
+    }
+}
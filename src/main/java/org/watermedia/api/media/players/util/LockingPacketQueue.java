@@ -0,0 +1,168 @@
+package org.watermedia.api.media.players.util;
+
+import org.bytedeco.ffmpeg.avcodec.AVPacket;
+import org.bytedeco.ffmpeg.global.avcodec;
+
+import java.util.ArrayDeque;
+
+/**
+ * {@link PacketQueue} coordinated by one monitor: packets wait in an unbounded {@link ArrayDeque}
+ * (only the byte limit applies) and both sides wait on the lock and wake each other with
+ * {@code notifyAll}.
+ */
+final class LockingPacketQueue extends PacketQueue {
+    private final ArrayDeque<Entry> packets = new ArrayDeque<>();
+    private final Object lock = new Object();
+    private volatile boolean aborted;
+    private volatile boolean finished; // EOF: DRAIN REMAINING, THEN RETURN NULL
+    private volatile int serial;
+    private long totalBytes;
+
+    private static final class Entry {
+        final AVPacket packet; // OWNED — CLONED IN put()
+        final int serial;
+
+        Entry(final AVPacket packet, final int serial) {
+            this.packet = packet;
+            this.serial = serial;
+        }
+    }
+
+    LockingPacketQueue(final long maxBytes) {
+        super(maxBytes);
+    }
+
+    @Override
+    public boolean put(final AVPacket packet) {
+        synchronized (this.lock) {
+            while (this.totalBytes >= this.maxBytes && !this.aborted) {
+                try {
+                    this.lock.wait();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            if (this.aborted) return false;
+
+            // CLONE ONLY ONCE THE ENTRY WILL ACTUALLY BE ENQUEUED — NO NATIVE ALLOC ON REJECTION
+            final AVPacket clone = avcodec.av_packet_clone(packet);
+            if (clone == null) return false;
+            this.packets.addLast(new Entry(clone, this.serial));
+            this.totalBytes += clone.size();
+            this.lock.notifyAll();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean tryPut(final AVPacket packet) {
+        synchronized (this.lock) {
+            // A DEMUX THREAD POLLING A SATURATED QUEUE MUST NOT PAY A NATIVE CLONE+FREE PER ATTEMPT
+            if (this.totalBytes >= this.maxBytes || this.aborted) return false;
+            final AVPacket clone = avcodec.av_packet_clone(packet);
+            if (clone == null) return false;
+            this.packets.addLast(new Entry(clone, this.serial));
+            this.totalBytes += clone.size();
+            this.lock.notifyAll();
+        }
+        return true;
+    }
+
+    @Override
+    public AVPacket get(final int[] serialOut) {
+        synchronized (this.lock) {
+            while (this.packets.isEmpty() && !this.aborted && !this.finished) {
+                try {
+                    this.lock.wait();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+            // FINISHED + EMPTY: EOF, NO MORE PACKETS COMING
+            return this.take(serialOut);
+        }
+    }
+
+    @Override
+    public AVPacket poll(final int[] serialOut) {
+        synchronized (this.lock) {
+            return this.take(serialOut);
+        }
+    }
+
+    @Override
+    public void flush() {
+        synchronized (this.lock) {
+            while (!this.packets.isEmpty()) {
+                avcodec.av_packet_free(this.packets.pollFirst().packet);
+            }
+            this.totalBytes = 0;
+            this.serial++;
+            this.lock.notifyAll();
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (this.lock) {
+            while (!this.packets.isEmpty()) {
+                avcodec.av_packet_free(this.packets.pollFirst().packet);
+            }
+            this.totalBytes = 0;
+            this.lock.notifyAll();
+        }
+    }
+
+    @Override
+    public int serial() { return this.serial; }
+
+    @Override
+    public boolean endOfFile() { return this.finished && !this.aborted; }
+
+    @Override
+    public long byteSize() {
+        synchronized (this.lock) { return this.totalBytes; }
+    }
+
+    @Override
+    public int count() {
+        synchronized (this.lock) { return this.packets.size(); }
+    }
+
+    @Override
+    public void finish() {
+        synchronized (this.lock) {
+            this.finished = true;
+            this.lock.notifyAll();
+        }
+    }
+
+    @Override
+    public void abort() {
+        synchronized (this.lock) {
+            this.aborted = true;
+            this.lock.notifyAll();
+        }
+    }
+
+    @Override
+    public void reset() {
+        synchronized (this.lock) {
+            this.flush();
+            this.aborted = false;
+            this.finished = false;
+        }
+    }
+
+    // CALLER HOLDS THE LOCK
+    private AVPacket take(final int[] serialOut) {
+        if (this.aborted || this.packets.isEmpty()) return null;
+        final Entry entry = this.packets.pollFirst();
+        this.totalBytes -= entry.packet.size();
+        serialOut[0] = entry.serial;
+        this.lock.notifyAll();
+        return entry.packet;
+    }
+}
@@ -15,31 +15,41 @@ import org.watermedia.tools.IOTool;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionException;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
+import java.util.zip.CRC32;
 
 import static org.watermedia.WaterMedia.LOGGER;
 
@@ -64,11 +74,29 @@ import static org.watermedia.WaterMedia.LOGGER;
  * Both tiers share the same on-disk infrastructure (directory, atomic writes, lock
  * striping, index persistence, expiry) routed through the {@link Tier}-aware store
  * primitives below. They never collide because every cache file is prefixed with the
- * tier discriminator and every index entry carries its tier byte.
+ * tier discriminator and every index entry carries its tier byte. A cached media body may
+ * also carry a small {@linkplain #writeKeyframeIndex keyframe index} in the same store; it
+ * shares the body's expiry and is dropped whenever the body is replaced or removed.
+ * <p>
+ * Network hits can also be served zero-copy through {@link #map}: the payload file is mapped
+ * read-only and handed out as a {@link MappedBytes} lease, so large animated images decode
+ * straight from the page cache instead of being copied onto the heap per player. A live lease
+ * pins its entry — budget eviction skips it and any removal defers the file delete until the
+ * last lease is closed.
+ * <p>
+ * Cacheable network bodies are never buffered whole on the heap: the downloading thread tees
+ * them into a private {@code .part} file as they arrive and publishes it atomically once
+ * complete. Concurrent callers for the same key ride that single download.
+ * <p>
+ * Index mutations cost O(1) disk I/O: each put/delete is appended to a checksummed journal next
+ * to the {@code index.dat} snapshot, and the snapshot is rewritten only when the journal outgrows
+ * the live index (and once per {@link #start}). Recovery replays the journal over the snapshot and
+ * stops at the first torn or corrupt record, so a crash mid-append loses at most that mutation.
  * <p>
  * The codec mode and its writer/reader are resolved at {@link #start(Path)} from the configured
- * preference and the codecs the JNI bindings have registered; when no BC encoder is present the
- * cache stays in {@link Mode#DISK} and behaves exactly like the network tier alone.
+ * preference and the available BC versions (BC3/BC1 always, via the pure-Java encoder); with the
+ * codec cache switched off the cache stays in {@link Mode#DISK} and behaves exactly like the
+ * network tier alone.
  */
 public final class NetworkCache {
     private static final Marker IT = MarkerManager.getMarker(NetworkCache.class.getSimpleName());
@@ -78,6 +106,15 @@ public final class NetworkCache {
     private static final int HASH_BYTES = 32;
     private static final int LOCK_STRIPES = 64;
     private static final String INDEX_FILE = "index.dat";
+    private static final int JOURNAL_MAGIC = 0x574D494A; // WMIJ
+    private static final String JOURNAL_FILE = "index.jnl";
+    private static final byte JOURNAL_PUT = 1;
+    private static final byte JOURNAL_DELETE = 2;
+    // COMPACT ONCE THE JOURNAL HOLDS MORE RECORDS THAN THE LIVE INDEX (BUT NEVER BELOW THIS FLOOR), SO
+    // THE O(n) SNAPSHOT REWRITE IS AMORTIZED OVER AT LEAST n APPENDS AND REPLAY STAYS BOUNDED.
+    private static final int JOURNAL_COMPACT_MIN = 1024;
+    // UPPER BOUND FOR A SINGLE RECORD PAYLOAD; A LARGER LENGTH PREFIX CAN ONLY BE A TORN OR CORRUPT TAIL.
+    private static final int JOURNAL_RECORD_MAX = 64 * 1024;
     private static final String FILE_PREFIX = "wm_";
     private static final String FILE_SUFFIX = ".tmp";
 
@@ -85,19 +122,35 @@ public final class NetworkCache {
     // AND NEVER EXPIRE ON THEIR OWN — THEY ARE DROPPED ONLY WHEN UNREADABLE OR ON MANUAL CLEANUP.
     private static final String CODEC_CONTENT_TYPE = "image/vnd-ms.dds";
     private static final long CODEC_NEVER_EXPIRES = Long.MAX_VALUE;
+    private static final String KEYFRAMES_CONTENT_TYPE = "application/vnd.watermedia.keyframes";
     // FALLBACK TTL FOR ORIGINS THAT SEND NO Cache-Control/Expires: CACHE FOR A WEEK INSTEAD OF
     // FOREVER SO THE %TEMP% STORE CANNOT GROW UNBOUNDED ACROSS SESSIONS FROM HEADER-LESS BODIES.
     private static final long DEFAULT_TTL_MS = 7L * 24 * 60 * 60 * 1000;
 
-    // INDEX KEY = tier.prefix + ":" + hex(hash) SO BOTH TIERS CAN COEXIST FOR THE SAME URI.
-    private static final Map<String, Entry> INDEX = new HashMap<>();
-    // SINGLE-FLIGHT REGISTRY: CONCURRENT read/readFile CALLS FOR THE SAME NETWORK KEY SHARE ONE
-    // DOWNLOAD INSTEAD OF EACH HITTING THE ORIGIN. KEYED BY hex(hash), CLEARED WHEN THE FETCH ENDS.
-    private static final Map<String, CompletableFuture<CachedBytes>> INFLIGHT = new ConcurrentHashMap<>();
+    // INDEX KEY = tier.prefix + ":" + hex(hash) SO BOTH TIERS CAN COEXIST FOR THE SAME URI. LOOKUPS ARE
+    // LOCK-FREE (AND MARK THE Entry AS REFERENCED); MUTATIONS ARE SERIALIZED BY THE NetworkCache.class MONITOR
+    // SO THE JOURNAL, storedBytes AND LEASES STAY CONSISTENT WITH THE MAP.
+    private static final Map<String, Entry> INDEX = new ConcurrentHashMap<>();
+    // CLOCK RING FOR BUDGET EVICTION, COLD END FIRST: EVERY INDEXED ENTRY IN INSERTION ORDER. REPLACED OR
+    // REMOVED ENTRIES STAY UNTIL THE HAND OR THE NEXT COMPACTION DROPS THEM. GUARDED BY NetworkCache.class.
+    private static final ArrayDeque<Entry> CLOCK = new ArrayDeque<>();
+    // SINGLE-FLIGHT REGISTRY: CONCURRENT read/readFile/map CALLS FOR THE SAME NETWORK KEY SHARE
+    // ONE DOWNLOAD INSTEAD OF EACH HITTING THE ORIGIN. KEYED BY hex(hash), CLEARED WHEN THE FETCH ENDS.
+    private static final Map<String, Download> INFLIGHT = new ConcurrentHashMap<>();
+    // MAPPED-READ LEASES: INDEX KEY -> LIVE MappedBytes COUNT. DOOMED HOLDS KEYS REMOVED FROM THE INDEX
+    // WHILE LEASED, WHOSE PAYLOAD DELETE WAITS FOR THE LAST RELEASE. BOTH GUARDED BY NetworkCache.class.
+    private static final Map<String, Integer> LEASES = new HashMap<>();
+    private static final Set<String> DOOMED = new HashSet<>();
     private static final Object[] LOCKS = new Object[LOCK_STRIPES];
 
     private static Path cacheDir;
     private static Path indexPath;
+    private static Path journalPath;
+    // APPEND HANDLE FOR THE INDEX JOURNAL AND ITS RECORD COUNT SINCE THE LAST COMPACTION. GUARDED BY NetworkCache.class.
+    private static FileChannel journal;
+    private static int journalRecords;
+    // RUNNING PAYLOAD TOTAL OF EVERY INDEXED ENTRY, KEPT IN STEP WITH INDEX. GUARDED BY NetworkCache.class.
+    private static long storedBytes;
     // ACTIVE CACHING STRATEGY, RESOLVED ONCE AT start(). READ FROM PLAYER/DECODE THREADS.
     private static volatile Mode mode = Mode.DISK;
 
@@ -118,10 +171,15 @@ public final class NetworkCache {
         /** Raw HTTP response bodies fetched from a media origin. */
         NETWORK("n"),
         /**
-         * BC7-compressed frame textures packaged as DDS files. Populated by the codec
-         * writer once the BC7 encoder ships; readers stream the bytes straight to the GPU.
+         * BC-compressed frame textures packaged as DDS files. Populated by the codec
+         * writer; readers stream the bytes straight to the GPU.
+         */
+        CODEC("c"),
+        /**
+         * Keyframe index of a cached media body, written by {@code FFMediaPlayer} so later players of
+         * the same body seek without scanning it. Lives and dies with its network entry.
          */
-        CODEC("c");
+        KEYFRAMES("k");
 
         final String prefix;
         Tier(final String prefix) { this.prefix = prefix; }
@@ -160,19 +218,47 @@ public final class NetworkCache {
     public static synchronized void start(final Path dir) throws IOException {
         cacheDir = dir.toAbsolutePath();
         indexPath = cacheDir.resolve(INDEX_FILE);
+        journalPath = cacheDir.resolve(JOURNAL_FILE);
+        // A RESTART WITHOUT release() MUST NOT KEEP APPENDING TO THE PREVIOUS STORE'S JOURNAL
+        IOTool.closeQuietly(journal);
+        journal = null;
         Files.createDirectories(cacheDir);
         loadIndex();
-        // CODEC MODE IS OPT-IN AND REQUIRES A NATIVE BC CODEC; OTHERWISE THE CACHE IS DISK-ONLY.
+        sweepOrphans();
+        // CODEC MODE IS OPT-IN AND REQUIRES A BC CODEC; OTHERWISE THE CACHE IS DISK-ONLY.
         mode = WaterMediaConfig.media.tx.codecCache && CodecsAPI.available(CodecsAPI.CODEC_BC)
                 ? Mode.CODEC : Mode.DISK;
         LOGGER.info(IT, "Media network cache initialized at {} (mode={})", cacheDir, mode);
     }
 
-    /** Clears the in-memory index and detaches the store; the on-disk files are left in place. */
+    /**
+     * Writes a final snapshot, clears the in-memory index and detaches the store; the on-disk files
+     * are left in place.
+     */
     public static synchronized void release() {
+        // THE JOURNAL HOLDS EVERY MUTATION BUT NO ACCESS, SO REPLAYING IT ALONE RESTORES WRITE ORDER. THE
+        // SNAPSHOT IS WRITTEN IN LRU ORDER: THE RECENCY GAINED THIS SESSION SURVIVES THE RESTART. A CRASH
+        // SKIPS THIS AND ONLY LOSES THAT RECENCY. AN INTERRUPTED CHANNEL WRITE WOULD CLOSE THE JOURNAL.
+        final boolean wasInterrupted = Thread.interrupted();
+        try {
+            compactIndex();
+        } catch (final IOException e) {
+            LOGGER.warn(IT, "Failed to write media cache index snapshot", e);
+        } finally {
+            if (wasInterrupted) Thread.currentThread().interrupt();
+        }
+        IOTool.closeQuietly(journal);
+        journal = null;
+        journalRecords = 0;
         INDEX.clear();
+        CLOCK.clear();
+        storedBytes = 0L;
+        // OUTSTANDING LEASES STAY VALID (THE MAPPING OUTLIVES THE STORE); THEIR CLOSE BECOMES A NO-OP
+        LEASES.clear();
+        DOOMED.clear();
         cacheDir = null;
         indexPath = null;
+        journalPath = null;
         mode = Mode.DISK;
     }
 
@@ -187,8 +273,9 @@ public final class NetworkCache {
     /**
      * Reads {@code uri} into memory. When {@code enabled} and the URI is cacheable, a fresh stored
      * body is returned; otherwise the source is downloaded (single-flight per key) and, if the
-     * response is cacheable, persisted. The stripe lock is held only for the store read/write, never
-     * for the transfer, so a slow origin cannot block other keys sharing its lock stripe.
+     * response is cacheable, streamed to disk and persisted before it is read back. Hits are served
+     * without any lock; the stripe lock is held only to publish a downloaded body, never for the
+     * transfer, so a slow origin cannot block other keys sharing its lock stripe.
      */
     public static CachedBytes read(final URI uri, final RequestHeaders headers, final String accept,
                                    final long maxBytes, final boolean enabled) throws IOException {
@@ -198,29 +285,22 @@ public final class NetworkCache {
 
         final byte[] hash = keyHash(uri, headers, accept);
         final String hex = DataTool.hex(hash);
-        synchronized (lock(Tier.NETWORK, hex)) {
-            final Entry entry = storeRead(Tier.NETWORK, hex);
-            if (entry != null) {
-                final Path file = storeFile(Tier.NETWORK, hex);
-                // OVERSIZED ENTRIES ARE NOT EVICTED — FALL THROUGH TO A FRESH FETCH INSTEAD.
-                if (Files.size(file) <= maxBytes) {
-                    try {
-                        return new CachedBytes(Files.readAllBytes(file), entry.contentType, true, entry.expiresAt);
-                    } catch (final IOException e) {
-                        storeDelete(Tier.NETWORK, hex);
-                        throw e;
-                    }
-                }
+        // HITS TAKE NO LOCK: PAYLOADS ARE PUBLISHED BY ATOMIC MOVE, SO A READER SEES A COMPLETE OLD OR NEW BODY
+        final Entry entry = storeRead(Tier.NETWORK, hex);
+        // OVERSIZED ENTRIES ARE NOT EVICTED — FALL THROUGH TO A FRESH FETCH INSTEAD.
+        if (entry != null && entry.size <= maxBytes) {
+            try {
+                return new CachedBytes(Files.readAllBytes(storeFile(Tier.NETWORK, hex)), entry.contentType, true, entry.expiresAt);
+            } catch (final NoSuchFileException e) {
+                // EVICTED BETWEEN THE LOOKUP AND THE READ: NOT AN ERROR, JUST A MISS
+                storeEvict(Tier.NETWORK, hex, entry);
+            } catch (final IOException e) {
+                storeEvict(Tier.NETWORK, hex, entry);
+                throw e;
             }
         }
 
-        final CachedBytes downloaded = fetchShared(hex, uri, headers, accept, maxBytes);
-        if (downloaded.expiresAt > System.currentTimeMillis()) {
-            synchronized (lock(Tier.NETWORK, hex)) {
-                storeWrite(Tier.NETWORK, hash, downloaded.bytes, downloaded.expiresAt, downloaded.contentType);
-            }
-        }
-        return downloaded;
+        return materialize(fetchShared(hash, hex, uri, headers, accept, maxBytes), uri, headers, accept, maxBytes);
     }
 
     /**
@@ -228,7 +308,8 @@ public final class NetworkCache {
      * Returns {@code null} — meaning "stream the URI directly, do not cache" — when caching is
      * disabled/inapplicable, when the body is a playlist (m3u8/DASH, which must never be served from
      * a stale file), or when the response is uncacheable. Otherwise the body is downloaded
-     * (single-flight per key) and stored, and a handle to the cached file is returned.
+     * (single-flight per key) straight into the store, and a handle to the cached file is returned
+     * once it is complete — the heap holds one transfer buffer, never the body.
      */
     public static CachedFile readFile(final URI uri, final RequestHeaders headers, final String accept,
                                       final long maxBytes, final boolean enabled) throws IOException {
@@ -236,27 +317,70 @@ public final class NetworkCache {
 
         final byte[] hash = keyHash(uri, headers, accept);
         final String hex = DataTool.hex(hash);
-        synchronized (lock(Tier.NETWORK, hex)) {
-            final Entry entry = storeRead(Tier.NETWORK, hex);
-            if (entry != null) {
-                // A STORED PLAYLIST BODY MUST NOT BE SERVED AS A FILE — EVICT AND RE-FETCH.
-                if (isPlaylist(entry.contentType)) {
-                    storeDelete(Tier.NETWORK, hex);
-                } else {
-                    final Path file = storeFile(Tier.NETWORK, hex);
-                    if (Files.size(file) <= maxBytes) return new CachedFile(file, true, entry.contentType);
-                }
+        final Entry entry = storeRead(Tier.NETWORK, hex);
+        if (entry != null) {
+            // A STORED PLAYLIST BODY MUST NOT BE SERVED AS A FILE — EVICT AND RE-FETCH.
+            if (isPlaylist(entry.contentType)) {
+                storeEvict(Tier.NETWORK, hex, entry);
+            } else if (entry.size <= maxBytes) {
+                return new CachedFile(storeFile(Tier.NETWORK, hex), true, entry.contentType);
             }
         }
 
-        final CachedBytes downloaded = fetchShared(hex, uri, headers, accept, maxBytes);
-        if (isPlaylist(downloaded.contentType)) return null;
-        if (downloaded.expiresAt <= System.currentTimeMillis()) return null;
-        final Path file;
-        synchronized (lock(Tier.NETWORK, hex)) {
-            file = storeWrite(Tier.NETWORK, hash, downloaded.bytes, downloaded.expiresAt, downloaded.contentType);
+        // ONLY CACHEABLE, NON-PLAYLIST BODIES ARE TEED TO DISK; ANYTHING KEPT IN MEMORY IS STREAMED DIRECTLY
+        final Fetched downloaded = fetchShared(hash, hex, uri, headers, accept, maxBytes);
+        if (downloaded.file == null) return null;
+        return new CachedFile(downloaded.file, false, downloaded.contentType);
+    }
+
+    /** Reads {@code uri} as a read-only buffer, mapping a fresh cached body when one exists. */
+    public static MappedBytes map(final URI uri, final RequestHeaders headers, final String accept, final long maxBytes) throws IOException {
+        return map(uri, headers, accept, maxBytes, WaterMediaConfig.media.tx.cache);
+    }
+
+    /**
+     * Zero-copy counterpart of {@link #read}. A cache hit maps the payload file read-only and
+     * returns it as a leased {@link MappedBytes}, so callers decode straight from the page cache
+     * with no heap copy. A miss downloads (single-flight per key) and, when the body is cacheable,
+     * maps the freshly published file as well; uncacheable bodies come back as a read-only,
+     * unleased heap buffer. The caller must {@link MappedBytes#close() close} the result once the
+     * buffer is no longer read, which unpins the entry for eviction.
+     */
+    public static MappedBytes map(final URI uri, final RequestHeaders headers, final String accept,
+                                  final long maxBytes, final boolean enabled) throws IOException {
+        if (!enabled || !isHttp(uri) || cacheDir == null) {
+            return MappedBytes.heap(fetch(uri, headers, accept, maxBytes));
         }
-        return new CachedFile(file, false, downloaded.contentType);
+
+        final byte[] hash = keyHash(uri, headers, accept);
+        final String hex = DataTool.hex(hash);
+        final Entry entry = storeRead(Tier.NETWORK, hex);
+        // OVERSIZED ENTRIES ARE NOT EVICTED — FALL THROUGH TO A FRESH FETCH INSTEAD.
+        if (entry != null && entry.size <= maxBytes) {
+            // AN ENTRY EVICTED OR UNREADABLE BEFORE ITS LEASE IS TAKEN IS A MISS, NOT AN ERROR
+            try {
+                final MappedBytes hit = storeMap(Tier.NETWORK, hex, entry, storeFile(Tier.NETWORK, hex), true);
+                if (hit != null) return hit;
+            } catch (final IOException e) {
+                storeEvict(Tier.NETWORK, hex, entry);
+                LOGGER.debug(IT, "Failed to map cached media entry for {}: {}", uri, e.getMessage());
+            }
+        }
+
+        final Fetched downloaded = fetchShared(hash, hex, uri, headers, accept, maxBytes);
+        if (downloaded.file != null) {
+            // RE-RESOLVE: THE PUBLISHED FILE MAY ALREADY BE EVICTED OR REPLACED
+            final Entry fresh = storeRead(Tier.NETWORK, hex);
+            if (fresh != null) {
+                try {
+                    final MappedBytes mapped = storeMap(Tier.NETWORK, hex, fresh, downloaded.file, false);
+                    if (mapped != null) return mapped;
+                } catch (final IOException e) {
+                    LOGGER.debug(IT, "Failed to map fresh media cache entry for {}: {}", uri, e.getMessage());
+                }
+            }
+        }
+        return MappedBytes.heap(materialize(downloaded, uri, headers, accept, maxBytes));
     }
 
     // ==========================================================================
@@ -316,48 +440,183 @@ public final class NetworkCache {
     public static BCReader openCodecReader(final URI uri, final RequestHeaders headers, final String accept) throws IOException {
         if (cacheDir == null) return null;
         final String hex = DataTool.hex(keyHash(uri, headers, accept));
-        if (storeRead(Tier.CODEC, hex) == null) return null;
+        final Entry entry = storeRead(Tier.CODEC, hex);
+        if (entry == null) return null;
         final Path file = storeFile(Tier.CODEC, hex);
         try {
             return new BCReader(ByteBuffer.wrap(Files.readAllBytes(file)));
         } catch (final IOException e) {
-            storeDelete(Tier.CODEC, hex);
+            storeEvict(Tier.CODEC, hex, entry);
+            throw e;
+        }
+    }
+
+    // ==========================================================================
+    // PUBLIC API — KEYFRAME INDEX
+    // ==========================================================================
+    /**
+     * Reads the keyframe index stored next to the cached body of {@code uri}.
+     *
+     * @return the encoded index, or {@code null} when the body is not cached or has no index yet
+     * @throws IOException if the index file cannot be read; the entry is dropped first
+     */
+    public static byte[] readKeyframeIndex(final URI uri, final RequestHeaders headers, final String accept) throws IOException {
+        if (!isHttp(uri) || cacheDir == null) return null;
+        final String hex = DataTool.hex(keyHash(uri, headers, accept));
+        if (storeRead(Tier.NETWORK, hex) == null) return null;
+        final Entry entry = storeRead(Tier.KEYFRAMES, hex);
+        if (entry == null) return null;
+        try {
+            return Files.readAllBytes(storeFile(Tier.KEYFRAMES, hex));
+        } catch (final IOException e) {
+            storeEvict(Tier.KEYFRAMES, hex, entry);
             throw e;
         }
     }
 
+    /**
+     * Stores a keyframe index next to the cached body of {@code uri}, replacing any previous one. The
+     * index takes the body's expiry and is removed with it, so it never outlives the bytes it describes.
+     *
+     * @return false, storing nothing, when the body is not (or no longer) cached
+     * @throws IOException if the index cannot be written
+     */
+    public static boolean writeKeyframeIndex(final URI uri, final RequestHeaders headers, final String accept,
+                                             final byte[] data) throws IOException {
+        if (!isHttp(uri) || cacheDir == null) return false;
+        final byte[] hash = keyHash(uri, headers, accept);
+        final String hex = DataTool.hex(hash);
+        synchronized (lock(Tier.KEYFRAMES, hex)) {
+            final Entry body = storeRead(Tier.NETWORK, hex);
+            if (body == null) return false;
+            final Path file = storeFile(Tier.KEYFRAMES, hex);
+            final Path tmp = file.resolveSibling(file.getFileName().toString() + '.' + System.nanoTime() + ".part");
+            try {
+                Files.write(tmp, data);
+                storePublish(Tier.KEYFRAMES, hash, tmp, file, body.expiresAt, KEYFRAMES_CONTENT_TYPE);
+            } catch (final IOException e) {
+                Files.deleteIfExists(tmp);
+                throw e;
+            }
+            // THE BODY MAY HAVE BEEN REPLACED OR EVICTED WHILE THE INDEX WAS WRITTEN; IT WOULD DESCRIBE OTHER BYTES
+            if (INDEX.get(indexKey(Tier.NETWORK, hex)) != body) {
+                storeDelete(Tier.KEYFRAMES, hex);
+                return false;
+            }
+            return true;
+        }
+    }
+
     // ==========================================================================
     // NETWORK FETCH
     // ==========================================================================
     // SINGLE-FLIGHT WRAPPER: THE FIRST CALLER FOR A KEY DOWNLOADS; CONCURRENT CALLERS RIDE THE
     // SAME RESULT INSTEAD OF DUPLICATING THE FETCH. RIDERS RE-FETCH ONLY IF THE SHARED BODY
     // OVERRUNS THEIR OWN maxBytes OR THE LEADER FAILED. NO STRIPE LOCK IS HELD DURING THE TRANSFER.
-    private static CachedBytes fetchShared(final String hex, final URI uri, final RequestHeaders headers,
-                                           final String accept, final long maxBytes) throws IOException {
-        final CompletableFuture<CachedBytes> mine = new CompletableFuture<>();
-        final CompletableFuture<CachedBytes> leader = INFLIGHT.putIfAbsent(hex, mine);
+    private static Fetched fetchShared(final byte[] hash, final String hex, final URI uri, final RequestHeaders headers,
+                                       final String accept, final long maxBytes) throws IOException {
+        final Download mine = new Download();
+        final Download leader = INFLIGHT.putIfAbsent(hex, mine);
         if (leader != null) {
             try {
-                final CachedBytes shared = leader.join();
-                if (shared.bytes.length <= maxBytes) return shared;
-            } catch (final CompletionException ignored) {
+                final Fetched shared = leader.await();
+                if (shared.size <= maxBytes) return shared;
+            } catch (final InterruptedIOException e) {
+                throw e;
+            } catch (final IOException ignored) {
                 // LEADER FAILED — FALL THROUGH TO AN INDEPENDENT FETCH BELOW
             }
-            return fetch(uri, headers, accept, maxBytes);
+            return download(hash, hex, uri, headers, accept, maxBytes, new Download());
         }
         try {
-            final CachedBytes downloaded = fetch(uri, headers, accept, maxBytes);
-            mine.complete(downloaded);
-            return downloaded;
-        } catch (final IOException | RuntimeException e) {
-            mine.completeExceptionally(e);
-            throw e;
+            return download(hash, hex, uri, headers, accept, maxBytes, mine);
         } finally {
             INFLIGHT.remove(hex, mine);
         }
     }
 
+    // RUNS ONE TRANSFER AND SETTLES download WITH ITS OUTCOME SO EVERY RIDER WAKES UP.
+    private static Fetched download(final byte[] hash, final String hex, final URI uri, final RequestHeaders headers,
+                                    final String accept, final long maxBytes, final Download download) throws IOException {
+        try {
+            final Fetched fetched = transfer(hash, hex, uri, headers, accept, maxBytes);
+            download.complete(fetched);
+            return fetched;
+        } catch (final IOException | RuntimeException e) {
+            download.fail(e);
+            throw e;
+        }
+    }
+
+    // STREAMING TEE: A CACHEABLE BODY GOES CHUNK BY CHUNK INTO A PRIVATE .part FILE AND IS MOVED INTO THE
+    // STORE ON COMPLETION. UNCACHEABLE AND PLAYLIST BODIES ARE NEVER STORED,
+    // SO THEY ARE STILL READ INTO MEMORY. THE DECISION IS MADE FROM THE RESPONSE HEADERS, BEFORE THE BODY.
+    private static Fetched transfer(final byte[] hash, final String hex, final URI uri, final RequestHeaders headers,
+                                    final String accept, final long maxBytes) throws IOException {
+        try (final NetRequest req = request(uri, headers, accept, maxBytes)) {
+            final long contentLength = req.contentLength();
+            final String contentType = req.contentType();
+            final long expiresAt = expiry(req);
+            if (expiresAt <= System.currentTimeMillis() || isPlaylist(contentType)) {
+                final byte[] bytes;
+                try (final InputStream in = req.inputStream()) {
+                    bytes = IOTool.readLimited(in, maxBytes, contentLength);
+                }
+                return new Fetched(null, bytes, contentType, expiresAt, bytes.length);
+            }
+
+            Files.createDirectories(cacheDir);
+            final Path file = storeFile(Tier.NETWORK, hex);
+            // UNIQUE TEMP: THE TRANSFER HOLDS NO STRIPE LOCK, SO A CONCURRENT INDEPENDENT FETCH OF THE SAME KEY
+            // MUST NOT SHARE ITS .part; THE PUBLISH MOVE IS ATOMIC AND THE LAST COMPLETE BODY WINS.
+            final Path part = file.resolveSibling(file.getFileName().toString() + '.' + System.nanoTime() + ".part");
+            long total = 0L;
+            try {
+                try (final InputStream in = req.inputStream(); final OutputStream out = Files.newOutputStream(part)) {
+                    final byte[] buffer = new byte[IOTool.BUFFER_SIZE];
+                    int read;
+                    while ((read = in.read(buffer)) >= 0) {
+                        total += read;
+                        if (total > maxBytes) throw new IOException("Failed to read input: exceeds limit (" + total + " > " + maxBytes + " bytes)");
+                        out.write(buffer, 0, read);
+                    }
+                }
+            } catch (final IOException | RuntimeException e) {
+                Files.deleteIfExists(part);
+                throw e;
+            }
+            try {
+                synchronized (lock(Tier.NETWORK, hex)) {
+                    storePublish(Tier.NETWORK, hash, part, file, expiresAt, contentType);
+                }
+            } catch (final IOException e) {
+                // THE BODY IS ALREADY IN HAND: A FAILED PUBLISH (E.G. A PLATFORM REFUSING TO REPLACE A STILL-MAPPED,
+                // DOOMED FILE) ONLY COSTS THE NEXT HIT A REFETCH. A MOVE THAT LANDED BEFORE THE INDEX FAILED LEFT
+                // NO .part; OTHERWISE THE COMPLETE .part IS SERVED AS IS AND THE NEXT start()
+                // SWEEPS IT.
+                LOGGER.warn(IT, "Failed to store media cache entry for {}", uri, e);
+                if (Files.isRegularFile(part)) return new Fetched(part, null, contentType, expiresAt, total);
+            } catch (final RuntimeException e) {
+                Files.deleteIfExists(part);
+                throw e;
+            }
+            return new Fetched(file, null, contentType, expiresAt, total);
+        }
+    }
+
+    // UNCACHED, UNSHARED FULL-BODY FETCH FOR CALLERS THAT BYPASS THE STORE.
     private static CachedBytes fetch(final URI uri, final RequestHeaders headers, final String accept, final long maxBytes) throws IOException {
+        try (final NetRequest req = request(uri, headers, accept, maxBytes)) {
+            final byte[] bytes;
+            try (final InputStream in = req.inputStream()) {
+                bytes = IOTool.readLimited(in, maxBytes, req.contentLength());
+            }
+            return new CachedBytes(bytes, req.contentType(), false, expiry(req));
+        }
+    }
+
+    // SENDS THE GET AND VALIDATES STATUS AND DECLARED LENGTH; THE CALLER OWNS (AND CLOSES) THE REQUEST.
+    private static NetRequest request(final URI uri, final RequestHeaders headers, final String accept, final long maxBytes) throws IOException {
         final NetRequest.Builder builder = NetRequest.create(uri).method("GET").headers(headers);
         if (accept != null && (headers == null || !headers.has("Accept"))) {
             builder.accept(accept);
@@ -369,7 +628,8 @@ public final class NetworkCache {
             builder.header("Range", "bytes=0-");
         }
 
-        try (final NetRequest req = builder.send()) {
+        final NetRequest req = builder.send();
+        try {
             // 206 IS EXPECTED FOR THE bytes=0- RANGE ABOVE; 200 STILL COMES BACK FROM SERVERS THAT IGNORE IT
             final int status = req.statusCode();
             if (status != HttpURLConnection.HTTP_OK && status != HttpURLConnection.HTTP_PARTIAL) {
@@ -380,12 +640,22 @@ public final class NetworkCache {
             if (contentLength > 0L && contentLength > maxBytes) {
                 throw new IOException("Media source exceeds cache limit (" + contentLength + " > " + maxBytes + " bytes): " + uri);
             }
+            return req;
+        } catch (final IOException | RuntimeException e) {
+            IOTool.closeQuietly(req);
+            throw e;
+        }
+    }
 
-            final byte[] bytes;
-            try (final InputStream in = req.inputStream()) {
-                bytes = IOTool.readLimited(in, maxBytes, contentLength);
-            }
-            return new CachedBytes(bytes, req.contentType(), false, expiry(req));
+    // READS A FETCH RESULT BACK INTO MEMORY. A BODY EVICTED BETWEEN ITS PUBLISH AND THIS READ (A BUDGET
+    // SMALLER THAN A BURST OF WRITES) IS FETCHED AGAIN UNCACHED RATHER THAN FAILING THE CALLER.
+    private static CachedBytes materialize(final Fetched fetched, final URI uri, final RequestHeaders headers,
+                                           final String accept, final long maxBytes) throws IOException {
+        if (fetched.bytes != null) return new CachedBytes(fetched.bytes, fetched.contentType, false, fetched.expiresAt);
+        try {
+            return new CachedBytes(Files.readAllBytes(fetched.file), fetched.contentType, false, fetched.expiresAt);
+        } catch (final NoSuchFileException e) {
+            return fetch(uri, headers, accept, maxBytes);
         }
     }
 
@@ -394,99 +664,205 @@ public final class NetworkCache {
     // ==========================================================================
     // EVERY ENTRY IS KEYED BY (tier, hex(hash)) AND BACKED BY A FILE NAMED
     // wm_<tier.prefix>_<hash>.tmp INSIDE cacheDir. THESE PRIMITIVES ARE SHARED
-    // BETWEEN THE NETWORK TIER AND THE CODEC TIER.
+    // BY EVERY TIER.
 
-    // RESOLVES THE LIVE INDEX ENTRY FOR (tier, hex), EVICTING IT WHEN EXPIRED OR ITS FILE IS GONE.
+    // RESOLVES THE LIVE INDEX ENTRY FOR (tier, hex), EVICTING IT WHEN EXPIRED OR ITS FILE IS GONE. THE HIT
+    // PATH TAKES NO MONITOR, SO READERS NEVER QUEUE BEHIND WRITERS JOURNALING OR EVICTING. THE EVICTION ONLY
+    // DROPS THE ENTRY SEEN HERE: A BODY PUBLISHED SINCE THE LOOKUP IS LEFT ALONE.
     private static Entry storeRead(final Tier tier, final String hex) {
-        final Entry entry;
-        synchronized (NetworkCache.class) {
-            entry = INDEX.get(indexKey(tier, hex));
-        }
+        final Entry entry = INDEX.get(indexKey(tier, hex));
         if (entry == null) return null;
         if (entry.expired(System.currentTimeMillis()) || !Files.isRegularFile(storeFile(tier, hex))) {
-            storeDelete(tier, hex);
+            storeEvict(tier, hex, entry);
             return null;
         }
+        entry.touch();
         return entry;
     }
 
-    private static Path storeWrite(final Tier tier, final byte[] hash, final byte[] bytes,
-                                   final long expiresAt, final String contentType) throws IOException {
-        Files.createDirectories(cacheDir);
-        final Path file = storeFile(tier, DataTool.hex(hash));
-        final Path tmp = file.resolveSibling(file.getFileName() + ".part");
-        Files.write(tmp, bytes);
-        IOTool.move(tmp, file);
-        storeIndex(tier, hash, expiresAt, contentType);
+    // ATOMICALLY PUBLISHES A COMPLETE TEMP FILE AS THE (tier, hash) PAYLOAD AND INDEXES IT. RUNS UNDER THE
+    // CALLER'S STRIPE LOCK. THE MOVE AND THE INDEX PUT SHARE ONE NetworkCache.class SECTION, SO AN EVICTION
+    // THAT WINS ITS CONDITIONAL REMOVE KNOWS THE FILE ON DISK IS STILL THE ONE IT SAW.
+    private static void storePublish(final Tier tier, final byte[] hash, final Path tmp, final Path file,
+                                     final long expiresAt, final String contentType) throws IOException {
+        final long size = Files.size(tmp);
+        synchronized (NetworkCache.class) {
+            IOTool.move(tmp, file);
+            storeIndex(tier, hash, expiresAt, contentType, size);
+        }
         // ENFORCE THE TOTAL-SIZE CAP AFTER PUBLISHING SO THE %TEMP% STORE CANNOT GROW UNBOUNDED.
-        enforceBudget(file);
-        return file;
+        enforceBudget(tier, DataTool.hex(hash));
     }
 
-    // SWEEPS THE STORE AFTER A WRITE AND EVICTS OLDEST ENTRIES UNTIL THE TOTAL FITS media.cacheMaxSize.
-    // LAST-MODIFIED TIME IS THE AGE PROXY, SO NO INDEX FORMAT/VERSION CHANGE IS NEEDED. CODEC TEXTURES
-    // NEVER EXPIRE ON THEIR OWN BUT ARE STILL EVICTABLE HERE UNDER BUDGET PRESSURE. RUNS UNDER THE CALLER'S
-    // STRIPE LOCK; EVERY REMOVAL GOES THROUGH storeDelete (NetworkCache.class MONITOR), KEEPING THE
-    // STRIPE->CLASS LOCK ORDER THE REST OF THE STORE USES, SO NO NEW DEADLOCK PATH IS INTRODUCED.
-    private static void enforceBudget(final Path written) {
-        if (cacheDir == null) return;
+    // MAPS A COMMITTED PAYLOAD READ-ONLY AND TAKES A LEASE ON IT, OR RETURNS NULL WHEN entry IS NO LONGER LIVE.
+    // THE LEASE IS TAKEN BEFORE THE OPEN, IN THE SAME NetworkCache.class SECTION THAT CHECKS THE ENTRY, SO NO
+    // EVICTION CAN DELETE THE FILE ONCE IT IS MAPPED: A PLATFORM THAT REFUSES TO DELETE A MAPPED FILE WOULD
+    // OTHERWISE LEAK IT AND FAIL THE NEXT PUBLISH ONTO ITS PATH. A FAILED MAP DROPS THE LEASE AGAIN. THE
+    // CHANNEL IS CLOSED RIGHT AWAY: THE MAPPING STAYS VALID ON ITS OWN UNTIL THE BUFFER IS COLLECTED.
+    private static MappedBytes storeMap(final Tier tier, final String hex, final Entry entry, final Path file,
+                                        final boolean cached) throws IOException {
+        final String key = indexKey(tier, hex);
+        synchronized (NetworkCache.class) {
+            if (INDEX.get(key) != entry) return null;
+            LEASES.merge(key, 1, Integer::sum);
+        }
+        boolean leased = false;
+        try {
+            final MappedByteBuffer buffer;
+            try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                final long size = channel.size();
+                if (size > Integer.MAX_VALUE) throw new IOException("Cache entry too large to map (" + size + " bytes): " + file);
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+            }
+            leased = true;
+            return new MappedBytes(buffer.asReadOnlyBuffer(), entry.contentType, cached, entry.expiresAt, key, file);
+        } finally {
+            if (!leased) storeUnmap(key, file);
+        }
+    }
+
+    // DROPS ONE LEASE; THE LAST RELEASE OF AN ENTRY REMOVED WHILE MAPPED DELETES ITS PAYLOAD NOW.
+    private static void storeUnmap(final String key, final Path file) {
+        synchronized (NetworkCache.class) {
+            final Integer count = LEASES.get(key);
+            if (count == null) return; // STORE RELEASED/RESTARTED SINCE THE LEASE WAS TAKEN
+            if (count > 1) {
+                LEASES.put(key, count - 1);
+                return;
+            }
+            LEASES.remove(key);
+            if (!DOOMED.remove(key)) return;
+            try {
+                Files.deleteIfExists(file);
+            } catch (final IOException e) {
+                LOGGER.warn(IT, "Failed to delete released cache entry {}", key, e);
+            }
+        }
+    }
+
+    // EVICTS COLD ENTRIES AFTER A WRITE UNTIL THE TOTAL FITS media.cacheMaxSize. THE SIZE TOTAL AND THE CLOCK
+    // RING LIVE IN MEMORY, SO THIS NEVER LISTS OR STATS THE DIRECTORY, AND IT ONLY VISITS ENTRIES FROM THE COLD
+    // END: A REFERENCED ENTRY LOSES ITS BIT AND GOES BACK TO THE WARM END, AN UNREFERENCED ONE IS EVICTED. CODEC
+    // TEXTURES NEVER EXPIRE ON THEIR OWN BUT ARE STILL EVICTABLE HERE UNDER BUDGET PRESSURE. MAPPED (LEASED)
+    // ENTRIES ARE PINNED AND SKIPPED, SO A LIVE MAPPING NEVER LOSES ITS FILE TO EVICTION. RUNS UNDER THE
+    // CALLER'S STRIPE LOCK AND THEN THE NetworkCache.class MONITOR, KEEPING THE STRIPE->CLASS LOCK ORDER THE
+    // REST OF THE STORE USES, SO NO NEW DEADLOCK PATH IS INTRODUCED.
+    private static void enforceBudget(final Tier tier, final String hex) {
         final long budget = Math.max(1L, WaterMediaConfig.media.cacheMaxSize) * 1024L * 1024L;
+        synchronized (NetworkCache.class) {
+            if (cacheDir == null) return;
+
+            // NEVER EVICT THE ENTRY WE JUST WROTE SO THE RETURNED PATH STAYS VALID. TWO TURNS OF THE HAND CLEAR
+            // EVERY BIT, SO THEY BOUND THE SCAN WHEN ALL THAT IS LEFT IS PINNED.
+            final String keep = indexKey(tier, hex);
+            for (int steps = 2 * CLOCK.size(); storedBytes > budget && steps > 0; steps--) {
+                final Entry entry = CLOCK.poll();
+                if (entry == null) break;
+                final String entryHex = DataTool.hex(entry.hash);
+                final String key = indexKey(entry.tier, entryHex);
+                if (INDEX.get(key) != entry) continue; // REPLACED OR REMOVED SINCE IT JOINED THE RING
+                if (entry.referenced) {
+                    entry.referenced = false;
+                    CLOCK.add(entry);
+                } else if (key.equals(keep) || LEASES.containsKey(key)) {
+                    CLOCK.add(entry);
+                } else {
+                    // EVICTING A BODY ALSO TAKES ITS KEYFRAME SIBLING, WHOSE RING SLOT THE HAND THEN SKIPS
+                    storeEvict(entry.tier, entryHex, entry);
+                }
+            }
+        }
+    }
 
-        // SNAPSHOT COMMITTED PAYLOAD FILES (SKIP index.dat AND *.part TEMPS); STAT FAILURES MEAN THE FILE
-        // VANISHED MID-SCAN (CONCURRENT EVICTION/EXPIRY) AND ARE SIMPLY SKIPPED.
-        final List<StoreFile> files = new ArrayList<>();
+    // POINT-IN-TIME VIEW OF THE INDEX, LEAST RECENTLY USED FIRST. ONLY BUILT WHEN LOADING OR COMPACTING.
+    private static List<Entry> lruOrder() {
+        final List<Entry> entries = new ArrayList<>(INDEX.values());
+        entries.sort(Comparator.comparingLong(entry -> entry.access));
+        return entries;
+    }
+
+    // DELETES PAYLOAD FILES THE INDEX DOES NOT KNOW (CORRUPT/UPGRADED INDEX, CRASH BETWEEN MOVE AND INDEX).
+    // THE BUDGET ONLY COUNTS INDEXED ENTRIES, SO WITHOUT THIS ONE SCAN PER start() THEY WOULD LEAK FOREVER.
+    private static synchronized void sweepOrphans() {
         try (final Stream<Path> stream = Files.list(cacheDir)) {
             stream.forEach(path -> {
                 final String name = path.getFileName().toString();
-                if (!name.startsWith(FILE_PREFIX) || !name.endsWith(FILE_SUFFIX)) return;
-                try {
-                    files.add(new StoreFile(name, Files.size(path), Files.getLastModifiedTime(path).toMillis()));
-                } catch (final IOException ignored) {}
+                if (!name.startsWith(FILE_PREFIX)) return;
+                // A .part LEFT BY A CRASHED TRANSFER OR SERVED AFTER A FAILED PUBLISH; NO TRANSFER RUNS YET
+                if (name.endsWith(".part")) {
+                    deleteOrphan(path, name);
+                    return;
+                }
+                if (!name.endsWith(FILE_SUFFIX)) return;
+                // wm_<tier.prefix>_<hex>.tmp -> <tier.prefix>:<hex>, THE INDEX KEY
+                final String stem = name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length());
+                final int sep = stem.indexOf('_');
+                if (sep < 0) return;
+                final String key = stem.substring(0, sep) + ':' + stem.substring(sep + 1);
+                if (!INDEX.containsKey(key)) deleteOrphan(path, name);
             });
         } catch (final IOException e) {
-            LOGGER.warn(IT, "Failed to scan media cache store for budget enforcement", e);
-            return;
-        }
-
-        long total = files.stream().mapToLong(StoreFile::size).sum();
-        if (total <= budget) return;
-
-        // OLDEST FIRST; NEVER EVICT THE ENTRY WE JUST WROTE SO THE RETURNED PATH STAYS VALID. storeDelete
-        // DROPS BOTH THE FILE AND ITS INDEX ENTRY, REUSING THE EXISTING CORRUPTION/EXPIRY REMOVAL PATH.
-        final String keep = written.getFileName().toString();
-        files.sort(Comparator.comparingLong(StoreFile::modified));
-        for (final StoreFile file: files) {
-            if (total <= budget) break;
-            if (file.name().equals(keep)) continue;
-            final int sep = file.name().indexOf('_', FILE_PREFIX.length());
-            if (sep < 0) continue;
-            // wm_<tier.prefix>_<hex>.tmp -> RESOLVE (tier, hex) SO storeDelete REBUILDS THE EXACT PATH.
-            final String prefix = file.name().substring(FILE_PREFIX.length(), sep);
-            final String hex = file.name().substring(sep + 1, file.name().length() - FILE_SUFFIX.length());
-            final Tier tier = Tier.NETWORK.prefix.equals(prefix) ? Tier.NETWORK
-                            : Tier.CODEC.prefix.equals(prefix) ? Tier.CODEC : null;
-            if (tier == null) continue;
-            storeDelete(tier, hex);
-            total -= file.size();
-        }
-    }
-
-    // REGISTERS (tier, hash) IN THE INDEX AND PERSISTS IT.
-    private static void storeIndex(final Tier tier, final byte[] hash, final long expiresAt, final String contentType) throws IOException {
+            LOGGER.warn(IT, "Failed to scan media cache store for orphan files", e);
+        }
+    }
+
+    private static void deleteOrphan(final Path path, final String name) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (final IOException e) {
+            LOGGER.debug(IT, "Failed to delete orphan media cache file {}: {}", name, e.getMessage());
+        }
+    }
+
+    // REGISTERS (tier, hash) IN THE INDEX AND JOURNALS IT.
+    private static void storeIndex(final Tier tier, final byte[] hash, final long expiresAt, final String contentType,
+                                   final long size) throws IOException {
         synchronized (NetworkCache.class) {
-            INDEX.put(indexKey(tier, DataTool.hex(hash)), new Entry(hash, tier, expiresAt, contentType));
-            writeIndex();
+            final String key = indexKey(tier, DataTool.hex(hash));
+            final Entry entry = new Entry(hash, tier, expiresAt, contentType, size);
+            final Entry previous = INDEX.put(key, entry);
+            CLOCK.add(entry);
+            storedBytes += size - (previous == null ? 0L : previous.size);
+            // A FRESH PAYLOAD REPLACED THE DOOMED FILE — THE LAST LEASE RELEASE MUST NOT DELETE IT
+            DOOMED.remove(key);
+            journalAppend(JOURNAL_PUT, entry);
+            // A NEW BODY INVALIDATES THE KEYFRAME INDEX OF THE OLD ONE
+            if (tier == Tier.NETWORK && previous != null) storeDelete(Tier.KEYFRAMES, DataTool.hex(hash));
         }
     }
 
+    // DROPS (tier, hex) WHATEVER ENTRY IS LIVE. ONLY FOR CALLERS HOLDING THE KEY'S STRIPE LOCK OR REPLACING
+    // THE BODY THE ENTRY DEPENDS ON; A LOCK-FREE READER MUST USE storeEvict.
     private static synchronized void storeDelete(final Tier tier, final String hex) {
-        INDEX.remove(indexKey(tier, hex));
+        storeUnlink(tier, hex, INDEX.remove(indexKey(tier, hex)));
+    }
+
+    // DROPS (tier, hex) ONLY WHILE expected IS STILL ITS LIVE ENTRY, AND TOUCHES THE FILE ONLY THEN: A FRESH
+    // BODY PUBLISHED OVER THE SAME PATH SINCE THE CALLER LOOKED IT UP IS NEITHER UNINDEXED NOR DELETED.
+    private static synchronized boolean storeEvict(final Tier tier, final String hex, final Entry expected) {
+        if (!INDEX.remove(indexKey(tier, hex), expected)) return false;
+        storeUnlink(tier, hex, expected);
+        return true;
+    }
+
+    // REMOVES THE PAYLOAD OF AN ENTRY ALREADY TAKEN OUT OF THE INDEX (removed IS NULL WHEN NONE WAS INDEXED)
+    private static void storeUnlink(final Tier tier, final String hex, final Entry removed) {
+        final String key = indexKey(tier, hex);
+        if (removed != null) storedBytes -= removed.size;
         try {
-            Files.deleteIfExists(storeFile(tier, hex));
-            writeIndex();
+            // A LIVE MAPPING PINS THE PAYLOAD: UNINDEX NOW, DELETE THE FILE ON THE LAST LEASE RELEASE
+            if (LEASES.containsKey(key)) {
+                DOOMED.add(key);
+            } else {
+                Files.deleteIfExists(storeFile(tier, hex));
+            }
+            // ONLY INDEXED KEYS NEED A TOMBSTONE; A MISSING ONE IS ALREADY ABSENT FROM SNAPSHOT + JOURNAL
+            if (removed != null) journalAppend(JOURNAL_DELETE, removed);
         } catch (final IOException e) {
             LOGGER.warn(IT, "Failed to delete cache entry {}:{}", tier.prefix, hex, e);
         }
+        // THE KEYFRAME INDEX DESCRIBES THE BODY'S BYTES AND GOES WITH IT
+        if (tier == Tier.NETWORK) storeDelete(Tier.KEYFRAMES, hex);
     }
 
     private static String indexKey(final Tier tier, final String hex) {
@@ -504,16 +880,53 @@ public final class NetworkCache {
     // ==========================================================================
     // INDEX PERSISTENCE
     // ==========================================================================
-    // ON-DISK LAYOUT (V3):
+    // SNAPSHOT LAYOUT (index.dat, V3):
     //   int  MAGIC
     //   int  VERSION
     //   int  count
     //   count * { byte tier, byte[HASH_BYTES] hash, long expiresAt, UTF contentType }
+    // JOURNAL LAYOUT (index.jnl), MUTATIONS SINCE THE SNAPSHOT IN APPEND ORDER:
+    //   int  JOURNAL_MAGIC
+    //   int  VERSION
+    //   n * { int length, byte[length] payload, int crc32(payload) }
+    //   payload = { byte op, byte tier, byte[HASH_BYTES] hash [, long expiresAt, UTF contentType when op == PUT] }
     // OLDER VERSIONS ARE NOT MIGRATED — A FRESH INDEX IS CREATED AND ORPHAN PAYLOAD
     // FILES ARE LEFT BEHIND HARMLESSLY UNTIL THE NEXT MANUAL CLEANUP.
 
+    // REBUILDS THE INDEX FROM SNAPSHOT + JOURNAL, DROPS DEAD ENTRIES, AND COMPACTS SO THE SESSION STARTS
+    // WITH AN EMPTY JOURNAL.
     private static synchronized void loadIndex() throws IOException {
         INDEX.clear();
+        storedBytes = 0L;
+        journalRecords = 0;
+        readSnapshot();
+        readJournal();
+
+        // ONE STAT PER LIVE ENTRY PER SESSION: RESOLVES THE PAYLOAD SIZES THE BUDGET TOTAL IS BUILT FROM AND
+        // DROPS ENTRIES WHOSE FILE IS GONE. sized() CARRIES THE ACCESS STAMP, KEEPING THE RECOVERED LRU ORDER.
+        final long now = System.currentTimeMillis();
+        storedBytes = 0L;
+        for (final Map.Entry<String, Entry> e: INDEX.entrySet()) {
+            final Entry entry = e.getValue();
+            if (entry.expired(now)) {
+                INDEX.remove(e.getKey());
+                continue;
+            }
+            try {
+                final long size = Files.size(storeFile(entry.tier, DataTool.hex(entry.hash)));
+                INDEX.put(e.getKey(), entry.sized(size));
+                storedBytes += size;
+            } catch (final IOException ex) {
+                INDEX.remove(e.getKey());
+            }
+        }
+        // THE HAND STARTS FROM THE LEAST RECENTLY USED ENTRY OF THE LAST SESSION
+        CLOCK.clear();
+        CLOCK.addAll(lruOrder());
+        compactIndex();
+    }
+
+    private static void readSnapshot() {
         if (!Files.isRegularFile(indexPath)) return;
 
         try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
@@ -524,18 +937,13 @@ public final class NetworkCache {
                 throw new IOException("Unsupported media cache index");
             }
 
-            final long now = System.currentTimeMillis();
             for (int i = 0; i < count; i++) {
                 final Tier tier = Tier.of(in.readByte());
                 final byte[] hash = new byte[HASH_BYTES];
                 in.readFully(hash);
                 final long expiresAt = in.readLong();
                 final String contentType = in.readUTF();
-                final String hex = DataTool.hex(hash);
-                final Entry entry = new Entry(hash, tier, expiresAt, contentType.isEmpty() ? null : contentType);
-                if (!entry.expired(now) && Files.isRegularFile(storeFile(tier, hex))) {
-                    INDEX.put(indexKey(tier, hex), entry);
-                }
+                INDEX.put(indexKey(tier, DataTool.hex(hash)), new Entry(hash, tier, expiresAt, contentType.isEmpty() ? null : contentType, 0L));
             }
         } catch (final IOException | RuntimeException e) {
             // A FLIPPED TIER BYTE MAKES Tier.of THROW IllegalArgumentException; TREAT ANY MALFORMED
@@ -545,6 +953,118 @@ public final class NetworkCache {
         }
     }
 
+    // REPLAYS JOURNAL RECORDS OVER THE SNAPSHOT UNTIL EOF OR THE FIRST TORN/CORRUPT RECORD. A CRASH MID-APPEND
+    // LEAVES AT MOST ONE PARTIAL RECORD AT THE TAIL; EVERYTHING BEFORE IT IS CHECKSUMMED AND STILL APPLIED.
+    private static void readJournal() {
+        if (!Files.isRegularFile(journalPath)) return;
+
+        int applied = 0;
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journalPath)))) {
+            if (in.readInt() != JOURNAL_MAGIC || in.readInt() != VERSION) {
+                LOGGER.warn(IT, "Ignoring unsupported media cache journal at {}", journalPath);
+                return;
+            }
+
+            final CRC32 crc = new CRC32();
+            while (true) {
+                final int length;
+                try {
+                    length = in.readInt();
+                } catch (final EOFException e) {
+                    break; // CLEAN END
+                }
+                if (length < 2 + HASH_BYTES || length > JOURNAL_RECORD_MAX) {
+                    throw new IOException("Invalid journal record length " + length);
+                }
+                final byte[] payload = new byte[length];
+                in.readFully(payload);
+                crc.reset();
+                crc.update(payload);
+                if (in.readInt() != (int) crc.getValue()) {
+                    throw new IOException("Journal record checksum mismatch");
+                }
+                journalApply(payload);
+                applied++;
+            }
+        } catch (final IOException | RuntimeException e) {
+            // TORN TAIL (SHORT READ, BAD LENGTH/CRC, UNKNOWN TIER): KEEP THE RECORDS BEFORE IT; THE COMPACTION
+            // THAT FOLLOWS loadIndex REWRITES THE SNAPSHOT AND DISCARDS THE DAMAGED JOURNAL.
+            LOGGER.warn(IT, "Discarding torn media cache journal tail at {} after {} records: {}", journalPath, applied, e.toString());
+        }
+    }
+
+    private static void journalApply(final byte[] payload) throws IOException {
+        try (final DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            final byte op = in.readByte();
+            final Tier tier = Tier.of(in.readByte());
+            final byte[] hash = new byte[HASH_BYTES];
+            in.readFully(hash);
+            final String key = indexKey(tier, DataTool.hex(hash));
+            switch (op) {
+                case JOURNAL_PUT -> {
+                    final long expiresAt = in.readLong();
+                    final String contentType = in.readUTF();
+                    INDEX.put(key, new Entry(hash, tier, expiresAt, contentType.isEmpty() ? null : contentType, 0L));
+                }
+                case JOURNAL_DELETE -> INDEX.remove(key);
+                default -> throw new IOException("Unknown journal op " + op);
+            }
+        }
+    }
+
+    // APPENDS ONE MUTATION: A SINGLE SMALL WRITE INDEPENDENT OF THE INDEX SIZE. COMPACTS WHEN THE JOURNAL HAS
+    // OUTGROWN THE LIVE INDEX. CALLER HOLDS THE NetworkCache.class MONITOR.
+    private static void journalAppend(final byte op, final Entry entry) throws IOException {
+        if (journal == null) return;
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (final DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(op);
+            out.writeByte(entry.tier.tag());
+            out.write(entry.hash);
+            if (op == JOURNAL_PUT) {
+                out.writeLong(entry.expiresAt);
+                out.writeUTF(entry.contentType == null ? "" : entry.contentType);
+            }
+        }
+        final byte[] payload = bytes.toByteArray();
+        final CRC32 crc = new CRC32();
+        crc.update(payload);
+        final ByteBuffer record = ByteBuffer.allocate(4 + payload.length + 4)
+                .putInt(payload.length)
+                .put(payload)
+                .putInt((int) crc.getValue())
+                .flip();
+        while (record.hasRemaining()) {
+            journal.write(record);
+        }
+
+        if (++journalRecords > Math.max(JOURNAL_COMPACT_MIN, INDEX.size())) {
+            compactIndex();
+        }
+    }
+
+    // FOLDS THE JOURNAL INTO A FRESH SNAPSHOT, THEN RESETS THE JOURNAL TO ITS HEADER. THE SNAPSHOT MOVE IS
+    // ATOMIC AND JOURNAL RECORDS ARE IDEMPOTENT, SO A CRASH BETWEEN THE TWO STEPS REPLAYS TO THE SAME STATE.
+    private static synchronized void compactIndex() throws IOException {
+        if (indexPath == null) return;
+
+        writeIndex();
+        // EVERY STALE RING SLOT CAME FROM A JOURNALED PUT OR DELETE, SO PRUNING HERE KEEPS THE RING WITHIN A
+        // CONSTANT FACTOR OF THE INDEX EVEN WHEN THE BUDGET IS NEVER REACHED
+        CLOCK.removeIf(entry -> INDEX.get(indexKey(entry.tier, DataTool.hex(entry.hash))) != entry);
+        if (journal == null) {
+            journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        journal.truncate(0L);
+        final ByteBuffer header = ByteBuffer.allocate(8).putInt(JOURNAL_MAGIC).putInt(VERSION).flip();
+        journal.position(0L);
+        while (header.hasRemaining()) {
+            journal.write(header);
+        }
+        journalRecords = 0;
+    }
+
     private static synchronized void writeIndex() throws IOException {
         if (indexPath == null) return;
 
@@ -553,8 +1073,10 @@ public final class NetworkCache {
         try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
             out.writeInt(MAGIC);
             out.writeInt(VERSION);
-            out.writeInt((int) INDEX.values().stream().filter(entry -> !entry.expired(now)).count());
-            for (final Entry entry: INDEX.values()) {
+            // LRU ORDER: RECOVERY ASSIGNS ACCESS STAMPS IN FILE ORDER, SO RECENCY SURVIVES THE RESTART
+            final List<Entry> entries = lruOrder();
+            out.writeInt((int) entries.stream().filter(entry -> !entry.expired(now)).count());
+            for (final Entry entry: entries) {
                 if (entry.expired(now)) continue;
                 out.writeByte(entry.tier.tag());
                 out.write(entry.hash);
@@ -619,7 +1141,8 @@ public final class NetworkCache {
 
     // CANONICAL CACHE KEY: uri + '\n' + LOWERCASED "name:value" LINES + OPTIONAL "accept:" TAIL.
     // THE BYTE STREAM MUST STAY STABLE — ANY DRIFT ORPHANS EVERY EXISTING ON-DISK CACHE.
-    private static byte[] keyHash(final URI uri, final RequestHeaders headers, final String accept) {
+    // PACKAGE-PRIVATE: FrameCache KEYS ITS DECODED SETS BY THE SAME LOGICAL RESOURCE AS BOTH DISK TIERS.
+    static byte[] keyHash(final URI uri, final RequestHeaders headers, final String accept) {
         final StringBuilder key = new StringBuilder(uri.toASCIIString()).append('\n');
         if (headers != null && !headers.isEmpty()) {
             for (final RequestHeaders.Entry entry: headers.entries()) {
@@ -688,7 +1211,7 @@ public final class NetworkCache {
                 } catch (final IOException ignored) {}
                 throw e;
             }
-            storeIndex(Tier.CODEC, this.hash, CODEC_NEVER_EXPIRES, CODEC_CONTENT_TYPE);
+            storeIndex(Tier.CODEC, this.hash, CODEC_NEVER_EXPIRES, CODEC_CONTENT_TYPE, Files.size(this.file));
         }
 
         /** Discards the in-progress texture without publishing it. */
@@ -720,12 +1243,135 @@ public final class NetworkCache {
 
     public record CachedFile(Path path, boolean cached, String contentType) {}
 
-    private record Entry(byte[] hash, Tier tier, long expiresAt, String contentType) {
+    /**
+     * A read-only body served by {@link #map}: either a mapping of a cached payload file (a lease
+     * that pins the entry against eviction) or the freshly downloaded heap bytes. Closing releases
+     * the lease; the buffer itself stays readable until collected, but callers must not rely on a
+     * closed mapping reflecting the cache entry any longer. Idempotent and safe from any thread.
+     */
+    public static final class MappedBytes implements Closeable {
+        private final ByteBuffer buffer;
+        private final String contentType;
+        private final boolean cached;
+        private final long expiresAt;
+        private final String lease;
+        private final Path file;
+        private volatile boolean closed;
+
+        MappedBytes(final ByteBuffer buffer, final String contentType, final boolean cached, final long expiresAt,
+                    final String lease, final Path file) {
+            this.buffer = buffer;
+            this.contentType = contentType;
+            this.cached = cached;
+            this.expiresAt = expiresAt;
+            this.lease = lease;
+            this.file = file;
+        }
+
+        static MappedBytes heap(final CachedBytes bytes) {
+            return new MappedBytes(ByteBuffer.wrap(bytes.bytes).asReadOnlyBuffer(), bytes.contentType,
+                    bytes.cached, bytes.expiresAt, null, null);
+        }
+
+        /** A fresh read-only view over the body, positioned at zero; each call has its own cursor. */
+        public ByteBuffer buffer() {
+            return this.buffer.duplicate();
+        }
+
+        public String contentType() { return this.contentType; }
+
+        /** Whether the body was served from the store (and therefore mapped). */
+        public boolean cached() { return this.cached; }
+
+        public long expiresAt() { return this.expiresAt; }
+
+        /** Whether this body is a file mapping holding a lease on its cache entry. */
+        public boolean mapped() { return this.lease != null; }
+
+        @Override
+        public void close() {
+            if (this.lease == null || this.closed) return;
+            synchronized (this) {
+                if (this.closed) return;
+                this.closed = true;
+            }
+            storeUnmap(this.lease, this.file);
+        }
+    }
+
+    // size IS RESOLVED FROM THE PAYLOAD FILE (NOT PERSISTED). EVERY LOOKUP SETS referenced, THE CLOCK BIT, AND
+    // REFRESHES access, A System.nanoTime() STAMP, WITHOUT LOCKING; SNAPSHOTS ORDER BY IT. CREATION STAMPS
+    // FOLLOW LOAD ORDER.
+    private static final class Entry {
+        private final byte[] hash;
+        private final Tier tier;
+        private final long expiresAt;
+        private final String contentType;
+        private final long size;
+        private volatile long access;
+        private volatile boolean referenced;
+
+        Entry(final byte[] hash, final Tier tier, final long expiresAt, final String contentType, final long size) {
+            this.hash = hash;
+            this.tier = tier;
+            this.expiresAt = expiresAt;
+            this.contentType = contentType;
+            this.size = size;
+            this.access = System.nanoTime();
+        }
+
         boolean expired(final long now) {
             return this.expiresAt >= 0L && this.expiresAt <= now;
         }
+
+        void touch() {
+            this.access = System.nanoTime();
+            this.referenced = true;
+        }
+
+        Entry sized(final long size) {
+            final Entry entry = new Entry(this.hash, this.tier, this.expiresAt, this.contentType, size);
+            entry.access = this.access;
+            return entry;
+        }
     }
 
-    // BUDGET-SWEEP CARRIER: A COMMITTED PAYLOAD FILE WITH ITS SIZE AND LAST-MODIFIED AGE PROXY.
-    private record StoreFile(String name, long size, long modified) {}
+    // OUTCOME OF ONE TRANSFER: EITHER THE PUBLISHED STORE FILE (CACHEABLE; ITS .part WHEN ONLY THE PUBLISH FAILED)
+    // OR THE IN-MEMORY BODY (NEVER STORED).
+    private record Fetched(Path file, byte[] bytes, String contentType, long expiresAt, long size) {}
+
+    // ==========================================================================
+    // IN-FLIGHT DOWNLOADS
+    // ==========================================================================
+    // SHARED STATE OF ONE TRANSFER: RIDERS await() THE OUTCOME THE LEADER SETTLES.
+    private static final class Download {
+        private boolean done;
+        private Fetched result;
+        private Exception failure;
+
+        synchronized void complete(final Fetched result) {
+            this.result = result;
+            this.done = true;
+            this.notifyAll();
+        }
+
+        synchronized void fail(final Exception e) {
+            this.failure = e;
+            this.done = true;
+            this.notifyAll();
+        }
+
+        synchronized Fetched await() throws IOException {
+            while (!this.done) {
+                try {
+                    this.wait();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for a media download");
+                }
+            }
+            if (this.failure != null) throw new IOException("Shared media download failed", this.failure);
+            return this.result;
+        }
+    }
 }
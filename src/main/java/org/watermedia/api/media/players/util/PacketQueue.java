@@ -1,14 +1,11 @@
 package org.watermedia.api.media.players.util;
 
 import org.bytedeco.ffmpeg.avcodec.AVPacket;
-import org.bytedeco.ffmpeg.global.avcodec;
-
-import java.util.ArrayDeque;
 
 /**
  * Thread-safe queue of AVPackets between the demux thread and the decode threads.
  * <p>
- * Unlike {@link FrameQueue} (a fixed ring buffer), PacketQueue uses an {@link ArrayDeque} because:
+ * Unlike {@link FrameQueue} (a fixed ring of pre-allocated frames), PacketQueue stores clones:
  * <ul>
  *   <li>Packets are small (metadata plus a pointer to compressed data)</li>
  *   <li>Packet count varies widely (keyframes are large, P-frames are small)</li>
@@ -17,35 +14,41 @@ import java.util.ArrayDeque;
  * Serial system: each {@link #flush()} increments the serial. The decode thread compares the
  * packet serial with the current serial to discard stale packets after a seek.
  * <p>
- * Capacity: no packet count limit, but a byte total limit ({@code maxBytes}). If the demux thread
- * exceeds the limit, {@link #put(AVPacket)} blocks until the decode thread consumes enough packets.
- * This prevents OOM on network streams with large buffers.
+ * Capacity: a byte total limit ({@code maxBytes}). If the demux thread exceeds the limit,
+ * {@link #put(AVPacket)} blocks until the decode thread consumes enough packets. This prevents OOM
+ * on network streams with large buffers. {@link #locking(long)} keeps no packet count limit;
+ * {@link #spsc(long, int)} also bounds the count by its pre-allocated ring.
  */
-public final class PacketQueue {
-    private final ArrayDeque<Entry> packets = new ArrayDeque<>();
-    private final Object lock = new Object();
-    private volatile boolean aborted;
-    private volatile boolean finished; // EOF: DRAIN REMAINING, THEN RETURN NULL
-    private volatile int serial;
-    private long totalBytes;
-    private final long maxBytes;
-
-    private static final class Entry {
-        final AVPacket packet; // OWNED — CLONED IN put()
-        final int serial;
-
-        Entry(final AVPacket packet, final int serial) {
-            this.packet = packet;
-            this.serial = serial;
-        }
+public abstract sealed class PacketQueue permits LockingPacketQueue, SpscPacketQueue {
+    final long maxBytes;
+
+    PacketQueue(final long maxBytes) {
+        this.maxBytes = maxBytes;
     }
 
     /**
+     * Creates a queue coordinated by a monitor lock, holding its packets in an {@link java.util.ArrayDeque}.
      * @param maxBytes byte limit for the queue. 16MB is reasonable for video.
      *                 Use Long.MAX_VALUE for no limit.
      */
-    public PacketQueue(final long maxBytes) {
-        this.maxBytes = maxBytes;
+    public static PacketQueue locking(final long maxBytes) {
+        return new LockingPacketQueue(maxBytes);
+    }
+
+    /**
+     * Creates a lock-free queue for exactly one demux (producer) thread and one decode (consumer) thread,
+     * with the same contract.
+     * <p>
+     * Packets live in a pre-allocated ring, so a handoff allocates nothing besides the packet clone.
+     * Threads park only while the queue is actually empty (consumer) or full (producer). The consumer
+     * cursor advances by compare-and-set, so {@link #flush()} and {@link #clear()} stay safe from the
+     * producer thread while the consumer is running, as seeks require.
+     * @param maxBytes   byte limit for the queue. Use Long.MAX_VALUE for no limit.
+     * @param maxPackets ring size, rounded up to a power of two; {@link #put(AVPacket)} also blocks
+     *                   while this many packets are queued
+     */
+    public static PacketQueue spsc(final long maxBytes, final int maxPackets) {
+        return new SpscPacketQueue(maxBytes, maxPackets);
     }
 
     /**
@@ -56,44 +59,13 @@ public final class PacketQueue {
      *
      * @return false if the queue was aborted.
      */
-    public boolean put(final AVPacket packet) {
-        synchronized (this.lock) {
-            while (this.totalBytes >= this.maxBytes && !this.aborted) {
-                try {
-                    this.lock.wait();
-                } catch (final InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    return false;
-                }
-            }
-            if (this.aborted) return false;
-
-            // CLONE ONLY ONCE THE ENTRY WILL ACTUALLY BE ENQUEUED — NO NATIVE ALLOC ON REJECTION
-            final AVPacket clone = avcodec.av_packet_clone(packet);
-            if (clone == null) return false;
-            this.packets.addLast(new Entry(clone, this.serial));
-            this.totalBytes += clone.size();
-            this.lock.notifyAll();
-        }
-        return true;
-    }
+    public abstract boolean put(final AVPacket packet);
 
     /**
      * Non-blocking put. Returns false immediately if the queue is full.
      * The caller's original packet is not consumed on failure.
      */
-    public boolean tryPut(final AVPacket packet) {
-        synchronized (this.lock) {
-            // A DEMUX THREAD POLLING A SATURATED QUEUE MUST NOT PAY A NATIVE CLONE+FREE PER ATTEMPT
-            if (this.totalBytes >= this.maxBytes || this.aborted) return false;
-            final AVPacket clone = avcodec.av_packet_clone(packet);
-            if (clone == null) return false;
-            this.packets.addLast(new Entry(clone, this.serial));
-            this.totalBytes += clone.size();
-            this.lock.notifyAll();
-        }
-        return true;
-    }
+    public abstract boolean tryPut(final AVPacket packet);
 
     /**
      * Dequeues a packet. Blocks if empty.
@@ -103,60 +75,33 @@ public final class PacketQueue {
      *                  the packet serial for post-seek comparison.
      * @return packet owned by the caller, or null if aborted.
      */
-    public AVPacket get(final int[] serialOut) {
-        synchronized (this.lock) {
-            while (this.packets.isEmpty() && !this.aborted && !this.finished) {
-                try {
-                    this.lock.wait();
-                } catch (final InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    return null;
-                }
-            }
-            if (this.aborted) return null;
-            // FINISHED + EMPTY: EOF, NO MORE PACKETS COMING
-            if (this.packets.isEmpty()) return null;
-
-            final Entry entry = this.packets.pollFirst();
-            this.totalBytes -= entry.packet.size();
-            serialOut[0] = entry.serial;
-            this.lock.notifyAll();
-            return entry.packet;
-        }
-    }
+    public abstract AVPacket get(final int[] serialOut);
+
+    /**
+     * Non-blocking {@link #get(int[])}: returns null at once when no packet is queued. To tell a drained
+     * queue from one still being filled, read {@link #endOfFile()} <i>before</i> polling — {@link #finish()}
+     * follows the last put, so a null after a true {@code endOfFile()} is the real end of the stream.
+     *
+     * @param serialOut array of at least 1 element, filled as in {@link #get(int[])}
+     * @return packet owned by the caller, or null if empty or aborted.
+     */
+    public abstract AVPacket poll(final int[] serialOut);
 
     /**
      * Flush: discards all packets and increments the serial.
      * Decode threads that receive packets with the old serial will discard them without decoding.
      */
-    public void flush() {
-        synchronized (this.lock) {
-            while (!this.packets.isEmpty()) {
-                avcodec.av_packet_free(this.packets.pollFirst().packet);
-            }
-            this.totalBytes = 0;
-            this.serial++;
-            this.lock.notifyAll();
-        }
-    }
+    public abstract void flush();
 
     /**
      * Clear: removes all packets without changing the serial.
      * Used during a precise seek when the demux thread drains the codec synchronously — the
      * serial must stay the same so the decode thread doesn't re-flush the codec on the next packet.
      */
-    public void clear() {
-        synchronized (this.lock) {
-            while (!this.packets.isEmpty()) {
-                avcodec.av_packet_free(this.packets.pollFirst().packet);
-            }
-            this.totalBytes = 0;
-            this.lock.notifyAll();
-        }
-    }
+    public abstract void clear();
 
     /** Current serial. Changes with each {@link #flush()}. */
-    public int serial() { return this.serial; }
+    public abstract int serial();
 
     /**
      * True when a {@code null} from {@link #get(int[])} means a clean end-of-stream
@@ -164,46 +109,26 @@ public final class PacketQueue {
      * The decode threads use this to decide whether to flush the decoder's buffered
      * frames at EOF — on an abort those frames are stale and must be dropped.
      */
-    public boolean endOfFile() { return this.finished && !this.aborted; }
+    public abstract boolean endOfFile();
 
     /** Total bytes enqueued. */
-    public long byteSize() {
-        synchronized (this.lock) { return this.totalBytes; }
-    }
+    public abstract long byteSize();
 
     /** Number of packets enqueued. */
-    public int count() {
-        synchronized (this.lock) { return this.packets.size(); }
-    }
+    public abstract int count();
 
     /**
      * Signals EOF: no more packets will be added.
      * {@link #get(int[])} will drain the remaining packets, then return null.
      * Unlike {@link #abort()}, this does not discard pending packets.
      */
-    public void finish() {
-        synchronized (this.lock) {
-            this.finished = true;
-            this.lock.notifyAll();
-        }
-    }
+    public abstract void finish();
 
     /** Abort — unblocks {@link #get(int[])} and {@link #put(AVPacket)} immediately, discards pending packets. */
-    public void abort() {
-        synchronized (this.lock) {
-            this.aborted = true;
-            this.lock.notifyAll();
-        }
-    }
+    public abstract void abort();
 
     /** Resets the flags to reuse the queue (e.g. on a quality switch). */
-    public void reset() {
-        synchronized (this.lock) {
-            this.flush();
-            this.aborted = false;
-            this.finished = false;
-        }
-    }
+    public abstract void reset();
 
     /**
      * Releases all pending packets during final cleanup — the counterpart of
@@ -0,0 +1,47 @@
+package org.watermedia.api.media.players.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A monotonically increasing {@code long} cursor alone on its cache line.
+ * <p>
+ * The lock-free queues keep their read and write cursors in two of these so the producer's and the
+ * consumer's cores never invalidate each other's line on every handoff (false sharing). The padding
+ * lives in the superclass and subclass because the JVM lays out superclass fields first but may
+ * reorder the fields of a single class freely.
+ */
+final class PaddedSequence extends PaddedSequenceValue {
+    private static final VarHandle VALUE;
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(PaddedSequenceValue.class, "value", long.class);
+        } catch (final ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // 56 BYTES AFTER value SO THE NEXT OBJECT NEVER SHARES ITS LINE
+    long p10, p11, p12, p13, p14, p15, p16;
+
+    long get() {
+        return this.value;
+    }
+
+    void set(final long value) {
+        this.value = value;
+    }
+
+    boolean compareAndSet(final long expected, final long value) {
+        return VALUE.compareAndSet(this, expected, value);
+    }
+}
+
+// 56 BYTES BEFORE value, PLUS THE OBJECT HEADER, KEEP IT OFF THE PREVIOUS OBJECT'S LINE
+abstract class PaddedSequencePad {
+    long p00, p01, p02, p03, p04, p05, p06;
+}
+
+abstract class PaddedSequenceValue extends PaddedSequencePad {
+    volatile long value;
+}
@@ -0,0 +1,154 @@
+package org.watermedia.api.media.players.util;
+
+import org.bytedeco.ffmpeg.global.avutil;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lock-free single-producer/single-consumer {@link FrameQueue}.
+ * <p>
+ * {@code head} (next slot to read) is written only by the reader and {@code tail} (next slot to write)
+ * only by the writer; both only grow, so the slot of a sequence is {@code sequence % capacity} and the
+ * fill level is {@code tail - head}. A side that finds the queue empty or full spins briefly, then
+ * publishes itself in {@code reader}/{@code writer} and parks; the other side unparks it after moving
+ * its cursor. Both the cursor and the waiter are volatile, so one of the two always sees the other and
+ * no wakeup is lost.
+ */
+final class SpscFrameQueue extends FrameQueue {
+    // BUSY-WAIT ROUNDS BEFORE PARKING — A HANDOFF USUALLY LANDS WITHIN A FEW HUNDRED NANOSECONDS,
+    // FAR BELOW THE MICROSECONDS A PARK/UNPARK PAIR COSTS. ON ONE CORE THE OTHER SIDE CAN'T RUN WHILE WE SPIN
+    private static final int SPIN_TRIES = Runtime.getRuntime().availableProcessors() > 1 ? 128 : 0;
+
+    private final PaddedSequence head = new PaddedSequence();
+    private final PaddedSequence tail = new PaddedSequence();
+    private volatile Thread reader; // SET WHILE THE READER PARKS ON AN EMPTY QUEUE
+    private volatile Thread writer; // SET WHILE THE WRITER PARKS ON A FULL QUEUE
+    private volatile boolean aborted;
+
+    SpscFrameQueue(final int capacity) {
+        super(capacity);
+    }
+
+    @Override
+    public Slot peekWritable() {
+        for (int spins = 0; ; spins++) {
+            if (this.aborted) return null;
+            final long t = this.tail.get();
+            if (t - this.head.get() < this.capacity) return this.queue[(int) (t % this.capacity)];
+            if (spins < SPIN_TRIES) {
+                Thread.onSpinWait();
+                continue;
+            }
+            this.writer = Thread.currentThread();
+            if (!this.aborted && this.tail.get() - this.head.get() >= this.capacity) LockSupport.park(this);
+            this.writer = null;
+            if (Thread.currentThread().isInterrupted()) return null;
+        }
+    }
+
+    @Override
+    public Slot tryPeekWritable() {
+        if (this.aborted) return null;
+        final long t = this.tail.get();
+        return t - this.head.get() < this.capacity ? this.queue[(int) (t % this.capacity)] : null;
+    }
+
+    @Override
+    public void push() {
+        final long t = this.tail.get();
+        // A PUSH WITHOUT A GRANTED SLOT WOULD OVERWRITE UNREAD FRAMES SILENTLY — FAIL LOUD
+        if (t - this.head.get() >= this.capacity) {
+            throw new IllegalStateException("push() without a writable slot (queue full)");
+        }
+        this.tail.set(t + 1);
+        wake(this.reader);
+    }
+
+    @Override
+    public Slot peek() {
+        if (this.aborted) return null;
+        final long h = this.head.get();
+        if (h == this.tail.get()) return null;
+        return this.queue[(int) (h % this.capacity)];
+    }
+
+    @Override
+    public Slot peekBlocking(final long timeoutMs) {
+        final long deadline = timeoutMs > 0 ? System.nanoTime() + timeoutMs * 1_000_000L : 0L;
+        for (int spins = 0; ; spins++) {
+            if (this.aborted) return null;
+            final long h = this.head.get();
+            if (h != this.tail.get()) return this.queue[(int) (h % this.capacity)];
+            if (spins < SPIN_TRIES) {
+                Thread.onSpinWait();
+                continue;
+            }
+            final long remaining = timeoutMs > 0 ? deadline - System.nanoTime() : Long.MAX_VALUE;
+            if (remaining <= 0) return null;
+            this.reader = Thread.currentThread();
+            if (!this.aborted && h == this.tail.get()) {
+                if (timeoutMs > 0) LockSupport.parkNanos(this, remaining);
+                else LockSupport.park(this);
+            }
+            this.reader = null;
+            if (Thread.currentThread().isInterrupted()) return null;
+        }
+    }
+
+    @Override
+    public Slot peekNext() {
+        if (this.aborted) return null;
+        final long h = this.head.get();
+        if (this.tail.get() - h < 2) return null;
+        return this.queue[(int) ((h + 1) % this.capacity)];
+    }
+
+    @Override
+    public void next() {
+        final long h = this.head.get();
+        // NOTHING TO CONSUME — NEVER UNREF THE SLOT A WRITER MAY BE FILLING
+        if (h == this.tail.get()) return;
+        avutil.av_frame_unref(this.queue[(int) (h % this.capacity)].frame);
+        this.head.set(h + 1);
+        wake(this.writer);
+    }
+
+    @Override
+    public int remaining() {
+        final long h = this.head.get();
+        return (int) (this.tail.get() - h);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.head.get() == this.tail.get();
+    }
+
+    @Override
+    public void flush() {
+        // EVERYTHING PUSHED SO FAR; A WRITER HOLDING A SLOT COMMITS AT t AND BECOMES THE FIRST READABLE FRAME
+        final long t = this.tail.get();
+        for (long h = this.head.get(); h < t; h++) {
+            avutil.av_frame_unref(this.queue[(int) (h % this.capacity)].frame);
+        }
+        this.head.set(t);
+        wake(this.writer);
+    }
+
+    @Override
+    public void abort() {
+        this.aborted = true;
+        wake(this.reader);
+        wake(this.writer);
+    }
+
+    @Override
+    public void reset() {
+        this.flush();
+        this.aborted = false;
+    }
+
+    private static void wake(final Thread thread) {
+        if (thread != null) LockSupport.unpark(thread);
+    }
+}
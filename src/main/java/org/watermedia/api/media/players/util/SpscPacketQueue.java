@@ -0,0 +1,204 @@
+package org.watermedia.api.media.players.util;
+
+import org.bytedeco.ffmpeg.avcodec.AVPacket;
+import org.bytedeco.ffmpeg.global.avcodec;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lock-free single-producer/single-consumer {@link PacketQueue} over a pre-allocated ring.
+ * <p>
+ * Each ring entry is three parallel array cells (packet, serial, size), so enqueuing allocates nothing
+ * besides the packet clone. {@code tail} is written only by the producer. {@code head} is advanced by
+ * compare-and-set: the consumer reads an entry and owns it only if its CAS wins, which lets the producer
+ * discard entries ({@link #flush()}, {@link #clear()}) while the consumer is running — a loser simply
+ * rereads. Waiting follows {@link SpscFrameQueue}: spin briefly, then park with the thread published in
+ * {@code consumer}/{@code producer} so the other side unparks it.
+ */
+final class SpscPacketQueue extends PacketQueue {
+    // BUSY-WAIT ROUNDS BEFORE PARKING — A HANDOFF USUALLY LANDS WITHIN A FEW HUNDRED NANOSECONDS,
+    // FAR BELOW THE MICROSECONDS A PARK/UNPARK PAIR COSTS. ON ONE CORE THE OTHER SIDE CAN'T RUN WHILE WE SPIN
+    private static final int SPIN_TRIES = Runtime.getRuntime().availableProcessors() > 1 ? 128 : 0;
+
+    private final AVPacket[] packets; // OWNED — CLONED IN put()
+    private final int[] serials;
+    private final int[] sizes;
+    private final int mask;
+    private final PaddedSequence head = new PaddedSequence();
+    private final PaddedSequence tail = new PaddedSequence();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private volatile Thread consumer; // SET WHILE THE CONSUMER PARKS ON AN EMPTY QUEUE
+    private volatile Thread producer; // SET WHILE THE PRODUCER PARKS ON A FULL QUEUE
+    private volatile boolean aborted;
+    private volatile boolean finished; // EOF: DRAIN REMAINING, THEN RETURN NULL
+    private volatile int serial;
+
+    SpscPacketQueue(final long maxBytes, final int maxPackets) {
+        super(maxBytes);
+        if (maxPackets < 1 || maxPackets > 1 << 30) throw new IllegalArgumentException("maxPackets: " + maxPackets);
+        final int capacity = Integer.highestOneBit(Math.max(2, maxPackets) - 1) << 1;
+        this.packets = new AVPacket[capacity];
+        this.serials = new int[capacity];
+        this.sizes = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    @Override
+    public boolean put(final AVPacket packet) {
+        for (int spins = 0; ; spins++) {
+            if (this.aborted) return false;
+            if (this.hasRoom()) break;
+            if (spins < SPIN_TRIES) {
+                Thread.onSpinWait();
+                continue;
+            }
+            this.producer = Thread.currentThread();
+            if (!this.aborted && !this.hasRoom()) LockSupport.park(this);
+            this.producer = null;
+            if (Thread.currentThread().isInterrupted()) return false;
+        }
+        return this.enqueue(packet);
+    }
+
+    @Override
+    public boolean tryPut(final AVPacket packet) {
+        // A DEMUX THREAD POLLING A SATURATED QUEUE MUST NOT PAY A NATIVE CLONE+FREE PER ATTEMPT
+        if (this.aborted || !this.hasRoom()) return false;
+        return this.enqueue(packet);
+    }
+
+    @Override
+    public AVPacket get(final int[] serialOut) {
+        for (int spins = 0; ; spins++) {
+            if (this.aborted) return null;
+            final AVPacket packet = this.take(serialOut);
+            if (packet != null) return packet;
+            // FINISHED + EMPTY: EOF, NO MORE PACKETS COMING. finish() FOLLOWS THE LAST PUT, SO RECHECK AFTER READING IT
+            if (this.finished) {
+                if (this.head.get() == this.tail.get()) return null;
+                continue;
+            }
+            if (spins < SPIN_TRIES) {
+                Thread.onSpinWait();
+                continue;
+            }
+            this.consumer = Thread.currentThread();
+            if (!this.aborted && !this.finished && this.head.get() == this.tail.get()) LockSupport.park(this);
+            this.consumer = null;
+            if (Thread.currentThread().isInterrupted()) return null;
+        }
+    }
+
+    @Override
+    public AVPacket poll(final int[] serialOut) {
+        return this.aborted ? null : this.take(serialOut);
+    }
+
+    @Override
+    public void flush() {
+        this.discard();
+        this.serial++; // SINGLE WRITER: ONLY THE PRODUCER SIDE FLUSHES
+    }
+
+    @Override
+    public void clear() {
+        this.discard();
+    }
+
+    @Override
+    public int serial() { return this.serial; }
+
+    @Override
+    public boolean endOfFile() { return this.finished && !this.aborted; }
+
+    @Override
+    public long byteSize() {
+        return this.totalBytes.get();
+    }
+
+    @Override
+    public int count() {
+        final long h = this.head.get();
+        return (int) (this.tail.get() - h);
+    }
+
+    @Override
+    public void finish() {
+        this.finished = true;
+        wake(this.consumer);
+    }
+
+    @Override
+    public void abort() {
+        this.aborted = true;
+        wake(this.consumer);
+        wake(this.producer);
+    }
+
+    @Override
+    public void reset() {
+        // CLEAR finished FIRST: A RUNNING CONSUMER MUST NEVER SEE THE FLUSHED QUEUE AS EMPTY + FINISHED (EOF)
+        this.finished = false;
+        this.flush();
+        this.aborted = false;
+    }
+
+    private boolean hasRoom() {
+        return this.totalBytes.get() < this.maxBytes && this.tail.get() - this.head.get() < this.packets.length;
+    }
+
+    private boolean enqueue(final AVPacket packet) {
+        // CLONE ONLY ONCE THE ENTRY WILL ACTUALLY BE ENQUEUED — NO NATIVE ALLOC ON REJECTION
+        final AVPacket clone = avcodec.av_packet_clone(packet);
+        if (clone == null) return false;
+        final long t = this.tail.get();
+        final int i = (int) t & this.mask;
+        final int size = clone.size();
+        this.packets[i] = clone;
+        this.serials[i] = this.serial;
+        this.sizes[i] = size;
+        this.totalBytes.addAndGet(size);
+        this.tail.set(t + 1); // PUBLISHES THE ENTRY CELLS WRITTEN ABOVE
+        wake(this.consumer);
+        return true;
+    }
+
+    // CLAIMS THE HEAD ENTRY, OR RETURNS null WHEN THE QUEUE IS EMPTY
+    private AVPacket take(final int[] serialOut) {
+        for (;;) {
+            final long h = this.head.get();
+            if (h == this.tail.get()) return null;
+            final int i = (int) h & this.mask;
+            final AVPacket packet = this.packets[i];
+            final int serial = this.serials[i];
+            final int size = this.sizes[i];
+            // A LOST RACE MEANS A FLUSH ON THE PRODUCER THREAD TOOK (AND FREED) THIS ENTRY — REREAD
+            if (!this.head.compareAndSet(h, h + 1)) continue;
+            this.totalBytes.addAndGet(-size);
+            wake(this.producer);
+            serialOut[0] = serial;
+            return packet;
+        }
+    }
+
+    // TAKES EVERY QUEUED ENTRY THROUGH THE SAME CAS AS get(), SO EACH PACKET IS FREED OR HANDED OUT EXACTLY ONCE
+    private void discard() {
+        for (;;) {
+            final long h = this.head.get();
+            if (h == this.tail.get()) break;
+            final int i = (int) h & this.mask;
+            final AVPacket packet = this.packets[i];
+            final int size = this.sizes[i];
+            if (this.head.compareAndSet(h, h + 1)) {
+                avcodec.av_packet_free(packet);
+                this.totalBytes.addAndGet(-size);
+            }
+        }
+        wake(this.producer);
+    }
+
+    private static void wake(final Thread thread) {
+        if (thread != null) LockSupport.unpark(thread);
+    }
+}
@@ -92,4 +92,24 @@ public enum PixelFormat {
 
     /** Whether this is a block-compressed (BCn) format the GPU samples without decoding. */
     public boolean compressed() { return this.blockBytes > 0; }
+
+    /** Bytes one tightly packed {@code width x height} frame occupies, all planes included. */
+    public long frameBytes(final int width, final int height) {
+        final long pixels = (long) width * height;
+        final long chromaW = (width + 1L) >> 1;
+        final long chromaH = (height + 1L) >> 1;
+        return switch (this) {
+            case GRAY -> pixels;
+            case YUYV, YUYV2 -> pixels * 2L;
+            case RGB -> pixels * 3L;
+            case BGRA, RGBA, GBRA -> pixels * 4L;
+            case NV12, NV21, YUV420P -> pixels + 2L * chromaW * chromaH;
+            case YUV422P -> pixels + 2L * chromaW * height;
+            case YUV444P -> pixels * 3L;
+            case YUVA420P -> pixels * 2L + 2L * chromaW * chromaH;
+            case YUVA422P -> pixels * 2L + 2L * chromaW * height;
+            case YUVA444P -> pixels * 4L;
+            case BC1, BC2, BC3, BC5, BC7 -> ((width + 3L) >> 2) * ((height + 3L) >> 2) * this.blockBytes;
+        };
+    }
 }
@@ -0,0 +1,44 @@
+package org.watermedia.api.util;
+
+/**
+ * Resampling kernels for software frame scaling, from cheapest to sharpest. The support of each kernel is
+ * given at a 1:1 ratio; scalers widen it by the reduction factor when downscaling.
+ */
+public enum ScaleFilter {
+    /** Area average: every source pixel under the output footprint weighs the same. */
+    BOX(0.5),
+    /** Triangle (tent) kernel: linear interpolation upwards, a smooth weighted average downwards. */
+    BILINEAR(1.0),
+    /** Lanczos-3 windowed sinc: keeps the most detail, at six taps per unit of reduction. */
+    LANCZOS(3.0);
+
+    private final double support;
+
+    ScaleFilter(final double support) {
+        this.support = support;
+    }
+
+    /** Half-width of the kernel, in source pixels at a 1:1 ratio. */
+    public double support() {
+        return this.support;
+    }
+
+    /**
+     * Evaluates the kernel.
+     * @param x distance from the sample center, in kernel units
+     * @return the unnormalized weight, 0 outside the support
+     */
+    public double weight(final double x) {
+        return switch (this) {
+            case BOX -> x > -0.5 && x <= 0.5 ? 1.0 : 0.0;
+            case BILINEAR -> Math.max(0.0, 1.0 - Math.abs(x));
+            case LANCZOS -> x > -3.0 && x < 3.0 ? sinc(x) * sinc(x / 3.0) : 0.0;
+        };
+    }
+
+    private static double sinc(final double x) {
+        if (x == 0.0) return 1.0;
+        final double px = Math.PI * x;
+        return Math.sin(px) / px;
+    }
+}
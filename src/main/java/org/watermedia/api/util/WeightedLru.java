@@ -0,0 +1,86 @@
+package org.watermedia.api.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Least-recently-used map bounded by the total weight (usually bytes) of its values rather than their
+ * count. Reads and writes both count as a use. {@link #trim(long)} drops entries from the cold end until
+ * the retained weight fits a budget, skipping pinned ones and weightless ones, which free nothing.
+ * <p>
+ * Not thread-safe: the owning cache guards every call with its own lock.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public final class WeightedLru<K, V> {
+    // ACCESS-ORDERED SO ITERATION YIELDS LRU FIRST
+    private final Map<K, Node<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Predicate<V> pinned;
+    private long weight;
+
+    /**
+     * @param pinned values {@link #trim(long)} must keep regardless of recency, such as ones still in use
+     */
+    public WeightedLru(final Predicate<V> pinned) {
+        this.pinned = pinned;
+    }
+
+    /** The value under {@code key}, marking it as the most recently used; null when absent. */
+    public V get(final K key) {
+        final Node<V> node = this.entries.get(key);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Stores {@code value} with its weight as the most recently used entry. Storing the same value again
+     * updates its weight.
+     *
+     * @return the value replaced, or null
+     */
+    public V put(final K key, final V value, final long weight) {
+        final Node<V> previous = this.entries.put(key, new Node<>(value, weight));
+        this.weight += weight - (previous == null ? 0L : previous.weight);
+        return previous == null ? null : previous.value;
+    }
+
+    /** Removes {@code key} only while it still maps to {@code value}. */
+    public boolean remove(final K key, final V value) {
+        final Node<V> node = this.entries.get(key);
+        if (node == null || node.value != value) return false;
+        this.entries.remove(key);
+        this.weight -= node.weight;
+        return true;
+    }
+
+    /** Total weight of the retained values. */
+    public long weight() {
+        return this.weight;
+    }
+
+    /**
+     * Drops unpinned entries from the least recently used end until the retained weight fits
+     * {@code budget}, or nothing else can go.
+     *
+     * @return the values dropped, least recently used first
+     */
+    public List<V> trim(final long budget) {
+        if (this.weight <= budget) return List.of();
+        final List<V> dropped = new ArrayList<>();
+        final Iterator<Node<V>> cold = this.entries.values().iterator();
+        while (this.weight > budget && cold.hasNext()) {
+            final Node<V> node = cold.next();
+            if (node.weight == 0L || this.pinned.test(node.value)) continue;
+            cold.remove();
+            this.weight -= node.weight;
+            dropped.add(node.value);
+        }
+        return dropped;
+    }
+
+    private record Node<V>(V value, long weight) {}
+}
@@ -1,5 +1,7 @@
 package org.watermedia.tools;
 
+import org.watermedia.api.codecs.common.simd.SimdKernels;
+
 import java.net.URLDecoder;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -150,23 +152,11 @@ public class DataTool {
     // INT LAYOUT: (A<<24 | R<<16 | G<<8 | B) - WHEN WRITTEN AS LITTLE-ENDIAN GIVES [B,G,R,A] BYTES
     public static int[] yuvToBgra(final byte[] yP, final byte[] uP, final byte[] vP, final int w, final int h, final int yS, final int uvS) {
         final int[] bgra = new int[w * h];
-        for (int py = 0; py < h; py++)
-            for (int px = 0; px < w; px++) {
-                final int y = yP[py * yS + px] & 0xFF;
-                final int i = (py >> 1) * uvS + (px >> 1);
-                final int u = uP[i] & 0xFF;
-                final int v = vP[i] & 0xFF;
-                final int c = y - 16, d = u - 128, e = v - 128;
-                int r = (298 * c + 409 * e + 128) >> 8;
-                int g = (298 * c - 100 * d - 208 * e + 128) >> 8;
-                int b = (298 * c + 516 * d + 128) >> 8;
-
-                r = Math.min(255, Math.max(0, r));
-                g = Math.min(255, Math.max(0, g));
-                b = Math.min(255, Math.max(0, b));
-
-                bgra[py * w + px] = (255 << 24) | (r << 16) | (g << 8) | b;
-            }
+        final SimdKernels simd = SimdKernels.get();
+        for (int py = 0; py < h; py++) {
+            if (simd != null) simd.yuvRow(yP, py * yS, uP, vP, (py >> 1) * uvS, bgra, py * w, w);
+            else yuvRowToBgra(yP, py * yS, uP, vP, (py >> 1) * uvS, bgra, py * w, w);
+        }
         return bgra;
     }
 
@@ -176,35 +166,35 @@ public class DataTool {
         // BOUNDS-CHECK ELIMINATION), THEN DO A SINGLE BULK COPY INTO THE DIRECT BUFFER.
         // THIS AVOIDS ~w*h DIRECT-BUFFER put/putInt CALLS, EACH OF WHICH WOULD BE A SEPARATE
         // ACCESS WITH ITS OWN BOUNDS CHECK.
-        final int[] packed = new int[w * h];
-        for (int py = 0; py < h; py++) {
-            final int yRow = py * yS;
-            final int uvRow = (py >> 1) * uvS;
-            final int dstRow = py * w;
-            for (int px = 0; px < w; px++) {
-                final int y = yP[yRow + px] & 0xFF;
-                final int i = uvRow + (px >> 1);
-                final int u = uP[i] & 0xFF;
-                final int v = vP[i] & 0xFF;
-                final int c = y - 16, d = u - 128, e = v - 128;
-                int r = (298 * c + 409 * e + 128) >> 8;
-                int g = (298 * c - 100 * d - 208 * e + 128) >> 8;
-                int b = (298 * c + 516 * d + 128) >> 8;
-
-                if (r < 0) r = 0; else if (r > 255) r = 255;
-                if (g < 0) g = 0; else if (g > 255) g = 255;
-                if (b < 0) b = 0; else if (b > 255) b = 255;
-
-                // PACK AS LITTLE-ENDIAN INT: WHEN COPIED INTO LE DIRECT BUFFER THIS LANDS AS
-                // B, G, R, A IN MEMORY, MATCHING THE WEBP READER'S EXPECTED LAYOUT.
-                packed[dstRow + px] = (0xFF << 24) | (r << 16) | (g << 8) | b;
-            }
-        }
+        final int[] packed = yuvToBgra(yP, uP, vP, w, h, yS, uvS);
         final ByteBuffer bgra = ByteBuffer.allocateDirect(w * h * 4).order(ByteOrder.LITTLE_ENDIAN);
         bgra.asIntBuffer().put(packed);
         return bgra;
     }
 
+    // ONE ROW OF BT.601 LIMITED-RANGE YUV 4:2:0; THE SCALAR REFERENCE FOR SimdKernels.yuvRow
+    private static void yuvRowToBgra(final byte[] yP, final int yRow, final byte[] uP, final byte[] vP, final int uvRow,
+                                     final int[] out, final int dstRow, final int w) {
+        for (int px = 0; px < w; px++) {
+            final int y = yP[yRow + px] & 0xFF;
+            final int i = uvRow + (px >> 1);
+            final int u = uP[i] & 0xFF;
+            final int v = vP[i] & 0xFF;
+            final int c = y - 16, d = u - 128, e = v - 128;
+            int r = (298 * c + 409 * e + 128) >> 8;
+            int g = (298 * c - 100 * d - 208 * e + 128) >> 8;
+            int b = (298 * c + 516 * d + 128) >> 8;
+
+            if (r < 0) r = 0; else if (r > 255) r = 255;
+            if (g < 0) g = 0; else if (g > 255) g = 255;
+            if (b < 0) b = 0; else if (b > 255) b = 255;
+
+            // PACK AS LITTLE-ENDIAN INT: WHEN COPIED INTO LE DIRECT BUFFER THIS LANDS AS
+            // B, G, R, A IN MEMORY, MATCHING THE WEBP READER'S EXPECTED LAYOUT.
+            out[dstRow + px] = (0xFF << 24) | (r << 16) | (g << 8) | b;
+        }
+    }
+
     // THIS IS THE MOST EFFICIENT WAY TO CONVERT INT[] CANVAS TO BYTEBUFFER
     public static ByteBuffer bgraToBuffer(final int[] bgra) {
         final ByteBuffer buffer = ByteBuffer.allocateDirect(bgra.length * 4).order(ByteOrder.LITTLE_ENDIAN);
@@ -7,6 +7,8 @@ import java.util.function.Function;
 
 public class ThreadTool {
     private static final ConcurrentHashMap<String, Integer> THREADS = new ConcurrentHashMap<>();
+    // BANDS PER POOL THREAD IN parallel(), SO A BAND THAT FINISHES EARLY DOES NOT LEAVE THE OTHER THREADS IDLE
+    private static final int BANDS_PER_THREAD = 4;
 
     public static Thread createStarted(final String name, final Runnable runnable) {
         // AUTO-APPEND A PER-NAME COUNTER (name-0, name-1, ...) CONSISTENTLY WITH createStartedLoop.
@@ -143,6 +145,34 @@ public class ThreadTool {
         return 8;
     }
 
+    /**
+     * Runs {@code body} over {@code [0, count)} in fork/join bands of at least {@code grain} items. Work that
+     * fits one band runs inline; otherwise the range is split in halves on the common pool, with the calling
+     * thread taking part, so even a one-thread pool loses nothing. Bands must only touch disjoint state.
+     *
+     * @param count number of items
+     * @param grain smallest band worth handing to another thread
+     * @param body  runs one band; a checked exception it throws is rethrown here as is
+     */
+    public static <E extends Exception> void parallel(final int count, final int grain, final RangeTask<E> body) throws E {
+        if (count <= grain) {
+            body.run(0, count);
+            return;
+        }
+        final int bands = parallelBands();
+        try {
+            new Band<>(body, 0, count, Math.max(grain, (count + bands - 1) / bands)).invoke();
+        } catch (final BandFailure e) {
+            @SuppressWarnings("unchecked") final E cause = (E) e.getCause();
+            throw cause;
+        }
+    }
+
+    /** How many bands {@link #parallel} splits a large range into: a few per common pool thread, caller included. */
+    public static int parallelBands() {
+        return (ForkJoinPool.getCommonPoolParallelism() + 1) * BANDS_PER_THREAD;
+    }
+
     public static boolean isInterrupted() {
         return Thread.currentThread().isInterrupted();
     }
@@ -154,4 +184,49 @@ public class ThreadTool {
     public interface ThreadGroupFactory {
         BiFunction<String, Runnable, Thread> newFactory();
     }
+
+    /** One band of a {@link #parallel} run. */
+    @FunctionalInterface
+    public interface RangeTask<E extends Exception> {
+        void run(int from, int to) throws E;
+    }
+
+    // SPLITS [from, to) IN HALVES DOWN TO THE GRAIN
+    private static final class Band<E extends Exception> extends RecursiveAction {
+        private final RangeTask<E> body;
+        private final int from;
+        private final int to;
+        private final int grain;
+
+        Band(final RangeTask<E> body, final int from, final int to, final int grain) {
+            this.body = body;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= this.grain) {
+                try {
+                    this.body.run(this.from, this.to);
+                } catch (final RuntimeException e) {
+                    throw e;
+                } catch (final Exception e) {
+                    throw new BandFailure(e);
+                }
+                return;
+            }
+            final int mid = (this.from + this.to) >>> 1;
+            invokeAll(new Band<>(this.body, this.from, mid, this.grain), new Band<>(this.body, mid, this.to, this.grain));
+        }
+    }
+
+    // CARRIES A BAND'S CHECKED EXCEPTION OUT OF THE POOL. NO PUBLIC CONSTRUCTOR, SO FORK/JOIN RETHROWS THIS
+    // INSTANCE INSTEAD OF A REFLECTIVE COPY WHOSE CAUSE WOULD BE THE WRAPPER
+    private static final class BandFailure extends RuntimeException {
+        BandFailure(final Exception cause) {
+            super(cause);
+        }
+    }
 }
@@ -2,8 +2,10 @@ package org.watermedia.test.codecs;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.watermedia.api.codecs.CodecsAPI;
 import org.watermedia.api.codecs.XCodecException;
+import org.watermedia.api.codecs.common.bc.BCCodec;
 import org.watermedia.api.codecs.common.dds.DDSHeader;
 import org.watermedia.api.codecs.readers.BCReader;
 import org.watermedia.api.codecs.writers.BCWriter;
@@ -12,19 +14,27 @@ import org.watermedia.api.util.PixelFormat;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
- * Codec-availability and rigid-validation tests. Pure-Java image codecs are always available; the
- * native BC family is absent until its JNI bindings ship, so the BC reader/writer must refuse to
- * initialize (the codecs are not pluggable, so an instance that exists is always usable).
+ * Codec-availability and rigid-validation tests. Pure-Java image codecs are always available, and
+ * so are BC3/BC1 through the pure-Java encoder; BC7 is absent until its JNI bindings ship, so the BC
+ * reader/writer must refuse to initialize for it (the codecs are not pluggable, so an instance that
+ * exists is always usable).
  */
 @DisplayName("Codec availability")
 public class BCAvailabilityTest {
 
+    @TempDir
+    Path tempDir;
+
     @Test
     @DisplayName("Pure-Java image codecs are always available")
     void testPureJavaCodecsAvailable() {
@@ -37,12 +47,13 @@ public class BCAvailabilityTest {
     }
 
     @Test
-    @DisplayName("BC codecs are unavailable without native bindings")
-    void testBcUnavailable() {
-        assertFalse(CodecsAPI.available(CodecsAPI.CODEC_BC));
+    @DisplayName("BC3 and BC1 are available without native bindings; BC7 is not")
+    void testBcAvailability() {
+        assertTrue(CodecsAPI.available(CodecsAPI.CODEC_BC));
         assertFalse(CodecsAPI.available(CodecsAPI.CODEC_BC7));
-        assertFalse(CodecsAPI.available(CodecsAPI.CODEC_BC3));
-        assertFalse(CodecsAPI.available(CodecsAPI.CODEC_BC1));
+        assertTrue(CodecsAPI.available(CodecsAPI.CODEC_BC3));
+        assertTrue(CodecsAPI.available(CodecsAPI.CODEC_BC1));
+        assertEquals(CodecsAPI.CODEC_BC3, BCCodec.best());
     }
 
     @Test
@@ -53,14 +64,34 @@ public class BCAvailabilityTest {
     }
 
     @Test
-    @DisplayName("BCWriter refuses to open when no BC codec is available")
+    @DisplayName("BCWriter refuses to open for an unavailable BC version")
     void testWriterRefusesWhenUnavailable() {
         final ByteArrayOutputStream out = new ByteArrayOutputStream();
-        // BEST-AVAILABLE (NONE) AND AN EXPLICIT VERSION BOTH FAIL FAST IN THE CONSTRUCTOR.
-        assertThrows(IOException.class, () -> new BCWriter(out, 16, 16, PixelFormat.BGRA));
+        // NO VERSION AND AN UNAVAILABLE VERSION BOTH FAIL FAST IN THE CONSTRUCTOR.
+        assertThrows(IOException.class, () -> new BCWriter(out, 16, 16, PixelFormat.BGRA, null));
         assertThrows(IOException.class, () -> new BCWriter(out, 16, 16, PixelFormat.BGRA, CodecsAPI.CODEC_BC7));
     }
 
+    @Test
+    @DisplayName("BCWriter output reads back through BCReader")
+    void testWriterReaderRoundTrip() throws IOException {
+        final Path file = this.tempDir.resolve("texture.dds");
+        final ByteBuffer frame = ByteBuffer.allocateDirect(16 * 16 * 4);
+        try (final BCWriter writer = new BCWriter(Files.newOutputStream(file), 16, 16, PixelFormat.BGRA)) {
+            writer.writeFrame(frame, 40L);
+            writer.writeFrame(frame, 60L);
+        }
+        // THE STREAM CANNOT SEEK BACK, SO arraySize IS PATCHED AFTERWARDS — AS THE CODEC CACHE DOES
+        DDSHeader.patchArraySize(file, 2);
+
+        try (final BCReader reader = new BCReader(ByteBuffer.wrap(Files.readAllBytes(file)))) {
+            assertEquals(CodecsAPI.CODEC_BC3, reader.version());
+            assertEquals(2, reader.blocks().length);
+            assertEquals(DDSHeader.frameBytes(16, 16, CodecsAPI.CODEC_BC3), reader.blocks()[0].remaining());
+            assertArrayEquals(new long[] {40L, 60L}, reader.delays());
+        }
+    }
+
     @Test
     @DisplayName("BCReader refuses a texture whose BC version is unavailable")
     void testReaderRefusesWhenUnavailable() {
@@ -0,0 +1,218 @@
+package org.watermedia.test.codecs;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.watermedia.WaterMediaConfig;
+import org.watermedia.api.codecs.CodecsAPI;
+import org.watermedia.api.codecs.ImageBatch;
+import org.watermedia.api.codecs.ImageData;
+import org.watermedia.api.codecs.UnsupportedFormatException;
+import org.watermedia.api.codecs.XCodecException;
+import org.watermedia.api.util.PixelFormat;
+import org.watermedia.test.support.Fixtures;
+import org.watermedia.test.support.SyntheticJpeg;
+import org.watermedia.test.support.SyntheticPng;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Contract of {@link CodecsAPI#decodeImages}: every source yields exactly one result, identical to
+ * a one-at-a-time decode, reachable per source and in completion order, with failures isolated.
+ */
+@DisplayName("Batch decode")
+public class ImageBatchTest {
+    private static final long TIMEOUT_S = 60L;
+    private static final Path[] SOURCES = {
+            Fixtures.PNG_STATIC, Fixtures.JPEG_BASELINE, Fixtures.GIF_ANIMATED,
+            Fixtures.WEBP_LOSSLESS, Fixtures.WEBP_ANIMATED, Fixtures.NETPBM_PPM
+    };
+
+    @Test
+    @DisplayName("Every source decodes to the same frames as decodeImage")
+    void testMatchesSingleDecode() throws Exception {
+        final List<byte[]> sources = new ArrayList<>();
+        for (final Path path: SOURCES) sources.add(Fixtures.readAll(path));
+        try (final ImageBatch batch = CodecsAPI.decodeImages(sources, PixelFormat.BGRA)) {
+            assertEquals(sources.size(), batch.size());
+            for (int i = 0; i < sources.size(); i++) {
+                final ImageBatch.Result result = batch.future(i).get(TIMEOUT_S, TimeUnit.SECONDS);
+                assertEquals(i, result.index());
+                assertNull(result.error(), SOURCES[i].toString());
+                final ImageData expected = CodecsAPI.decodeImage(sources.get(i), PixelFormat.BGRA);
+                final ImageData actual = result.image();
+                assertEquals(expected.width(), actual.width(), SOURCES[i].toString());
+                assertEquals(expected.height(), actual.height(), SOURCES[i].toString());
+                assertEquals(expected.frames().length, actual.frames().length, SOURCES[i].toString());
+                long bytes = 0L;
+                for (int f = 0; f < expected.frames().length; f++) {
+                    assertEquals(expected.frames()[f], actual.frames()[f], SOURCES[i] + " frame " + f);
+                    bytes += actual.frames()[f].remaining();
+                }
+                assertEquals(sources.get(i).length, result.sourceBytes());
+                assertEquals(bytes, result.decodedBytes());
+                assertTrue(result.waitNanos() >= 0L && result.decodeNanos() >= 0L);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Results arrive once each in completion order, failures included")
+    void testCompletionOrder() throws Exception {
+        final List<ByteBuffer> sources = new ArrayList<>();
+        for (final Path path: SOURCES) sources.add(ByteBuffer.wrap(Fixtures.readAll(path)));
+        sources.add(ByteBuffer.wrap("definitely not an image".getBytes(StandardCharsets.US_ASCII)));
+        final ByteBuffer first = sources.get(0);
+
+        try (final ImageBatch batch = CodecsAPI.decodeImages(sources, null, 0, 0)) {
+            final Set<Integer> seen = new HashSet<>();
+            int failures = 0;
+            long decoded = 0L;
+            for (int i = 0; i < sources.size(); i++) {
+                final ImageBatch.Result result = batch.take();
+                assertNotNull(result);
+                assertTrue(seen.add(result.index()), "duplicate result " + result.index());
+                if (result.success()) {
+                    decoded += result.decodedBytes();
+                } else {
+                    failures++;
+                    assertEquals(SOURCES.length, result.index());
+                    assertInstanceOf(UnsupportedFormatException.class, result.error());
+                }
+            }
+            assertNull(batch.take());
+            assertEquals(1, failures);
+            assertEquals(0L, batch.stream().count());
+            assertEquals(0, first.position(), "the caller's buffer must not move");
+
+            final ImageBatch.Stats stats = batch.stats();
+            assertTrue(stats.finished());
+            assertEquals(sources.size(), stats.completed());
+            assertEquals(1, stats.failed());
+            assertEquals(decoded, stats.decodedBytes());
+            assertTrue(stats.elapsedNanos() > 0L);
+            assertEquals(stats.elapsedNanos(), batch.stats().elapsedNanos(), "elapsed time stops at the last result");
+        }
+    }
+
+    @Test
+    @DisplayName("Images larger than the budget still decode, one at a time")
+    void testOversizedImagesAreAdmitted() throws Exception {
+        final int previous = WaterMediaConfig.decoders.batchBudget;
+        WaterMediaConfig.decoders.batchBudget = 1;
+        try {
+            // EACH 1024x1024 FRAME IS 4 MB IN BGRA, FOUR TIMES THE WHOLE BUDGET
+            final byte[] png = SyntheticPng.encode(1024, 1024);
+            final List<byte[]> sources = List.of(png, png, png, png);
+            try (final ImageBatch batch = CodecsAPI.decodeImages(sources, PixelFormat.BGRA)) {
+                final List<ImageBatch.Result> results = batch.stream().toList();
+                assertEquals(sources.size(), results.size());
+                for (final ImageBatch.Result result: results) {
+                    assertTrue(result.success(), String.valueOf(result.error()));
+                    assertEquals(1024L * 1024L * 4L, result.decodedBytes());
+                }
+            }
+        } finally {
+            WaterMediaConfig.decoders.batchBudget = previous;
+        }
+    }
+
+    @Test
+    @DisplayName("Results nobody takes hold the budget until they are taken or the batch closes")
+    void testUndeliveredResultsHoldBudget() throws Exception {
+        final int previous = WaterMediaConfig.decoders.batchBudget;
+        WaterMediaConfig.decoders.batchBudget = 1;
+        try {
+            final byte[] png = SyntheticPng.encode(1024, 1024);
+            final ImageBatch batch = CodecsAPI.decodeImages(List.of(png, png, png, png), PixelFormat.BGRA);
+            awaitCompleted(batch, 1);
+            // THE FIRST IMAGE IS DECODED BUT UNTAKEN: EVERY OTHER SOURCE WAITS FOR ITS ADMISSION
+            Thread.sleep(200L);
+            assertEquals(1, batch.stats().completed());
+
+            assertTrue(batch.take().success());
+            awaitCompleted(batch, 2);
+
+            batch.close();
+            for (int i = 0; i < 4; i++) {
+                assertTrue(batch.future(i).get(TIMEOUT_S, TimeUnit.SECONDS).success());
+            }
+        } finally {
+            WaterMediaConfig.decoders.batchBudget = previous;
+        }
+    }
+
+    @Test
+    @DisplayName("A JPEG waits for its admission before any pixel is decoded")
+    void testJpegAdmittedBeforeDecode() throws Exception {
+        final int previous = WaterMediaConfig.decoders.batchBudget;
+        WaterMediaConfig.decoders.batchBudget = 1;
+        try {
+            // A VALID HEADER OVER AN EMPTY SCAN: OPENING SUCCEEDS, ONLY THE PIXEL DECODE FAILS
+            final byte[] jpeg = SyntheticJpeg.encode(512, 512, false, 0);
+            int sos = 0;
+            while ((jpeg[sos] & 0xFF) != 0xFF || (jpeg[sos + 1] & 0xFF) != 0xDA) sos++;
+            final int scan = sos + 2 + (((jpeg[sos + 2] & 0xFF) << 8) | (jpeg[sos + 3] & 0xFF));
+            final byte[] broken = Arrays.copyOf(jpeg, scan + 2);
+            broken[scan] = (byte) 0xFF;
+            broken[scan + 1] = (byte) 0xD9;
+
+            final byte[] png = SyntheticPng.encode(1024, 1024);
+            final ImageBatch batch = CodecsAPI.decodeImages(List.of(png, broken), PixelFormat.BGRA);
+            awaitCompleted(batch, 1);
+            // THE UNTAKEN PNG HOLDS THE BUDGET; HAD THE JPEG DECODED WHILE OPENING, IT WOULD HAVE FAILED BY NOW
+            Thread.sleep(200L);
+            assertEquals(1, batch.stats().completed());
+            assertEquals(0, batch.stats().failed());
+
+            assertTrue(batch.take().success());
+            final ImageBatch.Result result = batch.future(1).get(TIMEOUT_S, TimeUnit.SECONDS);
+            assertInstanceOf(XCodecException.class, result.error());
+            batch.close();
+        } finally {
+            WaterMediaConfig.decoders.batchBudget = previous;
+        }
+    }
+
+    @Test
+    @DisplayName("Closing cancels the sources that have not started")
+    void testCloseCancelsPending() throws Exception {
+        final byte[] png = SyntheticPng.encode(512, 512);
+        final List<byte[]> sources = new ArrayList<>();
+        for (int i = 0; i < 64; i++) sources.add(png);
+        final ImageBatch batch = CodecsAPI.decodeImages(sources, PixelFormat.BGRA);
+        batch.close();
+        int cancelled = 0;
+        for (int i = 0; i < sources.size(); i++) {
+            final ImageBatch.Result result = batch.future(i).get(TIMEOUT_S, TimeUnit.SECONDS);
+            if (!result.success()) {
+                assertInstanceOf(CancellationException.class, result.error());
+                cancelled++;
+            }
+        }
+        assertEquals(cancelled, batch.stats().failed());
+        assertEquals(sources.size(), batch.stream().count());
+    }
+
+    private static void awaitCompleted(final ImageBatch batch, final int completed) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_S);
+        while (batch.stats().completed() < completed) {
+            assertTrue(System.nanoTime() < deadline, "timed out waiting for " + completed + " results");
+            Thread.sleep(10L);
+        }
+    }
+}
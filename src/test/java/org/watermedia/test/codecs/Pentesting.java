@@ -769,10 +769,10 @@ public class Pentesting {
     // ==========================================================================
     // DDS / BC
     // ==========================================================================
-    // THE BC DECODE PATH IS DORMANT (BCCodec REPORTS EVERY VERSION UNAVAILABLE) AND CodecsAPI DOES
-    // NOT DISPATCH DDS, SO THESE FIXTURES CANNOT REACH A READER TODAY. THE ARITHMETIC THEY TARGET
-    // IS NEVERTHELESS LIVE AND PUBLIC, SO IT IS EXERCISED DIRECTLY — THESE ASSERTIONS ARE WHAT
-    // KEEPS THE FLAW FROM ARMING ITSELF THE DAY THE JNI BINDINGS LAND.
+    // CodecsAPI DOES NOT DISPATCH DDS, SO THESE FIXTURES ONLY REACH A READER THROUGH THE CODEC CACHE
+    // (LIVE FOR BC1/BC3 NOW THAT THEY HAVE A PURE-JAVA ENCODER). THE ARITHMETIC THEY TARGET IS
+    // PUBLIC, SO IT IS EXERCISED DIRECTLY — THESE ASSERTIONS ARE WHAT KEEPS THE FLAW FROM ARMING
+    // ITSELF ON ANY BC VERSION.
     @Nested
     @DisplayName("DDS / BC")
     class Dds {
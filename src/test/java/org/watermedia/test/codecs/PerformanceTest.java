@@ -4,11 +4,17 @@ import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.TestFactory;
+import org.watermedia.WaterMediaConfig;
 import org.watermedia.api.codecs.CodecsAPI;
 import org.watermedia.api.codecs.ImageReader;
 import org.watermedia.test.support.Fixtures;
+import org.watermedia.test.support.SyntheticJpeg;
+import org.watermedia.test.support.SyntheticPng;
+
+import com.sun.management.ThreadMXBean;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -26,8 +32,9 @@ import static org.junit.jupiter.api.DynamicTest.dynamicTest;
  *
  * <p>These are deliberately observational rather than wall-clock assertions. They keep
  * the benchmark loop close to the public streaming API and report the most useful split
- * points: reader creation, first-frame readiness, full drain, and how far the source
- * buffer has advanced.
+ * points: reader creation, first-frame readiness, full drain, how far the source
+ * buffer has advanced, and how many heap bytes the calling thread allocated for the
+ * whole decode (work handed to pool threads is not counted).
  *
  * <p>Results are appended to a TSV report at
  * {@code build/reports/decoder-performance.tsv} after the factory finishes.
@@ -38,6 +45,7 @@ public class PerformanceTest {
     private static final int MEASURED_ITERATIONS = 5;
     private static final Path REPORT_PATH = Path.of("build", "reports", "decoder-performance.tsv");
     private static final List<String> REPORT_LINES = new ArrayList<>();
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
 
     private static final List<BenchmarkCase> CASES = List.of(
             new BenchmarkCase("JPEG_GRAY", Fixtures.JPEG_DIR.resolve("1.jpg")),
@@ -46,17 +54,26 @@ public class PerformanceTest {
             new BenchmarkCase("JPEG_444", Fixtures.JPEG_DIR.resolve("4.jpg")),
             new BenchmarkCase("JPEG_444_APPX", Fixtures.JPEG_DIR.resolve("5.jpg")),
             new BenchmarkCase("JPEG_420_PROG", Fixtures.JPEG_DIR.resolve("6.jpg")),
+            // GENERATED ON FIRST RUN: 12 MP, ONE RESTART INTERVAL PER MCU ROW (188 INTERVALS)
+            new BenchmarkCase("JPEG_420_RESTART_LARGE", SyntheticJpeg.restartFixture(4000, 3000)),
             new BenchmarkCase("GIF", Fixtures.GIF_DIR.resolve("1.gif")),
             new BenchmarkCase("GIF ALPHA", Fixtures.GIF_DIR.resolve("2.gif")),
             new BenchmarkCase("GIF LARGE", Fixtures.GIF_DIR.resolve("3.gif")),
             new BenchmarkCase("PNG", Fixtures.PNG_DIR.resolve("1.png")),
+            // GENERATED ON FIRST RUN: 12 MP STATIC RGBA, THE ROW-STREAMING PATH (EVERY FIXTURE ABOVE IS AN APNG)
+            new BenchmarkCase("PNG_STATIC_LARGE", SyntheticPng.fixture(4000, 3000)),
             new BenchmarkCase("WEBP_LOSSLESS", Fixtures.WEBP_LOSSLESS_DIR.resolve("1.webp")),
             new BenchmarkCase("WEBP_LOSSY_SMALL", Fixtures.WEBP_LOSSY_DIR.resolve("1.webp")),
             new BenchmarkCase("WEBP_LOSSY_MED", Fixtures.WEBP_LOSSY_DIR.resolve("3.webp")),
             new BenchmarkCase("WEBP_LOSSY_LARGE", Fixtures.WEBP_LOSSY_DIR.resolve("6.webp")),
             new BenchmarkCase("WEBP_ANIMATED", Fixtures.WEBP_ANIMATED_DIR.resolve("1.webp")),
             new BenchmarkCase("NETPBM_PPM", Fixtures.NETPBM_DIR.resolve("test.ppm")),
-            new BenchmarkCase("NETPBM_PAM_RGBA", Fixtures.NETPBM_DIR.resolve("rgba.pam"))
+            new BenchmarkCase("NETPBM_PAM_RGBA", Fixtures.NETPBM_DIR.resolve("rgba.pam")),
+            new BenchmarkCase("SVG", Fixtures.SVG_DIR.resolve("car-icon-filled-collor-clock.svg")),
+            new BenchmarkCase("SVG_GRADIENT", Fixtures.SVG_DIR.resolve("gradient.svg")),
+            // RASTERIZED WITH decoders.svg.maxSize RAISED, WHERE BIG FILLS SWEEP IN PARALLEL BANDS
+            new BenchmarkCase("SVG_2048", Fixtures.SVG_DIR.resolve("box-color-shaded.svg"), 2048),
+            new BenchmarkCase("SVG_8192", Fixtures.SVG_DIR.resolve("mailbox-color-complex-shaped.svg"), 8192)
     );
 
     @TestFactory
@@ -68,10 +85,15 @@ public class PerformanceTest {
                 final byte[] source = Files.readAllBytes(benchmarkCase.fixture);
                 assertTrue(source.length > 0, "Fixture must not be empty: " + benchmarkCase.fixture);
 
-                for (int i = 0; i < WARMUP_ITERATIONS; i++) runSample(source);
-
                 final BenchmarkSample[] samples = new BenchmarkSample[MEASURED_ITERATIONS];
-                for (int i = 0; i < MEASURED_ITERATIONS; i++) samples[i] = runSample(source);
+                final int previousSvgMaxSize = WaterMediaConfig.decoders.svg.maxSize;
+                if (benchmarkCase.svgMaxSize > 0) WaterMediaConfig.decoders.svg.maxSize = benchmarkCase.svgMaxSize;
+                try {
+                    for (int i = 0; i < WARMUP_ITERATIONS; i++) runSample(source);
+                    for (int i = 0; i < MEASURED_ITERATIONS; i++) samples[i] = runSample(source);
+                } finally {
+                    WaterMediaConfig.decoders.svg.maxSize = previousSvgMaxSize;
+                }
 
                 final BenchmarkSample exemplar = samples[0];
                 final BenchmarkSummary summary = new BenchmarkSummary(
@@ -85,6 +107,7 @@ public class PerformanceTest {
                         medianMicros(samples, Metric.OPEN),
                         medianMicros(samples, Metric.FIRST_FRAME),
                         medianMicros(samples, Metric.ALL_FRAMES),
+                        medianAllocated(samples),
                         exemplar.bytesAfterOpen,
                         exemplar.bytesAfterFirst,
                         exemplar.bytesAfterAll,
@@ -104,7 +127,7 @@ public class PerformanceTest {
     static void writePerformanceReport() throws IOException {
         REPORT_LINES.sort(Comparator.naturalOrder());
         final List<String> lines = new ArrayList<>(REPORT_LINES.size() + 1);
-        lines.add("decoder\tfixture\tbytes\twidth\theight\tframes\toutput_bytes\topen_us\tfirst_frame_us\tall_frames_us\tbytes_after_open\tbytes_after_first\tbytes_after_all\tduration_ms\taverage_fps\tvariable_frame_rate");
+        lines.add("decoder\tfixture\tbytes\twidth\theight\tframes\toutput_bytes\topen_us\tfirst_frame_us\tall_frames_us\tallocated_bytes\tbytes_after_open\tbytes_after_first\tbytes_after_all\tduration_ms\taverage_fps\tvariable_frame_rate");
         lines.addAll(REPORT_LINES);
         Files.createDirectories(REPORT_PATH.getParent());
         Files.write(REPORT_PATH, lines);
@@ -112,6 +135,7 @@ public class PerformanceTest {
 
     private static BenchmarkSample runSample(final byte[] source) throws IOException {
         final ByteBuffer input = ByteBuffer.wrap(source);
+        final long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
         final long start = System.nanoTime();
 
         try (final ImageReader reader = CodecsAPI.decodeImage(input)) {
@@ -132,6 +156,7 @@ public class PerformanceTest {
             }
 
             final long afterAllFrames = System.nanoTime();
+            final long allocated = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
             return new BenchmarkSample(
                     reader.width(),
                     reader.height(),
@@ -140,6 +165,7 @@ public class PerformanceTest {
                     afterOpen - start,
                     afterFirstFrame - afterOpen,
                     afterAllFrames - start,
+                    allocated,
                     bytesAfterOpen,
                     bytesAfterFirst,
                     input.position(),
@@ -164,7 +190,19 @@ public class PerformanceTest {
         return nanos[nanos.length / 2] / 1_000L;
     }
 
-    private record BenchmarkCase(String name, Path fixture) {}
+    private static long medianAllocated(final BenchmarkSample[] samples) {
+        final long[] bytes = new long[samples.length];
+        for (int i = 0; i < samples.length; i++) bytes[i] = samples[i].allocatedBytes;
+        Arrays.sort(bytes);
+        return bytes[bytes.length / 2];
+    }
+
+    // svgMaxSize OVERRIDES decoders.svg.maxSize FOR THE CASE; 0 KEEPS THE CONFIGURED CAP
+    private record BenchmarkCase(String name, Path fixture, int svgMaxSize) {
+        BenchmarkCase(final String name, final Path fixture) {
+            this(name, fixture, 0);
+        }
+    }
 
     private record BenchmarkSample(
             int width,
@@ -174,6 +212,7 @@ public class PerformanceTest {
             long openNanos,
             long firstFrameNanos,
             long allFramesNanos,
+            long allocatedBytes,
             int bytesAfterOpen,
             int bytesAfterFirst,
             int bytesAfterAll,
@@ -193,6 +232,7 @@ public class PerformanceTest {
             long openMicros,
             long firstFrameMicros,
             long allFramesMicros,
+            long allocatedBytes,
             int bytesAfterOpen,
             int bytesAfterFirst,
             int bytesAfterAll,
@@ -212,6 +252,7 @@ public class PerformanceTest {
                     Long.toString(this.openMicros),
                     Long.toString(this.firstFrameMicros),
                     Long.toString(this.allFramesMicros),
+                    Long.toString(this.allocatedBytes),
                     Integer.toString(this.bytesAfterOpen),
                     Integer.toString(this.bytesAfterFirst),
                     Integer.toString(this.bytesAfterAll),
@@ -230,6 +271,7 @@ public class PerformanceTest {
                     + " open=" + this.openMicros + "us"
                     + " first=" + this.firstFrameMicros + "us"
                     + " all=" + this.allFramesMicros + "us"
+                    + " alloc=" + this.allocatedBytes + "B"
                     + " bytes(open/first/all)=" + this.bytesAfterOpen + "/" + this.bytesAfterFirst + "/" + this.bytesAfterAll
                     + " duration=" + this.duration + "ms"
                     + " fps=" + this.averageFps
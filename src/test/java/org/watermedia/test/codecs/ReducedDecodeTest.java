@@ -0,0 +1,149 @@
+package org.watermedia.test.codecs;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.watermedia.api.codecs.CodecsAPI;
+import org.watermedia.api.codecs.ImageReader;
+import org.watermedia.api.util.PixelFormat;
+import org.watermedia.test.support.Fixtures;
+import org.watermedia.test.support.SyntheticPng;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+/**
+ * Size-hint reductions outside JPEG (see {@code JpegScaledDecodeTest}): interlaced PNG passes, GIF and
+ * WebP compositing on a decimated canvas, and SVG rasterized at the hinted size. The decimating readers
+ * must deliver exactly the nearest-sampled full-size frames, every frame of an animation included.
+ */
+@DisplayName("Reduced decode")
+public class ReducedDecodeTest {
+    private static final Path SVG = Fixtures.SVG_DIR.resolve("car-icon-filled-collor-clock.svg");
+
+    @Test
+    @DisplayName("Interlaced PNG decodes only the passes on the 2, 4 or 8 pixel grid")
+    void testInterlacedPng() throws IOException {
+        final byte[] png = SyntheticPng.encodeInterlaced(301, 197);
+        for (final int step: new int[] {2, 4, 8}) {
+            assertSampled("interlaced PNG", png, (301 + step - 1) / step, 0, step);
+        }
+        assertSampled("interlaced PNG", png, 0, 40, 4);
+        assertSampled("interlaced PNG", png, 1, 1, 8);
+        assertSampled("interlaced PNG", png, 301, 0, 1);
+    }
+
+    @Test
+    @DisplayName("Non-interlaced and animated PNGs ignore the hint")
+    void testOtherPngIgnoresHint() throws IOException {
+        assertSampled("plain PNG", SyntheticPng.encode(301, 197), 40, 40, 1);
+        assertSampled("APNG", Fixtures.readAll(Fixtures.PNG_DIR.resolve("3.png")), 16, 16, 1);
+    }
+
+    @TestFactory
+    @DisplayName("GIF composites every frame onto the sampled canvas")
+    List<DynamicTest> testGif() {
+        final List<DynamicTest> tests = new ArrayList<>();
+        for (final String name: new String[] {"1.gif", "2.gif", "3.gif"}) {
+            tests.add(dynamicTest(name, () -> assertQuartered(name, Fixtures.readAll(Fixtures.GIF_DIR.resolve(name)))));
+        }
+        return tests;
+    }
+
+    @TestFactory
+    @DisplayName("Lossless and animated WebP sample the decoded canvas")
+    List<DynamicTest> testWebp() {
+        final List<DynamicTest> tests = new ArrayList<>();
+        for (final String name: new String[] {"1.webp", "2.webp", "3.webp", "5.webp"}) {
+            final Path file = Fixtures.WEBP_LOSSLESS_DIR.resolve(name);
+            tests.add(dynamicTest("lossless " + name, () -> assertQuartered(name, Fixtures.readAll(file))));
+        }
+        tests.add(dynamicTest("animated", () -> assertQuartered("animated", Fixtures.readAll(Fixtures.WEBP_ANIMATED))));
+        tests.add(dynamicTest("lossy ignores the hint", () ->
+                assertSampled("lossy", Fixtures.readAll(Fixtures.WEBP_LOSSY_DIR.resolve("1.webp")), 8, 8, 1)));
+        return tests;
+    }
+
+    @Test
+    @DisplayName("SVG rasterizes at the smallest size covering the hint, never above its default")
+    void testSvg() throws IOException {
+        final byte[] svg = Fixtures.readAll(SVG);
+        final int defaultWidth, defaultHeight;
+        try (final ImageReader reader = open(svg, 0, 0)) {
+            defaultWidth = reader.width();
+            defaultHeight = reader.height();
+        }
+        try (final ImageReader reader = open(svg, 64, 64)) {
+            assertEquals(defaultWidth, reader.sourceWidth());
+            assertEquals(defaultHeight, reader.sourceHeight());
+            assertTrue(reader.width() >= 64 && reader.height() >= 64, reader.width() + "x" + reader.height());
+            assertTrue(reader.width() == 64 || reader.height() == 64, reader.width() + "x" + reader.height());
+            assertEquals(reader.width() * reader.height() * 4, reader.next().remaining());
+        }
+        try (final ImageReader reader = open(svg, defaultWidth * 4, 0)) {
+            assertEquals(defaultWidth, reader.width());
+            assertEquals(defaultHeight, reader.height());
+        }
+    }
+
+    // A HINT OF A QUARTER OF THE WIDTH LANDS EXACTLY ON STEP 4 UNLESS THE IMAGE IS TOO SMALL FOR IT
+    private static void assertQuartered(final String label, final byte[] data) throws IOException {
+        final int width;
+        try (final ImageReader reader = open(data, 0, 0)) {
+            width = reader.width();
+        }
+        assertTrue(width >= 16, label + " is too small to reduce: " + width);
+        assertSampled(label, data, (width + 3) / 4, 0, 4);
+    }
+
+    // DECODES data TWICE IN LOCKSTEP, FULL SIZE AND HINTED, AND CHECKS EVERY HINTED FRAME IS THE FULL FRAME
+    // SAMPLED EVERY step PIXELS ON BOTH AXES
+    private static void assertSampled(final String label, final byte[] data, final int hintWidth, final int hintHeight,
+                                      final int step) throws IOException {
+        try (final ImageReader full = open(data, 0, 0); final ImageReader reduced = open(data, hintWidth, hintHeight)) {
+            final String context = label + " hint " + hintWidth + "x" + hintHeight;
+            final int width = full.width(), height = full.height();
+            final int rw = (width + step - 1) / step, rh = (height + step - 1) / step;
+            assertEquals(width, reduced.sourceWidth(), context);
+            assertEquals(height, reduced.sourceHeight(), context);
+            assertEquals(rw, reduced.width(), context);
+            assertEquals(rh, reduced.height(), context);
+            assertEquals(full.frameCount(), reduced.frameCount(), context);
+
+            int frame = 0;
+            while (full.hasNext()) {
+                assertTrue(reduced.hasNext(), context + " ran out at frame " + frame);
+                final IntBuffer expected = full.next().duplicate().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+                final IntBuffer actual = reduced.next().duplicate().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+                assertEquals(rw * rh, actual.remaining(), context + " frame " + frame);
+                for (int y = 0; y < rh; y++) {
+                    for (int x = 0; x < rw; x++) {
+                        final int e = expected.get(y * step * width + x * step);
+                        final int a = actual.get(y * rw + x);
+                        if (e != a) {
+                            assertEquals(Integer.toHexString(e), Integer.toHexString(a),
+                                    context + " frame " + frame + " at " + x + "," + y);
+                        }
+                    }
+                }
+                frame++;
+            }
+            assertFalse(reduced.hasNext(), context);
+        }
+    }
+
+    private static ImageReader open(final byte[] data, final int hintWidth, final int hintHeight) throws IOException {
+        return CodecsAPI.decodeImage(ByteBuffer.wrap(data), PixelFormat.BGRA, hintWidth, hintHeight);
+    }
+}
@@ -0,0 +1,131 @@
+package org.watermedia.test.codecs.bc;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.watermedia.api.codecs.CodecsAPI;
+import org.watermedia.api.codecs.ImageReader;
+import org.watermedia.api.codecs.common.bc.BCCodec;
+import org.watermedia.api.util.PixelFormat;
+import org.watermedia.test.support.BCBlocks;
+import org.watermedia.test.support.Fixtures;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+/**
+ * Diagnostic BC encoder benchmarks.
+ *
+ * <p>Observational like the decoder benchmarks: each fixture's first frame is decoded to BGRA and
+ * encoded to BC1 and BC3, reporting throughput in MB/s of source pixels (median of the measured
+ * runs) and PSNR of the decoded blocks against the source. Results are written to
+ * {@code build/reports/bc-encoder.tsv}; only the output size is asserted.
+ */
+@DisplayName("BC encoder performance benchmarks")
+public class BCEncodePerformanceTest {
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASURED_ITERATIONS = 7;
+    private static final Path REPORT_PATH = Path.of("build", "reports", "bc-encoder.tsv");
+    private static final List<String> REPORT_LINES = new ArrayList<>();
+
+    private static final List<BenchmarkCase> CASES = List.of(
+            new BenchmarkCase("JPEG_420", Fixtures.JPEG_DIR.resolve("2.jpg")),
+            new BenchmarkCase("JPEG_444", Fixtures.JPEG_DIR.resolve("4.jpg")),
+            new BenchmarkCase("PNG", Fixtures.PNG_STATIC),
+            new BenchmarkCase("GIF ALPHA", Fixtures.GIF_DIR.resolve("2.gif")),
+            new BenchmarkCase("WEBP_LOSSY_LARGE", Fixtures.WEBP_LOSSY_DIR.resolve("6.webp"))
+    );
+
+    @TestFactory
+    @DisplayName("Measure BC1/BC3 encode throughput and quality")
+    Iterable<DynamicTest> measureEncoders() {
+        final List<DynamicTest> tests = new ArrayList<>();
+        for (final BenchmarkCase benchmarkCase: CASES) {
+            for (final String version: new String[] {CodecsAPI.CODEC_BC1, CodecsAPI.CODEC_BC3}) {
+                tests.add(dynamicTest("bc encode [" + benchmarkCase.name + " " + version + "]", () -> {
+                    final Source source = decode(benchmarkCase.fixture);
+                    final boolean bc3 = version.equals(CodecsAPI.CODEC_BC3);
+
+                    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                        BCCodec.encode(version, source.bgra, source.width, source.height, PixelFormat.BGRA);
+                    }
+                    final long[] nanos = new long[MEASURED_ITERATIONS];
+                    ByteBuffer blocks = null;
+                    for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                        final long start = System.nanoTime();
+                        blocks = BCCodec.encode(version, source.bgra, source.width, source.height, PixelFormat.BGRA);
+                        nanos[i] = System.nanoTime() - start;
+                    }
+                    Arrays.sort(nanos);
+                    final long median = nanos[nanos.length / 2];
+                    assertEquals(((source.width + 3) / 4) * ((source.height + 3) / 4) * (bc3 ? 16 : 8), blocks.remaining());
+
+                    final byte[] decoded = BCBlocks.decode(blocks, source.width, source.height, bc3);
+                    final Summary summary = new Summary(benchmarkCase.name, version, source.width, source.height,
+                            source.bgra.remaining(), blocks.remaining(), median / 1_000L,
+                            source.bgra.remaining() / (median / 1e9) / (1024.0 * 1024.0),
+                            BCBlocks.psnr(source.rgba, decoded, false),
+                            bc3 ? BCBlocks.psnr(source.rgba, decoded, true) : Double.NaN);
+                    REPORT_LINES.add(summary.toTsv());
+                    System.out.println(summary.toHumanLine());
+                }));
+            }
+        }
+        return tests;
+    }
+
+    @AfterAll
+    static void writePerformanceReport() throws IOException {
+        REPORT_LINES.sort(Comparator.naturalOrder());
+        final List<String> lines = new ArrayList<>(REPORT_LINES.size() + 1);
+        lines.add("fixture\tversion\twidth\theight\tsource_bytes\tblock_bytes\tencode_us\tmb_per_s\tpsnr_rgb_db\tpsnr_rgba_db");
+        lines.addAll(REPORT_LINES);
+        Files.createDirectories(REPORT_PATH.getParent());
+        Files.write(REPORT_PATH, lines);
+    }
+
+    private static Source decode(final Path fixture) throws IOException {
+        try (final ImageReader reader = CodecsAPI.decodeImage(ByteBuffer.wrap(Files.readAllBytes(fixture)), PixelFormat.BGRA)) {
+            final ByteBuffer frame = reader.next();
+            final ByteBuffer bgra = ByteBuffer.allocateDirect(frame.remaining()).put(frame.duplicate()).flip();
+            // THE REFERENCE DECODER EMITS RGBA, SO KEEP AN RGBA COPY OF THE SOURCE TO MEASURE AGAINST
+            final byte[] rgba = new byte[bgra.remaining()];
+            bgra.duplicate().get(rgba);
+            for (int i = 0; i < rgba.length; i += 4) {
+                final byte b = rgba[i];
+                rgba[i] = rgba[i + 2];
+                rgba[i + 2] = b;
+            }
+            return new Source(reader.width(), reader.height(), bgra, rgba);
+        }
+    }
+
+    private record BenchmarkCase(String name, Path fixture) {}
+
+    private record Source(int width, int height, ByteBuffer bgra, byte[] rgba) {}
+
+    private record Summary(String fixture, String version, int width, int height, int sourceBytes, int blockBytes,
+                           long encodeMicros, double mbPerSecond, double psnrRgb, double psnrRgba) {
+        String toTsv() {
+            return this.fixture + "\t" + this.version + "\t" + this.width + "\t" + this.height + "\t" + this.sourceBytes
+                    + "\t" + this.blockBytes + "\t" + this.encodeMicros + "\t" + String.format("%.1f", this.mbPerSecond)
+                    + "\t" + String.format("%.2f", this.psnrRgb) + "\t" + String.format("%.2f", this.psnrRgba);
+        }
+
+        String toHumanLine() {
+            return String.format("bc encode [%s %s]: %dx%d %d -> %d bytes, %dus, %.1f MB/s, PSNR rgb=%.2fdB rgba=%.2fdB",
+                    this.fixture, this.version, this.width, this.height, this.sourceBytes, this.blockBytes,
+                    this.encodeMicros, this.mbPerSecond, this.psnrRgb, this.psnrRgba);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package org.watermedia.test.codecs.bc;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.watermedia.api.codecs.CodecsAPI;
+import org.watermedia.api.codecs.common.bc.BCCodec;
+import org.watermedia.api.codecs.common.dds.DDSHeader;
+import org.watermedia.api.util.PixelFormat;
+import org.watermedia.test.support.BCBlocks;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round-trip tests for the pure-Java BC1/BC3 encoder behind {@link BCCodec#encode}. Output is
+ * decoded with the reference {@link BCBlocks} decoder and compared against the source pixels.
+ */
+@DisplayName("BC encoder")
+public class BCEncoderTest {
+
+    @Test
+    @DisplayName("BC1 and BC3 reproduce a smooth image above 35 dB")
+    void testSmoothImageQuality() {
+        // 256x128 IS PAST THE INLINE THRESHOLD, SO THIS ALSO COVERS THE FORK/JOIN PATH
+        final byte[] rgba = gradient(256, 128, false);
+        for (final String version: new String[] {CodecsAPI.CODEC_BC1, CodecsAPI.CODEC_BC3}) {
+            final ByteBuffer blocks = BCCodec.encode(version, direct(rgba), 256, 128, PixelFormat.RGBA);
+            final byte[] decoded = BCBlocks.decode(blocks, 256, 128, version.equals(CodecsAPI.CODEC_BC3));
+            final double psnr = BCBlocks.psnr(rgba, decoded, false);
+            assertTrue(psnr > 35.0, version + " PSNR too low: " + psnr);
+        }
+    }
+
+    @Test
+    @DisplayName("A flat 565-exact colour survives bit-exactly")
+    void testFlatColourIsExact() {
+        final byte[] rgba = new byte[8 * 8 * 4];
+        for (int i = 0; i < rgba.length; i += 4) {
+            rgba[i] = (byte) 0x84;     // 10000 -> 0x84
+            rgba[i + 1] = (byte) 0x41; // 010000 -> 0x41
+            rgba[i + 2] = (byte) 0xFF;
+            rgba[i + 3] = (byte) 0xFF;
+        }
+        final ByteBuffer blocks = BCCodec.encode(CodecsAPI.CODEC_BC1, direct(rgba), 8, 8, PixelFormat.RGBA);
+        assertArrayEquals(rgba, BCBlocks.decode(blocks, 8, 8, false));
+    }
+
+    @Test
+    @DisplayName("Pads odd sizes to the block grid and leaves the source position alone")
+    void testPadsToBlockGrid() {
+        final int width = 61, height = 37;
+        final byte[] rgba = gradient(width, height, true);
+        final ByteBuffer frame = ByteBuffer.allocateDirect(5 + rgba.length);
+        frame.position(5);
+        frame.put(rgba).position(5);
+
+        final ByteBuffer blocks = BCCodec.encode(CodecsAPI.CODEC_BC3, frame, width, height, PixelFormat.RGBA);
+        assertEquals(5, frame.position());
+        assertEquals(0, blocks.position());
+        assertEquals(DDSHeader.frameBytes(width, height, CodecsAPI.CODEC_BC3), blocks.remaining());
+        assertTrue(BCBlocks.psnr(rgba, BCBlocks.decode(blocks, width, height, true), true) > 35.0);
+    }
+
+    @Test
+    @DisplayName("Every packed source layout encodes to the same blocks")
+    void testSourceLayoutsAgree() {
+        final int width = 32, height = 16;
+        final byte[] rgba = gradient(width, height, false);
+        final byte[] bgra = new byte[rgba.length];
+        final byte[] gbra = new byte[rgba.length];
+        final byte[] rgb = new byte[width * height * 3];
+        for (int p = 0, q = 0; p < rgba.length; p += 4, q += 3) {
+            bgra[p] = rgba[p + 2];
+            bgra[p + 1] = rgba[p + 1];
+            bgra[p + 2] = rgba[p];
+            bgra[p + 3] = rgba[p + 3];
+            gbra[p] = rgba[p + 1];
+            gbra[p + 1] = rgba[p + 2];
+            gbra[p + 2] = rgba[p];
+            gbra[p + 3] = rgba[p + 3];
+            rgb[q] = rgba[p];
+            rgb[q + 1] = rgba[p + 1];
+            rgb[q + 2] = rgba[p + 2];
+        }
+        final byte[] expected = bytes(BCCodec.encode(CodecsAPI.CODEC_BC3, direct(rgba), width, height, PixelFormat.RGBA));
+        assertArrayEquals(expected, bytes(BCCodec.encode(CodecsAPI.CODEC_BC3, direct(bgra), width, height, PixelFormat.BGRA)));
+        assertArrayEquals(expected, bytes(BCCodec.encode(CodecsAPI.CODEC_BC3, direct(gbra), width, height, PixelFormat.GBRA)));
+        assertArrayEquals(expected, bytes(BCCodec.encode(CodecsAPI.CODEC_BC3, direct(rgb), width, height, PixelFormat.RGB)));
+    }
+
+    @Test
+    @DisplayName("BC1 punches through transparent pixels; BC3 keeps the alpha ramp")
+    void testAlpha() {
+        final int width = 16, height = 16;
+        final byte[] rgba = gradient(width, height, true);
+        // A HARD HOLE IN THE MIDDLE OF THE ALPHA RAMP
+        for (int y = 4; y < 8; y++) {
+            for (int x = 4; x < 12; x++) rgba[(y * width + x) * 4 + 3] = 0;
+        }
+
+        final byte[] bc1 = BCBlocks.decode(BCCodec.encode(CodecsAPI.CODEC_BC1, direct(rgba), width, height, PixelFormat.RGBA), width, height, false);
+        for (int i = 3; i < rgba.length; i += 4) {
+            assertEquals((rgba[i] & 0xFF) < 128 ? 0 : 255, bc1[i] & 0xFF, "BC1 alpha at pixel " + (i >> 2));
+        }
+
+        final byte[] bc3 = BCBlocks.decode(BCCodec.encode(CodecsAPI.CODEC_BC3, direct(rgba), width, height, PixelFormat.RGBA), width, height, true);
+        for (int i = 3; i < rgba.length; i += 4) {
+            assertTrue(Math.abs((rgba[i] & 0xFF) - (bc3[i] & 0xFF)) <= 18, "BC3 alpha drifted at pixel " + (i >> 2));
+        }
+    }
+
+    @Test
+    @DisplayName("Rejects unavailable versions, non-packed layouts and short frames")
+    void testRejectsInvalidInput() {
+        final ByteBuffer frame = ByteBuffer.allocateDirect(8 * 8 * 4);
+        assertThrows(UnsupportedOperationException.class, () -> BCCodec.encode(CodecsAPI.CODEC_BC7, frame, 8, 8, PixelFormat.RGBA));
+        assertThrows(IllegalArgumentException.class, () -> BCCodec.encode(CodecsAPI.CODEC_BC1, frame, 8, 8, PixelFormat.YUV420P));
+        assertThrows(IllegalArgumentException.class, () -> BCCodec.encode(CodecsAPI.CODEC_BC1, frame, 16, 8, PixelFormat.RGBA));
+    }
+
+    // DIAGONAL COLOUR RAMP WITH A MILD RIPPLE; OPTIONAL HORIZONTAL ALPHA RAMP
+    private static byte[] gradient(final int width, final int height, final boolean alpha) {
+        final byte[] rgba = new byte[width * height * 4];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                final int o = (y * width + x) * 4;
+                rgba[o] = (byte) (x * 255 / Math.max(1, width - 1));
+                rgba[o + 1] = (byte) (y * 255 / Math.max(1, height - 1));
+                rgba[o + 2] = (byte) (128 + 60 * Math.sin((x + y) / 9.0));
+                rgba[o + 3] = (byte) (alpha ? x * 255 / Math.max(1, width - 1) : 255);
+            }
+        }
+        return rgba;
+    }
+
+    private static ByteBuffer direct(final byte[] pixels) {
+        return ByteBuffer.allocateDirect(pixels.length).put(pixels).flip();
+    }
+
+    private static byte[] bytes(final ByteBuffer buffer) {
+        final byte[] out = new byte[buffer.remaining()];
+        buffer.duplicate().get(out);
+        return out;
+    }
+}
@@ -3,9 +3,11 @@ package org.watermedia.test.codecs.gif;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.TestFactory;
+import org.watermedia.WaterMediaConfig;
 import org.watermedia.api.codecs.CodecsAPI;
 import org.watermedia.api.codecs.ImageData;
 import org.watermedia.api.codecs.ImageReader;
+import org.watermedia.api.codecs.XCodecException;
 import org.watermedia.test.support.Fixtures;
 
 import java.io.IOException;
@@ -14,7 +16,10 @@ import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -104,6 +109,58 @@ public class GifTest {
         return tests;
     }
 
+    @TestFactory
+    @DisplayName("Decode-ahead")
+    Iterable<DynamicTest> testGIFDecodeAhead() {
+        final List<DynamicTest> tests = new ArrayList<>();
+        for (final Fixture fixture: List.of(
+                new Fixture("1.gif", Fixtures.GIF_DIR.resolve("1.gif")),
+                new Fixture("2.gif", Fixtures.GIF_DIR.resolve("2.gif")),
+                new Fixture("3.gif", Fixtures.GIF_DIR.resolve("3.gif"))
+        )) {
+            tests.add(dynamicTest("GIF decode-ahead [" + fixture.name + "]", () -> {
+                final byte[] gif = Fixtures.readAll(fixture.path);
+                final List<String> serial = withDecodeAhead(0, () -> decodeAll(gif, -1));
+                assertEquals(serial, withDecodeAhead(4, () -> decodeAll(gif, -1)), "Decode-ahead changed frames of " + fixture.name);
+                // reset() WITH FRAMES STILL QUEUED MUST REPLAY FROM THE FIRST FRAME
+                assertEquals(serial, withDecodeAhead(4, () -> decodeAll(gif, 2)), "Replay after reset differs for " + fixture.name);
+
+                // TRUNCATED DATA ENDS AT THE SAME FRAME WITH THE SAME ERROR EITHER WAY
+                final byte[] truncated = Arrays.copyOf(gif, gif.length - gif.length / 3);
+                assertEquals(withDecodeAhead(0, () -> decodeAll(truncated, -1)), withDecodeAhead(4, () -> decodeAll(truncated, -1)),
+                        "Decode-ahead changed truncated decoding of " + fixture.name);
+            }));
+        }
+        return tests;
+    }
+
+    // FRAME HASHES FOLLOWED BY THE ERROR, IF ANY; resetAfter >= 0 DECODES THAT MANY FRAMES, RESETS AND STARTS OVER
+    private static List<String> decodeAll(final byte[] gif, final int resetAfter) throws IOException, NoSuchAlgorithmException {
+        final List<String> frames = new ArrayList<>();
+        try (final ImageReader reader = CodecsAPI.decodeImage(ByteBuffer.wrap(gif))) {
+            for (int i = 0; i < resetAfter && reader.hasNext(); i++) reader.next();
+            if (resetAfter >= 0) assertTrue(reader.reset());
+            final MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            while (reader.hasNext()) {
+                sha.update(reader.next().duplicate());
+                frames.add(HexFormat.of().formatHex(sha.digest()));
+            }
+        } catch (final XCodecException e) {
+            frames.add(e.getMessage());
+        }
+        return frames;
+    }
+
+    private static <T> T withDecodeAhead(final int frames, final Callable<T> action) throws Exception {
+        final int previous = WaterMediaConfig.decoders.gif.decodeAhead;
+        WaterMediaConfig.decoders.gif.decodeAhead = frames;
+        try {
+            return action.call();
+        } finally {
+            WaterMediaConfig.decoders.gif.decodeAhead = previous;
+        }
+    }
+
     // HASH FRAMES INSTEAD OF COPYING THEM — 1080P FIXTURES TIMES THREE DECODE PASSES WOULD BLOW
     // THE 512MB DIRECT-MEMORY BUDGET OF THE TEST JVM, AND SHA-256 EQUALITY IS BYTE-IDENTITY
     private static List<byte[]> decodeFrameHashes(final ImageReader reader) throws IOException, NoSuchAlgorithmException {
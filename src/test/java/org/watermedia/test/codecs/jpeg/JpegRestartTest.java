@@ -0,0 +1,92 @@
+package org.watermedia.test.codecs.jpeg;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.watermedia.api.codecs.CodecsAPI;
+import org.watermedia.api.codecs.ImageReader;
+import org.watermedia.api.util.PixelFormat;
+import org.watermedia.test.support.SyntheticJpeg;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Restart-interval (DRI/RSTn) decoding. Large scans with restart markers are Huffman-decoded one
+ * interval per fork/join task, so every case decodes the same image encoded with and without
+ * markers and requires bit-identical output.
+ */
+@DisplayName("JPEG restart intervals")
+public class JpegRestartTest {
+
+    @Test
+    @DisplayName("Interleaved 4:2:0 scans decode identically at any restart interval")
+    void testInterleavedIntervals() throws IOException {
+        // 640x480 IS 40x30 MCUs, PAST THE INLINE THRESHOLD; 64x48 STAYS ON THE SERIAL PATH
+        for (final int[] size: new int[][] {{640, 480}, {64, 48}}) {
+            final byte[] plain = SyntheticJpeg.encode(size[0], size[1], false, 0);
+            for (final int interval: new int[] {1, 7, size[0] / 16}) {
+                final byte[] restart = SyntheticJpeg.encode(size[0], size[1], false, interval);
+                final String label = size[0] + "x" + size[1] + " every " + interval + " MCUs";
+                assertArrayEquals(decode(plain, PixelFormat.BGRA), decode(restart, PixelFormat.BGRA), label);
+                assertArrayEquals(decode(plain, null), decode(restart, null), label + " (native)");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Single-component scans restart per block, including a partial last interval")
+    void testGrayscaleIntervals() throws IOException {
+        final byte[] plain = SyntheticJpeg.encode(333, 250, true, 0);
+        for (final int interval: new int[] {5, 64}) {
+            assertArrayEquals(decode(plain, PixelFormat.BGRA), decode(SyntheticJpeg.encode(333, 250, true, interval), PixelFormat.BGRA),
+                    "every " + interval + " blocks");
+        }
+    }
+
+    @Test
+    @DisplayName("A missing restart marker still fails the decode")
+    void testMissingMarkerFails() {
+        final byte[] restart = SyntheticJpeg.encode(640, 480, false, 40);
+        // TURN THE FIFTH RSTn INTO STUFFED DATA: THE INTERVAL COUNT NO LONGER MATCHES AND THE SERIAL PATH REJECTS IT
+        int seen = 0;
+        for (int i = sosEnd(restart); i < restart.length - 1; i++) {
+            if ((restart[i] & 0xFF) == 0xFF && (restart[i + 1] & 0xF8) == 0xD0 && ++seen == 5) {
+                restart[i + 1] = 0x00;
+                break;
+            }
+        }
+        assertThrows(IOException.class, () -> decode(restart, PixelFormat.BGRA));
+    }
+
+    @Test
+    @DisplayName("A truncated restart scan still fails the decode")
+    void testTruncatedScanFails() {
+        final byte[] restart = SyntheticJpeg.encode(640, 480, false, 8);
+        final byte[] truncated = Arrays.copyOf(restart, sosEnd(restart) + (restart.length - sosEnd(restart)) / 2);
+        assertThrows(IOException.class, () -> decode(truncated, PixelFormat.BGRA));
+    }
+
+    private static byte[] decode(final byte[] jpeg, final PixelFormat format) throws IOException {
+        try (final ImageReader reader = CodecsAPI.decodeImage(ByteBuffer.wrap(jpeg), format)) {
+            final ByteBuffer frame = reader.next();
+            final byte[] out = new byte[frame.remaining()];
+            frame.get(out);
+            return out;
+        }
+    }
+
+    // OFFSET JUST PAST THE SOS SEGMENT, WHERE THE ENTROPY-CODED DATA STARTS
+    private static int sosEnd(final byte[] jpeg) {
+        for (int i = 2; i < jpeg.length - 3; ) {
+            final int marker = jpeg[i + 1] & 0xFF;
+            final int length = ((jpeg[i + 2] & 0xFF) << 8) | (jpeg[i + 3] & 0xFF);
+            if (marker == 0xDA) return i + 2 + length;
+            i += 2 + length;
+        }
+        throw new IllegalStateException("No SOS segment");
+    }
+}
@@ -0,0 +1,117 @@
+package org.watermedia.test.codecs.jpeg;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.watermedia.api.codecs.CodecsAPI;
+import org.watermedia.api.codecs.ImageReader;
+import org.watermedia.api.util.PixelFormat;
+import org.watermedia.test.support.Fixtures;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * DCT-domain downscaling driven by the {@link CodecsAPI#decodeImage(ByteBuffer, PixelFormat, int, int)}
+ * size hint: the delivered size, the reported source size, planar layouts and how closely a reduced
+ * decode matches an area-averaged full-size decode.
+ */
+@DisplayName("JPEG scaled decode")
+public class JpegScaledDecodeTest {
+    private static final Path JPEG_420 = Fixtures.JPEG_DIR.resolve("2.jpg"); // 2048x1536
+    private static final Path JPEG_GRAY = Fixtures.JPEG_DIR.resolve("1.jpg"); // 600x800
+
+    @Test
+    @DisplayName("Picks the smallest 1/2, 1/4 or 1/8 scale that still covers the hint")
+    void testPicksCoveringScale() throws IOException {
+        assertSize(JPEG_420, 0, 0, 2048, 1536);
+        assertSize(JPEG_420, 1500, 0, 2048, 1536);
+        assertSize(JPEG_420, 1024, 768, 1024, 768);
+        assertSize(JPEG_420, 600, 300, 1024, 768);
+        assertSize(JPEG_420, 0, 300, 512, 384);
+        assertSize(JPEG_420, 256, 192, 256, 192);
+        assertSize(JPEG_420, 1, 1, 256, 192);
+        assertSize(JPEG_420, 4096, 4096, 2048, 1536);
+        // 600/8 = 75, 800/8 = 100
+        assertSize(JPEG_GRAY, 75, 100, 75, 100);
+    }
+
+    @Test
+    @DisplayName("Reduced frames stay close to an area-averaged full decode")
+    void testMatchesAreaAverage() throws IOException {
+        final Decoded full = decode(JPEG_420, PixelFormat.BGRA, 0, 0);
+        for (final int factor: new int[] {2, 4, 8}) {
+            final Decoded scaled = decode(JPEG_420, PixelFormat.BGRA, 2048 / factor, 1536 / factor);
+            assertEquals(2048 / factor, scaled.width);
+            long sum = 0L;
+            for (int y = 0; y < scaled.height; y++) {
+                for (int x = 0; x < scaled.width; x++) {
+                    for (int c = 0; c < 3; c++) {
+                        int acc = 0;
+                        for (int dy = 0; dy < factor; dy++) {
+                            for (int dx = 0; dx < factor; dx++) {
+                                acc += full.pixels[((y * factor + dy) * full.width + x * factor + dx) * 4 + c] & 0xFF;
+                            }
+                        }
+                        final int expected = acc / (factor * factor);
+                        sum += Math.abs(expected - (scaled.pixels[(y * scaled.width + x) * 4 + c] & 0xFF));
+                    }
+                }
+            }
+            final double mean = (double) sum / (scaled.width * scaled.height * 3);
+            assertTrue(mean < 4.0, "1/" + factor + " mean difference too high: " + mean);
+        }
+    }
+
+    @Test
+    @DisplayName("Native planar output keeps its plane geometry at reduced size")
+    void testNativePlanesAtReducedSize() throws IOException {
+        try (final ImageReader reader = CodecsAPI.decodeImage(ByteBuffer.wrap(Fixtures.readAll(JPEG_420)), null, 500, 0)) {
+            assertEquals(PixelFormat.YUV420P, reader.pixelFormat());
+            assertEquals(512, reader.width());
+            assertEquals(384, reader.height());
+            assertEquals(2048, reader.sourceWidth());
+            assertEquals(1536, reader.sourceHeight());
+            final ByteBuffer frame = reader.next();
+            assertEquals(512 * 384 + 2 * 256 * 192, frame.remaining());
+            assertEquals(512, reader.planeStride(0));
+            assertEquals(256, reader.planeStride(1));
+            assertEquals(256 * 192, reader.plane(2).remaining());
+        }
+    }
+
+    @Test
+    @DisplayName("Formats without a cheap reduction ignore the hint; negative hints are rejected")
+    void testHintIsAdvisory() throws IOException {
+        try (final ImageReader reader = CodecsAPI.decodeImage(ByteBuffer.wrap(Fixtures.readAll(Fixtures.PNG_STATIC)), null, 16, 16)) {
+            assertEquals(reader.sourceWidth(), reader.width());
+            assertEquals(150, reader.width());
+        }
+        final ByteBuffer jpeg = ByteBuffer.wrap(Fixtures.readAll(JPEG_420));
+        assertThrows(IllegalArgumentException.class, () -> CodecsAPI.decodeImage(jpeg, null, -1, 0));
+    }
+
+    private static void assertSize(final Path fixture, final int hintWidth, final int hintHeight,
+                                   final int width, final int height) throws IOException {
+        final Decoded decoded = decode(fixture, PixelFormat.BGRA, hintWidth, hintHeight);
+        final String label = fixture.getFileName() + " hint " + hintWidth + "x" + hintHeight;
+        assertEquals(width, decoded.width, label);
+        assertEquals(height, decoded.height, label);
+        assertEquals(width * height * 4, decoded.pixels.length, label);
+    }
+
+    private static Decoded decode(final Path fixture, final PixelFormat format, final int hintWidth, final int hintHeight) throws IOException {
+        try (final ImageReader reader = CodecsAPI.decodeImage(ByteBuffer.wrap(Fixtures.readAll(fixture)), format, hintWidth, hintHeight)) {
+            final ByteBuffer frame = reader.next();
+            final byte[] pixels = new byte[frame.remaining()];
+            frame.get(pixels);
+            return new Decoded(reader.width(), reader.height(), pixels);
+        }
+    }
+
+    private record Decoded(int width, int height, byte[] pixels) {}
+}
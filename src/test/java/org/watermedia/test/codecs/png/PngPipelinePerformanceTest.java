@@ -0,0 +1,95 @@
+package org.watermedia.test.codecs.png;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.watermedia.WaterMediaConfig;
+import org.watermedia.api.codecs.CodecsAPI;
+import org.watermedia.api.codecs.ImageReader;
+import org.watermedia.test.support.SyntheticPng;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+/**
+ * Diagnostic benchmarks for the PNG inflate pipeline.
+ *
+ * <p>Observational like the decoder benchmarks: each generated 4K fixture is fully decoded with
+ * {@link WaterMediaConfig.Decoders.Png#pipeline} off and on, and the median of the measured runs
+ * and the speedup are written to {@code build/reports/png-pipeline.tsv}; nothing is asserted. The
+ * pipeline only overlaps work, so expect no gain on a single-core machine.
+ */
+@DisplayName("PNG pipeline performance benchmarks")
+public class PngPipelinePerformanceTest {
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final int MEASURED_ITERATIONS = 5;
+    private static final Path REPORT_PATH = Path.of("build", "reports", "png-pipeline.tsv");
+    private static final List<String> REPORT_LINES = new ArrayList<>();
+
+    @TestFactory
+    @DisplayName("Measure sequential vs pipelined PNG decoding")
+    Iterable<DynamicTest> measurePipeline() {
+        final List<DynamicTest> tests = new ArrayList<>();
+        tests.add(dynamicTest("png pipeline [4K static]", () -> this.report("4K static", SyntheticPng.fixture(3840, 2160))));
+        tests.add(dynamicTest("png pipeline [4K APNG]", () -> this.report("4K APNG", SyntheticPng.animatedFixture(3840, 2160, 6))));
+        return tests;
+    }
+
+    @AfterAll
+    static void writePerformanceReport() throws IOException {
+        REPORT_LINES.sort(Comparator.naturalOrder());
+        final List<String> lines = new ArrayList<>(REPORT_LINES.size() + 1);
+        lines.add("fixture\tframes\tsequential_us\tpipelined_us\tspeedup");
+        lines.addAll(REPORT_LINES);
+        Files.createDirectories(REPORT_PATH.getParent());
+        Files.write(REPORT_PATH, lines);
+    }
+
+    private void report(final String name, final Path fixture) throws IOException {
+        final byte[] data = Files.readAllBytes(fixture);
+        final int frames = decode(data);
+        final long sequential = median(data, false) / 1_000L;
+        final long pipelined = median(data, true) / 1_000L;
+        final double speedup = (double) sequential / Math.max(1L, pipelined);
+        REPORT_LINES.add(name + "\t" + frames + "\t" + sequential + "\t" + pipelined + "\t" + String.format("%.2f", speedup));
+        System.out.printf("png pipeline [%s]: %d frames, sequential %dus, pipelined %dus, %.2fx%n", name, frames, sequential, pipelined, speedup);
+    }
+
+    private static long median(final byte[] data, final boolean pipeline) throws IOException {
+        final boolean previous = WaterMediaConfig.decoders.png.pipeline;
+        WaterMediaConfig.decoders.png.pipeline = pipeline;
+        try {
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) decode(data);
+            final long[] nanos = new long[MEASURED_ITERATIONS];
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                final long start = System.nanoTime();
+                decode(data);
+                nanos[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(nanos);
+            return nanos[nanos.length / 2];
+        } finally {
+            WaterMediaConfig.decoders.png.pipeline = previous;
+        }
+    }
+
+    private static int decode(final byte[] data) throws IOException {
+        int frames = 0;
+        try (final ImageReader reader = CodecsAPI.decodeImage(ByteBuffer.wrap(data))) {
+            while (reader.hasNext()) {
+                reader.next();
+                frames++;
+            }
+        }
+        return frames;
+    }
+}
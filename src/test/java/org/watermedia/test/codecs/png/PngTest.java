@@ -2,28 +2,45 @@ package org.watermedia.test.codecs.png;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
+import org.watermedia.WaterMediaConfig;
 import org.watermedia.api.codecs.CodecsAPI;
 import org.watermedia.api.codecs.ImageData;
 import org.watermedia.api.codecs.ImageReader;
+import org.watermedia.api.codecs.XCodecException;
 import org.watermedia.test.support.Fixtures;
 import org.watermedia.test.support.PamImage;
 import org.watermedia.test.support.PixelDiff;
+import org.watermedia.test.support.SyntheticPng;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
 import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.DynamicTest.dynamicTest;
 
@@ -156,6 +173,129 @@ public class PngTest {
         return tests;
     }
 
+    @Test
+    @DisplayName("Row streaming matches ImageIO, including rows wider than the inflate window")
+    void testRowStreamingMatchesImageIO() throws IOException {
+        // 9000 RGBA PIXELS IS A 36000-BYTE SCANLINE, PAST THE 32K WINDOW, SO ROWS INFLATE DIRECTLY
+        final int[][] shapes = {{1, 1}, {3, 700}, {333, 250}, {9000, 12}};
+        final int[] types = {BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_BYTE_GRAY, BufferedImage.TYPE_BYTE_BINARY};
+        final Random random = new Random(0x9E6L);
+        for (final int[] shape: shapes) {
+            for (final int type: types) {
+                final BufferedImage image = new BufferedImage(shape[0], shape[1], type);
+                for (int y = 0; y < shape[1]; y++) {
+                    for (int x = 0; x < shape[0]; x++) {
+                        // GRADIENTS WITH NOISE SO THE ENCODER PICKS A MIX OF FILTER TYPES
+                        final int v = (x * 7 + y * 3 + random.nextInt(16)) & 0xFF;
+                        image.setRGB(x, y, (random.nextInt(256) << 24) | (v << 16) | ((255 - v) << 8) | (x ^ y) & 0xFF);
+                    }
+                }
+                final ByteArrayOutputStream png = new ByteArrayOutputStream();
+                assertTrue(ImageIO.write(image, "png", png));
+                final BufferedImage expected = ImageIO.read(new ByteArrayInputStream(png.toByteArray()));
+
+                final ImageData decoded = CodecsAPI.decodeImage(png.toByteArray());
+                final String label = shape[0] + "x" + shape[1] + " type " + type;
+                assertNotNull(decoded, label);
+                final ByteBuffer frame = decoded.frames()[0].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+                for (int y = 0; y < shape[1]; y++) {
+                    for (int x = 0; x < shape[0]; x++) {
+                        // getRGB CONVERTS GREY THROUGH A LINEAR COLOUR SPACE; PNG GREY IS THE RAW SAMPLE
+                        final int rgb = expected.getType() == BufferedImage.TYPE_BYTE_GRAY
+                                ? 0xFF000000 | expected.getRaster().getSample(x, y, 0) * 0x010101 : expected.getRGB(x, y);
+                        assertEquals(rgb, frame.getInt((y * shape[0] + x) * 4), label + " at " + x + "," + y);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Row streaming rejects truncated and oversized image data")
+    void testRowStreamingRejectsBadLength() throws IOException {
+        // 4x4 GREYSCALE-8: FIVE BYTES PER ROW INCLUDING THE FILTER BYTE
+        final byte[] rows = new byte[4 * 5];
+        assertThrows(XCodecException.class, () -> CodecsAPI.decodeImage(greyPng(4, 4, deflate(Arrays.copyOf(rows, 19)))));
+        assertThrows(XCodecException.class, () -> CodecsAPI.decodeImage(greyPng(4, 4, deflate(Arrays.copyOf(rows, 21)))));
+        final byte[] complete = deflate(rows);
+        assertThrows(XCodecException.class, () -> CodecsAPI.decodeImage(greyPng(4, 4, Arrays.copyOf(complete, complete.length - 4))));
+        assertEquals(64, CodecsAPI.decodeImage(greyPng(4, 4, complete)).frames()[0].remaining());
+    }
+
+    @Test
+    @DisplayName("Pipelined inflate decodes large PNG and APNG identically to the single-threaded path")
+    void testPipelineMatchesSequential() throws Exception {
+        // BOTH ABOVE THE 1 MiB PIPELINE THRESHOLD: 4.3 MB OF ROWS, AND 1.4 MB PER ANIMATION FRAME
+        for (final byte[] png: new byte[][] {SyntheticPng.encode(1200, 900), SyntheticPng.encodeAnimated(700, 500, 4)}) {
+            final List<String> sequential = withPipeline(false, () -> decodeAll(png, -1));
+            assertEquals(sequential, withPipeline(true, () -> decodeAll(png, -1)));
+            // reset() WITH A PREFETCHED FRAME IN FLIGHT MUST REPLAY FROM THE FIRST FRAME
+            assertEquals(sequential, withPipeline(true, () -> decodeAll(png, 1)));
+
+            // TRUNCATED DATA FAILS AT THE SAME FRAME EITHER WAY, AND NEVER HANGS THE PIPELINE
+            final byte[] truncated = Arrays.copyOf(png, png.length - png.length / 5);
+            assertEquals(withPipeline(false, () -> decodeAll(truncated, -1)), withPipeline(true, () -> decodeAll(truncated, -1)));
+        }
+    }
+
+    // FRAME HASHES FOLLOWED BY THE ERROR, IF ANY; resetAfter >= 0 DECODES THAT MANY FRAMES, RESETS AND STARTS OVER
+    private static List<String> decodeAll(final byte[] png, final int resetAfter) throws IOException, NoSuchAlgorithmException {
+        final List<String> frames = new ArrayList<>();
+        try (final ImageReader reader = CodecsAPI.decodeImage(ByteBuffer.wrap(png))) {
+            for (int i = 0; i < resetAfter && reader.hasNext(); i++) reader.next();
+            if (resetAfter >= 0) assertTrue(reader.reset());
+            final MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            while (reader.hasNext()) {
+                sha.update(reader.next().duplicate());
+                frames.add(HexFormat.of().formatHex(sha.digest()));
+            }
+        } catch (final XCodecException e) {
+            frames.add(e.getMessage());
+        }
+        return frames;
+    }
+
+    private static <T> T withPipeline(final boolean enabled, final Callable<T> action) throws Exception {
+        final boolean previous = WaterMediaConfig.decoders.png.pipeline;
+        WaterMediaConfig.decoders.png.pipeline = enabled;
+        try {
+            return action.call();
+        } finally {
+            WaterMediaConfig.decoders.png.pipeline = previous;
+        }
+    }
+
+    // SPLITS THE ZLIB STREAM OVER ONE-BYTE IDAT CHUNKS SO EVERY READ CROSSES A CHUNK BOUNDARY
+    private static byte[] greyPng(final int width, final int height, final byte[] zlib) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[] {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+        chunk(out, "IHDR", ByteBuffer.allocate(13).putInt(width).putInt(height).put((byte) 8).array());
+        for (final byte b: zlib) chunk(out, "IDAT", new byte[] {b});
+        chunk(out, "IEND", new byte[0]);
+        return out.toByteArray();
+    }
+
+    private static void chunk(final ByteArrayOutputStream out, final String type, final byte[] payload) throws IOException {
+        final byte[] name = type.getBytes(StandardCharsets.US_ASCII);
+        final CRC32 crc = new CRC32();
+        crc.update(name);
+        crc.update(payload);
+        out.write(ByteBuffer.allocate(4).putInt(payload.length).array());
+        out.write(name);
+        out.write(payload);
+        out.write(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+    }
+
+    private static byte[] deflate(final byte[] raw) {
+        final Deflater deflater = new Deflater();
+        deflater.setInput(raw);
+        deflater.finish();
+        final byte[] out = new byte[raw.length + 64];
+        final int n = deflater.deflate(out);
+        deflater.end();
+        return Arrays.copyOf(out, n);
+    }
+
     // HASH FRAMES INSTEAD OF COPYING THEM — LARGE FIXTURES TIMES THREE DECODE PASSES WOULD BLOW
     // THE 512MB DIRECT-MEMORY BUDGET OF THE TEST JVM, AND SHA-256 EQUALITY IS BYTE-IDENTITY
     private static List<byte[]> decodeFrameHashes(final ImageReader reader) throws IOException, NoSuchAlgorithmException {
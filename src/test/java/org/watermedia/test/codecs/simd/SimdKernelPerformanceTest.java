@@ -0,0 +1,242 @@
+package org.watermedia.test.codecs.simd;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.watermedia.WaterMediaConfig;
+import org.watermedia.api.codecs.CodecsAPI;
+import org.watermedia.api.codecs.ImageReader;
+import org.watermedia.api.codecs.common.simd.SimdKernels;
+import org.watermedia.api.codecs.readers.JPEGReader;
+import org.watermedia.api.util.PixelFormat;
+import org.watermedia.test.support.Fixtures;
+import org.watermedia.tools.DataTool;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+/**
+ * Diagnostic benchmarks for the Vector API kernels.
+ *
+ * <p>Observational like the decoder benchmarks: each kernel runs over the same synthetic input
+ * through its scalar reference and through {@link SimdKernels}, and whole decodes run with
+ * {@link WaterMediaConfig.Decoders#simd} off and on. The median of the measured runs and the
+ * speedup are written to {@code build/reports/simd-kernels.tsv}; nothing is asserted. Skipped
+ * unless the JVM resolves {@code jdk.incubator.vector}.
+ */
+@DisplayName("SIMD kernel performance benchmarks")
+public class SimdKernelPerformanceTest {
+    private static final int WARMUP_ITERATIONS = 40;
+    private static final int MEASURED_ITERATIONS = 9;
+    private static final Path REPORT_PATH = Path.of("build", "reports", "simd-kernels.tsv");
+    private static final List<String> REPORT_LINES = new ArrayList<>();
+
+    private static final int BLOCKS = 8192;
+    private static final int YUV_WIDTH = 1920;
+    private static final int YUV_HEIGHT = 1080;
+
+    private static final MethodHandle JPEG_IDCT = scalar(JPEGReader.class, "idct", MethodType.methodType(void.class,
+            int[].class, int.class, int[].class, int[].class, byte[].class, int.class, int.class, SimdKernels.class));
+    private static final MethodHandle VP8_IDCT = scalar(vp8Decoder(), "inverseDCT", MethodType.methodType(void.class,
+            short[].class, byte[].class, int.class, int.class, int[].class));
+
+    @TestFactory
+    @DisplayName("Measure scalar vs vector kernels")
+    Iterable<DynamicTest> measureKernels() {
+        final List<DynamicTest> tests = new ArrayList<>();
+        tests.add(dynamicTest("simd kernel [jpeg idct 8x8]", () -> {
+            final SimdKernels simd = kernels();
+            final JpegBlocks blocks = new JpegBlocks(new Random(0x1DC7L));
+            this.report("jpeg idct 8x8", BLOCKS + " blocks",
+                    () -> blocks.run(null), () -> blocks.run(simd));
+        }));
+        tests.add(dynamicTest("simd kernel [vp8 idct 4x4]", () -> {
+            final SimdKernels simd = kernels();
+            final Vp8Blocks blocks = new Vp8Blocks(new Random(0x4B8L));
+            this.report("vp8 idct 4x4", BLOCKS + " blocks",
+                    blocks::runScalar, () -> blocks.runVector(simd));
+        }));
+        tests.add(dynamicTest("simd kernel [yuv420 to bgra]", () -> {
+            kernels();
+            final Random random = new Random(0x7E7L);
+            final byte[] y = new byte[YUV_WIDTH * YUV_HEIGHT];
+            final byte[] u = new byte[(YUV_WIDTH / 2) * (YUV_HEIGHT / 2)];
+            final byte[] v = new byte[u.length];
+            random.nextBytes(y);
+            random.nextBytes(u);
+            random.nextBytes(v);
+            this.report("yuv420 to bgra", YUV_WIDTH + "x" + YUV_HEIGHT,
+                    () -> toggled(false, () -> DataTool.yuvToBgra(y, u, v, YUV_WIDTH, YUV_HEIGHT, YUV_WIDTH, YUV_WIDTH / 2)),
+                    () -> toggled(true, () -> DataTool.yuvToBgra(y, u, v, YUV_WIDTH, YUV_HEIGHT, YUV_WIDTH, YUV_WIDTH / 2)));
+        }));
+        for (final String[] decode: new String[][] {
+                {"jpeg 4:2:0 decode", "2.jpg"}, {"jpeg 4:2:2 decode", "3.jpg"}, {"jpeg 4:4:4 decode", "4.jpg"}, {"webp lossy decode", "6.webp"}}) {
+            tests.add(dynamicTest("simd kernel [" + decode[0] + "]", () -> {
+                kernels();
+                final Path fixture = (decode[1].endsWith(".jpg") ? Fixtures.JPEG_DIR : Fixtures.WEBP_LOSSY_DIR).resolve(decode[1]);
+                final byte[] data = Fixtures.readAll(fixture);
+                this.report(decode[0], decode[1] + " BGRA",
+                        () -> toggled(false, () -> decode(data)), () -> toggled(true, () -> decode(data)));
+            }));
+        }
+        return tests;
+    }
+
+    @AfterAll
+    static void writePerformanceReport() throws IOException {
+        REPORT_LINES.sort(Comparator.naturalOrder());
+        final List<String> lines = new ArrayList<>(REPORT_LINES.size() + 1);
+        lines.add("kernel\tinput\tscalar_us\tsimd_us\tspeedup");
+        lines.addAll(REPORT_LINES);
+        Files.createDirectories(REPORT_PATH.getParent());
+        Files.write(REPORT_PATH, lines);
+    }
+
+    private void report(final String kernel, final String input, final Body scalar, final Body vector) throws Throwable {
+        final long scalarMicros = median(scalar) / 1_000L;
+        final long simdMicros = median(vector) / 1_000L;
+        final double speedup = (double) scalarMicros / Math.max(1L, simdMicros);
+        REPORT_LINES.add(kernel + "\t" + input + "\t" + scalarMicros + "\t" + simdMicros + "\t" + String.format("%.2f", speedup));
+        System.out.printf("simd kernel [%s]: %s, scalar %dus, simd %dus, %.2fx%n", kernel, input, scalarMicros, simdMicros, speedup);
+    }
+
+    private static long median(final Body body) throws Throwable {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) body.run();
+        final long[] nanos = new long[MEASURED_ITERATIONS];
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            final long start = System.nanoTime();
+            body.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos[nanos.length / 2];
+    }
+
+    private static SimdKernels kernels() throws Exception {
+        assumeTrue(SimdKernels.available(), "jdk.incubator.vector is not resolved or vectors are narrower than 256 bits");
+        return toggled(true, SimdKernels::get);
+    }
+
+    private static <T> T toggled(final boolean enabled, final Action<T> action) throws Exception {
+        final boolean previous = WaterMediaConfig.decoders.simd;
+        WaterMediaConfig.decoders.simd = enabled;
+        try {
+            return action.run();
+        } finally {
+            WaterMediaConfig.decoders.simd = previous;
+        }
+    }
+
+    private static int decode(final byte[] data) throws IOException {
+        try (final ImageReader reader = CodecsAPI.decodeImage(ByteBuffer.wrap(data), PixelFormat.BGRA)) {
+            return reader.next().remaining();
+        }
+    }
+
+    private static MethodHandle scalar(final Class<?> owner, final String name, final MethodType type) {
+        try {
+            return MethodHandles.privateLookupIn(owner, MethodHandles.lookup()).findStatic(owner, name, type);
+        } catch (final ReflectiveOperationException e) {
+            throw new IllegalStateException("Scalar reference " + owner.getSimpleName() + "." + name + " not found", e);
+        }
+    }
+
+    private static Class<?> vp8Decoder() {
+        try {
+            return Class.forName("org.watermedia.api.codecs.readers.webp.lossy.VP8LossyDecoder");
+        } catch (final ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // DEQUANTIZED-RANGE BLOCKS WITH ROUGHLY A QUARTER OF THE COEFFICIENTS SET, LOW FREQUENCIES FIRST
+    private static final class JpegBlocks {
+        final int[] coef = new int[BLOCKS * 64];
+        final int[] quant = new int[64];
+        final int[] tmp = new int[64];
+        final byte[] samples = new byte[BLOCKS * 64];
+
+        JpegBlocks(final Random random) {
+            for (int i = 0; i < 64; i++) this.quant[i] = 2 + (i >> 2);
+            for (int b = 0; b < BLOCKS; b++) {
+                for (int i = 0; i < 64; i++) {
+                    if (i == 1 || random.nextInt(64) >= 16 + i) continue;
+                    this.coef[b * 64 + i] = random.nextInt(256) - 128;
+                }
+                this.coef[b * 64 + 1] |= 1;
+            }
+        }
+
+        int run(final SimdKernels simd) throws Throwable {
+            for (int b = 0; b < BLOCKS; b++) {
+                if (simd != null) simd.jpegIdct(this.coef, b * 64, this.quant, this.tmp, this.samples, b * 64, 8);
+                else JPEG_IDCT.invokeExact(this.coef, b * 64, this.quant, this.tmp, this.samples, b * 64, 8, (SimdKernels) null);
+            }
+            return this.samples[0];
+        }
+    }
+
+    // HORIZONTAL BLOCK PAIRS AS THE DECODER FEEDS THEM: SEPARATE FOR SCALAR, ROW-INTERLEAVED FOR THE KERNEL
+    private static final class Vp8Blocks {
+        final short[] blocks = new short[BLOCKS * 16];
+        final short[] pairs = new short[BLOCKS * 16];
+        final byte[] pixels = new byte[BLOCKS * 16];
+        final int[] tmp = new int[16];
+        final short[] block = new short[16];
+        final short[] pair = new short[32];
+
+        Vp8Blocks(final Random random) {
+            for (int i = 0; i < this.blocks.length; i++) {
+                if (random.nextInt(3) == 0) this.blocks[i] = (short) (random.nextInt(512) - 256);
+            }
+            for (int p = 0; p < BLOCKS / 2; p++) {
+                for (int r = 0; r < 4; r++) {
+                    System.arraycopy(this.blocks, p * 32 + r * 4, this.pairs, p * 32 + r * 8, 4);
+                    System.arraycopy(this.blocks, p * 32 + 16 + r * 4, this.pairs, p * 32 + r * 8 + 4, 4);
+                }
+            }
+            random.nextBytes(this.pixels);
+        }
+
+        int runScalar() throws Throwable {
+            for (int b = 0; b < BLOCKS; b++) {
+                System.arraycopy(this.blocks, b * 16, this.block, 0, 16);
+                // PAIR p COVERS PIXELS [p * 32, p * 32 + 32) AS AN 8x4 TILE WITH STRIDE 8
+                VP8_IDCT.invokeExact(this.block, this.pixels, (b >> 1) * 32 + (b & 1) * 4, 8, this.tmp);
+            }
+            return this.pixels[0];
+        }
+
+        int runVector(final SimdKernels simd) {
+            for (int p = 0; p < BLOCKS / 2; p++) {
+                System.arraycopy(this.pairs, p * 32, this.pair, 0, 32);
+                simd.vp8IdctAdd(this.pair, this.pixels, p * 32, 8);
+            }
+            return this.pixels[0];
+        }
+    }
+
+    @FunctionalInterface
+    private interface Body {
+        Object run() throws Throwable;
+    }
+
+    @FunctionalInterface
+    private interface Action<T> {
+        T run() throws Exception;
+    }
+}
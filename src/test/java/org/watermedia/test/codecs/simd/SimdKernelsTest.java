@@ -0,0 +1,199 @@
+package org.watermedia.test.codecs.simd;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.watermedia.WaterMediaConfig;
+import org.watermedia.api.codecs.CodecsAPI;
+import org.watermedia.api.codecs.ImageReader;
+import org.watermedia.api.codecs.common.simd.SimdKernels;
+import org.watermedia.api.codecs.readers.JPEGReader;
+import org.watermedia.api.util.PixelFormat;
+import org.watermedia.test.support.Fixtures;
+import org.watermedia.test.support.SyntheticJpeg;
+import org.watermedia.tools.DataTool;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The Vector API kernels against their scalar references. Every fixture is decoded with
+ * {@link WaterMediaConfig.Decoders#simd} on and off and must match byte for byte; the kernels are
+ * also driven directly with inputs no real file carries (overflowing coefficients, zero
+ * quantizers, ragged row widths). Without {@code --add-modules jdk.incubator.vector} both decodes
+ * run the scalar path and the direct kernel cases are skipped.
+ */
+@DisplayName("SIMD kernels")
+public class SimdKernelsTest {
+    private static final String MODULE_HINT = "jdk.incubator.vector is not resolved or vectors are narrower than 256 bits";
+
+    @Test
+    @DisplayName("JPEG and WebP fixtures decode identically with and without the vector kernels")
+    void testFixturesDecodeIdentically() throws Exception {
+        final List<Path> fixtures = new ArrayList<>();
+        fixtures.addAll(list(Fixtures.JPEG_DIR, ".jpg"));
+        fixtures.addAll(list(Fixtures.WEBP_LOSSY_DIR, ".webp"));
+        fixtures.add(Fixtures.WEBP_ANIMATED);
+        assertFalse(fixtures.isEmpty());
+        for (final Path fixture: fixtures) {
+            final byte[] data = Fixtures.readAll(fixture);
+            for (final PixelFormat format: new PixelFormat[] {PixelFormat.BGRA, null}) {
+                final String label = fixture.getFileName() + " " + format;
+                assertEquals(withSimd(false, () -> decode(data, format)), withSimd(true, () -> decode(data, format)), label);
+            }
+        }
+        // ODD WIDTHS EXERCISE THE SCALAR TAIL OF EVERY ROW, IN 4:2:0 AND GRAYSCALE
+        for (final byte[] data: new byte[][] {SyntheticJpeg.encode(333, 250, false, 0), SyntheticJpeg.encode(77, 31, true, 0)}) {
+            assertEquals(withSimd(false, () -> decode(data, PixelFormat.BGRA)), withSimd(true, () -> decode(data, PixelFormat.BGRA)));
+        }
+    }
+
+    @Test
+    @DisplayName("JPEG 8x8 IDCT matches the scalar transform, including int overflow and zero quantizers")
+    void testJpegIdctMatchesScalar() throws Exception {
+        final SimdKernels simd = kernels();
+        final Method scalar = JPEGReader.class.getDeclaredMethod("idct", int[].class, int.class, int[].class, int[].class,
+                byte[].class, int.class, int.class, SimdKernels.class);
+        scalar.setAccessible(true);
+        final Random random = new Random(0x1DC7L);
+        final int[] coef = new int[64 * 3];
+        final int[] quant = new int[64];
+        final int[] tmp = new int[64];
+        final int stride = 21;
+        for (int round = 0; round < 4000; round++) {
+            final int kind = round % 4;
+            for (int i = 0; i < 64; i++) {
+                quant[i] = kind == 3 ? random.nextInt(65536) : (kind == 2 && random.nextInt(8) == 0 ? 0 : 1 + random.nextInt(255));
+            }
+            final int block = 64 * random.nextInt(3);
+            for (int i = 0; i < 64; i++) {
+                // SPARSE, DENSE, FLAT-ROW AND FULL-RANGE BLOCKS; kind 3 OVERFLOWS THE int PRODUCTS ON PURPOSE
+                final boolean keep = switch (kind) {
+                    case 0 -> random.nextInt(6) == 0;
+                    case 1 -> true;
+                    case 2 -> (i & 7) == 0 || random.nextInt(16) == 0;
+                    default -> random.nextBoolean();
+                };
+                coef[block + i] = !keep ? 0 : kind == 3 ? random.nextInt() >> random.nextInt(16) : random.nextInt(2048) - 1024;
+            }
+            coef[block + 1] |= 1; // NEVER DC-ONLY: THAT SHORTCUT STAYS IN THE CALLER
+            final byte[] expected = new byte[stride * 8 + 5];
+            final byte[] actual = expected.clone();
+            scalar.invoke(null, coef, block, quant, tmp, expected, 5, stride, null);
+            simd.jpegIdct(coef, block, quant, tmp, actual, 5, stride);
+            assertArrayEquals(expected, actual, "round " + round);
+        }
+    }
+
+    @Test
+    @DisplayName("VP8 4x4 IDCT pairs match two scalar transforms added to the prediction")
+    void testVp8IdctMatchesScalar() throws Exception {
+        final SimdKernels simd = kernels();
+        final Method scalar = Class.forName("org.watermedia.api.codecs.readers.webp.lossy.VP8LossyDecoder")
+                .getDeclaredMethod("inverseDCT", short[].class, byte[].class, int.class, int.class, int[].class);
+        scalar.setAccessible(true);
+        final Random random = new Random(0x4B8L);
+        final short[] left = new short[16];
+        final short[] right = new short[16];
+        final short[] pair = new short[32];
+        final int stride = 13;
+        for (int round = 0; round < 4000; round++) {
+            final boolean wide = round % 2 == 0;
+            for (int i = 0; i < 16; i++) {
+                left[i] = round % 5 == 0 ? 0 : (short) (wide ? random.nextInt(65536) : random.nextInt(512) - 256);
+                right[i] = round % 7 == 0 ? 0 : (short) (wide ? random.nextInt(65536) : random.nextInt(512) - 256);
+            }
+            for (int r = 0; r < 4; r++) {
+                System.arraycopy(left, r * 4, pair, r * 8, 4);
+                System.arraycopy(right, r * 4, pair, r * 8 + 4, 4);
+            }
+            final byte[] expected = new byte[stride * 4 + 3];
+            random.nextBytes(expected);
+            final byte[] actual = expected.clone();
+            scalar.invoke(null, left, expected, 3, stride, new int[16]);
+            scalar.invoke(null, right, expected, 7, stride, new int[16]);
+            simd.vp8IdctAdd(pair, actual, 3, stride);
+            assertArrayEquals(expected, actual, "round " + round);
+        }
+    }
+
+    @Test
+    @DisplayName("YUV 4:2:0 to BGRA matches the scalar conversion at every row width")
+    void testYuvRowsMatchScalar() throws Exception {
+        kernels();
+        final Random random = new Random(0x7E7L);
+        for (int width = 1; width <= 70; width++) {
+            final int height = 1 + random.nextInt(5);
+            final int yStride = width + random.nextInt(9);
+            final int uvStride = (width + 1) / 2 + random.nextInt(5);
+            final byte[] y = new byte[yStride * height];
+            final byte[] u = new byte[uvStride * ((height + 1) / 2)];
+            final byte[] v = new byte[u.length];
+            random.nextBytes(y);
+            random.nextBytes(u);
+            random.nextBytes(v);
+            final int w = width;
+            assertArrayEquals(withSimd(false, () -> DataTool.yuvToBgra(y, u, v, w, height, yStride, uvStride)),
+                    withSimd(true, () -> DataTool.yuvToBgra(y, u, v, w, height, yStride, uvStride)), "width " + width);
+        }
+    }
+
+    private static SimdKernels kernels() {
+        assumeTrue(SimdKernels.available(), MODULE_HINT);
+        return withSimd(true, SimdKernels::get);
+    }
+
+    // EVERY FRAME OF THE FILE, CONCATENATED, SO ANIMATIONS COMPARE IN FULL
+    private static String decode(final byte[] data, final PixelFormat format) throws IOException {
+        try (final ImageReader reader = CodecsAPI.decodeImage(ByteBuffer.wrap(data), format)) {
+            final ByteArrayOutputStream frames = new ByteArrayOutputStream();
+            while (reader.hasNext()) {
+                final ByteBuffer frame = reader.next();
+                final byte[] bytes = new byte[frame.remaining()];
+                frame.get(bytes);
+                frames.write(bytes);
+            }
+            return reader.width() + "x" + reader.height() + " " + reader.pixelFormat() + " " + HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(frames.toByteArray()));
+        } catch (final IOException e) {
+            // A FIXTURE THE DECODER REJECTS MUST BE REJECTED THE SAME WAY ON BOTH PATHS
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T> T withSimd(final boolean enabled, final Callable<T> action) {
+        final boolean previous = WaterMediaConfig.decoders.simd;
+        WaterMediaConfig.decoders.simd = enabled;
+        try {
+            return action.call();
+        } catch (final Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            WaterMediaConfig.decoders.simd = previous;
+        }
+    }
+
+    private static List<Path> list(final Path dir, final String extension) throws IOException {
+        try (final Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(extension)).sorted().toList();
+        }
+    }
+}
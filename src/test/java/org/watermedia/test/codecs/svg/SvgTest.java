@@ -4,10 +4,12 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
+import org.watermedia.WaterMediaConfig;
 import org.watermedia.api.codecs.CodecsAPI;
 import org.watermedia.api.codecs.ImageData;
 import org.watermedia.api.codecs.ImageReader;
 import org.watermedia.api.codecs.UnsupportedFormatException;
+import org.watermedia.api.codecs.readers.svg.SVGReader;
 import org.watermedia.api.util.PixelFormat;
 import org.watermedia.test.support.Fixtures;
 
@@ -367,6 +369,76 @@ public class SvgTest {
         });
     }
 
+    @Test
+    @DisplayName("Banded large fills cover every row exactly once and render deterministically")
+    void bandedFillsAreSeamless() throws IOException {
+        // AT 2048 px EVERY FULL-CANVAS FILL SWEEPS IN PARALLEL BANDS: A DOUBLE-BLENDED OR SKIPPED ROW AT A
+        // BAND SEAM WOULD BREAK THE UNIFORM HALF-TRANSPARENT OVERLAY, AND BAND SCHEDULING MUST NOT LEAK
+        // AN INTRINSIC SIZE AT THE CAP: THE READER NEVER UPSCALES PAST IT WITHOUT A TARGET SIZE
+        final byte[] svg = rawSvg("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"2048\" height=\"2048\" viewBox=\"0 0 100 100\">"
+                + "<rect width=\"100\" height=\"100\" fill=\"#0000ff\"/>"
+                + "<rect width=\"100\" height=\"100\" fill=\"#ff0000\" fill-opacity=\"0.5\"/>"
+                + "<path d=\"M50,2 L98,98 L2,98 z M50,30 L70,80 L30,80 z\" fill=\"#00ff00\" fill-rule=\"evenodd\" opacity=\"0.5\"/>"
+                + "</svg>");
+        final int previous = WaterMediaConfig.decoders.svg.maxSize;
+        WaterMediaConfig.decoders.svg.maxSize = 2048;
+        try {
+            final ImageData img = CodecsAPI.decodeImage(svg);
+            assertEquals(2048, img.width());
+            final int[] corner = rgba(img, 0, 0);
+            for (int y = 0; y < img.height(); y++) {
+                assertEquals(Arrays.toString(corner), Arrays.toString(rgba(img, 0, y)), "left column row " + y);
+            }
+            for (int run = 0; run < 3; run++) {
+                assertEquals(img.frames()[0], CodecsAPI.decodeImage(svg).frames()[0], "run " + run + " differs");
+            }
+        } finally {
+            WaterMediaConfig.decoders.svg.maxSize = previous;
+        }
+    }
+
+    @Test
+    @DisplayName("Reopening a document at a drawn size reuses its raster")
+    void reopenedDocumentMatches() throws IOException {
+        final byte[] bytes = Fixtures.readAll(Fixtures.SVG_DIR.resolve("gradient.svg"));
+        final ByteBuffer first, second, resized;
+        try (final ImageReader reader = CodecsAPI.decodeImage(ByteBuffer.wrap(bytes))) {
+            first = reader.next();
+        }
+        try (final ImageReader reader = CodecsAPI.decodeImage(ByteBuffer.wrap(bytes))) {
+            second = reader.next();
+            assertEquals(0, second.position(), "a shared raster must still be handed out at position 0");
+        }
+        assertEquals(first, second, "the same document at the same size must render identically");
+
+        try (final ImageReader reader = new SVGReader(ByteBuffer.wrap(bytes), null, 100)) {
+            resized = reader.next();
+            assertEquals(100 * 100 * 4, resized.remaining(), "a new size rasterizes the cached document again");
+        }
+    }
+
+    @Test
+    @DisplayName("Mip chain halves down to 1x1 and keeps edges un-darkened")
+    void mipChainLevels() throws IOException {
+        // AN OPAQUE RED DISC ON A TRANSPARENT CANVAS: AVERAGING MUST NEVER PULL IN THE BLACK OF EMPTY PIXELS
+        final byte[] svg = svg("0 0 100 100", "<circle cx=\"50\" cy=\"50\" r=\"40\" fill=\"#ff0000\"/>");
+        try (final SVGReader reader = new SVGReader(ByteBuffer.wrap(svg), null, 100)) {
+            final ByteBuffer frame = reader.next();
+            final ByteBuffer[] levels = reader.mipChain();
+            assertEquals(7, levels.length, "100 -> 50 -> 25 -> 12 -> 6 -> 3 -> 1 chain");
+            assertEquals(frame, levels[0], "level 0 is the frame");
+            for (int i = 0; i < levels.length; i++) {
+                final int side = Math.max(1, 100 >> i);
+                assertEquals(side * side * 4, levels[i].remaining(), "level " + i + " size");
+                for (int p = 0; p < side * side; p++) {
+                    final int r = levels[i].get(p * 4 + 2) & 0xFF, a = levels[i].get(p * 4 + 3) & 0xFF;
+                    if (a > 0) assertTrue(r > 250, "level " + i + " pixel " + p + " darkened to r=" + r);
+                }
+            }
+            assertEquals(0, frame.position(), "building the chain must not move the frame");
+        }
+    }
+
     private static byte[] svg(final String viewBox, final String body) {
         return ("<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\" viewBox=\""
                 + viewBox + "\">" + body + "</svg>").getBytes(StandardCharsets.UTF_8);
@@ -3,9 +3,11 @@ package org.watermedia.test.codecs.webp;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.TestFactory;
+import org.watermedia.WaterMediaConfig;
 import org.watermedia.api.codecs.CodecsAPI;
 import org.watermedia.api.codecs.ImageData;
 import org.watermedia.api.codecs.ImageReader;
+import org.watermedia.api.codecs.XCodecException;
 import org.watermedia.api.util.PixelFormat;
 import org.watermedia.test.support.Fixtures;
 import org.watermedia.test.support.PamImage;
@@ -19,7 +21,10 @@ import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
@@ -172,6 +177,76 @@ public class WebpTest {
         return tests;
     }
 
+    @TestFactory
+    @DisplayName("Decode-ahead")
+    Iterable<DynamicTest> testDecodeAhead() {
+        final List<DynamicTest> tests = new ArrayList<>();
+        for (final Path imageFile: listWebp(Fixtures.WEBP_ANIMATED_DIR)) {
+            final String name = imageFile.getFileName().toString();
+            tests.add(dynamicTest("DECODE-AHEAD [" + name + "]", () -> {
+                final byte[] webp = Fixtures.readAll(imageFile);
+                final List<String> serial = withDecodeAhead(0, () -> decodeAll(webp, -1));
+                assertEquals(serial, withDecodeAhead(4, () -> decodeAll(webp, -1)), "Decode-ahead changed frames of " + name);
+                // reset() WITH FRAMES STILL QUEUED MUST REPLAY FROM THE FIRST FRAME
+                assertEquals(serial, withDecodeAhead(4, () -> decodeAll(webp, 2)), "Replay after reset differs for " + name);
+
+                // TRUNCATED DATA ENDS AT THE SAME FRAME WITH THE SAME ERROR EITHER WAY
+                final byte[] truncated = Arrays.copyOf(webp, webp.length - webp.length / 3);
+                assertEquals(withDecodeAhead(0, () -> decodeAll(truncated, -1)), withDecodeAhead(4, () -> decodeAll(truncated, -1)),
+                        "Decode-ahead changed truncated decoding of " + name);
+            }));
+        }
+        return tests;
+    }
+
+    @TestFactory
+    @DisplayName("Lossy wavefront determinism")
+    Iterable<DynamicTest> testLossyWavefront() {
+        final List<DynamicTest> tests = new ArrayList<>();
+        // BOTH ARE ABOVE THE PARALLEL THRESHOLD; ROW SCHEDULING DIFFERS RUN TO RUN, THE PIXELS MUST NOT
+        for (final String name: List.of("3.webp", "7.webp")) {
+            tests.add(dynamicTest("LOSSY wavefront [" + name + "]", () -> {
+                final byte[] webp = Fixtures.readAll(Fixtures.WEBP_LOSSY_DIR.resolve(name));
+                final List<String> first = decodeAll(webp, -1);
+                for (int i = 0; i < 4; i++) assertEquals(first, decodeAll(webp, -1), "Decode " + i + " of " + name + " differs");
+
+                // ZEROED TOKEN DATA (THE RIFF LAYER STAYS VALID) MUST DECODE OR FAIL THE SAME WAY EVERY TIME
+                final byte[] corrupt = webp.clone();
+                Arrays.fill(corrupt, webp.length - webp.length / 3, webp.length, (byte) 0);
+                final List<String> damaged = decodeAll(corrupt, -1);
+                for (int i = 0; i < 4; i++) assertEquals(damaged, decodeAll(corrupt, -1), "Corrupt decode " + i + " of " + name + " differs");
+            }));
+        }
+        return tests;
+    }
+
+    // FRAME HASHES FOLLOWED BY THE ERROR, IF ANY; resetAfter >= 0 DECODES THAT MANY FRAMES, RESETS AND STARTS OVER
+    private static List<String> decodeAll(final byte[] webp, final int resetAfter) throws IOException, NoSuchAlgorithmException {
+        final List<String> frames = new ArrayList<>();
+        try (final ImageReader reader = CodecsAPI.decodeImage(ByteBuffer.wrap(webp), PixelFormat.BGRA)) {
+            for (int i = 0; i < resetAfter && reader.hasNext(); i++) reader.next();
+            if (resetAfter >= 0) assertTrue(reader.reset());
+            final MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            while (reader.hasNext()) {
+                sha.update(reader.next().duplicate());
+                frames.add(HexFormat.of().formatHex(sha.digest()));
+            }
+        } catch (final XCodecException e) {
+            frames.add(e.getMessage());
+        }
+        return frames;
+    }
+
+    private static <T> T withDecodeAhead(final int frames, final Callable<T> action) throws Exception {
+        final int previous = WaterMediaConfig.decoders.webp.decodeAhead;
+        WaterMediaConfig.decoders.webp.decodeAhead = frames;
+        try {
+            return action.call();
+        } finally {
+            WaterMediaConfig.decoders.webp.decodeAhead = previous;
+        }
+    }
+
     // HASH FRAMES INSTEAD OF COPYING THEM — LARGE FIXTURES TIMES THREE DECODE PASSES WOULD BLOW
     // THE 512MB DIRECT-MEMORY BUDGET OF THE TEST JVM, AND SHA-256 EQUALITY IS BYTE-IDENTITY
     private static List<byte[]> decodeFrameHashes(final ImageReader reader) throws IOException, NoSuchAlgorithmException {
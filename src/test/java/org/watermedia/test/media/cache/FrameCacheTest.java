@@ -0,0 +1,239 @@
+package org.watermedia.test.media.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.watermedia.WaterMediaConfig;
+import org.watermedia.api.codecs.ImageData;
+import org.watermedia.api.media.players.util.FrameCache;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sharing, ref-counting and budget tests for the decoded-frame RAM tier ({@link FrameCache}).
+ * Loaders are synthetic so every scenario counts decodes exactly.
+ */
+@DisplayName("FrameCache decoded-frame tier")
+public class FrameCacheTest {
+    private static final String ACCEPT = "image/*,*/*";
+    private static final String VARIANT = "BGRA";
+    private static final int FRAME_BYTES = 256 * 1024;
+
+    private int previousBudget;
+
+    @BeforeEach
+    void setUp() {
+        this.previousBudget = WaterMediaConfig.media.tx.framesBudget;
+        WaterMediaConfig.media.tx.framesBudget = 1;
+        FrameCache.trim();
+    }
+
+    @AfterEach
+    void tearDown() {
+        WaterMediaConfig.media.tx.framesBudget = this.previousBudget;
+        FrameCache.trim();
+    }
+
+    @Test
+    @DisplayName("Shares one decode between concurrent callers")
+    void testSharesOneDecodeBetweenConcurrentCallers() throws Exception {
+        final URI uri = URI.create("http://example.invalid/shared.gif");
+        final AtomicInteger decodes = new AtomicInteger();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch proceed = new CountDownLatch(1);
+        final FrameCache.Loader slow = () -> {
+            decodes.incrementAndGet();
+            entered.countDown();
+            try {
+                proceed.await(10, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return frames(2, (byte) 7);
+        };
+
+        final ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            final Future<FrameCache.Lease> leader = pool.submit(() -> acquire(uri, slow));
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+            final Future<FrameCache.Lease> rider1 = pool.submit(() -> acquire(uri, slow));
+            final Future<FrameCache.Lease> rider2 = pool.submit(() -> acquire(uri, slow));
+            proceed.countDown();
+
+            try (final FrameCache.Lease a = leader.get(10, TimeUnit.SECONDS);
+                 final FrameCache.Lease b = rider1.get(10, TimeUnit.SECONDS);
+                 final FrameCache.Lease c = rider2.get(10, TimeUnit.SECONDS)) {
+                assertEquals(1, decodes.get());
+                assertTrue(a.shared());
+                // ONE SET OF PIXELS, BUT EVERY LEASE MOVES ITS OWN CURSOR
+                final ByteBuffer fa = a.data().frames()[0];
+                final ByteBuffer fb = b.data().frames()[0];
+                assertNotSame(fa, fb);
+                fa.position(fa.limit());
+                assertEquals(0, fb.position());
+                assertEquals(7, c.data().frames()[1].get(0));
+                assertEquals(2L * FRAME_BYTES, FrameCache.residentBytes());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Reuses a released set until budget pressure evicts it")
+    void testReusesReleasedSetUntilEvicted() throws Exception {
+        final AtomicInteger decodes = new AtomicInteger();
+        final FrameCache.Loader loader = () -> {
+            decodes.incrementAndGet();
+            return frames(2, (byte) 1);
+        };
+        final URI first = URI.create("http://example.invalid/first.gif");
+        final URI second = URI.create("http://example.invalid/second.gif");
+        final URI third = URI.create("http://example.invalid/third.gif");
+
+        acquire(first, loader).close();
+        acquire(first, loader).close();
+        assertEquals(1, decodes.get());
+
+        // 512 KB SETS AGAINST A 1 MB BUDGET: THE THIRD SET EVICTS THE LEAST RECENTLY USED ONE
+        acquire(second, loader).close();
+        acquire(first, loader).close();
+        acquire(third, loader).close();
+        assertEquals(3, decodes.get());
+        assertEquals(2L * 2 * FRAME_BYTES, FrameCache.residentBytes());
+        acquire(first, loader).close();
+        assertEquals(3, decodes.get());
+        acquire(second, loader).close();
+        assertEquals(4, decodes.get());
+    }
+
+    @Test
+    @DisplayName("Never evicts a set with an open lease")
+    void testNeverEvictsLeasedSet() throws Exception {
+        final AtomicInteger decodes = new AtomicInteger();
+        final FrameCache.Loader loader = () -> {
+            decodes.incrementAndGet();
+            return frames(2, (byte) 3);
+        };
+        final URI pinned = URI.create("http://example.invalid/pinned.gif");
+
+        try (final FrameCache.Lease lease = acquire(pinned, loader)) {
+            acquire(URI.create("http://example.invalid/a.gif"), loader).close();
+            acquire(URI.create("http://example.invalid/b.gif"), loader).close();
+            assertEquals(3, lease.data().frames()[0].get(FRAME_BYTES - 1));
+            acquire(pinned, loader).close();
+            assertEquals(3, decodes.get());
+        }
+        FrameCache.trim();
+        assertEquals(0L, FrameCache.residentBytes());
+    }
+
+    @Test
+    @DisplayName("Does not share when the budget is zero or the body already expired")
+    void testBypassesWhenDisabledOrExpired() throws Exception {
+        final AtomicInteger decodes = new AtomicInteger();
+        final FrameCache.Loader loader = () -> {
+            decodes.incrementAndGet();
+            return frames(1, (byte) 0);
+        };
+        final URI uri = URI.create("http://example.invalid/bypass.png");
+
+        try (final FrameCache.Lease lease = FrameCache.acquire(uri, null, ACCEPT, VARIANT, 0L, loader)) {
+            assertFalse(lease.shared());
+        }
+        WaterMediaConfig.media.tx.framesBudget = 0;
+        acquire(uri, loader).close();
+        acquire(uri, loader).close();
+        assertEquals(3, decodes.get());
+        assertEquals(0L, FrameCache.residentBytes());
+    }
+
+    @Test
+    @DisplayName("Lets a waiter decode on its own after the leader fails")
+    void testFailedLeaderDoesNotPoisonKey() throws Exception {
+        final URI uri = URI.create("http://example.invalid/broken.gif");
+        assertThrows(IOException.class, () -> acquire(uri, () -> {
+            throw new IOException("corrupt");
+        }));
+        try (final FrameCache.Lease lease = acquire(uri, () -> frames(1, (byte) 9))) {
+            assertEquals(9, lease.data().frames()[0].get(0));
+        }
+    }
+
+    @Test
+    @DisplayName("Releases waiters when the leader's decode throws an Error")
+    void testLeaderErrorReleasesWaiters() throws Exception {
+        final URI uri = URI.create("http://example.invalid/deep.gif");
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch proceed = new CountDownLatch(1);
+        final FrameCache.Loader overflowing = () -> {
+            entered.countDown();
+            try {
+                proceed.await(10, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new StackOverflowError("hostile nesting");
+        };
+
+        final ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            final Future<FrameCache.Lease> leader = pool.submit(() -> acquire(uri, overflowing));
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+            final AtomicReference<Thread> waiter = new AtomicReference<>();
+            final Future<FrameCache.Lease> rider = pool.submit(() -> {
+                waiter.set(Thread.currentThread());
+                return acquire(uri, () -> frames(1, (byte) 5));
+            });
+            // LET THE RIDER PARK ON THE LEADER'S SLOT BEFORE THE LEADER BLOWS UP
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while ((waiter.get() == null || waiter.get().getState() != Thread.State.WAITING) && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            proceed.countDown();
+
+            final ExecutionException failure = assertThrows(ExecutionException.class, () -> leader.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(StackOverflowError.class, failure.getCause());
+            // THE WAITER IS WOKEN AND DECODES ON ITS OWN INSTEAD OF BLOCKING ON THE DEAD SLOT
+            try (final FrameCache.Lease lease = rider.get(10, TimeUnit.SECONDS)) {
+                assertEquals(5, lease.data().frames()[0].get(0));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static FrameCache.Lease acquire(final URI uri, final FrameCache.Loader loader) throws IOException {
+        return FrameCache.acquire(uri, null, ACCEPT, VARIANT, Long.MAX_VALUE, loader);
+    }
+
+    private static ImageData frames(final int count, final byte fill) {
+        final ByteBuffer[] frames = new ByteBuffer[count];
+        final long[] delays = new long[count];
+        for (int i = 0; i < count; i++) {
+            final ByteBuffer frame = ByteBuffer.allocateDirect(FRAME_BYTES);
+            while (frame.hasRemaining()) frame.put(fill);
+            frames[i] = frame.flip();
+            delays[i] = 40L;
+        }
+        return new ImageData(frames, 256, 256, delays, ImageData.REPEAT_FOREVER);
+    }
+}
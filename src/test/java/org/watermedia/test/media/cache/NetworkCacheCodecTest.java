@@ -4,20 +4,24 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.watermedia.WaterMediaConfig;
+import org.watermedia.api.codecs.readers.BCReader;
 import org.watermedia.api.media.players.util.NetworkCache;
 import org.watermedia.api.util.PixelFormat;
 
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
- * Codec-tier behaviour of {@link NetworkCache}. Without a native BC codec the cache must resolve to
- * {@link NetworkCache.Mode#DISK} and keep every codec entry point inert — even when the codec cache
- * is enabled in config — so the disk path is never disturbed.
+ * Codec-tier behaviour of {@link NetworkCache}. With the codec cache disabled (the default) the cache
+ * must resolve to {@link NetworkCache.Mode#DISK} and keep every codec entry point inert, so the disk
+ * path is never disturbed; enabled, the pure-Java BC encoder makes the codec tier work end to end.
  */
 @DisplayName("NetworkCache codec mode")
 public class NetworkCacheCodecTest {
@@ -44,16 +48,32 @@ public class NetworkCacheCodecTest {
     }
 
     @Test
-    @DisplayName("Stays in disk mode when codec cache is enabled but no BC codec exists")
-    void testStaysDiskWithoutBc() throws Exception {
+    @DisplayName("Engages codec mode when enabled and replays committed textures")
+    void testCodecRoundTrip() throws Exception {
         final boolean previous = WaterMediaConfig.media.tx.codecCache;
         WaterMediaConfig.media.tx.codecCache = true;
         try {
             NetworkCache.start(this.tempDir.resolve("cache-enabled"));
             try {
-                // CONFIG ASKS FOR CODEC MODE, BUT NO NATIVE BC CODEC IS PRESENT -> DISK.
-                assertEquals(NetworkCache.Mode.DISK, NetworkCache.mode());
-                assertFalse(NetworkCache.codecEnabled());
+                // NO NATIVE LIBRARY: THE PURE-JAVA BC3/BC1 ENCODER IS ENOUGH FOR CODEC MODE.
+                assertEquals(NetworkCache.Mode.CODEC, NetworkCache.mode());
+                assertTrue(NetworkCache.codecEnabled());
+
+                final URI uri = URI.create("http://example.test/anim.gif");
+                final ByteBuffer frame = ByteBuffer.allocateDirect(32 * 32 * 4);
+                try (final NetworkCache.CodecWriter writer = NetworkCache.openCodecWriter(uri, null, ACCEPT, 32, 32, PixelFormat.BGRA)) {
+                    assertNotNull(writer);
+                    writer.write(frame, 50L);
+                    writer.write(frame, 50L);
+                    writer.commit();
+                }
+                assertTrue(NetworkCache.codecReadable(uri, null, ACCEPT));
+                try (final BCReader reader = NetworkCache.openCodecReader(uri, null, ACCEPT)) {
+                    assertNotNull(reader);
+                    assertEquals(2, reader.frameCount());
+                    assertEquals(32, reader.width());
+                    assertEquals(100L, reader.duration());
+                }
             } finally {
                 NetworkCache.release();
             }
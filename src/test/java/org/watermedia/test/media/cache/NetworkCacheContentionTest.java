@@ -0,0 +1,162 @@
+package org.watermedia.test.media.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.watermedia.api.media.players.util.NetworkCache;
+import org.watermedia.test.support.LocalHttp;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Diagnostic contention benchmark for the {@link NetworkCache} index.
+ *
+ * <p>Observational like the decoder benchmarks: 32 threads hammer a warm store, first with hits
+ * only, then with a quarter of them turned into writers that miss, download, journal and evict.
+ * Hit latency percentiles of both phases are printed and appended to
+ * {@code build/reports/cache-contention.tsv}; with lock-free lookups the mixed phase should stay
+ * in the same range as the hit-only baseline instead of queueing behind the writers. Only
+ * correctness (every reader lookup is a hit) is asserted.
+ */
+@DisplayName("NetworkCache contention benchmark")
+public class NetworkCacheContentionTest {
+    private static final String ACCEPT = "image/*,*/*";
+    private static final int THREADS = 32;
+    private static final int WRITERS = 8;
+    private static final int HOT_KEYS = 256;
+    private static final int LOOKUPS_PER_READER = 20_000;
+    private static final int BODY_BYTES = 1024;
+    private static final Path REPORT_PATH = Path.of("build", "reports", "cache-contention.tsv");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Measure hit latency with and without concurrent writers")
+    void measureHitLatencyUnderWriterContention() throws Exception {
+        final byte[] body = new byte[BODY_BYTES];
+        try (final LocalHttp server = LocalHttp.start("/", exchange ->
+                LocalHttp.respond(exchange, "image/png", body, 3600))) {
+            NetworkCache.start(this.tempDir.resolve("cache-contention"));
+            try {
+                final URI[] hot = new URI[HOT_KEYS];
+                for (int i = 0; i < HOT_KEYS; i++) {
+                    hot[i] = server.uri("/hot/" + i + ".png");
+                    NetworkCache.readFile(hot[i], null, ACCEPT, BODY_BYTES, true);
+                }
+
+                // WARMUP PASS SO BOTH MEASURED PHASES RUN JIT-COMPILED CODE
+                runPhase(server, hot, 0);
+                final Phase idle = runPhase(server, hot, 0);
+                final Phase mixed = runPhase(server, hot, WRITERS);
+
+                final List<String> lines = new ArrayList<>();
+                lines.add("phase\treaders\twriters\thits\tmisses\thit_p50_ns\thit_p99_ns\thit_p999_ns");
+                lines.add(idle.toTsv("hits_only"));
+                lines.add(mixed.toTsv("mixed"));
+                Files.createDirectories(REPORT_PATH.getParent());
+                Files.write(REPORT_PATH, lines);
+                System.out.println(idle.toHumanLine("hits only"));
+                System.out.println(mixed.toHumanLine("mixed"));
+                System.out.printf("cache contention: mixed/idle hit p99 ratio = %.2f%n", (double) mixed.p99 / Math.max(1L, idle.p99));
+
+                assertTrue(mixed.misses > 0, "Writers should have completed at least one miss");
+            } finally {
+                NetworkCache.release();
+            }
+        }
+    }
+
+    private static Phase runPhase(final LocalHttp server, final URI[] hot, final int writers) throws Exception {
+        final int readers = THREADS - writers;
+        final long[][] latencies = new long[readers][LOOKUPS_PER_READER];
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicInteger misses = new AtomicInteger();
+        final AtomicInteger cold = new AtomicInteger();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch readersDone = new CountDownLatch(readers);
+        final List<Thread> threads = new ArrayList<>(THREADS);
+
+        for (int w = 0; w < writers; w++) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    while (running.get()) {
+                        // EVERY WRITER LOOKUP IS A UNIQUE KEY: MISS, DOWNLOAD, PUBLISH, JOURNAL, BUDGET CHECK
+                        NetworkCache.readFile(server.uri("/cold/" + cold.incrementAndGet() + ".png"), null, ACCEPT, BODY_BYTES, true);
+                        misses.incrementAndGet();
+                    }
+                } catch (final Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }, "cache-writer-" + w));
+        }
+        for (int r = 0; r < readers; r++) {
+            final long[] samples = latencies[r];
+            final int seed = r;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < samples.length; i++) {
+                        final URI uri = hot[(seed * 31 + i) % hot.length];
+                        final long begin = System.nanoTime();
+                        final NetworkCache.CachedFile file = NetworkCache.readFile(uri, null, ACCEPT, BODY_BYTES, true);
+                        samples[i] = System.nanoTime() - begin;
+                        if (file == null || !file.cached()) throw new IOException("Hot key missed: " + uri);
+                    }
+                } catch (final Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    readersDone.countDown();
+                }
+            }, "cache-reader-" + r));
+        }
+
+        for (final Thread thread: threads) thread.start();
+        start.countDown();
+        readersDone.await();
+        running.set(false);
+        for (final Thread thread: threads) thread.join();
+        assertNull(failure.get(), () -> "Benchmark thread failed: " + failure.get());
+
+        final long[] all = new long[readers * LOOKUPS_PER_READER];
+        for (int r = 0; r < readers; r++) {
+            System.arraycopy(latencies[r], 0, all, r * LOOKUPS_PER_READER, LOOKUPS_PER_READER);
+        }
+        Arrays.sort(all);
+        assertEquals(readers * LOOKUPS_PER_READER, all.length);
+        return new Phase(readers, writers, all.length, misses.get(),
+                percentile(all, 0.50), percentile(all, 0.99), percentile(all, 0.999));
+    }
+
+    private static long percentile(final long[] sorted, final double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))];
+    }
+
+    private record Phase(int readers, int writers, int hits, int misses, long p50, long p99, long p999) {
+        String toTsv(final String name) {
+            return name + "\t" + this.readers + "\t" + this.writers + "\t" + this.hits + "\t" + this.misses
+                    + "\t" + this.p50 + "\t" + this.p99 + "\t" + this.p999;
+        }
+
+        String toHumanLine(final String name) {
+            return String.format("cache contention [%s]: readers=%d writers=%d hits=%d misses=%d hit p50=%dns p99=%dns p99.9=%dns",
+                    name, this.readers, this.writers, this.hits, this.misses, this.p50, this.p99, this.p999);
+        }
+    }
+}
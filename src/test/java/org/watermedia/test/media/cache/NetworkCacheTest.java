@@ -3,20 +3,25 @@ package org.watermedia.test.media.cache;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.watermedia.WaterMediaConfig;
 import org.watermedia.api.media.players.util.NetworkCache;
 import org.watermedia.api.util.RequestHeaders;
 import org.watermedia.test.support.LocalHttp;
 
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -174,4 +179,231 @@ public class NetworkCacheTest {
             }
         }
     }
+
+    @Test
+    @DisplayName("Maps cached bodies read-only on hits")
+    void testMapsCachedBodiesReadOnlyOnHits() throws Exception {
+        final byte[] body = new byte[] { 9, 8, 7, 6, 5, 4 };
+        this.hits = 0;
+        try (final LocalHttp server = LocalHttp.start("/mapped.gif", exchange -> {
+            this.hits++;
+            LocalHttp.respond(exchange, "image/gif", body, 3600);
+        })) {
+            NetworkCache.start(this.tempDir.resolve("cache-mapped"));
+            try {
+                final URI uri = server.uri("/mapped.gif");
+                try (final NetworkCache.MappedBytes first = NetworkCache.map(uri, null, ACCEPT_IMAGE, READ_LIMIT, true);
+                     final NetworkCache.MappedBytes second = NetworkCache.map(uri, null, ACCEPT_IMAGE, READ_LIMIT, true)) {
+                    // A MISS MAPS THE FILE THE DOWNLOAD WAS STREAMED INTO, NOT A HEAP COPY
+                    assertFalse(first.cached());
+                    assertTrue(first.mapped());
+                    assertTrue(second.cached());
+                    assertTrue(second.mapped());
+                    assertTrue(second.buffer().isReadOnly());
+                    assertArrayEquals(body, drain(first.buffer()));
+                    assertArrayEquals(body, drain(second.buffer()));
+                    assertEquals("image/gif", second.contentType());
+                    assertEquals(1, this.hits);
+                }
+            } finally {
+                NetworkCache.release();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Keeps mapped entries resident through budget eviction")
+    void testKeepsMappedEntriesThroughBudgetEviction() throws Exception {
+        // THREE 700 KB BODIES AGAINST A 1 MB BUDGET: EVERY WRITE AFTER THE FIRST OVERFLOWS THE STORE
+        final int size = 700 * 1024;
+        final int previous = WaterMediaConfig.media.cacheMaxSize;
+        WaterMediaConfig.media.cacheMaxSize = 1;
+        try (final LocalHttp server = LocalHttp.start("/", exchange -> {
+            final byte[] body = new byte[size];
+            Arrays.fill(body, (byte) exchange.getRequestURI().getPath().charAt(1));
+            LocalHttp.respond(exchange, "image/png", body, 3600);
+        })) {
+            final Path cache = this.tempDir.resolve("cache-pinned");
+            NetworkCache.start(cache);
+            try {
+                final URI pinned = server.uri("/a.png");
+                NetworkCache.read(pinned, null, ACCEPT_IMAGE, size, true);
+                final NetworkCache.MappedBytes lease = NetworkCache.map(pinned, null, ACCEPT_IMAGE, size, true);
+                assertTrue(lease.mapped());
+
+                // THE SECOND WRITE OVERFLOWS THE BUDGET, BUT THE ONLY EVICTION CANDIDATE IS LEASED
+                NetworkCache.read(server.uri("/b.png"), null, ACCEPT_IMAGE, size, true);
+                assertEquals(2L, countPayloads(cache));
+                final ByteBuffer view = lease.buffer();
+                assertEquals(size, view.remaining());
+                assertEquals((byte) 'a', view.get(size - 1));
+
+                // ONCE UNPINNED, THE NEXT OVERFLOW EVICTS THE OLDEST ENTRIES AGAIN
+                lease.close();
+                NetworkCache.read(server.uri("/c.png"), null, ACCEPT_IMAGE, size, true);
+                assertEquals(1L, countPayloads(cache));
+                assertTrue(NetworkCache.read(server.uri("/c.png"), null, ACCEPT_IMAGE, size, true).cached());
+            } finally {
+                NetworkCache.release();
+            }
+        } finally {
+            WaterMediaConfig.media.cacheMaxSize = previous;
+        }
+    }
+
+    @Test
+    @DisplayName("Evicts the least recently used entry under budget pressure")
+    void testEvictsLeastRecentlyUsedEntryUnderBudget() throws Exception {
+        // THREE 400 KB BODIES AGAINST A 1 MB BUDGET: THE THIRD WRITE MUST EVICT EXACTLY ONE ENTRY
+        final int size = 400 * 1024;
+        final int previous = WaterMediaConfig.media.cacheMaxSize;
+        WaterMediaConfig.media.cacheMaxSize = 1;
+        this.hits = 0;
+        try (final LocalHttp server = LocalHttp.start("/", exchange -> {
+            this.hits++;
+            LocalHttp.respond(exchange, "image/png", new byte[size], 3600);
+        })) {
+            final Path cache = this.tempDir.resolve("cache-lru");
+            NetworkCache.start(cache);
+            try {
+                final URI hot = server.uri("/hot.png");
+                final URI cold = server.uri("/cold.png");
+                NetworkCache.read(hot, null, ACCEPT_IMAGE, size, true);
+                NetworkCache.read(cold, null, ACCEPT_IMAGE, size, true);
+                // TOUCH THE OLDER ENTRY: RECENCY, NOT WRITE ORDER, DECIDES THE VICTIM
+                assertTrue(NetworkCache.read(hot, null, ACCEPT_IMAGE, size, true).cached());
+
+                NetworkCache.read(server.uri("/new.png"), null, ACCEPT_IMAGE, size, true);
+                assertEquals(2L, countPayloads(cache));
+                assertTrue(NetworkCache.read(hot, null, ACCEPT_IMAGE, size, true).cached());
+                assertEquals(3, this.hits);
+                assertFalse(NetworkCache.read(cold, null, ACCEPT_IMAGE, size, true).cached());
+            } finally {
+                NetworkCache.release();
+            }
+        } finally {
+            WaterMediaConfig.media.cacheMaxSize = previous;
+        }
+    }
+
+    @Test
+    @DisplayName("Keeps the recency order of a released store across restarts")
+    void testKeepsRecencyAcrossRestarts() throws Exception {
+        final int size = 400 * 1024;
+        final int previous = WaterMediaConfig.media.cacheMaxSize;
+        WaterMediaConfig.media.cacheMaxSize = 1;
+        this.hits = 0;
+        try (final LocalHttp server = LocalHttp.start("/", exchange -> {
+            this.hits++;
+            LocalHttp.respond(exchange, "image/png", new byte[size], 3600);
+        })) {
+            final Path cache = this.tempDir.resolve("cache-recency");
+            final URI hot = server.uri("/hot.png");
+            final URI cold = server.uri("/cold.png");
+            NetworkCache.start(cache);
+            try {
+                NetworkCache.read(hot, null, ACCEPT_IMAGE, size, true);
+                NetworkCache.read(cold, null, ACCEPT_IMAGE, size, true);
+                // ONLY THE ACCESS MAKES hot THE MORE RECENT ENTRY; THE JOURNAL RECORDS IT AS THE OLDER WRITE
+                assertTrue(NetworkCache.read(hot, null, ACCEPT_IMAGE, size, true).cached());
+            } finally {
+                NetworkCache.release();
+            }
+
+            NetworkCache.start(cache);
+            try {
+                NetworkCache.read(server.uri("/new.png"), null, ACCEPT_IMAGE, size, true);
+                assertTrue(NetworkCache.read(hot, null, ACCEPT_IMAGE, size, true).cached());
+                assertEquals(3, this.hits);
+                assertFalse(NetworkCache.read(cold, null, ACCEPT_IMAGE, size, true).cached());
+            } finally {
+                NetworkCache.release();
+            }
+        } finally {
+            WaterMediaConfig.media.cacheMaxSize = previous;
+        }
+    }
+
+    @Test
+    @DisplayName("Recovers journaled index entries past a torn tail record")
+    void testRecoversJournaledEntriesPastTornTail() throws Exception {
+        final byte[] body = new byte[] { 3, 1, 4, 1, 5 };
+        this.hits = 0;
+        try (final LocalHttp server = LocalHttp.start("/", exchange -> {
+            this.hits++;
+            LocalHttp.respond(exchange, "image/png", body, 3600);
+        })) {
+            final Path cache = this.tempDir.resolve("cache-journal");
+            final Path snapshot = cache.resolve("index.dat");
+            NetworkCache.start(cache);
+            final byte[] compacted = Files.readAllBytes(snapshot);
+            NetworkCache.read(server.uri("/first.png"), null, ACCEPT_IMAGE, READ_LIMIT);
+            NetworkCache.read(server.uri("/second.png"), null, ACCEPT_IMAGE, READ_LIMIT);
+            // MUTATIONS ARE APPENDED TO THE JOURNAL; THE SNAPSHOT IS NOT REWRITTEN PER ENTRY
+            assertArrayEquals(compacted, Files.readAllBytes(snapshot));
+
+            // SIMULATE A CRASH MID-APPEND: NO release() (IT WOULD SNAPSHOT) AND A LENGTH PREFIX WHOSE PAYLOAD
+            // NEVER LANDED
+            Files.write(cache.resolve("index.jnl"), new byte[] { 0, 0, 0, 60, 1, 0, 7 }, StandardOpenOption.APPEND);
+
+            NetworkCache.start(cache);
+            try {
+                assertTrue(NetworkCache.read(server.uri("/first.png"), null, ACCEPT_IMAGE, READ_LIMIT).cached());
+                assertTrue(NetworkCache.read(server.uri("/second.png"), null, ACCEPT_IMAGE, READ_LIMIT).cached());
+                assertEquals(2, this.hits);
+            } finally {
+                NetworkCache.release();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Keeps a keyframe index next to its cached body across restarts")
+    void testKeepsKeyframeIndexNextToCachedBody() throws Exception {
+        final byte[] body = new byte[] { 9, 8, 7, 6 };
+        final byte[] keyframes = new byte[] { 'W', 'M', 'K', 'I', 1, 2, 3 };
+        try (final LocalHttp server = LocalHttp.start("/", exchange ->
+                LocalHttp.respond(exchange, "video/mp4", body, 3600))) {
+            final Path cache = this.tempDir.resolve("cache-keyframes");
+            final URI uri = server.uri("/indexed.mp4");
+            NetworkCache.start(cache);
+            try {
+                // NO CACHED BODY, NOTHING TO DESCRIBE
+                assertFalse(NetworkCache.writeKeyframeIndex(uri, null, ACCEPT_VIDEO, keyframes));
+                assertNull(NetworkCache.readKeyframeIndex(uri, null, ACCEPT_VIDEO));
+
+                assertNotNull(NetworkCache.readFile(uri, null, ACCEPT_VIDEO, READ_LIMIT, true));
+                assertNull(NetworkCache.readKeyframeIndex(uri, null, ACCEPT_VIDEO));
+                assertTrue(NetworkCache.writeKeyframeIndex(uri, null, ACCEPT_VIDEO, keyframes));
+                assertArrayEquals(keyframes, NetworkCache.readKeyframeIndex(uri, null, ACCEPT_VIDEO));
+                assertEquals(2, countPayloads(cache));
+                // FILED UNDER THE BODY'S FULL KEY, ACCEPT HEADER INCLUDED
+                assertNull(NetworkCache.readKeyframeIndex(uri, null, ACCEPT_IMAGE));
+            } finally {
+                NetworkCache.release();
+            }
+
+            NetworkCache.start(cache);
+            try {
+                assertArrayEquals(keyframes, NetworkCache.readKeyframeIndex(uri, null, ACCEPT_VIDEO));
+            } finally {
+                NetworkCache.release();
+            }
+        }
+    }
+
+    private static byte[] drain(final ByteBuffer buffer) {
+        final byte[] out = new byte[buffer.remaining()];
+        buffer.get(out);
+        return out;
+    }
+
+    private static long countPayloads(final Path cache) throws Exception {
+        try (final var stream = Files.list(cache)) {
+            return stream.filter(path -> {
+                final String name = path.getFileName().toString();
+                return name.startsWith("wm_") && name.endsWith(".tmp");
+            }).count();
+        }
+    }
 }
@@ -0,0 +1,146 @@
+package org.watermedia.test.media.ff;
+
+import com.sun.management.OperatingSystemMXBean;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.watermedia.WaterMediaConfig;
+import org.watermedia.api.media.MRL;
+import org.watermedia.api.media.MediaAPI;
+import org.watermedia.api.media.engines.HeadlessGFXEngine;
+import org.watermedia.api.media.players.FFMediaPlayer;
+import org.watermedia.api.media.players.MediaPlayer.Status;
+import org.watermedia.test.support.Fixtures;
+import org.watermedia.test.support.MediaBootstrap;
+import org.watermedia.test.support.PlayerWait;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+/**
+ * Diagnostic benchmark of many concurrent {@link FFMediaPlayer}s, decoding on their own threads versus
+ * the shared decode pool ({@code media.ffmpeg.sharedDecodePool}).
+ *
+ * <p>Observational like the decoder benchmarks. Each case opens N looping, video-only players on the
+ * H.264 fixture, lets them settle, then samples process CPU time, the live and peak JVM thread count
+ * and the frames all engines received over a fixed window. Results go to
+ * {@code build/reports/ffmpeg-scale.tsv}; nothing is asserted beyond the players starting.
+ */
+@DisplayName("FFMediaPlayer scaling benchmarks")
+public class FFMediaPlayerScaleTest {
+    private static final int[] PLAYER_COUNTS = {1, 4, 16};
+    private static final long MRL_TIMEOUT_MS = 3000L;
+    private static final long LOAD_TIMEOUT_MS = 15000L;
+    private static final long SETTLE_MS = 2000L;
+    private static final long MEASURE_MS = 5000L;
+    private static final Path REPORT_PATH = Path.of("build", "reports", "ffmpeg-scale.tsv");
+    private static final List<String> REPORT_LINES = new ArrayList<>();
+    private static final OperatingSystemMXBean OS = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    @BeforeAll
+    static void boot() {
+        assumeTrue(MediaBootstrap.ffmpegAvailable(), "FFmpeg natives unavailable — skipping scaling benchmarks");
+    }
+
+    @TestFactory
+    @DisplayName("Measure per-player threads vs the shared decode pool")
+    Iterable<DynamicTest> measureScaling() {
+        final List<DynamicTest> tests = new ArrayList<>();
+        for (final int players: PLAYER_COUNTS) {
+            tests.add(dynamicTest(players + " players [threads]", () -> this.report("threads", players, false)));
+            tests.add(dynamicTest(players + " players [pool]", () -> this.report("pool", players, true)));
+        }
+        return tests;
+    }
+
+    @AfterAll
+    static void writePerformanceReport() throws IOException {
+        REPORT_LINES.sort(Comparator.naturalOrder());
+        final List<String> lines = new ArrayList<>(REPORT_LINES.size() + 1);
+        lines.add("players\tmode\tcpu_percent\tthreads\tpeak_threads\tframes_per_s");
+        lines.addAll(REPORT_LINES);
+        Files.createDirectories(REPORT_PATH.getParent());
+        Files.write(REPORT_PATH, lines);
+    }
+
+    private void report(final String mode, final int count, final boolean sharedPool) {
+        final boolean previous = WaterMediaConfig.media.ffmpeg.sharedDecodePool;
+        WaterMediaConfig.media.ffmpeg.sharedDecodePool = sharedPool;
+        final List<FFMediaPlayer> players = new ArrayList<>(count);
+        final List<HeadlessGFXEngine> engines = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                final HeadlessGFXEngine gfx = new HeadlessGFXEngine();
+                engines.add(gfx);
+                players.add(open(gfx));
+            }
+            for (final HeadlessGFXEngine gfx: engines) {
+                assertTrue(PlayerWait.awaitCondition(() -> gfx.uploadCount() > 0, LOAD_TIMEOUT_MS));
+            }
+            sleep(SETTLE_MS);
+
+            THREADS.resetPeakThreadCount();
+            final long uploadsBefore = uploads(engines);
+            final long cpuBefore = OS.getProcessCpuTime();
+            final long start = System.nanoTime();
+            sleep(MEASURE_MS);
+            final long nanos = System.nanoTime() - start;
+            final long cpu = OS.getProcessCpuTime() - cpuBefore;
+            final long frames = uploads(engines) - uploadsBefore;
+            final int threads = THREADS.getThreadCount();
+            final int peak = THREADS.getPeakThreadCount();
+
+            // 100% IS ONE FULLY BUSY CORE
+            final double cpuPercent = cpu * 100.0 / nanos;
+            final double fps = frames * 1e9 / nanos;
+            REPORT_LINES.add(String.format("%02d\t%s\t%.1f\t%d\t%d\t%.1f", count, mode, cpuPercent, threads, peak, fps));
+            System.out.printf("%d players [%s]: %.1f%% cpu, %d threads (peak %d), %.1f frames/s%n",
+                    count, mode, cpuPercent, threads, peak, fps);
+        } finally {
+            for (final FFMediaPlayer player: players) {
+                player.stop();
+                player.release();
+            }
+            WaterMediaConfig.media.ffmpeg.sharedDecodePool = previous;
+        }
+    }
+
+    private static FFMediaPlayer open(final HeadlessGFXEngine gfx) {
+        final MRL mrl = MediaAPI.mrl(Fixtures.fileUri(Fixtures.MP4_H264));
+        assertTrue(mrl.await(MRL_TIMEOUT_MS));
+
+        final FFMediaPlayer player = new FFMediaPlayer(mrl, 0, gfx, null);
+        player.repeat(true);
+        player.start();
+        assertTrue(PlayerWait.awaitStatus(player, LOAD_TIMEOUT_MS, Status.PLAYING, Status.BUFFERING, Status.PAUSED));
+        return player;
+    }
+
+    private static long uploads(final List<HeadlessGFXEngine> engines) {
+        long total = 0;
+        for (final HeadlessGFXEngine gfx: engines) total += gfx.uploadCount();
+        return total;
+    }
+
+    private static void sleep(final long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -140,4 +140,37 @@ public class FFMediaPlayerTest {
             player.release();
         }
     }
+
+    @Test
+    @DisplayName("Borrowing engines receive decoder frames without a copy")
+    void testBorrowedUploadsSkipTheCopy() {
+        final HeadlessGFXEngine borrowing = new HeadlessGFXEngine(false, true);
+        final FFMediaPlayer player = open(borrowing, Fixtures.MP4_H264, p -> {});
+        final long startNanos = System.nanoTime();
+        try {
+            assertTrue(PlayerWait.awaitCondition(() -> borrowing.borrowedCount() > 0, PLAY_OBSERVE_MS));
+        } finally {
+            player.stop();
+            player.release();
+        }
+        // NO SCALING, SO EVERY FRAME IS A DECODER FRAME AND EVERY BYTE PUSHED WAS BORROWED
+        assertEquals(borrowing.uploadCount(), borrowing.borrowedCount());
+        assertEquals(borrowing.uploadedBytes(), borrowing.borrowedBytes());
+        assertTrue(borrowing.released());
+        final double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("zero-copy upload: %d frames, %.1f MB not copied (%.1f MB/s of memcpy saved)%n",
+                borrowing.borrowedCount(), borrowing.borrowedBytes() / 1048576.0, borrowing.borrowedBytes() / 1048576.0 / seconds);
+
+        // THE SAME PIPELINE KEEPS COPYING FOR AN ENGINE THAT DOES NOT BORROW
+        final HeadlessGFXEngine copying = new HeadlessGFXEngine(false, false);
+        final FFMediaPlayer copied = open(copying, Fixtures.MP4_H264, p -> {});
+        try {
+            assertTrue(PlayerWait.awaitCondition(() -> copying.uploadCount() > 0, PLAY_OBSERVE_MS));
+            assertEquals(0L, copying.borrowedBytes());
+            assertTrue(copying.uploadedBytes() > 0L);
+        } finally {
+            copied.stop();
+            copied.release();
+        }
+    }
 }
@@ -10,6 +10,7 @@ import org.watermedia.api.media.players.ServerMediaPlayer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -114,7 +115,7 @@ public class MediaPlayerBaseTest {
     }
 
     @Nested
-    @DisplayName("repeat / maxSize / lod")
+    @DisplayName("repeat / maxSize / lod / visible")
     class StateTests {
 
         @Test
@@ -150,6 +151,22 @@ public class MediaPlayerBaseTest {
             assertThrows(IllegalArgumentException.class, () -> player.lod(null));
         }
 
+        @Test
+        @DisplayName("visible defaults to true and toggles")
+        void visibleToggles() {
+            final ServerMediaPlayer player = new ServerMediaPlayer();
+            assertTrue(player.visible());
+            player.visible(false);
+            assertFalse(player.visible());
+        }
+
+        @Test
+        @DisplayName("a player that never decodes has no decode decision")
+        void decodeDecisionAbsent() {
+            final ServerMediaPlayer player = new ServerMediaPlayer();
+            assertNull(player.decodeDecision());
+        }
+
         @Test
         @DisplayName("LodLevel keeps its documented percentages")
         void lodPercent() {
@@ -12,6 +12,7 @@ import org.watermedia.api.media.engines.HeadlessGFXEngine;
 import org.watermedia.test.support.Fixtures;
 import org.watermedia.test.support.PlayerWait;
 
+import java.nio.file.Path;
 import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -40,7 +41,11 @@ public class TxScalingTest {
     // BUILDS A STATIC-IMAGE PLAYER, APPLIES THE GIVEN SCALING CONFIG, STARTS IT AND
     // WAITS UNTIL THE FIRST FRAME IS LIVE SO width()/height() REFLECT THE UPLOAD SIZE.
     private static TxMediaPlayer startStatic(final HeadlessGFXEngine gfx, final Consumer<TxMediaPlayer> config) {
-        final MRL mrl = MediaAPI.mrl(Fixtures.fileUri(Fixtures.PNG_STATIC));
+        return startStatic(Fixtures.PNG_STATIC, gfx, config);
+    }
+
+    private static TxMediaPlayer startStatic(final Path fixture, final HeadlessGFXEngine gfx, final Consumer<TxMediaPlayer> config) {
+        final MRL mrl = MediaAPI.mrl(Fixtures.fileUri(fixture));
         assertTrue(mrl.await(MRL_TIMEOUT_MS));
 
         final TxMediaPlayer player = new TxMediaPlayer(mrl, 0, gfx);
@@ -146,6 +151,26 @@ public class TxScalingTest {
         }
     }
 
+    @Test
+    @DisplayName("maxSize and LOD on a large JPEG decode reduced but report the native size")
+    void testJpegDecodesAtHintedSize() {
+        final HeadlessGFXEngine gfx = new HeadlessGFXEngine();
+        // jpeg/2.jpg IS 2048x1536; THE 300x200 HINT LETS THE READER DECODE AT 1/4 (512x384) BEFORE THE DOWNSCALE
+        final TxMediaPlayer player = startStatic(Fixtures.JPEG_DIR.resolve("2.jpg"), gfx, p -> {
+            p.maxSize(600, 400);
+            p.lod(LodLevel.NEAR);
+        });
+        try {
+            assertEquals(300, player.width());
+            assertEquals(200, player.height());
+            assertEquals(2048, player.sourceWidth());
+            assertEquals(1536, player.sourceHeight());
+        } finally {
+            player.stop();
+            player.release();
+        }
+    }
+
     @Test
     @DisplayName("Hot LOD change shrinks the live upload (streaming GIF)")
     void testHotLodChangeShrinksUpload() {
@@ -0,0 +1,172 @@
+package org.watermedia.test.media.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.watermedia.api.media.players.util.DecodeGovernor;
+import org.watermedia.api.media.players.util.DecodeGovernor.Decision;
+import org.watermedia.api.media.players.util.DecodeGovernor.Level;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Decisions of the {@link DecodeGovernor}: which player it degrades first, how far, and which it restores
+ * first. Each test gets a private governor with a one-core budget and plays the players' part by
+ * reporting decode time by hand, so nothing here touches FFmpeg or the global governor. The governor
+ * evaluates every 250ms, so each test runs for about a second.
+ */
+@DisplayName("Decode governor")
+public class DecodeGovernorTest {
+    private static final long WAIT_MS = 5000L;
+    private static final int NEAR = 100;
+    private static final int FAR = 10;
+
+    @Test
+    @DisplayName("Rejects a budget that is not positive")
+    void testRejectsEmptyBudget() {
+        assertThrows(IllegalArgumentException.class, () -> new DecodeGovernor(0));
+        assertThrows(IllegalArgumentException.class, () -> new DecodeGovernor(Double.NaN));
+    }
+
+    @Test
+    @DisplayName("Players within budget decode at full rate")
+    void testWithinBudgetStaysFull() throws InterruptedException {
+        final DecodeGovernor governor = new DecodeGovernor(1);
+        final DecodeGovernor.Ticket ticket = governor.register("light", () -> NEAR, Level.PAUSED);
+
+        // HALF THE BUDGET FOR SEVERAL EVALUATIONS
+        load(ticket, 0.5, () -> false, 800L);
+        assertEquals(Level.FULL, ticket.level());
+        assertTrue(governor.load() > 0.3 && governor.load() < 0.7, "load " + governor.load());
+    }
+
+    @Test
+    @DisplayName("Degrades the hidden player before the visible ones")
+    void testDegradesLowestPriorityFirst() throws InterruptedException {
+        final DecodeGovernor governor = new DecodeGovernor(1);
+        final DecodeGovernor.Ticket near = governor.register("near", () -> NEAR, Level.PAUSED);
+        final DecodeGovernor.Ticket far = governor.register("far", () -> FAR, Level.PAUSED);
+        final DecodeGovernor.Ticket hidden = governor.register("hidden", () -> DecodeGovernor.HIDDEN, Level.PAUSED);
+
+        // JUST OVER BUDGET: ONE STEP PER EVALUATION, ALL TAKEN FROM THE HIDDEN PLAYER UNTIL IT IS PAUSED
+        load(near, 0.95, () -> hidden.level() == Level.PAUSED, WAIT_MS);
+        assertEquals(Level.PAUSED, hidden.level());
+        assertEquals(Level.FULL, near.level());
+        assertTrue(far.level().compareTo(Level.REDUCED_FPS) <= 0, "far is " + far.level());
+
+        // THEN THE FAR ONE, WHICH IS VISIBLE AND SO STOPS AT KEYFRAMES
+        load(near, 0.95, () -> near.level() != Level.FULL, WAIT_MS);
+        assertEquals(Level.KEYFRAMES, far.level());
+        assertEquals(Level.REDUCED_FPS, near.level());
+    }
+
+    @Test
+    @DisplayName("Never degrades past the deepest level or, while visible, past keyframes")
+    void testCapsDegradation() throws InterruptedException {
+        final DecodeGovernor governor = new DecodeGovernor(1);
+        final boolean[] visible = {true};
+        final DecodeGovernor.Ticket video = governor.register("video", () -> visible[0] ? NEAR : DecodeGovernor.HIDDEN, Level.PAUSED);
+        final DecodeGovernor.Ticket silent = governor.register("silent", () -> DecodeGovernor.HIDDEN, Level.KEYFRAMES);
+
+        // FAR OVER BUDGET: EVERY PLAYER GOES AS DEEP AS IT MAY IN ONE EVALUATION
+        load(video, 20, () -> video.level() == Level.KEYFRAMES, WAIT_MS);
+        assertEquals(Level.KEYFRAMES, video.level());
+        assertEquals(Level.KEYFRAMES, silent.level());
+
+        visible[0] = false;
+        load(video, 20, () -> video.level() == Level.PAUSED, WAIT_MS);
+        assertEquals(Level.PAUSED, video.level());
+
+        // COMING BACK INTO VIEW LIFTS IT AT THE NEXT EVALUATION, HOWEVER HIGH THE LOAD
+        visible[0] = true;
+        load(video, 20, () -> video.level() != Level.PAUSED, WAIT_MS);
+        assertEquals(Level.KEYFRAMES, video.level());
+        assertEquals("capped", video.decision().reason());
+    }
+
+    @Test
+    @DisplayName("Only moves a player between the levels it registered")
+    void testSkipsLevelsAPlayerCannotHonor() throws InterruptedException {
+        final DecodeGovernor governor = new DecodeGovernor(1);
+        final boolean[] visible = {true};
+        // LIKE AN ANIMATION THAT CAN ONLY STOP: NOTHING TO SHED WHILE VISIBLE
+        final DecodeGovernor.Ticket anim = governor.register("anim", () -> visible[0] ? FAR : DecodeGovernor.HIDDEN,
+                EnumSet.of(Level.PAUSED));
+        final DecodeGovernor.Ticket video = governor.register("video", () -> NEAR, Level.PAUSED);
+
+        // THE STEPS GO TO THE PLAYER THAT SHEDS LOAD, THOUGH IT RANKS HIGHER
+        load(anim, 0.95, () -> video.level() != Level.FULL, WAIT_MS);
+        assertEquals(Level.REDUCED_FPS, video.level());
+        assertEquals(Level.FULL, anim.level());
+        assertEquals(0, anim.decision().changes());
+
+        // ONCE HIDDEN IT PAUSES IN ONE STEP, AND IS RESTORED IN ONE
+        visible[0] = false;
+        load(anim, 0.95, () -> anim.level() != Level.FULL, WAIT_MS);
+        assertEquals(Level.PAUSED, anim.level());
+        video.close();
+        load(anim, 0, () -> anim.level() != Level.PAUSED, WAIT_MS);
+        assertEquals(Level.FULL, anim.level());
+        assertEquals(2, anim.decision().changes());
+    }
+
+    @Test
+    @DisplayName("Restores the highest priority first once the load drops")
+    void testRestoresHighestPriorityFirst() throws InterruptedException {
+        final DecodeGovernor governor = new DecodeGovernor(1);
+        final DecodeGovernor.Ticket near = governor.register("near", () -> NEAR, Level.PAUSED);
+        final DecodeGovernor.Ticket hidden = governor.register("hidden", () -> DecodeGovernor.HIDDEN, Level.PAUSED);
+        load(near, 20, () -> near.level() == Level.KEYFRAMES, WAIT_MS);
+        assertEquals(Level.PAUSED, hidden.level());
+
+        // IDLE: THE FIRST RESTORE STEP GOES TO THE VISIBLE PLAYER, THE HIDDEN ONE WAITS ITS TURN
+        load(near, 0, () -> near.level() != Level.KEYFRAMES, WAIT_MS);
+        assertEquals(Level.SKIP_NONREF, near.level());
+        assertEquals(Level.PAUSED, hidden.level());
+    }
+
+    @Test
+    @DisplayName("Exposes each player's decision and forgets closed tickets")
+    void testDecisionTelemetry() throws InterruptedException {
+        final DecodeGovernor governor = new DecodeGovernor(1);
+        final DecodeGovernor.Ticket near = governor.register("near", () -> NEAR, Level.PAUSED);
+        final DecodeGovernor.Ticket hidden = governor.register("hidden", () -> DecodeGovernor.HIDDEN, Level.PAUSED);
+        load(hidden, 2, () -> hidden.level() != Level.FULL, WAIT_MS);
+
+        final List<Decision> decisions = governor.decisions();
+        assertEquals(2, decisions.size());
+        assertEquals("near", decisions.get(0).name(), "highest priority first");
+        final Decision decision = hidden.decision();
+        assertEquals(DecodeGovernor.HIDDEN, decision.priority());
+        assertTrue(decision.level().compareTo(Level.FULL) > 0);
+        assertTrue(decision.changes() > 0);
+        assertNotNull(decision.reason());
+        assertTrue(decision.cores() > 1, "the hidden player reported all the load: " + decision.cores());
+        assertTrue(decision.load() > 1);
+
+        hidden.close();
+        assertEquals(Level.FULL, hidden.level());
+        assertEquals(List.of("near"), governor.decisions().stream().map(Decision::name).toList());
+        near.close();
+    }
+
+    // REPORTS cores OF DECODE TIME PER WALL SECOND THROUGH ticket UNTIL done HOLDS OR timeoutMs PASSES.
+    // EACH REPORT COVERS EXACTLY THE TIME SINCE THE PREVIOUS ONE, SO EVERY EVALUATION SEES A LOAD OF cores
+    private static void load(final DecodeGovernor.Ticket ticket, final double cores, final BooleanSupplier done,
+                             final long timeoutMs) throws InterruptedException {
+        final long end = System.nanoTime() + timeoutMs * 1_000_000L;
+        long last = System.nanoTime();
+        while (!done.getAsBoolean() && System.nanoTime() - end < 0) {
+            Thread.sleep(5);
+            final long now = System.nanoTime();
+            ticket.report((long) ((now - last) * cores));
+            last = now;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package org.watermedia.test.media.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.watermedia.api.media.players.util.DecodeScheduler;
+import org.watermedia.api.media.players.util.DecodeScheduler.Step;
+import org.watermedia.test.support.PlayerWait;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Task lifecycle of the {@link DecodeScheduler}: steps run until done, idle tasks park and resume on
+ * {@code wake()} or their backoff, priority orders the ready tasks, and {@code close()} runs exactly once
+ * however a task ends. Each test gets a private pool, so nothing here touches FFmpeg or the shared pool.
+ */
+@DisplayName("Decode scheduler")
+public class DecodeSchedulerTest {
+    private static final long WAIT_MS = 5000L;
+
+    private DecodeScheduler scheduler;
+
+    @AfterEach
+    void shutdown() {
+        if (this.scheduler != null) this.scheduler.shutdown();
+    }
+
+    @Test
+    @DisplayName("Steps a task until it is done, then closes it once")
+    void testRunsUntilDone() {
+        this.scheduler = new DecodeScheduler(2);
+        final Counting work = new Counting(() -> Step.PROGRESS, 50);
+        final DecodeScheduler.Task task = this.scheduler.submit("count", work, () -> 0);
+
+        assertTrue(task.join());
+        assertTrue(task.done());
+        assertEquals(50, work.steps.get());
+        assertEquals(1, work.closes.get());
+    }
+
+    @Test
+    @DisplayName("An idle task resumes on wake")
+    void testWakeResumesIdleTask() {
+        this.scheduler = new DecodeScheduler(1);
+        final AtomicBoolean input = new AtomicBoolean();
+        final Counting work = new Counting(() -> input.getAndSet(false) ? Step.DONE : Step.IDLE, Integer.MAX_VALUE);
+        final DecodeScheduler.Task task = this.scheduler.submit("wait", work, () -> 0);
+
+        assertTrue(PlayerWait.awaitCondition(() -> work.steps.get() > 0, WAIT_MS));
+        assertFalse(task.done());
+        input.set(true);
+        task.wake();
+        assertTrue(PlayerWait.awaitCondition(task::done, WAIT_MS));
+        assertEquals(1, work.closes.get());
+    }
+
+    @Test
+    @DisplayName("An idle task is rechecked without a wake")
+    void testBackoffRechecksIdleTask() {
+        this.scheduler = new DecodeScheduler(1);
+        final Counting work = new Counting(() -> Step.IDLE, 5);
+        final DecodeScheduler.Task task = this.scheduler.submit("poll", work, () -> 0);
+
+        // FIVE IDLE STEPS, NEVER WOKEN: ONLY THE BACKOFF (AT MOST 8MS EACH) CAN GET THEM THERE
+        assertTrue(PlayerWait.awaitCondition(task::done, WAIT_MS));
+        assertEquals(5, work.steps.get());
+    }
+
+    @Test
+    @DisplayName("Idle workers sleep until there is work")
+    void testIdleWorkerBlocks() {
+        this.scheduler = new DecodeScheduler(1);
+        final AtomicReference<Thread> worker = new AtomicReference<>();
+        final Counting work = new Counting(() -> {
+            worker.set(Thread.currentThread());
+            return Step.IDLE;
+        }, 3);
+        assertTrue(this.scheduler.submit("poll", work, () -> 0).join());
+
+        // NOTHING READY AND NOTHING PARKED: AN UNTIMED WAIT, NOT A POLL THAT WAKES UP EVERY MILLISECOND
+        assertTrue(PlayerWait.awaitCondition(() -> worker.get().getState() == Thread.State.WAITING, WAIT_MS));
+        final Counting next = new Counting(() -> Step.PROGRESS, 3);
+        assertTrue(this.scheduler.submit("next", next, () -> 0).join());
+        assertEquals(3, next.steps.get());
+    }
+
+    @Test
+    @DisplayName("Higher priority runs first")
+    void testPriorityOrdersReadyTasks() throws InterruptedException {
+        this.scheduler = new DecodeScheduler(1);
+        // HOLD THE ONLY WORKER SO BOTH TASKS ARE QUEUED BEFORE EITHER RUNS
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        this.scheduler.submit("gate", new Counting(() -> {
+            started.countDown();
+            awaitQuietly(release);
+            return Step.DONE;
+        }, 1), () -> 0);
+        assertTrue(started.await(WAIT_MS, TimeUnit.MILLISECONDS));
+
+        final List<String> order = new CopyOnWriteArrayList<>();
+        final DecodeScheduler.Task hidden = this.scheduler.submit("hidden", new Counting(() -> {
+            order.add("hidden");
+            return Step.DONE;
+        }, 1), () -> 0);
+        final DecodeScheduler.Task visible = this.scheduler.submit("visible", new Counting(() -> {
+            order.add("visible");
+            return Step.DONE;
+        }, 1), () -> 100);
+        release.countDown();
+
+        assertTrue(hidden.join());
+        assertTrue(visible.join());
+        assertEquals(List.of("visible", "hidden"), order);
+    }
+
+    @Test
+    @DisplayName("Cancel closes a parked task and releases join")
+    void testCancelClosesParkedTask() {
+        this.scheduler = new DecodeScheduler(1);
+        final Counting work = new Counting(() -> Step.IDLE, Integer.MAX_VALUE);
+        final DecodeScheduler.Task task = this.scheduler.submit("parked", work, () -> 0);
+        assertTrue(PlayerWait.awaitCondition(() -> work.steps.get() > 0, WAIT_MS));
+
+        task.cancel();
+        assertTrue(task.join());
+        assertEquals(1, work.closes.get());
+    }
+
+    @Test
+    @DisplayName("A failing step stops the task and still closes it")
+    void testFailureClosesTask() {
+        this.scheduler = new DecodeScheduler(1);
+        final Counting work = new Counting(() -> {
+            throw new IllegalStateException("decoder exploded");
+        }, Integer.MAX_VALUE);
+        final DecodeScheduler.Task task = this.scheduler.submit("failing", work, () -> 0);
+
+        assertTrue(task.join());
+        assertEquals(1, work.closes.get());
+
+        // THE WORKER SURVIVES AND KEEPS SERVING OTHER TASKS
+        final Counting next = new Counting(() -> Step.PROGRESS, 3);
+        assertTrue(this.scheduler.submit("next", next, () -> 0).join());
+        assertEquals(3, next.steps.get());
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await(WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // RUNS step UNTIL IT HAS BEEN CALLED limit TIMES (THE LAST CALL REPORTS DONE), COUNTING STEPS AND CLOSES
+    private static final class Counting implements DecodeScheduler.Work {
+        final AtomicInteger steps = new AtomicInteger();
+        final AtomicInteger closes = new AtomicInteger();
+        final Supplier<Step> step;
+        final int limit;
+
+        Counting(final Supplier<Step> step, final int limit) {
+            this.step = step;
+            this.limit = limit;
+        }
+
+        @Override
+        public Step step() {
+            final Step result = this.step.get();
+            return this.steps.incrementAndGet() >= this.limit ? Step.DONE : result;
+        }
+
+        @Override
+        public void close() {
+            this.closes.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.watermedia.test.media.util;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.watermedia.api.media.players.util.FrameScaler;
+import org.watermedia.api.util.ScaleFilter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+/**
+ * Diagnostic benchmarks for {@link FrameScaler}.
+ *
+ * <p>Observational like the decoder benchmarks: a 4K noise plane is downscaled to 512 pixels wide
+ * with the per-pixel area average TxMediaPlayer used before the scaler, and with every
+ * {@link ScaleFilter}. The median of the measured runs and the speedup over the legacy path are written to
+ * {@code build/reports/frame-scaler.tsv}; nothing is asserted. The scaler splits rows across the
+ * common pool, so expect most of the gain from the core count.
+ */
+@DisplayName("FrameScaler performance benchmarks")
+public class FrameScalerPerformanceTest {
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final int MEASURED_ITERATIONS = 5;
+    private static final int SOURCE_WIDTH = 3840;
+    private static final int SOURCE_HEIGHT = 2160;
+    private static final Path REPORT_PATH = Path.of("build", "reports", "frame-scaler.tsv");
+    private static final List<String> REPORT_LINES = new ArrayList<>();
+
+    @TestFactory
+    @DisplayName("Measure legacy area average vs FrameScaler on 4K to 512")
+    Iterable<DynamicTest> measureScaler() {
+        final List<DynamicTest> tests = new ArrayList<>();
+        tests.add(dynamicTest("frame scaler [4K RGBA]", () -> this.report("4K RGBA", 4, 512, 288)));
+        tests.add(dynamicTest("frame scaler [4K luma]", () -> this.report("4K luma", 1, 512, 288)));
+        return tests;
+    }
+
+    @AfterAll
+    static void writePerformanceReport() throws IOException {
+        REPORT_LINES.sort(Comparator.naturalOrder());
+        final List<String> lines = new ArrayList<>(REPORT_LINES.size() + 1);
+        lines.add("fixture\tfilter\tlegacy_us\tscaler_us\tspeedup");
+        lines.addAll(REPORT_LINES);
+        Files.createDirectories(REPORT_PATH.getParent());
+        Files.write(REPORT_PATH, lines);
+    }
+
+    private void report(final String name, final int ch, final int dw, final int dh) {
+        final byte[] bytes = new byte[SOURCE_WIDTH * SOURCE_HEIGHT * ch];
+        new Random(42).nextBytes(bytes);
+        final ByteBuffer src = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        final ByteBuffer dst = ByteBuffer.allocateDirect(dw * dh * ch);
+
+        final long legacy = median(() -> scaleArea(src, SOURCE_WIDTH, SOURCE_HEIGHT, dst.clear(), dw, dh, ch)) / 1_000L;
+        for (final ScaleFilter filter: ScaleFilter.values()) {
+            final long scaler = median(() -> FrameScaler.scale(src, 0, SOURCE_WIDTH, SOURCE_HEIGHT, dst.clear(), dw, dh, ch, filter)) / 1_000L;
+            final double speedup = (double) legacy / Math.max(1L, scaler);
+            REPORT_LINES.add(name + "\t" + filter + "\t" + legacy + "\t" + scaler + "\t" + String.format("%.2f", speedup));
+            System.out.printf("frame scaler [%s, %s]: legacy %dus, scaler %dus, %.2fx%n", name, filter, legacy, scaler, speedup);
+        }
+    }
+
+    private static long median(final Runnable task) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) task.run();
+        final long[] nanos = new long[MEASURED_ITERATIONS];
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            final long start = System.nanoTime();
+            task.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos[nanos.length / 2];
+    }
+
+    // THE AREA AVERAGE TxMediaPlayer RAN BEFORE FrameScaler, KEPT VERBATIM AS THE BASELINE
+    private static void scaleArea(final ByteBuffer src, final int sw, final int sh,
+                                  final ByteBuffer dst, final int dw, final int dh, final int ch) {
+        final int[] acc = new int[ch];
+        for (int dy = 0; dy < dh; dy++) {
+            final int sy0 = (int) ((long) dy * sh / dh);
+            final int sy1 = Math.max(sy0 + 1, (int) ((long) (dy + 1) * sh / dh));
+            for (int dx = 0; dx < dw; dx++) {
+                final int sx0 = (int) ((long) dx * sw / dw);
+                final int sx1 = Math.max(sx0 + 1, (int) ((long) (dx + 1) * sw / dw));
+                Arrays.fill(acc, 0);
+                for (int sy = sy0; sy < sy1; sy++) {
+                    int p = (sy * sw + sx0) * ch;
+                    for (int sx = sx0; sx < sx1; sx++) {
+                        for (int c = 0; c < ch; c++) acc[c] += src.get(p++) & 0xFF;
+                    }
+                }
+                final int count = (sy1 - sy0) * (sx1 - sx0);
+                for (int c = 0; c < ch; c++) dst.put((byte) (acc[c] / count));
+            }
+        }
+    }
+}
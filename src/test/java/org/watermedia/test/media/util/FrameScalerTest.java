@@ -0,0 +1,125 @@
+package org.watermedia.test.media.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.watermedia.api.media.players.util.FrameScaler;
+import org.watermedia.api.util.PixelFormat;
+import org.watermedia.api.util.ScaleFilter;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+/**
+ * Unit tests for {@link FrameScaler}: exact block averages, filters preserving flat planes and
+ * identity sizes, and the plane layouts written for the multi-plane formats.
+ */
+@DisplayName("FrameScaler")
+public class FrameScalerTest {
+
+    @Test
+    @DisplayName("BOX on an integer factor is the rounded block average")
+    void testBoxBlockAverage() {
+        final int sw = 640, sh = 360, ch = 4, factor = 4;
+        final ByteBuffer src = noise(sw * sh * ch, 7);
+        final int dw = sw / factor, dh = sh / factor;
+        final ByteBuffer dst = ByteBuffer.allocateDirect(dw * dh * ch);
+        FrameScaler.scale(src, 0, sw, sh, dst, dw, dh, ch, ScaleFilter.BOX);
+        assertEquals(dw * dh * ch, dst.position());
+
+        for (int dy = 0; dy < dh; dy++) {
+            for (int dx = 0; dx < dw; dx++) {
+                for (int c = 0; c < ch; c++) {
+                    int sum = 0;
+                    for (int y = 0; y < factor; y++) {
+                        for (int x = 0; x < factor; x++) {
+                            sum += src.get(((dy * factor + y) * sw + dx * factor + x) * ch + c) & 0xFF;
+                        }
+                    }
+                    // THE HORIZONTAL PASS ROUNDS TO 8 BITS BEFORE THE VERTICAL ONE, SO ALLOW ONE LEVEL OF DRIFT
+                    final int expected = Math.round(sum / (float) (factor * factor));
+                    final int actual = dst.get((dy * dw + dx) * ch + c) & 0xFF;
+                    assertTrue(Math.abs(expected - actual) <= 1, "at " + dx + "," + dy + "/" + c + ": " + expected + " vs " + actual);
+                }
+            }
+        }
+    }
+
+    @TestFactory
+    @DisplayName("Flat planes stay flat and identity sizes copy exactly")
+    List<DynamicTest> testFilters() {
+        final List<DynamicTest> tests = new ArrayList<>();
+        for (final ScaleFilter filter: ScaleFilter.values()) {
+            tests.add(dynamicTest(filter.name(), () -> {
+                final int sw = 301, sh = 197, ch = 3;
+                final ByteBuffer flat = ByteBuffer.allocateDirect(sw * sh * ch);
+                while (flat.hasRemaining()) flat.put((byte) 200);
+                for (final int[] size: new int[][] {{37, 23}, {150, 99}, {600, 400}, {1, 1}}) {
+                    final ByteBuffer dst = ByteBuffer.allocateDirect(size[0] * size[1] * ch);
+                    FrameScaler.scale(flat, 0, sw, sh, dst, size[0], size[1], ch, filter);
+                    for (int i = 0; i < dst.capacity(); i++) {
+                        assertEquals(200, dst.get(i) & 0xFF, filter + " " + size[0] + "x" + size[1] + " at " + i);
+                    }
+                }
+
+                final ByteBuffer src = noise(sw * sh * 4, 3);
+                final ByteBuffer copy = ByteBuffer.allocateDirect(sw * sh * 4);
+                FrameScaler.scale(src, 0, sw, sh, copy, sw, sh, 4, filter);
+                assertEquals(src, copy.flip());
+            }));
+        }
+        return tests;
+    }
+
+    @Test
+    @DisplayName("Multi-plane formats write each plane at its subsampled size")
+    void testPlaneLayouts() {
+        final int sw = 1921, sh = 1081, dw = 333, dh = 111;
+        final int luma = dw * dh;
+        final int chroma = ((dw + 1) >> 1) * ((dh + 1) >> 1);
+        final ByteBuffer src = noise(16 + sw * sh * 4, 11);
+        src.position(16);
+
+        assertEquals(luma + chroma * 2, scaled(PixelFormat.NV12, src, sw, sh, dw, dh));
+        assertEquals(luma + chroma * 2, scaled(PixelFormat.YUV420P, src, sw, sh, dw, dh));
+        assertEquals(luma * 2 + chroma * 2, scaled(PixelFormat.YUVA420P, src, sw, sh, dw, dh));
+        assertEquals(luma + ((dw + 1) >> 1) * dh * 2, scaled(PixelFormat.YUV422P, src, sw, sh, dw, dh));
+        assertEquals(luma * 3, scaled(PixelFormat.YUV444P, src, sw, sh, dw, dh));
+        assertEquals(luma * 4, scaled(PixelFormat.BGRA, src, sw, sh, dw, dh));
+        assertEquals(16, src.position());
+    }
+
+    @Test
+    @DisplayName("Packed 4:2:2 and block-compressed formats are rejected")
+    void testUnsupportedFormats() {
+        assertFalse(FrameScaler.supports(PixelFormat.YUYV));
+        assertFalse(FrameScaler.supports(PixelFormat.YUYV2));
+        assertFalse(FrameScaler.supports(PixelFormat.BC7));
+        assertTrue(FrameScaler.supports(PixelFormat.NV12));
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+        assertThrows(IllegalArgumentException.class, () -> FrameScaler.scale(PixelFormat.YUYV, buffer, 4, 4, buffer.duplicate(), 2, 2, ScaleFilter.BOX));
+        assertThrows(IllegalArgumentException.class, () -> FrameScaler.scale(buffer, 0, 0, 4, buffer.duplicate(), 2, 2, 1, ScaleFilter.BOX));
+    }
+
+    // SCALES ONE FRAME AND RETURNS HOW FAR THE DESTINATION POSITION ADVANCED
+    private static int scaled(final PixelFormat format, final ByteBuffer src, final int sw, final int sh, final int dw, final int dh) {
+        final ByteBuffer dst = ByteBuffer.allocateDirect(dw * dh * 4);
+        FrameScaler.scale(format, src, sw, sh, dst, dw, dh, ScaleFilter.LANCZOS);
+        return dst.position();
+    }
+
+    private static ByteBuffer noise(final int size, final long seed) {
+        final byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        return ByteBuffer.allocateDirect(size).put(bytes).flip();
+    }
+}
@@ -0,0 +1,145 @@
+package org.watermedia.test.media.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.watermedia.api.media.players.util.KeyframeIndex;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link KeyframeIndex} as the demux loop drives it: packets recorded in decode order, seeks that
+ * break and resume the complete span, and the encoded form kept in the cache. The synthetic stream
+ * has one packet per tick of a 1/25 time base, a keyframe every {@value #GOP} packets and each packet
+ * at {@value #PACKET_BYTES} bytes, so timestamps and offsets are easy to predict.
+ */
+@DisplayName("Keyframe index")
+public class KeyframeIndexTest {
+    private static final long NO_TS = Long.MIN_VALUE;
+    private static final int CODEC = 27; // ANY ID — THE INDEX ONLY COMPARES IT
+    private static final int GOP = 10;
+    private static final long PACKET_BYTES = 1000;
+
+    @Test
+    @DisplayName("Finds the last keyframe before a target inside the indexed span")
+    void testFloorInsideSpan() {
+        final KeyframeIndex index = newIndex();
+        demux(index, 0, 35);
+
+        assertEquals(4, index.size());
+        assertEquals(GOP, index.maxGopFrames());
+        final KeyframeIndex.Keyframe keyframe = index.floor(27);
+        assertNotNull(keyframe);
+        assertEquals(20, keyframe.pts());
+        assertEquals(20 * PACKET_BYTES, keyframe.pos());
+        assertEquals(30, index.floor(30).pts(), "a target on a keyframe starts at that keyframe");
+        assertNull(index.floor(40), "past the demuxed span the next keyframe may be closer");
+        assertFalse(index.complete());
+    }
+
+    @Test
+    @DisplayName("A seek past the indexed span pauses it until the demuxer lands back inside")
+    void testSeekBreaksAndResumesSpan() {
+        final KeyframeIndex index = newIndex();
+        demux(index, 0, 25);
+        final long covered = index.coveredTo();
+
+        // JUMP AHEAD: THE KEYFRAMES THERE ARE KEPT, BUT THE GAP BEFORE THEM MUST NOT BE TRUSTED
+        index.seeked(false);
+        demux(index, 60, 75);
+        assertEquals(covered, index.coveredTo());
+        assertNull(index.floor(65));
+        assertEquals(20, index.floor(24).pts());
+
+        // BACK INTO THE SPAN: READING ON FROM THERE EXTENDS IT THROUGH THE GAP
+        index.seeked(false);
+        demux(index, 20, 66);
+        assertEquals(60, index.floor(65).pts());
+        assertEquals(50, index.floor(59).pts());
+        assertEquals(8, index.size(), "keyframes read twice are indexed once");
+    }
+
+    @Test
+    @DisplayName("An index read to the end without a gap is complete")
+    void testFinishCompletes() {
+        final KeyframeIndex index = newIndex();
+        demux(index, 0, 45);
+        index.finish();
+        assertTrue(index.complete());
+        assertEquals(40, index.floor(Long.MAX_VALUE / 2).pts());
+
+        // AN END REACHED AFTER A JUMP LEAVES THE GAP UNSEEN
+        final KeyframeIndex gapped = newIndex();
+        demux(gapped, 0, 15);
+        gapped.seeked(false);
+        demux(gapped, 30, 45);
+        gapped.finish();
+        assertFalse(gapped.complete());
+    }
+
+    @Test
+    @DisplayName("Survives an encode and decode round trip")
+    void testRoundTrip() throws IOException {
+        final KeyframeIndex index = newIndex();
+        demux(index, 0, 55);
+        index.finish();
+        assertTrue(index.dirty());
+        final byte[] encoded = index.encode();
+        assertFalse(index.dirty());
+
+        final KeyframeIndex decoded = KeyframeIndex.decode(encoded);
+        assertTrue(decoded.matches(1, 25, CODEC));
+        assertFalse(decoded.matches(1, 30, CODEC));
+        assertFalse(decoded.dirty());
+        assertTrue(decoded.complete());
+        assertEquals(index.size(), decoded.size());
+        assertEquals(index.maxGopFrames(), decoded.maxGopFrames());
+        for (int i = 0; i < index.size(); i++) assertEquals(index.get(i), decoded.get(i));
+
+        // A DECODED INDEX LEARNS NOTHING FROM RE-READING WHAT IT ALREADY KNOWS
+        demux(decoded, 0, 55);
+        assertFalse(decoded.dirty());
+    }
+
+    @Test
+    @DisplayName("Rejects truncated or foreign data")
+    void testRejectsCorruptData() {
+        final KeyframeIndex index = newIndex();
+        demux(index, 0, 25);
+        final byte[] encoded = index.encode();
+        assertThrows(IOException.class, () -> KeyframeIndex.decode(Arrays.copyOf(encoded, encoded.length - 3)));
+        assertThrows(IOException.class, () -> KeyframeIndex.decode(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }));
+        assertThrows(IllegalArgumentException.class, () -> new KeyframeIndex(0, 25, CODEC));
+    }
+
+    @Test
+    @DisplayName("Ignores packets without timestamps")
+    void testIgnoresUntimedPackets() {
+        final KeyframeIndex index = newIndex();
+        index.record(NO_TS, NO_TS, 0, true, NO_TS);
+        assertEquals(0, index.size());
+        assertFalse(index.dirty());
+
+        // A KEYFRAME WITH ONLY A dts IS INDEXED AT THAT dts
+        index.record(NO_TS, 5, 0, true, NO_TS);
+        assertEquals(5, index.floor(5).pts());
+    }
+
+    private static KeyframeIndex newIndex() {
+        return new KeyframeIndex(1, 25, CODEC);
+    }
+
+    // RECORDS PACKETS from (INCLUSIVE) TO to (EXCLUSIVE), pts == dts == THE PACKET NUMBER
+    private static void demux(final KeyframeIndex index, final long from, final long to) {
+        for (long i = from; i < to; i++) {
+            index.record(i, i, i * PACKET_BYTES, i % GOP == 0, NO_TS);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package org.watermedia.test.media.util;
+
+import org.bytedeco.ffmpeg.avcodec.AVPacket;
+import org.bytedeco.ffmpeg.global.avcodec;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.watermedia.api.media.players.util.FrameQueue;
+import org.watermedia.api.media.players.util.PacketQueue;
+import org.watermedia.test.support.MediaBootstrap;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+/**
+ * Diagnostic benchmarks for the locked and lock-free {@link PacketQueue} and {@link FrameQueue}.
+ *
+ * <p>Observational like the decoder benchmarks. Throughput streams items from a producer thread to a
+ * consumer thread as fast as both go; latency hands over one item at a time — the producer waits for
+ * the queue to drain before the next — and records how long each took from enqueue to dequeue. The
+ * medians of the measured runs go to {@code build/reports/media-queues.tsv}; nothing is asserted.
+ * Results on a single core mostly measure the scheduler, not the queue.
+ */
+@DisplayName("Media queue handoff benchmarks")
+public class MediaQueuePerformanceTest {
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final int MEASURED_ITERATIONS = 5;
+    private static final int THROUGHPUT_ITEMS = 200_000;
+    private static final int LATENCY_ITEMS = 20_000;
+    private static final int PACKET_BYTES = 4096;
+    private static final Path REPORT_PATH = Path.of("build", "reports", "media-queues.tsv");
+    private static final List<String> REPORT_LINES = new ArrayList<>();
+
+    @BeforeAll
+    static void boot() {
+        assumeTrue(MediaBootstrap.ffmpegAvailable(), "FFmpeg natives unavailable — skipping queue benchmarks");
+    }
+
+    @TestFactory
+    @DisplayName("Measure locked vs lock-free queue handoff")
+    Iterable<DynamicTest> measureQueues() {
+        final List<DynamicTest> tests = new ArrayList<>();
+        tests.add(dynamicTest("packet queue [locking]", () -> this.reportPackets("locking", () -> PacketQueue.locking(16L << 20))));
+        tests.add(dynamicTest("packet queue [spsc]", () -> this.reportPackets("spsc", () -> PacketQueue.spsc(16L << 20, 1024))));
+        tests.add(dynamicTest("frame queue [locking]", () -> this.reportFrames("locking", FrameQueue::locking)));
+        tests.add(dynamicTest("frame queue [spsc]", () -> this.reportFrames("spsc", FrameQueue::spsc)));
+        return tests;
+    }
+
+    @AfterAll
+    static void writePerformanceReport() throws IOException {
+        REPORT_LINES.sort(Comparator.naturalOrder());
+        final List<String> lines = new ArrayList<>(REPORT_LINES.size() + 1);
+        lines.add("queue\tkind\titems_per_s\tlatency_p50_ns\tlatency_p99_ns");
+        lines.addAll(REPORT_LINES);
+        Files.createDirectories(REPORT_PATH.getParent());
+        Files.write(REPORT_PATH, lines);
+    }
+
+    private void reportPackets(final String kind, final Supplier<PacketQueue> factory) throws Exception {
+        final AVPacket packet = avcodec.av_packet_alloc();
+        avcodec.av_new_packet(packet, PACKET_BYTES);
+        try {
+            final long nanos = median(() -> {
+                final PacketQueue queue = factory.get();
+                final Thread consumer = start(() -> drainPackets(queue, null));
+                for (int i = 0; i < THROUGHPUT_ITEMS; i++) queue.put(packet);
+                queue.finish();
+                join(consumer);
+                queue.free();
+            });
+            final long[] latency = new long[LATENCY_ITEMS];
+            for (int run = 0; run <= WARMUP_ITERATIONS; run++) {
+                final PacketQueue queue = factory.get();
+                final Thread consumer = start(() -> drainPackets(queue, latency));
+                for (int i = 0; i < LATENCY_ITEMS; i++) {
+                    packet.pts(System.nanoTime());
+                    queue.put(packet);
+                    while (queue.count() > 0) Thread.yield();
+                }
+                queue.finish();
+                join(consumer);
+                queue.free();
+            }
+            this.report("packet", kind, nanos, latency);
+        } finally {
+            avcodec.av_packet_free(packet);
+        }
+    }
+
+    private void reportFrames(final String kind, final IntFunction<FrameQueue> factory) throws Exception {
+        final long nanos = median(() -> {
+            final FrameQueue queue = factory.apply(3);
+            final Thread reader = start(() -> drainFrames(queue, THROUGHPUT_ITEMS, null));
+            for (int i = 0; i < THROUGHPUT_ITEMS; i++) {
+                queue.peekWritable();
+                queue.push();
+            }
+            join(reader);
+            queue.free();
+        });
+        final long[] latency = new long[LATENCY_ITEMS];
+        for (int run = 0; run <= WARMUP_ITERATIONS; run++) {
+            final FrameQueue queue = factory.apply(3);
+            final Thread reader = start(() -> drainFrames(queue, LATENCY_ITEMS, latency));
+            for (int i = 0; i < LATENCY_ITEMS; i++) {
+                // THE SLOT CARRIES ITS ENQUEUE TIMESTAMP IN ptsMs
+                queue.peekWritable().ptsMs = System.nanoTime();
+                queue.push();
+                while (!queue.isEmpty()) Thread.yield();
+            }
+            join(reader);
+            queue.free();
+        }
+        this.report("frame", kind, nanos, latency);
+    }
+
+    private void report(final String queue, final String kind, final long nanos, final long[] latency) {
+        Arrays.sort(latency);
+        final long p50 = latency[latency.length / 2];
+        final long p99 = latency[latency.length * 99 / 100];
+        final long perSecond = THROUGHPUT_ITEMS * 1_000_000_000L / Math.max(1L, nanos);
+        REPORT_LINES.add(queue + "\t" + kind + "\t" + perSecond + "\t" + p50 + "\t" + p99);
+        System.out.printf("%s queue [%s]: %d items/s, handoff p50 %dns, p99 %dns%n", queue, kind, perSecond, p50, p99);
+    }
+
+    // TAKES PACKETS UNTIL EOF; WITH latency SET, RECORDS HOW LONG EACH WAITED SINCE ITS pts STAMP
+    private static void drainPackets(final PacketQueue queue, final long[] latency) {
+        final int[] serial = new int[1];
+        int index = 0;
+        AVPacket taken;
+        while ((taken = queue.get(serial)) != null) {
+            if (latency != null) latency[index++] = System.nanoTime() - taken.pts();
+            avcodec.av_packet_free(taken);
+        }
+    }
+
+    private static void drainFrames(final FrameQueue queue, final int count, final long[] latency) {
+        for (int i = 0; i < count; i++) {
+            final FrameQueue.Slot slot = queue.peekBlocking(0);
+            if (latency != null) latency[i] = System.nanoTime() - slot.ptsMs;
+            queue.next();
+        }
+    }
+
+    private static Thread start(final Runnable task) {
+        final Thread thread = new Thread(task, "queue-benchmark");
+        thread.start();
+        return thread;
+    }
+
+    private static void join(final Thread thread) {
+        try {
+            thread.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long median(final Runnable task) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) task.run();
+        final long[] nanos = new long[MEASURED_ITERATIONS];
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            final long start = System.nanoTime();
+            task.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos[nanos.length / 2];
+    }
+}
@@ -0,0 +1,227 @@
+package org.watermedia.test.media.util;
+
+import org.bytedeco.ffmpeg.avcodec.AVPacket;
+import org.bytedeco.ffmpeg.global.avcodec;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.watermedia.api.media.players.util.FrameQueue;
+import org.watermedia.api.media.players.util.PacketQueue;
+import org.watermedia.test.support.MediaBootstrap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+/**
+ * Contract of the {@link PacketQueue} and {@link FrameQueue} implementations: the lock-free variants
+ * must keep the order, serial, flush, EOF and abort behavior of the locked ones, so every check runs
+ * against both. Packets and frames are native structs, so the class is skipped without FFmpeg.
+ */
+@DisplayName("Media queues")
+public class MediaQueueTest {
+    private static final long JOIN_MS = 5000L;
+    private static final int PACKET_BYTES = 100;
+
+    @BeforeAll
+    static void boot() {
+        assumeTrue(MediaBootstrap.ffmpegAvailable(), "FFmpeg natives unavailable — skipping queue tests");
+    }
+
+    @TestFactory
+    @DisplayName("Packet queues")
+    List<DynamicTest> testPacketQueues() {
+        final List<DynamicTest> tests = new ArrayList<>();
+        packetCases(tests, "locking", PacketQueue::locking);
+        packetCases(tests, "spsc", bytes -> PacketQueue.spsc(bytes, 64));
+        return tests;
+    }
+
+    @TestFactory
+    @DisplayName("Frame queues")
+    List<DynamicTest> testFrameQueues() {
+        final List<DynamicTest> tests = new ArrayList<>();
+        frameCases(tests, "locking", FrameQueue::locking);
+        frameCases(tests, "spsc", FrameQueue::spsc);
+        return tests;
+    }
+
+    private static void packetCases(final List<DynamicTest> tests, final String kind, final LongFunction<PacketQueue> factory) {
+        tests.add(dynamicTest(kind + ": order, serial and flush", () -> {
+            final PacketQueue queue = factory.apply(Long.MAX_VALUE);
+            final AVPacket packet = packet();
+            try {
+                for (int i = 0; i < 3; i++) assertTrue(queue.put(packet.pts(i)));
+                assertEquals(3, queue.count());
+                assertEquals(3L * PACKET_BYTES, queue.byteSize());
+                final int[] serial = new int[1];
+                take(queue, serial, 0L);
+                assertEquals(queue.serial(), serial[0]);
+
+                final int before = queue.serial();
+                queue.flush();
+                assertEquals(before + 1, queue.serial());
+                assertEquals(0, queue.count());
+                assertEquals(0L, queue.byteSize());
+
+                assertTrue(queue.put(packet.pts(7)));
+                take(queue, serial, 7L);
+                assertEquals(before + 1, serial[0]);
+
+                assertTrue(queue.put(packet.pts(8)));
+                queue.clear();
+                assertEquals(before + 1, queue.serial(), "clear keeps the serial");
+                assertEquals(0, queue.count());
+            } finally {
+                avcodec.av_packet_free(packet);
+                queue.free();
+            }
+        }));
+
+        tests.add(dynamicTest(kind + ": finish drains, then reports end of file", () -> {
+            final PacketQueue queue = factory.apply(Long.MAX_VALUE);
+            final AVPacket packet = packet();
+            try {
+                assertTrue(queue.put(packet.pts(1)));
+                queue.finish();
+                final int[] serial = new int[1];
+                take(queue, serial, 1L);
+                assertNull(queue.get(serial));
+                assertTrue(queue.endOfFile());
+
+                queue.reset();
+                assertFalse(queue.endOfFile());
+                assertTrue(queue.put(packet.pts(2)));
+                take(queue, serial, 2L);
+            } finally {
+                avcodec.av_packet_free(packet);
+                queue.free();
+            }
+        }));
+
+        tests.add(dynamicTest(kind + ": abort unblocks both sides", () -> {
+            final PacketQueue empty = factory.apply(Long.MAX_VALUE);
+            final AtomicReference<Object> got = new AtomicReference<>("pending");
+            final Thread consumer = new Thread(() -> got.set(empty.get(new int[1])));
+            consumer.start();
+            empty.abort();
+            consumer.join(JOIN_MS);
+            assertFalse(consumer.isAlive());
+            assertNull(got.get());
+            assertFalse(empty.endOfFile());
+
+            // ONE PACKET FILLS THE BYTE LIMIT, SO THE NEXT PUT BLOCKS UNTIL THE ABORT
+            final PacketQueue full = factory.apply(PACKET_BYTES);
+            final AVPacket packet = packet();
+            try {
+                assertTrue(full.tryPut(packet));
+                assertFalse(full.tryPut(packet));
+                final AtomicReference<Boolean> put = new AtomicReference<>();
+                final Thread producer = new Thread(() -> put.set(full.put(packet)));
+                producer.start();
+                full.abort();
+                producer.join(JOIN_MS);
+                assertFalse(producer.isAlive());
+                assertFalse(put.get());
+            } finally {
+                avcodec.av_packet_free(packet);
+                full.free();
+            }
+        }));
+    }
+
+    private static void frameCases(final List<DynamicTest> tests, final String kind, final IntFunction<FrameQueue> factory) {
+        tests.add(dynamicTest(kind + ": order, peekNext and backpressure", () -> {
+            final FrameQueue queue = factory.apply(3);
+            try {
+                for (int i = 0; i < 3; i++) {
+                    final FrameQueue.Slot slot = queue.peekWritable();
+                    assertNotNull(slot);
+                    slot.ptsMs = i;
+                    queue.push();
+                }
+                assertEquals(3, queue.remaining());
+                assertThrows(IllegalStateException.class, queue::push);
+                assertEquals(0L, queue.peek().ptsMs);
+                assertEquals(1L, queue.peekNext().ptsMs);
+                queue.next();
+                assertEquals(1L, queue.peekBlocking(0).ptsMs);
+                queue.next();
+                queue.next();
+                assertTrue(queue.isEmpty());
+                assertNull(queue.peekBlocking(20));
+            } finally {
+                queue.free();
+            }
+        }));
+
+        tests.add(dynamicTest(kind + ": flush keeps the slot a writer holds", () -> {
+            final FrameQueue queue = factory.apply(3);
+            try {
+                queue.peekWritable().ptsMs = 1;
+                queue.push();
+                final FrameQueue.Slot held = queue.peekWritable();
+                queue.flush();
+                assertTrue(queue.isEmpty());
+                held.ptsMs = 2;
+                queue.push();
+                assertSame(held, queue.peek());
+                assertEquals(1, queue.remaining());
+            } finally {
+                queue.free();
+            }
+        }));
+
+        tests.add(dynamicTest(kind + ": abort unblocks both sides", () -> {
+            final FrameQueue empty = factory.apply(3);
+            final AtomicReference<Object> read = new AtomicReference<>("pending");
+            final Thread reader = new Thread(() -> read.set(empty.peekBlocking(0)));
+            reader.start();
+            empty.abort();
+            reader.join(JOIN_MS);
+            assertFalse(reader.isAlive());
+            assertNull(read.get());
+            empty.reset();
+            assertNotNull(empty.peekWritable(), "reset makes the queue reusable");
+            empty.free();
+
+            final FrameQueue full = factory.apply(1);
+            full.peekWritable();
+            full.push();
+            final AtomicReference<Object> written = new AtomicReference<>("pending");
+            final Thread writer = new Thread(() -> written.set(full.peekWritable()));
+            writer.start();
+            full.abort();
+            writer.join(JOIN_MS);
+            assertFalse(writer.isAlive());
+            assertNull(written.get());
+            full.free();
+        }));
+    }
+
+    private static void take(final PacketQueue queue, final int[] serial, final long pts) {
+        final AVPacket taken = queue.get(serial);
+        assertNotNull(taken);
+        assertEquals(pts, taken.pts());
+        avcodec.av_packet_free(taken);
+    }
+
+    private static AVPacket packet() {
+        final AVPacket packet = avcodec.av_packet_alloc();
+        assertEquals(0, avcodec.av_new_packet(packet, PACKET_BYTES));
+        return packet;
+    }
+}
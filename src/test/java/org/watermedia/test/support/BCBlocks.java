@@ -0,0 +1,114 @@
+package org.watermedia.test.support;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Reference BC1/BC3 block decoder for tests. The engine never decodes BC in software, so this is
+ * the only way to turn encoder output back into pixels and measure it.
+ *
+ * <p>Decoding follows the D3D rules: BC1 picks 4-colour or 3-colour + transparent mode from the
+ * endpoint order, while the colour half of BC3 is always 4-colour.
+ */
+public final class BCBlocks {
+
+    private BCBlocks() {}
+
+    /** Decodes row-major blocks at {@code blocks.position()} to a {@code width * height} RGBA array. */
+    public static byte[] decode(final ByteBuffer blocks, final int width, final int height, final boolean bc3) {
+        final ByteBuffer in = blocks.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        final int base = in.position();
+        final int blockBytes = bc3 ? 16 : 8;
+        final int blocksX = (width + 3) >> 2;
+        final byte[] out = new byte[width * height * 4];
+        final int[] alpha = new int[16];
+        final int[][] palette = new int[4][4];
+
+        for (int by = 0; by < (height + 3) >> 2; by++) {
+            for (int bx = 0; bx < blocksX; bx++) {
+                int at = base + (by * blocksX + bx) * blockBytes;
+                if (bc3) {
+                    decodeAlpha(in, at, alpha);
+                    at += 8;
+                }
+                final int c0 = in.getShort(at) & 0xFFFF;
+                final int c1 = in.getShort(at + 2) & 0xFFFF;
+                final int bits = in.getInt(at + 4);
+                colour(c0, palette[0]);
+                colour(c1, palette[1]);
+                if (bc3 || c0 > c1) {
+                    for (int c = 0; c < 3; c++) {
+                        palette[2][c] = (2 * palette[0][c] + palette[1][c]) / 3;
+                        palette[3][c] = (palette[0][c] + 2 * palette[1][c]) / 3;
+                    }
+                    palette[3][3] = 255;
+                } else {
+                    for (int c = 0; c < 3; c++) {
+                        palette[2][c] = (palette[0][c] + palette[1][c]) / 2;
+                        palette[3][c] = 0;
+                    }
+                    palette[3][3] = 0;
+                }
+                palette[2][3] = 255;
+
+                for (int i = 0; i < 16; i++) {
+                    final int x = (bx << 2) + (i & 3), y = (by << 2) + (i >> 2);
+                    if (x >= width || y >= height) continue;
+                    final int[] p = palette[(bits >>> (2 * i)) & 3];
+                    final int o = (y * width + x) * 4;
+                    out[o] = (byte) p[0];
+                    out[o + 1] = (byte) p[1];
+                    out[o + 2] = (byte) p[2];
+                    out[o + 3] = (byte) (bc3 ? alpha[i] : p[3]);
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Peak signal-to-noise ratio in dB between two equally-sized RGBA arrays over the selected
+     * channels; {@link Double#POSITIVE_INFINITY} when they are identical. The colour of pixels that
+     * are fully transparent in the reference is invisible and therefore not measured.
+     */
+    public static double psnr(final byte[] reference, final byte[] actual, final boolean withAlpha) {
+        long sum = 0L;
+        long count = 0L;
+        for (int i = 0; i < reference.length; i++) {
+            final boolean alpha = (i & 3) == 3;
+            if (alpha ? !withAlpha : reference[i | 3] == 0) continue;
+            final int d = (reference[i] & 0xFF) - (actual[i] & 0xFF);
+            sum += (long) d * d;
+            count++;
+        }
+        if (sum == 0L) return Double.POSITIVE_INFINITY;
+        final double mse = (double) sum / count;
+        return 10.0 * Math.log10(255.0 * 255.0 / mse);
+    }
+
+    private static void decodeAlpha(final ByteBuffer in, final int at, final int[] alpha) {
+        final int a0 = in.get(at) & 0xFF;
+        final int a1 = in.get(at + 1) & 0xFF;
+        final int[] ramp = new int[8];
+        ramp[0] = a0;
+        ramp[1] = a1;
+        if (a0 > a1) {
+            for (int k = 2; k < 8; k++) ramp[k] = ((8 - k) * a0 + (k - 1) * a1) / 7;
+        } else {
+            for (int k = 2; k < 6; k++) ramp[k] = ((6 - k) * a0 + (k - 1) * a1) / 5;
+            ramp[6] = 0;
+            ramp[7] = 255;
+        }
+        long bits = 0L;
+        for (int k = 0; k < 6; k++) bits |= (long) (in.get(at + 2 + k) & 0xFF) << (8 * k);
+        for (int i = 0; i < 16; i++) alpha[i] = ramp[(int) ((bits >>> (3 * i)) & 7)];
+    }
+
+    private static void colour(final int c, final int[] rgba) {
+        final int r = c >> 11, g = (c >> 5) & 0x3F, b = c & 0x1F;
+        rgba[0] = (r << 3) | (r >> 2);
+        rgba[1] = (g << 2) | (g >> 4);
+        rgba[2] = (b << 3) | (b >> 2);
+        rgba[3] = 255;
+    }
+}
@@ -102,9 +102,9 @@ public final class MaliciousImages {
     // ==========================================================================
     // DDS / BC
     // ==========================================================================
-    // THE BC PATH IS DORMANT: BCCodec.init() HARDCODES EVERY VERSION TO FALSE, SO BCReader THROWS
-    // BEFORE ITS ARITHMETIC RUNS. THESE FIXTURES ARM THEMSELVES THE DAY THE JNI BINDINGS LAND, AND
-    // THE OVERFLOW THEY TARGET IS ALREADY OBSERVABLE TODAY THROUGH THE PUBLIC DDSHeader HELPERS.
+    // BC1/BC3 ARE LIVE THROUGH THE PURE-JAVA ENCODER, SO BCReader RUNS ITS ARITHMETIC ON THE BC1
+    // FIXTURE; THE BC7 ONES ARM THEMSELVES THE DAY THE JNI BINDINGS LAND. THE OVERFLOW THEY TARGET
+    // IS OBSERVABLE EITHER WAY THROUGH THE PUBLIC DDSHeader HELPERS.
     private static void dds(final Path dir) throws IOException {
         Files.createDirectories(dir);
 
@@ -0,0 +1,102 @@
+package org.watermedia.test.support;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Baseline JPEGs generated at test time with the JDK encoder, optionally carrying a DRI restart
+ * interval. None of the on-disk fixtures use restart markers, and a large one is too heavy to
+ * commit, so tests and benchmarks that need them build them here.
+ *
+ * <p>Output is deterministic for a given size, colour mode and interval; the same image encoded
+ * with and without restart markers quantizes to the same coefficients and so decodes to the same
+ * pixels.
+ */
+public final class SyntheticJpeg {
+    private static final Path GENERATED_DIR = Path.of("build", "generated", "jpeg");
+
+    private SyntheticJpeg() {}
+
+    /**
+     * Encodes a textured {@code width x height} image as a baseline JPEG (4:2:0 YCbCr, or one
+     * grayscale component). {@code restartInterval} is in MCUs; zero writes no DRI marker.
+     */
+    public static byte[] encode(final int width, final int height, final boolean gray, final int restartInterval) {
+        final BufferedImage image = new BufferedImage(width, height, gray ? BufferedImage.TYPE_BYTE_GRAY : BufferedImage.TYPE_INT_RGB);
+        final Random random = new Random(0x5EED_0000L ^ ((long) width << 20) ^ height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                // SMOOTH GRADIENTS, A RIPPLE AND SOME NOISE, SO EVERY BLOCK CARRIES AC COEFFICIENTS
+                final int r = clamp(x * 255 / Math.max(1, width - 1) + random.nextInt(24) - 12);
+                final int g = clamp((int) (128 + 90 * Math.sin(x / 17.0) * Math.cos(y / 23.0)) + random.nextInt(24) - 12);
+                final int b = clamp(y * 255 / Math.max(1, height - 1) + random.nextInt(24) - 12);
+                image.setRGB(x, y, (r << 16) | (g << 8) | b);
+            }
+        }
+
+        final ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+             final ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            final ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(0.9f);
+            final IIOMetadata metadata = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(image), param);
+            if (restartInterval > 0) addRestartInterval(metadata, restartInterval);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, metadata), param);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to encode synthetic JPEG", e);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Writes (once) a large 4:2:0 JPEG with a restart marker every MCU row to
+     * {@code build/generated/jpeg} and returns its path, for benchmarks that read fixtures from disk.
+     */
+    public static Path restartFixture(final int width, final int height) {
+        final Path path = GENERATED_DIR.resolve("restart-" + width + "x" + height + ".jpg");
+        if (Files.isRegularFile(path)) return path;
+        try {
+            Files.createDirectories(GENERATED_DIR);
+            Files.write(path, encode(width, height, false, (width + 15) / 16));
+            return path;
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to write synthetic JPEG " + path, e);
+        }
+    }
+
+    // THE JDK WRITER TAKES THE DRI SEGMENT FROM ITS NATIVE METADATA TREE: markerSequence/dri
+    private static void addRestartInterval(final IIOMetadata metadata, final int interval) throws IOException {
+        final String format = "javax_imageio_jpeg_image_1.0";
+        final Node root = metadata.getAsTree(format);
+        final Element sequence = (Element) ((Element) root).getElementsByTagName("markerSequence").item(0);
+        final IIOMetadataNode dri = new IIOMetadataNode("dri");
+        dri.setAttribute("interval", Integer.toString(interval));
+        sequence.insertBefore(dri, sequence.getFirstChild());
+        metadata.setFromTree(format, root);
+    }
+
+    private static int clamp(final int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+}
@@ -0,0 +1,163 @@
+package org.watermedia.test.support;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+/**
+ * PNGs generated at test time with the JDK encoder: static images, plain or Adam7-interlaced, and APNGs whose
+ * frames are encoded the same way and repackaged as {@code fdAT}. The on-disk fixtures are small
+ * APNGs, and large images are too heavy to commit, so tests and benchmarks that need one build it
+ * here.
+ *
+ * <p>Output is deterministic for a given size and frame count.
+ */
+public final class SyntheticPng {
+    private static final Path GENERATED_DIR = Path.of("build", "generated", "png");
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private SyntheticPng() {}
+
+    /** Encodes a textured {@code width x height} RGBA image with a varying alpha channel. */
+    public static byte[] encode(final int width, final int height) {
+        return write(texture(width, height));
+    }
+
+    /** As {@link #encode}, written with Adam7 interlacing. */
+    public static byte[] encodeInterlaced(final int width, final int height) {
+        final ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        final ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        try (final ByteArrayOutputStream bytes = new ByteArrayOutputStream()) {
+            try (final ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(texture(width, height), null, null), param);
+            }
+            return bytes.toByteArray();
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to encode synthetic PNG", e);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static BufferedImage texture(final int width, final int height) {
+        final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        final Random random = new Random(0x5EED_0000L ^ ((long) width << 20) ^ height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                // GRADIENTS, A RIPPLE AND SOME NOISE, SO THE ENCODER PICKS A MIX OF FILTER TYPES
+                final int r = x * 255 / Math.max(1, width - 1);
+                final int g = (int) (128 + 90 * Math.sin(x / 17.0) * Math.cos(y / 23.0)) + random.nextInt(8);
+                final int b = y * 255 / Math.max(1, height - 1);
+                final int a = 255 - ((x + y) & 0x7F);
+                image.setRGB(x, y, (a << 24) | (r << 16) | (Math.min(255, g) << 8) | b);
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Encodes a {@code frames}-frame full-canvas RGBA APNG: a translucent gradient that scrolls one
+     * step per frame, every frame replacing the canvas ({@code APNG_DISPOSE_OP_NONE},
+     * {@code APNG_BLEND_OP_SOURCE}) for 100 ms. Frame 0 is the {@code IDAT} default image.
+     */
+    public static byte[] encodeAnimated(final int width, final int height, final int frames) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(SIGNATURE);
+        chunk(out, "IHDR", ByteBuffer.allocate(13).putInt(width).putInt(height).put((byte) 8).put((byte) 6).array());
+        chunk(out, "acTL", ByteBuffer.allocate(8).putInt(frames).putInt(0).array());
+        int sequence = 0;
+        for (int f = 0; f < frames; f++) {
+            final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    final int r = (x + f * 16) & 0xFF;
+                    final int b = (y + f * 8) & 0xFF;
+                    image.setRGB(x, y, ((0x80 | (x ^ y) & 0x7F) << 24) | (r << 16) | (((x + y) >> 2 & 0xFF) << 8) | b);
+                }
+            }
+            chunk(out, "fcTL", ByteBuffer.allocate(26).putInt(sequence++).putInt(width).putInt(height).putInt(0).putInt(0)
+                    .putShort((short) 1).putShort((short) 10).put((byte) 0).put((byte) 0).array());
+            final byte[] zlib = imageData(write(image));
+            if (f == 0) {
+                chunk(out, "IDAT", zlib);
+            } else {
+                chunk(out, "fdAT", ByteBuffer.allocate(4 + zlib.length).putInt(sequence++).put(zlib).array());
+            }
+        }
+        chunk(out, "IEND", new byte[0]);
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes (once) a large RGBA PNG to {@code build/generated/png} and returns its path, for
+     * benchmarks that read fixtures from disk.
+     */
+    public static Path fixture(final int width, final int height) {
+        final Path path = GENERATED_DIR.resolve("static-" + width + "x" + height + ".png");
+        if (!Files.isRegularFile(path)) store(path, encode(width, height));
+        return path;
+    }
+
+    /** As {@link #fixture}, for {@link #encodeAnimated}. */
+    public static Path animatedFixture(final int width, final int height, final int frames) {
+        final Path path = GENERATED_DIR.resolve("animated-" + width + "x" + height + "x" + frames + ".png");
+        if (!Files.isRegularFile(path)) store(path, encodeAnimated(width, height, frames));
+        return path;
+    }
+
+    private static void store(final Path path, final byte[] data) {
+        try {
+            Files.createDirectories(GENERATED_DIR);
+            Files.write(path, data);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to write synthetic PNG " + path, e);
+        }
+    }
+
+    private static byte[] write(final BufferedImage image) {
+        try (final ByteArrayOutputStream bytes = new ByteArrayOutputStream()) {
+            ImageIO.write(image, "png", bytes);
+            return bytes.toByteArray();
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to encode synthetic PNG", e);
+        }
+    }
+
+    // THE CONCATENATED IDAT PAYLOADS OF AN ENCODED PNG: ONE ZLIB STREAM
+    private static byte[] imageData(final byte[] png) {
+        final ByteBuffer in = ByteBuffer.wrap(png, SIGNATURE.length, png.length - SIGNATURE.length);
+        final ByteArrayOutputStream zlib = new ByteArrayOutputStream();
+        while (in.remaining() >= 12) {
+            final int length = in.getInt();
+            final byte[] type = new byte[4];
+            in.get(type);
+            if ("IDAT".equals(new String(type, StandardCharsets.US_ASCII))) zlib.write(png, in.position(), length);
+            in.position(in.position() + length + 4);
+        }
+        return zlib.toByteArray();
+    }
+
+    private static void chunk(final ByteArrayOutputStream out, final String type, final byte[] payload) {
+        final byte[] name = type.getBytes(StandardCharsets.US_ASCII);
+        final CRC32 crc = new CRC32();
+        crc.update(name);
+        crc.update(payload);
+        out.writeBytes(ByteBuffer.allocate(8).putInt(payload.length).put(name).array());
+        out.writeBytes(payload);
+        out.writeBytes(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+    }
+}
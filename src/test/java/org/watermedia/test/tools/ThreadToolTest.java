@@ -0,0 +1,53 @@
+package org.watermedia.test.tools;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.watermedia.tools.ThreadTool;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the fork/join band runner in {@link ThreadTool}.
+ */
+@DisplayName("ThreadTool")
+public class ThreadToolTest {
+
+    @Test
+    @DisplayName("parallel covers every index exactly once")
+    void parallelCoversRange() {
+        final int count = 100_003;
+        final AtomicIntegerArray seen = new AtomicIntegerArray(count);
+        ThreadTool.parallel(count, 7, (from, to) -> {
+            assertTrue(to - from >= 1);
+            for (int i = from; i < to; i++) seen.incrementAndGet(i);
+        });
+        for (int i = 0; i < count; i++) assertEquals(1, seen.get(i), "index " + i);
+    }
+
+    @Test
+    @DisplayName("parallel runs a range that fits one band inline")
+    void parallelRunsSmallRangeInline() {
+        final Thread caller = Thread.currentThread();
+        ThreadTool.parallel(16, 16, (from, to) -> {
+            assertSame(caller, Thread.currentThread());
+            assertEquals(0, from);
+            assertEquals(16, to);
+        });
+    }
+
+    @Test
+    @DisplayName("parallel rethrows a band's checked exception unwrapped")
+    void parallelRethrowsCheckedException() {
+        final IOException failure = new IOException("band 3");
+        final IOException thrown = assertThrows(IOException.class, () -> ThreadTool.parallel(64, 1, (from, to) -> {
+            if (from <= 3 && 3 < to) throw failure;
+        }));
+        assertSame(failure, thrown);
+    }
+}
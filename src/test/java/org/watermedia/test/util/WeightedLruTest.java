@@ -0,0 +1,73 @@
+package org.watermedia.test.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.watermedia.api.util.WeightedLru;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the weight accounting and cold-end trimming of {@link WeightedLru}.
+ */
+@DisplayName("WeightedLru")
+public class WeightedLruTest {
+
+    @Test
+    @DisplayName("trim drops the least recently used entries until the weight fits")
+    void trimDropsColdEntries() {
+        final WeightedLru<String, String> lru = new WeightedLru<>(value -> false);
+        lru.put("a", "A", 40);
+        lru.put("b", "B", 40);
+        lru.put("c", "C", 40);
+        // READING a MAKES b THE COLDEST ENTRY
+        assertEquals("A", lru.get("a"));
+
+        assertEquals(List.of("B"), lru.trim(100));
+        assertEquals(80, lru.weight());
+        assertNull(lru.get("b"));
+        assertEquals("A", lru.get("a"));
+        assertEquals("C", lru.get("c"));
+    }
+
+    @Test
+    @DisplayName("trim keeps pinned and weightless entries")
+    void trimSkipsPinnedAndWeightless() {
+        final Set<String> pinned = new HashSet<>(Set.of("A"));
+        final WeightedLru<String, String> lru = new WeightedLru<>(pinned::contains);
+        lru.put("a", "A", 60);
+        lru.put("z", "Z", 0);
+        lru.put("b", "B", 60);
+
+        assertEquals(List.of("B"), lru.trim(50));
+        assertEquals(60, lru.weight());
+        assertEquals("Z", lru.get("z"));
+
+        pinned.clear();
+        assertEquals(List.of("A"), lru.trim(50));
+        assertEquals(0, lru.weight());
+    }
+
+    @Test
+    @DisplayName("put re-weighs a key and remove only drops the expected value")
+    void putAndRemoveKeepWeight() {
+        final WeightedLru<String, String> lru = new WeightedLru<>(value -> false);
+        final String first = "first";
+        assertNull(lru.put("k", first, 0));
+        assertSame(first, lru.put("k", first, 30));
+        assertEquals(30, lru.weight());
+
+        assertFalse(lru.remove("k", "other"));
+        assertEquals(30, lru.weight());
+        assertTrue(lru.remove("k", first));
+        assertEquals(0, lru.weight());
+        assertTrue(lru.trim(0).isEmpty());
+    }
+}
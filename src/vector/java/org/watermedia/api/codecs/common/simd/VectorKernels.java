@@ -0,0 +1,318 @@
+package org.watermedia.api.codecs.common.simd;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+import static jdk.incubator.vector.VectorOperators.ASHR;
+import static jdk.incubator.vector.VectorOperators.LSHL;
+
+/**
+ * {@link SimdKernels} on the Vector API. Only loaded reflectively, once the incubator module is
+ * known to be resolved; nothing else may reference this class.
+ *
+ * <p>Every kernel mirrors a scalar loop statement for statement. {@code int} lanes wrap and shift
+ * exactly like {@code int} locals, so the results are identical as long as each expression keeps
+ * the scalar operand order of multiplications and shifts (additions may be reordered freely).
+ */
+final class VectorKernels extends SimdKernels {
+    private static final VectorSpecies<Integer> I = IntVector.SPECIES_256;
+    private static final VectorSpecies<Byte> B = ByteVector.SPECIES_64;
+    private static final VectorSpecies<Short> S = ShortVector.SPECIES_128;
+
+    // JPEG ISLOW CONSTANTS, SAME VALUES AS JPEGReader
+    private static final int CONST_BITS = 13;
+    private static final int PASS1_BITS = 2;
+    private static final int PASS1_SHIFT = CONST_BITS - PASS1_BITS;
+    private static final int PASS1_ROUND = 1 << (PASS1_SHIFT - 1);
+    private static final int PASS2_SHIFT = CONST_BITS + PASS1_BITS + 3;
+    private static final int PASS2_ROUND = 1 << (PASS2_SHIFT - 1);
+    private static final int FIX_0_298631336 = 2446;
+    private static final int FIX_0_390180644 = 3196;
+    private static final int FIX_0_541196100 = 4433;
+    private static final int FIX_0_765366865 = 6270;
+    private static final int FIX_0_899976223 = 7373;
+    private static final int FIX_1_175875602 = 9633;
+    private static final int FIX_1_501321110 = 12299;
+    private static final int FIX_1_847759065 = 15137;
+    private static final int FIX_1_961570560 = 16069;
+    private static final int FIX_2_053119869 = 16819;
+    private static final int FIX_2_562915447 = 20995;
+    private static final int FIX_3_072711026 = 25172;
+
+    // JPEG YCbCr -> RGB, libjpeg jdcolor.c 16-BIT FIXED POINT (SAME VALUES AS JPEGReader's TABLES)
+    private static final int YCC_HALF = 1 << 15;
+    private static final int YCC_CR_R = 91881;  // FIX(1.40200)
+    private static final int YCC_CB_B = 116130; // FIX(1.77200)
+    private static final int YCC_CR_G = 46802;  // FIX(0.71414)
+    private static final int YCC_CB_G = 22554;  // FIX(0.34414)
+
+    // VP8 IDCT CONSTANTS, SAME VALUES AS VP8Tables
+    private static final int COSPI8SQRT2MINUS1 = 20091;
+    private static final int SINPI8SQRT2 = 35468;
+
+    private static final VectorMask<Integer> AC = VectorMask.fromValues(I, false, true, true, true, true, true, true, true);
+    private static final IntVector LANE_BITS = IntVector.fromArray(I, new int[] {1, 2, 4, 8, 16, 32, 64, 128}, 0);
+    // CHROMA UPSAMPLING: EACH OF THE LOW / HIGH FOUR SAMPLES COVERS TWO PIXELS
+    private static final VectorShuffle<Integer> ZIP_LO = VectorShuffle.fromValues(I, 0, 0, 1, 1, 2, 2, 3, 3);
+    private static final VectorShuffle<Integer> ZIP_HI = VectorShuffle.fromValues(I, 4, 4, 5, 5, 6, 6, 7, 7);
+    // VP8 ROW PASS: BROADCAST ELEMENT k OF EACH 4-LANE BLOCK ROW; MID SELECTS OUTPUT COLUMNS 1 AND 2
+    private static final VectorShuffle<Integer> VP8_T0 = VectorShuffle.fromValues(I, 0, 0, 0, 0, 4, 4, 4, 4);
+    private static final VectorShuffle<Integer> VP8_T1 = VectorShuffle.fromValues(I, 1, 1, 1, 1, 5, 5, 5, 5);
+    private static final VectorShuffle<Integer> VP8_T2 = VectorShuffle.fromValues(I, 2, 2, 2, 2, 6, 6, 6, 6);
+    private static final VectorShuffle<Integer> VP8_T3 = VectorShuffle.fromValues(I, 3, 3, 3, 3, 7, 7, 7, 7);
+    private static final VectorMask<Integer> VP8_MID = VectorMask.fromValues(I, false, true, true, false, false, true, true, false);
+    private static final IntVector VP8_SIGN = IntVector.fromArray(I, new int[] {1, 1, -1, -1, 1, 1, -1, -1}, 0);
+
+    VectorKernels() {
+        // 256-BIT LANES EMULATED ON NARROWER HARDWARE ARE SLOWER THAN THE SCALAR LOOPS
+        if (IntVector.SPECIES_PREFERRED.vectorBitSize() < I.vectorBitSize())
+            throw new UnsupportedOperationException("Preferred vector size is " + IntVector.SPECIES_PREFERRED.vectorBitSize() + " bits");
+    }
+
+    @Override
+    public void jpegIdct(final int[] coef, final int block, final int[] quant, final int[] scratch,
+                         final byte[] dst, final int dstOff, final int dstStride) {
+        // DEQUANTIZE ONE BLOCK ROW PER VECTOR AND NOTE WHICH ROWS TAKE THE SCALAR ALL-AC-ZERO SHORTCUT.
+        // THE SHORTCUT TESTS THE RAW COEFFICIENTS, NOT THE PRODUCTS: A ZERO QUANT ENTRY OR AN OVERFLOWING
+        // PRODUCT MUST STILL RUN THE FULL ROW TRANSFORM
+        int flatRows = 0;
+        for (int v = 0; v < 8; v++) {
+            final IntVector row = IntVector.fromArray(I, coef, block + v * 8);
+            if (!row.compare(VectorOperators.NE, 0, AC).anyTrue()) flatRows |= 1 << v;
+            row.mul(IntVector.fromArray(I, quant, v * 8)).intoArray(scratch, v * 8);
+        }
+
+        // ROW PASS, ONE LANE PER BLOCK ROW: cN HOLDS COLUMN N OF EVERY ROW
+        transpose(scratch);
+        IntVector c0 = IntVector.fromArray(I, scratch, 0);
+        IntVector c1 = IntVector.fromArray(I, scratch, 8);
+        IntVector c2 = IntVector.fromArray(I, scratch, 16);
+        IntVector c3 = IntVector.fromArray(I, scratch, 24);
+        IntVector c4 = IntVector.fromArray(I, scratch, 32);
+        IntVector c5 = IntVector.fromArray(I, scratch, 40);
+        IntVector c6 = IntVector.fromArray(I, scratch, 48);
+        IntVector c7 = IntVector.fromArray(I, scratch, 56);
+
+        IntVector z1 = c2.add(c6).mul(FIX_0_541196100);
+        IntVector tmp2 = z1.add(c6.mul(-FIX_1_847759065));
+        IntVector tmp3 = z1.add(c2.mul(FIX_0_765366865));
+        IntVector tmp0 = c0.add(c4).lanewise(LSHL, CONST_BITS);
+        IntVector tmp1 = c0.sub(c4).lanewise(LSHL, CONST_BITS);
+
+        IntVector tmp10 = tmp0.add(tmp3);
+        IntVector tmp13 = tmp0.sub(tmp3);
+        IntVector tmp11 = tmp1.add(tmp2);
+        IntVector tmp12 = tmp1.sub(tmp2);
+
+        z1 = c7.add(c1);
+        IntVector z2 = c5.add(c3);
+        IntVector z3 = c7.add(c3);
+        IntVector z4 = c5.add(c1);
+        IntVector z5 = z3.add(z4).mul(FIX_1_175875602);
+        z1 = z1.mul(-FIX_0_899976223);
+        z2 = z2.mul(-FIX_2_562915447);
+        z3 = z3.mul(-FIX_1_961570560).add(z5);
+        z4 = z4.mul(-FIX_0_390180644).add(z5);
+        tmp0 = c7.mul(FIX_0_298631336).add(z1).add(z3);
+        tmp1 = c5.mul(FIX_2_053119869).add(z2).add(z4);
+        tmp2 = c3.mul(FIX_3_072711026).add(z2).add(z3);
+        tmp3 = c1.mul(FIX_1_501321110).add(z1).add(z4);
+
+        // FLAT ROWS ARE (DC * QUANT) << PASS1_BITS IN EVERY OUTPUT, WITHOUT THE FULL TRANSFORM'S INT WRAP
+        final VectorMask<Integer> flat = LANE_BITS.and(flatRows).compare(VectorOperators.NE, 0);
+        final IntVector dc = c0.lanewise(LSHL, PASS1_BITS);
+        // STORED ONE VECTOR PER OUTPUT COLUMN: scratch[x * 8 + v] IS THE SCALAR tmp[v * 8 + x]
+        tmp10.add(tmp3).add(PASS1_ROUND).lanewise(ASHR, PASS1_SHIFT).blend(dc, flat).intoArray(scratch, 0);
+        tmp10.sub(tmp3).add(PASS1_ROUND).lanewise(ASHR, PASS1_SHIFT).blend(dc, flat).intoArray(scratch, 56);
+        tmp11.add(tmp2).add(PASS1_ROUND).lanewise(ASHR, PASS1_SHIFT).blend(dc, flat).intoArray(scratch, 8);
+        tmp11.sub(tmp2).add(PASS1_ROUND).lanewise(ASHR, PASS1_SHIFT).blend(dc, flat).intoArray(scratch, 48);
+        tmp12.add(tmp1).add(PASS1_ROUND).lanewise(ASHR, PASS1_SHIFT).blend(dc, flat).intoArray(scratch, 16);
+        tmp12.sub(tmp1).add(PASS1_ROUND).lanewise(ASHR, PASS1_SHIFT).blend(dc, flat).intoArray(scratch, 40);
+        tmp13.add(tmp0).add(PASS1_ROUND).lanewise(ASHR, PASS1_SHIFT).blend(dc, flat).intoArray(scratch, 24);
+        tmp13.sub(tmp0).add(PASS1_ROUND).lanewise(ASHR, PASS1_SHIFT).blend(dc, flat).intoArray(scratch, 32);
+
+        // COLUMN PASS, ONE LANE PER BLOCK COLUMN: cN NOW HOLDS ROW N OF THE INTERMEDIATE
+        transpose(scratch);
+        c0 = IntVector.fromArray(I, scratch, 0);
+        c1 = IntVector.fromArray(I, scratch, 8);
+        c2 = IntVector.fromArray(I, scratch, 16);
+        c3 = IntVector.fromArray(I, scratch, 24);
+        c4 = IntVector.fromArray(I, scratch, 32);
+        c5 = IntVector.fromArray(I, scratch, 40);
+        c6 = IntVector.fromArray(I, scratch, 48);
+        c7 = IntVector.fromArray(I, scratch, 56);
+
+        z1 = c2.add(c6).mul(FIX_0_541196100);
+        tmp2 = z1.add(c6.mul(-FIX_1_847759065));
+        tmp3 = z1.add(c2.mul(FIX_0_765366865));
+        tmp0 = c0.add(c4).lanewise(LSHL, CONST_BITS);
+        tmp1 = c0.sub(c4).lanewise(LSHL, CONST_BITS);
+
+        tmp10 = tmp0.add(tmp3);
+        tmp13 = tmp0.sub(tmp3);
+        tmp11 = tmp1.add(tmp2);
+        tmp12 = tmp1.sub(tmp2);
+
+        z1 = c7.add(c1);
+        z2 = c5.add(c3);
+        z3 = c7.add(c3);
+        z4 = c5.add(c1);
+        z5 = z3.add(z4).mul(FIX_1_175875602);
+        z1 = z1.mul(-FIX_0_899976223);
+        z2 = z2.mul(-FIX_2_562915447);
+        z3 = z3.mul(-FIX_1_961570560).add(z5);
+        z4 = z4.mul(-FIX_0_390180644).add(z5);
+        tmp0 = c7.mul(FIX_0_298631336).add(z1).add(z3);
+        tmp1 = c5.mul(FIX_2_053119869).add(z2).add(z4);
+        tmp2 = c3.mul(FIX_3_072711026).add(z2).add(z3);
+        tmp3 = c1.mul(FIX_1_501321110).add(z1).add(z4);
+
+        storeSamples(tmp10.add(tmp3), dst, dstOff);
+        storeSamples(tmp10.sub(tmp3), dst, dstOff + dstStride * 7);
+        storeSamples(tmp11.add(tmp2), dst, dstOff + dstStride);
+        storeSamples(tmp11.sub(tmp2), dst, dstOff + dstStride * 6);
+        storeSamples(tmp12.add(tmp1), dst, dstOff + dstStride * 2);
+        storeSamples(tmp12.sub(tmp1), dst, dstOff + dstStride * 5);
+        storeSamples(tmp13.add(tmp0), dst, dstOff + dstStride * 3);
+        storeSamples(tmp13.sub(tmp0), dst, dstOff + dstStride * 4);
+    }
+
+    // IN-PLACE TRANSPOSE OF A ROW-MAJOR 8x8 int BLOCK. SCALAR ON PURPOSE: GATHER LOADS AND THREE-STAGE rearrange/blend
+    // TRANSPOSES ARE NOT COMPILED WELL ON EVERY SUPPORTED JDK AND MEASURED SLOWER THAN THESE 28 SWAPS
+    private static void transpose(final int[] m) {
+        for (int i = 1; i < 8; i++) {
+            for (int j = 0; j < i; j++) {
+                final int t = m[i * 8 + j];
+                m[i * 8 + j] = m[j * 8 + i];
+                m[j * 8 + i] = t;
+            }
+        }
+    }
+
+    // DESCALE, LEVEL SHIFT +128, CLAMP TO 0..255 AND NARROW ONE 8-SAMPLE ROW
+    private static void storeSamples(final IntVector sum, final byte[] dst, final int off) {
+        final IntVector samples = sum.add(PASS2_ROUND).lanewise(ASHR, PASS2_SHIFT).add(128).max(0).min(255);
+        ((ByteVector) samples.convertShape(VectorOperators.I2B, B, 0)).intoArray(dst, off);
+    }
+
+    @Override
+    public void jpegYccRow(final byte[] y, final int yOff, final byte[] cb, final int cbOff, final byte[] cr, final int crOff,
+                           final int chromaShift, final int[] out, final int outOff, final int width) {
+        int x = 0;
+        if (chromaShift == 0) {
+            for (; x + 8 <= width; x += 8) {
+                final IntVector cbv = unsigned(cb, cbOff + x).sub(128);
+                final IntVector crv = unsigned(cr, crOff + x).sub(128);
+                this.yccPixels(unsigned(y, yOff + x), cbv, crv, out, outOff + x);
+            }
+        } else {
+            for (; x + 16 <= width; x += 16) {
+                final IntVector cbv = unsigned(cb, cbOff + (x >> 1)).sub(128);
+                final IntVector crv = unsigned(cr, crOff + (x >> 1)).sub(128);
+                this.yccPixels(unsigned(y, yOff + x), cbv.rearrange(ZIP_LO), crv.rearrange(ZIP_LO), out, outOff + x);
+                this.yccPixels(unsigned(y, yOff + x + 8), cbv.rearrange(ZIP_HI), crv.rearrange(ZIP_HI), out, outOff + x + 8);
+            }
+        }
+        for (; x < width; x++) {
+            final int yy = y[yOff + x] & 0xFF;
+            final int cbs = (cb[cbOff + (x >> chromaShift)] & 0xFF) - 128;
+            final int crs = (cr[crOff + (x >> chromaShift)] & 0xFF) - 128;
+            final int r = clamp(yy + ((YCC_CR_R * crs + YCC_HALF) >> 16));
+            final int g = clamp(yy + ((-YCC_CB_G * cbs + YCC_HALF - YCC_CR_G * crs) >> 16));
+            final int b = clamp(yy + ((YCC_CB_B * cbs + YCC_HALF) >> 16));
+            out[outOff + x] = 0xFF000000 | (r << 16) | (g << 8) | b;
+        }
+    }
+
+    private void yccPixels(final IntVector yy, final IntVector cbs, final IntVector crs, final int[] out, final int off) {
+        final IntVector r = yy.add(crs.mul(YCC_CR_R).add(YCC_HALF).lanewise(ASHR, 16));
+        final IntVector g = yy.add(cbs.mul(-YCC_CB_G).add(YCC_HALF).add(crs.mul(-YCC_CR_G)).lanewise(ASHR, 16));
+        final IntVector b = yy.add(cbs.mul(YCC_CB_B).add(YCC_HALF).lanewise(ASHR, 16));
+        pack(r, g, b).intoArray(out, off);
+    }
+
+    @Override
+    public void yuvRow(final byte[] y, final int yOff, final byte[] u, final byte[] v, final int uvOff,
+                       final int[] out, final int outOff, final int width) {
+        int x = 0;
+        for (; x + 16 <= width; x += 16) {
+            final IntVector d = unsigned(u, uvOff + (x >> 1)).sub(128);
+            final IntVector e = unsigned(v, uvOff + (x >> 1)).sub(128);
+            // CHROMA TERMS ONCE PER SAMPLE, THEN SPREAD OVER THE TWO PIXELS EACH ONE COVERS
+            final IntVector rc = e.mul(409).add(128);
+            final IntVector gc = d.mul(-100).add(e.mul(-208)).add(128);
+            final IntVector bc = d.mul(516).add(128);
+            this.yuvPixels(unsigned(y, yOff + x), rc.rearrange(ZIP_LO), gc.rearrange(ZIP_LO), bc.rearrange(ZIP_LO), out, outOff + x);
+            this.yuvPixels(unsigned(y, yOff + x + 8), rc.rearrange(ZIP_HI), gc.rearrange(ZIP_HI), bc.rearrange(ZIP_HI), out, outOff + x + 8);
+        }
+        for (; x < width; x++) {
+            final int c = (y[yOff + x] & 0xFF) - 16;
+            final int d = (u[uvOff + (x >> 1)] & 0xFF) - 128;
+            final int e = (v[uvOff + (x >> 1)] & 0xFF) - 128;
+            final int r = clamp((298 * c + 409 * e + 128) >> 8);
+            final int g = clamp((298 * c - 100 * d - 208 * e + 128) >> 8);
+            final int b = clamp((298 * c + 516 * d + 128) >> 8);
+            out[outOff + x] = 0xFF000000 | (r << 16) | (g << 8) | b;
+        }
+    }
+
+    private void yuvPixels(final IntVector yy, final IntVector rc, final IntVector gc, final IntVector bc, final int[] out, final int off) {
+        final IntVector c = yy.sub(16).mul(298);
+        pack(c.add(rc).lanewise(ASHR, 8), c.add(gc).lanewise(ASHR, 8), c.add(bc).lanewise(ASHR, 8)).intoArray(out, off);
+    }
+
+    @Override
+    public void vp8IdctAdd(final short[] coeffs, final byte[] dst, final int off, final int stride) {
+        // VERTICAL PASS, ONE LANE PER BLOCK COLUMN OF BOTH BLOCKS
+        final IntVector c0 = (IntVector) ShortVector.fromArray(S, coeffs, 0).convertShape(VectorOperators.S2I, I, 0);
+        final IntVector c1 = (IntVector) ShortVector.fromArray(S, coeffs, 8).convertShape(VectorOperators.S2I, I, 0);
+        final IntVector c2 = (IntVector) ShortVector.fromArray(S, coeffs, 16).convertShape(VectorOperators.S2I, I, 0);
+        final IntVector c3 = (IntVector) ShortVector.fromArray(S, coeffs, 24).convertShape(VectorOperators.S2I, I, 0);
+        final IntVector a = c0.add(c2);
+        final IntVector b = c0.sub(c2);
+        final IntVector tt = c1.mul(SINPI8SQRT2).lanewise(ASHR, 16).sub(c3.add(c3.mul(COSPI8SQRT2MINUS1).lanewise(ASHR, 16)));
+        final IntVector d = c1.add(c1.mul(COSPI8SQRT2MINUS1).lanewise(ASHR, 16)).add(c3.mul(SINPI8SQRT2).lanewise(ASHR, 16));
+
+        // HORIZONTAL PASS PER PIXEL ROW: EVERY LANE RECOMPUTES ITS BLOCK ROW'S BUTTERFLY, THEN KEEPS ITS OWN OUTPUT
+        vp8Row(a.add(d), dst, off, stride);
+        vp8Row(b.add(tt), dst, off + stride, stride);
+        vp8Row(b.sub(tt), dst, off + stride * 2, stride);
+        vp8Row(a.sub(d), dst, off + stride * 3, stride);
+    }
+
+    private static void vp8Row(final IntVector row, final byte[] dst, final int off, final int stride) {
+        final IntVector t0 = row.rearrange(VP8_T0);
+        final IntVector t1 = row.rearrange(VP8_T1);
+        final IntVector t2 = row.rearrange(VP8_T2);
+        final IntVector t3 = row.rearrange(VP8_T3);
+        final IntVector a = t0.add(t2);
+        final IntVector b = t0.sub(t2);
+        final IntVector tt = t1.mul(SINPI8SQRT2).lanewise(ASHR, 16).sub(t3.add(t3.mul(COSPI8SQRT2MINUS1).lanewise(ASHR, 16)));
+        final IntVector d = t1.add(t1.mul(COSPI8SQRT2MINUS1).lanewise(ASHR, 16)).add(t3.mul(SINPI8SQRT2).lanewise(ASHR, 16));
+        // COLUMNS 0..3 ARE a + d, b + tt, b - tt, a - d
+        final IntVector residual = a.blend(b, VP8_MID).add(d.blend(tt, VP8_MID).mul(VP8_SIGN)).add(4).lanewise(ASHR, 3);
+        final IntVector pixels = unsigned(dst, off).add(residual).max(0).min(255);
+        ((ByteVector) pixels.convertShape(VectorOperators.I2B, B, 0)).intoArray(dst, off);
+    }
+
+    // EIGHT UNSIGNED BYTES WIDENED TO INT LANES (B2I SIGN-EXTENDS)
+    private static IntVector unsigned(final byte[] src, final int off) {
+        return ((IntVector) ByteVector.fromArray(B, src, off).convertShape(VectorOperators.B2I, I, 0)).and(0xFF);
+    }
+
+    private static IntVector pack(final IntVector r, final IntVector g, final IntVector b) {
+        return r.max(0).min(255).lanewise(LSHL, 16)
+                .or(g.max(0).min(255).lanewise(LSHL, 8))
+                .or(b.max(0).min(255))
+                .or(0xFF000000);
+    }
+
+    private static int clamp(final int value) {
+        return value < 0 ? 0 : Math.min(value, 255);
+    }
+}